@@ -63,6 +63,7 @@ import org.neo4j.internal.id.IdGeneratorFactory;
 import org.neo4j.internal.id.IdType;
 import org.neo4j.internal.id.IdValidator;
 import org.neo4j.internal.index.label.NativeLabelScanStore;
+import org.neo4j.internal.index.label.NativeRelationshipTypeScanStore;
 import org.neo4j.internal.kernel.api.InternalIndexState;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
 import org.neo4j.internal.recordstorage.DirectRecordAccessSet;
@@ -553,7 +554,7 @@ public class BatchInserterImpl implements BatchInserter
         LogProvider userLogProvider = logService.getUserLogProvider();
         IndexStoreView indexStoreView = new DynamicIndexStoreView( storeIndexStoreView, labelIndex, NO_LOCK_SERVICE,
                 () -> new RecordStorageReader( neoStores ), logProvider );
-        IndexStatisticsStore indexStatisticsStore = new IndexStatisticsStore( pageCache, databaseLayout.indexStatisticsStore(),
+        IndexStatisticsStore indexStatisticsStore = new IndexStatisticsStore( pageCache, fileSystem, databaseLayout.indexStatisticsStore(),
                 immediate(), false );
         IndexingService indexingService = IndexingServiceFactory
                 .createIndexingService( config, jobScheduler, indexProviderMap, indexStoreView, new NonTransactionalTokenNameLookup( tokenHolders ),
@@ -1076,6 +1077,8 @@ public class BatchInserterImpl implements BatchInserter
             rebuildCounts();
             NativeLabelScanStore labelIndex = buildLabelIndex();
             repopulateAllIndexes( labelIndex );
+            // Relationships created here are not in the relationship type scan store, let the database rebuild it on next startup
+            fileSystem.deleteFile( NativeRelationshipTypeScanStore.getRelationshipTypeScanStoreFile( databaseLayout ) );
             idGeneratorFactory.visit( IdGenerator::markHighestWrittenAtHighId );
             neoStores.flush( IOLimiter.UNLIMITED );
             createEmptyTransactionLog();
@@ -52,6 +52,10 @@ public enum Group
     INDEX_UPDATING( "IndexUpdating", ExecutorServiceFactory.singleThread() ), // Single-threaded to serialise updates with opening/closing/flushing of indexes.
     /** Thread pool for anyone who want some help doing file IO in parallel. */
     FILE_IO_HELPER( "FileIOHelper" ),
+    /** Reads and decodes the transaction log ahead of the transactions being applied by recovery. */
+    RECOVERY_READ_AHEAD( "RecoveryReadAhead" ),
+    /** Applies recovered transactions which change disjoint sets of records concurrently. */
+    RECOVERY_APPLY( "RecoveryApply" ),
     NATIVE_SECURITY( "NativeSecurity" ),
     METRICS_EVENT( "MetricsEvent" ),
     /** Threads that perform database manager operations necessary to bring databases to their desired states. */
@@ -62,6 +66,8 @@ public enum Group
     // CYPHER.
     /** Thread pool for parallel Cypher query execution. */
     CYPHER_WORKER( "CypherWorker", ExecutorServiceFactory.workStealing() ),
+    /** Workers of the interpreted runtime that aggregate over a node scan in parallel. */
+    CYPHER_PARALLEL_AGGREGATION( "CypherParallelAggregation", ExecutorServiceFactory.workStealing() ),
 
     // DATA COLLECTOR
     DATA_COLLECTOR( "DataCollector" ),
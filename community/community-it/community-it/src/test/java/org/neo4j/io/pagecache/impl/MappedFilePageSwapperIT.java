@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PageSwapperTest;
+import org.neo4j.test.Race;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.test.Race.throwing;
+
+public class MappedFilePageSwapperIT extends PageSwapperTest
+{
+    private DefaultFileSystemAbstraction fileSystem;
+
+    @BeforeEach
+    void setUp()
+    {
+        fileSystem = new DefaultFileSystemAbstraction();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        IOUtils.closeAll( fileSystem );
+    }
+
+    @Override
+    protected PageSwapperFactory swapperFactory()
+    {
+        MappedFilePageSwapperFactory factory = new MappedFilePageSwapperFactory();
+        factory.open( fileSystem );
+        return factory;
+    }
+
+    @Override
+    protected void mkdirs( File dir ) throws IOException
+    {
+        fileSystem.mkdirs( dir );
+    }
+
+    @Test
+    @DisabledOnOs( OS.WINDOWS )
+    void mustMapFilesOnRealFileSystem() throws Exception
+    {
+        PageSwapperFactory factory = createSwapperFactory();
+        PageSwapper swapper = createSwapper( factory, testDir.createFile( "file" ), 4, NO_CALLBACK, false, false );
+        assertThat( swapper, instanceOf( MappedFilePageSwapper.class ) );
+    }
+
+    @Test
+    void mustFallBackToChannelSwapperWhenFileSystemCannotMapFiles() throws Exception
+    {
+        try ( EphemeralFileSystemAbstraction ephemeralFileSystem = new EphemeralFileSystemAbstraction() )
+        {
+            File file = new File( "file" ).getCanonicalFile();
+            MappedFilePageSwapperFactory factory = new MappedFilePageSwapperFactory();
+            factory.open( ephemeralFileSystem );
+            PageSwapper swapper = createSwapper( factory, file, 4, NO_CALLBACK, true, false );
+            assertThat( swapper, instanceOf( SingleFilePageSwapper.class ) );
+            swapper.close();
+        }
+    }
+
+    @Test
+    void mustReadPagesWrittenBeyondTheMappedPartOfTheFile() throws Exception
+    {
+        PageSwapperFactory factory = createSwapperFactory();
+        PageSwapper swapper = createSwapper( factory, testDir.file( "file" ), 4, NO_CALLBACK, true, false );
+        long page = createPage( 4 );
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            putInt( page, 0, i );
+            swapper.write( i, page );
+            // Reading back grows the mapping to cover the page we just appended.
+            clear( page );
+            assertThat( swapper.read( i, page ), is( 4L ) );
+            assertThat( getInt( page, 0 ), is( i ) );
+        }
+        for ( int i = 0; i < 100; i++ )
+        {
+            // These writes now go to the mapped memory.
+            putInt( page, 0, -i );
+            swapper.write( i, page );
+        }
+        swapper.force();
+        swapper.close();
+
+        swapper = createSwapper( factory, testDir.file( "file" ), 4, NO_CALLBACK, false, false );
+        assertThat( swapper.getLastPageId(), is( 99L ) );
+        for ( int i = 0; i < 100; i++ )
+        {
+            swapper.read( i, page );
+            assertThat( getInt( page, 0 ), is( -i ) );
+        }
+    }
+
+    @Test
+    void truncateMustNotPullTheMappingFromUnderConcurrentReads() throws Throwable
+    {
+        int pageCount = 100;
+        PageSwapperFactory factory = createSwapperFactory();
+        PageSwapper swapper = createSwapper( factory, testDir.file( "file" ), 4, NO_CALLBACK, true, false );
+        long writePage = createPage( 4 );
+        long readPage = createPage( 4 );
+
+        // A read that copied from a mapping of a part of the file that had been truncated away would crash the JVM.
+        Race race = new Race().withMaxDuration( 1, TimeUnit.SECONDS );
+        race.addContestant( throwing( () ->
+        {
+            swapper.truncate();
+            for ( int i = 0; i < pageCount; i++ )
+            {
+                putInt( writePage, 0, i + 1 );
+                swapper.write( i, writePage );
+            }
+        } ) );
+        race.addContestant( throwing( () ->
+        {
+            for ( int i = 0; i < pageCount; i++ )
+            {
+                long bytesRead = swapper.read( i, readPage );
+                int value = getInt( readPage, 0 );
+                assertTrue( bytesRead == 0 ? value == 0 : value == i + 1, "page " + i + " read " + bytesRead + " bytes of value " + value );
+            }
+        } ) );
+        race.go();
+        swapper.close();
+    }
+}
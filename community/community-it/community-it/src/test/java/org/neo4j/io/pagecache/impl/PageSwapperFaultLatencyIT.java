@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the page fault latency of the channel based {@link SingleFilePageSwapper} to that of the memory mapped
+ * {@link MappedFilePageSwapper}, for a file that fits in the OS page cache. A fault through the mapped swapper is a
+ * plain memory copy, while a fault through the channel is a system call followed by the same copy, so the mapped
+ * swapper must be no slower. The bound on the median is generous, since the latencies depend on the machine running
+ * the test.
+ */
+@TestDirectoryExtension
+class PageSwapperFaultLatencyIT
+{
+    private static final int PAGE_SIZE = 8192;
+    private static final int PAGES = 4096;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int FAULTS = 200_000;
+
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private FileSystemAbstraction fs;
+
+    private MemoryAllocator mman;
+
+    @BeforeEach
+    void setUp()
+    {
+        mman = MemoryAllocator.createAllocator( "1 MiB", new LocalMemoryTracker() );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        mman.close();
+    }
+
+    @Test
+    void mappedSwapperMustNotFaultSlowerThanChannelSwapper() throws Exception
+    {
+        File file = testDirectory.file( "store" );
+        long page = mman.allocateAligned( PAGE_SIZE, 1 );
+        writeFile( file, page );
+
+        long[] pageIds = new long[FAULTS];
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        for ( int i = 0; i < FAULTS; i++ )
+        {
+            pageIds[i] = rng.nextInt( PAGES );
+        }
+
+        long[] single = measure( new SingleFilePageSwapperFactory(), file, page, pageIds );
+        long[] mmap = measure( new MappedFilePageSwapperFactory(), file, page, pageIds );
+
+        String latencies = "Random page fault latency over " + FAULTS + " faults of " + PAGE_SIZE + " byte pages, in nanoseconds:" +
+                format( "single", single ) + format( "mmap", mmap );
+        assertThat( latencies, percentile( mmap, 0.5 ), lessThanOrEqualTo( 2 * percentile( single, 0.5 ) ) );
+    }
+
+    private void writeFile( File file, long page ) throws IOException
+    {
+        PageSwapperFactory factory = new SingleFilePageSwapperFactory();
+        factory.open( fs );
+        PageSwapper swapper = factory.createPageSwapper( file, PAGE_SIZE, null, true, false, false );
+        try
+        {
+            for ( int i = 0; i < PAGES; i++ )
+            {
+                UnsafeUtil.setMemory( page, PAGE_SIZE, (byte) i );
+                UnsafeUtil.putInt( page, i );
+                swapper.write( i, page );
+            }
+            swapper.force();
+        }
+        finally
+        {
+            swapper.close();
+        }
+    }
+
+    private long[] measure( PageSwapperFactory factory, File file, long page, long[] pageIds ) throws IOException
+    {
+        factory.open( fs );
+        PageSwapper swapper = factory.createPageSwapper( file, PAGE_SIZE, null, false, false, false );
+        try
+        {
+            // Make sure both swappers see a file that is entirely in the OS page cache.
+            for ( int round = 0; round < WARMUP_ROUNDS; round++ )
+            {
+                for ( int i = 0; i < PAGES; i++ )
+                {
+                    swapper.read( i, page );
+                }
+            }
+
+            long[] latencies = new long[pageIds.length];
+            for ( int i = 0; i < pageIds.length; i++ )
+            {
+                long start = System.nanoTime();
+                swapper.read( pageIds[i], page );
+                latencies[i] = System.nanoTime() - start;
+                assertEquals( (int) pageIds[i], UnsafeUtil.getInt( page ) );
+            }
+            Arrays.sort( latencies );
+            return latencies;
+        }
+        finally
+        {
+            swapper.close();
+            factory.close();
+        }
+    }
+
+    private static String format( String name, long[] sortedLatencies )
+    {
+        long sum = 0;
+        for ( long latency : sortedLatencies )
+        {
+            sum += latency;
+        }
+        return String.format( "%n  %-6s mean=%d p50=%d p99=%d p999=%d max=%d", name,
+                sum / sortedLatencies.length,
+                percentile( sortedLatencies, 0.5 ),
+                percentile( sortedLatencies, 0.99 ),
+                percentile( sortedLatencies, 0.999 ),
+                sortedLatencies[sortedLatencies.length - 1] );
+    }
+
+    private static long percentile( long[] sortedLatencies, double percentile )
+    {
+        return sortedLatencies[(int) Math.min( sortedLatencies.length - 1, Math.round( sortedLatencies.length * percentile ) )];
+    }
+}
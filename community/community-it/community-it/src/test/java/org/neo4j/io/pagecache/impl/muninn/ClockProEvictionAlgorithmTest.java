@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.memory.EmptyMemoryTracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClockProEvictionAlgorithmTest
+{
+    private static final int PAGE_COUNT = 16;
+    // The default agingInterval of the algorithm.
+    private static final int AGING_INTERVAL = 8;
+
+    private MemoryAllocator mman;
+    private PageList pageList;
+    private ClockProEvictionAlgorithm algorithm;
+
+    @BeforeEach
+    void setUp()
+    {
+        int pageSize = UnsafeUtil.pageSize();
+        mman = MemoryAllocator.createAllocator( "1 MiB", EmptyMemoryTracker.INSTANCE );
+        pageList = new PageList( PAGE_COUNT, pageSize, mman, new SwapperSet(), VictimPageReference.getVictimPage( pageSize ), 8 );
+        algorithm = new ClockProEvictionAlgorithm( pageList );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        mman.close();
+    }
+
+    @Test
+    void mustEvictColdPages()
+    {
+        long pageRef = pageList.deref( 0 );
+        completeRevolution();
+        pageList.incrementUsage( pageRef );
+
+        assertTrue( algorithm.shouldEvict( pageRef ) );
+    }
+
+    @Test
+    void mustNotAgeHotPagesOutsideOfAgingRevolutions()
+    {
+        long pageRef = pageList.deref( 0 );
+        completeRevolution();
+        makeHot( pageRef );
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            assertFalse( algorithm.shouldEvict( pageRef ) );
+        }
+        assertEquals( 4, pageList.getUsageCounter( pageRef ) );
+    }
+
+    @Test
+    void mustAgeHotPagesInAgingRevolutions()
+    {
+        long pageRef = pageList.deref( 0 );
+        makeHot( pageRef );
+
+        assertFalse( algorithm.shouldEvict( pageRef ) );
+        assertEquals( 3, pageList.getUsageCounter( pageRef ) );
+    }
+
+    @Test
+    void mustAgeHotPagesAgainOnceTheClockHandsHaveVisitedEnoughPages()
+    {
+        long pageRef = pageList.deref( 0 );
+        completeRevolution();
+        makeHot( pageRef );
+        for ( int i = 1; i < AGING_INTERVAL; i++ )
+        {
+            completeRevolution();
+        }
+
+        assertFalse( algorithm.shouldEvict( pageRef ) );
+        assertEquals( 3, pageList.getUsageCounter( pageRef ) );
+    }
+
+    @Test
+    void mustAgeHotPagesWhenStarvedOfColdPages()
+    {
+        completeRevolution();
+        for ( int i = 0; i < PAGE_COUNT; i++ )
+        {
+            makeHot( pageList.deref( i ) );
+        }
+
+        for ( int i = 0; i < PAGE_COUNT; i++ )
+        {
+            assertFalse( algorithm.shouldEvict( pageList.deref( i ) ) );
+        }
+        assertEquals( 4, pageList.getUsageCounter( pageList.deref( 0 ) ) );
+        assertEquals( 3, pageList.getUsageCounter( pageList.deref( PAGE_COUNT - 1 ) ) );
+    }
+
+    @Test
+    void mustAdmitRecentlyEvictedPagesAsHot()
+    {
+        long evictedPageRef = pageList.deref( 0 );
+        long faultedPageRef = pageList.deref( 1 );
+        long otherPageRef = pageList.deref( 2 );
+        algorithm.pageEvicted( evictedPageRef, 1, 42 );
+
+        algorithm.pageFaulted( otherPageRef, 1, 43 );
+        algorithm.pageFaulted( faultedPageRef, 1, 42 );
+
+        assertEquals( 0, pageList.getUsageCounter( otherPageRef ) );
+        assertEquals( 4, pageList.getUsageCounter( faultedPageRef ) );
+    }
+
+    @Test
+    void ghostEntriesMustOnlyPromoteOnce()
+    {
+        long pageRef = pageList.deref( 1 );
+        algorithm.pageEvicted( pageList.deref( 0 ), 1, 42 );
+        algorithm.pageFaulted( pageRef, 1, 42 );
+        pageList.decrementUsage( pageRef );
+        pageList.decrementUsage( pageRef );
+        pageList.decrementUsage( pageRef );
+        pageList.decrementUsage( pageRef );
+
+        algorithm.pageFaulted( pageRef, 1, 42 );
+
+        assertEquals( 0, pageList.getUsageCounter( pageRef ) );
+    }
+
+    private void completeRevolution()
+    {
+        // Any clock hand visiting as many pages as there are in the cache counts as a revolution.
+        long coldPageRef = pageList.deref( PAGE_COUNT - 1 );
+        for ( int i = 0; i < PAGE_COUNT; i++ )
+        {
+            algorithm.shouldEvict( coldPageRef );
+        }
+    }
+
+    private void makeHot( long pageRef )
+    {
+        pageList.setMaxUsage( pageRef );
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracerSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * Replays a trace of point look-ups into a small hot working set, interleaved with full scans of a file that is much
+ * larger than the page cache, and compares the hit ratios of the point look-ups under the different eviction policies.
+ */
+@TestDirectoryExtension
+class EvictionPolicyHitRatioIT
+{
+    private static final int CACHE_PAGES = 256;
+    private static final int HOT_PAGES = 64;
+    private static final int SCAN_PAGES = 16 * CACHE_PAGES;
+    private static final int LOOKUPS_PER_ROUND = 20 * HOT_PAGES;
+    private static final int ROUNDS = 10;
+
+    @Inject
+    private FileSystemAbstraction fs;
+    @Inject
+    private TestDirectory directory;
+
+    private ThreadPoolJobScheduler jobScheduler;
+    private File hotFile;
+    private File scanFile;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        jobScheduler = new ThreadPoolJobScheduler();
+        hotFile = directory.file( "hot" );
+        scanFile = directory.file( "scan" );
+        createFile( hotFile, HOT_PAGES );
+        createFile( scanFile, SCAN_PAGES );
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        jobScheduler.close();
+    }
+
+    @Test
+    void scanResistantPolicyMustKeepHotPagesCachedThroughScans() throws IOException
+    {
+        double clockHitRatio = replayTrace( EvictionPolicy.CLOCK );
+        double clockProHitRatio = replayTrace( EvictionPolicy.CLOCK_PRO );
+
+        // Every round looks up each hot page many times, so even a policy that lets every scan flush out the whole hot working set
+        // faults at most HOT_PAGES times per round. A scan resistant policy must keep almost all of the hot pages cached instead.
+        double scanFlushedHitRatio = 1.0 - HOT_PAGES / (double) LOOKUPS_PER_ROUND;
+        double scanResistantHitRatio = 1.0 - (HOT_PAGES / 4) / (double) LOOKUPS_PER_ROUND;
+        assertThat( clockHitRatio, greaterThanOrEqualTo( scanFlushedHitRatio ) );
+        assertThat( clockProHitRatio, greaterThanOrEqualTo( scanResistantHitRatio ) );
+        assertThat( clockProHitRatio, greaterThan( clockHitRatio ) );
+    }
+
+    private double replayTrace( EvictionPolicy policy ) throws IOException
+    {
+        SplittableRandom random = new SplittableRandom( 42 );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MemoryAllocator allocator = createAllocator();
+        try ( MuninnPageCache pageCache = new MuninnPageCache( openSwapperFactory(), allocator, tracer, DefaultPageCursorTracerSupplier.INSTANCE,
+                EmptyVersionContextSupplier.EMPTY, jobScheduler, policy );
+              PagedFile hot = pageCache.map( hotFile, pageCache.pageSize() );
+              PagedFile scan = pageCache.map( scanFile, pageCache.pageSize() ) )
+        {
+            long hits = 0;
+            long faults = 0;
+            for ( int round = 0; round < ROUNDS; round++ )
+            {
+                pageCache.reportEvents();
+                long hitsBefore = tracer.hits();
+                long faultsBefore = tracer.faults();
+                for ( int i = 0; i < LOOKUPS_PER_ROUND; i++ )
+                {
+                    try ( PageCursor cursor = hot.io( random.nextInt( HOT_PAGES ), PF_SHARED_READ_LOCK ) )
+                    {
+                        assertTrue( cursor.next() );
+                    }
+                }
+                pageCache.reportEvents();
+                if ( round > 0 )
+                {
+                    // The first round only warms up the hot working set.
+                    hits += tracer.hits() - hitsBefore;
+                    faults += tracer.faults() - faultsBefore;
+                }
+
+                try ( PageCursor cursor = scan.io( 0, PF_SHARED_READ_LOCK ) )
+                {
+                    while ( cursor.next() )
+                    {
+                        // Touching every page once is all a scan does, as far as the page cache is concerned.
+                    }
+                }
+            }
+            return hits / (double) (hits + faults);
+        }
+        finally
+        {
+            allocator.close();
+        }
+    }
+
+    private void createFile( File file, int pages ) throws IOException
+    {
+        MemoryAllocator allocator = createAllocator();
+        try ( MuninnPageCache pageCache = new MuninnPageCache( openSwapperFactory(), allocator, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL,
+                EmptyVersionContextSupplier.EMPTY, jobScheduler );
+              PagedFile pagedFile = pageCache.map( file, pageCache.pageSize(), CREATE );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( int i = 0; i < pages; i++ )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( i );
+            }
+        }
+        finally
+        {
+            allocator.close();
+        }
+    }
+
+    private PageSwapperFactory openSwapperFactory()
+    {
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.open( fs );
+        return swapperFactory;
+    }
+
+    private static MemoryAllocator createAllocator()
+    {
+        long memory = MuninnPageCache.memoryRequiredForPages( CACHE_PAGES );
+        return MemoryAllocator.createAllocator( String.valueOf( memory ), new LocalMemoryTracker() );
+    }
+}
@@ -27,10 +27,12 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.OpenOption;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.IntSupplier;
 import java.util.function.LongSupplier;
 
@@ -61,7 +63,9 @@ import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer.Fault;
 
 import static java.time.Duration.ofMillis;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -208,6 +212,31 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void touchMustNotDeadlockWhenFaultLatchesOfTouchedPagesCollide() throws Exception
+    {
+        // Touch more pages in one go than there are fault latch stripes, so some of the pages must share a latch.
+        int pageCount = 300;
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2 * pageCount, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL ) )
+        {
+            generateFileWithRecords( file( "a" ), recordsPerFilePage * pageCount, recordSize );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+            {
+                int touched = assertTimeoutPreemptively( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () -> pagedFile.touch( 0, pageCount ) );
+                assertEquals( pageCount, touched );
+
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+                {
+                    for ( int i = 0; i < pageCount; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                        verifyRecordsMatchExpected( cursor );
+                    }
+                }
+            }
+        }
+    }
+
     @Test
     void mustFlushDirtyPagesOnEvictingLastPage() throws Exception
     {
@@ -239,6 +268,168 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void sequentialReadsMustReadAheadAndReportReadAheadHits() throws Exception
+    {
+        int pageCount = 100;
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2 * pageCount, tracer, PageCursorTracerSupplier.NULL ) )
+        {
+            generateFileWithRecords( file( "a" ), recordsPerFilePage * pageCount, recordSize );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( int i = 0; i < pageCount; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    verifyRecordsMatchExpected( cursor );
+                }
+                assertFalse( cursor.next() );
+            }
+            assertThat( tracer.readAheadHits(), greaterThan( 0L ) );
+            assertThat( tracer.readAheadHits() + tracer.readAheadMisses(), lessThanOrEqualTo( (long) pageCount ) );
+        }
+    }
+
+    @Test
+    void randomReadsMustNotReadAhead() throws Exception
+    {
+        int pageCount = 100;
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2 * pageCount, tracer, PageCursorTracerSupplier.NULL ) )
+        {
+            generateFileWithRecords( file( "a" ), recordsPerFilePage * pageCount, recordSize );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( int i = pageCount - 1; i >= 0; i-- )
+                {
+                    assertTrue( cursor.next( i ) );
+                    verifyRecordsMatchExpected( cursor );
+                }
+            }
+            assertThat( tracer.readAheadHits(), is( 0L ) );
+            assertThat( tracer.readAheadMisses(), is( 0L ) );
+        }
+    }
+
+    @Test
+    void freelistMustHandOutEveryFreePageExactlyOnce() throws Exception
+    {
+        int pageCount = 100;
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, pageCount, tracer, PageCursorTracerSupplier.NULL ) )
+        {
+            Set<Long> pageRefs = new HashSet<>();
+            long pageRef;
+            while ( (pageRef = pageCache.tryGrabFreeAndExclusivelyLockedPage()) != 0 )
+            {
+                assertTrue( pageRefs.add( pageRef ) );
+            }
+            assertThat( pageRefs.size(), is( pageCount ) );
+
+            for ( long ref : pageRefs )
+            {
+                pageCache.addFreePageToFreelist( ref );
+            }
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for ( int i = 0; i < 4; i++ )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    List<Long> grabbed = new ArrayList<>();
+                    long ref;
+                    while ( (ref = pageCache.tryGrabFreeAndExclusivelyLockedPage()) != 0 )
+                    {
+                        grabbed.add( ref );
+                    }
+                    return grabbed;
+                } ) );
+            }
+            Set<Long> regrabbed = new HashSet<>();
+            for ( Future<List<Long>> future : futures )
+            {
+                for ( long ref : future.get() )
+                {
+                    assertTrue( regrabbed.add( ref ) );
+                }
+            }
+            assertThat( regrabbed, is( pageRefs ) );
+            assertThat( tracer.freelistSteals(), lessThanOrEqualTo( (long) pageCount ) );
+        }
+    }
+
+    @Test
+    void backgroundFlushingMustWriteOutDirtyPagesOverTheTargetRatio() throws Exception
+    {
+        int pageCount = 50;
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2 * pageCount, tracer, PageCursorTracerSupplier.NULL ) )
+        {
+            generateFileWithRecords( file( "a" ), recordsPerFilePage * pageCount, recordSize );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    for ( int i = 0; i < pageCount; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( i );
+                    }
+                }
+                assertThat( tracer.bytesWritten(), is( 0L ) );
+
+                // Allow at most 10 of the 100 pages to stay dirty.
+                pageCache.setTargetDirtyRatio( 0.1 );
+                assertTimeoutPreemptively( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+                {
+                    while ( tracer.bytesWritten() < (pageCount - 10L) * filePageSize || tracer.dirtyPages() > 10 )
+                    {
+                        Thread.sleep( 10 );
+                    }
+                } );
+            }
+        }
+    }
+
+    @Test
+    void backgroundFlushingMustWriteThroughTheLimiter() throws Exception
+    {
+        int pageCount = 50;
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        LongAdder limitedIOs = new LongAdder();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2 * pageCount, tracer, PageCursorTracerSupplier.NULL ) )
+        {
+            pageCache.setBackgroundFlushLimiter( ( previousStamp, recentlyCompletedIOs, flushable ) ->
+            {
+                limitedIOs.add( recentlyCompletedIOs );
+                return previousStamp;
+            } );
+            generateFileWithRecords( file( "a" ), recordsPerFilePage * pageCount, recordSize );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    for ( int i = 0; i < pageCount; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( i );
+                    }
+                }
+
+                pageCache.setTargetDirtyRatio( 0.1 );
+                assertTimeoutPreemptively( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+                {
+                    while ( tracer.dirtyPages() > 10 || limitedIOs.sum() == 0 )
+                    {
+                        Thread.sleep( 10 );
+                    }
+                } );
+                assertThat( tracer.backgroundFlushExceptions(), is( 0L ) );
+            }
+        }
+    }
+
     @Test
     void mustFlushDirtyPagesOnEvictingAllPages() throws Exception
     {
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static java.time.Duration.ofSeconds;
+
+class ReadAheadTest
+{
+    @Test
+    void mustNotWaitForJobThatHasNotStarted()
+    {
+        // The job would fail on the missing file if it ran.
+        ReadAhead readAhead = new ReadAhead( null, 0, 8 );
+        assertFalse( readAhead.isDone() );
+
+        assertTimeoutPreemptively( ofSeconds( 10 ), readAhead::cancelOrAwait );
+
+        assertTrue( readAhead.isDone() );
+        readAhead.run();
+    }
+
+    @Test
+    void mustReleaseWaitersOfCancelledJob()
+    {
+        ReadAhead readAhead = new ReadAhead( null, 0, 8 );
+
+        readAhead.cancelOrAwait();
+
+        assertTimeoutPreemptively( ofSeconds( 10 ), readAhead::await );
+    }
+}
@@ -30,6 +30,8 @@ import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DefaultPageCursorTracerTest
 {
@@ -225,6 +227,78 @@ class DefaultPageCursorTracerTest
         assertEquals( 3.0 / 7, cacheTracer.hitRatio(), 0.0001 );
     }
 
+    @Test
+    void keepStatisticsPerFileWhenEnabled()
+    {
+        cacheTracer.fileStatisticsEnabled( true );
+        PageSwapper otherSwapper = new DummyPageSwapper( "otherfile", (int) ByteUnit.kibiBytes( 8 ) );
+
+        generateEventSet();
+        pinAndHit();
+        PinEvent pinEvent = pageCursorTracer.beginPin( false, 0, otherSwapper );
+        pinEvent.hit();
+        pinEvent.done();
+        pinFaultAndHit();
+        pageCursorTracer.reportEvents();
+
+        PagedFileStatistics statistics = cacheTracer.fileStatistics( swapper );
+        assertEquals( 3, statistics.pins() );
+        assertEquals( 1, statistics.hits() );
+        assertEquals( 2, statistics.faults() );
+        assertEquals( 150, statistics.bytesRead() );
+        assertEquals( 1, statistics.flushes() );
+        assertEquals( 10, statistics.bytesWritten() );
+        assertEquals( 2, statistics.faultLatency().count() );
+        assertEquals( 1, statistics.flushLatency().count() );
+        assertTrue( statistics.faultLatency().max() >= statistics.faultLatency().percentile( 50 ) );
+
+        PagedFileStatistics otherStatistics = cacheTracer.fileStatistics( otherSwapper );
+        assertEquals( 1, otherStatistics.pins() );
+        assertEquals( 1, otherStatistics.hits() );
+        assertEquals( 0, otherStatistics.faults() );
+        assertEquals( 2, cacheTracer.fileStatistics().size() );
+    }
+
+    @Test
+    void countEvictionsOnTheFileOfTheEvictedPage()
+    {
+        cacheTracer.fileStatisticsEnabled( true );
+        PageSwapper otherSwapper = new DummyPageSwapper( "otherfile", (int) ByteUnit.kibiBytes( 8 ) );
+
+        PinEvent pinEvent = pageCursorTracer.beginPin( false, 0, swapper );
+        PageFaultEvent pageFaultEvent = pinEvent.beginPageFault();
+        EvictionEvent evictionEvent = pageFaultEvent.beginEviction();
+        evictionEvent.setSwapper( otherSwapper );
+        evictionEvent.close();
+        pageFaultEvent.done();
+        pinEvent.done();
+
+        assertEquals( 0, cacheTracer.fileStatistics( swapper ).evictions() );
+        assertEquals( 1, cacheTracer.fileStatistics( otherSwapper ).evictions() );
+    }
+
+    @Test
+    void dropFileStatisticsWhenDisabledOrUnmapped()
+    {
+        cacheTracer.fileStatisticsEnabled( true );
+        pinAndHit();
+        pageCursorTracer.reportEvents();
+        assertEquals( 1, cacheTracer.fileStatistics().size() );
+
+        cacheTracer.unmappedFile( swapper.file() );
+        assertTrue( cacheTracer.fileStatistics().isEmpty() );
+
+        pinAndHit();
+        pageCursorTracer.reportEvents();
+        cacheTracer.fileStatisticsEnabled( false );
+        assertTrue( cacheTracer.fileStatistics().isEmpty() );
+        assertNull( cacheTracer.fileStatistics( swapper ) );
+
+        pinAndHit();
+        assertEquals( 1, pageCursorTracer.hits() );
+        assertTrue( cacheTracer.fileStatistics().isEmpty() );
+    }
+
     private void generateEventSet()
     {
         PinEvent pinEvent = pageCursorTracer.beginPin( false, 0, swapper );
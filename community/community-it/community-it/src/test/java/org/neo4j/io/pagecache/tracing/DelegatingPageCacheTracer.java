@@ -20,6 +20,7 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
+import java.util.Collection;
 
 import org.neo4j.io.pagecache.PageSwapper;
 
@@ -109,6 +110,42 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.evictionExceptions();
     }
 
+    @Override
+    public long readAheadHits()
+    {
+        return delegate.readAheadHits();
+    }
+
+    @Override
+    public long readAheadMisses()
+    {
+        return delegate.readAheadMisses();
+    }
+
+    @Override
+    public long freelistContentions()
+    {
+        return delegate.freelistContentions();
+    }
+
+    @Override
+    public long freelistSteals()
+    {
+        return delegate.freelistSteals();
+    }
+
+    @Override
+    public long dirtyPages()
+    {
+        return delegate.dirtyPages();
+    }
+
+    @Override
+    public long backgroundFlushExceptions()
+    {
+        return delegate.backgroundFlushExceptions();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -163,6 +200,30 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.evictionExceptions( evictionExceptions );
     }
 
+    @Override
+    public void readAheadHits( long readAheadHits )
+    {
+        delegate.readAheadHits( readAheadHits );
+    }
+
+    @Override
+    public void readAheadMisses( long readAheadMisses )
+    {
+        delegate.readAheadMisses( readAheadMisses );
+    }
+
+    @Override
+    public void freelistContentions( long freelistContentions )
+    {
+        delegate.freelistContentions( freelistContentions );
+    }
+
+    @Override
+    public void freelistSteals( long freelistSteals )
+    {
+        delegate.freelistSteals( freelistSteals );
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -181,6 +242,36 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.maxPages( maxPages );
     }
 
+    @Override
+    public void dirtyPages( long dirtyPages )
+    {
+        delegate.dirtyPages( dirtyPages );
+    }
+
+    @Override
+    public void backgroundFlushExceptions( long backgroundFlushExceptions )
+    {
+        delegate.backgroundFlushExceptions( backgroundFlushExceptions );
+    }
+
+    @Override
+    public void fileStatisticsEnabled( boolean enabled )
+    {
+        delegate.fileStatisticsEnabled( enabled );
+    }
+
+    @Override
+    public PagedFileStatistics fileStatistics( PageSwapper swapper )
+    {
+        return delegate.fileStatistics( swapper );
+    }
+
+    @Override
+    public Collection<PagedFileStatistics> fileStatistics()
+    {
+        return delegate.fileStatistics();
+    }
+
     @Override
     public long filesMapped()
     {
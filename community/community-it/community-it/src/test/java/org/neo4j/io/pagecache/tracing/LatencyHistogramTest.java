@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest
+{
+    @Test
+    void emptyHistogramMustReportZero()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals( 0, histogram.count() );
+        assertEquals( 0, histogram.max() );
+        assertEquals( 0, histogram.mean(), 0.0 );
+        assertEquals( 0, histogram.percentile( 99 ) );
+    }
+
+    @Test
+    void smallValuesMustBeCountedExactly()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( int i = 1; i <= 20; i++ )
+        {
+            histogram.record( i );
+        }
+
+        assertEquals( 20, histogram.count() );
+        assertEquals( 20, histogram.max() );
+        assertEquals( 10.5, histogram.mean(), 0.0001 );
+        assertEquals( 10, histogram.percentile( 50 ) );
+        assertEquals( 19, histogram.percentile( 95 ) );
+        assertEquals( 20, histogram.percentile( 100 ) );
+    }
+
+    @Test
+    void bucketsMustCoverAllValuesWithBoundedRelativeError()
+    {
+        long previousHighest = -1;
+        for ( int index = 0; index <= LatencyHistogram.bucketIndex( LatencyHistogram.MAX_TRACKABLE_NANOS ); index++ )
+        {
+            long highest = LatencyHistogram.highestValueInBucket( index );
+            long lowest = previousHighest + 1;
+            assertEquals( index, LatencyHistogram.bucketIndex( lowest ) );
+            assertEquals( index, LatencyHistogram.bucketIndex( highest ) );
+            assertTrue( highest - lowest <= lowest / LatencyHistogram.SUB_BUCKET_COUNT );
+            previousHighest = highest;
+        }
+        assertEquals( LatencyHistogram.MAX_TRACKABLE_NANOS, previousHighest );
+    }
+
+    @Test
+    void percentilesMustBeWithinThePrecisionOfTheHistogram()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        long[] values = new long[10_000];
+        for ( int i = 0; i < values.length; i++ )
+        {
+            values[i] = rng.nextLong( 1, MILLISECONDS.toNanos( 100 ) );
+            histogram.record( values[i] );
+        }
+        Arrays.sort( values );
+
+        for ( double percentile : new double[]{50, 90, 99, 99.9} )
+        {
+            long expected = values[(int) Math.ceil( values.length * percentile / 100 ) - 1];
+            long actual = histogram.percentile( percentile );
+            assertTrue( actual >= expected && actual - expected <= expected / LatencyHistogram.SUB_BUCKET_COUNT,
+                    "percentile " + percentile + " was " + actual + " but expected about " + expected );
+        }
+        assertEquals( values[values.length - 1], histogram.max() );
+    }
+
+    @Test
+    void latenciesBeyondTheTrackableRangeMustStillBeCounted()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long veryLong = SECONDS.toNanos( 3600 );
+        histogram.record( veryLong );
+        histogram.record( -1 );
+
+        assertEquals( 2, histogram.count() );
+        assertEquals( veryLong, histogram.max() );
+        assertEquals( veryLong / 2.0, histogram.mean(), 1.0 );
+        assertEquals( 0, histogram.percentile( 50 ) );
+        assertEquals( LatencyHistogram.MAX_TRACKABLE_NANOS, histogram.percentile( 100 ) );
+    }
+
+    @Test
+    void percentileMustBeWithinRange()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThrows( IllegalArgumentException.class, () -> histogram.percentile( 101 ) );
+        assertThrows( IllegalArgumentException.class, () -> histogram.percentile( -1 ) );
+    }
+}
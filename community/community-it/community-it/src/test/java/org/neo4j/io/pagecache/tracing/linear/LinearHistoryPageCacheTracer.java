@@ -20,11 +20,14 @@
 package org.neo4j.io.pagecache.tracing.linear;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
 
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PagedFileStatistics;
 
 import static org.neo4j.io.pagecache.tracing.linear.HEvents.EvictionRunHEvent;
 import static org.neo4j.io.pagecache.tracing.linear.HEvents.MajorFlushHEvent;
@@ -144,6 +147,42 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long readAheadHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadMisses()
+    {
+        return 0;
+    }
+
+    @Override
+    public long freelistContentions()
+    {
+        return 0;
+    }
+
+    @Override
+    public long freelistSteals()
+    {
+        return 0;
+    }
+
+    @Override
+    public long dirtyPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long backgroundFlushExceptions()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -191,6 +230,26 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     {
     }
 
+    @Override
+    public void readAheadHits( long readAheadHits )
+    {
+    }
+
+    @Override
+    public void readAheadMisses( long readAheadMisses )
+    {
+    }
+
+    @Override
+    public void freelistContentions( long freelistContentions )
+    {
+    }
+
+    @Override
+    public void freelistSteals( long freelistSteals )
+    {
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -205,4 +264,31 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     public void maxPages( long maxPages )
     {
     }
+
+    @Override
+    public void dirtyPages( long dirtyPages )
+    {
+    }
+
+    @Override
+    public void backgroundFlushExceptions( long backgroundFlushExceptions )
+    {
+    }
+
+    @Override
+    public void fileStatisticsEnabled( boolean enabled )
+    {
+    }
+
+    @Override
+    public PagedFileStatistics fileStatistics( PageSwapper swapper )
+    {
+        return null;
+    }
+
+    @Override
+    public Collection<PagedFileStatistics> fileStatistics()
+    {
+        return Collections.emptyList();
+    }
 }
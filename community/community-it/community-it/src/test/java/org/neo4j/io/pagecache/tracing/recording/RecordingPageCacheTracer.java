@@ -21,6 +21,8 @@ package org.neo4j.io.pagecache.tracing.recording;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.pagecache.PageSwapper;
@@ -29,6 +31,7 @@ import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PagedFileStatistics;
 
 public class RecordingPageCacheTracer extends RecordingTracer implements PageCacheTracer
 {
@@ -149,6 +152,42 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0;
     }
 
+    @Override
+    public long readAheadHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadMisses()
+    {
+        return 0;
+    }
+
+    @Override
+    public long freelistContentions()
+    {
+        return 0;
+    }
+
+    @Override
+    public long freelistSteals()
+    {
+        return 0;
+    }
+
+    @Override
+    public long dirtyPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long backgroundFlushExceptions()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -199,6 +238,26 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void readAheadHits( long readAheadHits )
+    {
+    }
+
+    @Override
+    public void readAheadMisses( long readAheadMisses )
+    {
+    }
+
+    @Override
+    public void freelistContentions( long freelistContentions )
+    {
+    }
+
+    @Override
+    public void freelistSteals( long freelistSteals )
+    {
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -214,6 +273,33 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void dirtyPages( long dirtyPages )
+    {
+    }
+
+    @Override
+    public void backgroundFlushExceptions( long backgroundFlushExceptions )
+    {
+    }
+
+    @Override
+    public void fileStatisticsEnabled( boolean enabled )
+    {
+    }
+
+    @Override
+    public PagedFileStatistics fileStatistics( PageSwapper swapper )
+    {
+        return null;
+    }
+
+    @Override
+    public Collection<PagedFileStatistics> fileStatistics()
+    {
+        return Collections.emptyList();
+    }
+
     private void evicted( long filePageId, PageSwapper swapper )
     {
         record( new Evict( swapper, filePageId ) );
@@ -239,7 +239,7 @@ public abstract class GraphStoreFixture implements AutoCloseable
 
     private IndexStatisticsStore startIndexStatisticsStore( boolean readOnly )
     {
-        final IndexStatisticsStore indexStatisticsStore = new IndexStatisticsStore( pageCache, databaseLayout(), immediate(), readOnly );
+        final IndexStatisticsStore indexStatisticsStore = new IndexStatisticsStore( pageCache, fileSystem, databaseLayout(), immediate(), readOnly );
         try
         {
             indexStatisticsStore.init();
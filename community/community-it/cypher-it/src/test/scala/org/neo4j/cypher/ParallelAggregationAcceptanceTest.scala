@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import org.neo4j.configuration.GraphDatabaseSettings
+import org.neo4j.exceptions.ArithmeticException
+import org.neo4j.graphdb.config.Setting
+import org.neo4j.internal.kernel.api.procs.Neo4jTypes
+import org.neo4j.kernel.api.procedure.CallableUserFunction.BasicUserFunction
+import org.neo4j.kernel.api.procedure.Context
+import org.neo4j.scheduler.{Group, JobScheduler}
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{NumberValue, Values}
+
+import scala.collection.Map
+
+class ParallelAggregationAcceptanceTest extends ExecutionEngineFunSuite {
+
+  private val nodeCount = 20000
+  private val idSum = nodeCount.toLong * (nodeCount + 1) / 2
+
+  override def databaseConfig(): Map[Setting[_], Object] = Map(GraphDatabaseSettings.cypher_parallel_aggregation -> java.lang.Boolean.TRUE,
+                                                               GraphDatabaseSettings.cypher_worker_count -> Integer.valueOf(4))
+
+  test("workers should together count every node once") {
+    createIdNodes()
+
+    val result = execute("CYPHER runtime=interpreted MATCH (n) RETURN count(*) AS c, sum(n.id) AS s, min(n.id) AS min, max(n.id) AS max")
+
+    result.toList should equal(List(Map("c" -> nodeCount, "s" -> idSum, "min" -> 1, "max" -> nodeCount)))
+    workersUsed shouldBe true
+  }
+
+  test("workers should together count every labeled node once") {
+    createIdNodes()
+    execute("UNWIND range(1, 100) AS i CREATE (:Other {id: i})")
+
+    val result = execute("CYPHER runtime=interpreted MATCH (n:L) WHERE n.id > 0 RETURN count(n) AS c, sum(n.id) AS s")
+
+    result.toList should equal(List(Map("c" -> nodeCount, "s" -> idSum)))
+    workersUsed shouldBe true
+  }
+
+  test("workers should see the nodes created and deleted in the transaction") {
+    createIdNodes()
+
+    graph.withTx { tx =>
+      execute("UNWIND range(1, 10) AS i CREATE (:L {id: -i})", Map.empty[String, Any], tx)
+      execute("MATCH (n:L) WHERE 0 < n.id <= 100 DELETE n", Map.empty[String, Any], tx)
+
+      val all = execute("CYPHER runtime=interpreted MATCH (n) RETURN count(*) AS c, sum(n.id) AS s", Map.empty[String, Any], tx)
+      val labeled = execute("CYPHER runtime=interpreted MATCH (n:L) RETURN count(*) AS c, sum(n.id) AS s", Map.empty[String, Any], tx)
+
+      val expected = List(Map("c" -> (nodeCount - 100 + 10), "s" -> (idSum - 5050 - 55)))
+      all.toList should equal(expected)
+      labeled.toList should equal(expected)
+    }
+    workersUsed shouldBe true
+  }
+
+  test("should aggregate on a single thread for count(DISTINCT)") {
+    createIdNodes()
+    execute("UNWIND range(1, 100) AS i CREATE (:L {id: i})")
+
+    val result = execute("CYPHER runtime=interpreted MATCH (n) RETURN count(DISTINCT n.id) AS c")
+
+    result.toList should equal(List(Map("c" -> nodeCount)))
+    workersUsed shouldBe false
+  }
+
+  test("should aggregate on a single thread when the filter runs a nested plan") {
+    createIdNodes()
+    execute("MATCH (a:L {id: 1}), (b:L {id: 2}) CREATE (a)-[:R]->(b), (b)-[:R]->(a)")
+
+    val result = execute("CYPHER runtime=interpreted MATCH (n) WHERE size([(n)-->(m) | m.id]) > 0 RETURN count(*) AS c")
+
+    result.toList should equal(List(Map("c" -> 2)))
+    workersUsed shouldBe false
+  }
+
+  test("should aggregate on a single thread when the filter calls a user defined function") {
+    createIdNodes()
+    registerUserFunction("test")("isEven") { builder =>
+      new BasicUserFunction(builder.in("x", Neo4jTypes.NTInteger).out(Neo4jTypes.NTBoolean).build()) {
+        override def apply(ctx: Context, input: Array[AnyValue]): AnyValue =
+          Values.booleanValue(input(0).asInstanceOf[NumberValue].longValue() % 2 == 0)
+      }
+    }
+
+    val result = execute("CYPHER runtime=interpreted MATCH (n) WHERE test.isEven(n.id) RETURN count(*) AS c")
+
+    result.toList should equal(List(Map("c" -> nodeCount / 2)))
+    workersUsed shouldBe false
+  }
+
+  test("should aggregate on a single thread when profiling") {
+    createIdNodes()
+
+    val result = execute("CYPHER runtime=interpreted PROFILE MATCH (n) RETURN count(*) AS c, sum(n.id) AS s")
+
+    result.toList should equal(List(Map("c" -> nodeCount, "s" -> idSum)))
+    workersUsed shouldBe false
+  }
+
+  test("should fail the query when a worker fails") {
+    createIdNodes()
+    execute("MATCH (n:L {id: 4711}) SET n.id = 0")
+
+    intercept[ArithmeticException] {
+      execute("CYPHER runtime=interpreted MATCH (n) WHERE 1 / n.id >= 0 RETURN count(*) AS c")
+    }
+    workersUsed shouldBe true
+
+    // the transaction of the failed query is gone, and the workers run the next query
+    execute("CYPHER runtime=interpreted MATCH (n) RETURN count(*) AS c").toList should equal(List(Map("c" -> nodeCount)))
+  }
+
+  private def createIdNodes(): Unit =
+    execute(s"UNWIND range(1, $nodeCount) AS i CREATE (:L {id: i})")
+
+  // The workers are started on the first query that runs on them, and stay alive a while after the query is done
+  private def workersUsed: Boolean =
+    graph.getDependencyResolver.resolveDependency(classOf[JobScheduler]).activeGroups()
+      .anyMatch(group => group.group == Group.CYPHER_PARALLEL_AGGREGATION)
+}
@@ -395,6 +395,7 @@ class MemoryRecommendationsCommandTest
             } );
         }
         pageCacheTotal.add( databaseLayout.labelScanStore().length() );
+        pageCacheTotal.add( databaseLayout.relationshipTypeScanStore().length() );
         return new long[]{pageCacheTotal.longValue(), luceneTotal.longValue()};
     }
 
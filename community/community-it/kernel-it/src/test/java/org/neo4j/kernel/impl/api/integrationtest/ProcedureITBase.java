@@ -101,6 +101,15 @@ public interface ProcedureITBase
                         "WRITE", false ), proc( "db.createRelationshipType", "(newRelationshipType :: STRING?) :: VOID", "Create a RelationshipType",
                         stringArray( "publisher", "architect", "admin" ), "WRITE", false ),
                 proc( "db.clearQueryCaches", "() :: (value :: STRING?)", "Clears all query caches.", stringArray( "admin" ), "DBMS" ),
+                proc( "dbms.pageCache.fileStatistics",
+                        "() :: (file :: STRING?, pins :: INTEGER?, hits :: INTEGER?, faults :: INTEGER?, bytesRead :: INTEGER?, " +
+                                "evictions :: INTEGER?, flushes :: INTEGER?, bytesWritten :: INTEGER?, faultLatencyMean :: FLOAT?, " +
+                                "faultLatencyP50 :: INTEGER?, faultLatencyP99 :: INTEGER?, faultLatencyP999 :: INTEGER?, faultLatencyMax :: INTEGER?, " +
+                                "flushLatencyMean :: FLOAT?, flushLatencyP50 :: INTEGER?, flushLatencyP99 :: INTEGER?, flushLatencyP999 :: INTEGER?, " +
+                                "flushLatencyMax :: INTEGER?)",
+                        "List the page cache statistics of each mapped file, with fault and flush latencies in nanoseconds. " +
+                                "Statistics are only kept while dbms.memory.pagecache.file_statistics.enabled is set.",
+                        stringArray( "admin" ), "DBMS" ),
                 proc( "db.createIndex",
                         "(indexName :: STRING?, labels :: LIST? OF STRING?, properties :: LIST? OF STRING?, providerName :: STRING?, config = {} :: MAP?) :: " +
                                 "(name :: STRING?, labels :: LIST? OF STRING?, properties :: LIST? OF STRING?, providerName :: STRING?, status :: STRING?)",
@@ -136,6 +136,92 @@ public abstract class NodeLabelIndexCursorTestBase<G extends KernelAPIWriteTestS
         }
     }
 
+    @Test
+    void shouldFindNodesByLabelIntersectionAndUnion() throws Exception
+    {
+        long oneAndTwo;
+        long oneAndThree;
+        long two;
+        try ( KernelTransaction tx = beginTransaction() )
+        {
+            oneAndTwo = createNode( tx.dataWrite(), labelOne, labelTwo );
+            oneAndThree = createNode( tx.dataWrite(), labelOne, labelThree );
+            two = createNode( tx.dataWrite(), labelTwo );
+            createNode( tx.dataWrite(), labelThree );
+            tx.commit();
+        }
+
+        try ( KernelTransaction tx = beginTransaction() )
+        {
+            Read read = tx.dataRead();
+
+            try ( NodeLabelIndexCursor cursor = tx.cursors().allocateNodeLabelIndexCursor() )
+            {
+                MutableLongSet uniqueIds = new LongHashSet();
+
+                // when
+                read.nodeLabelIntersectionScan( new int[]{labelOne, labelTwo}, cursor );
+
+                // then
+                assertNodes( cursor, uniqueIds, oneAndTwo );
+
+                // when
+                uniqueIds.clear();
+                read.nodeLabelUnionScan( new int[]{labelOne, labelTwo}, cursor );
+
+                // then
+                assertNodes( cursor, uniqueIds, oneAndTwo, oneAndThree, two );
+            }
+        }
+    }
+
+    @Test
+    void shouldFindNodesByLabelIntersectionAndUnionInTx() throws Exception
+    {
+        long oneAndTwo;
+        long losesTwo;
+        long gainsTwo;
+        long deleted;
+        long createdInTx;
+
+        try ( KernelTransaction tx = beginTransaction() )
+        {
+            oneAndTwo = createNode( tx.dataWrite(), labelOne, labelTwo );
+            losesTwo = createNode( tx.dataWrite(), labelOne, labelTwo );
+            gainsTwo = createNode( tx.dataWrite(), labelOne );
+            deleted = createNode( tx.dataWrite(), labelOne, labelTwo );
+            tx.commit();
+        }
+
+        try ( KernelTransaction tx = beginTransaction() )
+        {
+            tx.dataWrite().nodeRemoveLabel( losesTwo, labelTwo );
+            tx.dataWrite().nodeAddLabel( gainsTwo, labelTwo );
+            tx.dataWrite().nodeDelete( deleted );
+            createdInTx = createNode( tx.dataWrite(), labelOne, labelTwo );
+
+            Read read = tx.dataRead();
+
+            try ( NodeLabelIndexCursor cursor = tx.cursors().allocateNodeLabelIndexCursor() )
+            {
+                MutableLongSet uniqueIds = new LongHashSet();
+
+                // when
+                read.nodeLabelIntersectionScan( new int[]{labelOne, labelTwo}, cursor );
+
+                // then
+                assertNodes( cursor, uniqueIds, oneAndTwo, gainsTwo, createdInTx );
+
+                // when
+                uniqueIds.clear();
+                read.nodeLabelUnionScan( new int[]{labelOne, labelTwo}, cursor );
+
+                // then
+                assertNodes( cursor, uniqueIds, oneAndTwo, losesTwo, gainsTwo, createdInTx );
+            }
+        }
+    }
+
     private long createNode( Write write, int... labels ) throws KernelException
     {
         long nodeId = write.nodeCreate();
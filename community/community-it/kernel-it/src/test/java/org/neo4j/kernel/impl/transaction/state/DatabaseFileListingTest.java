@@ -37,6 +37,7 @@ import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.internal.helpers.collection.Iterators;
 import org.neo4j.internal.id.IdGeneratorFactory;
 import org.neo4j.internal.index.label.LabelScanStore;
+import org.neo4j.internal.index.label.RelationshipTypeScanStore;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.kernel.database.Database;
 import org.neo4j.kernel.impl.api.index.IndexingService;
@@ -124,6 +125,7 @@ class DatabaseFileListingTest
     {
         // Given
         LabelScanStore labelScanStore = mock( LabelScanStore.class );
+        RelationshipTypeScanStore relationshipTypeScanStore = mock( RelationshipTypeScanStore.class );
         IndexingService indexingService = mock( IndexingService.class );
         DatabaseLayout databaseLayout = mock( DatabaseLayout.class );
         when( databaseLayout.metadataStore() ).thenReturn( mock( File.class ) );
@@ -132,10 +134,12 @@ class DatabaseFileListingTest
         StorageEngine storageEngine = mock( StorageEngine.class );
         IdGeneratorFactory idGeneratorFactory = mock( IdGeneratorFactory.class );
         DatabaseFileListing fileListing = new DatabaseFileListing( databaseLayout, logFiles, labelScanStore,
-                indexingService, storageEngine, idGeneratorFactory );
+                relationshipTypeScanStore, indexingService, storageEngine, idGeneratorFactory );
 
         ResourceIterator<File> scanSnapshot = scanStoreFilesAre( labelScanStore,
                 new String[]{"blah/scan.store", "scan.more"} );
+        ResourceIterator<File> relationshipTypeScanSnapshot = relationshipTypeScanStoreFilesAre( relationshipTypeScanStore,
+                new String[]{"type.scan.store"} );
         ResourceIterator<File> indexSnapshot = indexFilesAre( indexingService, new String[]{"schema/index/my.index"} );
 
         ResourceIterator<StoreFileMetadata> result = fileListing.builder().excludeLogFiles().build();
@@ -145,6 +149,7 @@ class DatabaseFileListingTest
 
         // Then
         verify( scanSnapshot ).close();
+        verify( relationshipTypeScanSnapshot ).close();
         verify( indexSnapshot ).close();
     }
 
@@ -240,6 +245,16 @@ class DatabaseFileListingTest
         return snapshot;
     }
 
+    private static ResourceIterator<File> relationshipTypeScanStoreFilesAre( RelationshipTypeScanStore relationshipTypeScanStore,
+            String[] fileNames )
+    {
+        ArrayList<File> files = new ArrayList<>();
+        mockFiles( fileNames, files, false );
+        ResourceIterator<File> snapshot = spy( asResourceIterator( files.iterator() ) );
+        when( relationshipTypeScanStore.snapshotStoreFiles() ).thenReturn( snapshot );
+        return snapshot;
+    }
+
     private static ResourceIterator<File> indexFilesAre( IndexingService indexingService, String[] fileNames )
             throws IOException
     {
@@ -294,6 +294,13 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<Long> query_non_indexed_label_warning_threshold =
             newBuilder( "unsupported.cypher.non_indexed_label_warning_threshold", LONG, 10000L ).build();
 
+    @Description( "Let the planner look up the values of parameters, and of the literals it extracts as parameters, in the " +
+            "value histograms of indexes when it estimates cardinalities. Plans are cached by query text, so the values " +
+            "of the execution that planned a query then decide its plan for all later executions, until it is replanned." )
+    @Internal
+    public static final Setting<Boolean> cypher_plan_with_parameter_values =
+            newBuilder( "unsupported.cypher.plan_with_parameter_values", BOOL, false ).build();
+
     @Description( "To improve IDP query planning time, we can restrict the internal planning table size, " +
             "triggering compaction of candidate plans. The smaller the threshold the faster the planning, " +
             "but the higher the risk of sub-optimal plans." )
@@ -396,6 +403,18 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<Long> query_max_memory =
             newBuilder( "cypher.query_max_allocations", BYTES, BYTES.parse( "0" ) ).addConstraint( min( 0L ) ).dynamic().build();
 
+    @Description( "The amount of heap memory allocations, in bytes, after which the sort, aggregation, distinct and hash join operators " +
+                  "of the interpreted runtime start moving the rows they buffer to temporary files instead of keeping them on the heap. " +
+                  "Zero means that rows are never spilled to disk. Only has an effect if `dbms.track_query_allocation` is enabled, and " +
+                  "should be lower than `cypher.query_max_allocations` for queries to be able to complete instead of being terminated." )
+    public static final Setting<Long> query_spill_threshold =
+            newBuilder( "cypher.query_spill_threshold", BYTES, BYTES.parse( "0" ) ).addConstraint( min( 0L ) ).dynamic().build();
+
+    @Description( "The directory in which the interpreted runtime writes the temporary files of rows that operators spill to disk. " +
+                  "If relative, it is resolved against the data directory. The files are deleted when the query that wrote them finishes." )
+    public static final Setting<Path> query_spill_directory =
+            newBuilder( "cypher.query_spill_directory", PATH, Path.of( "cypher-spill" ) ).setDependency( data_directory ).immutable().build();
+
     @Description( "Enable tracing of pipelined runtime scheduler." )
     @Internal
     public static final Setting<Boolean> enable_pipelined_runtime_trace =
@@ -421,6 +440,12 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     @Internal
     public static final Setting<Integer> cypher_worker_count = newBuilder( "unsupported.cypher.number_of_workers", INT, 0 ).build();
 
+    @Description( "Run aggregations without grouping over node scans on several Cypher worker threads in the interpreted " +
+            "runtime. The number of workers is taken from `unsupported.cypher.number_of_workers`." )
+    @Internal
+    public static final Setting<Boolean> cypher_parallel_aggregation =
+            newBuilder( "unsupported.cypher.parallel_aggregation", BOOL, false ).build();
+
     public enum CypherOperatorEngine
     {
         COMPILED,
@@ -607,13 +632,14 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             newBuilder( "dbms.checkpoint.interval.time", DURATION, ofMinutes( 15 ) ).build();
 
     @Description( "Limit the number of IOs the background checkpoint process will consume per second. " +
-            "This setting is advisory, is ignored in Neo4j Community Edition, and is followed to " +
-            "best effort in Enterprise Edition. " +
+            "This setting is advisory, and is followed to best effort. " +
             "An IO is in this case a 8 KiB (mostly sequential) write. Limiting the write IO in " +
             "this way will leave more bandwidth in the IO subsystem to service random-read IOs, " +
             "which is important for the response time of queries when the database cannot fit " +
             "entirely in memory. The only drawback of this setting is that longer checkpoint times " +
             "may lead to slightly longer recovery times in case of a database or system crash. " +
+            "While limited, the checkpoint process also backs off while transaction commits are waiting for the " +
+            "transaction log to be forced. " +
             "A lower number means lower IO pressure, and consequently longer checkpoint times. " +
             "Set this to -1 to disable the IOPS limit and remove the limitation entirely; " +
             "this will let the checkpointer flush data as fast as the hardware will go. "  +
@@ -743,6 +769,13 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     @Description( "Specify if Neo4j should try to preallocate logical log file in advance." )
     public static final Setting<Boolean> preallocate_logical_logs = newBuilder( "dbms.tx_log.preallocate", BOOL, true ).dynamic().build();
 
+    @Description( "Specify if Neo4j should compress the commands of each transaction it writes to the transaction log. Small transactions, and " +
+            "transactions whose commands do not compress, are always written uncompressed. Compression requires the native zstd library, " +
+            "without which transactions are written uncompressed as well. Transaction logs with compressed transactions can not be read by " +
+            "Neo4j versions without support for this setting." )
+    @Internal
+    public static final Setting<Boolean> compress_logical_logs = newBuilder( "unsupported.dbms.tx_log.compression", BOOL, false ).build();
+
     @Description( "If `true`, Neo4j will abort recovery if any errors are encountered in the logical log. Setting " +
             "this to `false` will allow Neo4j to restore as much as possible from the corrupted log files and ignore " +
             "the rest, but, the integrity of the database might be compromised." )
@@ -750,6 +783,20 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<Boolean> fail_on_corrupted_log_files =
             newBuilder("unsupported.dbms.tx_log.fail_on_corrupted_log_files", BOOL, true ).build();
 
+    @Description( "Number of transactions that recovery reads and decodes from the transaction logs ahead of the transaction it is applying, " +
+            "in a separate thread. Up to this many transactions are held in memory at any time during recovery. " +
+            "`0` reads and applies every transaction in turn on the same thread." )
+    @Internal
+    public static final Setting<Integer> recovery_read_ahead_transactions =
+            newBuilder( "unsupported.dbms.recovery.read_ahead_transactions", INT, 1000 ).addConstraint( min( 0 ) ).build();
+
+    @Description( "Number of threads that recovery uses to apply transactions which change disjoint sets of records. " +
+            "Transactions touching the same records, as well as schema and token transactions, are still applied in log order. " +
+            "The default, `1`, applies every transaction on the recovering thread." )
+    @Internal
+    public static final Setting<Integer> recovery_apply_threads =
+            newBuilder( "unsupported.dbms.recovery.apply_threads", INT, 1 ).addConstraint( min( 1 ) ).build();
+
     @Description( "If `true`, Neo4j will abort recovery if logical log files are missing. Setting " +
             "this to `false` will allow Neo4j to create new empty missing files for already existing database, but, " +
             "the integrity of the database might be compromised." )
@@ -774,20 +821,52 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             "on available system resources." )
     public static final Setting<String> pagecache_memory = newBuilder( "dbms.memory.pagecache.size", STRING, null ).build();
 
-    @Description( "Specify which page swapper to use for doing paged IO. " +
-            "This is only used when integrating with proprietary storage technology." )
+    @Description( "Specify which page swapper to use for doing paged IO. The default swapper, 'single', reads and writes pages " +
+            "through file channels. The 'mmap' swapper instead memory maps the store files, which can lower the cost of page faults " +
+            "for read-mostly workloads where the store fits in the memory of the operating system. " +
+            "Other swappers are only used when integrating with proprietary storage technology." )
     public static final Setting<String> pagecache_swapper = newBuilder( "dbms.memory.pagecache.swapper", STRING, null ).build();
 
+    public enum PageCacheEvictionPolicy
+    {
+        CLOCK, CLOCK_PRO
+    }
+
+    @Description( "Specify which algorithm the page cache uses for choosing which pages to evict. 'CLOCK' evicts pages " +
+            "that have not been accessed recently. 'CLOCK_PRO' is scan resistant, and protects pages that are accessed " +
+            "repeatedly from being pushed out of the cache by large scans, such as a consistency check or a full label " +
+            "scan." )
+    @Internal
+    public static final Setting<PageCacheEvictionPolicy> pagecache_eviction_policy =
+            newBuilder( "unsupported.dbms.memory.pagecache.eviction_policy", ofEnum( PageCacheEvictionPolicy.class ), PageCacheEvictionPolicy.CLOCK ).build();
+
+    @Description( "The target ratio of dirty pages to the total number of pages in the page cache. When more pages than this " +
+            "are dirty, the page cache writes the least recently modified ones out in the background, so that checkpoints " +
+            "only have a small remainder to flush. The background writes are limited by `dbms.checkpoint.iops.limit`. " +
+            "A value of 1.0, the default, disables the background flushing." )
+    public static final Setting<Double> pagecache_flush_target_dirty_ratio =
+            newBuilder( "dbms.memory.pagecache.flush.target_dirty_ratio", DOUBLE, 1.0 ).addConstraint( range( 0.0, 1.0 ) ).dynamic().build();
+
+    @Description( "Keep page cache statistics for each mapped file: pins, hits, faults, evictions, flushes and the number of bytes read " +
+            "and written, as well as latency histograms for page faults and flushes. The statistics can be listed with the " +
+            "dbms.pageCache.fileStatistics() procedure. This adds a small overhead to every page access while enabled." )
+    public static final Setting<Boolean> pagecache_file_statistics =
+            newBuilder( "dbms.memory.pagecache.file_statistics.enabled", BOOL, false ).dynamic().build();
+
     @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
-            "warmup after a restart, reducing the mean time to performance. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "warmup after a restart, reducing the mean time to performance." )
     public static final Setting<Duration> pagecache_warmup_profiling_interval =
             newBuilder( "dbms.memory.pagecache.warmup.profile.interval", DURATION, ofMinutes( 1 ) ).build();
 
+    @Description( "Page cache warmup writes a profile of the loaded pages of every database file, periodically and when the database " +
+            "is stopped. This setting allows disabling the writing of profiles, in which case warmup uses whatever profiles are already " +
+            "there. Profiles are never written while the database is read only, regardless of this setting." )
+    public static final Setting<Boolean> pagecache_warmup_profiling_enabled =
+            newBuilder( "dbms.memory.pagecache.warmup.profile.enable", BOOL, true ).build();
+
     @Description( "Page cache can be configured to perform usage sampling of loaded pages that can be used to construct active load profile. " +
             "According to that profile pages can be reloaded on the restart, replication, etc. " +
-            "This setting allows disabling that behavior. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "This setting allows disabling that behavior." )
     public static final Setting<Boolean> pagecache_warmup_enabled =
             newBuilder( "dbms.memory.pagecache.warmup.enable", BOOL, true ).build();
 
@@ -234,7 +234,7 @@ public class ConsistencyCheckService
             LabelScanStore labelScanStore =
                     new NativeLabelScanStore( pageCache, databaseLayout, fileSystem, FullStoreChangeStream.EMPTY, true, monitors, workCollector );
             life.add( labelScanStore );
-            IndexStatisticsStore indexStatisticsStore = new IndexStatisticsStore( pageCache, databaseLayout, workCollector, true );
+            IndexStatisticsStore indexStatisticsStore = new IndexStatisticsStore( pageCache, fileSystem, databaseLayout, workCollector, true );
             life.add( indexStatisticsStore );
 
             int numberOfThreads = defaultConsistencyCheckThreadsNumber();
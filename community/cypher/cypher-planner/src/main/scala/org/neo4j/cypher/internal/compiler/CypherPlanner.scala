@@ -98,4 +98,5 @@ case class CypherPlannerConfiguration(queryCacheSize: Int,
                                       legacyCsvQuoteEscaping: Boolean,
                                       csvBufferSize: Int,
                                       nonIndexedLabelWarningThreshold: Long,
-                                      planSystemCommands: Boolean)
+                                      planSystemCommands: Boolean,
+                                      planWithParameterValues: Boolean = false)
@@ -71,8 +71,11 @@ object PlannerContextCreator extends ContextCreator[PlannerContext] {
                      ): PlannerContext = {
     val exceptionFactory = new Neo4jCypherExceptionFactory(queryText, offset)
 
+    // Cardinalities only depend on parameter values when asked for, since the plan is cached for any values
     val metrics: Metrics = if (planContext == null)
       null
+    else if (config.planWithParameterValues)
+      metricsFactory.newMetrics(planContext.statistics, evaluator, config, params)
     else
       metricsFactory.newMetrics(planContext.statistics, evaluator, config)
 
@@ -27,6 +27,7 @@ import org.neo4j.cypher.internal.ir.{PlannerQueryPart, QueryGraph}
 import org.neo4j.cypher.internal.planner.spi.GraphStatistics
 import org.neo4j.cypher.internal.v4_0.ast.semantics.SemanticTable
 import org.neo4j.cypher.internal.v4_0.util.Cardinality
+import org.neo4j.values.virtual.MapValue
 
 case class CachedMetricsFactory(metricsFactory: MetricsFactory) extends MetricsFactory {
   def newCardinalityEstimator(queryGraphCardinalityModel: QueryGraphCardinalityModel, evaluator: ExpressionEvaluator): CardinalityModel = {
@@ -42,8 +43,11 @@ case class CachedMetricsFactory(metricsFactory: MetricsFactory) extends MetricsF
   def newCostModel(config: CypherPlannerConfiguration) =
     CachedFunction(metricsFactory.newCostModel(config: CypherPlannerConfiguration))
 
-  def newQueryGraphCardinalityModel(statistics: GraphStatistics): QueryGraphCardinalityModel = {
-    val wrapped: QueryGraphCardinalityModel = metricsFactory.newQueryGraphCardinalityModel(statistics)
+  def newQueryGraphCardinalityModel(statistics: GraphStatistics): QueryGraphCardinalityModel =
+    newQueryGraphCardinalityModel(statistics, MapValue.EMPTY)
+
+  override def newQueryGraphCardinalityModel(statistics: GraphStatistics, parameterValues: MapValue): QueryGraphCardinalityModel = {
+    val wrapped: QueryGraphCardinalityModel = metricsFactory.newQueryGraphCardinalityModel(statistics, parameterValues)
     val cached = CachedFunction[QueryGraph, Metrics.QueryGraphSolverInput, SemanticTable, Cardinality] { (a, b, c) => wrapped(a, b, c) }
     new QueryGraphCardinalityModel {
       override def apply(queryGraph: QueryGraph, input: Metrics.QueryGraphSolverInput, semanticTable: SemanticTable): Cardinality = {
@@ -31,6 +31,7 @@ import org.neo4j.cypher.internal.v4_0.ast.semantics.SemanticTable
 import org.neo4j.cypher.internal.v4_0.expressions.functions.Rand
 import org.neo4j.cypher.internal.v4_0.expressions.{Expression, FunctionInvocation, LabelName, Parameter}
 import org.neo4j.cypher.internal.v4_0.util.{Cardinality, Cost, CypherException}
+import org.neo4j.values.virtual.MapValue
 
 import scala.language.implicitConversions
 
@@ -111,9 +112,12 @@ trait MetricsFactory {
   def newCardinalityEstimator(queryGraphCardinalityModel: QueryGraphCardinalityModel, expressionEvaluator: ExpressionEvaluator): CardinalityModel
   def newCostModel(config: CypherPlannerConfiguration): CostModel
   def newQueryGraphCardinalityModel(statistics: GraphStatistics): QueryGraphCardinalityModel
+  def newQueryGraphCardinalityModel(statistics: GraphStatistics, parameterValues: MapValue): QueryGraphCardinalityModel =
+    newQueryGraphCardinalityModel(statistics)
 
-  def newMetrics(statistics: GraphStatistics, expressionEvaluator: ExpressionEvaluator, config: CypherPlannerConfiguration) = {
-    val queryGraphCardinalityModel = newQueryGraphCardinalityModel(statistics)
+  def newMetrics(statistics: GraphStatistics, expressionEvaluator: ExpressionEvaluator, config: CypherPlannerConfiguration,
+                 parameterValues: MapValue = MapValue.EMPTY) = {
+    val queryGraphCardinalityModel = newQueryGraphCardinalityModel(statistics, parameterValues)
     val cardinality = newCardinalityEstimator(queryGraphCardinalityModel, expressionEvaluator)
     Metrics(newCostModel(config), cardinality, queryGraphCardinalityModel)
   }
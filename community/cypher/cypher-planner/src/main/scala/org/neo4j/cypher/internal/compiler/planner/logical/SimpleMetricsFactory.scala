@@ -23,6 +23,7 @@ import org.neo4j.cypher.internal.compiler.CypherPlannerConfiguration
 import org.neo4j.cypher.internal.compiler.planner.logical.Metrics.{CardinalityModel, CostModel, QueryGraphCardinalityModel}
 import org.neo4j.cypher.internal.compiler.planner.logical.cardinality.QueryGraphCardinalityModel
 import org.neo4j.cypher.internal.planner.spi.GraphStatistics
+import org.neo4j.values.virtual.MapValue
 
 object SimpleMetricsFactory extends MetricsFactory {
   def newCostModel(config: CypherPlannerConfiguration): CostModel = CardinalityCostModel(config)
@@ -32,4 +33,7 @@ object SimpleMetricsFactory extends MetricsFactory {
 
   def newQueryGraphCardinalityModel(statistics: GraphStatistics) =
     QueryGraphCardinalityModel.default(statistics)
+
+  override def newQueryGraphCardinalityModel(statistics: GraphStatistics, parameterValues: MapValue): QueryGraphCardinalityModel =
+    QueryGraphCardinalityModel.default(statistics, parameterValues)
 }
@@ -23,14 +23,24 @@ import org.neo4j.cypher.internal.compiler.planner.logical.plans._
 import org.neo4j.cypher.internal.ir.Selections
 import org.neo4j.cypher.internal.planner.spi.{GraphStatistics, IndexDescriptor}
 import org.neo4j.cypher.internal.compiler.planner.logical.PlannerDefaults._
-import org.neo4j.cypher.internal.logical.plans.PrefixRange
+import org.neo4j.cypher.internal.logical.plans.{Bound, Bounds, InequalitySeekRange, ManySeekableArgs, PrefixRange, RangeBetween, RangeGreaterThan, RangeLessThan, SeekableArgs, SingleSeekableArg}
 import org.neo4j.cypher.internal.v4_0.ast.semantics.SemanticTable
 import org.neo4j.cypher.internal.v4_0.expressions._
 import org.neo4j.cypher.internal.v4_0.util.Cardinality
 import org.neo4j.cypher.internal.v4_0.util.LabelId
 import org.neo4j.cypher.internal.v4_0.util.Selectivity
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{FloatingPointValue, IntegralValue, TextValue}
+import org.neo4j.values.virtual.{ListValue, MapValue}
 
-case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: SelectivityCombiner) {
+import scala.collection.JavaConverters._
+
+/**
+ * @param parameterValues the values of the query parameters at planning time, including auto-extracted literals.
+ *                        They are only used to look up histogram selectivities.
+ */
+case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: SelectivityCombiner,
+                                           parameterValues: MapValue = MapValue.EMPTY) {
 
   def apply(exp: Expression)(implicit semanticTable: SemanticTable, selections: Selections): Selectivity = exp match {
     // WHERE a:Label
@@ -47,11 +57,15 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
 
     // WHERE x.prop =/IN ...
     case AsPropertySeekable(seekable) =>
-      calculateSelectivityForPropertyEquality(seekable.name, seekable.args.sizeHint, selections, seekable.propertyKey)
+      calculateSelectivityForPropertyEquality(seekable.name, seekable.args, selections, seekable.propertyKey)
 
     // WHERE x.prop STARTS WITH 'prefix'
     case AsStringRangeSeekable(seekable@PrefixRangeSeekable(PrefixRange(StringLiteral(prefix)), _, _, _)) =>
-      calculateSelectivityForSubstringSargable(seekable.name, selections, seekable.propertyKey, Some(prefix))
+      calculateSelectivityForPrefix(seekable.name, selections, seekable.propertyKey, prefix, Some(prefix))
+
+    // WHERE x.prop STARTS WITH $prefix, with a string value known at planning time
+    case AsStringRangeSeekable(seekable@PrefixRangeSeekable(PrefixRange(StringParameterValue(prefix)), _, _, _)) =>
+      calculateSelectivityForPrefix(seekable.name, selections, seekable.propertyKey, prefix, None)
 
     // WHERE x.prop STARTS WITH expression
     case AsStringRangeSeekable(seekable@PrefixRangeSeekable(_:PrefixRange[_], _, _, _)) =>
@@ -152,33 +166,57 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
   }
 
   private def calculateSelectivityForPropertyEquality(variable: String,
-                                                      sizeHint: Option[Int],
+                                                      args: SeekableArgs,
                                                       selections: Selections,
                                                       propertyKey: PropertyKeyName)
                                                      (implicit semanticTable: SemanticTable): Selectivity = {
     val labels = selections.labelsOnNode(variable)
-    val indexSelectivities = labels.toIndexedSeq.flatMap {
-      labelName =>
-        (semanticTable.id(labelName), semanticTable.id(propertyKey)) match {
-          case (Some(labelId), Some(propertyKeyId)) =>
-            val descriptor = IndexDescriptor(labelId, Seq(propertyKeyId))
-            for {
-              propExists <-stats.indexPropertyExistsSelectivity(descriptor)
-              propEqualsValue <- stats.uniqueValueSelectivity(descriptor)
-              combinedSelectivity <- combiner.andTogetherSelectivities(Seq(propExists, propEqualsValue))
-            } yield combinedSelectivity
 
-          case _ =>
-            Some(Selectivity.ZERO)
-        }
+    // If the values are known and the indexes have a value distribution, use it rather than assuming all values to be equally common
+    val histogramSelectivities = literalValues(args).toIndexedSeq.flatMap { values =>
+      labels.toIndexedSeq.flatMap {
+        labelName =>
+          (semanticTable.id(labelName), semanticTable.id(propertyKey)) match {
+            case (Some(labelId), Some(propertyKeyId)) =>
+              val descriptor = IndexDescriptor(labelId, Seq(propertyKeyId))
+              val valueSelectivities = values.distinct.map(stats.equalitySelectivity(descriptor, _))
+              for {
+                propExists <- stats.indexPropertyExistsSelectivity(descriptor)
+                if valueSelectivities.forall(_.isDefined)
+                propEqualsValues <- Selectivity.of(math.min(valueSelectivities.flatten.map(_.factor).sum, 1.0))
+                combinedSelectivity <- combiner.andTogetherSelectivities(Seq(propExists, propEqualsValues))
+              } yield combinedSelectivity
+
+            case _ =>
+              None
+          }
+      }
     }
 
-    val itemSelectivity = combiner.orTogetherSelectivities(indexSelectivities).getOrElse(DEFAULT_EQUALITY_SELECTIVITY)
-    val size = sizeHint.getOrElse(DEFAULT_LIST_CARDINALITY.amount.toInt)
-    if (size == 0) {
-      Selectivity.ZERO
-    } else {
-      combiner.orTogetherSelectivities(1.to(size).map(_ => itemSelectivity)).getOrElse(DEFAULT_EQUALITY_SELECTIVITY)
+    combiner.orTogetherSelectivities(histogramSelectivities).getOrElse {
+      val indexSelectivities = labels.toIndexedSeq.flatMap {
+        labelName =>
+          (semanticTable.id(labelName), semanticTable.id(propertyKey)) match {
+            case (Some(labelId), Some(propertyKeyId)) =>
+              val descriptor = IndexDescriptor(labelId, Seq(propertyKeyId))
+              for {
+                propExists <-stats.indexPropertyExistsSelectivity(descriptor)
+                propEqualsValue <- stats.uniqueValueSelectivity(descriptor)
+                combinedSelectivity <- combiner.andTogetherSelectivities(Seq(propExists, propEqualsValue))
+              } yield combinedSelectivity
+
+            case _ =>
+              Some(Selectivity.ZERO)
+          }
+      }
+
+      val itemSelectivity = combiner.orTogetherSelectivities(indexSelectivities).getOrElse(DEFAULT_EQUALITY_SELECTIVITY)
+      val size = args.sizeHint.getOrElse(DEFAULT_LIST_CARDINALITY.amount.toInt)
+      if (size == 0) {
+        Selectivity.ZERO
+      } else {
+        combiner.orTogetherSelectivities(1.to(size).map(_ => itemSelectivity)).getOrElse(DEFAULT_EQUALITY_SELECTIVITY)
+      }
     }
   }
 
@@ -202,17 +240,26 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
         (semanticTable.id(labelName), semanticTable.id(seekable.expr.property.propertyKey)) match {
           case (Some(labelId), Some(propertyKeyId)) =>
             val descriptor = IndexDescriptor(labelId, Seq(propertyKeyId))
+            val histogramRangeSelectivity = literalBounds(seekable.range).flatMap {
+              case (lower, upper) => stats.rangeSelectivity(descriptor, lower, upper)
+            }
 
-            for {
-              propertyExistsSelectivity <- stats.indexPropertyExistsSelectivity(descriptor)
-              propEqValueSelectivity <- stats.uniqueValueSelectivity(descriptor)
-            } yield {
-              val pNeq = propEqValueSelectivity.negate
-              val pNeqRange = pNeq.factor * DEFAULT_RANGE_SEEK_FACTOR / Math.min(seekable.expr.inequalities.size, 2)
-
-              val pRange = Selectivity(if (seekable.hasEquality) propEqValueSelectivity.factor + pNeqRange else pNeqRange)
-              val pRangeBounded = Selectivity(math.max(propEqValueSelectivity.factor, pRange.factor))
-              pRangeBounded * propertyExistsSelectivity
+            histogramRangeSelectivity match {
+              case Some(pRange) =>
+                stats.indexPropertyExistsSelectivity(descriptor).map(pRange * _)
+
+              case None =>
+                for {
+                  propertyExistsSelectivity <- stats.indexPropertyExistsSelectivity(descriptor)
+                  propEqValueSelectivity <- stats.uniqueValueSelectivity(descriptor)
+                } yield {
+                  val pNeq = propEqValueSelectivity.negate
+                  val pNeqRange = pNeq.factor * DEFAULT_RANGE_SEEK_FACTOR / Math.min(seekable.expr.inequalities.size, 2)
+
+                  val pRange = Selectivity(if (seekable.hasEquality) propEqValueSelectivity.factor + pNeqRange else pNeqRange)
+                  val pRangeBounded = Selectivity(math.max(propEqValueSelectivity.factor, pRange.factor))
+                  pRangeBounded * propertyExistsSelectivity
+                }
             }
 
           case _ =>
@@ -230,6 +277,90 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
     combiner.orTogetherSelectivities(indexDistanceSelectivities).getOrElse(DEFAULT_RANGE_SELECTIVITY)
   }
 
+  private def calculateSelectivityForPrefix(variable: String,
+                                            selections: Selections,
+                                            propertyKey: PropertyKeyName,
+                                            prefix: String,
+                                            defaultSubstring: Option[String])
+                                           (implicit semanticTable: SemanticTable): Selectivity = {
+    val labels = selections.labelsOnNode(variable)
+    val histogramSelectivities = labels.toIndexedSeq.flatMap {
+      labelName =>
+        (semanticTable.id(labelName), semanticTable.id(propertyKey)) match {
+          case (Some(labelId), Some(propertyKeyId)) =>
+            val descriptor = IndexDescriptor(labelId, Seq(propertyKeyId))
+            for {
+              propExists <- stats.indexPropertyExistsSelectivity(descriptor)
+              propHasPrefix <- stats.prefixSelectivity(descriptor, prefix)
+            } yield propHasPrefix * propExists
+
+          case _ =>
+            None
+        }
+    }
+    combiner.orTogetherSelectivities(histogramSelectivities).getOrElse(
+      calculateSelectivityForSubstringSargable(variable, selections, propertyKey, defaultSubstring))
+  }
+
+  private def literalValues(args: SeekableArgs): Option[Seq[Any]] = args match {
+    case SingleSeekableArg(expr) =>
+      literalValue(expr).map(Seq(_))
+    case ManySeekableArgs(ListLiteral(expressions)) =>
+      val values = expressions.flatMap(literalValue)
+      if (values.size == expressions.size) Some(values) else None
+    case ManySeekableArgs(Parameter(name, _)) =>
+      parameterValue(name).flatMap {
+        case list: ListValue =>
+          val elements = list.asScala.toIndexedSeq
+          val values = elements.flatMap(storableValue)
+          if (values.size == elements.size) Some(values) else None
+        case _ => None
+      }
+    case _ =>
+      None
+  }
+
+  private def literalBounds(range: InequalitySeekRange[Expression]): Option[(Option[Bound[Any]], Option[Bound[Any]])] = {
+    // Only a single literal bound on each side is understood, several bounds depend on which of them is the tightest
+    def literalBound(bounds: Bounds[Expression]): Option[Bound[Any]] =
+      if (bounds.hasTail) None else literalValue(bounds.head.endPoint).map(value => bounds.head.map(_ => value))
+
+    range match {
+      case RangeGreaterThan(lower) => literalBound(lower).map(bound => (Some(bound), None))
+      case RangeLessThan(upper) => literalBound(upper).map(bound => (None, Some(bound)))
+      case RangeBetween(RangeGreaterThan(lower), RangeLessThan(upper)) =>
+        for {
+          lowerBound <- literalBound(lower)
+          upperBound <- literalBound(upper)
+        } yield (Some(lowerBound), Some(upperBound))
+    }
+  }
+
+  private def literalValue(expr: Expression): Option[Any] = expr match {
+    case literal: StringLiteral => Some(literal.value)
+    case literal: NumberLiteral => Some(literal.value)
+    case Parameter(name, _) => parameterValue(name).flatMap(storableValue)
+    case _ => None
+  }
+
+  private def parameterValue(name: String): Option[AnyValue] =
+    if (parameterValues.containsKey(name)) Some(parameterValues.get(name)) else None
+
+  // The same kinds of values as the literals above, strings and numbers
+  private def storableValue(value: AnyValue): Option[Any] = value match {
+    case text: TextValue => Some(text.stringValue())
+    case integral: IntegralValue => Some(java.lang.Long.valueOf(integral.longValue()))
+    case floatingPoint: FloatingPointValue => Some(java.lang.Double.valueOf(floatingPoint.doubleValue()))
+    case _ => None
+  }
+
+  private object StringParameterValue {
+    def unapply(expr: Expression): Option[String] = expr match {
+      case Parameter(name, _) => parameterValue(name).collect { case text: TextValue => text.stringValue() }
+      case _ => None
+    }
+  }
+
   private def calculateSelectivityForSubstringSargable(variable: String,
                                                        selections: Selections,
                                                        propertyKey: PropertyKeyName,
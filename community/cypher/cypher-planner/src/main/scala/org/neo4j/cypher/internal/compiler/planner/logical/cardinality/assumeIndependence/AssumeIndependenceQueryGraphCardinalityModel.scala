@@ -26,12 +26,14 @@ import org.neo4j.cypher.internal.ir.{QueryGraph, Selections, SimplePatternLength
 import org.neo4j.cypher.internal.planner.spi.GraphStatistics
 import org.neo4j.cypher.internal.v4_0.util.{Cardinality, Selectivity}
 import org.neo4j.cypher.internal.v4_0.expressions.LabelName
+import org.neo4j.values.virtual.MapValue
 
-case class AssumeIndependenceQueryGraphCardinalityModel(stats: GraphStatistics, combiner: SelectivityCombiner)
+case class AssumeIndependenceQueryGraphCardinalityModel(stats: GraphStatistics, combiner: SelectivityCombiner,
+                                                        parameterValues: MapValue = MapValue.EMPTY)
   extends QueryGraphCardinalityModel {
   import AssumeIndependenceQueryGraphCardinalityModel.MAX_OPTIONAL_MATCH
 
-  override val expressionSelectivityCalculator = ExpressionSelectivityCalculator(stats, combiner)
+  override val expressionSelectivityCalculator = ExpressionSelectivityCalculator(stats, combiner, parameterValues)
   private val patternSelectivityCalculator = PatternSelectivityCalculator(stats, combiner)
 
   /**
@@ -83,7 +83,13 @@ trait LogicalPlanningTestSupport extends CypherTestSupport with AstConstructionT
   def newSimpleMetrics(stats: GraphStatistics = newMockedGraphStatistics) =
     newMetricsFactory.newMetrics(stats, newExpressionEvaluator, config)
 
-  def newMockedGraphStatistics = mock[GraphStatistics]
+  def newMockedGraphStatistics: GraphStatistics = {
+    val stats = mock[GraphStatistics]
+    when(stats.equalitySelectivity(any(), any())).thenReturn(None)
+    when(stats.rangeSelectivity(any(), any(), any())).thenReturn(None)
+    when(stats.prefixSelectivity(any(), any())).thenReturn(None)
+    stats
+  }
 
   def newMockedSemanticTable: SemanticTable = {
     val m = mock[SemanticTable]
@@ -25,14 +25,19 @@ import org.mockito.invocation.InvocationOnMock
 import org.mockito.stubbing.Answer
 import org.neo4j.cypher.internal.compiler.planner.logical.PlannerDefaults._
 import org.neo4j.cypher.internal.ir.{Predicate, Selections}
+import org.neo4j.cypher.internal.logical.plans.{Bound, ExclusiveBound, InclusiveBound}
 import org.neo4j.cypher.internal.planner.spi.MinimumGraphStatistics.{MIN_NODES_ALL_CARDINALITY, MIN_NODES_WITH_LABEL_CARDINALITY}
 import org.neo4j.cypher.internal.planner.spi.{GraphStatistics, IndexDescriptor}
 import org.neo4j.cypher.internal.v4_0.ast._
 import org.neo4j.cypher.internal.v4_0.ast.semantics.SemanticTable
 import org.neo4j.cypher.internal.v4_0.expressions._
 import org.neo4j.cypher.internal.v4_0.expressions.functions.{Distance, Exists}
+import org.neo4j.cypher.internal.v4_0.rewriting.rewriters.{Forced, literalReplacement}
 import org.neo4j.cypher.internal.v4_0.util._
 import org.neo4j.cypher.internal.v4_0.util.test_helpers.CypherFunSuite
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.{MapValue, VirtualValues}
 
 class ExpressionSelectivityCalculatorTest extends CypherFunSuite with AstConstructionTestSupport {
 
@@ -893,6 +898,116 @@ class ExpressionSelectivityCalculatorTest extends CypherFunSuite with AstConstru
     eqResult should equal(IndependenceCombiner.orTogetherSelectivities(for (_ <- 1 to DEFAULT_LIST_CARDINALITY.amount.toInt) yield resFor1).get)
   }
 
+  // VALUE DISTRIBUTION
+
+  test("equality with one label, value distribution") {
+    val equals = predicate(super.equals(nProp, literalInt(3)))
+
+    val stats = mockStats(equalitySelectivities = Map((indexPerson, 3L) -> 0.5))
+    val calculator = setUpCalculator(equals, Seq(nIsPerson), stats)
+
+    calculator(equals.expr).factor should equal(0.2 * 0.5)
+  }
+
+  test("equality with one label, size 2, value distribution") {
+    val equals = predicate(in(nProp, listOfInt(3, 4)))
+
+    val stats = mockStats(equalitySelectivities = Map((indexPerson, 3L) -> 0.5, (indexPerson, 4L) -> 0.1))
+    val calculator = setUpCalculator(equals, Seq(nIsPerson), stats)
+
+    calculator(equals.expr).factor should equal(0.2 * (0.5 + 0.1) +- 0.00000001)
+  }
+
+  test("equality with one label, size 2, value distribution not known for all values") {
+    val equals = predicate(in(nProp, listOfInt(3, 4)))
+
+    val stats = mockStats(equalitySelectivities = Map((indexPerson, 3L) -> 0.5))
+    val calculator = setUpCalculator(equals, Seq(nIsPerson), stats)
+
+    val resFor1 = 0.2 * (1.0 / 180.0)
+    calculator(equals.expr).factor should equal(resFor1 + resFor1 - resFor1 * resFor1)
+  }
+
+  test("half-open (>) range with one label, value distribution") {
+    val inequality = predicate(anded(NonEmptyList(
+      greaterThan(nProp, literalInt(3))
+    )))
+
+    val stats = mockStats(rangeSelectivities = Map((indexPerson, Some(ExclusiveBound(3L)), None) -> 0.25))
+    val calculator = setUpCalculator(inequality, Seq(nIsPerson), stats)
+
+    calculator(inequality.expr).factor should equal(0.2 * 0.25)
+  }
+
+  test("closed (>= && <) range with one label, value distribution") {
+    val inequality = predicate(anded(NonEmptyList(
+      greaterThanOrEqual(nProp, literalInt(3)),
+      lessThan(nProp, literalInt(7))
+    )))
+
+    val stats = mockStats(rangeSelectivities = Map((indexPerson, Some(InclusiveBound(3L)), Some(ExclusiveBound(7L))) -> 0.125))
+    val calculator = setUpCalculator(inequality, Seq(nIsPerson), stats)
+
+    calculator(inequality.expr).factor should equal(0.2 * 0.125)
+  }
+
+  test("starts with, one label, value distribution") {
+    val stringPredicate = predicate(startsWith(nProp, literalString("12")))
+
+    val stats = mockStats(prefixSelectivities = Map((indexPerson, "12") -> 0.05))
+    val calculator = setUpCalculator(stringPredicate, Seq(nIsPerson), stats)
+
+    calculator(stringPredicate.expr).factor should equal(0.2 * 0.05 +- 0.00000001)
+  }
+
+  test("equality with one label, value distribution of an extracted literal") {
+    val (equals, params) = withExtractedLiterals(predicate(super.equals(nProp, literalInt(3))))
+
+    val stats = mockStats(equalitySelectivities = Map((indexPerson, 3L) -> 0.5))
+    val calculator = setUpCalculator(equals, Seq(nIsPerson), stats, params)
+
+    calculator(equals.expr).factor should equal(0.2 * 0.5)
+  }
+
+  test("equality with one label, size 2, value distribution of an extracted list literal") {
+    val (equals, params) = withExtractedLiterals(predicate(in(nProp, listOfInt(3, 4))))
+
+    val stats = mockStats(equalitySelectivities = Map((indexPerson, 3L) -> 0.5, (indexPerson, 4L) -> 0.1))
+    val calculator = setUpCalculator(equals, Seq(nIsPerson), stats, params)
+
+    calculator(equals.expr).factor should equal(0.2 * (0.5 + 0.1) +- 0.00000001)
+  }
+
+  test("closed (>= && <) range with one label, value distribution of extracted literals") {
+    val (inequality, params) = withExtractedLiterals(predicate(anded(NonEmptyList(
+      greaterThanOrEqual(nProp, literalInt(3)),
+      lessThan(nProp, literalInt(7))
+    ))))
+
+    val stats = mockStats(rangeSelectivities = Map((indexPerson, Some(InclusiveBound(3L)), Some(ExclusiveBound(7L))) -> 0.125))
+    val calculator = setUpCalculator(inequality, Seq(nIsPerson), stats, params)
+
+    calculator(inequality.expr).factor should equal(0.2 * 0.125)
+  }
+
+  test("starts with, one label, value distribution of an extracted literal") {
+    val (stringPredicate, params) = withExtractedLiterals(predicate(startsWith(nProp, literalString("12"))))
+
+    val stats = mockStats(prefixSelectivities = Map((indexPerson, "12") -> 0.05))
+    val calculator = setUpCalculator(stringPredicate, Seq(nIsPerson), stats, params)
+
+    calculator(stringPredicate.expr).factor should equal(0.2 * 0.05 +- 0.00000001)
+  }
+
+  test("equality with one label, parameter without a value at planning time") {
+    val equals = predicate(super.equals(nProp, parameter("p", symbols.CTInteger)))
+
+    val stats = mockStats(equalitySelectivities = Map((indexPerson, 3L) -> 0.5))
+    val calculator = setUpCalculator(equals, Seq(nIsPerson), stats)
+
+    calculator(equals.expr).factor should equal(0.2 * indexPersonUniqueSel)
+  }
+
   // OTHER
 
   test("Should peek inside sub predicates") {
@@ -926,7 +1041,8 @@ class ExpressionSelectivityCalculatorTest extends CypherFunSuite with AstConstru
 
   // HELPER METHODS
 
-  private def setUpCalculator(predicate: Predicate, hasLabels: Seq[Predicate], stats: GraphStatistics = mockStats()): Expression => Selectivity = {
+  private def setUpCalculator(predicate: Predicate, hasLabels: Seq[Predicate], stats: GraphStatistics = mockStats(),
+                              parameterValues: MapValue = MapValue.EMPTY): Expression => Selectivity = {
     implicit val semanticTable: SemanticTable = SemanticTable()
     semanticTable.resolvedLabelNames.put("Person", indexPerson.label)
     semanticTable.resolvedLabelNames.put("Animal", indexAnimal.label)
@@ -934,7 +1050,7 @@ class ExpressionSelectivityCalculatorTest extends CypherFunSuite with AstConstru
 
     implicit val selections: Selections = Selections(Set(predicate) ++ hasLabels)
     val combiner = IndependenceCombiner
-    val calculator = ExpressionSelectivityCalculator(stats, combiner)
+    val calculator = ExpressionSelectivityCalculator(stats, combiner, parameterValues)
     exp: Expression => calculator(exp)
   }
 
@@ -947,7 +1063,10 @@ class ExpressionSelectivityCalculatorTest extends CypherFunSuite with AstConstru
   private def mockStats(allNodesCardinality: Double = 10000.0,
                         labelCardinalities: Map[LabelId, Double] = Map(indexPerson.label -> 1000.0),
                         indexCardinalities: Map[IndexDescriptor, Double] = Map(indexPerson -> 200.0),
-                        indexUniqueCardinalities: Map[IndexDescriptor, Double] = Map(indexPerson -> 180.0)): GraphStatistics = {
+                        indexUniqueCardinalities: Map[IndexDescriptor, Double] = Map(indexPerson -> 180.0),
+                        equalitySelectivities: Map[(IndexDescriptor, Any), Double] = Map.empty,
+                        rangeSelectivities: Map[(IndexDescriptor, Option[Bound[Any]], Option[Bound[Any]]), Double] = Map.empty,
+                        prefixSelectivities: Map[(IndexDescriptor, String), Double] = Map.empty): GraphStatistics = {
 
     // sanity check:
     for {
@@ -992,10 +1111,40 @@ class ExpressionSelectivityCalculatorTest extends CypherFunSuite with AstConstru
       }
     })
 
+    when(stats.equalitySelectivity(any(), any())).thenAnswer(new Answer[Option[Selectivity]] {
+      override def answer(invocationOnMock: InvocationOnMock): Option[Selectivity] =
+        equalitySelectivities.get((invocationOnMock.getArgument[IndexDescriptor](0), invocationOnMock.getArgument[Any](1))).map(Selectivity(_))
+    })
+
+    when(stats.rangeSelectivity(any(), any(), any())).thenAnswer(new Answer[Option[Selectivity]] {
+      override def answer(invocationOnMock: InvocationOnMock): Option[Selectivity] =
+        rangeSelectivities.get((invocationOnMock.getArgument[IndexDescriptor](0),
+          invocationOnMock.getArgument[Option[Bound[Any]]](1),
+          invocationOnMock.getArgument[Option[Bound[Any]]](2))).map(Selectivity(_))
+    })
+
+    when(stats.prefixSelectivity(any(), any())).thenAnswer(new Answer[Option[Selectivity]] {
+      override def answer(invocationOnMock: InvocationOnMock): Option[Selectivity] =
+        prefixSelectivities.get((invocationOnMock.getArgument[IndexDescriptor](0), invocationOnMock.getArgument[String](1))).map(Selectivity(_))
+    })
+
     stats
   }
 
   private def predicate(expr: Expression) = Predicate(Set("n"), expr)
 
+  // Replaces the literals with parameters the same way query normalization does, and returns the values of those parameters
+  private def withExtractedLiterals(predicate: Predicate): (Predicate, MapValue) = {
+    val (rewriter, extractedParams) = literalReplacement(predicate.expr, Forced)
+    extractedParams should not be empty
+
+    def asValue(value: Any): AnyValue = value match {
+      case values: Seq[_] => VirtualValues.list(values.map(asValue): _*)
+      case v => Values.of(v)
+    }
+    val (names, values) = extractedParams.toSeq.unzip
+    (predicate.copy(expr = predicate.expr.endoRewrite(rewriter)), VirtualValues.map(names.toArray, values.map(asValue).toArray))
+  }
+
   private def anded(exprs: NonEmptyList[InequalityExpression]) = AndedPropertyInequalities(varFor("n"), nProp, exprs)
 }
@@ -21,10 +21,13 @@ package org.neo4j.cypher.internal
 
 import org.neo4j.cypher.internal.planning.CypherPlanner
 import org.neo4j.cypher.internal.compiler.CypherPlannerConfiguration
+import org.neo4j.cypher.internal.runtime.interpreted.ParallelExecution
 import org.neo4j.cypher.{CypherPlannerOption, CypherRuntimeOption, CypherUpdateStrategy, CypherVersion}
 import org.neo4j.kernel.GraphDatabaseQueryService
+import org.neo4j.kernel.api.Kernel
 import org.neo4j.logging.{Log, LogProvider}
 import org.neo4j.monitoring.{Monitors => KernelMonitors}
+import org.neo4j.scheduler.{Group, JobScheduler}
 
 /**
   * Factory which creates cypher compilers.
@@ -38,6 +41,20 @@ class CommunityCompilerFactory(graph: GraphDatabaseQueryService,
 
   private val log: Log = logProvider.getLog(getClass)
 
+  // The workers are threads of the job scheduler, which are shared by all databases and shut down with the DBMS. Without
+  // a configured number of workers there is one per available processor, which is two per physical core on machines with
+  // hyper-threading.
+  private lazy val parallelExecution: Option[ParallelExecution] = {
+    val workers = if (runtimeConfig.workers > 0) runtimeConfig.workers else Runtime.getRuntime.availableProcessors()
+    if (runtimeConfig.parallelAggregation && workers > 1) {
+      val resolver = graph.getDependencyResolver
+      val jobScheduler = resolver.resolveDependency(classOf[JobScheduler])
+      jobScheduler.setParallelism(Group.CYPHER_PARALLEL_AGGREGATION, workers)
+      val kernel = resolver.resolveDependency(classOf[Kernel])
+      Some(ParallelExecution(jobScheduler.executor(Group.CYPHER_PARALLEL_AGGREGATION), workers, kernel.cursors()))
+    } else None
+  }
+
   override def createCompiler(cypherVersion: CypherVersion,
                               cypherPlanner: CypherPlannerOption,
                               cypherRuntime: CypherRuntimeOption,
@@ -68,7 +85,7 @@ class CommunityCompilerFactory(graph: GraphDatabaseQueryService,
     CypherCurrentCompiler(
       planner,
       runtime,
-      CommunityRuntimeContextManager(log, runtimeConfig),
+      CommunityRuntimeContextManager(log, runtimeConfig, parallelExecution),
       kernelMonitors)
   }
 }
@@ -23,6 +23,7 @@ import java.time.Clock
 
 import org.neo4j.cypher.{CypherInterpretedPipesFallbackOption, CypherOperatorEngineOption}
 import org.neo4j.cypher.internal.planner.spi.TokenContext
+import org.neo4j.cypher.internal.runtime.interpreted.ParallelExecution
 import org.neo4j.internal.kernel.api.SchemaRead
 import org.neo4j.logging.Log
 
@@ -32,22 +33,23 @@ import org.neo4j.logging.Log
 case class CommunityRuntimeContext(tokenContext: TokenContext,
                                    schemaRead: SchemaRead,
                                    log: Log,
-                                   config: CypherRuntimeConfiguration) extends RuntimeContext {
+                                   config: CypherRuntimeConfiguration,
+                                   compileExpressions: Boolean = false,
+                                   override val parallelExecution: Option[ParallelExecution] = None) extends RuntimeContext
 
-  override def compileExpressions: Boolean = false
-}
-
-case class CommunityRuntimeContextManager(log: Log, config: CypherRuntimeConfiguration) extends RuntimeContextManager[CommunityRuntimeContext] {
+case class CommunityRuntimeContextManager(log: Log,
+                                          config: CypherRuntimeConfiguration,
+                                          parallelExecution: Option[ParallelExecution] = None) extends RuntimeContextManager[CommunityRuntimeContext] {
   override def create(tokenContext: TokenContext,
                       schemaRead: SchemaRead,
                       clock: Clock,
                       debugOptions: Set[String],
-                      ignore: Boolean,
+                      compileExpressions: Boolean,
                       ignore2: Boolean,
                       ignore3: CypherOperatorEngineOption,
                       ignore4: CypherInterpretedPipesFallbackOption
                      ): CommunityRuntimeContext =
-    CommunityRuntimeContext(tokenContext, schemaRead, log, config)
+    CommunityRuntimeContext(tokenContext, schemaRead, log, config, compileExpressions, parallelExecution)
 
   // As we rely completely on transaction bound resources in community,
   // there is no need for further assertions here.
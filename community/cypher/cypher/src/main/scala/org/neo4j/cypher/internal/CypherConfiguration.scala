@@ -20,6 +20,7 @@
 package org.neo4j.cypher.internal
 
 import java.io.File
+import java.nio.file.Path
 
 import org.neo4j.configuration.{Config, GraphDatabaseSettings, SettingChangeListener}
 import org.neo4j.cypher._
@@ -55,7 +56,8 @@ object CypherConfiguration {
       CypherOperatorEngineOption(config.get(GraphDatabaseSettings.cypher_operator_engine).toString),
       CypherInterpretedPipesFallbackOption(config.get(GraphDatabaseSettings.cypher_pipelined_interpreted_pipes_fallback).toString),
       new ConfigMemoryTrackingController(config),
-      config.get(GraphDatabaseSettings.cypher_enable_runtime_monitors)
+      config.get(GraphDatabaseSettings.cypher_enable_runtime_monitors),
+      config.get(GraphDatabaseSettings.cypher_parallel_aggregation)
     )
   }
 
@@ -75,27 +77,45 @@ object CypherConfiguration {
 
 class ConfigMemoryTrackingController(config: Config) extends MemoryTrackingController {
 
+  private val spillDirectory: Path = config.get(GraphDatabaseSettings.query_spill_directory)
+
   @volatile private var _memoryTracking: MemoryTracking =
     getMemoryTracking(
       config.get(GraphDatabaseSettings.track_query_allocation),
-      config.get(GraphDatabaseSettings.query_max_memory))
+      config.get(GraphDatabaseSettings.query_max_memory),
+      config.get(GraphDatabaseSettings.query_spill_threshold))
 
   override def memoryTracking: MemoryTracking = _memoryTracking
 
   config.addListener(GraphDatabaseSettings.track_query_allocation,
                      new SettingChangeListener[java.lang.Boolean] {
                        override def accept(before: java.lang.Boolean, after: java.lang.Boolean): Unit =
-                         _memoryTracking = getMemoryTracking(after, config.get(GraphDatabaseSettings.query_max_memory))
+                         _memoryTracking = getMemoryTracking(after,
+                                                             config.get(GraphDatabaseSettings.query_max_memory),
+                                                             config.get(GraphDatabaseSettings.query_spill_threshold))
                      })
 
   config.addListener(GraphDatabaseSettings.query_max_memory,
                      new SettingChangeListener[java.lang.Long] {
                        override def accept(before: java.lang.Long, after: java.lang.Long): Unit =
-                        _memoryTracking = getMemoryTracking(config.get(GraphDatabaseSettings.track_query_allocation), after)
+                        _memoryTracking = getMemoryTracking(config.get(GraphDatabaseSettings.track_query_allocation),
+                                                            after,
+                                                            config.get(GraphDatabaseSettings.query_spill_threshold))
+                     })
+
+  config.addListener(GraphDatabaseSettings.query_spill_threshold,
+                     new SettingChangeListener[java.lang.Long] {
+                       override def accept(before: java.lang.Long, after: java.lang.Long): Unit =
+                        _memoryTracking = getMemoryTracking(config.get(GraphDatabaseSettings.track_query_allocation),
+                                                            config.get(GraphDatabaseSettings.query_max_memory),
+                                                            after)
                      })
 
-  private def getMemoryTracking(trackQueryAllocation: Boolean, queryMaxMemory: Long): MemoryTracking =
-    if (trackQueryAllocation && queryMaxMemory > 0) MEMORY_BOUND(queryMaxMemory)
+  private def getMemoryTracking(trackQueryAllocation: Boolean, queryMaxMemory: Long, querySpillThreshold: Long): MemoryTracking =
+    if (trackQueryAllocation && (queryMaxMemory > 0 || querySpillThreshold > 0))
+      MEMORY_BOUND(if (queryMaxMemory > 0) queryMaxMemory else Long.MaxValue,
+                   if (querySpillThreshold > 0) querySpillThreshold else Long.MaxValue,
+                   spillDirectory)
     else if (trackQueryAllocation) MEMORY_TRACKING
     else NO_TRACKING
 }
@@ -123,7 +143,8 @@ case class CypherConfiguration(version: CypherVersion,
                                operatorEngine: CypherOperatorEngineOption,
                                interpretedPipesFallback: CypherInterpretedPipesFallbackOption,
                                memoryTrackingController: MemoryTrackingController,
-                               enableMonitors: Boolean) {
+                               enableMonitors: Boolean,
+                               parallelAggregation: Boolean) {
 
   def toCypherRuntimeConfiguration: CypherRuntimeConfiguration =
     CypherRuntimeConfiguration(
@@ -133,7 +154,8 @@ case class CypherConfiguration(version: CypherVersion,
       schedulerTracing = toSchedulerTracingConfiguration(doSchedulerTracing, schedulerTracingFile),
       lenientCreateRelationship = lenientCreateRelationship,
       memoryTrackingController = memoryTrackingController,
-      enableMonitors
+      enableMonitors,
+      parallelAggregation
     )
 
   def toSchedulerTracingConfiguration(doSchedulerTracing: Boolean,
@@ -155,6 +177,7 @@ case class CypherConfiguration(version: CypherVersion,
       legacyCsvQuoteEscaping = legacyCsvQuoteEscaping,
       csvBufferSize = csvBufferSize,
       nonIndexedLabelWarningThreshold = config.get(GraphDatabaseSettings.query_non_indexed_label_warning_threshold).longValue(),
-      planSystemCommands = planSystemCommands
+      planSystemCommands = planSystemCommands,
+      planWithParameterValues = config.get(GraphDatabaseSettings.cypher_plan_with_parameter_values)
     )
 }
@@ -27,6 +27,7 @@ import org.neo4j.cypher.internal.logical.plans.LogicalPlan
 import org.neo4j.cypher.internal.planner.spi.PlanningAttributes.{Cardinalities, ProvidedOrders}
 import org.neo4j.cypher.internal.planner.spi.TokenContext
 import org.neo4j.cypher.internal.runtime.MemoryTrackingController
+import org.neo4j.cypher.internal.runtime.interpreted.ParallelExecution
 import org.neo4j.cypher.internal.v4_0.ast.semantics.SemanticTable
 import org.neo4j.cypher.internal.v4_0.frontend.phases.RecordingNotificationLogger
 import org.neo4j.cypher.internal.v4_0.util.InternalNotification
@@ -91,6 +92,7 @@ abstract class RuntimeContext {
   def config: CypherRuntimeConfiguration
   def compileExpressions: Boolean
   def log: Log
+  def parallelExecution: Option[ParallelExecution] = None
 }
 
 /**
@@ -196,7 +198,8 @@ case class CypherRuntimeConfiguration(workers: Int,
                                       schedulerTracing: SchedulerTracingConfiguration,
                                       lenientCreateRelationship: Boolean,
                                       memoryTrackingController: MemoryTrackingController,
-                                      enableMonitors: Boolean) {
+                                      enableMonitors: Boolean,
+                                      parallelAggregation: Boolean = false) {
 
   Preconditions.checkArgument(pipelinedBatchSizeSmall <= pipelinedBatchSizeBig, s"pipelinedBatchSizeSmall (got $pipelinedBatchSizeSmall) must be <= pipelinedBatchSizeBig (got $pipelinedBatchSizeBig)")
 }
@@ -62,6 +62,8 @@ abstract class DelegatingExecutionPlan(inner: ExecutionPlan) extends ExecutionPl
                    subscriber: QuerySubscriber): RuntimeResult =
     inner.run(queryContext, executionMode, params, prePopulateResults, input, subscriber)
 
+  override def threadSafeExecutionResources(): Option[(CursorFactory, ResourceManagerFactory)] = inner.threadSafeExecutionResources()
+
   override def runtimeName: RuntimeName = inner.runtimeName
 
   override def metadata: Seq[Argument] = inner.metadata
@@ -22,13 +22,15 @@ package org.neo4j.cypher.internal
 import org.neo4j.cypher.internal.plandescription.Argument
 import org.neo4j.cypher.internal.runtime._
 import org.neo4j.cypher.internal.runtime.expressionVariableAllocation.Result
-import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{CommunityExpressionConverter, ExpressionConverters}
-import org.neo4j.cypher.internal.runtime.interpreted.pipes.{NestedPipeExpressions, PipeTreeBuilder}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{CommunityExpressionConverter, CompiledExpressionConverter, ExpressionConverters}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{NestedPipeExpressions, ParallelAggregationPipe, PipeTreeBuilder}
 import org.neo4j.cypher.internal.runtime.interpreted.profiler.{InterpretedProfileInformation, Profiler}
-import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionResultBuilderFactory, InterpretedExecutionResultBuilderFactory, InterpretedPipeMapper, UpdateCountingQueryContext}
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionResultBuilderFactory, InterpretedExecutionResultBuilderFactory, InterpretedPipeMapper, ParallelExecution, UpdateCountingQueryContext}
+import org.neo4j.cypher.internal.v4_0.util.Foldable._
 import org.neo4j.cypher.internal.v4_0.util.InternalNotification
 import org.neo4j.cypher.result.RuntimeResult
 import org.neo4j.exceptions.PeriodicCommitInOpenTransactionException
+import org.neo4j.internal.kernel.api.CursorFactory
 import org.neo4j.internal.kernel.api.security.SecurityContext
 import org.neo4j.kernel.impl.query.QuerySubscriber
 import org.neo4j.values.virtual.MapValue
@@ -40,9 +42,14 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
     val Result(logicalPlan, nExpressionSlots, availableExpressionVars) = expressionVariableAllocation.allocate(query.logicalPlan)
     val (withSlottedParameters, parameterMapping) = slottedParameters(logicalPlan)
 
-    val converters = new ExpressionConverters(CommunityExpressionConverter(context.tokenContext))
+    val converters =
+      if (context.compileExpressions) new ExpressionConverters(CompiledExpressionConverter(context.tokenContext),
+                                                           CommunityExpressionConverter(context.tokenContext))
+      else new ExpressionConverters(CommunityExpressionConverter(context.tokenContext))
     val queryIndexRegistrator = new QueryIndexRegistrator(context.schemaRead)
-    val pipeMapper = InterpretedPipeMapper(query.readOnly, converters, context.tokenContext, queryIndexRegistrator)(query.semanticTable)
+    val variableSlots = variableSlotAllocation(withSlottedParameters)
+    val pipeMapper = InterpretedPipeMapper(query.readOnly, converters, context.tokenContext, queryIndexRegistrator, variableSlots,
+                                           context.parallelExecution)(query.semanticTable)
     val pipeTreeBuilder = PipeTreeBuilder(pipeMapper)
     val logicalPlanWithConvertedNestedPlans = NestedPipeExpressions.build(pipeTreeBuilder, withSlottedParameters, availableExpressionVars)
     val pipe = pipeTreeBuilder.build(logicalPlanWithConvertedNestedPlans)
@@ -58,11 +65,16 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
                                                                         context.config.memoryTrackingController,
                                                                         query.hasLoadCSV)
 
+    val usesWorkers = pipe.treeExists {
+      case _: ParallelAggregationPipe => true
+    }
+
     new InterpretedExecutionPlan(query.periodicCommitInfo,
                                  resultBuilderFactory,
                                  InterpretedRuntimeName,
                                  query.readOnly,
-                                 IndexedSeq.empty)
+                                 IndexedSeq.empty,
+                                 if (usesWorkers) context.parallelExecution else None)
   }
 
   /**
@@ -73,7 +85,8 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
                                  resultBuilderFactory: ExecutionResultBuilderFactory,
                                  override val runtimeName: RuntimeName,
                                  readOnly: Boolean,
-                                 override val metadata: Seq[Argument]) extends ExecutionPlan {
+                                 override val metadata: Seq[Argument],
+                                 parallelExecution: Option[ParallelExecution] = None) extends ExecutionPlan {
 
     override def run(queryContext: QueryContext,
                      executionMode: ExecutionMode,
@@ -104,6 +117,18 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
                     subscriber)
     }
 
+    /**
+      * Plans with operators that run on several workers use the thread safe cursors of the parallel execution,
+      * and track their resources in a thread safe resource manager.
+      */
+    override def threadSafeExecutionResources(): Option[(CursorFactory, ResourceManagerFactory)] =
+      parallelExecution.map { parallel =>
+        val resourceManagerFactory = new ResourceManagerFactory {
+          override def apply(monitor: ResourceMonitor): ResourceManager = new ThreadSafeResourceManager(monitor)
+        }
+        (parallel.cursors, resourceManagerFactory)
+      }
+
     override def notifications: Set[InternalNotification] = Set.empty
   }
 }
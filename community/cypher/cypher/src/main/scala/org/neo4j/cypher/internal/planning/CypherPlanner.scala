@@ -212,7 +212,7 @@ case class CypherPlanner(config: CypherPlannerConfiguration,
 
     // Context used to create logical plans
     val logicalPlanIdGen = new SequentialIdGen()
-    val context = contextCreator.create(tracer,
+    def createContext(params: MapValue) = contextCreator.create(tracer,
       notificationLogger,
       planContext,
       syntacticQuery.queryText,
@@ -228,17 +228,22 @@ case class CypherPlanner(config: CypherPlannerConfiguration,
       simpleExpressionEvaluator,
       innerVariableNamer,
       params)
+    val context = createContext(params)
 
     // Prepare query for caching
     val preparedQuery = planner.normalizeQuery(syntacticQuery, context)
     val queryParamNames: Seq[String] = preparedQuery.statement().findByAllClass[Parameter].map(x => x.name).distinct
+    val autoExtractParams = ValueConversion.asValues(preparedQuery.extractedParams()) // only extracted ones
+    // Cardinality estimation can look at the values of parameters, including the literals that were just extracted
+    lazy val planningContext =
+      if (config.planWithParameterValues) createContext(params.updatedWith(autoExtractParams)) else context
 
     checkForSchemaChanges(transactionalContextWrapper)
 
     // If the query is not cached we want to do the full planning
     def createPlan(shouldBeCached: Boolean, missingParameterNames: Seq[String] = Seq.empty): CacheableLogicalPlan = {
       var shouldCache = shouldBeCached
-      val logicalPlanStateOld = planner.planPreparedQuery(preparedQuery, context)
+      val logicalPlanStateOld = planner.planPreparedQuery(preparedQuery, planningContext)
       val hasLoadCsv = logicalPlanStateOld.logicalPlan.treeFind[LogicalPlan] {
         case _: LoadCSV => true
       }.nonEmpty
@@ -274,7 +279,6 @@ case class CypherPlanner(config: CypherPlannerConfiguration,
       CacheableLogicalPlan(logicalPlanState, reusabilityState, notificationLogger.notifications, shouldCache)
     }
 
-    val autoExtractParams = ValueConversion.asValues(preparedQuery.extractedParams()) // only extracted ones
     // Filter the parameters to retain only those that are actually used in the query (or a subset of them, if not enough
     // parameters where given in the first place)
     val filteredParams: MapValue = params.updatedWith(autoExtractParams).filter(new BiFunction[String, AnyValue, java.lang.Boolean] {
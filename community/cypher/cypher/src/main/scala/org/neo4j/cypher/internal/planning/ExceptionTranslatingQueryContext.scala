@@ -121,6 +121,9 @@ class ExceptionTranslatingQueryContext(val inner: QueryContext) extends QueryCon
   override def getNodesByLabelPrimitive(id: Int): LongIterator =
     translateException(inner.getNodesByLabelPrimitive(id))
 
+  override def getNodesByAllLabels(ids: Array[Int]): Iterator[NodeValue] =
+    translateException(inner.getNodesByAllLabels(ids))
+
 
   override def nodeAsMap(id: Long, nodeCursor: NodeCursor, propertyCursor: PropertyCursor): MapValue =
     translateException(inner.nodeAsMap(id, nodeCursor, propertyCursor))
@@ -20,14 +20,17 @@
 package org.neo4j.cypher.internal.spi
 
 import java.lang.Math.min
+import java.util.OptionalDouble
 
+import org.neo4j.cypher.internal.logical.plans.Bound
 import org.neo4j.cypher.internal.planner.spi.{GraphStatistics, IndexDescriptor, MinimumGraphStatistics}
 import org.neo4j.cypher.internal.v4_0.util.{Cardinality, LabelId, RelTypeId, Selectivity}
 import org.neo4j.internal.helpers.collection.Iterators
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException
-import org.neo4j.internal.kernel.api.{Read, SchemaRead, TokenRead}
+import org.neo4j.internal.kernel.api.{IndexHistogram, Read, SchemaRead, TokenRead}
 import org.neo4j.internal.schema.SchemaDescriptor
 import org.neo4j.kernel.impl.query.TransactionalContext
+import org.neo4j.values.storable.{Value, Values}
 
 object TransactionBoundGraphStatistics {
   def apply(transactionalContext: TransactionalContext): MinimumGraphStatistics =
@@ -86,6 +89,51 @@ object TransactionBoundGraphStatistics {
         case _: IndexNotFoundKernelException => None
       }
 
+    override def equalitySelectivity(index: IndexDescriptor, value: Any): Option[Selectivity] =
+      for {
+        histogram <- indexHistogram(index)
+        v <- storableValue(value)
+        selectivity <- asSelectivity(histogram.equalsSelectivity(v))
+      } yield selectivity
+
+    override def rangeSelectivity(index: IndexDescriptor, lower: Option[Bound[Any]], upper: Option[Bound[Any]]): Option[Selectivity] =
+      for {
+        histogram <- indexHistogram(index)
+        from <- boundValue(lower)
+        to <- boundValue(upper)
+        selectivity <- asSelectivity(histogram.rangeSelectivity(from.orNull, lower.exists(_.isInclusive), to.orNull, upper.exists(_.isInclusive)))
+      } yield selectivity
+
+    override def prefixSelectivity(index: IndexDescriptor, prefix: String): Option[Selectivity] =
+      indexHistogram(index).flatMap(histogram => Selectivity.of(min(histogram.prefixSelectivity(prefix), 1.0)))
+
+    private def indexHistogram(index: IndexDescriptor): Option[IndexHistogram] =
+      try {
+        val indexDescriptor = Iterators.single(schemaRead.index(SchemaDescriptor.forLabel(index.label, index.properties.map(_.id): _*)),
+          org.neo4j.internal.schema.IndexDescriptor.NO_INDEX)
+        Option(schemaRead.indexHistogram(indexDescriptor))
+      }
+      catch {
+        case _: IndexNotFoundKernelException => None
+      }
+
+    // Only literal strings and numbers are tracked by the value distribution of an index
+    private def storableValue(value: Any): Option[Value] = value match {
+      case s: String => Some(Values.stringValue(s))
+      case l: java.lang.Long => Some(Values.longValue(l))
+      case d: java.lang.Double => Some(Values.doubleValue(d))
+      case _ => None
+    }
+
+    // Some(None) for a missing bound, None for a bound with an unsupported value
+    private def boundValue(bound: Option[Bound[Any]]): Option[Option[Value]] = bound match {
+      case None => Some(None)
+      case Some(b) => storableValue(b.endPoint).map(Some(_))
+    }
+
+    private def asSelectivity(selectivity: OptionalDouble): Option[Selectivity] =
+      if (selectivity.isPresent) Selectivity.of(min(selectivity.getAsDouble, 1.0)) else None
+
     override def nodesAllCardinality(): Cardinality =
       Cardinality(read.countsForNodeWithoutTxState(TokenRead.ANY_LABEL))
 
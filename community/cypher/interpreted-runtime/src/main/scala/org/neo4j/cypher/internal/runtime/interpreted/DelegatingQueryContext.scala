@@ -151,6 +151,8 @@ abstract class DelegatingQueryContext(val inner: QueryContext) extends QueryCont
 
   override def getNodesByLabelPrimitive(id: Int): LongIterator = manyDbHits(inner.getNodesByLabelPrimitive(id))
 
+  override def getNodesByAllLabels(ids: Array[Int]): Iterator[NodeValue] = manyDbHits(inner.getNodesByAllLabels(ids))
+
   override def nodeAsMap(id: Long, nodeCursor: NodeCursor, propertyCursor: PropertyCursor): MapValue = {
     val map = inner.nodeAsMap(id, nodeCursor, propertyCursor)
     //one hit finding the node, then finding the properies
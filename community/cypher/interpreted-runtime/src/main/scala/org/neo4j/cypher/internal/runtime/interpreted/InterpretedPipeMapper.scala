@@ -27,14 +27,15 @@ import org.neo4j.cypher.internal.runtime.ast.ExpressionVariable
 import org.neo4j.cypher.internal.runtime.interpreted.commands.KeyTokenResolver
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.PatternConverters._
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{ExpressionConverters, InterpretedCommandProjection}
-import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Expression, Literal, ShortestPathExpression}
-import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.Predicate
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Expression, Literal, ShortestPathExpression, Variable => CommandVariable, VariableFromSlot}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.{Predicate, True => TruePredicate}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes._
-import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.{GroupingAggTable, NonGroupingAggTable, OrderedGroupingAggTable, OrderedNonGroupingAggTable}
-import org.neo4j.cypher.internal.runtime.{ExecutionContext, ProcedureCallMode, QueryIndexRegistrator}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.{GroupingAggTable, MergeableAggregationFunction, NonGroupingAggTable, OrderedGroupingAggTable, OrderedNonGroupingAggTable}
+import org.neo4j.cypher.internal.runtime.{ExecutionContext, ProcedureCallMode, QueryIndexRegistrator, VariableSlots}
 import org.neo4j.cypher.internal.v4_0.ast.semantics.SemanticTable
 import org.neo4j.cypher.internal.v4_0.expressions.{Equals => ASTEquals, Expression => ASTExpression, _}
 import org.neo4j.cypher.internal.v4_0.util.Eagerly
+import org.neo4j.cypher.internal.v4_0.util.Foldable._
 import org.neo4j.cypher.internal.v4_0.util.attribution.Id
 import org.neo4j.exceptions.InternalException
 import org.neo4j.values.AnyValue
@@ -43,18 +44,43 @@ import org.neo4j.values.virtual.{NodeValue, RelationshipValue}
 /**
  * Responsible for turning a logical plan with argument pipes into a new pipe.
  * When adding new Pipes and LogicalPlans, this is where you should be looking.
+ *
+ * When variable slots are given, the pipes create rows that store variables at these slots, and expressions read
+ * variables by offset.
  */
 case class InterpretedPipeMapper(readOnly: Boolean,
                                  expressionConverters: ExpressionConverters,
                                  tokenContext: TokenContext,
-                                 indexRegistrator: QueryIndexRegistrator)
+                                 indexRegistrator: QueryIndexRegistrator,
+                                 variableSlots: VariableSlots = VariableSlots.empty,
+                                 parallelExecution: Option[ParallelExecution] = None)
                                 (implicit semanticTable: SemanticTable) extends PipeMapper {
 
+  private val executionContextFactory: ExecutionContextFactory =
+    if (variableSlots.size == 0) CommunityExecutionContextFactory() else SlotMappedExecutionContextFactory(variableSlots)
+
   private def getBuildExpression(id: Id): ASTExpression => Expression =
     ((e: ASTExpression) => expressionConverters.toCommandExpression(id, e)) andThen
-    (expression => expression.rewrite(KeyTokenResolver.resolveExpressions(_, tokenContext)))
+    (expression => expression.rewrite(KeyTokenResolver.resolveExpressions(_, tokenContext))) andThen
+    (expression => expression.rewrite(readVariableFromSlot))
+
+  private def readVariableFromSlot(expression: Expression): Expression = expression match {
+    case CommandVariable(name) if variableSlots.contains(name) => VariableFromSlot(variableSlots.offsetFor(name), name)
+    case _ => expression
+  }
+
+  private def withExecutionContextFactory(pipe: Pipe): Pipe = {
+    pipe.executionContextFactory = executionContextFactory
+    pipe
+  }
 
-  def onLeaf(plan: LogicalPlan): Pipe = {
+  def onLeaf(plan: LogicalPlan): Pipe = withExecutionContextFactory(leafPipe(plan))
+
+  def onOneChildPlan(plan: LogicalPlan, source: Pipe): Pipe = withExecutionContextFactory(oneChildPipe(plan, source))
+
+  def onTwoChildPlan(plan: LogicalPlan, lhs: Pipe, rhs: Pipe): Pipe = withExecutionContextFactory(twoChildPipe(plan, lhs, rhs))
+
+  private def leafPipe(plan: LogicalPlan): Pipe = {
     val id = plan.id
     val buildExpression = getBuildExpression(id)
     plan match {
@@ -110,7 +136,49 @@ case class InterpretedPipeMapper(readOnly: Boolean,
     }
   }
 
-  def onOneChildPlan(plan: LogicalPlan, source: Pipe): Pipe = {
+  /**
+   * A filter on further labels of the node produced by a label scan is answered by intersecting the labels in the label
+   * index, rather than reading the labels of every scanned node. Returns the pipe to filter and the predicates left to it.
+   */
+  private def intersectLabelPredicates(source: Pipe, predicates: Set[ASTExpression]): (Pipe, Set[ASTExpression]) = source match {
+    case scan@NodeByLabelScanPipe(ident, label, additionalLabels) =>
+      val (labelPredicates, remaining) = predicates.partition {
+        case HasLabels(Variable(`ident`), _) => true
+        case _ => false
+      }
+      if (labelPredicates.isEmpty) (source, predicates)
+      else {
+        val labels = labelPredicates.toSeq.flatMap {
+          case HasLabels(_, labelNames) => labelNames.map(LazyLabel(_))
+        }
+        (withExecutionContextFactory(NodeByLabelScanPipe(ident, label, additionalLabels ++ labels)(id = scan.id)), remaining)
+      }
+
+    case _ => (source, predicates)
+  }
+
+  /**
+   * An aggregation without grouping can be run by several workers when every aggregation function can be merged from
+   * partial aggregations, and its source is a scan of all nodes or of all nodes with a label, that is only filtered and
+   * expanded. Filters that run nested plans or user defined functions stay on a single thread.
+   */
+  private def canAggregateInParallel(source: LogicalPlan, aggregations: Array[AggregationPipe.AggregatingCol]): Boolean = {
+    def isPartitionable(plan: LogicalPlan): Boolean = plan match {
+      case AllNodesScan(_, argumentIds) => argumentIds.isEmpty
+      case NodeByLabelScan(_, _, argumentIds) => argumentIds.isEmpty
+      case Selection(predicate, lhs) =>
+        !predicate.treeExists {
+          case _: NestedPipeExpression | _: NestedPlanExpression | _: ResolvedFunctionInvocation => true
+        } && isPartitionable(lhs)
+      case Expand(lhs, _, _, _, _, _, ExpandAll) => isPartitionable(lhs)
+      case _ => false
+    }
+
+    parallelExecution.isDefined && readOnly && isPartitionable(source) &&
+      aggregations.forall(_.expression.createAggregationFunction.isInstanceOf[MergeableAggregationFunction])
+  }
+
+  private def oneChildPipe(plan: LogicalPlan, source: Pipe): Pipe = {
     val id = plan.id
     val buildExpression = getBuildExpression(id)
     plan match {
@@ -130,9 +198,12 @@ case class InterpretedPipeMapper(readOnly: Boolean,
         DropResultPipe(source)(id = id)
 
       case Selection(predicate, _) =>
+        val (filterSource, remaining) = intersectLabelPredicates(source, predicate.exprs)
         val predicateExpression =
-          if (predicate.exprs.size == 1) buildExpression(predicate.exprs.head) else buildExpression(predicate)
-        FilterPipe(source, predicateExpression)(id = id)
+          if (remaining.isEmpty) TruePredicate()
+          else if (remaining.size == 1) buildExpression(remaining.head)
+          else buildExpression(Ands(remaining)(predicate.position))
+        FilterPipe(filterSource, predicateExpression)(id = id)
 
       case CacheProperties(_, properties) =>
         val runtimeProperties = properties.toArray.map(buildExpression(_))
@@ -258,22 +329,26 @@ case class InterpretedPipeMapper(readOnly: Boolean,
         }.toArray
         OrderedDistinctPipe(source, projection)(id = id)
 
-      case Aggregation(_, groupingExpressions, aggregatingExpressions) =>
+      case Aggregation(lhs, groupingExpressions, aggregatingExpressions) =>
         val aggregationColumns = aggregatingExpressions.map {
           case (key, value) => AggregationPipe.AggregatingCol(key, buildExpression(value).asInstanceOf[AggregationExpression])
         }.toArray
 
-        val tableFactory =
-          if (groupingExpressions.isEmpty) {
-            NonGroupingAggTable.Factory(aggregationColumns)
-          } else {
-            val groupingColumns = groupingExpressions.map {
-              case (key, value) => DistinctPipe.GroupingCol(key, buildExpression(value))
-            }.toArray
-            val groupingFunction: (ExecutionContext, QueryState) => AnyValue = AggregationPipe.computeGroupingFunction(groupingColumns)
-            GroupingAggTable.Factory(groupingColumns, groupingFunction, aggregationColumns)
-          }
-        EagerAggregationPipe(source, tableFactory)(id = id)
+        if (groupingExpressions.isEmpty && canAggregateInParallel(lhs, aggregationColumns)) {
+          ParallelAggregationPipe(source, aggregationColumns, parallelExecution.get)(id = id)
+        } else {
+          val tableFactory =
+            if (groupingExpressions.isEmpty) {
+              NonGroupingAggTable.Factory(aggregationColumns)
+            } else {
+              val groupingColumns = groupingExpressions.map {
+                case (key, value) => DistinctPipe.GroupingCol(key, buildExpression(value))
+              }.toArray
+              val groupingFunction: (ExecutionContext, QueryState) => AnyValue = AggregationPipe.computeGroupingFunction(groupingColumns)
+              GroupingAggTable.Factory(groupingColumns, groupingFunction, aggregationColumns)
+            }
+          EagerAggregationPipe(source, tableFactory)(id = id)
+        }
 
       case OrderedAggregation(_, groupingExpressions, aggregatingExpressions, orderToLeverage) =>
         val aggregationColumns = aggregatingExpressions.map {
@@ -447,7 +522,7 @@ case class InterpretedPipeMapper(readOnly: Boolean,
     }
   }
 
-  def onTwoChildPlan(plan: LogicalPlan, lhs: Pipe, rhs: Pipe): Pipe = {
+  private def twoChildPipe(plan: LogicalPlan, lhs: Pipe, rhs: Pipe): Pipe = {
     val id = plan.id
     val buildExpression = getBuildExpression(id)
     plan match {
@@ -523,6 +598,7 @@ case class InterpretedPipeMapper(readOnly: Boolean,
   private def buildPredicate(id: Id, expr: ASTExpression): Predicate =
     expressionConverters.toCommandPredicate(id, expr)
       .rewrite(KeyTokenResolver.resolveExpressions(_, tokenContext))
+      .rewrite(readVariableFromSlot)
       .asInstanceOf[Predicate]
 
   private def translateColumnOrder(s: plans.ColumnOrder): org.neo4j.cypher.internal.runtime.interpreted.ColumnOrder = s match {
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import java.util.concurrent.Executor
+
+import org.neo4j.internal.kernel.api.CursorFactory
+
+/**
+  * What the interpreted runtime needs to run parts of a read-only query on several threads.
+  *
+  * @param workerPool the pool that the work of all queries is forked on, whose life cycle is not managed by the runtime
+  * @param workers    the number of workers that the work of a query is forked to
+  * @param cursors    a cursor factory that can be used from any thread
+  */
+case class ParallelExecution(workerPool: Executor, workers: Int, cursors: CursorFactory)
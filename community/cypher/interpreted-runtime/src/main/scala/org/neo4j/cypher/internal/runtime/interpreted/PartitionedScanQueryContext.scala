@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import org.eclipse.collections.api.iterator.LongIterator
+import org.neo4j.cypher.internal.runtime.{NodeOperations, QueryContext}
+import org.neo4j.internal.kernel.api.{Cursor, NodeCursor, NodeLabelIndexCursor, Read, Scan}
+import org.neo4j.values.virtual.NodeValue
+
+import scala.collection.mutable
+
+/**
+  * The query context of one worker of a parallel operator. Scanning all nodes, or all nodes with a label, only returns
+  * the nodes of the batches that this worker reserves of a scan shared by all workers, so that together the workers
+  * see every node exactly once.
+  */
+class PartitionedScanQueryContext(inner: QueryContext, scans: SharedScans) extends DelegatingQueryContext(inner) {
+
+  import PartitionedScanQueryContext.{BATCH_SIZE, NOT_FETCHED}
+
+  override val nodeOps: NodeOperations = new DelegatingOperations[NodeValue, NodeCursor](inner.nodeOps) with NodeOperations {
+    override def all: Iterator[NodeValue] = nodes(allPrimitive)
+
+    override def allPrimitive: LongIterator = {
+      val cursor = transactionalContext.cursors.allocateNodeCursor()
+      new BatchIterator(scans.allNodes, cursor) {
+        override protected def reference: Long = cursor.nodeReference()
+      }
+    }
+  }
+
+  override def getNodesByLabel(id: Int): Iterator[NodeValue] = nodes(getNodesByLabelPrimitive(id))
+
+  override def getNodesByLabelPrimitive(id: Int): LongIterator = nodesWithLabels(Seq(id))
+
+  override def getNodesByAllLabels(ids: Array[Int]): Iterator[NodeValue] = nodes(nodesWithLabels(ids))
+
+  private def nodesWithLabels(ids: Seq[Int]): LongIterator = {
+    val cursor = transactionalContext.cursors.allocateNodeLabelIndexCursor()
+    new BatchIterator(scans.nodesWithLabels(ids), cursor) {
+      override protected def reference: Long = cursor.nodeReference()
+    }
+  }
+
+  private def nodes(ids: LongIterator): Iterator[NodeValue] = new Iterator[NodeValue] {
+    override def hasNext: Boolean = ids.hasNext
+
+    override def next(): NodeValue = nodeOps.getById(ids.next())
+  }
+
+  /**
+    * Iterates over the batches of a shared scan, reserving a new batch whenever the current one is exhausted.
+    * The cursor is closed once the scan has no more batches to hand out.
+    */
+  private abstract class BatchIterator[C <: Cursor](scan: Scan[C], cursor: C) extends LongIterator {
+    resources.trace(cursor)
+    private var inBatch = false
+    private var exhausted = false
+    private var _next: Long = NOT_FETCHED
+
+    protected def reference: Long
+
+    override def hasNext: Boolean = {
+      if (_next == NOT_FETCHED) {
+        _next = fetchNext()
+      }
+      _next >= 0
+    }
+
+    override def next(): Long = {
+      if (!hasNext) Iterator.empty.next()
+      val current = _next
+      _next = NOT_FETCHED
+      current
+    }
+
+    private def fetchNext(): Long = {
+      while (!exhausted) {
+        if (inBatch && cursor.next()) {
+          return reference
+        }
+        inBatch = scan.reserveBatch(cursor, BATCH_SIZE)
+        if (!inBatch) {
+          exhausted = true
+          cursor.close()
+        }
+      }
+      -1L
+    }
+  }
+}
+
+object PartitionedScanQueryContext {
+  val BATCH_SIZE = 4096
+
+  private val NOT_FETCHED = -2L
+}
+
+/**
+  * The scans shared by the workers of one execution of a parallel operator. Every scan is started by the first worker
+  * that asks for it.
+  */
+class SharedScans(read: Read) {
+  private var allNodesScan: Scan[NodeCursor] = _
+  private val labelScans = mutable.Map.empty[Seq[Int], Scan[NodeLabelIndexCursor]]
+
+  def allNodes: Scan[NodeCursor] = synchronized {
+    if (allNodesScan == null) {
+      allNodesScan = read.allNodesScan()
+    }
+    allNodesScan
+  }
+
+  def nodesWithLabels(labels: Seq[Int]): Scan[NodeLabelIndexCursor] = synchronized {
+    labelScans.getOrElseUpdate(labels,
+                               if (labels.size == 1) read.nodeLabelScan(labels.head)
+                               else read.nodeLabelIntersectionScan(labels: _*))
+  }
+}
@@ -314,6 +314,19 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
     }
   }
 
+  override def getNodesByAllLabels(ids: Array[Int]): Iterator[NodeValue] = {
+    val cursor = allocateAndTraceNodeLabelIndexCursor()
+    reads().nodeLabelIntersectionScan(ids, cursor)
+    new CursorIterator[NodeValue] {
+      override protected def fetchNext(): NodeValue = {
+        if (cursor.next()) fromNodeEntity(entityAccessor.newNodeEntity(cursor.nodeReference()))
+        else null
+      }
+
+      override protected def close(): Unit = {}
+    }
+  }
+
   override def nodeAsMap(id: Long, nodeCursor: NodeCursor, propertyCursor: PropertyCursor): MapValue = {
       reads().singleNode(id, nodeCursor)
       if (!nodeCursor.next()) VirtualValues.EMPTY_MAP
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.convert
+
+import org.neo4j.cypher.internal.planner.spi.TokenContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{CompiledExpressionCommand, Expression => CommandExpression}
+import org.neo4j.cypher.internal.runtime.interpreted.{CommandProjection, GroupingExpression}
+import org.neo4j.cypher.internal.v4_0.util.attribution.Id
+import org.neo4j.cypher.internal.v4_0.{expressions => ast}
+
+/**
+  * Converts expressions supported by the [[ExpressionCompiler]] into generated code. Should be placed before the
+  * [[CommunityExpressionConverter]], which takes care of everything that could not be compiled.
+  */
+case class CompiledExpressionConverter(tokenContext: TokenContext) extends ExpressionConverter {
+
+  override def toCommandExpression(id: Id, expression: ast.Expression,
+                                   self: ExpressionConverters): Option[CommandExpression] =
+    ExpressionCompiler.compile(expression, tokenContext).map(CompiledExpressionCommand(_, expression.asCanonicalStringVal))
+
+  override def toCommandProjection(id: Id, projections: Map[String, ast.Expression],
+                                   self: ExpressionConverters): Option[CommandProjection] = None
+
+  override def toGroupingExpression(id: Id,
+                                    groupings: Map[String, ast.Expression],
+                                    orderToLeverage: Seq[ast.Expression],
+                                    self: ExpressionConverters): Option[GroupingExpression] = None
+}
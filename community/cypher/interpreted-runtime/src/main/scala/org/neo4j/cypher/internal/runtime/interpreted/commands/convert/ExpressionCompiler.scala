@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.convert
+
+import java.util.concurrent.atomic.AtomicLong
+
+import org.neo4j.codegen.CodeGenerator.generateCode
+import org.neo4j.codegen.Expression._
+import org.neo4j.codegen.FieldReference.staticField
+import org.neo4j.codegen.MethodDeclaration.method
+import org.neo4j.codegen.MethodReference.methodReference
+import org.neo4j.codegen.Parameter.param
+import org.neo4j.codegen.TypeReference.typeReference
+import org.neo4j.codegen.bytecode.ByteCode.BYTECODE
+import org.neo4j.codegen.{CodeBlock, FieldReference, MethodReference, Expression => IntermediateExpression}
+import org.neo4j.cypher.internal.planner.spi.TokenContext
+import org.neo4j.cypher.internal.runtime.ast.{ExpressionVariable, ParameterFromSlot}
+import org.neo4j.cypher.internal.runtime.interpreted.ValueConversion.asValue
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.CompiledExpression
+import org.neo4j.cypher.internal.runtime.{DbAccess, ExecutionContext, ExpressionCursors}
+import org.neo4j.cypher.internal.v4_0.{expressions => ast}
+import org.neo4j.cypher.operations.{CypherBoolean, CypherFunctions, CypherMath}
+import org.neo4j.internal.kernel.api.{NodeCursor, PropertyCursor, RelationshipScanCursor, TokenRead}
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{Value, Values}
+
+import scala.collection.mutable.ArrayBuffer
+import scala.util.control.NonFatal
+
+/**
+  * Generates a class per expression that evaluates the expression by calling the static operations in
+  * [[CypherMath]], [[CypherBoolean]] and [[CypherFunctions]] directly, instead of walking the command expression tree.
+  *
+  * Only literals, parameters, variables, property reads, arithmetics, comparisons and null checks are compiled. Any
+  * other expression, expressions with fewer than [[MIN_OPERATIONS]] operations, or an expression where code generation
+  * fails, are left for interpretation.
+  */
+object ExpressionCompiler {
+
+  private val PACKAGE = "org.neo4j.cypher.internal.runtime.interpreted.generated"
+  private val LITERALS = "LITERALS"
+  private val classCounter = new AtomicLong()
+
+  /**
+    * The smallest number of operations, i.e. property reads, arithmetics, comparisons, negations and null checks, that
+    * an expression needs to be worth a class of its own.
+    */
+  val MIN_OPERATIONS = 2
+
+  private val ANY_VALUE = typeReference(classOf[AnyValue])
+
+  private val EVALUATE = method(classOf[AnyValue], "evaluate",
+                                param(classOf[ExecutionContext], "row"),
+                                param(classOf[Array[AnyValue]], "params"),
+                                param(classOf[DbAccess], "dbAccess"),
+                                param(classOf[ExpressionCursors], "cursors"))
+
+  private val NO_VALUE = getStatic(staticField(classOf[Values], classOf[Value], "NO_VALUE"))
+  private val TRUE = getStatic(staticField(classOf[Values], classOf[Value], "TRUE"))
+  private val FALSE = getStatic(staticField(classOf[Values], classOf[Value], "FALSE"))
+
+  private val GET_BY_NAME = methodReference(classOf[ExecutionContext], classOf[AnyValue], "getByName", classOf[String])
+  private val NODE_CURSOR = methodReference(classOf[ExpressionCursors], classOf[NodeCursor], "nodeCursor")
+  private val RELATIONSHIP_CURSOR = methodReference(classOf[ExpressionCursors], classOf[RelationshipScanCursor], "relationshipScanCursor")
+  private val PROPERTY_CURSOR = methodReference(classOf[ExpressionCursors], classOf[PropertyCursor], "propertyCursor")
+  private val PROPERTY_GET = methodReference(classOf[CypherFunctions], classOf[AnyValue], "propertyGet", classOf[String], classOf[Int],
+                                             classOf[AnyValue], classOf[DbAccess], classOf[NodeCursor], classOf[RelationshipScanCursor],
+                                             classOf[PropertyCursor])
+  private val DIVIDE_CHECK_FOR_NULL = methodReference(classOf[CypherMath], classOf[Boolean], "divideCheckForNull", classOf[AnyValue], classOf[AnyValue])
+  private val COERCE_TO_BOOLEAN = methodReference(classOf[CypherBoolean], classOf[Value], "coerceToBoolean", classOf[AnyValue])
+  private val NOT = methodReference(classOf[CypherBoolean], classOf[Value], "not", classOf[AnyValue])
+
+  /**
+    * Compiles the expression, or returns None if the expression is not supported, too small to be worth compiling or
+    * could not be compiled. Property key tokens known to the token context are resolved at compile time.
+    */
+  def compile(expression: ast.Expression, tokenContext: TokenContext): Option[CompiledExpression] =
+    operations(expression) match {
+      case Some(count) if count >= MIN_OPERATIONS =>
+        try {
+          Some(generate(expression, tokenContext))
+        } catch {
+          case NonFatal(_) => None
+        }
+      case _ => None
+    }
+
+  /**
+    * Counts the operations of the expression, or returns None if it contains anything that cannot be compiled.
+    */
+  private def operations(expression: ast.Expression): Option[Int] = expression match {
+    case _: ast.Literal => Some(0)
+    case _: ParameterFromSlot => Some(0)
+    case _: ExpressionVariable => None
+    case _: ast.LogicalVariable => Some(0)
+    case ast.Property(map, _) => operations(map).map(_ + 1)
+    case ast.Not(rhs) => operations(rhs).map(_ + 1)
+    case ast.IsNull(lhs) => operations(lhs).map(_ + 1)
+    case ast.IsNotNull(lhs) => operations(lhs).map(_ + 1)
+    case e: ast.BinaryOperatorExpression if binaryOperation(e).isDefined =>
+      for (lhs <- operations(e.lhs); rhs <- operations(e.rhs)) yield lhs + rhs + 1
+    case _ => None
+  }
+
+  private def binaryOperation(expression: ast.Expression): Option[MethodReference] = {
+    def math(name: String) = Some(methodReference(classOf[CypherMath], classOf[AnyValue], name, classOf[AnyValue], classOf[AnyValue]))
+    def boolean(name: String) = Some(methodReference(classOf[CypherBoolean], classOf[Value], name, classOf[AnyValue], classOf[AnyValue]))
+    expression match {
+      case _: ast.Add => math("add")
+      case _: ast.Subtract => math("subtract")
+      case _: ast.Multiply => math("multiply")
+      case _: ast.Divide => math("divide")
+      case _: ast.Modulo => math("modulo")
+      case _: ast.Pow => math("pow")
+      case _: ast.Equals => boolean("equals")
+      case _: ast.NotEquals => boolean("notEquals")
+      case _: ast.LessThan => boolean("lessThan")
+      case _: ast.LessThanOrEqual => boolean("lessThanOrEqual")
+      case _: ast.GreaterThan => boolean("greaterThan")
+      case _: ast.GreaterThanOrEqual => boolean("greaterThanOrEqual")
+      case _ => None
+    }
+  }
+
+  private def generate(expression: ast.Expression, tokenContext: TokenContext): CompiledExpression = {
+    val literals = ArrayBuffer.empty[AnyValue]
+    val codeGenerator = generateCode(classOf[CompiledExpression].getClassLoader, BYTECODE)
+    val generator = codeGenerator.generateClass(PACKAGE, s"Expression${classCounter.incrementAndGet()}", classOf[CompiledExpression])
+    val handle = try {
+      val literalsField = generator.publicStaticField(typeReference(classOf[Array[AnyValue]]), LITERALS)
+      val block = generator.generate(EVALUATE)
+      try {
+        block.returns(new ExpressionGenerator(block, literalsField, literals, tokenContext).generate(expression))
+      } finally {
+        block.close()
+      }
+      generator.handle()
+    } finally {
+      generator.close()
+    }
+
+    val clazz = handle.loadClass()
+    clazz.getField(LITERALS).set(null, literals.toArray)
+    clazz.getConstructor().newInstance().asInstanceOf[CompiledExpression]
+  }
+
+  /**
+    * Emits the code of an expression into the evaluate method. Every intermediate value is stored in a local
+    * variable, so that it can be checked for NO_VALUE before it is handed to an operation.
+    */
+  private class ExpressionGenerator(block: CodeBlock,
+                                    literalsField: FieldReference,
+                                    literals: ArrayBuffer[AnyValue],
+                                    tokenContext: TokenContext) {
+    private var nextLocal = 0
+
+    def generate(expression: ast.Expression): IntermediateExpression = expression match {
+      case e: ast.Literal =>
+        literals += asValue(e.value)
+        arrayLoad(getStatic(literalsField), constant(Int.box(literals.size - 1)))
+
+      case ParameterFromSlot(offset, _, _) =>
+        arrayLoad(block.load("params"), constant(Int.box(offset)))
+
+      case e: ast.LogicalVariable =>
+        invoke(block.load("row"), GET_BY_NAME, constant(e.name))
+
+      case ast.Property(map, key) =>
+        val container = local(generate(map))
+        // Keys that don't exist yet are looked up by name at runtime, since they may be created by the query
+        val token = tokenContext.getOptPropertyKeyId(key.name).getOrElse(TokenRead.NO_TOKEN)
+        nullChecked(container)(invoke(PROPERTY_GET, constant(key.name), constant(Int.box(token)), container, block.load("dbAccess"),
+                                      invoke(block.load("cursors"), NODE_CURSOR),
+                                      invoke(block.load("cursors"), RELATIONSHIP_CURSOR),
+                                      invoke(block.load("cursors"), PROPERTY_CURSOR)))
+
+      case ast.Not(rhs) =>
+        val coerced = local(invoke(COERCE_TO_BOOLEAN, generate(rhs)))
+        nullChecked(coerced)(invoke(NOT, coerced))
+
+      case ast.IsNull(lhs) =>
+        booleanValue(equal(generate(lhs), NO_VALUE))
+
+      case ast.IsNotNull(lhs) =>
+        booleanValue(notEqual(generate(lhs), NO_VALUE))
+
+      case e: ast.BinaryOperatorExpression =>
+        val lhs = local(generate(e.lhs))
+        val rhs = local(generate(e.rhs))
+        val operation = invoke(binaryOperation(e).get, lhs, rhs)
+        if (e.isInstanceOf[ast.Divide]) {
+          // divideCheckForNull also fails on division by an integral zero, even if the other side is null
+          ternary(invoke(DIVIDE_CHECK_FOR_NULL, lhs, rhs), cast(ANY_VALUE, NO_VALUE), cast(ANY_VALUE, operation))
+        } else {
+          nullChecked(lhs, rhs)(operation)
+        }
+    }
+
+    private def local(value: IntermediateExpression): IntermediateExpression = {
+      val name = s"v$nextLocal"
+      nextLocal += 1
+      block.assign(ANY_VALUE, name, value)
+      block.load(name)
+    }
+
+    private def nullChecked(values: IntermediateExpression*)(onNotNull: IntermediateExpression): IntermediateExpression = {
+      val anyIsNull = values.map(equal(_, NO_VALUE)).reduce(or(_, _))
+      ternary(anyIsNull, cast(ANY_VALUE, NO_VALUE), cast(ANY_VALUE, onNotNull))
+    }
+
+    private def booleanValue(test: IntermediateExpression): IntermediateExpression =
+      ternary(test, cast(ANY_VALUE, TRUE), cast(ANY_VALUE, FALSE))
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.expressions
+
+import org.neo4j.cypher.internal.runtime.interpreted.commands.AstNode
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.runtime.{DbAccess, ExecutionContext, ExpressionCursors}
+import org.neo4j.values.AnyValue
+
+/**
+  * Implemented by the classes generated for expressions by the expression compiler.
+  */
+trait CompiledExpression {
+  def evaluate(row: ExecutionContext, params: Array[AnyValue], dbAccess: DbAccess, cursors: ExpressionCursors): AnyValue
+}
+
+/**
+  * Evaluates an expression with a generated class instead of interpreting the expression tree.
+  */
+case class CompiledExpressionCommand(compiled: CompiledExpression, description: String) extends Expression {
+
+  override def apply(ctx: ExecutionContext, state: QueryState): AnyValue =
+    compiled.evaluate(ctx, state.params, state.query, state.cursors)
+
+  override def rewrite(f: Expression => Expression): Expression = f(this)
+
+  override def arguments: Seq[Expression] = Seq.empty
+
+  override def children: Seq[AstNode[_]] = Seq.empty
+
+  override def toString: String = s"Compiled($description)"
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.expressions
+
+import org.neo4j.cypher.internal.runtime.{ExecutionContext, SlotMappedExecutionContext}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.AstNode
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.values.AnyValue
+
+/**
+  * Reads a variable by its offset in a [[SlotMappedExecutionContext]], and by name from any other row.
+  */
+case class VariableFromSlot(offset: Int, name: String) extends VariableCommand(name) {
+
+  override def apply(ctx: ExecutionContext, state: QueryState): AnyValue = ctx match {
+    case row: SlotMappedExecutionContext =>
+      val value = row.getRefAt(offset)
+      if (value != null) value else row.getByName(name)
+    case _ =>
+      ctx.getByName(name)
+  }
+
+  override def children: Seq[AstNode[_]] = Seq.empty
+}
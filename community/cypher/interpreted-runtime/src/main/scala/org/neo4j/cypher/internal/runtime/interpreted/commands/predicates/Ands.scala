@@ -21,7 +21,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.commands.predicates
 
 import org.neo4j.cypher.internal.runtime.ExecutionContext
 import org.neo4j.cypher.internal.runtime.interpreted.commands.AstNode
-import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Expression, Variable, VariableCommand}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Expression, Variable, VariableCommand, VariableFromSlot}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.cypher.internal.v4_0.util.NonEmptyList
 
@@ -87,6 +87,7 @@ case class AndedPropertyComparablePredicates(ident: VariableCommand, prop: Expre
   private def rewriteVariableIfNotTypeChanged(f: Expression => Expression) =
     ident.rewrite(f) match {
       case i: Variable => i
+      case i: VariableFromSlot => i
       case _ => ident
     }
 
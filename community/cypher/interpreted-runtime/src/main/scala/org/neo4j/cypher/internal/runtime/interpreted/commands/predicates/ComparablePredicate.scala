@@ -21,7 +21,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.commands.predicates
 
 import org.neo4j.cypher.internal.runtime.{ExecutionContext, IsFalseValue, IsNoValue, IsTrueValue}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.AstNode
-import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Expression, Literal, Variable}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Expression, Literal, Variable, VariableFromSlot}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.cypher.operations.CypherBoolean
 import org.neo4j.values.storable._
@@ -80,6 +80,7 @@ case class Equals(a: Expression, b: Expression) extends Predicate {
 
   override def containsIsNull: Boolean = (a, b) match {
     case (Variable(_), Literal(null)) => true
+    case (VariableFromSlot(_, _), Literal(null)) => true
     case _ => false
   }
 
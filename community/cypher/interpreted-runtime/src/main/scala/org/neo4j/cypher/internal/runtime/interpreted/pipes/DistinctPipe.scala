@@ -19,12 +19,14 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
-import org.neo4j.cypher.internal.runtime.ExecutionContext
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
-import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.GroupingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.{GroupingCol, SeenValues}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.SpillPartitions
+import org.neo4j.cypher.internal.runtime.{ExecutionContext, QueryMemoryTracker}
 import org.neo4j.cypher.internal.v4_0.util.attribution.Id
 import org.neo4j.values.AnyValue
-import org.neo4j.values.virtual.VirtualValues
+import org.neo4j.values.virtual.{VirtualNodeValue, VirtualValues}
 
 import scala.collection.mutable
 
@@ -40,24 +42,51 @@ case class DistinctPipe(source: Pipe, groupingColumns: Array[GroupingCol])
     /*
      * The filtering is done by extracting from the context the values of all return expressions, and keeping them
      * in a set.
+     *
+     * Once the query is over its spill threshold, the set is no longer grown. Rows with values that have not been
+     * seen are instead spilled to disk, partitioned by their values, and each partition is filtered on its own after
+     * the input is exhausted. Every set is released as soon as the rows it filters are exhausted.
      */
-    val seen = mutable.Set[AnyValue]()
+    val seen = new SeenValues(state.memoryTracker)
+    var spilled: SpillPartitions = null
 
-    input.filter { ctx =>
+    val inMemory = input.filter { ctx =>
       var i = 0
       while (i < groupingColumns.length) {
         ctx.set(groupingColumns(i).key, groupingColumns(i).expression(ctx, state))
         i += 1
       }
-      val groupingValue = VirtualValues.list(keyNames.map(ctx.getByName): _*)
-      val added = seen.add(groupingValue)
-      if (added) {
-        state.memoryTracker.allocated(groupingValue)
+      val groupingValue = groupingValueOf(ctx)
+      if (seen.contains(groupingValue)) {
+        false
+      } else if (spilled != null || state.memoryTracker.shouldSpill) {
+        if (spilled == null) {
+          spilled = new SpillPartitions(state)
+        }
+        spilled.write(groupingValue.hashCode(), ctx)
+        false
+      } else {
+        seen.add(groupingValue)
+      }
+    }
+
+    inMemory ++ {
+      seen.release()
+      if (spilled == null) Iterator.empty
+      else (0 until spilled.numberOfPartitions).iterator.flatMap { partition =>
+        val seenInPartition = new SeenValues(state.memoryTracker)
+        spilled.rows(partition, executionContextFactory).filter(ctx => seenInPartition.add(groupingValueOf(ctx))) ++ {
+          seenInPartition.release()
+          Iterator.empty
+        }
       }
-      added
     }
   }
 
+  private def groupingValueOf(ctx: ExecutionContext): AnyValue =
+    if (keyNames.length == 1) ctx.getByName(keyNames(0))
+    else VirtualValues.list(keyNames.map(ctx.getByName): _*)
+
   override def equals(obj: Any): Boolean = {
     obj match {
       case DistinctPipe(otherSource, otherGroupingColumns) =>
@@ -69,4 +98,51 @@ case class DistinctPipe(source: Pipe, groupingColumns: Array[GroupingCol])
 
 object DistinctPipe {
   case class GroupingCol(key: String, expression: Expression, ordered: Boolean = false)
+
+  /**
+    * The grouping values seen so far. Nodes are kept by id in a primitive long set, so that distinct nodes, the most
+    * common single grouping value, do not retain an object each.
+    *
+    * The memory of the values is reported to the query memory tracker, and given back by [[release]].
+    */
+  private[pipes] class SeenValues(memoryTracker: QueryMemoryTracker) {
+    private var nodes = new LongHashSet()
+    private var values = mutable.Set[AnyValue]()
+    private var allocatedBytes = 0L
+
+    def contains(value: AnyValue): Boolean = value match {
+      case node: VirtualNodeValue => nodes.contains(node.id())
+      case _ => values.contains(value)
+    }
+
+    def add(value: AnyValue): Boolean = value match {
+      case node: VirtualNodeValue =>
+        val added = nodes.add(node.id())
+        if (added) {
+          allocated(java.lang.Long.BYTES)
+        }
+        added
+      case _ =>
+        val added = values.add(value)
+        if (added) {
+          allocated(value.estimatedHeapUsage())
+        }
+        added
+    }
+
+    /**
+      * Forgets all values seen so far.
+      */
+    def release(): Unit = {
+      nodes = new LongHashSet()
+      values = mutable.Set[AnyValue]()
+      memoryTracker.deallocated(allocatedBytes)
+      allocatedBytes = 0L
+    }
+
+    private def allocated(bytes: Long): Unit = {
+      memoryTracker.allocated(bytes)
+      allocatedBytes += bytes
+    }
+  }
 }
@@ -23,14 +23,21 @@ import org.neo4j.cypher.internal.runtime.ExecutionContext
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.LazyLabel.UNKNOWN
 import org.neo4j.cypher.internal.v4_0.util.attribution.Id
 
-case class NodeByLabelScanPipe(ident: String, label: LazyLabel)
+/**
+ * Scans the nodes with the given label. When the node is also required to have `additionalLabels`, the labels are
+ * intersected in the label index instead of scanning one label and filtering on the others.
+ */
+case class NodeByLabelScanPipe(ident: String, label: LazyLabel, additionalLabels: Seq[LazyLabel] = Seq.empty)
                               (val id: Id = Id.INVALID_ID) extends Pipe  {
 
   protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
 
     val id = label.getId(state.query)
-    if (id != UNKNOWN) {
-        val nodes = state.query.getNodesByLabel(id)
+    val additionalIds = additionalLabels.map(_.getId(state.query))
+    if (id != UNKNOWN && !additionalIds.contains(UNKNOWN)) {
+        val nodes =
+          if (additionalIds.isEmpty) state.query.getNodesByLabel(id)
+          else state.query.getNodesByAllLabels((id +: additionalIds).distinct.toArray)
         val baseContext = state.newExecutionContext(executionContextFactory)
         nodes.map(n => executionContextFactory.copyWith(baseContext, ident, n))
     } else Iterator.empty
@@ -19,17 +19,23 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
-import org.neo4j.cypher.internal.runtime.{ExecutionContext, IsNoValue}
+import org.neo4j.cypher.internal.runtime.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.SpillPartitions
 import org.neo4j.cypher.internal.v4_0.util.attribution.Id
-import org.neo4j.exceptions.CypherTypeException
-import org.neo4j.values.virtual.VirtualNodeValue
-
-import scala.collection.mutable
 
+/**
+  * Builds a hash table of the left hand side, which is probed with the rows of the right hand side.
+  *
+  * Once the query crosses its spill threshold while building the table, the table is moved to disk, partitioned by
+  * join key, followed by the rest of the left hand side and then all of the right hand side. The join is then done
+  * one partition at a time.
+  */
 case class NodeHashJoinPipe(nodeVariables: Set[String], left: Pipe, right: Pipe)
                            (val id: Id = Id.INVALID_ID)
   extends PipeWithSource(left) {
 
+  private val cachedVariables = nodeVariables.toIndexedSeq
+
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
     if (input.isEmpty)
       return Iterator.empty
@@ -39,50 +45,75 @@ case class NodeHashJoinPipe(nodeVariables: Set[String], left: Pipe, right: Pipe)
     if (rhsIterator.isEmpty)
       return Iterator.empty
 
-    val table = buildProbeTable(state.memoryTracker.memoryTrackingIterator(input))
+    val table = buildProbeTable(input, state)
+
+    if (input.hasNext) {
+      // The table did not fit in memory
+      return spilledJoin(table, input, rhsIterator, state)
+    }
 
     if (table.isEmpty)
       return Iterator.empty
 
-    val result =
-      for {rhsRow <- rhsIterator
-           joinKey <- computeKey(rhsRow)}
-        yield {
-          val lhsRows = table.getOrElse(joinKey, mutable.MutableList.empty)
-          lhsRows.map { lhsRow =>
-            val output = lhsRow.createClone()
-            output.mergeWith(rhsRow, state.query)
-            output
-          }
-        }
-
-    result.flatten
+    probe(table, rhsIterator, state)
   }
 
-  private def buildProbeTable(input: Iterator[ExecutionContext]): mutable.HashMap[IndexedSeq[Long], mutable.MutableList[ExecutionContext]] = {
-    val table = new mutable.HashMap[IndexedSeq[Long], mutable.MutableList[ExecutionContext]]
+  /**
+    * Joins the rows of the right hand side with the table, which is released once the right hand side is exhausted.
+    */
+  private def probe(table: NodeHashJoinTable,
+                    rhsIterator: Iterator[ExecutionContext],
+                    state: QueryState): Iterator[ExecutionContext] =
+    rhsIterator.flatMap { rhsRow =>
+      table.matches(rhsRow).map { lhsRow =>
+        val output = lhsRow.createClone()
+        output.mergeWith(rhsRow, state.query)
+        output
+      }
+    } ++ {
+      table.release()
+      Iterator.empty
+    }
+
+  /**
+    * Builds the table until the input is exhausted or the query crosses its spill threshold, whichever comes first.
+    */
+  private def buildProbeTable(input: Iterator[ExecutionContext], state: QueryState): NodeHashJoinTable = {
+    val table = NodeHashJoinTable(cachedVariables, state.memoryTracker)
 
-    for {context <- input
-         joinKey <- computeKey(context)} {
-      val seq = table.getOrElseUpdate(joinKey, mutable.MutableList.empty)
-      seq += context
+    while (input.hasNext && !state.memoryTracker.shouldSpill) {
+      table.add(input.next())
     }
 
     table
   }
 
-  private val cachedVariables = nodeVariables.toIndexedSeq
+  private def spilledJoin(table: NodeHashJoinTable,
+                          lhsIterator: Iterator[ExecutionContext],
+                          rhsIterator: Iterator[ExecutionContext],
+                          state: QueryState): Iterator[ExecutionContext] = {
+    val lhsPartitions = new SpillPartitions(state)
+    table.drain(lhsPartitions.write)
+    for {lhsRow <- lhsIterator
+         keyHash <- table.keyHash(lhsRow)} {
+      lhsPartitions.write(keyHash, lhsRow)
+    }
 
-  private def computeKey(context: ExecutionContext): Option[IndexedSeq[Long]] = {
-    val key = new Array[Long](cachedVariables.length)
+    val rhsPartitions = new SpillPartitions(state)
+    for {rhsRow <- rhsIterator
+         keyHash <- table.keyHash(rhsRow)} {
+      rhsPartitions.write(keyHash, rhsRow)
+    }
 
-    for (idx <- cachedVariables.indices) {
-      key(idx) = context.getByName(cachedVariables(idx)) match {
-        case n: VirtualNodeValue => n.id()
-        case IsNoValue() => return None
-        case _ => throw new CypherTypeException("Created a plan that uses non-nodes when expecting a node")
+    (0 until lhsPartitions.numberOfPartitions).iterator.flatMap { partition =>
+      val partitionTable = NodeHashJoinTable(cachedVariables, state.memoryTracker)
+      lhsPartitions.rows(partition, executionContextFactory).foreach(partitionTable.add)
+      if (partitionTable.isEmpty) {
+        rhsPartitions.discard(partition)
+        Iterator.empty
+      } else {
+        probe(partitionTable, rhsPartitions.rows(partition, executionContextFactory), state)
       }
     }
-    Some(key.toIndexedSeq)
   }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap
+import org.neo4j.cypher.internal.runtime.{ExecutionContext, IsNoValue, QueryMemoryTracker}
+import org.neo4j.exceptions.CypherTypeException
+import org.neo4j.values.virtual.VirtualNodeValue
+
+import scala.collection.mutable
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * The build side of a node hash join, holding rows by the ids of their join nodes. Rows where any join node is null
+  * can never match and are not added.
+  *
+  * The memory of the rows the table holds, and of the table itself, is reported to the query memory tracker, and given
+  * back when the table is released.
+  */
+abstract class NodeHashJoinTable(memoryTracker: QueryMemoryTracker) {
+
+  private var allocatedBytes = 0L
+
+  def add(row: ExecutionContext): Unit
+
+  /**
+    * Returns the rows with the same join nodes as the given row.
+    */
+  def matches(row: ExecutionContext): Seq[ExecutionContext]
+
+  def isEmpty: Boolean
+
+  /**
+    * Returns the hash of the join nodes of a row, or None if any of them is null. Tables of the same join nodes agree
+    * on the hash of a row.
+    */
+  def keyHash(row: ExecutionContext): Option[Int]
+
+  /**
+    * Removes all rows from the table, passing each of them and the hash of its join nodes to the given function, and
+    * releases the table.
+    */
+  def drain(f: (Int, ExecutionContext) => Unit): Unit
+
+  /**
+    * Removes all rows from the table and gives back the memory reported for them.
+    */
+  def release(): Unit = {
+    clear()
+    memoryTracker.deallocated(allocatedBytes)
+    allocatedBytes = 0L
+  }
+
+  protected def clear(): Unit
+
+  protected def allocated(bytes: Long): Unit = {
+    memoryTracker.allocated(bytes)
+    allocatedBytes += bytes
+  }
+}
+
+object NodeHashJoinTable {
+
+  // Rough estimate of the memory used by the table per join key, on top of the rows themselves
+  private val BYTES_PER_KEY = 64L
+
+  def apply(nodeVariables: IndexedSeq[String], memoryTracker: QueryMemoryTracker): NodeHashJoinTable =
+    if (nodeVariables.length == 1) new SingleNodeHashJoinTable(nodeVariables.head, memoryTracker)
+    else new MultipleNodesHashJoinTable(nodeVariables, memoryTracker)
+
+  private def nodeId(row: ExecutionContext, variable: String): Long = row.getByName(variable) match {
+    case n: VirtualNodeValue => n.id()
+    case IsNoValue() => -1L
+    case _ => throw new CypherTypeException("Created a plan that uses non-nodes when expecting a node")
+  }
+
+  /**
+    * Joins on a single node, which is by far the most common case, by a primitive long keyed table.
+    */
+  private class SingleNodeHashJoinTable(variable: String, memoryTracker: QueryMemoryTracker) extends NodeHashJoinTable(memoryTracker) {
+    private var table = new LongObjectHashMap[ArrayBuffer[ExecutionContext]]()
+
+    override def add(row: ExecutionContext): Unit = {
+      val id = nodeId(row, variable)
+      if (id != -1L) {
+        var rows = table.get(id)
+        if (rows == null) {
+          rows = new ArrayBuffer[ExecutionContext](1)
+          table.put(id, rows)
+          allocated(BYTES_PER_KEY)
+        }
+        allocated(row.estimatedHeapUsage)
+        rows += row
+      }
+    }
+
+    override def matches(row: ExecutionContext): Seq[ExecutionContext] = {
+      val id = nodeId(row, variable)
+      val rows = if (id == -1L) null else table.get(id)
+      if (rows == null) Seq.empty else rows
+    }
+
+    override def isEmpty: Boolean = table.isEmpty
+
+    override def keyHash(row: ExecutionContext): Option[Int] = {
+      val id = nodeId(row, variable)
+      if (id == -1L) None else Some(java.lang.Long.hashCode(id))
+    }
+
+    override def drain(f: (Int, ExecutionContext) => Unit): Unit = {
+      table.forEachKeyValue((id, rows) => rows.foreach(row => f(java.lang.Long.hashCode(id), row)))
+      release()
+    }
+
+    override protected def clear(): Unit = table = new LongObjectHashMap[ArrayBuffer[ExecutionContext]]()
+  }
+
+  private class MultipleNodesHashJoinTable(variables: IndexedSeq[String], memoryTracker: QueryMemoryTracker)
+    extends NodeHashJoinTable(memoryTracker) {
+    private var table = new mutable.HashMap[IndexedSeq[Long], ArrayBuffer[ExecutionContext]]
+
+    override def add(row: ExecutionContext): Unit =
+      computeKey(row).foreach { key =>
+        val rows = table.getOrElseUpdate(key, {
+          allocated(BYTES_PER_KEY + key.length * java.lang.Long.BYTES)
+          new ArrayBuffer[ExecutionContext](1)
+        })
+        allocated(row.estimatedHeapUsage)
+        rows += row
+      }
+
+    override def matches(row: ExecutionContext): Seq[ExecutionContext] =
+      computeKey(row).flatMap(table.get).getOrElse(Seq.empty)
+
+    override def isEmpty: Boolean = table.isEmpty
+
+    override def keyHash(row: ExecutionContext): Option[Int] = computeKey(row).map(_.hashCode())
+
+    override def drain(f: (Int, ExecutionContext) => Unit): Unit = {
+      for ((key, rows) <- table; row <- rows) {
+        f(key.hashCode(), row)
+      }
+      release()
+    }
+
+    override protected def clear(): Unit = table = new mutable.HashMap[IndexedSeq[Long], ArrayBuffer[ExecutionContext]]
+
+    private def computeKey(row: ExecutionContext): Option[IndexedSeq[Long]] = {
+      val key = new Array[Long](variables.length)
+      var i = 0
+      while (i < variables.length) {
+        key(i) = nodeId(row, variables(i))
+        if (key(i) == -1L) return None
+        i += 1
+      }
+      Some(key.toIndexedSeq)
+    }
+  }
+}
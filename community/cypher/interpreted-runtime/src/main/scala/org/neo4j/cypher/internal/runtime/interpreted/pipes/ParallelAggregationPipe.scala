@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util.concurrent.{Callable, ExecutionException, FutureTask}
+
+import org.neo4j.cypher.internal.runtime.{ExecutionContext, ExpressionCursors}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregatingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.NonGroupingAggTable
+import org.neo4j.cypher.internal.runtime.interpreted.{ParallelExecution, PartitionedScanQueryContext, SharedScans}
+import org.neo4j.cypher.internal.v4_0.util.attribution.Id
+import org.neo4j.values.AnyValue
+
+/**
+  * Aggregation without grouping over a read-only source that starts with a scan of all nodes, or of all nodes with a
+  * label. Every worker of the [[ParallelExecution]] runs the source over the batches of the scan it reserves, into a
+  * partial aggregation of its own, and the partial aggregations are merged into the result.
+  *
+  * The source is run on a single thread, like for an [[EagerAggregationPipe]], when the query is profiled or when it
+  * does not use the thread safe cursors of the parallel execution.
+  */
+case class ParallelAggregationPipe(source: Pipe,
+                                   aggregations: Array[AggregatingCol],
+                                   parallelExecution: ParallelExecution)
+                                  (val id: Id = Id.INVALID_ID)
+  extends AggregationPipe(source, NonGroupingAggTable.Factory(aggregations)) {
+
+  override def createResults(state: QueryState): Iterator[ExecutionContext] = {
+    if (state.decorator == NullPipeDecorator && (state.query.transactionalContext.cursors eq parallelExecution.cursors)) {
+      state.setExecutionContextFactory(executionContextFactory)
+      parallelResults(state)
+    } else {
+      super.createResults(state)
+    }
+  }
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    val table = newTable(state)
+    while (input.hasNext) {
+      table.processRow(input.next())
+    }
+    table.result()
+  }
+
+  private def parallelResults(state: QueryState): Iterator[ExecutionContext] = {
+    val scans = new SharedScans(state.query.transactionalContext.dataRead)
+    val partials = (0 until parallelExecution.workers).map { _ =>
+      val partial = new FutureTask(new Callable[NonGroupingAggTable] {
+        override def call(): NonGroupingAggTable = aggregatePartition(state, scans)
+      })
+      parallelExecution.workerPool.execute(partial)
+      partial
+    }
+
+    // Wait for every worker before failing, so that no worker is left reading from the transaction
+    val table = newTable(state)
+    var failure: Throwable = null
+    partials.foreach { partial =>
+      try {
+        table.merge(partial.get())
+      } catch {
+        case e: ExecutionException =>
+          if (failure == null) failure = e.getCause else failure.addSuppressed(e.getCause)
+      }
+    }
+    if (failure != null) {
+      throw failure
+    }
+    table.result()
+  }
+
+  private def aggregatePartition(state: QueryState, scans: SharedScans): NonGroupingAggTable = {
+    val workerState = new QueryState(new PartitionedScanQueryContext(state.query, scans),
+                                     state.resources,
+                                     state.params,
+                                     new ExpressionCursors(parallelExecution.cursors),
+                                     state.queryIndexes,
+                                     new Array[AnyValue](state.expressionVariables.length),
+                                     state.subscriber,
+                                     state.memoryTracker,
+                                     initialContext = state.initialContext,
+                                     lenientCreateRelationship = state.lenientCreateRelationship,
+                                     prePopulateResults = state.prePopulateResults,
+                                     input = state.input)
+    try {
+      val table = newTable(workerState)
+      val input = source.createResults(workerState)
+      while (input.hasNext) {
+        table.processRow(input.next())
+      }
+      table
+    } finally {
+      workerState.close()
+    }
+  }
+
+  private def newTable(state: QueryState): NonGroupingAggTable = {
+    val table = new NonGroupingAggTable(aggregations, state, executionContextFactory)
+    table.clear()
+    table
+  }
+}
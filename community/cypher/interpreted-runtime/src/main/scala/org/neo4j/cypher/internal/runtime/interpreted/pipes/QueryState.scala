@@ -163,3 +163,56 @@ case class CommunityExecutionContextFactory() extends ExecutionContextFactory {
       row.copyWith(key1, value1, key2, value2, key3, value3)
   }
 }
+
+/**
+  * Creates [[SlotMappedExecutionContext]] rows with the variable slots allocated for a query.
+  */
+case class SlotMappedExecutionContextFactory(slots: VariableSlots) extends ExecutionContextFactory {
+
+  override def newExecutionContext(): ExecutionContext = SlotMappedExecutionContext(slots)
+
+  // Not using polymorphism here, instead cast since the cost of being megamorhpic is too high
+  override def copyWith(init: ExecutionContext): ExecutionContext = init match {
+    case context: SlotMappedExecutionContext =>
+      context.createClone()
+    case _ =>
+      SlotMappedExecutionContext.copyOf(slots, init)
+  }
+
+  // Not using polymorphism here, instead cast since the cost of being megamorhpic is too high
+  override def copyWith(row: ExecutionContext, newEntries: Seq[(String, AnyValue)]): ExecutionContext = row match {
+    case context: SlotMappedExecutionContext =>
+      context.copyWith(newEntries)
+    case _ =>
+      row.copyWith(newEntries)
+  }
+
+  // Not using polymorphism here, instead cast since the cost of being megamorhpic is too high
+  override def copyWith(row: ExecutionContext, key: String, value: AnyValue): ExecutionContext = row match {
+    case context: SlotMappedExecutionContext =>
+      context.copyWith(key, value)
+    case _ =>
+      row.copyWith(key, value)
+  }
+
+  // Not using polymorphism here, instead cast since the cost of being megamorhpic is too high
+  override def copyWith(row : ExecutionContext,
+                        key1: String, value1: AnyValue,
+                        key2: String, value2: AnyValue): ExecutionContext = row match {
+    case context: SlotMappedExecutionContext =>
+      context.copyWith(key1, value1, key2, value2)
+    case _ =>
+      row.copyWith(key1, value1, key2, value2)
+  }
+
+  // Not using polymorphism here, instead cast since the cost of being megamorhpic is too high
+  override def copyWith(row : ExecutionContext,
+                        key1: String, value1: AnyValue,
+                        key2: String, value2: AnyValue,
+                        key3: String, value3: AnyValue): ExecutionContext = row match {
+    case context: SlotMappedExecutionContext =>
+      context.copyWith(key1, value1, key2, value2, key3, value3)
+    case _ =>
+      row.copyWith(key1, value1, key2, value2, key3, value3)
+  }
+}
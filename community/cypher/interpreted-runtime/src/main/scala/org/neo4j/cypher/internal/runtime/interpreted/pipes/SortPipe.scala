@@ -22,15 +22,54 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 import java.util.Comparator
 
 import org.neo4j.cypher.internal.runtime.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.{SortedRunsIterator, SpillFile}
 import org.neo4j.cypher.internal.v4_0.util.attribution.Id
 
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * Sorts all input rows in memory. Once the query crosses its spill threshold, the rows buffered so far are sorted and
+  * written to disk as a run, and the runs are merged when the input is exhausted, in several passes if there are more
+  * of them than [[SortedRunsIterator.MAX_FAN_IN]].
+  */
 case class SortPipe(source: Pipe, comparator: Comparator[ExecutionContext])
                    (val id: Id = Id.INVALID_ID)
   extends PipeWithSource(source) {
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
-    val array = state.memoryTracker.memoryTrackingIterator(input).toArray
+    val trackedInput = state.memoryTracker.memoryTrackingIterator(input)
+    val buffer = new ArrayBuffer[ExecutionContext]()
+    val runs = new ArrayBuffer[SpillFile]()
+
+    while (trackedInput.hasNext) {
+      buffer += trackedInput.next()
+      if (buffer.length >= SpillFile.MIN_ROWS_PER_RUN && state.memoryTracker.shouldSpill) {
+        runs += spillRun(buffer, state)
+      }
+    }
+
+    val array = buffer.toArray
+    java.util.Arrays.sort(array, comparator)
+    if (runs.isEmpty) {
+      array.toIterator
+    } else {
+      val reduced = SortedRunsIterator.reduceRuns(runs, SortedRunsIterator.MAX_FAN_IN, comparator, state, executionContextFactory)
+      new SortedRunsIterator(reduced.map(_.rows(executionContextFactory)) :+ array.toIterator, comparator)
+    }
+  }
+
+  private def spillRun(buffer: ArrayBuffer[ExecutionContext], state: QueryState): SpillFile = {
+    val array = buffer.toArray
     java.util.Arrays.sort(array, comparator)
-    array.toIterator
+    val run = SpillFile(state)
+    var i = 0
+    while (i < array.length) {
+      run.write(array(i))
+      state.memoryTracker.deallocated(array(i))
+      i += 1
+    }
+    run.finishWriting()
+    buffer.clear()
+    run
   }
 }
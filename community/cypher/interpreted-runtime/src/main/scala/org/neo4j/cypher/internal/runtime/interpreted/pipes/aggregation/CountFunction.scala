@@ -25,7 +25,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.Values
 
-class CountFunction(value: Expression) extends AggregationFunction {
+class CountFunction(value: Expression) extends AggregationFunction with MergeableAggregationFunction {
   var count: Long = 0
 
   override def apply(data: ExecutionContext, state: QueryState) {
@@ -36,4 +36,6 @@ class CountFunction(value: Expression) extends AggregationFunction {
   }
 
   override def result(state: QueryState): AnyValue = Values.longValue(count)
+
+  override def merge(partial: AggregationFunction): Unit = count += partial.asInstanceOf[CountFunction].count
 }
@@ -24,7 +24,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.Values
 
-class CountStarFunction extends AggregationFunction {
+class CountStarFunction extends AggregationFunction with MergeableAggregationFunction {
   var count:Long = 0
 
   override def apply(data: ExecutionContext, state: QueryState) {
@@ -32,5 +32,7 @@ class CountStarFunction extends AggregationFunction {
   }
 
   override def result(state: QueryState): AnyValue = Values.longValue(count)
+
+  override def merge(partial: AggregationFunction): Unit = count += partial.asInstanceOf[CountStarFunction].count
 }
 
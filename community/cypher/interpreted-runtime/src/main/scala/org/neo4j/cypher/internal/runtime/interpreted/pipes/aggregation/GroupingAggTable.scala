@@ -19,46 +19,94 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
 
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap
 import org.neo4j.cypher.internal.runtime.ExecutionContext
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.{AggregatingCol, AggregationTable, AggregationTableFactory}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.GroupingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.SpillPartitions
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.{AggregationPipe, ExecutionContextFactory, Pipe, QueryState}
 import org.neo4j.values.AnyValue
+import org.neo4j.values.virtual.VirtualNodeValue
 
-import scala.collection.JavaConverters._
+import scala.collection.mutable.ArrayBuffer
 
 /**
   * This table must be used when we have grouping columns, and there is no provided order for at least one grouping column.
   *
+  * Once the query is over its spill threshold, no new groups are added to the table. Rows of groups that are not in
+  * the table are instead spilled to disk, partitioned by their grouping key, and every partition is aggregated in a
+  * table of its own after the groups held in memory have been returned.
+  *
+  * Groups are returned in the order they were first seen. Groups keyed by a single node are looked up by node id in a
+  * primitive long keyed table, all others by their grouping value. Only the ids of the nodes are kept, and the nodes
+  * are looked up again by id when the groups are returned.
+  *
+  * The memory reported for the groups is given back once they have all been returned.
+  *
   * @param groupingColumns  all grouping columns
   * @param groupingFunction a precomputed function to calculate the grouping key of a row
   * @param aggregations     all aggregation columns
+  * @param spillable        whether rows may be spilled to disk, false for the tables aggregating spilled partitions
   */
 class GroupingAggTable(groupingColumns: Array[GroupingCol],
                        groupingFunction: (ExecutionContext, QueryState) => AnyValue,
                        aggregations: Array[AggregatingCol],
                        state: QueryState,
-                       executionContextFactory: ExecutionContextFactory) extends AggregationTable {
+                       executionContextFactory: ExecutionContextFactory,
+                       spillable: Boolean = true) extends AggregationTable {
 
-  protected var resultMap: java.util.LinkedHashMap[AnyValue, Array[AggregationFunction]] = _
+  // The grouping values of the groups in the order they were first seen, or null for groups keyed by a node
+  protected var groupingValues: ArrayBuffer[AnyValue] = _
+  // The node ids of the groups keyed by a node, in the order they were first seen
+  protected var groupNodeIds: LongArrayList = _
+  protected var groupFunctions: ArrayBuffer[Array[AggregationFunction]] = _
+  protected var nodeGroups: LongObjectHashMap[Array[AggregationFunction]] = _
+  protected var valueGroups: java.util.HashMap[AnyValue, Array[AggregationFunction]] = _
+  protected var spilled: SpillPartitions = _
+  private var allocatedBytes: Long = 0L
   protected val addKeys: (ExecutionContext, AnyValue) => Unit = AggregationPipe.computeAddKeysToResultRowFunction(groupingColumns)
 
   override def clear(): Unit = {
-    resultMap = new java.util.LinkedHashMap[AnyValue, Array[AggregationFunction]]()
+    release()
+    spilled = null
   }
 
   override def processRow(row: ExecutionContext): Unit = {
     val groupingValue: AnyValue = groupingFunction(row, state)
-    val aggregationFunctions = resultMap.computeIfAbsent(groupingValue, _ => {
-      state.memoryTracker.allocated(groupingValue)
-      val functions = new Array[AggregationFunction](aggregations.length)
+    var aggregationFunctions = groupingValue match {
+      case node: VirtualNodeValue => nodeGroups.get(node.id())
+      case _ => valueGroups.get(groupingValue)
+    }
+    if (aggregationFunctions == null) {
+      if (spillable && (spilled != null || state.memoryTracker.shouldSpill)) {
+        if (spilled == null) {
+          spilled = new SpillPartitions(state)
+        }
+        spilled.write(groupingValue.hashCode(), row)
+        return
+      }
+      aggregationFunctions = new Array[AggregationFunction](aggregations.length)
       var i = 0
       while (i < aggregations.length) {
-        functions(i) = aggregations(i).expression.createAggregationFunction
+        aggregationFunctions(i) = aggregations(i).expression.createAggregationFunction
         i += 1
       }
-      functions
-    })
+      val groupBytes = groupingValue match {
+        case node: VirtualNodeValue =>
+          nodeGroups.put(node.id(), aggregationFunctions)
+          groupNodeIds.add(node.id())
+          groupingValues += null
+          java.lang.Long.BYTES
+        case _ =>
+          valueGroups.put(groupingValue, aggregationFunctions)
+          groupingValues += groupingValue
+          groupingValue.estimatedHeapUsage()
+      }
+      state.memoryTracker.allocated(groupBytes)
+      allocatedBytes += groupBytes
+      groupFunctions += aggregationFunctions
+    }
     var i = 0
     while (i < aggregationFunctions.length) {
       aggregationFunctions(i)(row, state)
@@ -67,14 +115,49 @@ class GroupingAggTable(groupingColumns: Array[GroupingCol],
   }
 
   override def result(): Iterator[ExecutionContext] = {
-    val innerIterator = resultMap.entrySet().iterator()
+    val partitions = spilled
+    val inMemory = inMemoryResult()
+    if (partitions == null) {
+      inMemory
+    } else {
+      inMemory ++ (0 until partitions.numberOfPartitions).iterator.flatMap { partition =>
+        val table = new GroupingAggTable(groupingColumns, groupingFunction, aggregations, state, executionContextFactory, spillable = false)
+        table.clear()
+        partitions.rows(partition, executionContextFactory).foreach(table.processRow)
+        table.result()
+      }
+    }
+  }
+
+  private def inMemoryResult(): Iterator[ExecutionContext] = {
     new Iterator[ExecutionContext] {
-      override def hasNext: Boolean = innerIterator.hasNext
+      private var values = groupingValues
+      private var nodeIds = groupNodeIds
+      private var functions = groupFunctions
+      private var group = 0
+      private var nodeGroup = 0
+
+      override def hasNext: Boolean = {
+        if (values != null && group == values.length) {
+          values = null
+          nodeIds = null
+          functions = null
+          release()
+        }
+        values != null
+      }
 
       override def next(): ExecutionContext = {
-        val entry = innerIterator.next()
-        val unorderedGroupingValue = entry.getKey
-        val aggregateFunctions = entry.getValue
+        if (!hasNext) Iterator.empty.next()
+        val unorderedGroupingValue = values(group) match {
+          case null =>
+            val node = state.query.nodeById(nodeIds.get(nodeGroup))
+            nodeGroup += 1
+            node
+          case value => value
+        }
+        val aggregateFunctions = functions(group)
+        group += 1
         val row = executionContextFactory.newExecutionContext()
         addKeys(row, unorderedGroupingValue)
         var i = 0
@@ -88,6 +171,19 @@ class GroupingAggTable(groupingColumns: Array[GroupingCol],
     }
   }
 
+  /**
+    * Forgets all groups held in memory and gives back the memory reported for them.
+    */
+  private def release(): Unit = {
+    groupingValues = new ArrayBuffer[AnyValue]()
+    groupNodeIds = new LongArrayList()
+    groupFunctions = new ArrayBuffer[Array[AggregationFunction]]()
+    nodeGroups = new LongObjectHashMap[Array[AggregationFunction]]()
+    valueGroups = new java.util.HashMap[AnyValue, Array[AggregationFunction]]()
+    state.memoryTracker.deallocated(allocatedBytes)
+    allocatedBytes = 0L
+  }
+
 }
 
 object GroupingAggTable {
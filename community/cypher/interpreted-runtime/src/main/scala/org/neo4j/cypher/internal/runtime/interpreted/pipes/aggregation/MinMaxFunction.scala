@@ -25,7 +25,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.values.storable.Values
 import org.neo4j.values.{AnyValue, AnyValues}
 
-trait MinMax extends AggregationFunction {
+trait MinMax extends AggregationFunction with MergeableAggregationFunction {
   def value: Expression
   def keep(comparisonResult: Int): Boolean
   def name: String
@@ -41,6 +41,13 @@ trait MinMax extends AggregationFunction {
     }
   }
 
+  override def merge(partial: AggregationFunction): Unit = {
+    val other = partial.asInstanceOf[MinMax].biggestSeen
+    if (!(other eq Values.NO_VALUE)) {
+      checkIfLargest(other)
+    }
+  }
+
   private def checkIfLargest(value: AnyValue) {
     if (biggestSeen eq Values.NO_VALUE) {
       biggestSeen = value
@@ -52,6 +52,18 @@ class NonGroupingAggTable(aggregations: Array[AggregatingCol],
     Iterator.single(resultRow())
   }
 
+  /**
+    * Merges the aggregated totals of a table that aggregated other rows of the same input into this table.
+    * Must only be used when all aggregation functions are [[MergeableAggregationFunction]]s.
+    */
+  def merge(partial: NonGroupingAggTable): Unit = {
+    var i = 0
+    while (i < aggregationFunctions.length) {
+      aggregationFunctions(i).asInstanceOf[MergeableAggregationFunction].merge(partial.aggregationFunctions(i))
+      i += 1
+    }
+  }
+
   protected def resultRow(): ExecutionContext = {
     val row = executionContextFactory.newExecutionContext()
     var i = 0
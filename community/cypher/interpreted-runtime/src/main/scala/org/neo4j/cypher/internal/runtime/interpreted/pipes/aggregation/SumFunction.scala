@@ -28,6 +28,7 @@ import org.neo4j.values.utils.ValueMath.overflowSafeAdd
 
 class SumFunction(val value: Expression)
   extends AggregationFunction
+    with MergeableAggregationFunction
     with NumericOrDurationAggregationExpression {
 
   def name = "SUM"
@@ -54,4 +55,16 @@ class SumFunction(val value: Expression)
       }
     )
   }
+
+  override def merge(partial: AggregationFunction): Unit = {
+    val other = partial.asInstanceOf[SumFunction]
+    other.aggregatingType match {
+      case None =>
+      case Some(other.AggregatingNumbers) =>
+        actOnNumberOrDuration(other.sumNumber, number => sumNumber = overflowSafeAdd(sumNumber, number), _ => ())
+      case Some(other.AggregatingDurations) =>
+        actOnNumberOrDuration(other.sumDuration, _ => (), duration => sumDuration = sumDuration.add(duration))
+      case _ => throw new InternalException(s"invalid aggregation type ${other.aggregatingType}")
+    }
+  }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.util.{Comparator, PriorityQueue}
+
+import org.neo4j.cypher.internal.runtime.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{ExecutionContextFactory, QueryState}
+
+/**
+  * Merges runs of rows that are each sorted by the comparator into one sorted iterator. Rows that compare as equal
+  * are returned in the order of their runs, which keeps an external merge sort stable.
+  */
+class SortedRunsIterator(runs: Seq[Iterator[ExecutionContext]], comparator: Comparator[ExecutionContext])
+  extends Iterator[ExecutionContext] {
+
+  private class Head(val run: Int, val row: ExecutionContext)
+
+  private val heads = new PriorityQueue[Head](math.max(runs.size, 1), new Comparator[Head] {
+    override def compare(a: Head, b: Head): Int = {
+      val result = comparator.compare(a.row, b.row)
+      if (result != 0) result else Integer.compare(a.run, b.run)
+    }
+  })
+
+  runs.indices.foreach(advance)
+
+  override def hasNext: Boolean = !heads.isEmpty
+
+  override def next(): ExecutionContext = {
+    if (!hasNext) Iterator.empty.next()
+    val head = heads.poll()
+    advance(head.run)
+    head.row
+  }
+
+  private def advance(run: Int): Unit = {
+    val iterator = runs(run)
+    if (iterator.hasNext) {
+      heads.add(new Head(run, iterator.next()))
+    }
+  }
+}
+
+object SortedRunsIterator {
+
+  /**
+    * The largest number of runs that are merged at once, which bounds the number of spill files that are open for
+    * reading at the same time.
+    */
+  val MAX_FAN_IN = 64
+
+  /**
+    * Merges spilled runs in as many passes as needed to leave fewer than `maxFanIn` of them, so that they can be
+    * merged together with one more run in a single final pass. Each pass merges consecutive runs into a new run, which
+    * keeps rows that compare as equal in the order of their runs.
+    */
+  def reduceRuns(runs: Seq[SpillFile],
+                 maxFanIn: Int,
+                 comparator: Comparator[ExecutionContext],
+                 state: QueryState,
+                 executionContextFactory: ExecutionContextFactory): Seq[SpillFile] = {
+    var remaining = runs
+    while (remaining.size >= maxFanIn) {
+      remaining = remaining.grouped(maxFanIn).map { group =>
+        if (group.size == 1) {
+          group.head
+        } else {
+          val merged = SpillFile(state)
+          new SortedRunsIterator(group.map(_.rows(executionContextFactory)), comparator).foreach(merged.write)
+          merged.finishWriting()
+          merged
+        }
+      }.toIndexedSeq
+    }
+    remaining
+  }
+}
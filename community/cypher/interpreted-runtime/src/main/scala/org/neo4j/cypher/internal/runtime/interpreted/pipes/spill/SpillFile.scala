@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.io._
+import java.nio.file.{Files, Path}
+
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{ExecutionContextFactory, QueryState}
+import org.neo4j.cypher.internal.runtime.{ExecutionContext, MapExecutionContext, QueryContext, SlotMappedExecutionContext}
+import org.neo4j.exceptions.InternalException
+import org.neo4j.internal.kernel.api.{AutoCloseablePlus, DefaultCloseListenable}
+import org.neo4j.values.AnyValue
+
+/**
+  * A temporary file of rows that did not fit in memory. Rows are appended with [[write]] until [[finishWriting]] is
+  * called or they are read back with [[rows]], after which no more rows can be written. The file is deleted once all
+  * of its rows have been read, or at the latest when the query releases its resources.
+  *
+  * Cached properties are not written, and will be read from the store again if needed.
+  */
+class SpillFile private(query: QueryContext, directory: Path) extends DefaultCloseListenable with AutoCloseablePlus {
+
+  private val file: Path = Files.createTempFile(directory, "cypher-spill", ".tmp")
+  private var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), SpillFile.BUFFER_SIZE))
+  private var in: DataInputStream = _
+  private var rowCount = 0L
+  private var closed = false
+
+  def size: Long = rowCount
+
+  def write(row: ExecutionContext): Unit = {
+    if (out == null) {
+      throw new InternalException("Cannot write to a spill file after writing has finished")
+    }
+    row match {
+      case ctx: MapExecutionContext => ctx.m.foreach(kv => writeEntry(kv._1, kv._2))
+      case ctx: SlotMappedExecutionContext => ctx.foreachEntry(writeEntry)
+      case _ => throw new InternalException(s"Cannot spill rows of type ${row.getClass.getSimpleName}")
+    }
+    out.writeBoolean(false)
+    rowCount += 1
+  }
+
+  /**
+    * Flushes and closes the output of this file, so that it does not hold on to a file handle and a write buffer
+    * until it is read back.
+    */
+  def finishWriting(): Unit = {
+    if (out != null) {
+      out.close()
+      out = null
+    }
+  }
+
+  /**
+    * Reads back all rows written to this file, in the order they were written.
+    */
+  def rows(executionContextFactory: ExecutionContextFactory): Iterator[ExecutionContext] = {
+    finishWriting()
+    if (rowCount == 0) {
+      close()
+      return Iterator.empty
+    }
+    in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), SpillFile.BUFFER_SIZE))
+
+    new Iterator[ExecutionContext] {
+      private var remaining = rowCount
+
+      override def hasNext: Boolean = remaining > 0
+
+      override def next(): ExecutionContext = {
+        if (!hasNext) Iterator.empty.next()
+        val row = executionContextFactory.newExecutionContext()
+        while (in.readBoolean()) {
+          val key = in.readUTF()
+          row.set(key, ValueSpillFormat.read(in, query))
+        }
+        remaining -= 1
+        if (remaining == 0) {
+          close()
+        }
+        row
+      }
+    }
+  }
+
+  private def writeEntry(key: String, value: AnyValue): Unit = {
+    out.writeBoolean(true)
+    out.writeUTF(key)
+    ValueSpillFormat.write(value, out)
+  }
+
+  override def close(): Unit = {
+    closeInternal()
+    val listener = closeListener
+    if (listener != null) listener.onClosed(this)
+  }
+
+  override def closeInternal(): Unit = {
+    if (!closed) {
+      closed = true
+      try {
+        if (out != null) out.close()
+        if (in != null) in.close()
+      } finally {
+        Files.deleteIfExists(file)
+      }
+    }
+  }
+
+  override def isClosed: Boolean = closed
+}
+
+object SpillFile {
+  private val BUFFER_SIZE = 64 * 1024
+
+  /**
+    * Operators that spill by sorted runs keep at least this many rows in memory before writing them out, so that a
+    * query which is over the spill threshold because of other operators does not create a file per row.
+    */
+  val MIN_ROWS_PER_RUN = 1024
+
+  /**
+    * Creates a new spill file in the spill directory of the query, which will be deleted when the query releases its
+    * resources.
+    */
+  def apply(state: QueryState): SpillFile = {
+    val directory = state.memoryTracker.spillDirectory
+    if (directory == null) {
+      throw new InternalException("Cannot spill rows without a spill directory")
+    }
+    Files.createDirectories(directory)
+    val spillFile = new SpillFile(state.query, directory)
+    state.query.resources.trace(spillFile)
+    spillFile
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import org.neo4j.cypher.internal.runtime.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{ExecutionContextFactory, QueryState}
+
+import scala.util.hashing.byteswap32
+
+/**
+  * Rows spilled to a fixed number of [[SpillFile]]s by the hash of a key, so that all rows with equal keys end up in
+  * the same partition and every partition can be processed in memory on its own. Two instances agree on the partition
+  * of a key, which is what hash joins rely on.
+  */
+class SpillPartitions(state: QueryState) {
+
+  private val files = new Array[SpillFile](SpillPartitions.NUMBER_OF_PARTITIONS)
+
+  def numberOfPartitions: Int = files.length
+
+  def write(keyHash: Int, row: ExecutionContext): Unit = {
+    val partition = Math.floorMod(byteswap32(keyHash), files.length)
+    if (files(partition) == null) {
+      files(partition) = SpillFile(state)
+    }
+    files(partition).write(row)
+  }
+
+  /**
+    * Reads back the rows of one partition. Each partition can only be read once.
+    */
+  def rows(partition: Int, executionContextFactory: ExecutionContextFactory): Iterator[ExecutionContext] = {
+    val file = files(partition)
+    if (file == null) Iterator.empty else file.rows(executionContextFactory)
+  }
+
+  /**
+    * Deletes the rows of a partition without reading them.
+    */
+  def discard(partition: Int): Unit = {
+    val file = files(partition)
+    if (file != null) file.close()
+  }
+}
+
+object SpillPartitions {
+  val NUMBER_OF_PARTITIONS = 16
+}
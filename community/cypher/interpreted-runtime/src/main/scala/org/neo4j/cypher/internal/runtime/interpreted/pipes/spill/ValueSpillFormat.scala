@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.io.{DataInputStream, DataOutputStream, IOException}
+import java.nio.charset.StandardCharsets.UTF_8
+import java.time._
+
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.ValueWriter.ArrayType
+import org.neo4j.values.storable._
+import org.neo4j.values.virtual._
+
+/**
+  * Binary format of the values of spilled rows. Storable values are written in full, while nodes and relationships
+  * are written as ids only and are looked up again through the [[QueryContext]] when read back.
+  */
+object ValueSpillFormat {
+
+  private final val NO_VALUE: Byte = 0
+  private final val BOOLEAN: Byte = 1
+  private final val BYTE: Byte = 2
+  private final val SHORT: Byte = 3
+  private final val INT: Byte = 4
+  private final val LONG: Byte = 5
+  private final val FLOAT: Byte = 6
+  private final val DOUBLE: Byte = 7
+  private final val STRING: Byte = 8
+  private final val CHAR: Byte = 9
+  private final val ARRAY: Byte = 10
+  private final val BYTE_ARRAY: Byte = 11
+  private final val POINT: Byte = 12
+  private final val DURATION: Byte = 13
+  private final val DATE: Byte = 14
+  private final val LOCAL_TIME: Byte = 15
+  private final val TIME: Byte = 16
+  private final val LOCAL_DATE_TIME: Byte = 17
+  private final val DATE_TIME: Byte = 18
+  private final val NODE: Byte = 19
+  private final val RELATIONSHIP: Byte = 20
+  private final val LIST: Byte = 21
+  private final val MAP: Byte = 22
+  private final val PATH: Byte = 23
+
+  private val ARRAY_TYPES = ArrayType.values()
+
+  def write(value: AnyValue, out: DataOutputStream): Unit = value match {
+    case n: VirtualNodeValue =>
+      out.writeByte(NODE)
+      out.writeLong(n.id())
+
+    case r: VirtualRelationshipValue =>
+      out.writeByte(RELATIONSHIP)
+      out.writeLong(r.id())
+
+    case p: PathValue =>
+      out.writeByte(PATH)
+      val nodes = p.nodes()
+      val relationships = p.relationships()
+      out.writeInt(nodes.length)
+      nodes.foreach(n => out.writeLong(n.id()))
+      out.writeInt(relationships.length)
+      relationships.foreach(r => out.writeLong(r.id()))
+
+    case l: ListValue =>
+      out.writeByte(LIST)
+      out.writeInt(l.size())
+      val iterator = l.iterator()
+      while (iterator.hasNext) {
+        write(iterator.next(), out)
+      }
+
+    case m: MapValue =>
+      out.writeByte(MAP)
+      out.writeInt(m.size())
+      m.foreach[IOException]((k, v) => {
+        writeString(k, out)
+        write(v, out)
+      })
+
+    case v: Value =>
+      v.writeTo(new StorableWriter(out))
+
+    case _ =>
+      throw new IllegalArgumentException(s"Cannot spill value of type ${value.getClass.getSimpleName}")
+  }
+
+  def read(in: DataInputStream, query: QueryContext): AnyValue = in.readByte() match {
+    case NODE =>
+      query.nodeOps.getById(in.readLong())
+
+    case RELATIONSHIP =>
+      query.relationshipOps.getById(in.readLong())
+
+    case PATH =>
+      val nodes = Array.fill(in.readInt())(query.nodeOps.getById(in.readLong()))
+      val relationships = Array.fill(in.readInt())(query.relationshipOps.getById(in.readLong()))
+      VirtualValues.path(nodes, relationships)
+
+    case LIST =>
+      VirtualValues.list(Array.fill(in.readInt())(read(in, query)): _*)
+
+    case MAP =>
+      val size = in.readInt()
+      val keys = new Array[String](size)
+      val values = new Array[AnyValue](size)
+      var i = 0
+      while (i < size) {
+        keys(i) = readString(in)
+        values(i) = read(in, query)
+        i += 1
+      }
+      VirtualValues.map(keys, values)
+
+    case ARRAY =>
+      val arrayType = ARRAY_TYPES(in.readByte())
+      val elements = Array.fill(in.readInt())(read(in, query).asInstanceOf[Value])
+      toArray(arrayType, elements)
+
+    case tag =>
+      readStorable(tag, in)
+  }
+
+  private def readStorable(tag: Byte, in: DataInputStream): Value = tag match {
+    case NO_VALUE => Values.NO_VALUE
+    case BOOLEAN => Values.booleanValue(in.readBoolean())
+    case BYTE => Values.byteValue(in.readByte())
+    case SHORT => Values.shortValue(in.readShort())
+    case INT => Values.intValue(in.readInt())
+    case LONG => Values.longValue(in.readLong())
+    case FLOAT => Values.floatValue(in.readFloat())
+    case DOUBLE => Values.doubleValue(in.readDouble())
+    case STRING => Values.stringValue(readString(in))
+    case CHAR => Values.charValue(in.readChar())
+    case BYTE_ARRAY =>
+      val bytes = new Array[Byte](in.readInt())
+      in.readFully(bytes)
+      Values.byteArray(bytes)
+    case POINT =>
+      val crs = CoordinateReferenceSystem.get(in.readInt())
+      Values.pointValue(crs, Array.fill(in.readInt())(in.readDouble()): _*)
+    case DURATION =>
+      DurationValue.duration(in.readLong(), in.readLong(), in.readLong(), in.readInt())
+    case DATE =>
+      DateValue.date(LocalDate.ofEpochDay(in.readLong()))
+    case LOCAL_TIME =>
+      LocalTimeValue.localTime(LocalTime.ofNanoOfDay(in.readLong()))
+    case TIME =>
+      TimeValue.time(OffsetTime.of(LocalTime.ofNanoOfDay(in.readLong()), ZoneOffset.ofTotalSeconds(in.readInt())))
+    case LOCAL_DATE_TIME =>
+      LocalDateTimeValue.localDateTime(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC))
+    case DATE_TIME =>
+      val instant = Instant.ofEpochSecond(in.readLong(), in.readInt())
+      DateTimeValue.datetime(ZonedDateTime.ofInstant(instant, ZoneId.of(readString(in))))
+    case _ =>
+      throw new IllegalStateException(s"Unknown tag $tag in spilled value")
+  }
+
+  private def toArray(arrayType: ArrayType, elements: Array[Value]): ArrayValue = arrayType match {
+    case ArrayType.BYTE => Values.byteArray(elements.map(_.asInstanceOf[NumberValue].longValue().toByte))
+    case ArrayType.SHORT => Values.shortArray(elements.map(_.asInstanceOf[NumberValue].longValue().toShort))
+    case ArrayType.INT => Values.intArray(elements.map(_.asInstanceOf[NumberValue].longValue().toInt))
+    case ArrayType.LONG => Values.longArray(elements.map(_.asInstanceOf[NumberValue].longValue()))
+    case ArrayType.FLOAT => Values.floatArray(elements.map(_.asInstanceOf[NumberValue].doubleValue().toFloat))
+    case ArrayType.DOUBLE => Values.doubleArray(elements.map(_.asInstanceOf[NumberValue].doubleValue()))
+    case ArrayType.BOOLEAN => Values.booleanArray(elements.map(_.asInstanceOf[BooleanValue].booleanValue()))
+    case ArrayType.STRING => Values.stringArray(elements.map(_.asInstanceOf[TextValue].stringValue()): _*)
+    case ArrayType.CHAR => Values.charArray(elements.map(_.asInstanceOf[TextValue].stringValue().charAt(0)))
+    case ArrayType.POINT => Values.pointArray(elements)
+    case ArrayType.ZONED_DATE_TIME => Values.dateTimeArray(elements.map(_.asObjectCopy().asInstanceOf[ZonedDateTime]))
+    case ArrayType.LOCAL_DATE_TIME => Values.localDateTimeArray(elements.map(_.asObjectCopy().asInstanceOf[LocalDateTime]))
+    case ArrayType.DATE => Values.dateArray(elements.map(_.asObjectCopy().asInstanceOf[LocalDate]))
+    case ArrayType.ZONED_TIME => Values.timeArray(elements.map(_.asObjectCopy().asInstanceOf[OffsetTime]))
+    case ArrayType.LOCAL_TIME => Values.localTimeArray(elements.map(_.asObjectCopy().asInstanceOf[LocalTime]))
+    case ArrayType.DURATION => Values.durationArray(elements.map(_.asInstanceOf[DurationValue]))
+  }
+
+  private def writeString(value: String, out: DataOutputStream): Unit = {
+    val bytes = value.getBytes(UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  private def readString(in: DataInputStream): String = {
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    new String(bytes, UTF_8)
+  }
+
+  private class StorableWriter(out: DataOutputStream) extends ValueWriter[IOException] {
+
+    override def writeNull(): Unit = out.writeByte(NO_VALUE)
+
+    override def writeBoolean(value: Boolean): Unit = {
+      out.writeByte(BOOLEAN)
+      out.writeBoolean(value)
+    }
+
+    override def writeInteger(value: Byte): Unit = {
+      out.writeByte(BYTE)
+      out.writeByte(value)
+    }
+
+    override def writeInteger(value: Short): Unit = {
+      out.writeByte(SHORT)
+      out.writeShort(value)
+    }
+
+    override def writeInteger(value: Int): Unit = {
+      out.writeByte(INT)
+      out.writeInt(value)
+    }
+
+    override def writeInteger(value: Long): Unit = {
+      out.writeByte(LONG)
+      out.writeLong(value)
+    }
+
+    override def writeFloatingPoint(value: Float): Unit = {
+      out.writeByte(FLOAT)
+      out.writeFloat(value)
+    }
+
+    override def writeFloatingPoint(value: Double): Unit = {
+      out.writeByte(DOUBLE)
+      out.writeDouble(value)
+    }
+
+    override def writeString(value: String): Unit = {
+      out.writeByte(STRING)
+      ValueSpillFormat.writeString(value, out)
+    }
+
+    override def writeString(value: Char): Unit = {
+      out.writeByte(CHAR)
+      out.writeChar(value)
+    }
+
+    override def beginArray(size: Int, arrayType: ArrayType): Unit = {
+      out.writeByte(ARRAY)
+      out.writeByte(arrayType.ordinal())
+      out.writeInt(size)
+    }
+
+    override def endArray(): Unit = {}
+
+    override def writeByteArray(value: Array[Byte]): Unit = {
+      out.writeByte(BYTE_ARRAY)
+      out.writeInt(value.length)
+      out.write(value)
+    }
+
+    override def writePoint(crs: CoordinateReferenceSystem, coordinate: Array[Double]): Unit = {
+      out.writeByte(POINT)
+      out.writeInt(crs.getCode)
+      out.writeInt(coordinate.length)
+      coordinate.foreach(out.writeDouble)
+    }
+
+    override def writeDuration(months: Long, days: Long, seconds: Long, nanos: Int): Unit = {
+      out.writeByte(DURATION)
+      out.writeLong(months)
+      out.writeLong(days)
+      out.writeLong(seconds)
+      out.writeInt(nanos)
+    }
+
+    override def writeDate(localDate: LocalDate): Unit = {
+      out.writeByte(DATE)
+      out.writeLong(localDate.toEpochDay)
+    }
+
+    override def writeLocalTime(localTime: LocalTime): Unit = {
+      out.writeByte(LOCAL_TIME)
+      out.writeLong(localTime.toNanoOfDay)
+    }
+
+    override def writeTime(offsetTime: OffsetTime): Unit = {
+      out.writeByte(TIME)
+      out.writeLong(offsetTime.toLocalTime.toNanoOfDay)
+      out.writeInt(offsetTime.getOffset.getTotalSeconds)
+    }
+
+    override def writeLocalDateTime(localDateTime: LocalDateTime): Unit = {
+      out.writeByte(LOCAL_DATE_TIME)
+      out.writeLong(localDateTime.toEpochSecond(ZoneOffset.UTC))
+      out.writeInt(localDateTime.getNano)
+    }
+
+    override def writeDateTime(zonedDateTime: ZonedDateTime): Unit = {
+      out.writeByte(DATE_TIME)
+      out.writeLong(zonedDateTime.toEpochSecond)
+      out.writeInt(zonedDateTime.getNano)
+      ValueSpillFormat.writeString(zonedDateTime.getZone.getId, out)
+    }
+  }
+}
@@ -27,6 +27,7 @@ import org.neo4j.cypher.internal.runtime.QueryIndexRegistrator
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{CommunityExpressionConverter, ExpressionConverters}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.values.KeyToken.Resolved
 import org.neo4j.cypher.internal.runtime.interpreted.commands.values.TokenType
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.True
 import org.neo4j.cypher.internal.runtime.interpreted.commands.{expressions => legacy}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes._
 import org.neo4j.cypher.internal.v4_0.ast.AstConstructionTestSupport
@@ -78,6 +79,14 @@ class InterpretedPipeMapperIT extends CypherFunSuite with AstConstructionTestSup
     pipe should equal(NodeByLabelScanPipe("n", LazyLabel("Foo"))())
   }
 
+  test("label scan with further labels on the same node intersects the labels in the scan") {
+    val logicalPlan = Selection(Seq(hasLabels(varFor("n"), "Bar", "Baz")),
+      NodeByLabelScan("n", labelName("Foo"), Set.empty))
+    val pipe = build(logicalPlan)
+
+    pipe should equal(FilterPipe(NodeByLabelScanPipe("n", LazyLabel("Foo"), Seq(LazyLabel("Bar"), LazyLabel("Baz")))(), True())())
+  }
+
   test("simple node by id seek query") {
     val astLiteral = listOfInt(42)
     val logicalPlan = NodeByIdSeek("n", ManySeekableArgs(astLiteral), Set.empty)
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.VariableFromSlot
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.SlotMappedExecutionContextFactory
+import org.neo4j.cypher.internal.runtime.{ExecutionContext, SlotMappedExecutionContext, VariableSlots}
+import org.neo4j.cypher.internal.v4_0.expressions.{CachedProperty, NODE_TYPE, PropertyKeyName, Variable}
+import org.neo4j.cypher.internal.v4_0.util.InputPosition
+import org.neo4j.cypher.internal.v4_0.util.test_helpers.CypherFunSuite
+import org.neo4j.graphdb.NotFoundException
+import org.neo4j.values.storable.BooleanValue
+
+class SlotMappedExecutionContextTest extends CypherFunSuite {
+
+  private val slots = VariableSlots.empty.updated("key1").updated("key2").updated("key3")
+
+  test("set and get slotted and unslotted keys") {
+    // given
+    val ctx = SlotMappedExecutionContext(slots)
+
+    // when
+    ctx.set("key1", BooleanValue.FALSE, "other", BooleanValue.TRUE)
+
+    // then
+    ctx.getByName("key1") should equal(BooleanValue.FALSE)
+    ctx.getRefAt(slots.offsetFor("key1")) should equal(BooleanValue.FALSE)
+    ctx.getByName("other") should equal(BooleanValue.TRUE)
+    ctx.containsName("key2") shouldBe false
+    ctx.numberOfColumns should equal(2)
+    ctx.toMap should equal(Map("key1" -> BooleanValue.FALSE, "other" -> BooleanValue.TRUE))
+  }
+
+  test("unset slot is an unknown variable") {
+    val ctx = SlotMappedExecutionContext(slots)
+
+    a[NotFoundException] should be thrownBy ctx.getByName("key1")
+    a[NotFoundException] should be thrownBy ctx.getByName("other")
+  }
+
+  test("create clone") {
+    // given
+    val ctx = SlotMappedExecutionContext(slots).copyWith("key1", BooleanValue.FALSE)
+
+    // when
+    val ctxClone = ctx.createClone()
+
+    // then
+    ctxClone.getByName("key1") should equal(BooleanValue.FALSE)
+    mutatingLeftDoesNotAffectRight(ctx, ctxClone)
+    mutatingLeftDoesNotAffectRight(ctxClone, ctx)
+  }
+
+  test("copy with keys") {
+    // given
+    val lhsCtx = SlotMappedExecutionContext(slots)
+
+    // when
+    val rhsCtx = lhsCtx.copyWith("key1", BooleanValue.FALSE, "key2", BooleanValue.TRUE, "other", BooleanValue.TRUE)
+
+    // then
+    rhsCtx.getByName("key1") should equal(BooleanValue.FALSE)
+    rhsCtx.getByName("key2") should equal(BooleanValue.TRUE)
+    rhsCtx.getByName("other") should equal(BooleanValue.TRUE)
+    lhsCtx.numberOfColumns should equal(0)
+
+    mutatingLeftDoesNotAffectRight(lhsCtx, rhsCtx)
+  }
+
+  test("mergeWith slot mapped context") {
+    // given
+    val cachedPropertyKey = prop("n", "key")
+    val lhsCtx = SlotMappedExecutionContext(slots).copyWith("key1", BooleanValue.FALSE, "key2", BooleanValue.FALSE)
+    val rhsCtx = SlotMappedExecutionContext(slots).copyWith("key2", BooleanValue.TRUE, "other", BooleanValue.TRUE)
+    rhsCtx.setCachedProperty(cachedPropertyKey, BooleanValue.TRUE)
+
+    // when
+    lhsCtx.mergeWith(rhsCtx, null)
+
+    // then
+    lhsCtx.getByName("key1") should equal(BooleanValue.FALSE)
+    lhsCtx.getByName("key2") should equal(BooleanValue.TRUE)
+    lhsCtx.getByName("other") should equal(BooleanValue.TRUE)
+    lhsCtx.getCachedProperty(cachedPropertyKey) should equal(BooleanValue.TRUE)
+
+    mutatingLeftDoesNotAffectRight(rhsCtx, lhsCtx)
+  }
+
+  test("mergeWith map context both ways") {
+    // given
+    val slotCtx = SlotMappedExecutionContext(slots).copyWith("key1", BooleanValue.FALSE)
+    val mapCtx = ExecutionContext.from("key2" -> BooleanValue.TRUE, "other" -> BooleanValue.TRUE)
+
+    // when
+    slotCtx.mergeWith(mapCtx, null)
+    mapCtx.mergeWith(slotCtx, null)
+
+    // then
+    slotCtx.getByName("key2") should equal(BooleanValue.TRUE)
+    slotCtx.getByName("other") should equal(BooleanValue.TRUE)
+    mapCtx.getByName("key1") should equal(BooleanValue.FALSE)
+  }
+
+  test("factory converts initial map context") {
+    // given
+    val factory = SlotMappedExecutionContextFactory(slots)
+    val init = ExecutionContext.from("key3" -> BooleanValue.TRUE)
+
+    // when
+    val ctx = factory.copyWith(init)
+
+    // then
+    ctx shouldBe a[SlotMappedExecutionContext]
+    ctx.getRefAt(slots.offsetFor("key3")) should equal(BooleanValue.TRUE)
+  }
+
+  test("variable from slot reads by offset and falls back to name") {
+    // given
+    val expression = VariableFromSlot(slots.offsetFor("key2"), "key2")
+    val state = QueryStateHelper.empty
+
+    // then
+    expression(SlotMappedExecutionContext(slots).copyWith("key2", BooleanValue.TRUE), state) should equal(BooleanValue.TRUE)
+    expression(ExecutionContext.from("key2" -> BooleanValue.FALSE), state) should equal(BooleanValue.FALSE)
+    a[NotFoundException] should be thrownBy expression(SlotMappedExecutionContext(slots), state)
+  }
+
+  private def mutatingLeftDoesNotAffectRight(left: ExecutionContext, right: ExecutionContext): Unit = {
+    // given
+    left should not be theSameInstanceAs(right)
+    val newCachedPropertyKey = prop("n", "this key should not yet exist in left or right")
+    left.getCachedProperty(newCachedPropertyKey) shouldBe null
+    right.getCachedProperty(newCachedPropertyKey) shouldBe null
+    val rightKey3 = right.containsName("key3")
+
+    // when (left is modified)
+    left.set("key3", BooleanValue.TRUE)
+    left.setCachedProperty(newCachedPropertyKey, BooleanValue.FALSE)
+
+    // then (only left should be modified)
+    left.getByName("key3") should equal(BooleanValue.TRUE)
+    left.getCachedProperty(newCachedPropertyKey) should equal(BooleanValue.FALSE)
+    right.containsName("key3") should equal(rightKey3)
+    right.getCachedProperty(newCachedPropertyKey) shouldBe null
+  }
+
+  private def prop(node: String, prop: String) =
+    CachedProperty(node, Variable(node)(InputPosition.NONE), PropertyKeyName(prop)(InputPosition.NONE), NODE_TYPE)(InputPosition.NONE)
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.convert
+
+import org.mockito.ArgumentMatchers.anyString
+import org.mockito.Mockito.{never, verify, when}
+import org.neo4j.cypher.internal.planner.spi.TokenContext
+import org.neo4j.cypher.internal.runtime.{ExecutionContext, QueryContext}
+import org.neo4j.cypher.internal.runtime.ast.ParameterFromSlot
+import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.CompiledExpressionCommand
+import org.neo4j.cypher.internal.v4_0.expressions._
+import org.neo4j.cypher.internal.v4_0.util.attribution.Id
+import org.neo4j.cypher.internal.v4_0.util.symbols.CTAny
+import org.neo4j.cypher.internal.v4_0.util.test_helpers.CypherFunSuite
+import org.neo4j.cypher.internal.v4_0.util.{DummyPosition, InputPosition}
+import org.neo4j.exceptions.ArithmeticException
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values.{FALSE, NO_VALUE, TRUE, longValue, stringValue}
+import org.neo4j.values.virtual.VirtualValues
+
+class ExpressionCompilerTest extends CypherFunSuite {
+
+  private val pos = DummyPosition(0)
+
+  private implicit def withPos[T](expr: InputPosition => T): T = expr(pos)
+
+  private val tokenContext = mock[TokenContext]
+  when(tokenContext.getOptPropertyKeyId(anyString())).thenReturn(None)
+  private val converters = new ExpressionConverters(CompiledExpressionConverter(tokenContext), CommunityExpressionConverter(tokenContext))
+
+  test("should compile arithmetics") {
+    val expression = Add(literal(40), Multiply(Variable("x")_, literal(2))_)_
+
+    evaluate(expression, "x" -> longValue(1)) should equal(longValue(42))
+    evaluate(expression, "x" -> NO_VALUE) should equal(NO_VALUE)
+  }
+
+  test("should compile comparisons") {
+    val expression = LessThan(ParameterFromSlot(0, "p", CTAny), Add(Variable("x")_, literal(0))_)_
+
+    evaluate(expression, Array[AnyValue](longValue(1)), "x" -> longValue(2)) should equal(TRUE)
+    evaluate(expression, Array[AnyValue](longValue(3)), "x" -> longValue(2)) should equal(FALSE)
+    evaluate(expression, Array[AnyValue](NO_VALUE), "x" -> longValue(2)) should equal(NO_VALUE)
+  }
+
+  test("should compile null checks and negation") {
+    evaluate(IsNull(Add(Variable("x")_, literal(1))_)_, "x" -> NO_VALUE) should equal(TRUE)
+    evaluate(IsNotNull(Add(Variable("x")_, literal(1))_)_, "x" -> NO_VALUE) should equal(FALSE)
+    evaluate(Not(Equals(Variable("x")_, literal(1))_)_, "x" -> longValue(1)) should equal(FALSE)
+    evaluate(Not(Equals(Variable("x")_, literal(1))_)_, "x" -> NO_VALUE) should equal(NO_VALUE)
+  }
+
+  test("should compile property reads of maps") {
+    val expression = Equals(Property(Variable("m")_, PropertyKeyName("name")_)_, StringLiteral("neo")_)_
+    val map = VirtualValues.map(Array("name"), Array[AnyValue](stringValue("neo")))
+
+    evaluate(expression, "m" -> map) should equal(TRUE)
+    evaluate(expression, "m" -> NO_VALUE) should equal(NO_VALUE)
+  }
+
+  test("should read node properties with the token resolved at compile time") {
+    when(tokenContext.getOptPropertyKeyId("age")).thenReturn(Some(5))
+    val query = mock[QueryContext]
+    when(query.nodeProperty(1, 5, null, null, true)).thenReturn(longValue(41))
+    val expression = Add(Property(Variable("n")_, PropertyKeyName("age")_)_, literal(1))_
+
+    val command = converters.toCommandExpression(Id.INVALID_ID, expression)
+    command shouldBe a[CompiledExpressionCommand]
+    command(ExecutionContext.from("n" -> VirtualValues.node(1)), QueryStateHelper.emptyWith(query = query)) should equal(longValue(42))
+    verify(query, never()).propertyKey(anyString())
+  }
+
+  test("should fail on division by zero even if the other side is null") {
+    val expression = Divide(Add(Variable("x")_, literal(1))_, literal(0))_
+
+    an[ArithmeticException] should be thrownBy evaluate(expression, "x" -> NO_VALUE)
+  }
+
+  test("should not compile expressions with fewer operations than the minimum") {
+    ExpressionCompiler.compile(literal(1), tokenContext) should be(None)
+    ExpressionCompiler.compile(Variable("x")(pos), tokenContext) should be(None)
+    ExpressionCompiler.compile(ParameterFromSlot(0, "p", CTAny), tokenContext) should be(None)
+    ExpressionCompiler.compile(Property(Variable("m")_, PropertyKeyName("name")_)(pos), tokenContext) should be(None)
+    ExpressionCompiler.compile(Add(Variable("x")_, literal(1))(pos), tokenContext) should be(None)
+  }
+
+  test("should leave unsupported expressions for interpretation") {
+    ExpressionCompiler.compile(StartsWith(Add(Variable("x")_, literal(1))_, StringLiteral("a")_)_, tokenContext) should be(None)
+  }
+
+  private def literal(value: Long): Expression = SignedDecimalIntegerLiteral(value.toString)(pos)
+
+  private def evaluate(expression: Expression, row: (String, AnyValue)*): AnyValue =
+    evaluate(expression, Array.empty[AnyValue], row: _*)
+
+  private def evaluate(expression: Expression, params: Array[AnyValue], row: (String, AnyValue)*): AnyValue = {
+    val command = converters.toCommandExpression(Id.INVALID_ID, expression)
+    command shouldBe a[CompiledExpressionCommand]
+    command(ExecutionContext.from(row: _*), QueryStateHelper.emptyWith(params = params))
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.runtime.{BoundedMemoryTracker, ExecutionContext}
+import org.neo4j.cypher.internal.v4_0.util.test_helpers.CypherFunSuite
+import org.neo4j.exceptions.CypherTypeException
+import org.neo4j.values.storable.Values.{NO_VALUE, intValue}
+import org.neo4j.values.virtual.VirtualValues.node
+
+import scala.collection.mutable.ArrayBuffer
+
+class NodeHashJoinTableTest extends CypherFunSuite {
+
+  test("should match rows by a single join node") {
+    val table = NodeHashJoinTable(IndexedSeq("a"), new BoundedMemoryTracker(Long.MaxValue))
+    val row1 = ExecutionContext.from("a" -> node(1), "x" -> intValue(1))
+    val row2 = ExecutionContext.from("a" -> node(2), "x" -> intValue(2))
+    val row3 = ExecutionContext.from("a" -> node(1), "x" -> intValue(3))
+
+    Seq(row1, row2, row3).foreach(table.add)
+
+    table.matches(ExecutionContext.from("a" -> node(1))) should equal(Seq(row1, row3))
+    table.matches(ExecutionContext.from("a" -> node(2))) should equal(Seq(row2))
+    table.matches(ExecutionContext.from("a" -> node(3))) shouldBe empty
+    table.matches(ExecutionContext.from("a" -> NO_VALUE)) shouldBe empty
+  }
+
+  test("should match rows by multiple join nodes") {
+    val table = NodeHashJoinTable(IndexedSeq("a", "b"), new BoundedMemoryTracker(Long.MaxValue))
+    val row1 = ExecutionContext.from("a" -> node(1), "b" -> node(2))
+    val row2 = ExecutionContext.from("a" -> node(2), "b" -> node(1))
+
+    Seq(row1, row2).foreach(table.add)
+
+    table.matches(ExecutionContext.from("a" -> node(1), "b" -> node(2))) should equal(Seq(row1))
+    table.matches(ExecutionContext.from("a" -> node(2), "b" -> node(1))) should equal(Seq(row2))
+    table.matches(ExecutionContext.from("a" -> node(1), "b" -> node(1))) shouldBe empty
+  }
+
+  test("should not add rows with a null join node") {
+    val table = NodeHashJoinTable(IndexedSeq("a", "b"), new BoundedMemoryTracker(Long.MaxValue))
+    val row = ExecutionContext.from("a" -> node(1), "b" -> NO_VALUE)
+
+    table.add(row)
+
+    table.isEmpty shouldBe true
+    table.keyHash(row) shouldBe None
+  }
+
+  test("should fail on join values that are not nodes") {
+    val table = NodeHashJoinTable(IndexedSeq("a"), new BoundedMemoryTracker(Long.MaxValue))
+
+    a[CypherTypeException] should be thrownBy table.add(ExecutionContext.from("a" -> intValue(1)))
+  }
+
+  test("should drain all rows with the hash of their join nodes") {
+    for (nodeVariables <- Seq(IndexedSeq("a"), IndexedSeq("a", "b"))) {
+      val table = NodeHashJoinTable(nodeVariables, new BoundedMemoryTracker(Long.MaxValue))
+      val rows = (0 until 10).map(i => ExecutionContext.from("a" -> node(i % 3), "b" -> node(i % 3)))
+      rows.foreach(table.add)
+
+      val drained = new ArrayBuffer[(Int, ExecutionContext)]
+      table.drain((keyHash, row) => drained += keyHash -> row)
+
+      drained.map(_._2) should contain theSameElementsAs rows
+      drained.foreach { case (keyHash, row) => table.keyHash(row) should equal(Some(keyHash)) }
+      table.isEmpty shouldBe true
+    }
+  }
+
+  test("should give back memory of rows on release") {
+    for (nodeVariables <- Seq(IndexedSeq("a"), IndexedSeq("a", "b"))) {
+      // the tracker reports that it should spill while any memory is allocated
+      val memoryTracker = new BoundedMemoryTracker(Long.MaxValue, spillThreshold = 0)
+      val table = NodeHashJoinTable(nodeVariables, memoryTracker)
+      (0 until 10).foreach(i => table.add(ExecutionContext.from("a" -> node(i), "b" -> node(i))))
+      memoryTracker.shouldSpill shouldBe true
+
+      table.release()
+
+      memoryTracker.shouldSpill shouldBe false
+      table.isEmpty shouldBe true
+    }
+  }
+}
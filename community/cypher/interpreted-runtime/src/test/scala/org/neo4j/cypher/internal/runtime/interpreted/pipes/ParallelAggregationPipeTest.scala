@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.{ConcurrentLinkedQueue, Executor, Executors}
+
+import org.mockito.Mockito.{verify, verifyZeroInteractions, when}
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.CountStar
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregatingCol
+import org.neo4j.cypher.internal.runtime.interpreted.{ParallelExecution, PartitionedScanQueryContext, QueryStateHelper}
+import org.neo4j.cypher.internal.runtime.{ExecutionContext, ExpressionCursors, QueryContext, QueryTransactionalContext}
+import org.neo4j.cypher.internal.v4_0.util.attribution.Id
+import org.neo4j.cypher.internal.v4_0.util.test_helpers.CypherFunSuite
+import org.neo4j.internal.kernel.api._
+import org.neo4j.values.storable.Values.longValue
+import org.scalatest.BeforeAndAfterAll
+
+import scala.collection.JavaConverters._
+
+class ParallelAggregationPipeTest extends CypherFunSuite with BeforeAndAfterAll {
+
+  private val workers = 4
+  private val rowsPerWorker = 10
+  private val workerPool = Executors.newFixedThreadPool(workers)
+
+  override protected def afterAll(): Unit = workerPool.shutdown()
+
+  test("should merge the partial aggregations of all workers") {
+    val cursors = new RecordingCursorFactory
+    val source = new WorkerPipe()
+
+    val result = pipe(source, workerPool, cursors).createResults(state(cursors)).toList
+
+    result.map(_.getByName("c")) should equal(Seq(longValue(workers * rowsPerWorker)))
+    source.calls.get() should equal(workers)
+    source.partitionedCalls.get() should equal(workers)
+  }
+
+  test("should rethrow the failure of a worker and close the cursors of all workers") {
+    val cursors = new RecordingCursorFactory
+    val failure = new IllegalStateException("worker failed")
+    val source = new WorkerPipe(failOnCall = 2, failure)
+
+    val thrown = intercept[IllegalStateException] {
+      pipe(source, workerPool, cursors).createResults(state(cursors))
+    }
+
+    thrown should be theSameInstanceAs failure
+    source.calls.get() should equal(workers)
+    cursors.allocated should have size (workers * 3)
+    cursors.allocated.foreach(cursor => verify(cursor).close())
+  }
+
+  test("should aggregate on a single thread when profiling") {
+    val cursors = new RecordingCursorFactory
+    val executor = mock[Executor]
+    val source = new WorkerPipe()
+
+    val result = pipe(source, executor, cursors).createResults(state(cursors, PassThroughDecorator)).toList
+
+    result.map(_.getByName("c")) should equal(Seq(longValue(rowsPerWorker)))
+    source.partitionedCalls.get() should equal(0)
+    verifyZeroInteractions(executor)
+  }
+
+  test("should aggregate on a single thread when the query does not use the cursors of the workers") {
+    val executor = mock[Executor]
+    val source = new WorkerPipe()
+
+    val result = pipe(source, executor, new RecordingCursorFactory).createResults(state(new RecordingCursorFactory)).toList
+
+    result.map(_.getByName("c")) should equal(Seq(longValue(rowsPerWorker)))
+    source.partitionedCalls.get() should equal(0)
+    verifyZeroInteractions(executor)
+  }
+
+  private def pipe(source: Pipe, executor: Executor, cursors: CursorFactory): ParallelAggregationPipe =
+    ParallelAggregationPipe(source, Array(AggregatingCol("c", CountStar())), ParallelExecution(executor, workers, cursors))()
+
+  private def state(cursors: CursorFactory, decorator: PipeDecorator = NullPipeDecorator): QueryState = {
+    val transactionalContext = mock[QueryTransactionalContext]
+    when(transactionalContext.cursors).thenReturn(cursors)
+    when(transactionalContext.dataRead).thenReturn(mock[Read])
+    val query = mock[QueryContext]
+    when(query.transactionalContext).thenReturn(transactionalContext)
+    QueryStateHelper.emptyWith(query = query, decorator = decorator)
+  }
+
+  /**
+    * Produces a fixed number of rows every time it is run, and fails on the given call.
+    */
+  class WorkerPipe(failOnCall: Int = -1, failure: RuntimeException = null) extends Pipe {
+    val calls = new AtomicInteger()
+    val partitionedCalls = new AtomicInteger()
+
+    override protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
+      if (state.query.isInstanceOf[PartitionedScanQueryContext]) {
+        partitionedCalls.incrementAndGet()
+      }
+      if (calls.getAndIncrement() == failOnCall) {
+        throw failure
+      }
+      Iterator.fill(rowsPerWorker)(ExecutionContext.empty)
+    }
+
+    override val id: Id = Id.INVALID_ID
+  }
+
+  class RecordingCursorFactory extends CursorFactory {
+    private val cursors = new ConcurrentLinkedQueue[Cursor]()
+
+    def allocated: Seq[Cursor] = cursors.asScala.toSeq
+
+    private def record[T <: Cursor](cursor: T): T = {
+      cursors.add(cursor)
+      cursor
+    }
+
+    override def allocateNodeCursor(): NodeCursor = record(mock[NodeCursor])
+
+    override def allocateRelationshipScanCursor(): RelationshipScanCursor = record(mock[RelationshipScanCursor])
+
+    override def allocatePropertyCursor(): PropertyCursor = record(mock[PropertyCursor])
+
+    override def allocateFullAccessNodeCursor(): NodeCursor = ???
+
+    override def allocateFullAccessRelationshipScanCursor(): RelationshipScanCursor = ???
+
+    override def allocateRelationshipTraversalCursor(): RelationshipTraversalCursor = ???
+
+    override def allocateFullAccessPropertyCursor(): PropertyCursor = ???
+
+    override def allocateRelationshipGroupCursor(): RelationshipGroupCursor = ???
+
+    override def allocateNodeValueIndexCursor(): NodeValueIndexCursor = ???
+
+    override def allocateNodeLabelIndexCursor(): NodeLabelIndexCursor = ???
+
+    override def allocateRelationshipIndexCursor(): RelationshipIndexCursor = ???
+  }
+
+  object PassThroughDecorator extends PipeDecorator {
+    override def decorate(pipe: Pipe, state: QueryState): QueryState = state
+
+    override def afterCreateResults(pipe: Pipe, state: QueryState): Unit = {}
+
+    override def decorate(pipe: Pipe, iter: Iterator[ExecutionContext]): Iterator[ExecutionContext] = iter
+
+    override def innerDecorator(pipe: Pipe): PipeDecorator = this
+  }
+}
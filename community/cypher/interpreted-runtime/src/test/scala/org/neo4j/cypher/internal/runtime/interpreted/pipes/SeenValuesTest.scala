@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.SeenValues
+import org.neo4j.cypher.internal.runtime.BoundedMemoryTracker
+import org.neo4j.cypher.internal.v4_0.util.test_helpers.CypherFunSuite
+import org.neo4j.values.storable.Values.{intValue, stringArray, stringValue}
+import org.neo4j.values.virtual.VirtualValues.{EMPTY_MAP, list, node, nodeValue}
+
+class SeenValuesTest extends CypherFunSuite {
+
+  test("should add every value once") {
+    val seen = new SeenValues(new BoundedMemoryTracker(Long.MaxValue))
+
+    seen.add(intValue(1)) shouldBe true
+    seen.add(stringValue("a")) shouldBe true
+    seen.add(list(intValue(1), stringValue("b"))) shouldBe true
+    seen.add(intValue(1)) shouldBe false
+    seen.add(stringValue("a")) shouldBe false
+    seen.add(list(intValue(1), stringValue("b"))) shouldBe false
+
+    seen.contains(intValue(1)) shouldBe true
+    seen.contains(intValue(2)) shouldBe false
+  }
+
+  test("should consider nodes with the same id the same value") {
+    val seen = new SeenValues(new BoundedMemoryTracker(Long.MaxValue))
+
+    seen.add(node(1)) shouldBe true
+    seen.add(nodeValue(1, stringArray("L"), EMPTY_MAP)) shouldBe false
+    seen.contains(nodeValue(1, stringArray(), EMPTY_MAP)) shouldBe true
+    seen.contains(node(2)) shouldBe false
+  }
+
+  test("should give back memory of values on release") {
+    // the tracker reports that it should spill while any memory is allocated
+    val memoryTracker = new BoundedMemoryTracker(Long.MaxValue, spillThreshold = 0)
+    val seen = new SeenValues(memoryTracker)
+    seen.add(node(1))
+    seen.add(stringValue("a"))
+    memoryTracker.shouldSpill shouldBe true
+
+    seen.release()
+
+    memoryTracker.shouldSpill shouldBe false
+    seen.contains(node(1)) shouldBe false
+    seen.contains(stringValue("a")) shouldBe false
+  }
+}
@@ -19,15 +19,22 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import java.nio.file.{Files, Path}
+
 import org.junit.Assert._
+import org.mockito.Mockito.when
+import org.neo4j.cypher.internal.runtime.{BoundedMemoryTracker, ExecutionContext, QueryContext, ResourceManager}
 import org.neo4j.cypher.internal.runtime.interpreted.{Ascending, Descending, InterpretedExecutionContextOrdering, QueryStateHelper}
 import org.neo4j.cypher.internal.runtime.interpreted.ValueComparisonHelper._
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.{SortedRunsIterator, SpillFile}
 import org.neo4j.cypher.internal.v4_0.util.test_helpers.CypherFunSuite
 import org.neo4j.values.storable.Values
+import org.neo4j.kernel.impl.query.QuerySubscriber
 import org.neo4j.values.storable.Values.intValue
 import org.scalatest.mock.MockitoSugar
 
 import scala.collection.mutable.{Map => MutableMap}
+import scala.util.Random
 
 class SortPipeTest extends CypherFunSuite with MockitoSugar {
 
@@ -88,4 +95,50 @@ class SortPipeTest extends CypherFunSuite with MockitoSugar {
       Map("y" -> intValue(2)),
       Map("y" -> Values.NO_VALUE)))
   }
+
+  test("should merge runs spilled to disk when over the spill threshold") {
+    val directory = Files.createTempDirectory("sort-pipe-test")
+    val resources = new ResourceManager
+    val state = spillingState(resources, directory)
+    val values = new Random(42).shuffle((0 until 5000).toList)
+    val source = new FakePipe(values.map(x => Map[String, Any]("x" -> x, "y" -> s"value $x")))
+
+    val sortPipe = SortPipe(source, InterpretedExecutionContextOrdering.asComparator(List(Ascending("x"))))()
+
+    sortPipe.createResults(state).toList should beEquivalentTo(
+      (0 until 5000).map(x => Map[String, Any]("x" -> x, "y" -> s"value $x")).toList)
+    resources.allResources.toList shouldBe empty
+    directory.toFile.list() shouldBe empty
+    Files.delete(directory)
+  }
+
+  test("should merge runs in several passes when there are more of them than the fan-in") {
+    val directory = Files.createTempDirectory("sort-pipe-test")
+    val resources = new ResourceManager
+    val state = spillingState(resources, directory)
+    val comparator = InterpretedExecutionContextOrdering.asComparator(List(Ascending("x")))
+    val runs = (0 until 5).map { run =>
+      val spillFile = SpillFile(state)
+      (0 until 10).foreach(i => spillFile.write(ExecutionContext.from("x" -> intValue(i * 5 + run), "run" -> intValue(run))))
+      spillFile.finishWriting()
+      spillFile
+    }
+
+    val reduced = SortedRunsIterator.reduceRuns(runs, 2, comparator, state, CommunityExecutionContextFactory())
+
+    reduced should have size 1
+    reduced.head.size shouldBe 50
+    reduced.head.rows(CommunityExecutionContextFactory()).map(_.getByName("x")).toList should equal(
+      (0 until 50).map(x => intValue(x)).toList)
+    resources.allResources.toList shouldBe empty
+    directory.toFile.list() shouldBe empty
+    Files.delete(directory)
+  }
+
+  private def spillingState(resources: ResourceManager, directory: Path): QueryState = {
+    val query = mock[QueryContext]
+    when(query.resources).thenReturn(resources)
+    new QueryState(query, null, Array.empty, null, Array.empty, Array.empty, QuerySubscriber.DO_NOTHING_SUBSCRIBER,
+                   new BoundedMemoryTracker(Long.MaxValue, spillThreshold = 0, spillDirectory = directory))
+  }
 }
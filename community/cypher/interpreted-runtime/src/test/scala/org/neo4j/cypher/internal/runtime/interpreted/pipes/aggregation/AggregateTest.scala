@@ -34,4 +34,16 @@ trait AggregateTest {
     values.foreach(value => func(ExecutionContext.from("x" -> value), state))
     func.result(state)
   }
+
+  def mergedAggregateOn(partitions: Seq[AnyValue]*): Any = {
+    val state = QueryStateHelper.empty
+
+    val merged = createAggregator(Variable("x")).asInstanceOf[MergeableAggregationFunction]
+    partitions.foreach { values =>
+      val func = createAggregator(Variable("x"))
+      values.foreach(value => func(ExecutionContext.from("x" -> value), state))
+      merged.merge(func)
+    }
+    merged.result(state)
+  }
 }
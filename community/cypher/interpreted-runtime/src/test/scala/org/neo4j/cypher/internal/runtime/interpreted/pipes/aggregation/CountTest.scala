@@ -33,4 +33,10 @@ class CountTest extends CypherFunSuite with AggregateTest {
     result should equal(intValue(2))
     result shouldBe a [LongValue]
   }
+
+  test("merges the counts of partial aggregations") {
+    val result = mergedAggregateOn(Seq(intValue(1), NO_VALUE), Seq.empty, Seq(stringValue("foo"), intValue(3)))
+
+    result should equal(intValue(3))
+  }
 }
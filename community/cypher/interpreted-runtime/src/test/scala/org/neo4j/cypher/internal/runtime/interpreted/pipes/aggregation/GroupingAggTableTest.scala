@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
+
+import org.mockito.Mockito.{verify, when}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{CountStar, Variable}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregatingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.GroupingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{AggregationPipe, CommunityExecutionContextFactory, QueryState}
+import org.neo4j.cypher.internal.runtime.{BoundedMemoryTracker, ExecutionContext, QueryContext, QueryMemoryTracker}
+import org.neo4j.cypher.internal.v4_0.util.test_helpers.CypherFunSuite
+import org.neo4j.kernel.impl.query.QuerySubscriber
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values.{intValue, longValue, stringArray, stringValue}
+import org.neo4j.values.virtual.VirtualValues.{EMPTY_MAP, node, nodeValue}
+
+class GroupingAggTableTest extends CypherFunSuite {
+
+  private val query = mock[QueryContext]
+  private val groupingColumns = Array(GroupingCol("x", Variable("x")))
+
+  test("should return groups in the order they were first seen") {
+    val table = newTable(new BoundedMemoryTracker(Long.MaxValue))
+    val node5 = nodeValue(5, stringArray(), EMPTY_MAP)
+    val node6 = nodeValue(6, stringArray(), EMPTY_MAP)
+    when(query.nodeById(5)).thenReturn(node5)
+    when(query.nodeById(6)).thenReturn(node6)
+
+    Seq(intValue(1), stringValue("a"), intValue(1), node(5), stringValue("a"), node(5), node(6))
+      .foreach(x => table.processRow(ExecutionContext.from("x" -> x)))
+
+    results(table) should equal(Seq(
+      intValue(1) -> longValue(2),
+      stringValue("a") -> longValue(2),
+      node5 -> longValue(2),
+      node6 -> longValue(1)))
+  }
+
+  test("should look up grouping nodes by id when returning groups") {
+    val table = newTable(new BoundedMemoryTracker(Long.MaxValue))
+    val node1 = nodeValue(1, stringArray("L"), EMPTY_MAP)
+    when(query.nodeById(1)).thenReturn(node1)
+
+    table.processRow(ExecutionContext.from("x" -> node(1)))
+    table.processRow(ExecutionContext.from("x" -> node1))
+
+    results(table) should equal(Seq(node1 -> longValue(2)))
+    verify(query).nodeById(1)
+  }
+
+  test("should give back memory of groups once they have all been returned") {
+    // the tracker reports that it should spill while any memory is allocated
+    val memoryTracker = new BoundedMemoryTracker(Long.MaxValue, spillThreshold = 0)
+    val table = newTable(memoryTracker)
+    when(query.nodeById(1)).thenReturn(nodeValue(1, stringArray(), EMPTY_MAP))
+    table.processRow(ExecutionContext.from("x" -> node(1)))
+    table.processRow(ExecutionContext.from("x" -> stringValue("a")))
+
+    val result = table.result()
+    result.next()
+    memoryTracker.shouldSpill shouldBe true
+    result.next()
+    result.hasNext shouldBe false
+
+    memoryTracker.shouldSpill shouldBe false
+  }
+
+  private def newTable(memoryTracker: QueryMemoryTracker): GroupingAggTable = {
+    val state = new QueryState(query, null, Array.empty, null, Array.empty, Array.empty, QuerySubscriber.DO_NOTHING_SUBSCRIBER, memoryTracker)
+    val table = new GroupingAggTable(groupingColumns, AggregationPipe.computeGroupingFunction(groupingColumns),
+                                     Array(AggregatingCol("c", CountStar())), state, CommunityExecutionContextFactory(), spillable = false)
+    table.clear()
+    table
+  }
+
+  private def results(table: GroupingAggTable): Seq[(AnyValue, AnyValue)] =
+    table.result().map(row => row.getByName("x") -> row.getByName("c")).toList
+}
@@ -72,4 +72,10 @@ class MaxFunctionTest extends CypherFunSuite with AggregateTest {
 
     result should equal(stringValue("abc1"))
   }
+
+  test("merges the maxima of partial aggregations") {
+    val result = mergedAggregateOn(Seq(intValue(1), Values.NO_VALUE), Seq.empty, Seq(doubleValue(2.0d), intValue(0)))
+
+    result should equal(doubleValue(2.0))
+  }
 }
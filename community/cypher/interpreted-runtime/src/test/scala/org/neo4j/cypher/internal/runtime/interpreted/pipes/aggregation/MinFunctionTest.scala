@@ -74,5 +74,11 @@ class MinFunctionTest extends CypherFunSuite with AggregateTest {
     result should equal(stringValue("a"))
   }
 
+  test("merges the minima of partial aggregations") {
+    val result = mergedAggregateOn(Seq(intValue(1), Values.NO_VALUE), Seq.empty, Seq(doubleValue(2.0d), intValue(0)))
+
+    result should equal(intValue(0))
+  }
+
   def createAggregator(inner: Expression) = new MinFunction(inner)
 }
@@ -118,4 +118,23 @@ class SumFunctionTest extends CypherFunSuite with AggregateTest {
     result should equal(longValue(expected))
     result shouldBe a [LongValue]
   }
+
+  test("merges the sums of partial aggregations") {
+    val result = mergedAggregateOn(Seq(intValue(1), NO_VALUE), Seq.empty, Seq(doubleValue(1.5d)))
+
+    result should equal(doubleValue(2.5))
+    result shouldBe a [DoubleValue]
+  }
+
+  test("merges the durations of partial aggregations") {
+    val result = mergedAggregateOn(Seq(DurationValue.duration(0, 0, 0, 1)), Seq.empty, Seq(DurationValue.duration(0, 0, 1, 1)))
+
+    result should equal(DurationValue.duration(0, 0, 1, 2))
+  }
+
+  test("cantMixDurationAndNumberOfPartialAggregations") {
+    a[CypherTypeException] shouldBe thrownBy {
+      mergedAggregateOn(Seq(DurationValue.duration(0, 0, 0, 1)), Seq(longValue(1)))
+    }
+  }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.io.{ByteArrayInputStream, ByteArrayOutputStream, DataInputStream, DataOutputStream}
+import java.time._
+
+import org.mockito.Mockito.when
+import org.neo4j.cypher.internal.runtime.{NodeOperations, QueryContext}
+import org.neo4j.cypher.internal.v4_0.util.test_helpers.CypherFunSuite
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{CoordinateReferenceSystem, DurationValue, Values}
+import org.neo4j.values.virtual.{NodeValue, VirtualValues}
+
+class ValueSpillFormatTest extends CypherFunSuite {
+
+  private val query = mock[QueryContext]
+
+  test("should round trip storable values") {
+    Seq[AnyValue](
+      Values.NO_VALUE,
+      Values.TRUE,
+      Values.byteValue(1),
+      Values.shortValue(2),
+      Values.intValue(3),
+      Values.longValue(4),
+      Values.floatValue(5.5f),
+      Values.doubleValue(6.5),
+      Values.stringValue("seven"),
+      Values.charValue('8'),
+      Values.byteArray(Array[Byte](1, 2)),
+      Values.longArray(Array(3L, 4L)),
+      Values.stringArray("a", "b"),
+      Values.pointValue(CoordinateReferenceSystem.WGS84, 12.0, 56.0),
+      DurationValue.duration(1, 2, 3, 4),
+      Values.temporalValue(LocalDate.of(2019, 10, 1)),
+      Values.temporalValue(LocalTime.of(12, 30, 15, 1000)),
+      Values.temporalValue(OffsetTime.of(12, 30, 15, 1000, ZoneOffset.ofHours(2))),
+      Values.temporalValue(LocalDateTime.of(2019, 10, 1, 12, 30)),
+      Values.temporalValue(ZonedDateTime.of(2019, 10, 1, 12, 30, 0, 0, ZoneId.of("Europe/Stockholm")))
+    ).foreach(value => roundTrip(value) should equal(value))
+  }
+
+  test("should round trip lists and maps") {
+    val value = VirtualValues.list(
+      Values.longValue(1),
+      VirtualValues.map(Array("a", "b"), Array[AnyValue](Values.stringValue("x"), VirtualValues.list())))
+
+    roundTrip(value) should equal(value)
+  }
+
+  test("should look up nodes again when read back") {
+    val node = mock[NodeValue]
+    val nodeOps = mock[NodeOperations]
+    when(nodeOps.getById(17)).thenReturn(node)
+    when(query.nodeOps).thenReturn(nodeOps)
+
+    roundTrip(VirtualValues.node(17)) should be theSameInstanceAs node
+  }
+
+  private def roundTrip(value: AnyValue): AnyValue = {
+    val bytes = new ByteArrayOutputStream()
+    val out = new DataOutputStream(bytes)
+    ValueSpillFormat.write(value, out)
+    out.flush()
+    ValueSpillFormat.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray)), query)
+  }
+}
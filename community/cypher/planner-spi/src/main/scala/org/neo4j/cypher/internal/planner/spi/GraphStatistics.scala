@@ -19,6 +19,7 @@
  */
 package org.neo4j.cypher.internal.planner.spi
 
+import org.neo4j.cypher.internal.logical.plans.Bound
 import org.neo4j.cypher.internal.v4_0.util.{Cardinality, LabelId, RelTypeId, Selectivity}
 
 trait GraphStatistics {
@@ -61,6 +62,28 @@ trait GraphStatistics {
     * indexPropertyExistsSelectivity(:X, prop) = s => |MATCH (a:X)| * s = |MATCH (a:X) WHERE has(x.prop)|
     */
   def indexPropertyExistsSelectivity(index: IndexDescriptor): Option[Selectivity]
+
+  /**
+    * Probability of any node in the index to have a given property with the given value, estimated from the value distribution
+    * collected when sampling the index. Values are the literals the property is compared with, i.e. Strings, Longs or Doubles.
+    *
+    * equalitySelectivity(:X, prop, v) = s => |MATCH (a:X)  WHERE has(x.prop)| * s = |MATCH (a:X) WHERE x.prop = v|
+    *
+    * @return None if the value distribution of the index is unknown
+    */
+  def equalitySelectivity(index: IndexDescriptor, value: Any): Option[Selectivity] = None
+
+  /**
+    * Probability of any node in the index to have a given property with a value within the given bounds, at least one of
+    * which must be defined. See [[equalitySelectivity]].
+    */
+  def rangeSelectivity(index: IndexDescriptor, lower: Option[Bound[Any]], upper: Option[Bound[Any]]): Option[Selectivity] = None
+
+  /**
+    * Probability of any node in the index to have a given property with a string value starting with the given prefix.
+    * See [[equalitySelectivity]].
+    */
+  def prefixSelectivity(index: IndexDescriptor, prefix: String): Option[Selectivity] = None
 }
 
 class DelegatingGraphStatistics(delegate: GraphStatistics) extends GraphStatistics {
@@ -76,5 +99,14 @@ class DelegatingGraphStatistics(delegate: GraphStatistics) extends GraphStatisti
   override def indexPropertyExistsSelectivity(index: IndexDescriptor): Option[Selectivity] =
     delegate.indexPropertyExistsSelectivity(index)
 
+  override def equalitySelectivity(index: IndexDescriptor, value: Any): Option[Selectivity] =
+    delegate.equalitySelectivity(index, value)
+
+  override def rangeSelectivity(index: IndexDescriptor, lower: Option[Bound[Any]], upper: Option[Bound[Any]]): Option[Selectivity] =
+    delegate.rangeSelectivity(index, lower, upper)
+
+  override def prefixSelectivity(index: IndexDescriptor, prefix: String): Option[Selectivity] =
+    delegate.prefixSelectivity(index, prefix)
+
   override def nodesAllCardinality(): Cardinality = delegate.nodesAllCardinality()
 }
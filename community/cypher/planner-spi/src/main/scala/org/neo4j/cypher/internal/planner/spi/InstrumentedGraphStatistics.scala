@@ -22,6 +22,7 @@ package org.neo4j.cypher.internal.planner.spi
 import java.lang.Math.abs
 import java.lang.Math.max
 
+import org.neo4j.cypher.internal.logical.plans.Bound
 import org.neo4j.cypher.internal.v4_0.util.Cardinality
 import org.neo4j.cypher.internal.v4_0.util.LabelId
 import org.neo4j.cypher.internal.v4_0.util.RelTypeId
@@ -35,6 +36,9 @@ case object NodesAllCardinality extends StatisticsKey
 case class CardinalityByLabelsAndRelationshipType(lhs: Option[LabelId], relType: Option[RelTypeId], rhs: Option[LabelId]) extends StatisticsKey
 case class IndexSelectivity(index: IndexDescriptor) extends StatisticsKey
 case class IndexPropertyExistsSelectivity(index: IndexDescriptor) extends StatisticsKey
+case class IndexEqualitySelectivity(index: IndexDescriptor, value: Any) extends StatisticsKey
+case class IndexRangeSelectivity(index: IndexDescriptor, lower: Option[Bound[Any]], upper: Option[Bound[Any]]) extends StatisticsKey
+case class IndexPrefixSelectivity(index: IndexDescriptor, prefix: String) extends StatisticsKey
 
 class MutableGraphStatisticsSnapshot(val map: mutable.Map[StatisticsKey, Double] = mutable.Map.empty) {
   def freeze: GraphStatisticsSnapshot = GraphStatisticsSnapshot(map.toMap)
@@ -55,6 +59,12 @@ case class GraphStatisticsSnapshot(statsValues: Map[StatisticsKey, Double] = Map
         instrumented.uniqueValueSelectivity(index)
       case IndexPropertyExistsSelectivity(index) =>
         instrumented.indexPropertyExistsSelectivity(index)
+      case IndexEqualitySelectivity(index, value) =>
+        instrumented.equalitySelectivity(index, value)
+      case IndexRangeSelectivity(index, lower, upper) =>
+        instrumented.rangeSelectivity(index, lower, upper)
+      case IndexPrefixSelectivity(index, prefix) =>
+        instrumented.prefixSelectivity(index, prefix)
     }
     snapshot.freeze
   }
@@ -99,5 +109,23 @@ case class InstrumentedGraphStatistics(inner: GraphStatistics, snapshot: Mutable
     selectivity
   }
 
+  override def equalitySelectivity(index: IndexDescriptor, value: Any): Option[Selectivity] = {
+    val selectivity = inner.equalitySelectivity(index, value)
+    snapshot.map.getOrElseUpdate(IndexEqualitySelectivity(index, value), selectivity.fold(0.0)(_.factor))
+    selectivity
+  }
+
+  override def rangeSelectivity(index: IndexDescriptor, lower: Option[Bound[Any]], upper: Option[Bound[Any]]): Option[Selectivity] = {
+    val selectivity = inner.rangeSelectivity(index, lower, upper)
+    snapshot.map.getOrElseUpdate(IndexRangeSelectivity(index, lower, upper), selectivity.fold(0.0)(_.factor))
+    selectivity
+  }
+
+  override def prefixSelectivity(index: IndexDescriptor, prefix: String): Option[Selectivity] = {
+    val selectivity = inner.prefixSelectivity(index, prefix)
+    snapshot.map.getOrElseUpdate(IndexPrefixSelectivity(index, prefix), selectivity.fold(0.0)(_.factor))
+    selectivity
+  }
+
   override def nodesAllCardinality(): Cardinality = snapshot.map.getOrElseUpdate(NodesAllCardinality, inner.nodesAllCardinality().amount)
 }
@@ -82,6 +82,7 @@ class InterpretedProfileRowsTest extends ProfileRowsTestBase(COMMUNITY.EDITION,
 class InterpretedMemoryManagementTest extends MemoryManagementTestBase(COMMUNITY.EDITION, InterpretedRuntime)
                                       with FullSupportMemoryManagementTestBase[CommunityRuntimeContext]
 class InterpretedMemoryManagementDisabledTest extends MemoryManagementDisabledTestBase(COMMUNITY.EDITION, InterpretedRuntime)
+class InterpretedMemoryManagementSpillTest extends MemoryManagementSpillTestBase(COMMUNITY.EDITION, InterpretedRuntime)
 class InterpretedSubscriberErrorTest extends SubscriberErrorTestBase(COMMUNITY.EDITION, InterpretedRuntime)
 class InterpretedExpressionTest extends ExpressionTestBase(COMMUNITY.EDITION, InterpretedRuntime)
                                 with ExpressionWithTxStateChangesTests[CommunityRuntimeContext]
@@ -480,6 +480,83 @@ abstract class MemoryManagementTestBase[CONTEXT <: RuntimeContext](
   }
 }
 
+/**
+  * Tests for runtimes that spill the rows of memory hungry operators to disk once the query is over its spill threshold.
+  * The input of every query is several times larger than the max memory, but every spill partition fits in memory on
+  * its own, as long as the memory of each partition is given back before the next one is processed.
+  */
+abstract class MemoryManagementSpillTestBase[CONTEXT <: RuntimeContext](
+                                                                         edition: Edition[CONTEXT],
+                                                                         runtime: CypherRuntime[CONTEXT]
+                                                                       )
+  extends RuntimeTestSuite[CONTEXT](edition.copyWith(
+    GraphDatabaseSettings.track_query_allocation -> java.lang.Boolean.TRUE,
+    GraphDatabaseSettings.query_max_memory -> Long.box(MemoryManagementTestBase.maxMemory),
+    GraphDatabaseSettings.query_spill_threshold -> Long.box(MemoryManagementTestBase.maxMemory / 4)), runtime) {
+
+  test("should complete grouping aggregation query with input larger than max memory") {
+    // given
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("x", "c")
+      .aggregation(Seq("x AS x"), Seq("count(*) AS c"))
+      .input(variables = Seq("x"))
+      .build()
+    val n = rowsLargerThanMaxMemory(logicalQuery)
+
+    // when
+    val runtimeResult = execute(logicalQuery, runtime, inputValues((0 until n).map(i => Array[Any](i)): _*))
+
+    // then
+    runtimeResult should beColumns("x", "c").withRows((0 until n).map(i => Array[Any](i, 1)))
+  }
+
+  test("should complete distinct query with input larger than max memory") {
+    // given
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("x")
+      .distinct("x AS x")
+      .input(variables = Seq("x"))
+      .build()
+    val n = rowsLargerThanMaxMemory(logicalQuery)
+
+    // when
+    val runtimeResult = execute(logicalQuery, runtime, inputValues((0 until n).flatMap(i => Seq(Array[Any](i), Array[Any](i))): _*))
+
+    // then
+    runtimeResult should beColumns("x").withRows(singleColumn(0 until n))
+  }
+
+  test("should complete node hash join query with input larger than max memory") {
+    // given
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("x")
+      .nodeHashJoin("x")
+      .|.allNodeScan("x")
+      .input(nodes = Seq("x"))
+      .build()
+    val sample = nodeGraph(1)
+    val nodes = sample ++ nodeGraph(rowsLargerThanMaxMemory(logicalQuery, Some(sample.head)) - 1)
+
+    // when
+    val runtimeResult = execute(logicalQuery, runtime, inputValues(nodes.map(n => Array[Any](n)): _*))
+
+    // then
+    runtimeResult should beColumns("x").withRows(singleColumn(nodes))
+  }
+
+  /**
+    * Returns the number of rows, with a single column of distinct values, that take up about three times the max memory
+    * in the given query.
+    */
+  private def rowsLargerThanMaxMemory(logicalQuery: LogicalQuery, sampleValue: Option[Any] = None): Int = {
+    val nRows = 4
+    val result = execute(logicalQuery, runtime, inputColumns(1, nRows, i => sampleValue.getOrElse(i)))
+    consume(result)
+    val rowSize = result.runtimeResult.totalAllocatedMemory().get() / nRows
+    (3 * MemoryManagementTestBase.maxMemory / rowSize).toInt
+  }
+}
+
 /**
   * Tests for runtime with full language support
   */
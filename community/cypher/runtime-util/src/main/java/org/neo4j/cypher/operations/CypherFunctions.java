@@ -31,6 +31,7 @@ import org.neo4j.exceptions.ParameterWrongTypeException;
 import org.neo4j.internal.kernel.api.NodeCursor;
 import org.neo4j.internal.kernel.api.PropertyCursor;
 import org.neo4j.internal.kernel.api.RelationshipScanCursor;
+import org.neo4j.internal.kernel.api.TokenRead;
 import org.neo4j.values.AnyValue;
 import org.neo4j.values.SequenceValue;
 import org.neo4j.values.storable.ArrayValue;
@@ -538,6 +539,42 @@ public final class CypherFunctions
         }
     }
 
+    /**
+     * Like {@link #propertyGet(String, AnyValue, DbAccess, NodeCursor, RelationshipScanCursor, PropertyCursor)}, but reads node and
+     * relationship properties with a property key token resolved up front, and only looks the key up by name if the token is
+     * {@link TokenRead#NO_TOKEN}.
+     */
+    public static AnyValue propertyGet( String key,
+                                        int keyToken,
+                                        AnyValue container,
+                                        DbAccess dbAccess,
+                                        NodeCursor nodeCursor,
+                                        RelationshipScanCursor relationshipScanCursor,
+                                        PropertyCursor propertyCursor )
+    {
+        assert container != NO_VALUE : "NO_VALUE checks need to happen outside this call";
+        if ( container instanceof VirtualNodeValue )
+        {
+            return dbAccess.nodeProperty( ((VirtualNodeValue) container).id(),
+                                          keyToken == TokenRead.NO_TOKEN ? dbAccess.propertyKey( key ) : keyToken,
+                                          nodeCursor,
+                                          propertyCursor,
+                                          true );
+        }
+        else if ( container instanceof VirtualRelationshipValue )
+        {
+            return dbAccess.relationshipProperty( ((VirtualRelationshipValue) container).id(),
+                                                  keyToken == TokenRead.NO_TOKEN ? dbAccess.propertyKey( key ) : keyToken,
+                                                  relationshipScanCursor,
+                                                  propertyCursor,
+                                                  true );
+        }
+        else
+        {
+            return propertyGet( key, container, dbAccess, nodeCursor, relationshipScanCursor, propertyCursor );
+        }
+    }
+
     public static AnyValue containerIndex( AnyValue container,
                                            AnyValue index,
                                            DbAccess dbAccess,
@@ -126,7 +126,8 @@ trait ExecutionContext extends WithHeapUsageEstimation {
 
 }
 
-class MapExecutionContext(private val m: MutableMap[String, AnyValue], private var cachedProperties: MutableMap[ASTCachedProperty, Value] = null)
+class MapExecutionContext(private[runtime] val m: MutableMap[String, AnyValue],
+                          private[runtime] var cachedProperties: MutableMap[ASTCachedProperty, Value] = null)
   extends ExecutionContext {
 
   override def copyTo(target: ExecutionContext, sourceLongOffset: Int = 0, sourceRefOffset: Int = 0, targetLongOffset: Int = 0, targetRefOffset: Int = 0): Unit = fail()
@@ -162,6 +163,16 @@ class MapExecutionContext(private val m: MutableMap[String, AnyValue], private v
         //otherMapCtx.cachedProperties is null so do nothing
       }
       setLinenumber(otherMapCtx.getLinenumber)
+    case otherSlotCtx: SlotMappedExecutionContext =>
+      otherSlotCtx.foreachEntry((k, v) => m.put(k, v))
+      if (otherSlotCtx.cachedProperties != null) {
+        if (cachedProperties == null) {
+          cachedProperties = otherSlotCtx.cachedProperties.clone()
+        } else {
+          cachedProperties ++= otherSlotCtx.cachedProperties
+        }
+      }
+      setLinenumber(otherSlotCtx.getLinenumber)
     case _ => fail()
   }
 
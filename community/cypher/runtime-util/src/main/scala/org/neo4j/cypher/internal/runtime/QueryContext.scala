@@ -124,6 +124,11 @@ trait QueryContext extends TokenContext with DbAccess {
 
   def getNodesByLabelPrimitive(id: Int): LongIterator
 
+  /**
+   * Nodes having all of the given labels, found by intersecting the labels in the label index.
+   */
+  def getNodesByAllLabels(ids: Array[Int]): Iterator[NodeValue]
+
   /* return true if the constraint was created, false if preexisting, throws if failed */
   def createNodeKeyConstraint(labelId: Int, propertyKeyIds: Seq[Int], name: Option[String]): Unit
 
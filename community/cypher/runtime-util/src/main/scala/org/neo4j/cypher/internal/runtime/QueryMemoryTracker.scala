@@ -20,6 +20,7 @@
 package org.neo4j.cypher.internal.runtime
 
 import java.lang
+import java.nio.file.Path
 import java.util.Optional
 
 import org.neo4j.exceptions.TransactionOutOfMemoryException
@@ -80,6 +81,17 @@ trait QueryMemoryTracker {
     */
   def memoryTrackingIterator[T<: ExecutionContext](input: Iterator[T]): Iterator[T]
 
+  /**
+    * Returns true if the query has allocated more memory than the spill threshold, in which case operators that
+    * buffer rows should move them to disk rather than keep them on the heap.
+    */
+  def shouldSpill: Boolean
+
+  /**
+    * The directory that operators write their spilled rows to, or null if this tracker never asks them to spill.
+    */
+  def spillDirectory: Path
+
   /**
     * Get the total allocated memory of this query, in bytes.
     *
@@ -93,7 +105,8 @@ object QueryMemoryTracker {
     memoryTracking match {
       case NO_TRACKING => NoMemoryTracker
       case MEMORY_TRACKING => new BoundedMemoryTracker(Long.MaxValue)
-      case MEMORY_BOUND(maxAllocatedBytes) => new BoundedMemoryTracker(maxAllocatedBytes)
+      case MEMORY_BOUND(maxAllocatedBytes, spillThreshold, spillDirectory) =>
+        new BoundedMemoryTracker(maxAllocatedBytes, spillThreshold, spillDirectory)
     }
   }
 }
@@ -103,6 +116,10 @@ case object NoMemoryTracker extends QueryMemoryTracker {
 
   override def memoryTrackingIterator[T](input: Iterator[T]): Iterator[T] = input
 
+  override def shouldSpill: Boolean = false
+
+  override def spillDirectory: Path = null
+
   override def allocated(bytes: Long): Unit = {}
 
   override def allocated(value: AnyValue): Unit = {}
@@ -118,7 +135,9 @@ case object NoMemoryTracker extends QueryMemoryTracker {
   override def totalAllocatedMemory: Optional[lang.Long] = Optional.empty()
 }
 
-class BoundedMemoryTracker(val threshold: Long) extends QueryMemoryTracker {
+class BoundedMemoryTracker(val threshold: Long,
+                           val spillThreshold: Long = Long.MaxValue,
+                           override val spillDirectory: Path = null) extends QueryMemoryTracker {
   private var allocatedBytes = 0L
   private var highWaterMark = 0L
 
@@ -148,6 +167,8 @@ class BoundedMemoryTracker(val threshold: Long) extends QueryMemoryTracker {
 
   override def totalAllocatedMemory: Optional[lang.Long] = Optional.of(highWaterMark)
 
+  override def shouldSpill: Boolean = allocatedBytes > spillThreshold
+
   override def memoryTrackingIterator[T <: ExecutionContext](input: Iterator[T]): Iterator[T] = new MemoryTrackingIterator[T](input)
 
   private class MemoryTrackingIterator[T <: ExecutionContext](input: Iterator[T]) extends Iterator[T] {
@@ -168,7 +189,7 @@ class BoundedMemoryTracker(val threshold: Long) extends QueryMemoryTracker {
 sealed trait MemoryTracking
 case object NO_TRACKING extends MemoryTracking
 case object MEMORY_TRACKING extends MemoryTracking
-case class MEMORY_BOUND(maxAllocatedBytes: Long) extends MemoryTracking
+case class MEMORY_BOUND(maxAllocatedBytes: Long, spillThreshold: Long = Long.MaxValue, spillDirectory: Path = null) extends MemoryTracking
 
 /**
   * Controller of memory tracking. Needed to make memory tracking dynamically configurable.
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime
+
+import org.neo4j.cypher.internal.v4_0.expressions.ASTCachedProperty
+import org.neo4j.exceptions.InternalException
+import org.neo4j.graphdb.NotFoundException
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{Value, Values}
+import org.neo4j.values.virtual._
+
+import scala.collection.mutable.{Map => MutableMap}
+
+object SlotMappedExecutionContext {
+  def apply(slots: VariableSlots): SlotMappedExecutionContext = new SlotMappedExecutionContext(slots, new Array[AnyValue](slots.size))
+
+  /**
+    * Creates a row with the given slots that holds the same entries as the given row.
+    */
+  def copyOf(slots: VariableSlots, other: ExecutionContext): SlotMappedExecutionContext = {
+    val row = apply(slots)
+    row.merge(other)
+    row
+  }
+}
+
+/**
+  * Execution context that stores the variables of a row in an array, at the offsets given by [[VariableSlots]].
+  * Copying a row is an array copy instead of a hash map clone, and variables can be read by offset. Variables
+  * that have no slot are kept in a map on the side.
+  *
+  * A slot that holds `null` is unset, the variable is not part of the row.
+  */
+class SlotMappedExecutionContext(val slots: VariableSlots,
+                                 private val refs: Array[AnyValue],
+                                 private var overflow: MutableMap[String, AnyValue] = null,
+                                 private[runtime] var cachedProperties: MutableMap[ASTCachedProperty, Value] = null)
+  extends ExecutionContext {
+
+  override def copyTo(target: ExecutionContext, sourceLongOffset: Int = 0, sourceRefOffset: Int = 0, targetLongOffset: Int = 0, targetRefOffset: Int = 0): Unit = fail()
+
+  override def copyFrom(input: ExecutionContext, nLongs: Int, nRefs: Int): Unit = fail()
+
+  //used for testing
+  def toMap: Map[String, AnyValue] = {
+    val builder = Map.newBuilder[String, AnyValue]
+    foreachEntry((k, v) => builder += k -> v)
+    builder.result()
+  }
+
+  override def getByName(name: String): AnyValue = {
+    val value = valueOrNull(name)
+    if (value == null) throw new NotFoundException(s"Unknown variable `$name`.")
+    value
+  }
+
+  override def containsName(name: String): Boolean = valueOrNull(name) != null
+
+  override def numberOfColumns: Int = {
+    var count = if (overflow == null) 0 else overflow.size
+    var i = 0
+    while (i < refs.length) {
+      if (refs(i) != null) count += 1
+      i += 1
+    }
+    count
+  }
+
+  override def setLongAt(offset: Int, value: Long): Unit = fail()
+  override def getLongAt(offset: Int): Long = fail()
+
+  override def setRefAt(offset: Int, value: AnyValue): Unit = refs(offset) = value
+
+  /**
+    * Returns the value at the given offset, or `null` if the slot is unset.
+    */
+  override def getRefAt(offset: Int): AnyValue = refs(offset)
+
+  private def fail(): Nothing = throw new InternalException("Tried using a slot mapped context as a slotted context")
+
+  override def mergeWith(other: ExecutionContext, entityById: EntityById): Unit = merge(other)
+
+  private[runtime] def merge(other: ExecutionContext): Unit = other match {
+    case otherSlotCtx: SlotMappedExecutionContext =>
+      if (otherSlotCtx.slots eq slots) {
+        var i = 0
+        while (i < refs.length) {
+          val value = otherSlotCtx.refs(i)
+          if (value != null) refs(i) = value
+          i += 1
+        }
+        if (otherSlotCtx.overflow != null) otherSlotCtx.overflow.foreach(kv => put(kv._1, kv._2))
+      } else {
+        otherSlotCtx.foreachEntry(put)
+      }
+      mergeCachedProperties(otherSlotCtx.cachedProperties)
+      setLinenumber(otherSlotCtx.getLinenumber)
+    case otherMapCtx: MapExecutionContext =>
+      otherMapCtx.m.foreach(kv => put(kv._1, kv._2))
+      mergeCachedProperties(otherMapCtx.cachedProperties)
+      setLinenumber(otherMapCtx.getLinenumber)
+    case _ => fail()
+  }
+
+  private def mergeCachedProperties(other: MutableMap[ASTCachedProperty, Value]): Unit =
+    if (other != null) {
+      if (cachedProperties == null) {
+        cachedProperties = other.clone()
+      } else {
+        cachedProperties ++= other
+      }
+    }
+
+  override def set(newEntries: Seq[(String, AnyValue)]): Unit =
+    newEntries.foreach(kv => put(kv._1, kv._2))
+
+  override def set(key: String, value: AnyValue): Unit =
+    put(key, value)
+
+  override def set(key1: String, value1: AnyValue, key2: String, value2: AnyValue): Unit = {
+    put(key1, value1)
+    put(key2, value2)
+  }
+
+  override def set(key1: String, value1: AnyValue, key2: String, value2: AnyValue, key3: String, value3: AnyValue): Unit = {
+    put(key1, value1)
+    put(key2, value2)
+    put(key3, value3)
+  }
+
+  override def copyWith(key: String, value: AnyValue): ExecutionContext = {
+    val copy = createClone()
+    copy.put(key, value)
+    copy
+  }
+
+  override def copyWith(key1: String, value1: AnyValue, key2: String, value2: AnyValue): ExecutionContext = {
+    val copy = createClone()
+    copy.put(key1, value1)
+    copy.put(key2, value2)
+    copy
+  }
+
+  override def copyWith(key1: String, value1: AnyValue,
+                        key2: String, value2: AnyValue,
+                        key3: String, value3: AnyValue): ExecutionContext = {
+    val copy = createClone()
+    copy.put(key1, value1)
+    copy.put(key2, value2)
+    copy.put(key3, value3)
+    copy
+  }
+
+  override def copyWith(newEntries: Seq[(String, AnyValue)]): ExecutionContext = {
+    val copy = createClone()
+    copy.set(newEntries)
+    copy
+  }
+
+  override def createClone(): SlotMappedExecutionContext = {
+    val newRefs = new Array[AnyValue](refs.length)
+    System.arraycopy(refs, 0, newRefs, 0, refs.length)
+    val newOverflow = if (overflow == null) null else overflow.clone()
+    val newCachedProperties = if (cachedProperties == null) null else cachedProperties.clone()
+    val copy = new SlotMappedExecutionContext(slots, newRefs, newOverflow, newCachedProperties)
+    copy.setLinenumber(getLinenumber)
+    copy
+  }
+
+  override def boundEntities(materializeNode: Long => AnyValue, materializeRelationship: Long => AnyValue): Map[String, AnyValue] = {
+    val builder = Map.newBuilder[String, AnyValue]
+    foreachEntry {
+      case (k, v: NodeValue) =>
+        builder += k -> v
+      case (k, v: RelationshipValue) =>
+        builder += k -> v
+      case (k, v: NodeReference) =>
+        builder += k -> materializeNode(v.id())
+      case (k, v: RelationshipReference) =>
+        builder += k -> materializeRelationship(v.id())
+      case _ =>
+    }
+    builder.result()
+  }
+
+  override def isNull(key: String): Boolean = valueOrNull(key) eq Values.NO_VALUE
+
+  override def setCachedProperty(key: ASTCachedProperty, value: Value): Unit = {
+    if (cachedProperties == null) {
+      cachedProperties = MutableMap.empty
+    }
+    cachedProperties.put(key, value)
+  }
+
+  override def setCachedPropertyAt(offset: Int, value: Value): Unit = fail()
+
+  override def getCachedProperty(key: ASTCachedProperty): Value = {
+    if (cachedProperties == null) {
+      null
+    } else {
+      cachedProperties.getOrElse(key, null)
+    }
+  }
+
+  override def getCachedPropertyAt(offset: Int): Value = fail()
+
+  override def invalidateCachedNodeProperties(node: Long): Unit = {
+    if (cachedProperties != null) {
+      cachedProperties.keys.filter(cnp => getByName(cnp.entityName) match {
+        case n: VirtualNodeValue => n.id() == node
+        case _ => false
+      }).foreach(cnp => setCachedProperty(cnp, null))
+    }
+  }
+
+  override def invalidateCachedRelationshipProperties(rel: Long): Unit = {
+    if (cachedProperties != null) {
+      cachedProperties.keys.filter(cnp => getByName(cnp.entityName) match {
+        case r: VirtualRelationshipValue => r.id() == rel
+        case _ => false
+      }).foreach(cnp => setCachedProperty(cnp, null))
+    }
+  }
+
+  override def estimatedHeapUsage: Long = {
+    var total = 0L
+    var i = 0
+    while (i < refs.length) {
+      val value = refs(i)
+      if (value != null) total += value.estimatedHeapUsage()
+      i += 1
+    }
+    if (overflow != null) {
+      val iterator = overflow.valuesIterator
+      while (iterator.hasNext) {
+        total += iterator.next().estimatedHeapUsage()
+      }
+    }
+    if (cachedProperties != null) {
+      val iterator = cachedProperties.valuesIterator
+      while (iterator.hasNext) {
+        total += iterator.next().estimatedHeapUsage()
+      }
+    }
+    total
+  }
+
+  private[runtime] def foreachEntry(f: (String, AnyValue) => Unit): Unit = {
+    slots.foreach { (name, offset) =>
+      val value = refs(offset)
+      if (value != null) f(name, value)
+    }
+    if (overflow != null) overflow.foreach(kv => f(kv._1, kv._2))
+  }
+
+  private def valueOrNull(name: String): AnyValue = {
+    val offset = slots.offsetFor(name)
+    if (offset >= 0) refs(offset)
+    else if (overflow == null) null
+    else overflow.getOrElse(name, null)
+  }
+
+  private def put(key: String, value: AnyValue): Unit = {
+    val offset = slots.offsetFor(key)
+    if (offset >= 0) {
+      refs(offset) = value
+    } else {
+      if (overflow == null) {
+        overflow = MutableMaps.empty
+      }
+      overflow.put(key, value)
+    }
+  }
+
+  def canEqual(other: Any): Boolean = other.isInstanceOf[SlotMappedExecutionContext]
+
+  override def equals(other: Any): Boolean = other match {
+    case that: SlotMappedExecutionContext =>
+      (that canEqual this) &&
+        toMap == that.toMap
+    case _ => false
+  }
+
+  override def hashCode(): Int = toMap.hashCode()
+
+  override def toString: String = s"SlotMappedExecutionContext(m=$toMap, cached=$cachedProperties)"
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime
+
+/**
+  * Assigns every variable of a query a fixed offset into the rows of a [[SlotMappedExecutionContext]].
+  */
+case class VariableSlots(private val mapping: Map[String, Int] = Map.empty) {
+  def size: Int = mapping.size
+  def contains(name: String): Boolean = mapping.contains(name)
+  def foreach[U](f: (String, Int) => U): Unit = mapping.foreach(m => f(m._1, m._2))
+
+  /**
+    * Returns the offset of the variable, or -1 if the variable has no slot.
+    */
+  def offsetFor(name: String): Int = mapping.getOrElse(name, -1)
+
+  def updated(name: String): VariableSlots =
+    if (mapping.contains(name)) this else copy(mapping = mapping.updated(name, mapping.size))
+}
+
+object VariableSlots {
+  val empty: VariableSlots = VariableSlots()
+}
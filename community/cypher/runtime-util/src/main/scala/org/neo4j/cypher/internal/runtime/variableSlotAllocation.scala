@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime
+
+import org.neo4j.cypher.internal.logical.plans.LogicalPlan
+
+/**
+  * Allocates a slot for every variable that is available in any of the plans of a query, including the plans nested in
+  * expressions, so that rows can be stored in an array instead of a hash map.
+  */
+case object variableSlotAllocation {
+
+  def apply(input: LogicalPlan): VariableSlots =
+    input.treeFold(VariableSlots.empty) {
+      case plan: LogicalPlan => acc => (plan.availableSymbols.toSeq.sorted.foldLeft(acc)(_ updated _), Some(identity))
+    }
+}
@@ -326,8 +326,9 @@ class MemoryRecommendationsCommand extends AbstractCommand
         {
             long total = storageEngineFactory.listStorageFiles( fileSystem, databaseLayout ).stream().mapToLong( fileSystem::getFileSize ).sum();
 
-            // Include label index
+            // Include label and relationship type indexes
             total += sizeOfFileIfExists( databaseLayout.labelScanStore() );
+            total += sizeOfFileIfExists( databaseLayout.relationshipTypeScanStore() );
             return total;
         }
         catch ( IOException e )
@@ -34,7 +34,7 @@ public interface FreeIds
     FreeIds NO_FREE_IDS = ignore -> -1;
 
     /**
-     * @param visitor consumer of the free ids.
+     * @param visitor consumer of the free ids, which are visited in ascending order.
      * @return the highest id visited.
      * @throws IOException on I/O error.
      */
@@ -35,6 +35,7 @@ import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.LongSupplier;
 
 import org.neo4j.annotations.documented.ReporterFactory;
+import org.neo4j.index.internal.gbptree.BulkLoader;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.GBPTreeConsistencyCheckVisitor;
 import org.neo4j.index.internal.gbptree.GBPTreeVisitor;
@@ -48,11 +49,14 @@ import org.neo4j.internal.id.IdValidator;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static org.apache.commons.lang3.ArrayUtils.EMPTY_LONG_ARRAY;
 import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_READER;
 import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_WRITER;
 import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.internal.id.indexed.IdRange.BITSET_COMMIT;
+import static org.neo4j.internal.id.indexed.IdRange.BITSET_REUSE;
 import static org.neo4j.io.IOUtils.closeAllUnchecked;
 import static org.neo4j.util.FeatureToggles.flag;
 
@@ -231,6 +235,12 @@ public class IndexedIdGenerator implements IdGenerator
      */
     private static final long STARTING_GENERATION = 1;
 
+    /**
+     * How much of each tree node to fill when rebuilding. Ranges with no free ids at the time of rebuild are not in the tree,
+     * so space is left for them to be inserted as ids in them get deleted later on.
+     */
+    private static final double REBUILD_FILL_FACTOR = 0.8;
+
     /**
      * {@link GBPTree} for storing and accessing the id states.
      */
@@ -526,17 +536,9 @@ public class IndexedIdGenerator implements IdGenerator
         {
             assertNotReadOnly();
             // This id generator was created right now, it needs to be populated with all free ids from its owning store so that it's in sync
-            try ( IdRangeMarker idRangeMarker = lockAndInstantiateMarker( false ) )
-            {
-                // We can mark the ids as free right away since this is before started which means we get the very liberal merger
-                long highestFreeId = freeIdsForRebuild.accept( id ->
-                {
-                    idRangeMarker.markDeleted( id );
-                    idRangeMarker.markFree( id );
-                } );
-                highId.set( highestFreeId + 1 );
-                highestWrittenId.set( highestFreeId );
-            }
+            long highestFreeId = rebuild( freeIdsForRebuild );
+            highId.set( highestFreeId + 1 );
+            highestWrittenId.set( highestFreeId );
             // We can checkpoint here since the free ids we read are committed
             checkpoint( IOLimiter.UNLIMITED );
             atLeastOneIdOnFreelist.set( true );
@@ -549,6 +551,54 @@ public class IndexedIdGenerator implements IdGenerator
         maintenance();
     }
 
+    /**
+     * Builds the tree from the free ids, which come in ascending order. The ids are marked as deleted and free right away,
+     * grouped into one {@link IdRange} per tree entry which is bulk loaded into the empty tree.
+     */
+    private long rebuild( FreeIds freeIdsForRebuild ) throws IOException
+    {
+        assertNotReadOnly();
+        commitAndReuseLock.lock();
+        try ( BulkLoader<IdRangeKey,IdRange> bulkLoader = tree.bulkLoader( REBUILD_FILL_FACTOR ) )
+        {
+            IdRangeKey key = layout.newKey();
+            IdRange value = layout.newValue();
+            key.setIdRangeIdx( -1 );
+            long highestFreeId = freeIdsForRebuild.accept( id ->
+            {
+                if ( IdValidator.isReservedId( id ) )
+                {
+                    return;
+                }
+                long idRangeIdx = id / idsPerEntry;
+                if ( idRangeIdx != key.getIdRangeIdx() )
+                {
+                    if ( key.getIdRangeIdx() != -1 )
+                    {
+                        bulkLoader.add( key, value );
+                    }
+                    key.setIdRangeIdx( idRangeIdx );
+                    value.clear( generation, true );
+                }
+                int idOffset = toIntExact( id % idsPerEntry );
+                value.setBit( BITSET_COMMIT, idOffset );
+                value.setBit( BITSET_REUSE, idOffset );
+                monitor.markedAsDeleted( id );
+                monitor.markedAsFree( id );
+            } );
+            if ( key.getIdRangeIdx() != -1 )
+            {
+                bulkLoader.add( key, value );
+            }
+            return highestFreeId;
+        }
+        finally
+        {
+            commitAndReuseLock.unlock();
+            monitor.markSessionDone();
+        }
+    }
+
     @Override
     public void checkpoint( IOLimiter ioLimiter )
     {
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+
+import static org.neo4j.index.internal.gbptree.TreeNode.NO_NODE_FLAG;
+import static org.neo4j.index.internal.gbptree.TreeNode.Overflow.YES;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+/**
+ * Builds a tree bottom-up from entries added in strictly ascending key order, see {@link BulkLoader}.
+ * <p>
+ * One node per level is open at any given time, the rightmost node built so far on that level. Entries are appended to the
+ * open leaf until it reaches the fill factor or overflows, after which a new leaf is linked in as its right sibling and
+ * the splitter between the two is appended to the open node on the level above, in the same way. A level above the leaves
+ * is created when the level below gets its second node, and the single node on the topmost level becomes the new root.
+ * <p>
+ * An internal node never ends up with only one child, unless it's the root. If the splitter of a full internal node isn't
+ * followed by any more splitters it's appended to the full node if it fits, otherwise the last splitter and child are moved
+ * over from the full node so that the new node gets two children.
+ * <p>
+ * All nodes are written in the unstable generation and are not reachable from the tree until the root is set to
+ * the one returned from {@link #finish()}.
+ *
+ * @param <KEY> type of internal/leaf keys
+ * @param <VALUE> type of leaf values
+ */
+class BulkLoadTreeLogic<KEY,VALUE>
+{
+    private final PagedFile pagedFile;
+    private final IdProvider idProvider;
+    private final TreeNode<KEY,VALUE> bTreeNode;
+    private final Layout<KEY,VALUE> layout;
+    private final double fillFactor;
+    private final long stableGeneration;
+    private final long unstableGeneration;
+    private final KEY splitter;
+    private final KEY lastInternalKey;
+
+    /**
+     * Open nodes per level, where index 0 is the leaf level.
+     */
+    private final List<Level<KEY>> levels = new ArrayList<>();
+
+    BulkLoadTreeLogic( PagedFile pagedFile, IdProvider idProvider, TreeNode<KEY,VALUE> bTreeNode, Layout<KEY,VALUE> layout, double fillFactor,
+            long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        if ( fillFactor <= 0 || fillFactor > 1 )
+        {
+            throw new IllegalArgumentException( "Fill factor must be in the range (0,1], but was " + fillFactor );
+        }
+        this.pagedFile = pagedFile;
+        this.idProvider = idProvider;
+        this.bTreeNode = bTreeNode;
+        this.layout = layout;
+        this.fillFactor = fillFactor;
+        this.stableGeneration = stableGeneration;
+        this.unstableGeneration = unstableGeneration;
+        this.splitter = layout.newKey();
+        this.lastInternalKey = layout.newKey();
+        levels.add( new Level<>( pagedFile.io( 0, PagedFile.PF_SHARED_WRITE_LOCK ), layout.newKey() ) );
+    }
+
+    void add( KEY key, VALUE value ) throws IOException
+    {
+        Level<KEY> leaves = levels.get( 0 );
+        if ( leaves.nodeId != NO_NODE_FLAG && layout.compare( key, leaves.lastKey ) <= 0 )
+        {
+            throw new IllegalArgumentException( "Bulk loaded keys must be added in strictly ascending order, but " + key +
+                    " was added after " + leaves.lastKey );
+        }
+        bTreeNode.validateKeyValueSize( key, value );
+
+        if ( leaves.nodeId == NO_NODE_FLAG )
+        {
+            newNode( leaves, LEAF );
+        }
+        else if ( bTreeNode.reachedFillFactor( leaves.cursor, leaves.keyCount, LEAF, fillFactor ) ||
+                bTreeNode.leafOverflow( leaves.cursor, leaves.keyCount, key, value ) == YES )
+        {
+            layout.minimalSplitter( leaves.lastKey, key, splitter );
+            long leftLeaf = leaves.nodeId;
+            newNode( leaves, LEAF );
+            addChild( 1, splitter, leaves.nodeId, leftLeaf );
+        }
+
+        bTreeNode.insertKeyValueAt( leaves.cursor, key, value, leaves.keyCount, leaves.keyCount, stableGeneration, unstableGeneration );
+        TreeNode.setKeyCount( leaves.cursor, ++leaves.keyCount );
+        layout.copyKey( key, leaves.lastKey );
+    }
+
+    /**
+     * Completes the open nodes on all levels and closes this logic.
+     *
+     * @return id of the root of the built tree, or {@link TreeNode#NO_NODE_FLAG} if no entries were added.
+     */
+    long finish() throws IOException
+    {
+        try
+        {
+            // Levels may be added while completing the levels below, which is why the size is checked in every iteration
+            for ( int i = 1; i < levels.size(); i++ )
+            {
+                Level<KEY> level = levels.get( i );
+                if ( level.hasPendingChild )
+                {
+                    appendPendingChild( i, level );
+                }
+            }
+            return levels.get( levels.size() - 1 ).nodeId;
+        }
+        finally
+        {
+            for ( Level<KEY> level : levels )
+            {
+                level.cursor.close();
+            }
+        }
+    }
+
+    /**
+     * Appends {@code child}, with {@code key} as the splitter between it and the previous child, to the open node on the given level.
+     * {@code leftChild} is only used if this is the first time a child is added to this level, and becomes its first child.
+     */
+    private void addChild( int levelIndex, KEY key, long child, long leftChild ) throws IOException
+    {
+        if ( levelIndex == levels.size() )
+        {
+            Level<KEY> newLevel = new Level<>( pagedFile.io( 0, PagedFile.PF_SHARED_WRITE_LOCK ), layout.newKey() );
+            levels.add( newLevel );
+            newNode( newLevel, INTERNAL );
+            bTreeNode.setChildAt( newLevel.cursor, leftChild, 0, stableGeneration, unstableGeneration );
+        }
+
+        Level<KEY> level = levels.get( levelIndex );
+        if ( level.hasPendingChild )
+        {
+            // The open node is full and the pending child gets company, so that a new node with two children can be started
+            long leftNode = level.nodeId;
+            newNode( level, INTERNAL );
+            bTreeNode.setChildAt( level.cursor, level.pendingChild, 0, stableGeneration, unstableGeneration );
+            insertKeyAndRightChild( level, key, child );
+            level.hasPendingChild = false;
+            addChild( levelIndex + 1, level.lastKey, level.nodeId, leftNode );
+        }
+        else if ( level.keyCount > 0 && (bTreeNode.reachedFillFactor( level.cursor, level.keyCount, INTERNAL, fillFactor ) ||
+                bTreeNode.internalOverflow( level.cursor, level.keyCount, key ) == YES) )
+        {
+            layout.copyKey( key, level.lastKey );
+            level.pendingChild = child;
+            level.hasPendingChild = true;
+        }
+        else
+        {
+            insertKeyAndRightChild( level, key, child );
+        }
+    }
+
+    private void appendPendingChild( int levelIndex, Level<KEY> level ) throws IOException
+    {
+        level.hasPendingChild = false;
+        if ( bTreeNode.internalOverflow( level.cursor, level.keyCount, level.lastKey ) != YES )
+        {
+            insertKeyAndRightChild( level, level.lastKey, level.pendingChild );
+            return;
+        }
+
+        // Move the last splitter and child over to a new node, which then gets the pending child as its second child
+        int lastPos = level.keyCount - 1;
+        bTreeNode.keyAt( level.cursor, lastInternalKey, lastPos, INTERNAL );
+        long lastChild = GenerationSafePointerPair.pointer( bTreeNode.childAt( level.cursor, level.keyCount, stableGeneration, unstableGeneration ) );
+        bTreeNode.removeKeyAndRightChildAt( level.cursor, lastPos, level.keyCount, stableGeneration, unstableGeneration );
+        TreeNode.setKeyCount( level.cursor, --level.keyCount );
+
+        long leftNode = level.nodeId;
+        newNode( level, INTERNAL );
+        bTreeNode.setChildAt( level.cursor, lastChild, 0, stableGeneration, unstableGeneration );
+        insertKeyAndRightChild( level, level.lastKey, level.pendingChild );
+        addChild( levelIndex + 1, lastInternalKey, level.nodeId, leftNode );
+    }
+
+    private void insertKeyAndRightChild( Level<KEY> level, KEY key, long child ) throws IOException
+    {
+        bTreeNode.insertKeyAndRightChildAt( level.cursor, key, child, level.keyCount, level.keyCount, stableGeneration, unstableGeneration );
+        TreeNode.setKeyCount( level.cursor, ++level.keyCount );
+    }
+
+    /**
+     * Starts a new open node on the given level, linked in as right sibling of the current open node, if any.
+     */
+    private void newNode( Level<KEY> level, TreeNode.Type type ) throws IOException
+    {
+        long newNodeId = idProvider.acquireNewId( stableGeneration, unstableGeneration );
+        long leftSibling = level.nodeId;
+        if ( leftSibling != NO_NODE_FLAG )
+        {
+            TreeNode.setRightSibling( level.cursor, newNodeId, stableGeneration, unstableGeneration );
+        }
+
+        PageCursorUtil.goTo( level.cursor, "new node", newNodeId );
+        if ( type == LEAF )
+        {
+            bTreeNode.initializeLeaf( level.cursor, stableGeneration, unstableGeneration );
+        }
+        else
+        {
+            bTreeNode.initializeInternal( level.cursor, stableGeneration, unstableGeneration );
+        }
+        if ( leftSibling != NO_NODE_FLAG )
+        {
+            TreeNode.setLeftSibling( level.cursor, leftSibling, stableGeneration, unstableGeneration );
+        }
+        level.nodeId = newNodeId;
+        level.keyCount = 0;
+    }
+
+    private static class Level<KEY>
+    {
+        private final PageCursor cursor;
+        /**
+         * Last key added, on the leaf level. On internal levels, the splitter of the pending child.
+         */
+        private final KEY lastKey;
+        private long nodeId = NO_NODE_FLAG;
+        private int keyCount;
+        private boolean hasPendingChild;
+        private long pendingChild;
+
+        Level( PageCursor cursor, KEY lastKey )
+        {
+            this.cursor = cursor;
+            this.lastKey = lastKey;
+        }
+    }
+}
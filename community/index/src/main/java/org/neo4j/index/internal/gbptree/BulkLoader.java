@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+
+/**
+ * Builds the contents of an empty {@link GBPTree} from key/value pairs given in strictly ascending key order.
+ * Leaves and internal nodes are packed bottom-up, each one filled up to a fill factor, instead of going through
+ * the {@link Writer} which does a root-to-leaf search and splits nodes in half along the way.
+ * After all entries have been added the bulk loader must be {@link #close() closed}, typically using try-with-resource clause,
+ * and it's not until then that the added entries become visible in the tree.
+ *
+ * @param <KEY> type of keys
+ * @param <VALUE> type of values
+ */
+public interface BulkLoader<KEY,VALUE> extends Closeable
+{
+    /**
+     * Add a key/value pair to the tree being built. The key and value are copied, so the instances can be reused by the caller.
+     *
+     * @param key key to add, must be greater than the previously added key.
+     * @param value value to associate with the key.
+     * @throws IllegalArgumentException if {@code key} is not greater than the previously added key.
+     * @throws UncheckedIOException on index access error.
+     */
+    void add( KEY key, VALUE value );
+}
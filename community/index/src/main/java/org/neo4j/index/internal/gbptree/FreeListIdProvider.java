@@ -132,7 +132,7 @@ class FreeListIdProvider implements IdProvider
     }
 
     @Override
-    public long acquireNewId( long stableGeneration, long unstableGeneration ) throws IOException
+    public synchronized long acquireNewId( long stableGeneration, long unstableGeneration ) throws IOException
     {
         return acquireNewId( stableGeneration, unstableGeneration, true );
     }
@@ -211,7 +211,7 @@ class FreeListIdProvider implements IdProvider
     }
 
     @Override
-    public void releaseId( long stableGeneration, long unstableGeneration, long id ) throws IOException
+    public synchronized void releaseId( long stableGeneration, long unstableGeneration, long id ) throws IOException
     {
         try ( PageCursor cursor = pagedFile.io( writePageId, PagedFile.PF_SHARED_WRITE_LOCK ) )
         {
@@ -33,7 +33,10 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
@@ -86,6 +89,11 @@ import static org.neo4j.internal.helpers.Exceptions.withMessage;
  * A single writer w/ multiple concurrent readers is supported. Assuming usage adheres to this
  * constraint neither writer nor readers are blocking. Readers are virtually garbage-free.
  * <p>
+ * Alternatively any number of {@link #parallelWriter() parallel writers} can modify the tree at the same time.
+ * Changes that can be made within a single leaf are made optimistically, with only that leaf latched and
+ * the tree structure latched in shared mode. Changes that need splits, merges or new successors latch the
+ * tree structure exclusively and are made like the single writer would make them.
+ * <p>
  * An reader of GB+Tree is a {@link SeekCursor} that returns result as it finds them.
  * As the cursor move over keys/values, returned results are considered "behind" it
  * and likewise keys not yet returned "in front of".
@@ -299,11 +307,37 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
      */
     private final FreeListIdProvider freeList;
 
+    /**
+     * Creates {@link TreeNode} instances of the format of this tree, for parallel writers which need their own.
+     */
+    private final TreeNodeSelector.Factory treeNodeFormat;
+
+    /**
+     * Store for keys and values too large to be inlined in the tree nodes.
+     */
+    private final OffloadStoreImpl<KEY,VALUE> offloadStore;
+
     /**
      * A single instance {@link Writer} because tree only supports single writer.
      */
     private final SingleWriter writer;
 
+    /**
+     * Latched in shared mode by {@link ParallelWriter parallel writers} making changes within a single leaf, and
+     * in exclusive mode by parallel writers making changes to the structure of the tree.
+     */
+    private final StampedLock structureLatch = new StampedLock();
+
+    /**
+     * Latches for the leaves that {@link ParallelWriter parallel writers} change while holding the structure latch in shared mode.
+     */
+    private final TreeNodeLatches leafLatches = new TreeNodeLatches( 1024 );
+
+    /**
+     * Closed {@link ParallelWriter parallel writers}, kept for reuse since they have some state that is costly to allocate.
+     */
+    private final Queue<ParallelWriter> idleParallelWriters = new ConcurrentLinkedQueue<>();
+
     /**
      * Tells whether or not there have been made changes (using {@link #writer()}) to this tree
      * since last call to {@link #checkpoint(IOLimiter)}. This variable is set when calling {@link #writer()}
@@ -503,7 +537,7 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             this.pagedFile = openOrCreate( pageCache, indexFile, tentativePageSize, openOptions );
             this.pageSize = pagedFile.pageSize();
             closed = false;
-            TreeNodeSelector.Factory format;
+            final TreeNodeSelector.Factory format;
             if ( created )
             {
                 format = TreeNodeSelector.selectByLayout( layout );
@@ -516,7 +550,8 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
                 format = TreeNodeSelector.selectByFormat( meta.getFormatIdentifier(), meta.getFormatVersion() );
             }
             this.freeList = new FreeListIdProvider( pagedFile, pageSize, rootId, FreeListIdProvider.NO_MONITOR );
-            OffloadStoreImpl<KEY,VALUE> offloadStore = buildOffload( layout, freeList, pagedFile, pageSize );
+            this.offloadStore = buildOffload( layout, freeList, pagedFile, pageSize );
+            this.treeNodeFormat = format;
             this.bTreeNode = format.create( pageSize, layout, offloadStore );
             this.writer = new SingleWriter( new InternalTreeLogic<>( freeList, bTreeNode, layout, monitor ) );
 
@@ -977,9 +1012,20 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         return partitionedSeekInternal( fromInclusive, toExclusive, numberOfPartitions, this );
     }
 
-    private Collection<Seeker<KEY,VALUE>> partitionedSeekInternal( KEY fromInclusive, KEY toExclusive, int numberOfPartitions,
-            Seeker.Factory<KEY,VALUE> seekerFactory )
-            throws IOException
+    /**
+     * Partitions the provided key range like {@link #partitionedSeek(Object, Object, int)} does, but returns the key range of each
+     * partition rather than a {@link Seeker} for it. This lets the caller {@link #seek(Object, Object) seek} each partition only
+     * once it gets to it, so that no seekers are left open for partitions that are never seeked.
+     *
+     * @param fromInclusive lower bound of the range to seek (inclusive).
+     * @param toExclusive higher bound of the range to seek (exclusive).
+     * @param numberOfPartitions number of partitions desired by the caller. If the tree is small a lower number of partitions may be returned.
+     * The number of partitions will never be higher than the provided {@code numberOfPartitions}.
+     * @return a {@link List} of distinct key ranges, as pairs of inclusive lower and exclusive higher bound, that collectively cover
+     * the whole provided range.
+     * @throws IOException on error reading from index.
+     */
+    public List<Pair<KEY,KEY>> partitionedSeekRanges( KEY fromInclusive, KEY toExclusive, int numberOfPartitions ) throws IOException
     {
         Preconditions.checkArgument( layout.compare( fromInclusive, toExclusive ) <= 0, "Partitioned seek only supports forward seeking for the time being" );
 
@@ -1027,11 +1073,19 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         }
 
         KeyPartitioning<KEY> partitioning = new KeyPartitioning<>( layout );
+        return partitioning.partition( rootKeys, fromInclusive, toExclusive, numberOfPartitions );
+    }
+
+    private Collection<Seeker<KEY,VALUE>> partitionedSeekInternal( KEY fromInclusive, KEY toExclusive, int numberOfPartitions,
+            Seeker.Factory<KEY,VALUE> seekerFactory )
+            throws IOException
+    {
+        List<Pair<KEY,KEY>> partitions = partitionedSeekRanges( fromInclusive, toExclusive, numberOfPartitions );
         List<Seeker<KEY,VALUE>> seekers = new ArrayList<>();
         boolean success = false;
         try
         {
-            for ( Pair<KEY,KEY> partition : partitioning.partition( rootKeys, fromInclusive, toExclusive, numberOfPartitions ) )
+            for ( Pair<KEY,KEY> partition : partitions )
             {
                 seekers.add( seekerFactory.seek( partition.getLeft(), partition.getRight() ) );
             }
@@ -1281,6 +1335,96 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         return writer;
     }
 
+    /**
+     * Use default value for ratioToKeepInLeftOnSplit
+     * @see GBPTree#parallelWriter(double)
+     */
+    public Writer<KEY,VALUE> parallelWriter() throws IOException
+    {
+        return parallelWriter( InternalTreeLogic.DEFAULT_SPLIT_RATIO );
+    }
+
+    /**
+     * Returns a {@link Writer} able to modify the index concurrently with other parallel writers.
+     * After usage the returned writer must be closed, typically by using try-with-resource clause.
+     * <p>
+     * Parallel writers can not be open at the same time as the {@link #writer() single writer}, and a checkpoint
+     * waits for all open writers to close. Each parallel writer must only be used by one thread at a time.
+     * Note that the {@link ValueMerger} may be called more than once for the same change.
+     *
+     * @param ratioToKeepInLeftOnSplit Decide how much to keep in left node on split, 0=keep nothing, 0.5=split 50-50, 1=keep everything.
+     * @return a {@link Writer} for this index, to be used by the calling thread only.
+     * @throws IOException on error accessing the index.
+     */
+    public Writer<KEY,VALUE> parallelWriter( double ratioToKeepInLeftOnSplit ) throws IOException
+    {
+        assertNotReadOnly( "Open parallel tree writer." );
+        ParallelWriter parallelWriter = idleParallelWriters.poll();
+        if ( parallelWriter == null )
+        {
+            parallelWriter = new ParallelWriter();
+        }
+        parallelWriter.initialize( ratioToKeepInLeftOnSplit );
+        changesSinceLastCheckpoint = true;
+        return parallelWriter;
+    }
+
+    /**
+     * Returns a {@link BulkLoader} which builds the contents of this tree bottom-up from entries added in strictly ascending key order.
+     * This is much faster than inserting the same entries using a {@link Writer} and results in a smaller tree, since nodes are packed
+     * up to the given fill factor instead of being split in half. The tree must be empty and the added entries become visible
+     * when the bulk loader is {@link BulkLoader#close() closed}. The bulk loader excludes writers and checkpoints while open.
+     *
+     * @param fillFactor how much of each node to fill, in the range (0,1]. Leaving some space in the nodes makes for fewer splits
+     * when the tree is later changed.
+     * @return a {@link BulkLoader} for this index, which must be {@link BulkLoader#close() closed} after all entries have been added.
+     * @throws IOException on error accessing the index.
+     * @throws IllegalStateException if the tree is not empty.
+     */
+    public BulkLoader<KEY,VALUE> bulkLoader( double fillFactor ) throws IOException
+    {
+        assertNotReadOnly( "Bulk load tree." );
+        lock.writerAndCleanerLock();
+        boolean success = false;
+        try
+        {
+            assertRecoveryCleanSuccessful();
+            long stableGeneration = stableGeneration( generation );
+            long unstableGeneration = unstableGeneration( generation );
+            try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_READ_LOCK ) )
+            {
+                boolean empty;
+                do
+                {
+                    empty = TreeNode.isLeaf( cursor ) && TreeNode.keyCount( cursor ) == 0;
+                }
+                while ( cursor.shouldRetry() );
+                checkOutOfBounds( cursor );
+                if ( !empty )
+                {
+                    throw new IllegalStateException( "Can only bulk load into an empty tree, but " + indexFile + " has entries" );
+                }
+            }
+            BulkLoadTreeLogic<KEY,VALUE> bulkLoad =
+                    new BulkLoadTreeLogic<>( pagedFile, freeList, bTreeNode, layout, fillFactor, stableGeneration, unstableGeneration );
+            changesSinceLastCheckpoint = true;
+            success = true;
+            return new TreeBulkLoader( bulkLoad, stableGeneration, unstableGeneration );
+        }
+        catch ( Throwable e )
+        {
+            appendTreeInformation( e );
+            throw e;
+        }
+        finally
+        {
+            if ( !success )
+            {
+                lock.writerAndCleanerUnlock();
+            }
+        }
+    }
+
     private void setRoot( long rootId, long rootGeneration )
     {
         this.root = new Root( rootId, rootGeneration );
@@ -1478,12 +1622,12 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         private final AtomicBoolean writerTaken = new AtomicBoolean();
         private final InternalTreeLogic<KEY,VALUE> treeLogic;
         private final StructurePropagation<KEY> structurePropagation;
-        private PageCursor cursor;
+        PageCursor cursor;
 
         // Writer can't live past a checkpoint because of the mutex with checkpoint,
         // therefore safe to locally cache these generation fields from the volatile generation in the tree
-        private long stableGeneration;
-        private long unstableGeneration;
+        long stableGeneration;
+        long unstableGeneration;
         private double ratioToKeepInLeftOnSplit;
 
         SingleWriter( InternalTreeLogic<KEY,VALUE> treeLogic )
@@ -1524,14 +1668,12 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             try
             {
                 // Block here until cleaning has completed, if cleaning was required
-                lock.writerAndCleanerLock();
+                lockWriter();
                 assertRecoveryCleanSuccessful();
-                cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK );
                 stableGeneration = stableGeneration( generation );
                 unstableGeneration = unstableGeneration( generation );
                 this.ratioToKeepInLeftOnSplit = ratioToKeepInLeftOnSplit;
-                assert assertNoSuccessor( cursor, stableGeneration, unstableGeneration );
-                treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+                initializeAtRoot();
                 success = true;
             }
             catch ( Throwable e )
@@ -1566,7 +1708,17 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             internalMerge( key, value, valueMerger, false );
         }
 
-        private void internalMerge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, boolean createIfNotExists )
+        void lockWriter()
+        {
+            lock.writerAndCleanerLock();
+        }
+
+        void unlockWriter()
+        {
+            lock.writerAndCleanerUnlock();
+        }
+
+        void internalMerge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, boolean createIfNotExists )
         {
             try
             {
@@ -1655,7 +1807,23 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
                         ", but writer is already closed." );
             }
             closeCursor();
-            lock.writerAndCleanerUnlock();
+            unlockWriter();
+        }
+
+        void initializeAtRoot() throws IOException
+        {
+            cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK );
+            assert assertNoSuccessor( cursor, stableGeneration, unstableGeneration );
+            treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+        }
+
+        /**
+         * Prepares the tree logic for a change, after other writers may have changed the tree since the last one.
+         */
+        void restartFromRoot() throws IOException
+        {
+            TreeNode.goTo( cursor, "root", root.id() );
+            treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
         }
 
         private void closeCursor()
@@ -1668,6 +1836,213 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         }
     }
 
+    private class TreeBulkLoader implements BulkLoader<KEY,VALUE>
+    {
+        private final BulkLoadTreeLogic<KEY,VALUE> bulkLoad;
+        private final long stableGeneration;
+        private final long unstableGeneration;
+        private boolean closed;
+
+        TreeBulkLoader( BulkLoadTreeLogic<KEY,VALUE> bulkLoad, long stableGeneration, long unstableGeneration )
+        {
+            this.bulkLoad = bulkLoad;
+            this.stableGeneration = stableGeneration;
+            this.unstableGeneration = unstableGeneration;
+        }
+
+        @Override
+        public void add( KEY key, VALUE value )
+        {
+            try
+            {
+                bulkLoad.add( key, value );
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if ( closed )
+            {
+                throw new IllegalStateException( "Tried to close bulk loader of " + GBPTree.this + ", but it is already closed." );
+            }
+            closed = true;
+            try
+            {
+                long newRootId = bulkLoad.finish();
+                if ( newRootId != TreeNode.NO_NODE_FLAG )
+                {
+                    long oldRootId = root.id();
+                    setRoot( newRootId, unstableGeneration );
+                    freeList.releaseId( stableGeneration, unstableGeneration, oldRootId );
+                }
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                lock.writerAndCleanerUnlock();
+            }
+        }
+    }
+
+    /**
+     * A {@link Writer} which can be used at the same time as other parallel writers, see {@link #parallelWriter(double)}.
+     * Changes are first tried with {@link OptimisticTreeLogic} and redone by the {@link SingleWriter} logic, with the
+     * structure latched exclusively, if they turn out to need structure changes.
+     */
+    private class ParallelWriter extends SingleWriter
+    {
+        private final OptimisticTreeLogic<KEY,VALUE> optimisticLogic;
+
+        ParallelWriter()
+        {
+            super( new InternalTreeLogic<>( freeList, bTreeNode, layout, monitor ) );
+            this.optimisticLogic = new OptimisticTreeLogic<>( treeNodeFormat.create( pageSize, layout, offloadStore ), leafLatches, layout );
+        }
+
+        @Override
+        void lockWriter()
+        {
+            lock.parallelWriterLock();
+        }
+
+        @Override
+        void unlockWriter()
+        {
+            lock.parallelWriterUnlock();
+        }
+
+        @Override
+        void initializeAtRoot() throws IOException
+        {
+            // The root may be in the middle of getting a successor from another writer
+            long stamp = structureLatch.readLock();
+            try
+            {
+                super.initializeAtRoot();
+            }
+            finally
+            {
+                structureLatch.unlockRead( stamp );
+            }
+        }
+
+        @Override
+        void internalMerge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, boolean createIfNotExists )
+        {
+            OptimisticTreeLogic.Result result;
+            long stamp = structureLatch.readLock();
+            try
+            {
+                result = optimisticLogic.insert( cursor, root.id(), key, value, valueMerger, createIfNotExists, stableGeneration, unstableGeneration );
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+            finally
+            {
+                structureLatch.unlockRead( stamp );
+            }
+            checkOutOfBounds( cursor );
+
+            if ( result == OptimisticTreeLogic.Result.STRUCTURE_CHANGE_NEEDED )
+            {
+                stamp = structureLatch.writeLock();
+                try
+                {
+                    restartFromRootUnchecked();
+                    super.internalMerge( key, value, valueMerger, createIfNotExists );
+                }
+                finally
+                {
+                    structureLatch.unlockWrite( stamp );
+                }
+            }
+        }
+
+        @Override
+        public VALUE remove( KEY key )
+        {
+            VALUE into = layout.newValue();
+            OptimisticTreeLogic.Result result;
+            long stamp = structureLatch.readLock();
+            try
+            {
+                result = optimisticLogic.remove( cursor, root.id(), key, into, stableGeneration, unstableGeneration );
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+            finally
+            {
+                structureLatch.unlockRead( stamp );
+            }
+            checkOutOfBounds( cursor );
+
+            switch ( result )
+            {
+            case DONE:
+                return into;
+            case NOT_FOUND:
+                return null;
+            default:
+                stamp = structureLatch.writeLock();
+                try
+                {
+                    restartFromRootUnchecked();
+                    return super.remove( key );
+                }
+                finally
+                {
+                    structureLatch.unlockWrite( stamp );
+                }
+            }
+        }
+
+        private void restartFromRootUnchecked()
+        {
+            try
+            {
+                restartFromRoot();
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            super.close();
+            idleParallelWriters.offer( this );
+        }
+    }
+
     public boolean wasDirtyOnStartup()
     {
         return dirtyOnStartup;
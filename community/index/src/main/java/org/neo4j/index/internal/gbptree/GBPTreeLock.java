@@ -25,11 +25,20 @@ import java.util.concurrent.locks.LockSupport;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.util.VisibleForTesting;
 
+/**
+ * Lock with an exclusive writer part, an exclusive cleaner part and a shared parallel writer part.
+ * <p>
+ * Parallel writers can hold the lock together, but not together with either of the exclusive parts.
+ * Taking an exclusive part first blocks new parallel writers and then waits for the current ones to let go,
+ * so that checkpoints are not starved by a steady stream of parallel writers.
+ */
 class GBPTreeLock
 {
     private static final long stateOffset = UnsafeUtil.getFieldOffset( GBPTreeLock.class, "state" );
     private static final long writerLockBit = 0x00000000_00000001L;
     private static final long cleanerLockBit = 0x00000000_00000002L;
+    private static final int parallelWritersShift = 32;
+    private static final long parallelWriter = 1L << parallelWritersShift;
     private volatile long state;
 
     // Used for testing
@@ -70,6 +79,35 @@ class GBPTreeLock
         doUnlock( writerLockBit | cleanerLockBit );
     }
 
+    void parallelWriterLock()
+    {
+        long currentState;
+        do
+        {
+            currentState = state;
+            while ( !canLock( currentState, writerLockBit | cleanerLockBit ) )
+            {
+                sleep();
+                currentState = state;
+            }
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState + parallelWriter ) );
+    }
+
+    void parallelWriterUnlock()
+    {
+        long currentState;
+        do
+        {
+            currentState = state;
+            if ( parallelWriters( currentState ) == 0 )
+            {
+                throw new IllegalStateException( "Can not unlock parallel writer lock that is not locked" );
+            }
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState - parallelWriter ) );
+    }
+
     private void doLock( long targetLockBit )
     {
         long currentState;
@@ -85,6 +123,12 @@ class GBPTreeLock
             }
             newState = currentState | targetLockBit;
         } while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, newState ) );
+
+        // New parallel writers are now blocked, wait for the current ones to close
+        while ( parallelWriters( state ) > 0 )
+        {
+            sleep();
+        }
     }
 
     private void doUnlock( long targetLockBit )
@@ -113,6 +157,11 @@ class GBPTreeLock
         return (state & targetLockBit) == targetLockBit;
     }
 
+    private static long parallelWriters( long state )
+    {
+        return state >>> parallelWritersShift;
+    }
+
     private void sleep()
     {
         LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 10 ) );
@@ -122,6 +122,45 @@ public interface Layout<KEY, VALUE> extends Comparator<KEY>
         copyKey( right, into );
     }
 
+    /**
+     * Whether or not tree nodes should store bytes that all keys in a node start with only once. Only considered for
+     * dynamic size layouts and only when creating a new tree, existing trees keep the format they were created with.
+     * Keys are then written using {@link #writeKeyForPrefixCompression(PageCursor, Object)}, which should write keys
+     * such that keys sharing a common byte prefix are adjacent in sort order.
+     *
+     * @return true if key prefixes should be compressed, otherwise false.
+     */
+    default boolean compressKeyPrefixes()
+    {
+        return false;
+    }
+
+    /**
+     * Writes contents of {@code key} into {@code cursor} at its current offset, for tree nodes compressing key prefixes,
+     * see {@link #compressKeyPrefixes()}. Must write exactly {@link #keySize(Object)} bytes. Layouts whose
+     * {@link #writeKey(PageCursor, Object)} starts with the most significant bytes in sort order don't need to override this.
+     *
+     * @param cursor {@link PageCursor} to write into, at current offset.
+     * @param key key containing data to write.
+     */
+    default void writeKeyForPrefixCompression( PageCursor cursor, KEY key )
+    {
+        writeKey( cursor, key );
+    }
+
+    /**
+     * Reads key contents written by {@link #writeKeyForPrefixCompression(PageCursor, Object)} at {@code cursor}
+     * at its current offset into {@code key}.
+     *
+     * @param cursor {@link PageCursor} to read from, at current offset.
+     * @param into key instances to read into.
+     * @param keySize size of key to read.
+     */
+    default void readKeyForPrefixCompression( PageCursor cursor, KEY into, int keySize )
+    {
+        readKey( cursor, into, keySize );
+    }
+
     /**
      * Used as verification when loading an index after creation, to verify that the same layout is used,
      * as the one it was initially created with.
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.neo4j.index.internal.gbptree.KeySearch.isHit;
+import static org.neo4j.index.internal.gbptree.KeySearch.positionOf;
+import static org.neo4j.index.internal.gbptree.TreeNode.Overflow.NO_NEED_DEFRAG;
+import static org.neo4j.index.internal.gbptree.TreeNode.Overflow.YES;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+/**
+ * Insert and remove for parallel writers, for the common case where a change can be made inside a single leaf.
+ * <p>
+ * The caller must hold the tree structure latch in shared mode, which guarantees that no internal node,
+ * sibling pointer or root changes while the change is made. The path down to the leaf can therefore be read
+ * without latches, and only the leaf itself is latched, exclusively, while it is being changed.
+ * <p>
+ * A change that needs anything more than its leaf, i.e. a leaf that would overflow, a leaf that would become empty,
+ * a value that changes in size, or a leaf that is of a stable generation and first needs a successor, is left
+ * untouched and reported back as {@link Result#STRUCTURE_CHANGE_NEEDED}. The caller is then expected to redo the change
+ * with {@link InternalTreeLogic}, holding the structure latch exclusively. The {@link ValueMerger} may therefore be
+ * called twice for the same change.
+ * <p>
+ * Removals that leave a leaf less than half full are allowed here. Such a leaf is still a valid leaf, and it is
+ * rebalanced with its siblings by the next change that needs a structure change in it.
+ *
+ * @param <KEY> type of internal/leaf keys
+ * @param <VALUE> type of leaf values
+ */
+class OptimisticTreeLogic<KEY,VALUE>
+{
+    enum Result
+    {
+        DONE,
+        NOT_FOUND,
+        STRUCTURE_CHANGE_NEEDED
+    }
+
+    private final TreeNode<KEY,VALUE> bTreeNode;
+    private final TreeNodeLatches latches;
+    private final KEY readKey;
+    private final VALUE readValue;
+
+    /**
+     * @param bTreeNode {@link TreeNode} private to this writer, since it keeps state while defragmenting.
+     * @param latches the latches of the tree, shared between all parallel writers.
+     * @param layout the layout of the tree.
+     */
+    OptimisticTreeLogic( TreeNode<KEY,VALUE> bTreeNode, TreeNodeLatches latches, Layout<KEY,VALUE> layout )
+    {
+        this.bTreeNode = bTreeNode;
+        this.latches = latches;
+        this.readKey = layout.newKey();
+        this.readValue = layout.newValue();
+    }
+
+    Result insert( PageCursor cursor, long rootId, KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, boolean createIfNotExists,
+            long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        bTreeNode.validateKeyValueSize( key, value );
+        moveToLeaf( cursor, rootId, key, stableGeneration, unstableGeneration );
+        ReentrantLock latch = latches.latch( cursor.getCurrentPageId() );
+        latch.lock();
+        try
+        {
+            if ( TreeNode.generation( cursor ) != unstableGeneration )
+            {
+                return Result.STRUCTURE_CHANGE_NEEDED;
+            }
+            int keyCount = TreeNode.keyCount( cursor );
+            int search = search( cursor, LEAF, key, keyCount );
+            int pos = positionOf( search );
+            if ( isHit( search ) )
+            {
+                return mergeValue( cursor, key, value, valueMerger, pos, keyCount, rootId, stableGeneration, unstableGeneration );
+            }
+            if ( !createIfNotExists )
+            {
+                return Result.DONE;
+            }
+
+            TreeNode.Overflow overflow = bTreeNode.leafOverflow( cursor, keyCount, key, value );
+            if ( overflow == YES )
+            {
+                return Result.STRUCTURE_CHANGE_NEEDED;
+            }
+            if ( overflow == NO_NEED_DEFRAG )
+            {
+                bTreeNode.defragmentLeaf( cursor );
+            }
+            bTreeNode.insertKeyValueAt( cursor, key, value, pos, keyCount, stableGeneration, unstableGeneration );
+            TreeNode.setKeyCount( cursor, keyCount + 1 );
+            return Result.DONE;
+        }
+        finally
+        {
+            latch.unlock();
+        }
+    }
+
+    private Result mergeValue( PageCursor cursor, KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, int pos, int keyCount, long rootId,
+            long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        bTreeNode.valueAt( cursor, readValue, pos );
+        ValueMerger.MergeResult mergeResult = valueMerger.merge( readKey, key, readValue, value );
+        switch ( mergeResult )
+        {
+        case UNCHANGED:
+            return Result.DONE;
+        case REPLACED:
+        case MERGED:
+            VALUE mergedValue = mergeResult == ValueMerger.MergeResult.REPLACED ? value : readValue;
+            return bTreeNode.setValueAt( cursor, mergedValue, pos ) ? Result.DONE : Result.STRUCTURE_CHANGE_NEEDED;
+        case REMOVED:
+            if ( wouldEmptyNonRootLeaf( cursor, keyCount, rootId ) )
+            {
+                return Result.STRUCTURE_CHANGE_NEEDED;
+            }
+            bTreeNode.removeKeyValueAt( cursor, pos, keyCount, stableGeneration, unstableGeneration );
+            TreeNode.setKeyCount( cursor, keyCount - 1 );
+            return Result.DONE;
+        default:
+            throw new UnsupportedOperationException( "Unexpected merge result " + mergeResult );
+        }
+    }
+
+    Result remove( PageCursor cursor, long rootId, KEY key, VALUE into, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        moveToLeaf( cursor, rootId, key, stableGeneration, unstableGeneration );
+        ReentrantLock latch = latches.latch( cursor.getCurrentPageId() );
+        latch.lock();
+        try
+        {
+            int keyCount = TreeNode.keyCount( cursor );
+            int search = search( cursor, LEAF, key, keyCount );
+            if ( !isHit( search ) )
+            {
+                return Result.NOT_FOUND;
+            }
+            if ( TreeNode.generation( cursor ) != unstableGeneration || wouldEmptyNonRootLeaf( cursor, keyCount, rootId ) )
+            {
+                return Result.STRUCTURE_CHANGE_NEEDED;
+            }
+            int pos = positionOf( search );
+            bTreeNode.valueAt( cursor, into, pos );
+            bTreeNode.removeKeyValueAt( cursor, pos, keyCount, stableGeneration, unstableGeneration );
+            TreeNode.setKeyCount( cursor, keyCount - 1 );
+            return Result.DONE;
+        }
+        finally
+        {
+            latch.unlock();
+        }
+    }
+
+    private static boolean wouldEmptyNonRootLeaf( PageCursor cursor, int keyCount, long rootId )
+    {
+        return keyCount == 1 && cursor.getCurrentPageId() != rootId;
+    }
+
+    private void moveToLeaf( PageCursor cursor, long rootId, KEY key, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        TreeNode.goTo( cursor, "root", rootId );
+        while ( TreeNode.isInternal( cursor ) )
+        {
+            int keyCount = TreeNode.keyCount( cursor );
+            int search = search( cursor, INTERNAL, key, keyCount );
+            int childPos = positionOf( search );
+            if ( isHit( search ) )
+            {
+                childPos++;
+            }
+            long childId = bTreeNode.childAt( cursor, childPos, stableGeneration, unstableGeneration );
+            PointerChecking.checkPointer( childId, false );
+            TreeNode.goTo( cursor, "child", childId );
+        }
+    }
+
+    private int search( PageCursor cursor, TreeNode.Type type, KEY key, int keyCount )
+    {
+        int searchResult = KeySearch.search( cursor, bTreeNode, type, key, readKey, keyCount );
+        KeySearch.assertSuccess( searchResult );
+        return searchResult;
+    }
+}
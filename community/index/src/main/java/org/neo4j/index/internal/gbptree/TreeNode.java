@@ -353,6 +353,13 @@ abstract class TreeNode<KEY,VALUE>
 
     abstract boolean leafUnderflow( PageCursor cursor, int keyCount );
 
+    /**
+     * Has the node been filled to at least the given fill factor? Used when bulk loading to decide when to move on to a new node.
+     * @param fillFactor fraction of the node capacity, in the range (0,1].
+     * @return true if node with {@code keyCount} keys uses at least {@code fillFactor} of its capacity, else false.
+     */
+    abstract boolean reachedFillFactor( PageCursor cursor, int keyCount, Type type, double fillFactor );
+
     /**
      * How do we best rebalance left and right leaf?
      * Can we move keys from underflowing left to right so that none of them underflow?
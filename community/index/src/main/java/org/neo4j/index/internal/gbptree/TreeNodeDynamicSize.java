@@ -731,6 +731,16 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return availableSpace > halfSpace;
     }
 
+    @Override
+    boolean reachedFillFactor( PageCursor cursor, int keyCount, Type type, double fillFactor )
+    {
+        int allocSpace = getAllocSpace( cursor, keyCount, type );
+        int deadSpace = getDeadSpace( cursor );
+        int usedSpace = totalSpace - allocSpace - deadSpace;
+
+        return usedSpace >= totalSpace * fillFactor;
+    }
+
     @Override
     int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
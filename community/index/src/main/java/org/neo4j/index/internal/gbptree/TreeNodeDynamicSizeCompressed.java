@@ -0,0 +1,1247 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.CursorException;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.util.VisibleForTesting;
+
+import static java.lang.String.format;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.SIZE_OFFSET;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.SIZE_TOTAL_OVERHEAD;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractKeySize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.getOverhead;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putKeyOffset;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putKeyValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.readKeyOffset;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.readKeyValueSize;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+/**
+ * Dynamic size tree node which stores the bytes that all keys in the node start with, the prefix, only once.
+ * Each key entry only contains the remaining suffix of the key. Keys are written using
+ * {@link Layout#writeKeyForPrefixCompression(PageCursor, Object)} so that a layout can place the bytes that
+ * neighbouring keys have in common first. Combined with {@link Layout#minimalSplitter(Object, Object, Object)}
+ * keeping separator keys in internal nodes short, this makes nodes of e.g. text keys with long shared prefixes
+ * hold considerably more keys than {@link TreeNodeDynamicSize}.
+ *
+ * # = empty space
+ * K* = offset to key suffix or key suffix and value
+ * P = prefix
+ *
+ * LEAF
+ * [                                   HEADER   86B                                                      ]|[KEY_OFFSETS]##########[KEYS_VALUES][P]
+ * [NODETYPE][TYPE][GENERATION][KEYCOUNT][RIGHTSIBLING][LEFTSIBLING][SUCCESSOR][ALLOCOFFSET][PREFIXLENGTH]|[K0*,K1*,K2*]->      <-[KV0,KV2,KV1][P]
+ *  0         1     2           6         10            34           58         82           84             86
+ *
+ *  INTERNAL
+ * [                                   HEADER   86B                                                      ]|[  KEY_OFFSET_CHILDREN  ]######[  KEYS  ][P]
+ * [NODETYPE][TYPE][GENERATION][KEYCOUNT][RIGHTSIBLING][LEFTSIBLING][SUCCESSOR][ALLOCOFFSET][PREFIXLENGTH]|[C0,K0*,C1,K1*,C2,K2*,C3]->  <-[K2,K0,K1][P]
+ *  0         1     2           6         10            34           58         82           84             86
+ *
+ * Individual key and key_value entries use the same size header as {@link TreeNodeDynamicSize}, see {@link DynamicSizeUtil},
+ * with key size being the size of the suffix. The offset array is kept in key order, so keys are still binary searched
+ * within a node, each key being materialized as prefix + suffix when read.
+ * <p>
+ * Differences from {@link TreeNodeDynamicSize}:
+ * <ul>
+ *     <li>Keys are never offloaded, {@link #keyValueSizeCap()} is the same as {@link #inlineKeyValueSizeCap()}.</li>
+ *     <li>There is no dead space. Inserting a key which starts with the prefix appends it like {@link TreeNodeDynamicSize} does,
+ *     all other changes rewrite the node compactly with a prefix that is recalculated from the keys that end up in it.</li>
+ * </ul>
+ * Splitting relies on keys that share a prefix being adjacent in sort order, which holds for layouts that write keys in an
+ * order preserving way.
+ */
+public class TreeNodeDynamicSizeCompressed<KEY, VALUE> extends TreeNode<KEY,VALUE>
+{
+    static final byte FORMAT_IDENTIFIER = 4;
+    static final byte FORMAT_VERSION = 0;
+
+    private static final int BYTE_POS_ALLOCOFFSET = BASE_HEADER_LENGTH;
+    private static final int BYTE_POS_PREFIXLENGTH = BYTE_POS_ALLOCOFFSET + SIZE_OFFSET;
+    @VisibleForTesting
+    static final int HEADER_LENGTH_COMPRESSED = BYTE_POS_PREFIXLENGTH + SIZE_OFFSET;
+
+    private static final int LEAST_NUMBER_OF_ENTRIES_PER_PAGE = 2;
+    private static final int MINIMUM_ENTRY_SIZE_CAP = Long.SIZE;
+    private final int keyValueSizeCap;
+    private final int totalSpace;
+    private final int halfSpace;
+    private final ThreadLocal<KeyBuffer> keyBuffers;
+
+    // Writer state
+    private final Entries entries = new Entries();
+    private int[] leftSizes = new int[0];
+    private int[] rightSizes = new int[0];
+    private final KEY tmpKeyLeft;
+    private final KEY tmpKeyRight;
+
+    TreeNodeDynamicSizeCompressed( int pageSize, Layout<KEY,VALUE> layout )
+    {
+        super( pageSize, layout );
+        totalSpace = pageSize - HEADER_LENGTH_COMPRESSED;
+        halfSpace = totalSpace / 2;
+        keyValueSizeCap = keyValueSizeCapFromPageSize( pageSize );
+
+        if ( keyValueSizeCap < MINIMUM_ENTRY_SIZE_CAP )
+        {
+            throw new MetadataMismatchException(
+                    "We need to fit at least %d key-value entries per page in leaves. To do that a key-value entry can be at most %dB " +
+                            "with current page size of %dB. We require this cap to be at least %dB.",
+                    LEAST_NUMBER_OF_ENTRIES_PER_PAGE, keyValueSizeCap, pageSize, Long.BYTES );
+        }
+
+        keyBuffers = ThreadLocal.withInitial( () -> new KeyBuffer( pageSize ) );
+        tmpKeyLeft = layout.newKey();
+        tmpKeyRight = layout.newKey();
+    }
+
+    /**
+     * Two keys and the three children around them must fit in an internal node, otherwise a split could leave a node without keys.
+     */
+    @VisibleForTesting
+    public static int keyValueSizeCapFromPageSize( int pageSize )
+    {
+        return (pageSize - HEADER_LENGTH_COMPRESSED - 3 * SIZE_PAGE_REFERENCE) / LEAST_NUMBER_OF_ENTRIES_PER_PAGE - SIZE_TOTAL_OVERHEAD;
+    }
+
+    @Override
+    void writeAdditionalHeader( PageCursor cursor )
+    {
+        setAllocOffset( cursor, pageSize );
+        setPrefixLength( cursor, 0 );
+    }
+
+    @Override
+    long offloadIdAt( PageCursor cursor, int pos, Type type )
+    {
+        return NO_OFFLOAD_ID;
+    }
+
+    @Override
+    KEY keyAt( PageCursor cursor, KEY into, int pos, Type type )
+    {
+        placeCursorAtActualKey( cursor, pos, type );
+
+        long keyValueSize = readKeyValueSize( cursor, false );
+        readKey( cursor, into, extractKeySize( keyValueSize ), extractValueSize( keyValueSize ), pos );
+        return into;
+    }
+
+    @Override
+    void keyValueAt( PageCursor cursor, KEY intoKey, VALUE intoValue, int pos )
+    {
+        placeCursorAtActualKey( cursor, pos, LEAF );
+
+        long keyValueSize = readKeyValueSize( cursor, false );
+        int valueSize = extractValueSize( keyValueSize );
+        if ( readKey( cursor, intoKey, extractKeySize( keyValueSize ), valueSize, pos ) )
+        {
+            layout.readValue( cursor, intoValue, valueSize );
+        }
+    }
+
+    /**
+     * Reads the key which suffix the cursor is placed at, leaving the cursor placed after the suffix.
+     * @return true if key sizes were reasonable, otherwise false and an exception has been set on the cursor.
+     */
+    private boolean readKey( PageCursor cursor, KEY into, int suffixSize, int valueSize, int pos )
+    {
+        int prefixLength = getPrefixLength( cursor );
+        if ( keyValueSizeTooLarge( prefixLength + suffixSize, valueSize ) || suffixSize < 0 || valueSize < 0 )
+        {
+            readUnreliableKeyValueSize( cursor, prefixLength, suffixSize, valueSize, pos );
+            return false;
+        }
+
+        int suffixOffset = cursor.getOffset();
+        KeyBuffer buffer = keyBuffers.get();
+        cursor.setOffset( pageSize - prefixLength );
+        cursor.getBytes( buffer.bytes, 0, prefixLength );
+        cursor.setOffset( suffixOffset );
+        cursor.getBytes( buffer.bytes, prefixLength, suffixSize );
+        try
+        {
+            buffer.cursor.setOffset( 0 );
+            layout.readKeyForPrefixCompression( buffer.cursor, into, prefixLength + suffixSize );
+            buffer.cursor.checkAndClearCursorException();
+        }
+        catch ( CursorException e )
+        {
+            cursor.setCursorException( e.getMessage() );
+        }
+        catch ( BufferUnderflowException | IndexOutOfBoundsException e )
+        {
+            // Only inconsistent reads, that are about to be retried, can make the layout read outside of the key
+            cursor.setCursorException( format( "Failed to read key, id=%d, prefixLength=%d, suffixSize=%d, pos=%d, cause: %s",
+                    cursor.getCurrentPageId(), prefixLength, suffixSize, pos, e ) );
+        }
+        return true;
+    }
+
+    @Override
+    void insertKeyAndRightChildAt( PageCursor cursor, KEY key, long child, int pos, int keyCount, long stableGeneration,
+            long unstableGeneration )
+    {
+        if ( tryAppendKeyValue( cursor, key, null, keyCount, INTERNAL ) )
+        {
+            insertSlotsAt( cursor, pos, 1, keyCount, keyPosOffsetInternal( 0 ), keyChildSize() );
+            cursor.setOffset( keyPosOffsetInternal( pos ) );
+            putKeyOffset( cursor, getAllocOffset( cursor ) );
+            writeChild( cursor, child, stableGeneration, unstableGeneration );
+            return;
+        }
+
+        // Key doesn't start with prefix, rewrite node with a shorter one
+        entries.clear();
+        loadEntries( cursor, 0, pos, INTERNAL );
+        addEntry( key, null );
+        loadEntries( cursor, pos, keyCount, INTERNAL );
+
+        insertSlotsAt( cursor, pos, 1, keyCount, keyPosOffsetInternal( 0 ), keyChildSize() );
+        cursor.setOffset( keyPosOffsetInternal( pos ) );
+        putKeyOffset( cursor, 0 );
+        writeChild( cursor, child, stableGeneration, unstableGeneration );
+        writeEntries( cursor, 0, keyCount + 1, INTERNAL );
+    }
+
+    @Override
+    void insertKeyValueAt( PageCursor cursor, KEY key, VALUE value, int pos, int keyCount, long stableGeneration, long unstableGeneration )
+    {
+        if ( tryAppendKeyValue( cursor, key, value, keyCount, LEAF ) )
+        {
+            insertSlotsAt( cursor, pos, 1, keyCount, keyPosOffsetLeaf( 0 ), SIZE_OFFSET );
+            cursor.setOffset( keyPosOffsetLeaf( pos ) );
+            putKeyOffset( cursor, getAllocOffset( cursor ) );
+            return;
+        }
+
+        // Key doesn't start with prefix, rewrite node with a shorter one
+        entries.clear();
+        loadEntries( cursor, 0, pos, LEAF );
+        addEntry( key, value );
+        loadEntries( cursor, pos, keyCount, LEAF );
+        writeEntries( cursor, 0, keyCount + 1, LEAF );
+    }
+
+    /**
+     * Writes key, and value if leaf, next to alloc offset if the key starts with the prefix of the node.
+     * Offset array is left for caller to update.
+     * @return true if key was written, otherwise false.
+     */
+    private boolean tryAppendKeyValue( PageCursor cursor, KEY key, VALUE value, int keyCount, Type type )
+    {
+        if ( keyCount == 0 )
+        {
+            // Prefix of an empty node is meaningless, let the rewrite give it one
+            return false;
+        }
+        entries.clear();
+        addEntry( key, value );
+        int prefixLength = getPrefixLength( cursor );
+        if ( commonPrefixWithNode( cursor, prefixLength ) < prefixLength )
+        {
+            return false;
+        }
+
+        int suffixSize = entries.keyLength( 0 ) - prefixLength;
+        int valueSize = entries.valueLength( 0 );
+        int newKeyOffset = getAllocOffset( cursor ) - getOverhead( suffixSize, valueSize, false ) - suffixSize - valueSize;
+        cursor.setOffset( newKeyOffset );
+        putKeyValueSize( cursor, suffixSize, valueSize, false );
+        entries.writeKey( cursor, 0, prefixLength, suffixSize );
+        entries.writeValue( cursor, 0 );
+        setAllocOffset( cursor, newKeyOffset );
+        return true;
+    }
+
+    @Override
+    void removeKeyValueAt( PageCursor cursor, int pos, int keyCount, long stableGeneration, long unstableGeneration )
+    {
+        entries.clear();
+        loadEntries( cursor, 0, pos, LEAF );
+        loadEntries( cursor, pos + 1, keyCount, LEAF );
+        writeEntries( cursor, 0, keyCount - 1, LEAF );
+    }
+
+    @Override
+    void removeKeyAndRightChildAt( PageCursor cursor, int keyPos, int keyCount, long stableGeneration, long unstableGeneration )
+    {
+        entries.clear();
+        loadEntries( cursor, 0, keyPos, INTERNAL );
+        loadEntries( cursor, keyPos + 1, keyCount, INTERNAL );
+
+        // Remove from offsetArray
+        removeSlotAt( cursor, keyPos, keyCount, keyPosOffsetInternal( 0 ), keyChildSize() );
+
+        writeEntries( cursor, 0, keyCount - 1, INTERNAL );
+    }
+
+    @Override
+    void removeKeyAndLeftChildAt( PageCursor cursor, int keyPos, int keyCount, long stableGeneration, long unstableGeneration )
+    {
+        entries.clear();
+        loadEntries( cursor, 0, keyPos, INTERNAL );
+        loadEntries( cursor, keyPos + 1, keyCount, INTERNAL );
+
+        // Remove from offsetArray
+        removeSlotAt( cursor, keyPos, keyCount, keyPosOffsetInternal( 0 ) - childSize(), keyChildSize() );
+
+        // Move last child
+        cursor.copyTo( childOffset( keyCount ), cursor, childOffset( keyCount - 1 ), childSize() );
+
+        writeEntries( cursor, 0, keyCount - 1, INTERNAL );
+    }
+
+    @Override
+    boolean setKeyAtInternal( PageCursor cursor, KEY key, int pos )
+    {
+        entries.clear();
+        addEntry( key, null );
+        int prefixLength = getPrefixLength( cursor );
+        if ( commonPrefixWithNode( cursor, prefixLength ) < prefixLength )
+        {
+            return false;
+        }
+
+        placeCursorAtActualKey( cursor, pos, INTERNAL );
+        int keyOffset = cursor.getOffset();
+        int oldSuffixSize = extractKeySize( readKeyValueSize( cursor, false ) );
+        int newSuffixSize = entries.keyLength( 0 ) - prefixLength;
+        if ( newSuffixSize == oldSuffixSize )
+        {
+            // Fine, we can just overwrite
+            cursor.setOffset( keyOffset );
+            putKeyValueSize( cursor, newSuffixSize, 0, false );
+            entries.writeKey( cursor, 0, prefixLength, newSuffixSize );
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    VALUE valueAt( PageCursor cursor, VALUE into, int pos )
+    {
+        placeCursorAtActualKey( cursor, pos, LEAF );
+
+        long keyValueSize = readKeyValueSize( cursor, false );
+        int suffixSize = extractKeySize( keyValueSize );
+        int valueSize = extractValueSize( keyValueSize );
+        if ( keyValueSizeTooLarge( suffixSize, valueSize ) || suffixSize < 0 || valueSize < 0 )
+        {
+            readUnreliableKeyValueSize( cursor, getPrefixLength( cursor ), suffixSize, valueSize, pos );
+            return into;
+        }
+        cursor.setOffset( cursor.getOffset() + suffixSize );
+        layout.readValue( cursor, into, valueSize );
+        return into;
+    }
+
+    @Override
+    boolean setValueAt( PageCursor cursor, VALUE value, int pos )
+    {
+        placeCursorAtActualKey( cursor, pos, LEAF );
+
+        long keyValueSize = readKeyValueSize( cursor, false );
+        int suffixSize = extractKeySize( keyValueSize );
+        int oldValueSize = extractValueSize( keyValueSize );
+        int newValueSize = layout.valueSize( value );
+        if ( oldValueSize == newValueSize )
+        {
+            // Fine we can just overwrite
+            cursor.setOffset( cursor.getOffset() + suffixSize );
+            layout.writeValue( cursor, value );
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    void setChildAt( PageCursor cursor, long child, int pos, long stableGeneration, long unstableGeneration )
+    {
+        cursor.setOffset( childOffset( pos ) );
+        writeChild( cursor, child, stableGeneration, unstableGeneration );
+    }
+
+    @Override
+    public int keyValueSizeCap()
+    {
+        return keyValueSizeCap;
+    }
+
+    @Override
+    public int inlineKeyValueSizeCap()
+    {
+        return keyValueSizeCap;
+    }
+
+    @Override
+    void validateKeyValueSize( KEY key, VALUE value )
+    {
+        int keySize = layout.keySize( key );
+        int valueSize = layout.valueSize( value );
+        if ( keyValueSizeTooLarge( keySize, valueSize ) )
+        {
+            throw new IllegalArgumentException( "Index key-value size it to large. Please see index documentation for limitations." );
+        }
+    }
+
+    @Override
+    boolean reasonableKeyCount( int keyCount )
+    {
+        // Smallest possible entry is a key offset and a one byte key size with an empty suffix
+        return keyCount >= 0 && keyCount <= totalSpace / (SIZE_OFFSET + 1);
+    }
+
+    @Override
+    boolean reasonableChildCount( int childCount )
+    {
+        return reasonableKeyCount( childCount );
+    }
+
+    @Override
+    int childOffset( int pos )
+    {
+        // Child pointer to the left of key at pos
+        return keyPosOffsetInternal( pos ) - childSize();
+    }
+
+    @Override
+    Overflow internalOverflow( PageCursor cursor, int currentKeyCount, KEY newKey )
+    {
+        return overflow( cursor, currentKeyCount, newKey, null, INTERNAL );
+    }
+
+    @Override
+    Overflow leafOverflow( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue )
+    {
+        return overflow( cursor, currentKeyCount, newKey, newValue, LEAF );
+    }
+
+    /**
+     * There's never any dead space to reclaim, so never {@link Overflow#NO_NEED_DEFRAG}.
+     */
+    private Overflow overflow( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, Type type )
+    {
+        if ( currentKeyCount == 0 )
+        {
+            return Overflow.NO;
+        }
+
+        entries.clear();
+        addEntry( newKey, newValue );
+        int prefixLength = getPrefixLength( cursor );
+        int newPrefixLength = commonPrefixWithNode( cursor, prefixLength );
+        if ( newPrefixLength == prefixLength )
+        {
+            int neededSpace = entrySize( 0, prefixLength, type );
+            return neededSpace <= getAllocSpace( cursor, currentKeyCount, type ) ? Overflow.NO : Overflow.YES;
+        }
+
+        // Shorter prefix makes all keys in node grow
+        int neededSpace = activeSpaceWithPrefix( cursor, currentKeyCount, type, newPrefixLength ) + entrySize( 0, newPrefixLength, type );
+        return neededSpace <= totalSpace ? Overflow.NO : Overflow.YES;
+    }
+
+    @Override
+    void defragmentLeaf( PageCursor cursor )
+    {   // Nodes are always kept compact
+    }
+
+    @Override
+    void defragmentInternal( PageCursor cursor )
+    {   // Nodes are always kept compact
+    }
+
+    @Override
+    boolean leafUnderflow( PageCursor cursor, int keyCount )
+    {
+        return getAllocSpace( cursor, keyCount, LEAF ) > halfSpace;
+    }
+
+    @Override
+    boolean reachedFillFactor( PageCursor cursor, int keyCount, Type type, double fillFactor )
+    {
+        int usedSpace = totalSpace - getAllocSpace( cursor, keyCount, type );
+        return usedSpace >= totalSpace * fillFactor;
+    }
+
+    @Override
+    int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        int leftActiveSpace = totalSpace - getAllocSpace( leftCursor, leftKeyCount, LEAF );
+        int rightActiveSpace = totalSpace - getAllocSpace( rightCursor, rightKeyCount, LEAF );
+
+        entries.clear();
+        loadEntries( leftCursor, 0, leftKeyCount, LEAF );
+        loadEntries( rightCursor, 0, rightKeyCount, LEAF );
+        int count = leftKeyCount + rightKeyCount;
+        calculateSplitSizes( count, LEAF );
+        if ( leftSizes[count] <= totalSpace )
+        {
+            // We can merge
+            return -1;
+        }
+        if ( leftActiveSpace < rightActiveSpace )
+        {
+            // Moving keys to the right will only create more imbalance
+            return 0;
+        }
+
+        int bestPos = -1;
+        int bestDelta = Integer.MAX_VALUE;
+        for ( int pos = leftKeyCount - 1; pos > 0; pos-- )
+        {
+            int leftSpace = leftSizes[pos];
+            int rightSpace = rightSizes[pos];
+            int delta = Math.abs( leftSpace - rightSpace );
+            if ( rightSpace <= totalSpace && delta < bestDelta )
+            {
+                bestPos = pos;
+                bestDelta = delta;
+            }
+        }
+        boolean canRebalance = bestPos != -1 && leftSizes[bestPos] > halfSpace && rightSizes[bestPos] > halfSpace;
+        return canRebalance ? leftKeyCount - bestPos : 0;
+    }
+
+    @Override
+    boolean canMergeLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        entries.clear();
+        loadEntries( leftCursor, 0, leftKeyCount, LEAF );
+        loadEntries( rightCursor, 0, rightKeyCount, LEAF );
+        int count = leftKeyCount + rightKeyCount;
+        return activeSpace( 0, count, entries.commonPrefix( 0, count ), LEAF ) <= totalSpace;
+    }
+
+    @Override
+    void doSplitLeaf( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int insertPos, KEY newKey,
+            VALUE newValue, KEY newSplitter, double ratioToKeepInLeftOnSplit, long stableGeneration, long unstableGeneration )
+    {
+        int keyCountAfterInsert = leftKeyCount + 1;
+        entries.clear();
+        loadEntries( leftCursor, 0, insertPos, LEAF );
+        addEntry( newKey, newValue );
+        loadEntries( leftCursor, insertPos, leftKeyCount, LEAF );
+
+        int splitPos = splitPos( keyCountAfterInsert, LEAF, ratioToKeepInLeftOnSplit );
+        layout.minimalSplitter( readEntryKey( splitPos - 1, tmpKeyLeft ), readEntryKey( splitPos, tmpKeyRight ), newSplitter );
+
+        writeEntries( leftCursor, 0, splitPos, LEAF );
+        writeEntries( rightCursor, splitPos, keyCountAfterInsert, LEAF );
+        TreeNode.setKeyCount( leftCursor, splitPos );
+        TreeNode.setKeyCount( rightCursor, keyCountAfterInsert - splitPos );
+    }
+
+    @Override
+    void doSplitInternal( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int insertPos, KEY newKey,
+            long newRightChild, long stableGeneration, long unstableGeneration, KEY newSplitter, double ratioToKeepInLeftOnSplit )
+    {
+        int keyCountAfterInsert = leftKeyCount + 1;
+        entries.clear();
+        loadEntries( leftCursor, 0, insertPos, INTERNAL );
+        addEntry( newKey, null );
+        loadEntries( leftCursor, insertPos, leftKeyCount, INTERNAL );
+        loadChildren( leftCursor, 0, insertPos + 1 );
+        entries.addChild( Entries.NEW_CHILD );
+        loadChildren( leftCursor, insertPos + 1, leftKeyCount + 1 );
+
+        // Key at split position is sent up to parent and kept in neither of the two
+        int splitPos = splitPos( keyCountAfterInsert, INTERNAL, ratioToKeepInLeftOnSplit );
+        readEntryKey( splitPos, newSplitter );
+
+        writeChildren( leftCursor, 0, splitPos + 1, newRightChild, stableGeneration, unstableGeneration );
+        writeEntries( leftCursor, 0, splitPos, INTERNAL );
+        writeChildren( rightCursor, splitPos + 1, keyCountAfterInsert + 1, newRightChild, stableGeneration, unstableGeneration );
+        writeEntries( rightCursor, splitPos + 1, keyCountAfterInsert, INTERNAL );
+        TreeNode.setKeyCount( leftCursor, splitPos );
+        TreeNode.setKeyCount( rightCursor, keyCountAfterInsert - splitPos - 1 );
+    }
+
+    @Override
+    void moveKeyValuesFromLeftToRight( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount,
+            int fromPosInLeftNode )
+    {
+        entries.clear();
+        loadEntries( leftCursor, 0, leftKeyCount, LEAF );
+        loadEntries( rightCursor, 0, rightKeyCount, LEAF );
+        int count = leftKeyCount + rightKeyCount;
+
+        writeEntries( leftCursor, 0, fromPosInLeftNode, LEAF );
+        writeEntries( rightCursor, fromPosInLeftNode, count, LEAF );
+        setKeyCount( leftCursor, fromPosInLeftNode );
+        setKeyCount( rightCursor, count - fromPosInLeftNode );
+    }
+
+    @Override
+    void copyKeyValuesFromLeftToRight( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        entries.clear();
+        loadEntries( leftCursor, 0, leftKeyCount, LEAF );
+        loadEntries( rightCursor, 0, rightKeyCount, LEAF );
+        int count = leftKeyCount + rightKeyCount;
+
+        writeEntries( rightCursor, 0, count, LEAF );
+        setKeyCount( rightCursor, count );
+    }
+
+    /**
+     * Picks the split position, among those where both nodes fit their keys, which comes closest to ratioToKeepInLeftOnSplit
+     * of the total space used. For internal nodes the key at the returned position goes to neither node.
+     */
+    private int splitPos( int keyCountAfterInsert, Type type, double ratioToKeepInLeftOnSplit )
+    {
+        calculateSplitSizes( keyCountAfterInsert, type );
+        int lastPos = type == LEAF ? keyCountAfterInsert - 1 : keyCountAfterInsert - 2;
+        int splitPos = -1;
+        double bestDelta = Double.MAX_VALUE;
+        for ( int pos = 1; pos <= lastPos; pos++ )
+        {
+            int leftSpace = leftSizes[pos];
+            int rightSpace = type == LEAF ? rightSizes[pos] : rightSizes[pos + 1];
+            double delta = Math.abs( leftSpace - ratioToKeepInLeftOnSplit * (leftSpace + rightSpace) );
+            if ( leftSpace <= totalSpace && rightSpace <= totalSpace && delta < bestDelta )
+            {
+                splitPos = pos;
+                bestDelta = delta;
+            }
+        }
+        if ( splitPos == -1 )
+        {
+            throw new IllegalStateException( format( "There's not enough space to insert new key, even when splitting the node. " +
+                    "Keys that share prefix are expected to be adjacent in sort order. Key count:%d, max space allowed:%d",
+                    keyCountAfterInsert, totalSpace ) );
+        }
+        return splitPos;
+    }
+
+    /**
+     * Calculates active space of a node holding entries [0,pos) into leftSizes[pos] and of a node holding entries [pos,count)
+     * into rightSizes[pos], each using the prefix common for its own entries.
+     */
+    private void calculateSplitSizes( int count, Type type )
+    {
+        if ( leftSizes.length <= count )
+        {
+            leftSizes = new int[count + 1];
+            rightSizes = new int[count + 1];
+        }
+
+        int prefixLength = 0;
+        int space = 0;
+        leftSizes[0] = activeSpace( 0, 0, 0, type );
+        for ( int pos = 1; pos <= count; pos++ )
+        {
+            int last = pos - 1;
+            int newPrefixLength = last == 0 ? entries.keyLength( 0 ) : entries.commonPrefix( 0, last, prefixLength );
+            if ( newPrefixLength != prefixLength )
+            {
+                prefixLength = newPrefixLength;
+                space = activeSpace( 0, last, prefixLength, type ) - activeSpace( 0, 0, prefixLength, type );
+            }
+            space += entrySize( last, prefixLength, type );
+            leftSizes[pos] = space + activeSpace( 0, 0, prefixLength, type );
+        }
+
+        prefixLength = 0;
+        space = 0;
+        rightSizes[count] = activeSpace( count, count, 0, type );
+        for ( int pos = count - 1; pos >= 0; pos-- )
+        {
+            int lastPos = count - 1;
+            int newPrefixLength = pos == lastPos ? entries.keyLength( lastPos ) : entries.commonPrefix( lastPos, pos, prefixLength );
+            if ( newPrefixLength != prefixLength )
+            {
+                prefixLength = newPrefixLength;
+                space = activeSpace( pos + 1, count, prefixLength, type ) - activeSpace( 0, 0, prefixLength, type );
+            }
+            space += entrySize( pos, prefixLength, type );
+            rightSizes[pos] = space + activeSpace( 0, 0, prefixLength, type );
+        }
+    }
+
+    /**
+     * @return space a node would use if holding entries [from,to) with the given prefix.
+     */
+    private int activeSpace( int from, int to, int prefixLength, Type type )
+    {
+        int space = prefixLength + (type == INTERNAL ? childSize() : 0);
+        for ( int i = from; i < to; i++ )
+        {
+            space += entrySize( i, prefixLength, type );
+        }
+        return space;
+    }
+
+    private int entrySize( int i, int prefixLength, Type type )
+    {
+        int suffixSize = entries.keyLength( i ) - prefixLength;
+        int valueSize = entries.valueLength( i );
+        return SIZE_OFFSET + (type == INTERNAL ? childSize() : 0) + getOverhead( suffixSize, valueSize, false ) + suffixSize + valueSize;
+    }
+
+    /**
+     * @return space keys in node would use if the node would get a new, shorter, prefix.
+     */
+    private int activeSpaceWithPrefix( PageCursor cursor, int keyCount, Type type, int newPrefixLength )
+    {
+        int prefixLength = getPrefixLength( cursor );
+        int growth = prefixLength - newPrefixLength;
+        int space = newPrefixLength + (type == INTERNAL ? childSize() : 0);
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            placeCursorAtActualKey( cursor, pos, type );
+            long keyValueSize = readKeyValueSize( cursor, false );
+            int suffixSize = extractKeySize( keyValueSize ) + growth;
+            int valueSize = extractValueSize( keyValueSize );
+            space += SIZE_OFFSET + (type == INTERNAL ? childSize() : 0) + getOverhead( suffixSize, valueSize, false ) + suffixSize + valueSize;
+        }
+        return space;
+    }
+
+    /**
+     * @return length of prefix that first of {@link #entries} has in common with prefix of node, at most prefixLength.
+     */
+    private int commonPrefixWithNode( PageCursor cursor, int prefixLength )
+    {
+        int length = Math.min( prefixLength, entries.keyLength( 0 ) );
+        int prefixOffset = pageSize - prefixLength;
+        for ( int i = 0; i < length; i++ )
+        {
+            if ( cursor.getByte( prefixOffset + i ) != entries.keyByte( 0, i ) )
+            {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private void addEntry( KEY key, VALUE value )
+    {
+        int keySize = layout.keySize( key );
+        int valueSize = value == null ? 0 : layout.valueSize( value );
+        int offset = entries.reserve( keySize + valueSize );
+        PageCursor target = entries.cursorAt( offset );
+        layout.writeKeyForPrefixCompression( target, key );
+        if ( value != null )
+        {
+            layout.writeValue( target, value );
+        }
+        entries.add( offset, 0, offset, keySize, valueSize );
+    }
+
+    private void loadEntries( PageCursor cursor, int fromPos, int toPos, Type type )
+    {
+        if ( fromPos >= toPos )
+        {
+            return;
+        }
+        int prefixLength = getPrefixLength( cursor );
+        int prefixOffset = entries.append( cursor, pageSize - prefixLength, prefixLength );
+        for ( int pos = fromPos; pos < toPos; pos++ )
+        {
+            placeCursorAtActualKey( cursor, pos, type );
+            long keyValueSize = readKeyValueSize( cursor, false );
+            int suffixSize = extractKeySize( keyValueSize );
+            int valueSize = extractValueSize( keyValueSize );
+            int suffixOffset = entries.append( cursor, cursor.getOffset(), suffixSize + valueSize );
+            entries.add( prefixOffset, prefixLength, suffixOffset, suffixSize, valueSize );
+        }
+    }
+
+    private void loadChildren( PageCursor cursor, int fromPos, int toPos )
+    {
+        for ( int pos = fromPos; pos < toPos; pos++ )
+        {
+            entries.addChild( entries.append( cursor, childOffset( pos ), childSize() ) );
+        }
+    }
+
+    private KEY readEntryKey( int i, KEY into )
+    {
+        layout.readKeyForPrefixCompression( entries.keyCursor( i ), into, entries.keyLength( i ) );
+        return into;
+    }
+
+    /**
+     * Writes entries [from,to) compactly into node, with the prefix they all have in common. Does not update key count.
+     */
+    private void writeEntries( PageCursor cursor, int from, int to, Type type )
+    {
+        int prefixLength = entries.commonPrefix( from, to );
+        int allocOffset = pageSize - prefixLength;
+        if ( prefixLength > 0 )
+        {
+            cursor.setOffset( allocOffset );
+            entries.writeKey( cursor, from, 0, prefixLength );
+        }
+
+        for ( int i = from; i < to; i++ )
+        {
+            int suffixSize = entries.keyLength( i ) - prefixLength;
+            int valueSize = entries.valueLength( i );
+            allocOffset -= getOverhead( suffixSize, valueSize, false ) + suffixSize + valueSize;
+            cursor.setOffset( allocOffset );
+            putKeyValueSize( cursor, suffixSize, valueSize, false );
+            entries.writeKey( cursor, i, prefixLength, suffixSize );
+            entries.writeValue( cursor, i );
+
+            cursor.setOffset( keyPosOffset( i - from, type ) );
+            putKeyOffset( cursor, allocOffset );
+        }
+        setAllocOffset( cursor, allocOffset );
+        setPrefixLength( cursor, prefixLength );
+
+        // Zero pad alloc space
+        int offsetArrayEnd = keyPosOffset( to - from, type );
+        cursor.setOffset( offsetArrayEnd );
+        cursor.putBytes( allocOffset - offsetArrayEnd, (byte) 0 );
+    }
+
+    /**
+     * Writes children [from,to) of {@link #entries} into node, writing newChild where the new child was added.
+     */
+    private void writeChildren( PageCursor cursor, int from, int to, long newChild, long stableGeneration, long unstableGeneration )
+    {
+        for ( int i = from; i < to; i++ )
+        {
+            cursor.setOffset( childOffset( i - from ) );
+            if ( entries.isNewChild( i ) )
+            {
+                writeChild( cursor, newChild, stableGeneration, unstableGeneration );
+            }
+            else
+            {
+                entries.writeChild( cursor, i, childSize() );
+            }
+        }
+    }
+
+    private int getAllocSpace( PageCursor cursor, int keyCount, Type type )
+    {
+        int allocOffset = getAllocOffset( cursor );
+        int endOfOffsetArray = keyPosOffset( keyCount, type );
+        return allocOffset - endOfOffsetArray;
+    }
+
+    @VisibleForTesting
+    void setAllocOffset( PageCursor cursor, int allocOffset )
+    {
+        PageCursorUtil.putUnsignedShort( cursor, BYTE_POS_ALLOCOFFSET, allocOffset );
+    }
+
+    int getAllocOffset( PageCursor cursor )
+    {
+        return PageCursorUtil.getUnsignedShort( cursor, BYTE_POS_ALLOCOFFSET );
+    }
+
+    private void setPrefixLength( PageCursor cursor, int prefixLength )
+    {
+        PageCursorUtil.putUnsignedShort( cursor, BYTE_POS_PREFIXLENGTH, prefixLength );
+    }
+
+    int getPrefixLength( PageCursor cursor )
+    {
+        int prefixLength = PageCursorUtil.getUnsignedShort( cursor, BYTE_POS_PREFIXLENGTH );
+        if ( prefixLength > keyValueSizeCap )
+        {
+            cursor.setCursorException( format( "Read unreliable prefix length, id=%d, prefixLength=%d, keyValueSizeCap=%d",
+                    cursor.getCurrentPageId(), prefixLength, keyValueSizeCap ) );
+            return 0;
+        }
+        return prefixLength;
+    }
+
+    private void placeCursorAtActualKey( PageCursor cursor, int pos, Type type )
+    {
+        // Set cursor to correct place in offset array
+        int keyPosOffset = keyPosOffset( pos, type );
+        cursor.setOffset( keyPosOffset );
+
+        // Read actual offset to key
+        int keyOffset = readKeyOffset( cursor );
+
+        // Verify offset is reasonable
+        if ( keyOffset >= pageSize || keyOffset < HEADER_LENGTH_COMPRESSED )
+        {
+            cursor.setCursorException( format( "Tried to read key on offset=%d, headerLength=%d, pageSize=%d, pos=%d",
+                    keyOffset, HEADER_LENGTH_COMPRESSED, pageSize, pos ) );
+            return;
+        }
+
+        // Set cursor to actual offset
+        cursor.setOffset( keyOffset );
+    }
+
+    private void readUnreliableKeyValueSize( PageCursor cursor, int prefixLength, int suffixSize, int valueSize, int pos )
+    {
+        cursor.setCursorException( format( "Read unreliable key, id=%d, prefixLength=%d, suffixSize=%d, valueSize=%d, keyValueSizeCap=%d, pos=%d",
+                cursor.getCurrentPageId(), prefixLength, suffixSize, valueSize, keyValueSizeCap(), pos ) );
+    }
+
+    private boolean keyValueSizeTooLarge( int keySize, int valueSize )
+    {
+        return keySize + valueSize > keyValueSizeCap();
+    }
+
+    private int keyPosOffset( int pos, Type type )
+    {
+        if ( type == LEAF )
+        {
+            return keyPosOffsetLeaf( pos );
+        }
+        else
+        {
+            return keyPosOffsetInternal( pos );
+        }
+    }
+
+    private int keyPosOffsetLeaf( int pos )
+    {
+        return HEADER_LENGTH_COMPRESSED + pos * SIZE_OFFSET;
+    }
+
+    private int keyPosOffsetInternal( int pos )
+    {
+        // header + childPointer + pos * (keyPosOffsetSize + childPointer)
+        return HEADER_LENGTH_COMPRESSED + childSize() + pos * keyChildSize();
+    }
+
+    private int keyChildSize()
+    {
+        return SIZE_OFFSET + SIZE_PAGE_REFERENCE;
+    }
+
+    private int childSize()
+    {
+        return SIZE_PAGE_REFERENCE;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TreeNodeDynamicSizeCompressed[pageSize:" + pageSize + ", keyValueSizeCap:" + keyValueSizeCap() + "]";
+    }
+
+    @SuppressWarnings( "unused" )
+    @Override
+    void printNode( PageCursor cursor, boolean includeValue, boolean includeAllocSpace, long stableGeneration, long unstableGeneration )
+    {
+        int currentOffset = cursor.getOffset();
+        Type type = isInternal( cursor ) ? INTERNAL : LEAF;
+        int keyCount = keyCount( cursor );
+        StringJoiner node = new StringJoiner( " " );
+        node.add( "{" + cursor.getCurrentPageId() + "} [allocOffset=" + getAllocOffset( cursor ) + " prefixLength=" + getPrefixLength( cursor ) + "]" );
+        KEY readKey = layout.newKey();
+        VALUE readValue = layout.newValue();
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            if ( type == INTERNAL )
+            {
+                node.add( "/" + GenerationSafePointerPair.pointer( childAt( cursor, pos, stableGeneration, unstableGeneration ) ) + "\\" );
+                node.add( keyAt( cursor, readKey, pos, INTERNAL ).toString() );
+            }
+            else
+            {
+                keyValueAt( cursor, readKey, readValue, pos );
+                node.add( includeValue ? readKey + "|" + readValue : readKey.toString() );
+            }
+        }
+        if ( type == INTERNAL )
+        {
+            node.add( "/" + GenerationSafePointerPair.pointer( childAt( cursor, keyCount, stableGeneration, unstableGeneration ) ) + "\\" );
+        }
+        cursor.setOffset( currentOffset );
+        System.out.println( node );
+    }
+
+    @Override
+    String checkMetaConsistency( PageCursor cursor, int keyCount, Type type, GBPTreeConsistencyCheckVisitor<KEY> visitor )
+    {
+        long nodeId = cursor.getCurrentPageId();
+        StringJoiner joiner = new StringJoiner( ", ", "Meta data for tree node is inconsistent, id=" + nodeId + ": ", "" );
+        boolean hasInconsistency = false;
+
+        // Verify allocOffset >= offsetArray
+        int allocOffset = getAllocOffset( cursor );
+        int offsetArray = keyPosOffset( keyCount, type );
+        if ( allocOffset < offsetArray )
+        {
+            hasInconsistency = true;
+            joiner.add( format( "Overlap between offsetArray and allocSpace, offsetArray=%d, allocOffset=%d", offsetArray, allocOffset ) );
+        }
+
+        // Verify prefix doesn't overlap keys
+        int prefixLength = PageCursorUtil.getUnsignedShort( cursor, BYTE_POS_PREFIXLENGTH );
+        int prefixOffset = pageSize - prefixLength;
+        if ( prefixLength > keyValueSizeCap || allocOffset > prefixOffset )
+        {
+            hasInconsistency = true;
+            joiner.add( format( "Overlap between prefix and allocSpace, prefixLength=%d, allocOffset=%d", prefixLength, allocOffset ) );
+        }
+        else if ( reasonableKeyCount( keyCount ) && allocOffset >= offsetArray )
+        {
+            // Verify all keys are between alloc offset and prefix and fill that space completely
+            int keySpace = 0;
+            for ( int pos = 0; pos < keyCount; pos++ )
+            {
+                cursor.setOffset( keyPosOffset( pos, type ) );
+                int keyOffset = readKeyOffset( cursor );
+                if ( keyOffset < allocOffset || keyOffset >= prefixOffset )
+                {
+                    hasInconsistency = true;
+                    joiner.add( format( "Key outside of key space, pos=%d, keyOffset=%d, allocOffset=%d, prefixOffset=%d",
+                            pos, keyOffset, allocOffset, prefixOffset ) );
+                    break;
+                }
+                cursor.setOffset( keyOffset );
+                long keyValueSize = readKeyValueSize( cursor, false );
+                int suffixSize = extractKeySize( keyValueSize );
+                int valueSize = extractValueSize( keyValueSize );
+                keySpace += getOverhead( suffixSize, valueSize, false ) + suffixSize + valueSize;
+            }
+            if ( !hasInconsistency && keySpace != prefixOffset - allocOffset )
+            {
+                hasInconsistency = true;
+                joiner.add( format( "Keys did not fill key space; keySpace=%d, allocOffset=%d, prefixOffset=%d", keySpace, allocOffset, prefixOffset ) );
+            }
+        }
+
+        // Report inconsistencies as cursor exception
+        if ( hasInconsistency )
+        {
+            return joiner.toString();
+        }
+        return "";
+    }
+
+    /**
+     * Buffer that a key is put together in, from prefix and suffix, before read by layout. One per reading thread.
+     */
+    private static class KeyBuffer
+    {
+        private final byte[] bytes;
+        private final PageCursor cursor;
+
+        KeyBuffer( int size )
+        {
+            bytes = new byte[size];
+            cursor = new ByteArrayPageCursor( bytes );
+        }
+    }
+
+    /**
+     * Entries of one or two nodes and the key being inserted, read into memory so that nodes can be rewritten with new prefixes.
+     * A key is represented by the prefix of the node it was read from and its suffix in that node.
+     */
+    private static class Entries
+    {
+        static final int NEW_CHILD = -1;
+
+        private byte[] bytes = new byte[0];
+        private PageCursor bytesCursor;
+        private int size;
+        private int count;
+        private int[] prefixOffset = new int[0];
+        private int[] prefixLength = new int[0];
+        private int[] suffixOffset = new int[0];
+        private int[] suffixSize = new int[0];
+        private int[] valueSize = new int[0];
+        private int childCount;
+        private int[] childOffset = new int[0];
+        private byte[] keyBytes = new byte[0];
+        private PageCursor keyCursor;
+
+        void clear()
+        {
+            size = 0;
+            count = 0;
+            childCount = 0;
+        }
+
+        /**
+         * @return offset in this buffer that length bytes from cursor at given offset was copied to.
+         */
+        int append( PageCursor cursor, int offset, int length )
+        {
+            int start = reserve( length );
+            cursor.setOffset( offset );
+            cursor.getBytes( bytes, start, length );
+            return start;
+        }
+
+        int reserve( int length )
+        {
+            if ( size + length > bytes.length )
+            {
+                bytes = Arrays.copyOf( bytes, Math.max( size + length, bytes.length * 2 ) );
+                bytesCursor = null;
+            }
+            int start = size;
+            size += length;
+            return start;
+        }
+
+        PageCursor cursorAt( int offset )
+        {
+            if ( bytesCursor == null )
+            {
+                bytesCursor = new ByteArrayPageCursor( bytes );
+            }
+            bytesCursor.setOffset( offset );
+            return bytesCursor;
+        }
+
+        void add( int prefixOffset, int prefixLength, int suffixOffset, int suffixSize, int valueSize )
+        {
+            if ( count == this.prefixOffset.length )
+            {
+                int newLength = Math.max( 16, count * 2 );
+                this.prefixOffset = Arrays.copyOf( this.prefixOffset, newLength );
+                this.prefixLength = Arrays.copyOf( this.prefixLength, newLength );
+                this.suffixOffset = Arrays.copyOf( this.suffixOffset, newLength );
+                this.suffixSize = Arrays.copyOf( this.suffixSize, newLength );
+                this.valueSize = Arrays.copyOf( this.valueSize, newLength );
+            }
+            this.prefixOffset[count] = prefixOffset;
+            this.prefixLength[count] = prefixLength;
+            this.suffixOffset[count] = suffixOffset;
+            this.suffixSize[count] = suffixSize;
+            this.valueSize[count] = valueSize;
+            count++;
+        }
+
+        void addChild( int offset )
+        {
+            if ( childCount == childOffset.length )
+            {
+                childOffset = Arrays.copyOf( childOffset, Math.max( 16, childCount * 2 ) );
+            }
+            childOffset[childCount++] = offset;
+        }
+
+        boolean isNewChild( int i )
+        {
+            return childOffset[i] == NEW_CHILD;
+        }
+
+        void writeChild( PageCursor cursor, int i, int childSize )
+        {
+            cursor.putBytes( bytes, childOffset[i], childSize );
+        }
+
+        int keyLength( int i )
+        {
+            return prefixLength[i] + suffixSize[i];
+        }
+
+        int valueLength( int i )
+        {
+            return valueSize[i];
+        }
+
+        byte keyByte( int i, int index )
+        {
+            return index < prefixLength[i] ? bytes[prefixOffset[i] + index] : bytes[suffixOffset[i] + index - prefixLength[i]];
+        }
+
+        /**
+         * @return length of prefix keys i and j have in common, at most max.
+         */
+        int commonPrefix( int i, int j, int max )
+        {
+            int length = Math.min( max, Math.min( keyLength( i ), keyLength( j ) ) );
+            for ( int index = 0; index < length; index++ )
+            {
+                if ( keyByte( i, index ) != keyByte( j, index ) )
+                {
+                    return index;
+                }
+            }
+            return length;
+        }
+
+        /**
+         * @return length of prefix keys [from,to) all have in common.
+         */
+        int commonPrefix( int from, int to )
+        {
+            if ( from >= to )
+            {
+                return 0;
+            }
+            int common = keyLength( from );
+            for ( int i = from + 1; i < to && common > 0; i++ )
+            {
+                common = commonPrefix( from, i, common );
+            }
+            return common;
+        }
+
+        /**
+         * Writes length bytes of key i, starting at index from, to cursor.
+         */
+        void writeKey( PageCursor cursor, int i, int from, int length )
+        {
+            int end = from + length;
+            int prefixEnd = Math.min( end, prefixLength[i] );
+            if ( from < prefixEnd )
+            {
+                cursor.putBytes( bytes, prefixOffset[i] + from, prefixEnd - from );
+                from = prefixEnd;
+            }
+            if ( from < end )
+            {
+                cursor.putBytes( bytes, suffixOffset[i] + from - prefixLength[i], end - from );
+            }
+        }
+
+        void writeValue( PageCursor cursor, int i )
+        {
+            cursor.putBytes( bytes, suffixOffset[i] + suffixSize[i], valueSize[i] );
+        }
+
+        /**
+         * @return cursor placed at start of key i, put together from prefix and suffix.
+         */
+        PageCursor keyCursor( int i )
+        {
+            int length = keyLength( i );
+            if ( keyCursor == null || keyBytes.length < length )
+            {
+                keyBytes = new byte[Math.max( length, keyBytes.length * 2 )];
+                keyCursor = new ByteArrayPageCursor( keyBytes );
+            }
+            System.arraycopy( bytes, prefixOffset[i], keyBytes, 0, prefixLength[i] );
+            System.arraycopy( bytes, suffixOffset[i], keyBytes, prefixLength[i], suffixSize[i] );
+            keyCursor.setOffset( 0 );
+            return keyCursor;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped exclusive latches for tree nodes, used by parallel writers to serialize their changes to the same leaf.
+ * <p>
+ * Different tree nodes may share a latch, so a writer must never hold more than one latch at a time.
+ */
+class TreeNodeLatches
+{
+    private final ReentrantLock[] latches;
+    private final int mask;
+
+    TreeNodeLatches( int stripes )
+    {
+        int size = Integer.highestOneBit( Math.max( 1, stripes - 1 ) ) << 1;
+        latches = new ReentrantLock[size];
+        for ( int i = 0; i < size; i++ )
+        {
+            latches[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    ReentrantLock latch( long treeNodeId )
+    {
+        long hash = treeNodeId * 0x9E3779B97F4A7C15L;
+        return latches[(int) (hash ^ (hash >>> 32)) & mask];
+    }
+}
@@ -75,6 +75,30 @@ class TreeNodeSelector
         }
     };
 
+    /**
+     * Creates {@link TreeNodeDynamicSizeCompressed} instances.
+     */
+    private static final Factory DYNAMIC_COMPRESSED = new Factory()
+    {
+        @Override
+        public <KEY,VALUE> TreeNode<KEY,VALUE> create( int pageSize, Layout<KEY,VALUE> layout, OffloadStore<KEY,VALUE> offloadStore )
+        {
+            return new TreeNodeDynamicSizeCompressed<>( pageSize, layout );
+        }
+
+        @Override
+        public byte formatIdentifier()
+        {
+            return TreeNodeDynamicSizeCompressed.FORMAT_IDENTIFIER;
+        }
+
+        @Override
+        public byte formatVersion()
+        {
+            return TreeNodeDynamicSizeCompressed.FORMAT_VERSION;
+        }
+    };
+
     /**
      * Selects a format based on the given {@link Layout}.
      *
@@ -83,8 +107,38 @@ class TreeNodeSelector
      */
     static Factory selectByLayout( Layout<?,?> layout )
     {
-        // For now the selection is done in a simple fashion, by looking at layout.fixedSize().
-        return layout.fixedSize() ? FIXED : DYNAMIC;
+        // For now the selection is done in a simple fashion, by looking at layout.fixedSize() and layout.compressKeyPrefixes().
+        if ( layout.fixedSize() )
+        {
+            return FIXED;
+        }
+        return layout.compressKeyPrefixes() ? DYNAMIC_COMPRESSED : DYNAMIC;
+    }
+
+    /**
+     * Decides whether or not a tree of the given format can be opened with the given {@link Layout}. Dynamic size layouts
+     * can open trees of any of the dynamic size formats, so that turning {@link Layout#compressKeyPrefixes()} on or off
+     * only affects trees created after that.
+     *
+     * @param layout {@link Layout} to open tree with.
+     * @param formatIdentifier format identifier, see {@link Meta#getFormatIdentifier()}
+     * @param formatVersion format version, see {@link Meta#getFormatVersion()}.
+     * @return whether or not a tree of the given format can be opened with the given layout.
+     */
+    static boolean isCompatible( Layout<?,?> layout, byte formatIdentifier, byte formatVersion )
+    {
+        Factory formatByLayout = selectByLayout( layout );
+        if ( formatByLayout.formatIdentifier() == formatIdentifier && formatByLayout.formatVersion() == formatVersion )
+        {
+            return true;
+        }
+        return !layout.fixedSize() && (isFormat( DYNAMIC, formatIdentifier, formatVersion ) ||
+                isFormat( DYNAMIC_COMPRESSED, formatIdentifier, formatVersion ));
+    }
+
+    private static boolean isFormat( Factory format, byte formatIdentifier, byte formatVersion )
+    {
+        return format.formatIdentifier() == formatIdentifier && format.formatVersion() == formatVersion;
     }
 
     /**
@@ -96,7 +150,7 @@ class TreeNodeSelector
      */
     static Factory selectByFormat( byte formatIdentifier, byte formatVersion )
     {
-        // For now do a simple selection of the two formats we know. Moving forward this can contain
+        // For now do a simple selection of the formats we know. Moving forward this can contain
         // many more identifiers and different versions of each.
         if ( formatIdentifier == TreeNodeFixedSize.FORMAT_IDENTIFIER && formatVersion == TreeNodeFixedSize.FORMAT_VERSION )
         {
@@ -106,6 +160,11 @@ class TreeNodeSelector
         {
             return DYNAMIC;
         }
+        else if ( formatIdentifier == TreeNodeDynamicSizeCompressed.FORMAT_IDENTIFIER &&
+                formatVersion == TreeNodeDynamicSizeCompressed.FORMAT_VERSION )
+        {
+            return DYNAMIC_COMPRESSED;
+        }
         throw new IllegalArgumentException(
                 format( "Unknown format identifier:%d and version:%d combination", formatIdentifier, formatVersion ) );
     }
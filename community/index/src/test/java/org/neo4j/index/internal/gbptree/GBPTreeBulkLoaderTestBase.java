@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@PageCacheExtension
+@ExtendWith( RandomExtension.class )
+abstract class GBPTreeBulkLoaderTestBase<KEY,VALUE>
+{
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private RandomRule random;
+    @Inject
+    private PageCache pageCache;
+
+    private TestLayout<KEY,VALUE> layout;
+    private File indexFile;
+
+    @BeforeEach
+    void setUp()
+    {
+        indexFile = testDirectory.file( "index" );
+        layout = getLayout( random, pageCache.pageSize() );
+    }
+
+    abstract TestLayout<KEY,VALUE> getLayout( RandomRule random, int pageSize );
+
+    @ParameterizedTest
+    @ValueSource( doubles = {0.1, 0.5, 0.9, 1} )
+    void shouldSeeAllBulkLoadedEntries( double fillFactor ) throws IOException
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // when
+            int count = random.intBetween( 1, 20_000 );
+            bulkLoad( index, fillFactor, count, 1 );
+
+            // then
+            assertTrue( index.consistencyCheck() );
+            assertEntries( index, count, 1 );
+            for ( int i = 0; i < 100; i++ )
+            {
+                long seed = random.nextInt( count );
+                try ( Seeker<KEY,VALUE> cursor = index.seek( key( seed ), key( seed ) ) )
+                {
+                    assertTrue( cursor.next() );
+                    assertEqualsKey( key( seed ), cursor.key() );
+                    assertFalse( cursor.next() );
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldWriteToTreeAfterBulkLoad() throws IOException
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // given
+            int count = 10_000;
+            bulkLoad( index, 0.8, count, 2 );
+
+            // when
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                for ( long seed = 1; seed < count * 2; seed += 2 )
+                {
+                    writer.put( key( seed ), value( seed ) );
+                }
+            }
+
+            // then
+            assertTrue( index.consistencyCheck() );
+            assertEntries( index, count * 2, 1 );
+
+            // and when
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                for ( long seed = 0; seed < count * 2; seed++ )
+                {
+                    assertEquals( seed, layout.valueSeed( writer.remove( key( seed ) ) ) );
+                }
+            }
+
+            // then
+            assertTrue( index.consistencyCheck() );
+            assertEntries( index, 0, 1 );
+        }
+    }
+
+    @Test
+    void shouldSeeBulkLoadedEntriesAfterRestart() throws IOException
+    {
+        // given
+        int count = 5_000;
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            bulkLoad( index, 1, count, 1 );
+            index.checkpoint( IOLimiter.UNLIMITED );
+        }
+
+        // when
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // then
+            assertTrue( index.consistencyCheck() );
+            assertEntries( index, count, 1 );
+        }
+    }
+
+    @Test
+    void shouldBuildSmallerTreeThanWriter() throws IOException
+    {
+        int count = 20_000;
+        int bulkLoadedNodes;
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            bulkLoad( index, 1, count, 1 );
+            bulkLoadedNodes = countNodes( index );
+        }
+        indexFile = testDirectory.file( "written-index" );
+
+        int writtenNodes;
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                for ( long seed = 0; seed < count; seed++ )
+                {
+                    writer.put( key( seed ), value( seed ) );
+                }
+            }
+            writtenNodes = countNodes( index );
+        }
+
+        assertTrue( bulkLoadedNodes < writtenNodes, format( "Expected bulk loaded tree to have fewer nodes than written tree, %d vs %d",
+                bulkLoadedNodes, writtenNodes ) );
+    }
+
+    @Test
+    void shouldLeaveTreeEmptyIfNothingAdded() throws IOException
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // when
+            index.bulkLoader( 1 ).close();
+
+            // then
+            assertTrue( index.consistencyCheck() );
+            assertEntries( index, 0, 1 );
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                writer.put( key( 0 ), value( 0 ) );
+                assertNull( writer.remove( key( 1 ) ) );
+            }
+            assertEntries( index, 1, 1 );
+        }
+    }
+
+    @Test
+    void shouldThrowOnKeysNotInAscendingOrder() throws IOException
+    {
+        try ( GBPTree<KEY,VALUE> index = index();
+              BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader( 1 ) )
+        {
+            bulkLoader.add( key( 10 ), value( 10 ) );
+            assertThrows( IllegalArgumentException.class, () -> bulkLoader.add( key( 10 ), value( 10 ) ) );
+            assertThrows( IllegalArgumentException.class, () -> bulkLoader.add( key( 9 ), value( 9 ) ) );
+        }
+    }
+
+    @Test
+    void shouldThrowOnBulkLoadIntoNonEmptyTree() throws IOException
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // given
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                writer.put( key( 0 ), value( 0 ) );
+            }
+
+            // then
+            assertThrows( IllegalStateException.class, () -> index.bulkLoader( 1 ) );
+
+            // and writer should still be available
+            index.writer().close();
+        }
+    }
+
+    @Test
+    void shouldThrowOnInvalidFillFactor() throws IOException
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            assertThrows( IllegalArgumentException.class, () -> index.bulkLoader( 0 ) );
+            assertThrows( IllegalArgumentException.class, () -> index.bulkLoader( 1.1 ) );
+
+            // and writer should still be available
+            index.writer().close();
+        }
+    }
+
+    private void bulkLoad( GBPTree<KEY,VALUE> index, double fillFactor, int count, int stride ) throws IOException
+    {
+        try ( BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader( fillFactor ) )
+        {
+            for ( long i = 0; i < count; i++ )
+            {
+                long seed = i * stride;
+                bulkLoader.add( key( seed ), value( seed ) );
+            }
+        }
+    }
+
+    private void assertEntries( GBPTree<KEY,VALUE> index, int count, int stride ) throws IOException
+    {
+        try ( Seeker<KEY,VALUE> cursor = index.seek( key( 0 ), key( Long.MAX_VALUE ) ) )
+        {
+            for ( long i = 0; i < count; i++ )
+            {
+                long seed = i * stride;
+                assertTrue( cursor.next() );
+                assertEqualsKey( key( seed ), cursor.key() );
+                assertEquals( seed, layout.valueSeed( cursor.value() ) );
+            }
+            assertFalse( cursor.next() );
+        }
+    }
+
+    private int countNodes( GBPTree<KEY,VALUE> index ) throws IOException
+    {
+        int[] nodes = new int[1];
+        index.visit( new GBPTreeVisitor.Adaptor<KEY,VALUE>()
+        {
+            @Override
+            public void beginNode( long pageId, boolean isLeaf, long generation, int keyCount )
+            {
+                nodes[0]++;
+            }
+        } );
+        return nodes[0];
+    }
+
+    private GBPTree<KEY,VALUE> index()
+    {
+        return new GBPTreeBuilder<>( pageCache, indexFile, layout ).build();
+    }
+
+    private VALUE value( long seed )
+    {
+        return layout.value( seed );
+    }
+
+    private KEY key( long seed )
+    {
+        return layout.key( seed );
+    }
+
+    private void assertEqualsKey( KEY expected, KEY actual )
+    {
+        assertEquals( 0, layout.compare( expected, actual ),
+                format( "expected equal, expected=%s, actual=%s", expected.toString(), actual.toString() ) );
+    }
+}
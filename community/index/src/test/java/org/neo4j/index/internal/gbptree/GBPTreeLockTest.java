@@ -165,6 +165,77 @@ class GBPTreeLockTest
         assertTimeoutPreemptively( ofSeconds( 10 ), () -> assertOnlyOneSucceeds( lock::writerAndCleanerLock, lock::writerAndCleanerLock ) );
     }
 
+    @Test
+    void test_race_parallelWritersVsParallelWriters() throws Throwable
+    {
+        assertBothSucceeds( lock::parallelWriterLock, lock::parallelWriterLock );
+    }
+
+    @Test
+    void test_race_parallelWritersVsLU()
+    {
+        assertTimeoutPreemptively( ofSeconds( 10 ), () -> assertOnlyOneSucceeds( lock::parallelWriterLock, lock::writerLock ) );
+    }
+
+    @Test
+    void test_race_parallelWritersVsUL()
+    {
+        assertTimeoutPreemptively( ofSeconds( 10 ), () -> assertOnlyOneSucceeds( lock::parallelWriterLock, lock::cleanerLock ) );
+    }
+
+    @Test
+    void parallelWriterShouldBlockWriterUntilAllParallelWritersUnlocked() throws Exception
+    {
+        // given
+        lock.parallelWriterLock();
+        lock.parallelWriterLock();
+
+        // when
+        Future<Object> writer = executor.submit( () ->
+        {
+            lock.writerLock();
+            return null;
+        } );
+        executor.untilWaitingIn( GBPTreeLock.class.getDeclaredMethod( "doLock", long.class ) );
+        lock.parallelWriterUnlock();
+        executor.untilWaitingIn( GBPTreeLock.class.getDeclaredMethod( "doLock", long.class ) );
+        lock.parallelWriterUnlock();
+
+        // then
+        writer.get();
+        assertLU();
+    }
+
+    @Test
+    void writerShouldBlockParallelWriter() throws Exception
+    {
+        // given
+        lock.writerLock();
+
+        // when
+        Future<Object> parallelWriter = executor.submit( () ->
+        {
+            lock.parallelWriterLock();
+            return null;
+        } );
+        executor.untilWaitingIn( GBPTreeLock.class.getDeclaredMethod( "parallelWriterLock" ) );
+        lock.writerUnlock();
+
+        // then
+        parallelWriter.get();
+        lock.parallelWriterUnlock();
+        assertUU();
+    }
+
+    @Test
+    void parallelWriterUnlockShouldThrowIfNotLocked()
+    {
+        assertThrows( IllegalStateException.class, lock::parallelWriterUnlock );
+        lock.parallelWriterLock();
+        lock.parallelWriterUnlock();
+        assertThrows( IllegalStateException.class, lock::parallelWriterUnlock );
+    }
+
     private void assertOnlyOneSucceeds( Runnable lockAction1, Runnable lockAction2 ) throws Throwable
     {
         assertUU();
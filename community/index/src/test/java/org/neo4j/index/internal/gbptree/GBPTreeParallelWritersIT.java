@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.test.Race;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.extension.actors.Actor;
+import org.neo4j.test.extension.actors.ActorsExtension;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.index.internal.gbptree.ValueMergers.overwrite;
+import static org.neo4j.test.rule.PageCacheConfig.config;
+
+/**
+ * Stresses {@link GBPTree#parallelWriter()} by letting a number of threads insert and remove keys in disjoint
+ * key ranges at the same time, with checkpoints in between, and then verifies the contents and consistency of the tree.
+ */
+@EphemeralTestDirectoryExtension
+@ActorsExtension
+@ExtendWith( RandomExtension.class )
+class GBPTreeParallelWritersIT
+{
+    private static final int THREADS = 8;
+    private static final int KEYS_PER_THREAD = 5_000;
+
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private RandomRule random;
+    @Inject
+    private Actor executor;
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension();
+
+    private final SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+    private GBPTree<MutableLong,MutableLong> tree;
+
+    @BeforeEach
+    void createTree()
+    {
+        // Small pages to get plenty of splits and merges
+        PageCache pageCache = pageCacheExtension.getPageCache( fileSystem, config().withPageSize( 512 ).withAccessChecks( true ) );
+        tree = new GBPTreeBuilder<>( pageCache, testDirectory.file( "index" ), layout ).build();
+    }
+
+    @AfterEach
+    void consistencyCheckAndClose() throws IOException
+    {
+        tree.consistencyCheck();
+        tree.close();
+    }
+
+    @Test
+    void shouldInsertAndRemoveFromParallelWriters() throws Throwable
+    {
+        // given
+        BitSet[] expected = new BitSet[THREADS];
+        AtomicBoolean writersDone = new AtomicBoolean();
+        Race race = new Race().withEndCondition( writersDone::get );
+        long seed = random.seed();
+        Race writers = new Race();
+        for ( int i = 0; i < THREADS; i++ )
+        {
+            int thread = i;
+            expected[thread] = new BitSet();
+            writers.addContestant( Race.throwing( () -> writeKeys( new Random( seed + thread ), thread, expected[thread] ) ) );
+        }
+
+        // when
+        race.addContestant( Race.throwing( () ->
+        {
+            writers.go();
+            writersDone.set( true );
+        } ), 1 );
+        race.addContestant( Race.throwing( () -> tree.checkpoint( IOLimiter.UNLIMITED ) ) );
+        race.go();
+
+        // then
+        assertTrue( tree.consistencyCheck() );
+        assertTreeContains( expected );
+    }
+
+    @Test
+    void shouldShrinkTreeWhenParallelWritersRemoveEverything() throws Throwable
+    {
+        // given
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+        {
+            for ( long key = 0; key < THREADS * KEYS_PER_THREAD; key++ )
+            {
+                writer.put( layout.key( key ), layout.value( key ) );
+            }
+        }
+
+        // when
+        Race race = new Race();
+        for ( int i = 0; i < THREADS; i++ )
+        {
+            int thread = i;
+            race.addContestant( Race.throwing( () ->
+            {
+                try ( Writer<MutableLong,MutableLong> writer = tree.parallelWriter() )
+                {
+                    for ( long key = thread; key < THREADS * KEYS_PER_THREAD; key += THREADS )
+                    {
+                        assertEquals( key, writer.remove( layout.key( key ) ).longValue() );
+                    }
+                }
+            } ) );
+        }
+        race.go();
+
+        // then
+        assertTrue( tree.consistencyCheck() );
+        assertTreeContains( new BitSet[THREADS] );
+    }
+
+    @Test
+    void shouldLetParallelWritersWaitForSingleWriter() throws Exception
+    {
+        // given
+        Writer<MutableLong,MutableLong> writer = tree.writer();
+        writer.put( layout.key( 1 ), layout.value( 1 ) );
+
+        // when
+        Future<Object> parallelWriter = executor.submit( () ->
+        {
+            try ( Writer<MutableLong,MutableLong> w = tree.parallelWriter() )
+            {
+                w.put( layout.key( 2 ), layout.value( 2 ) );
+            }
+            return null;
+        } );
+        executor.untilWaitingIn( GBPTreeLock.class.getDeclaredMethod( "parallelWriterLock" ) );
+        writer.close();
+
+        // then
+        parallelWriter.get();
+        try ( Writer<MutableLong,MutableLong> w1 = tree.parallelWriter();
+              Writer<MutableLong,MutableLong> w2 = tree.parallelWriter() )
+        {
+            assertEquals( 1, w1.remove( layout.key( 1 ) ).longValue() );
+            assertEquals( 2, w2.remove( layout.key( 2 ) ).longValue() );
+            assertNull( w1.remove( layout.key( 2 ) ) );
+        }
+        try ( Seeker<MutableLong,MutableLong> seek = tree.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ) ) )
+        {
+            assertFalse( seek.next() );
+        }
+    }
+
+    private void writeKeys( Random random, int thread, BitSet expected ) throws IOException
+    {
+        for ( int round = 0; round < 20; round++ )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = tree.parallelWriter() )
+            {
+                for ( int i = 0; i < KEYS_PER_THREAD / 4; i++ )
+                {
+                    int keyIndex = random.nextInt( KEYS_PER_THREAD );
+                    long key = (long) keyIndex * THREADS + thread;
+                    if ( random.nextInt( 3 ) == 0 )
+                    {
+                        MutableLong removed = writer.remove( layout.key( key ) );
+                        assertEquals( expected.get( keyIndex ), removed != null );
+                        expected.clear( keyIndex );
+                    }
+                    else if ( random.nextBoolean() )
+                    {
+                        writer.put( layout.key( key ), layout.value( key ) );
+                        expected.set( keyIndex );
+                    }
+                    else
+                    {
+                        writer.merge( layout.key( key ), layout.value( key ), overwrite() );
+                        expected.set( keyIndex );
+                    }
+                }
+            }
+        }
+    }
+
+    private void assertTreeContains( BitSet[] expected ) throws IOException
+    {
+        long expectedCount = 0;
+        for ( int i = 0; i < expected.length; i++ )
+        {
+            expected[i] = expected[i] == null ? new BitSet() : expected[i];
+            expectedCount += expected[i].cardinality();
+        }
+        long count = 0;
+        try ( Seeker<MutableLong,MutableLong> seek = tree.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ) ) )
+        {
+            while ( seek.next() )
+            {
+                long key = seek.key().longValue();
+                assertEquals( key, seek.value().longValue() );
+                assertTrue( expected[(int) (key % THREADS)].get( (int) (key / THREADS) ), "Unexpected key " + key );
+                count++;
+            }
+        }
+        assertEquals( expectedCount, count );
+    }
+}
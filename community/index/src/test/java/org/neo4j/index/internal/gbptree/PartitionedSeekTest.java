@@ -21,6 +21,7 @@ package org.neo4j.index.internal.gbptree;
 
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.commons.lang3.mutable.MutableLong;
+import org.apache.commons.lang3.tuple.Pair;
 import org.eclipse.collections.api.list.primitive.IntList;
 import org.eclipse.collections.api.list.primitive.MutableIntList;
 import org.eclipse.collections.impl.factory.primitive.IntLists;
@@ -29,6 +30,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -176,6 +178,35 @@ class PartitionedSeekTest
         }
     }
 
+    @Test
+    void shouldPartitionIntoRangesThatCanBeSeekedLater() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given
+            int to = insertEntriesUntil( tree, 8 );
+
+            // when
+            List<Pair<MutableLong,MutableLong>> ranges = tree.partitionedSeekRanges( layout.key( 0 ), layout.key( to ), 4 );
+
+            // then
+            assertEquals( 4, ranges.size() );
+            long nextExpected = 0;
+            for ( Pair<MutableLong,MutableLong> range : ranges )
+            {
+                try ( Seeker<MutableLong,MutableLong> seeker = tree.seek( range.getLeft(), range.getRight() ) )
+                {
+                    while ( seeker.next() )
+                    {
+                        assertEquals( nextExpected, seeker.key().longValue() );
+                        nextExpected++;
+                    }
+                }
+            }
+            assertEquals( to, nextExpected );
+        }
+    }
+
     @Test
     void shouldThrowOnAttemptBackwardPartitionedSeek() throws IOException
     {
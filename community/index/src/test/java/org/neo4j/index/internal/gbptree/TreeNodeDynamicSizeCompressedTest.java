@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+public class TreeNodeDynamicSizeCompressedTest extends TreeNodeTestBase<RawBytes,RawBytes>
+{
+    private static final long STABLE_GENERATION = 3;
+    private static final long UNSTABLE_GENERATION = 4;
+
+    private SimpleByteArrayLayout layout = new SimpleByteArrayLayout();
+    private final GBPTreeConsistencyCheckVisitor<RawBytes> visitor = new GBPTreeConsistencyCheckVisitor.Adaptor<>();
+
+    @Override
+    protected TestLayout<RawBytes,RawBytes> getLayout()
+    {
+        return layout;
+    }
+
+    @Override
+    protected TreeNodeDynamicSizeCompressed<RawBytes,RawBytes> getNode( int pageSize, Layout<RawBytes,RawBytes> layout,
+            OffloadStore<RawBytes,RawBytes> offloadStore )
+    {
+        return new TreeNodeDynamicSizeCompressed<>( pageSize, layout );
+    }
+
+    @Override
+    void assertAdditionalHeader( PageCursor cursor, TreeNode<RawBytes,RawBytes> node, int pageSize )
+    {
+        // When
+        int currentAllocSpace = ((TreeNodeDynamicSizeCompressed) node).getAllocOffset( cursor );
+
+        // Then
+        assertEquals( pageSize, currentAllocSpace, "allocSpace point to end of page" );
+    }
+
+    @Test
+    void mustStoreCommonPrefixOnlyOnce() throws IOException
+    {
+        TreeNodeDynamicSizeCompressed<RawBytes,RawBytes> node = getNode( PAGE_SIZE, layout, createOffloadStore() );
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int prefixLength = 100;
+        RawBytes value = layout.value( 0 );
+
+        // When
+        int keyCount = 10;
+        for ( int i = 0; i < keyCount; i++ )
+        {
+            node.insertKeyValueAt( cursor, keyWithPrefix( prefixLength, i ), value, i, i, STABLE_GENERATION, UNSTABLE_GENERATION );
+            TreeNode.setKeyCount( cursor, i + 1 );
+        }
+
+        // Then
+        assertEquals( prefixLength, node.getPrefixLength( cursor ) );
+        int valueSize = layout.valueSize( value );
+        int entrySize = DynamicSizeUtil.SIZE_OFFSET + DynamicSizeUtil.getOverhead( 1, valueSize, false ) + 1 + valueSize;
+        assertEquals( PAGE_SIZE - prefixLength - keyCount * (entrySize - DynamicSizeUtil.SIZE_OFFSET), node.getAllocOffset( cursor ) );
+        for ( int i = 0; i < keyCount; i++ )
+        {
+            assertEquals( 0, layout.compare( keyWithPrefix( prefixLength, i ), node.keyAt( cursor, layout.newKey(), i, LEAF ) ) );
+        }
+        assertEquals( "", node.checkMetaConsistency( cursor, keyCount, LEAF, visitor ) );
+    }
+
+    @Test
+    void mustShortenPrefixWhenInsertingKeyWithoutIt() throws IOException
+    {
+        TreeNodeDynamicSizeCompressed<RawBytes,RawBytes> node = getNode( PAGE_SIZE, layout, createOffloadStore() );
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        RawBytes first = keyWithPrefix( 20, 1 );
+        RawBytes second = keyWithPrefix( 20, 2 );
+        RawBytes other = keyWithPrefix( 20, 3 );
+        other.bytes[Long.BYTES + 10] = 1;
+        RawBytes value = layout.value( 0 );
+        node.insertKeyValueAt( cursor, first, value, 0, 0, STABLE_GENERATION, UNSTABLE_GENERATION );
+        node.insertKeyValueAt( cursor, second, value, 1, 1, STABLE_GENERATION, UNSTABLE_GENERATION );
+        TreeNode.setKeyCount( cursor, 2 );
+        assertEquals( 20, node.getPrefixLength( cursor ) );
+
+        // When
+        node.insertKeyValueAt( cursor, other, value, 2, 2, STABLE_GENERATION, UNSTABLE_GENERATION );
+        TreeNode.setKeyCount( cursor, 3 );
+
+        // Then
+        assertEquals( Long.BYTES + 10, node.getPrefixLength( cursor ) );
+        assertEquals( 0, layout.compare( first, node.keyAt( cursor, layout.newKey(), 0, LEAF ) ) );
+        assertEquals( 0, layout.compare( second, node.keyAt( cursor, layout.newKey(), 1, LEAF ) ) );
+        assertEquals( 0, layout.compare( other, node.keyAt( cursor, layout.newKey(), 2, LEAF ) ) );
+
+        // When
+        node.removeKeyValueAt( cursor, 2, 3, STABLE_GENERATION, UNSTABLE_GENERATION );
+        TreeNode.setKeyCount( cursor, 2 );
+
+        // Then
+        assertEquals( 20, node.getPrefixLength( cursor ) );
+        assertEquals( "", node.checkMetaConsistency( cursor, 2, LEAF, visitor ) );
+    }
+
+    @Test
+    void mustSplitLeafWithPrefixOnBothSides() throws IOException
+    {
+        TreeNodeDynamicSizeCompressed<RawBytes,RawBytes> node = getNode( PAGE_SIZE, layout, createOffloadStore() );
+        PageAwareByteArrayCursor rightCursor = new PageAwareByteArrayCursor( PAGE_SIZE );
+        rightCursor.next();
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        node.initializeLeaf( rightCursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int prefixLength = 100;
+        int keyCount = 0;
+        RawBytes key = keyWithPrefix( prefixLength, keyCount );
+        RawBytes value = layout.value( 0 );
+        while ( node.leafOverflow( cursor, keyCount, key, value ) == TreeNode.Overflow.NO )
+        {
+            node.insertKeyValueAt( cursor, key, value, keyCount, keyCount, STABLE_GENERATION, UNSTABLE_GENERATION );
+            TreeNode.setKeyCount( cursor, ++keyCount );
+            key = keyWithPrefix( prefixLength, keyCount );
+        }
+        assertTrue( keyCount > (PAGE_SIZE - prefixLength) / (prefixLength + 1) );
+
+        // When
+        RawBytes splitter = layout.newKey();
+        node.doSplitLeaf( cursor, keyCount, rightCursor, keyCount, key, value, splitter, 0.5, STABLE_GENERATION, UNSTABLE_GENERATION );
+
+        // Then
+        int leftKeyCount = TreeNode.keyCount( cursor );
+        int rightKeyCount = TreeNode.keyCount( rightCursor );
+        assertEquals( keyCount + 1, leftKeyCount + rightKeyCount );
+        assertEquals( 0, layout.compare( keyWithPrefix( prefixLength, leftKeyCount ), node.keyAt( rightCursor, layout.newKey(), 0, LEAF ) ) );
+        assertEquals( prefixLength, node.getPrefixLength( cursor ) );
+        assertEquals( prefixLength, node.getPrefixLength( rightCursor ) );
+        assertTrue( layout.compare( node.keyAt( cursor, layout.newKey(), leftKeyCount - 1, LEAF ), splitter ) < 0 );
+        assertTrue( layout.compare( splitter, node.keyAt( rightCursor, layout.newKey(), 0, LEAF ) ) <= 0 );
+        assertEquals( "", node.checkMetaConsistency( cursor, leftKeyCount, LEAF, visitor ) );
+        assertEquals( "", node.checkMetaConsistency( rightCursor, rightKeyCount, LEAF, visitor ) );
+    }
+
+    @Test
+    void shouldAssertPageSizeBigEnoughForAtLeastTwoEntries()
+    {
+        assertThrows( MetadataMismatchException.class, () -> new TreeNodeDynamicSizeCompressed<>( 100, layout ) );
+    }
+
+    /**
+     * Key with zero seed, see {@link SimpleByteArrayLayout#key(long)}, ordered by its last byte so that all keys share the given prefix.
+     */
+    private RawBytes keyWithPrefix( int prefixLength, int suffix )
+    {
+        RawBytes key = layout.newKey();
+        key.bytes = new byte[prefixLength + 1];
+        key.bytes[prefixLength] = (byte) suffix;
+        return key;
+    }
+}
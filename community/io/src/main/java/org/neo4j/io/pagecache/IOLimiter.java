@@ -103,6 +103,26 @@ public interface IOLimiter
         // Same as for disableLimit().
     }
 
+    /**
+     * Signal that latency sensitive foreground IO, such as committing transactions waiting for the transaction log to
+     * be forced, is in progress. Limiting implementations should back off and yield the storage device to the
+     * foreground IO, for as long as it is in progress.
+     * This call <strong>MUST</strong> be paired with a subsequent {@link #endForegroundIO()} call.
+     * Like {@link #disableLimit()}, this method is thread-safe and concurrent calls "stack".
+     */
+    default void beginForegroundIO()
+    {
+        // By default this method does nothing, since the implementation does not limit IO.
+    }
+
+    /**
+     * Signal that foreground IO that was announced with {@link #beginForegroundIO()} has completed.
+     */
+    default void endForegroundIO()
+    {
+        // Same as for beginForegroundIO().
+    }
+
     /**
      * An IOPSLimiter implementation that does not restrict the rate of IO. Use this implementation if you want the
      * flush to go as fast as possible.
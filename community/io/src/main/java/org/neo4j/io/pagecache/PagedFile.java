@@ -174,6 +174,31 @@ public interface PagedFile extends AutoCloseable
      */
     long getLastPageId() throws IOException;
 
+    /**
+     * Bring the given range of pages into memory, if they are not in memory already. This is used for warming up the
+     * page cache, and implementations are free to load the pages in bulk, and to stop early if there is no more free
+     * memory to load pages into.
+     * <p>
+     * The range is truncated to the end of the file.
+     *
+     * @param pageId the file page id of the first page to bring into memory.
+     * @param count the number of pages to bring into memory.
+     * @return the number of pages, starting from the given page id, that were found to be in memory, or were loaded.
+     * @throws IOException if there was an error accessing the underlying file.
+     */
+    default int touch( long pageId, int count ) throws IOException
+    {
+        int touched = 0;
+        try ( PageCursor cursor = io( pageId, PF_SHARED_READ_LOCK ) )
+        {
+            while ( touched < count && cursor.next() )
+            {
+                touched++;
+            }
+        }
+        return touched;
+    }
+
     /**
      * Release a handle to a paged file.
      * <p>
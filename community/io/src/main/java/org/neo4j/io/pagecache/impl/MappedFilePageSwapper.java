@@ -0,0 +1,576 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.apache.commons.lang3.SystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A PageSwapper implementation that maps the file into memory with {@link MappedByteBuffer} segments, and swaps pages
+ * in and out by copying them between the mapped segments and the page cache memory.
+ *
+ * Page faults on data that is already in the OS page cache thus become plain memory copies, with no system call per
+ * fault. The file is never mapped beyond its current size, since mapping a region outside of the file would extend it.
+ * Writes beyond the end of the file therefore go through the file channel, and the mapping of the last segment is
+ * grown on demand the next time that part of the file is accessed.
+ *
+ * Segments are never explicitly unmapped, because a concurrent page fault could still be copying from them. They are
+ * instead released by the garbage collector once they are no longer referenced, so reads and writes keep the segment
+ * they copy to or from strongly reachable until the copy is done.
+ *
+ * Reads, writes and forces hold the read lock of {@link #segmentsLock} while they use the mapped segments, and
+ * {@link #close()} and {@link #truncate()} take the write lock before they drop the segments. Otherwise a truncate
+ * could shrink the file under an in-flight copy, which would then access a mapping beyond the end of the file.
+ */
+public class MappedFilePageSwapper implements PageSwapper
+{
+    private static final int MAX_INTERRUPTED_CHANNEL_REOPEN_ATTEMPTS = 42;
+
+    // Exponent of 2 of the maximum size of each mapped segment of the file:
+    private static final int SEGMENT_SIZE_POWER = Math.min( 30, getInteger( MappedFilePageSwapper.class, "segmentSizePower", 30 ) );
+
+    private static final long FILE_SIZE_OFFSET = UnsafeUtil.getFieldOffset( MappedFilePageSwapper.class, "fileSize" );
+    private static final MappedByteBuffer[] NO_SEGMENTS = new MappedByteBuffer[0];
+
+    private final FileSystemAbstraction fs;
+    private final File file;
+    private final int filePageSize;
+    private final long pagesPerSegment;
+    private volatile PageEvictionCallback onEviction;
+    private volatile StoreChannel channel;
+    private FileLock fileLock;
+
+    // Replaced, never modified, under synchronized(this). See segment(int, long).
+    private volatile MappedByteBuffer[] segments = NO_SEGMENTS;
+    // Taken for reading by IO on the segments, and for writing by the operations that drop them. Always taken before the monitor.
+    private final StampedLock segmentsLock = new StampedLock();
+
+    // Written under synchronized(this). See tryReopen() and close().
+    private volatile boolean closed;
+
+    @SuppressWarnings( "unused" ) // Accessed through unsafe
+    private volatile long fileSize;
+
+    MappedFilePageSwapper( File file, FileSystemAbstraction fs, int filePageSize, PageEvictionCallback onEviction ) throws IOException
+    {
+        this.fs = fs;
+        this.file = file;
+        this.filePageSize = filePageSize;
+        this.pagesPerSegment = Math.max( 1, (1L << SEGMENT_SIZE_POWER) / filePageSize );
+        this.onEviction = onEviction;
+        this.channel = fs.write( file );
+        increaseFileSizeTo( channel.size() );
+
+        try
+        {
+            acquireLock();
+        }
+        catch ( IOException e )
+        {
+            try
+            {
+                channel.close();
+            }
+            catch ( IOException ce )
+            {
+                e.addSuppressed( ce );
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return {@code true} if the given channel supports memory mapping, {@code false} otherwise.
+     */
+    static boolean canMap( StoreChannel channel )
+    {
+        try
+        {
+            FileChannel fileChannel = channel.fileChannel();
+            return fileChannel != null && fileChannel.map( FileChannel.MapMode.READ_WRITE, 0, 0 ) != null;
+        }
+        catch ( IOException | UnsupportedOperationException e )
+        {
+            return false;
+        }
+    }
+
+    private void increaseFileSizeTo( long newFileSize )
+    {
+        long currentFileSize;
+        do
+        {
+            currentFileSize = getCurrentFileSize();
+        }
+        while ( currentFileSize < newFileSize && !UnsafeUtil.compareAndSwapLong(
+                this, FILE_SIZE_OFFSET, currentFileSize, newFileSize ) );
+    }
+
+    private long getCurrentFileSize()
+    {
+        return UnsafeUtil.getLongVolatile( this, FILE_SIZE_OFFSET );
+    }
+
+    private void setCurrentFileSize( long size )
+    {
+        UnsafeUtil.putLongVolatile( this, FILE_SIZE_OFFSET, size );
+    }
+
+    private void acquireLock() throws IOException
+    {
+        if ( SystemUtils.IS_OS_WINDOWS )
+        {
+            // See SingleFilePageSwapper.acquireLock() for why we don't lock on Windows.
+            return;
+        }
+
+        try
+        {
+            fileLock = channel.tryLock();
+            if ( fileLock == null )
+            {
+                throw new FileLockException( file );
+            }
+        }
+        catch ( OverlappingFileLockException e )
+        {
+            throw new FileLockException( file, e );
+        }
+    }
+
+    private long pageIdToPosition( long pageId ) throws IOException
+    {
+        if ( pageId < 0 )
+        {
+            throw new IOException( "Invalid file page id: " + pageId + "." );
+        }
+        return filePageSize * pageId;
+    }
+
+    private static ByteBuffer wrap( long bufferAddress, int bufferLength ) throws IOException
+    {
+        try
+        {
+            return UnsafeUtil.newDirectByteBuffer( bufferAddress, bufferLength );
+        }
+        catch ( Exception e )
+        {
+            throw new IOException( e );
+        }
+    }
+
+    private void checkOpen() throws ClosedChannelException
+    {
+        if ( closed )
+        {
+            throw new ClosedChannelException();
+        }
+    }
+
+    /**
+     * Get the segment that contains the given page, mapped to cover at least the first {@code requiredBytes} of the page.
+     * The mapping of the segment is grown if necessary. The caller must keep the segment reachable while it uses the
+     * address of the page, see {@link #addressOf(MappedByteBuffer, long)}.
+     */
+    private MappedByteBuffer mappedSegment( long filePageId, long requiredBytes ) throws IOException
+    {
+        int index = (int) (filePageId / pagesPerSegment);
+        long requiredCapacity = offsetInSegment( filePageId ) + requiredBytes;
+        MappedByteBuffer[] mapped = segments;
+        MappedByteBuffer segment = index < mapped.length ? mapped[index] : null;
+        if ( segment == null || segment.capacity() < requiredCapacity )
+        {
+            segment = segment( index, requiredCapacity );
+        }
+        return segment;
+    }
+
+    private long addressOf( MappedByteBuffer segment, long filePageId )
+    {
+        return UnsafeUtil.getDirectByteBufferAddress( segment ) + offsetInSegment( filePageId );
+    }
+
+    private long offsetInSegment( long filePageId )
+    {
+        return (filePageId % pagesPerSegment) * filePageSize;
+    }
+
+    private synchronized MappedByteBuffer segment( int index, long requiredCapacity ) throws IOException
+    {
+        checkOpen();
+        MappedByteBuffer[] mapped = segments;
+        MappedByteBuffer segment = index < mapped.length ? mapped[index] : null;
+        if ( segment != null && segment.capacity() >= requiredCapacity )
+        {
+            // Someone got ahead of us.
+            return segment;
+        }
+
+        long segmentSize = pagesPerSegment * filePageSize;
+        long segmentStart = index * segmentSize;
+        long mapSize = Math.min( segmentSize, Math.max( requiredCapacity, getCurrentFileSize() - segmentStart ) );
+        segment = channelOperation(
+                ch -> ch.fileChannel().map( FileChannel.MapMode.READ_WRITE, segmentStart, mapSize ), MAX_INTERRUPTED_CHANNEL_REOPEN_ATTEMPTS );
+
+        MappedByteBuffer[] newSegments = index < mapped.length ? mapped.clone() : Arrays.copyOf( mapped, index + 1 );
+        newSegments[index] = segment;
+        segments = newSegments;
+        return segment;
+    }
+
+    @Override
+    public long read( long filePageId, long bufferAddress ) throws IOException
+    {
+        long stamp = segmentsLock.readLock();
+        try
+        {
+            return readUnderLock( filePageId, bufferAddress );
+        }
+        finally
+        {
+            segmentsLock.unlockRead( stamp );
+        }
+    }
+
+    private long readUnderLock( long filePageId, long bufferAddress ) throws IOException
+    {
+        checkOpen();
+        long fileOffset = pageIdToPosition( filePageId );
+        long currentFileSize = getCurrentFileSize();
+        if ( fileOffset >= currentFileSize )
+        {
+            UnsafeUtil.setMemory( bufferAddress, filePageSize, MuninnPageCache.ZERO_BYTE );
+            return 0;
+        }
+
+        int available = (int) Math.min( filePageSize, currentFileSize - fileOffset );
+        MappedByteBuffer segment = mappedSegment( filePageId, available );
+        UnsafeUtil.copyMemory( addressOf( segment, filePageId ), bufferAddress, available );
+        Reference.reachabilityFence( segment );
+        int rest = filePageSize - available;
+        if ( rest > 0 )
+        {
+            UnsafeUtil.setMemory( bufferAddress + available, rest, MuninnPageCache.ZERO_BYTE );
+        }
+        return available;
+    }
+
+    @Override
+    public long read( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
+    {
+        long stamp = segmentsLock.readLock();
+        try
+        {
+            long bytes = 0;
+            for ( int i = 0; i < length; i++ )
+            {
+                bytes += readUnderLock( startFilePageId + i, bufferAddresses[arrayOffset + i] );
+            }
+            return bytes;
+        }
+        finally
+        {
+            segmentsLock.unlockRead( stamp );
+        }
+    }
+
+    @Override
+    public long write( long filePageId, long bufferAddress ) throws IOException
+    {
+        long stamp = segmentsLock.readLock();
+        try
+        {
+            return writeUnderLock( filePageId, bufferAddress );
+        }
+        finally
+        {
+            segmentsLock.unlockRead( stamp );
+        }
+    }
+
+    private long writeUnderLock( long filePageId, long bufferAddress ) throws IOException
+    {
+        checkOpen();
+        long fileOffset = pageIdToPosition( filePageId );
+        long endOffset = fileOffset + filePageSize;
+        if ( endOffset <= getCurrentFileSize() )
+        {
+            MappedByteBuffer segment = mappedSegment( filePageId, filePageSize );
+            UnsafeUtil.copyMemory( bufferAddress, addressOf( segment, filePageId ), filePageSize );
+            Reference.reachabilityFence( segment );
+        }
+        else
+        {
+            // Mapping this page would extend the file, so we append through the channel instead.
+            ByteBuffer buffer = wrap( bufferAddress, filePageSize );
+            channelOperation( ch ->
+            {
+                buffer.clear();
+                ch.writeAll( buffer, fileOffset );
+                return null;
+            }, MAX_INTERRUPTED_CHANNEL_REOPEN_ATTEMPTS );
+            increaseFileSizeTo( endOffset );
+        }
+        return filePageSize;
+    }
+
+    @Override
+    public long write( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
+    {
+        long stamp = segmentsLock.readLock();
+        try
+        {
+            long bytes = 0;
+            for ( int i = 0; i < length; i++ )
+            {
+                bytes += writeUnderLock( startFilePageId + i, bufferAddresses[arrayOffset + i] );
+            }
+            return bytes;
+        }
+        finally
+        {
+            segmentsLock.unlockRead( stamp );
+        }
+    }
+
+    @Override
+    public void evicted( long filePageId )
+    {
+        PageEvictionCallback callback = this.onEviction;
+        if ( callback != null )
+        {
+            callback.onEvict( filePageId );
+        }
+    }
+
+    @Override
+    public File file()
+    {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        long stamp = segmentsLock.writeLock();
+        try
+        {
+            synchronized ( this )
+            {
+                closed = true;
+                segments = NO_SEGMENTS;
+                try
+                {
+                    channel.close();
+                }
+                finally
+                {
+                    // See SingleFilePageSwapper.close() for why we eagerly release the callback.
+                    onEviction = null;
+                }
+            }
+        }
+        finally
+        {
+            segmentsLock.unlockWrite( stamp );
+        }
+    }
+
+    @Override
+    public void closeAndDelete() throws IOException
+    {
+        close();
+        fs.deleteFile( file );
+    }
+
+    @Override
+    public void force() throws IOException
+    {
+        long stamp = segmentsLock.readLock();
+        try
+        {
+            for ( MappedByteBuffer segment : segments )
+            {
+                if ( segment != null )
+                {
+                    segment.force();
+                }
+            }
+        }
+        finally
+        {
+            segmentsLock.unlockRead( stamp );
+        }
+        channelOperation( ch ->
+        {
+            ch.force( false );
+            return null;
+        }, MAX_INTERRUPTED_CHANNEL_REOPEN_ATTEMPTS );
+    }
+
+    @Override
+    public long getLastPageId()
+    {
+        long channelSize = getCurrentFileSize();
+        if ( channelSize == 0 )
+        {
+            return PageCursor.UNBOUND_PAGE_ID;
+        }
+        long div = channelSize / filePageSize;
+        long mod = channelSize % filePageSize;
+        return mod == 0 ? div - 1 : div;
+    }
+
+    @Override
+    public void truncate() throws IOException
+    {
+        long stamp = segmentsLock.writeLock();
+        try
+        {
+            synchronized ( this )
+            {
+                segments = NO_SEGMENTS;
+                setCurrentFileSize( 0 );
+                channelOperation( ch -> ch.truncate( 0 ), MAX_INTERRUPTED_CHANNEL_REOPEN_ATTEMPTS );
+            }
+        }
+        finally
+        {
+            segmentsLock.unlockWrite( stamp );
+        }
+    }
+
+    private <T> T channelOperation( ChannelOperation<T> operation, int attemptsLeft ) throws IOException
+    {
+        try
+        {
+            return operation.apply( channel );
+        }
+        catch ( ClosedChannelException e )
+        {
+            tryReopen( e );
+
+            if ( attemptsLeft < 1 )
+            {
+                throw new IOException( "IO failed due to interruption", e );
+            }
+
+            boolean interrupted = Thread.interrupted();
+            T result = channelOperation( operation, attemptsLeft - 1 );
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Reopens the channel if it has been closed by an interrupt or the like, but not by {@link #close()}.
+     * The mapped segments stay valid across this, since a mapping does not depend on the channel it was created from.
+     *
+     * @see SingleFilePageSwapper
+     */
+    private synchronized void tryReopen( ClosedChannelException closedException ) throws ClosedChannelException
+    {
+        if ( channel.isOpen() )
+        {
+            // Someone got ahead of us, presumably. Nothing to do.
+            return;
+        }
+
+        if ( closed )
+        {
+            // We've been explicitly closed, so we shouldn't reopen the channel.
+            throw closedException;
+        }
+
+        try
+        {
+            channel = fs.write( file );
+            // The closing of a FileChannel also releases all associated file locks.
+            acquireLock();
+        }
+        catch ( IOException e )
+        {
+            closedException.addSuppressed( e );
+            throw closedException;
+        }
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+
+        MappedFilePageSwapper that = (MappedFilePageSwapper) o;
+
+        return file.equals( that.file );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return file.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MappedFilePageSwapper{" +
+                "filePageSize=" + filePageSize +
+                ", file=" + file +
+                '}';
+    }
+
+    @FunctionalInterface
+    private interface ChannelOperation<T>
+    {
+        T apply( StoreChannel channel ) throws IOException;
+    }
+}
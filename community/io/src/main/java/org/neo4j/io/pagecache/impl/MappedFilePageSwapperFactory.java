@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.apache.commons.lang3.SystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+
+import org.neo4j.annotations.service.ServiceProvider;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+
+/**
+ * A factory for MappedFilePageSwapper instances, selected with {@code dbms.memory.pagecache.swapper=mmap}.
+ *
+ * Files that cannot be memory mapped, either because the file system does not support it or because direct IO has
+ * been asked for, get a {@link SingleFilePageSwapper} instead. The same goes for all files on Windows, where a file
+ * cannot be truncated or deleted while it is mapped.
+ *
+ * @see org.neo4j.io.pagecache.impl.MappedFilePageSwapper
+ */
+@ServiceProvider
+public class MappedFilePageSwapperFactory implements PageSwapperFactory
+{
+    private FileSystemAbstraction fs;
+
+    @Override
+    public void open( FileSystemAbstraction fs )
+    {
+        this.fs = fs;
+    }
+
+    @Override
+    public PageSwapper createPageSwapper(
+            File file,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist,
+            boolean noChannelStriping,
+            boolean useDirectIO ) throws IOException
+    {
+        if ( !fs.fileExists( file ) )
+        {
+            if ( createIfNotExist )
+            {
+                fs.write( file ).close();
+            }
+            else
+            {
+                throw new NoSuchFileException( file.getPath(), null, "Cannot map non-existing file" );
+            }
+        }
+        if ( useDirectIO || SystemUtils.IS_OS_WINDOWS || !canMap( file ) )
+        {
+            return new SingleFilePageSwapper( file, fs, filePageSize, onEviction, noChannelStriping, useDirectIO );
+        }
+        return new MappedFilePageSwapper( file, fs, filePageSize, onEviction );
+    }
+
+    private boolean canMap( File file ) throws IOException
+    {
+        try ( StoreChannel channel = fs.write( file ) )
+        {
+            return MappedFilePageSwapper.canMap( channel );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        // We have nothing to close
+    }
+
+    @Override
+    public String getName()
+    {
+        return "mmap";
+    }
+
+    @Override
+    public long getRequiredBufferAlignment()
+    {
+        return 1;
+    }
+}
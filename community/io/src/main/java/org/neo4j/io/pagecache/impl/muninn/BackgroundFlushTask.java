@@ -19,38 +19,23 @@
  */
 package org.neo4j.io.pagecache.impl.muninn;
 
-import java.util.concurrent.atomic.AtomicInteger;
-
 /**
- * A free page in the MuninnPageCache.freelist.
+ * This Runnable writes out dirty pages in the background. Only one is expected for each page cache.
+ *
+ * The task runs until the page cache is closed.
  *
- * The next pointers are always other FreePage instances.
+ * @see MuninnPageCache#continuouslyFlushDirtyPages()
  */
-final class FreePage
+final class BackgroundFlushTask extends BackgroundTask
 {
-    final long pageRef;
-    int count;
-    Object next;
-
-    FreePage( long pageRef )
+    BackgroundFlushTask( MuninnPageCache pageCache )
     {
-        this.pageRef = pageRef;
+        super( pageCache );
     }
 
-    void setNext( Object next )
+    @Override
+    protected void run( MuninnPageCache pageCache )
     {
-        this.next = next;
-        if ( next == null )
-        {
-            count = 1;
-        }
-        else if ( next.getClass() == AtomicInteger.class )
-        {
-            count = 1 + ((AtomicInteger) next).get();
-        }
-        else
-        {
-            this.count = 1 + ((FreePage) next).count;
-        }
+        pageCache.continuouslyFlushDirtyPages();
     }
 }
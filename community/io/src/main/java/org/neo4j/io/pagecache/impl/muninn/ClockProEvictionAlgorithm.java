@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A scan resistant variant of CLOCK, loosely based on CLOCK-Pro.
+ * <p>
+ * Pages with a usage counter of at most one are considered <em>cold</em>, and are evicted as soon as the clock hand
+ * reaches them. Pages that have been accessed more than that are considered <em>hot</em>, and unlike in CLOCK, the
+ * clock hand does not decrement their usage counter on every pass. Hot pages are only aged once every
+ * {@code agingInterval} revolutions, or when a hand has passed over so many hot pages in a row that the cache is
+ * evidently starved of cold pages. A revolution is counted whenever the background eviction thread and the page
+ * faulting threads that evict cooperatively have together visited as many pages as there are in the cache, since
+ * cooperative eviction is all there is when the background eviction thread can't keep up. A full store scan, which brings in a long
+ * stream of cold pages, will therefore mostly evict its own pages rather than the hot working set.
+ * <p>
+ * Cold pages that are evicted are remembered in a fixed-size <em>ghost table</em>, which is a lossy hash table of
+ * file page bindings, sized to roughly the number of pages in the cache. If a page is faulted back in while its ghost
+ * entry is still present, then the page was re-accessed within what CLOCK-Pro calls its test period, and it is
+ * admitted directly as a hot page.
+ * <p>
+ * The background eviction thread and the cooperatively evicting threads update the state in this class concurrently,
+ * so the visit counter, the run of hot pages and the ghost table are all atomic. A ghost entry is only cleared by the
+ * thread that finds it, so a page that is faulted in by several threads at once is only promoted once.
+ */
+final class ClockProEvictionAlgorithm extends EvictionAlgorithm
+{
+    // Hot pages have their usage counters decremented once every agingInterval revolutions of the eviction clock hands.
+    private static final int agingInterval = Math.max( 1, getInteger( ClockProEvictionAlgorithm.class, "agingInterval", 8 ) );
+
+    private static final long EMPTY_GHOST = 0;
+    // Swapper ids are 21 bits, and file page ids are 40 bits, so the binding of a page fits in a long.
+    private static final int GHOST_SHIFT_FILE_PAGE_ID = 21;
+    private static final int MAX_GHOST_TABLE_SIZE = 1 << 30;
+
+    private final AtomicLongArray ghosts;
+    private final int ghostMask;
+    private final int pageCount;
+    private final int coldStarvationThreshold;
+    // The total number of pages visited by the clock hands; every pageCount visits make a revolution.
+    private final AtomicLong visitedPages = new AtomicLong();
+    private final AtomicInteger consecutiveHotPages = new AtomicInteger();
+
+    ClockProEvictionAlgorithm( PageList pages )
+    {
+        super( pages );
+        this.pageCount = pages.getPageCount();
+        int ghostTableSize = Math.min( MAX_GHOST_TABLE_SIZE, Integer.highestOneBit( pageCount ) );
+        this.ghosts = new AtomicLongArray( ghostTableSize );
+        this.ghostMask = ghostTableSize - 1;
+        this.coldStarvationThreshold = pageCount / 2;
+    }
+
+    @Override
+    boolean shouldEvict( long pageRef )
+    {
+        long revolutions = visitedPages.incrementAndGet() / pageCount;
+        if ( pages.getUsageCounter( pageRef ) <= 1 )
+        {
+            consecutiveHotPages.set( 0 );
+            return pages.decrementUsage( pageRef );
+        }
+        if ( revolutions % agingInterval == 0 || consecutiveHotPages.incrementAndGet() > coldStarvationThreshold )
+        {
+            return pages.decrementUsage( pageRef );
+        }
+        return false;
+    }
+
+    @Override
+    void pageFaulted( long pageRef, int swapperId, long filePageId )
+    {
+        long binding = binding( swapperId, filePageId );
+        int slot = slot( binding );
+        if ( ghosts.compareAndSet( slot, binding, EMPTY_GHOST ) )
+        {
+            pages.setMaxUsage( pageRef );
+        }
+    }
+
+    @Override
+    void pageEvicted( long pageRef, int swapperId, long filePageId )
+    {
+        long binding = binding( swapperId, filePageId );
+        ghosts.set( slot( binding ), binding );
+    }
+
+    private static long binding( int swapperId, long filePageId )
+    {
+        // Swapper id zero is never used by mapped files, so a binding is never equal to EMPTY_GHOST.
+        return (filePageId << GHOST_SHIFT_FILE_PAGE_ID) | swapperId;
+    }
+
+    private int slot( long binding )
+    {
+        long hash = binding * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & ghostMask;
+    }
+}
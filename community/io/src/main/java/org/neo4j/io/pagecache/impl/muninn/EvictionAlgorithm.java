@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The per page cache state of an {@link EvictionPolicy}.
+ * <p>
+ * The clock hands of the page cache visit the loaded pages in the {@link PageList}, and ask the eviction algorithm if
+ * the given page should be evicted. The algorithm is also notified when pages are faulted in and evicted, so it can
+ * keep track of any access history it needs beyond the usage counter of the page.
+ * <p>
+ * The methods on this class are called concurrently by the background eviction thread and by page faulting threads
+ * that do cooperative eviction. Implementations are allowed to be benignly racy for performance.
+ */
+abstract class EvictionAlgorithm
+{
+    final PageList pages;
+
+    EvictionAlgorithm( PageList pages )
+    {
+        this.pages = pages;
+    }
+
+    /**
+     * Decide if the given loaded page should be evicted. This may also update the usage counter of the page.
+     *
+     * @param pageRef the page that the clock hand is currently pointing at.
+     * @return {@code true} if an attempt should be made at evicting the page.
+     */
+    abstract boolean shouldEvict( long pageRef );
+
+    /**
+     * Called when the given page has been faulted in, while the page is still exclusively locked.
+     */
+    void pageFaulted( long pageRef, int swapperId, long filePageId )
+    {
+    }
+
+    /**
+     * Called when the given page is evicted, while the page is still exclusively locked and bound to the given file
+     * page.
+     */
+    void pageEvicted( long pageRef, int swapperId, long filePageId )
+    {
+    }
+}
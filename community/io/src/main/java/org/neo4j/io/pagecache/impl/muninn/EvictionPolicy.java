@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The policies that the {@link MuninnPageCache} can use for choosing which pages to evict, when it needs free pages
+ * for page faulting.
+ */
+public enum EvictionPolicy
+{
+    /**
+     * The classic CLOCK algorithm, where the clock hand decrements the usage counter of every page it passes, and
+     * evicts pages whose usage counter has dropped to zero.
+     */
+    CLOCK
+            {
+                @Override
+                EvictionAlgorithm createAlgorithm( PageList pages )
+                {
+                    return new ClockEvictionAlgorithm( pages );
+                }
+            },
+    /**
+     * A scan resistant variant of CLOCK, inspired by CLOCK-Pro, that keeps a ghost table of recently evicted cold
+     * pages, and only slowly ages pages that have been accessed repeatedly. Pages that are only touched once, such as
+     * those brought in by a full store scan, are evicted before they can push out the hot working set.
+     */
+    CLOCK_PRO
+            {
+                @Override
+                EvictionAlgorithm createAlgorithm( PageList pages )
+                {
+                    return new ClockProEvictionAlgorithm( pages );
+                }
+            };
+
+    abstract EvictionAlgorithm createAlgorithm( PageList pages );
+}
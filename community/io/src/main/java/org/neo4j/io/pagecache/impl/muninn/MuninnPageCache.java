@@ -33,6 +33,7 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.mem.MemoryAllocator;
@@ -54,6 +55,7 @@ import org.neo4j.scheduler.JobHandle;
 import org.neo4j.scheduler.JobScheduler;
 
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 import static org.neo4j.internal.helpers.Numbers.isPowerOfTwo;
 import static org.neo4j.util.FeatureToggles.flag;
 import static org.neo4j.util.FeatureToggles.getInteger;
@@ -115,6 +117,18 @@ public class MuninnPageCache implements PageCache
     // The amount of memory we need for every page, both its buffer and its meta-data.
     private static final int MEMORY_USE_PER_PAGE = PAGE_SIZE + PageList.META_DATA_BYTES_PER_PAGE;
 
+    // The most pages that the background flusher will write in one go, before it checks the dirty page ratio again.
+    private static final int backgroundFlushMaxPages = getInteger(
+            MuninnPageCache.class, "backgroundFlushMaxPages", 1024 );
+
+    // How long the background flusher will wait between checking the dirty page ratio, when it is below the target.
+    private static final int backgroundFlushIdleMillis = getInteger(
+            MuninnPageCache.class, "backgroundFlushIdleMillis", 1000 );
+
+    // How long the background flusher will wait between writing batches of pages, when it is above the target.
+    private static final int backgroundFlushBusyMillis = getInteger(
+            MuninnPageCache.class, "backgroundFlushBusyMillis", 100 );
+
     // Keep this many pages free and ready for use in faulting.
     // This will be truncated to be no more than half of the number of pages
     // in the cache.
@@ -131,16 +145,6 @@ public class MuninnPageCache implements PageCache
     private static final IOException oomException = new IOException(
             "OutOfMemoryError encountered in the page cache background eviction thread" );
 
-    // The field offset to unsafely access the freelist field.
-    private static final long freelistOffset =
-            UnsafeUtil.getFieldOffset( MuninnPageCache.class, "freelist" );
-
-    // This is used as a poison-pill signal in the freelist, to inform any
-    // page faulting thread that it is now no longer possible to queue up and
-    // wait for more pages to be evicted, because the page cache has been shut
-    // down.
-    private static final FreePage shutdownSignal = new FreePage( 0 );
-
     // A counter used to identify which background threads belong to which page cache.
     private static final AtomicInteger pageCacheIdCounter = new AtomicInteger();
 
@@ -161,19 +165,16 @@ public class MuninnPageCache implements PageCache
     private final PageCursorTracerSupplier pageCursorTracerSupplier;
     private final VersionContextSupplier versionContextSupplier;
     final PageList pages;
+    final EvictionAlgorithm evictionAlgorithm;
     // All PageCursors are initialised with their pointers pointing to the victim page. This way, we don't have to throw
     // exceptions on bounds checking failures; we can instead return the victim page pointer, and permit the page
     // accesses to take place without fear of segfaulting newly allocated cursors.
     final long victimPage;
 
-    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
-    // Initially, the field is an AtomicInteger that counts from zero to the max page count, at which point all of the
-    // pages have been put in use. Once this happens, the field is set to null to allow the background eviction thread
-    // to start its work. From that point on, the field will operate as a concurrent stack of FreePage objects. The
-    // eviction thread pushes newly freed FreePage objects onto the stack, and page faulting threads pops FreePage
-    // objects from the stack. The FreePage objects are single-use, to avoid running into the ABA-problem.
-    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
-    private volatile Object freelist;
+    // The freelist hands out pages that have never been used, until they have all been put in use. From that point on,
+    // the background eviction thread adds the pages it evicts to the freelist, and page faulting threads grab them from
+    // it. See StripedFreelist for how it avoids contention between the page faulting threads.
+    private final StripedFreelist freelist;
 
     // Linked list of mappings - guarded by synchronized(this)
     private volatile FileMapping mappedFiles;
@@ -189,6 +190,19 @@ public class MuninnPageCache implements PageCache
     private volatile boolean evictorParked;
     private volatile IOException evictorException;
 
+    // The thread that writes out dirty pages in the background, to keep the ratio of dirty pages below this target.
+    // A target of 1.0 or more disables the background flushing.
+    private volatile Thread backgroundFlushThread;
+    private volatile double targetDirtyRatio = 1.0;
+    // The background flusher writes through this limiter, so that it stays within the configured IOPS like checkpoints.
+    private volatile IOLimiter backgroundFlushLimiter = IOLimiter.UNLIMITED;
+    // Told about the first failure of the background flusher after it has been writing successfully.
+    private volatile Consumer<IOException> backgroundFlushFailureHandler = failure -> {};
+    // Only accessed by the background flush thread.
+    private boolean backgroundFlushFailing;
+    // The number of flushAndForce calls currently in progress. The background flusher stays out of their way.
+    private final AtomicInteger flushAndForceInProgress = new AtomicInteger();
+
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
     private volatile boolean closed;
 
@@ -254,7 +268,32 @@ public class MuninnPageCache implements PageCache
             VersionContextSupplier versionContextSupplier,
             JobScheduler jobScheduler )
     {
-        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, pageCursorTracerSupplier, versionContextSupplier, jobScheduler );
+        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, pageCursorTracerSupplier, versionContextSupplier, jobScheduler,
+                EvictionPolicy.CLOCK );
+    }
+
+    /**
+     * Create page cache.
+     * @param swapperFactory page cache swapper factory
+     * @param memoryAllocator the source of native memory the page cache should use
+     * @param pageCacheTracer global page cache tracer
+     * @param pageCursorTracerSupplier supplier of thread local (transaction local) page cursor tracer that will provide
+     * thread local page cache statistics
+     * @param versionContextSupplier supplier of thread local (transaction local) version context that will provide
+     *        access to thread local version context
+     * @param evictionPolicy the policy used for choosing which pages to evict
+     */
+    public MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            MemoryAllocator memoryAllocator,
+            PageCacheTracer pageCacheTracer,
+            PageCursorTracerSupplier pageCursorTracerSupplier,
+            VersionContextSupplier versionContextSupplier,
+            JobScheduler jobScheduler,
+            EvictionPolicy evictionPolicy )
+    {
+        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, pageCursorTracerSupplier, versionContextSupplier, jobScheduler,
+                evictionPolicy );
     }
 
     /**
@@ -271,6 +310,20 @@ public class MuninnPageCache implements PageCache
             PageCursorTracerSupplier pageCursorTracerSupplier,
             VersionContextSupplier versionContextSupplier,
             JobScheduler jobScheduler )
+    {
+        this( swapperFactory, memoryAllocator, cachePageSize, pageCacheTracer, pageCursorTracerSupplier, versionContextSupplier, jobScheduler,
+                EvictionPolicy.CLOCK );
+    }
+
+    private MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            MemoryAllocator memoryAllocator,
+            int cachePageSize,
+            PageCacheTracer pageCacheTracer,
+            PageCursorTracerSupplier pageCursorTracerSupplier,
+            VersionContextSupplier versionContextSupplier,
+            JobScheduler jobScheduler,
+            EvictionPolicy evictionPolicy )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
@@ -290,9 +343,9 @@ public class MuninnPageCache implements PageCache
         long alignment = swapperFactory.getRequiredBufferAlignment();
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize );
         this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, alignment );
+        this.evictionAlgorithm = evictionPolicy.createAlgorithm( pages );
         this.scheduler = jobScheduler;
-
-        setFreelistHead( new AtomicInteger() );
+        this.freelist = new StripedFreelist( pages, pageCacheTracer );
     }
 
     private static void verifyHacks()
@@ -495,6 +548,7 @@ public class MuninnPageCache implements PageCache
         try
         {
             scheduler.schedule( Group.PAGE_CACHE, new EvictionTask( this ) );
+            scheduler.schedule( Group.PAGE_CACHE, new BackgroundFlushTask( this ) );
         }
         catch ( Exception e )
         {
@@ -592,6 +646,7 @@ public class MuninnPageCache implements PageCache
         }
         List<PagedFile> files = listExistingMappings();
 
+        flushAndForceStarted();
         try ( MajorFlushEvent ignored = pageCacheTracer.beginCacheFlush() )
         {
             if ( limiter.isLimited() )
@@ -603,9 +658,23 @@ public class MuninnPageCache implements PageCache
                 flushAllPagesParallel( files, limiter );
             }
         }
+        finally
+        {
+            flushAndForceFinished();
+        }
         clearEvictorException();
     }
 
+    void flushAndForceStarted()
+    {
+        flushAndForceInProgress.incrementAndGet();
+    }
+
+    void flushAndForceFinished()
+    {
+        flushAndForceInProgress.decrementAndGet();
+    }
+
     private void flushAllPages( List<PagedFile> files, IOLimiter limiter ) throws IOException
     {
         for ( PagedFile file : files )
@@ -686,6 +755,8 @@ public class MuninnPageCache implements PageCache
 
         interrupt( evictionThread );
         evictionThread = null;
+        interrupt( backgroundFlushThread );
+        backgroundFlushThread = null;
 
         // Close the page swapper factory last. If this fails then we will still consider ourselves closed.
         swapperFactory.close();
@@ -755,70 +826,46 @@ public class MuninnPageCache implements PageCache
 
     long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
     {
-        // Review the comment on the freelist field before making changes to
-        // this part of the code.
-        // Whatever the case, we're going to the head-pointer of the freelist,
-        // and in doing so, we can discover a number of things.
-        // We can discover a MuninnPage object, in which case we can try to
-        // CAS the freelist pointer to the value of the MuninnPage.nextFree
-        // pointer, and if this succeeds then we've grabbed that page.
-        // We can discover a FreePage object, in which case we'll do a similar
-        // dance by attempting to CAS the freelist to the FreePage objects next
-        // pointer, and again, if we succeed then we've grabbed the MuninnPage
-        // given by the FreePage object.
-        // We can discover a null-pointer, in which case the freelist has just
-        // been emptied for whatever it contained before. New FreePage objects
-        // are eventually going to be added to the freelist, but we are not
-        // going to wait around for that to happen. If the freelist is empty,
-        // then we do our own eviction to get a free page.
-        // If we find a FreePage object on the freelist, then it is important
-        // to check and see if it is the shutdownSignal instance. If that's the
-        // case, then the page cache has been shut down, and we should throw an
-        // exception from our page fault routine.
-        Object current;
+        // Whatever the case, we first try to grab a page from the freelist. If the freelist is empty, then we are not
+        // going to wait around for the eviction thread to add more pages to it. Instead, we do our own eviction to get
+        // a free page. The freelist throws if the page cache has been shut down, since it is then no longer possible
+        // to get pages from the eviction thread.
         for (;;)
         {
             assertHealthy();
-            current = getFreelistHead();
-            if ( current == null )
-            {
-                unparkEvictor();
-                long pageRef = cooperativelyEvict( faultEvent );
-                if ( pageRef != 0 )
-                {
-                    return pageRef;
-                }
-            }
-            else if ( current instanceof AtomicInteger )
+            long pageRef = freelist.tryGrab();
+            if ( pageRef != 0 )
             {
-                int pageCount = pages.getPageCount();
-                AtomicInteger counter = (AtomicInteger) current;
-                int pageId = counter.get();
-                if ( pageId < pageCount && counter.compareAndSet( pageId, pageId + 1 ) )
-                {
-                    return pages.deref( pageId );
-                }
-                if ( pageId >= pageCount )
-                {
-                    compareAndSetFreelistHead( current, null );
-                }
+                return pageRef;
             }
-            else if ( current instanceof FreePage )
+            unparkEvictor();
+            pageRef = cooperativelyEvict( faultEvent );
+            if ( pageRef != 0 )
             {
-                FreePage freePage = (FreePage) current;
-                if ( freePage == shutdownSignal )
-                {
-                    throw new IllegalStateException( "The PageCache has been shut down." );
-                }
-
-                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
-                {
-                    return freePage.pageRef;
-                }
+                return pageRef;
             }
         }
     }
 
+    /**
+     * Grab a free page from the freelist, without doing any eviction.
+     *
+     * @return the exclusively locked free page, or {@code 0} if there are no free pages available right now.
+     */
+    long tryGrabFreeAndExclusivelyLockedPage()
+    {
+        assertNotClosed();
+        return freelist.tryGrab();
+    }
+
+    /**
+     * Run the given read-ahead job in the background.
+     */
+    void scheduleReadAhead( ReadAhead readAhead )
+    {
+        scheduler.schedule( Group.PAGE_CACHE, readAhead );
+    }
+
     private long cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
     {
         int iterations = 0;
@@ -829,7 +876,7 @@ public class MuninnPageCache implements PageCache
         do
         {
             assertHealthy();
-            if ( getFreelistHead() != null )
+            if ( freelist.hasFreePages() )
             {
                 return 0;
             }
@@ -845,7 +892,7 @@ public class MuninnPageCache implements PageCache
             }
 
             pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && evictionAlgorithm.shouldEvict( pageRef ) )
             {
                 evicted = pages.tryEvict( pageRef, faultEvent );
             }
@@ -887,25 +934,10 @@ public class MuninnPageCache implements PageCache
         evictorParked = false;
     }
 
-    private Object getFreelistHead()
-    {
-        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
-    }
-
-    private boolean compareAndSetFreelistHead( Object expected, Object update )
-    {
-        return UnsafeUtil.compareAndSwapObject(
-                this, freelistOffset, expected, update );
-    }
-
-    private void setFreelistHead( Object newFreelistHead )
-    {
-        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
-    }
-
     /**
-     * Scan through all the pages, one by one, and decrement their usage stamps.
-     * If a usage reaches zero, we try-write-locking it, and if we get that lock,
+     * Scan through all the pages, one by one, and let the {@link EvictionAlgorithm} decide if they should be evicted.
+     * With the default {@link EvictionPolicy#CLOCK} policy, this decrements their usage stamps, and if a usage
+     * reaches zero, we try-write-locking it, and if we get that lock,
      * we evict the page. If we don't, we move on to the next page.
      * Once we have enough free pages, we park our thread. Page-faulting will
      * unpark our thread as needed.
@@ -926,7 +958,7 @@ public class MuninnPageCache implements PageCache
 
         // The last thing we do, is signalling the shutdown of the cache via
         // the freelist. This signal is looked out for in grabFreePage.
-        setFreelistHead( shutdownSignal );
+        freelist.shutdown();
     }
 
     private int parkUntilEvictionRequired( int keepFree )
@@ -952,28 +984,10 @@ public class MuninnPageCache implements PageCache
 
     private int tryGetNumberOfAvailablePages( int keepFree )
     {
-        Object freelistHead = getFreelistHead();
-
-        if ( freelistHead == null )
+        int availablePages = freelist.availablePages();
+        if ( availablePages < keepFree )
         {
-            return keepFree;
-        }
-        else if ( freelistHead.getClass() == FreePage.class )
-        {
-            int availablePages = ((FreePage) freelistHead).count;
-            if ( availablePages < keepFree )
-            {
-                return keepFree - availablePages;
-            }
-        }
-        else if ( freelistHead.getClass() == AtomicInteger.class )
-        {
-            AtomicInteger counter = (AtomicInteger) freelistHead;
-            long count = pages.getPageCount() - counter.get();
-            if ( count < keepFree )
-            {
-                return count < 0 ? keepFree : (int) (keepFree - count);
-            }
+            return keepFree - availablePages;
         }
         return UNKNOWN_AVAILABLE_PAGES;
     }
@@ -994,7 +1008,7 @@ public class MuninnPageCache implements PageCache
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && evictionAlgorithm.shouldEvict( pageRef ) )
             {
                 try
                 {
@@ -1028,18 +1042,167 @@ public class MuninnPageCache implements PageCache
 
     void addFreePageToFreelist( long pageRef )
     {
-        Object current;
-        FreePage freePage = new FreePage( pageRef );
-        do
+        freelist.add( pageRef );
+    }
+
+    /**
+     * Set the ratio of dirty pages to the total number of pages, that the background flusher will try to stay below.
+     * Dirty pages over this target are written out in the background, the least recently modified ones first, so that
+     * checkpoints have less to flush. A ratio of 1.0 or more disables the background flushing.
+     *
+     * @param targetDirtyRatio the target ratio of dirty pages, between 0.0 and 1.0.
+     */
+    public void setTargetDirtyRatio( double targetDirtyRatio )
+    {
+        if ( targetDirtyRatio < 0 || Double.isNaN( targetDirtyRatio ) )
         {
-            current = getFreelistHead();
-            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > pages.getPageCount() )
+            throw new IllegalArgumentException( "Target dirty page ratio must be between 0.0 and 1.0, but was " + targetDirtyRatio + "." );
+        }
+        this.targetDirtyRatio = targetDirtyRatio;
+        LockSupport.unpark( backgroundFlushThread );
+    }
+
+    /**
+     * Set the limiter that the background flusher writes dirty pages through. By default the background flusher is
+     * not limited.
+     *
+     * @param limiter the limiter to write through.
+     */
+    public void setBackgroundFlushLimiter( IOLimiter limiter )
+    {
+        this.backgroundFlushLimiter = requireNonNull( limiter );
+    }
+
+    /**
+     * Set the handler that is told when the background flusher fails to write dirty pages. A failing file is left to
+     * the next checkpoint, so the handler is only told about the first failure after a successful round of flushing,
+     * rather than about every round while the failure persists. Every failure is counted by the tracer.
+     *
+     * @param handler the handler of background flush failures.
+     */
+    public void setBackgroundFlushFailureHandler( Consumer<IOException> handler )
+    {
+        this.backgroundFlushFailureHandler = requireNonNull( handler );
+    }
+
+    /**
+     * Periodically count the dirty pages, and report them to the tracer. Whenever there are more dirty pages than the
+     * target dirty ratio allows, and no flushAndForce is in progress, write out the excess pages in batches, oldest
+     * first by their last modifying transaction, and in file page order within each file.
+     * <p>
+     * Counting the dirty pages is a scan of the whole page list, so while the target ratio is 1.0 or more, and can
+     * therefore never be exceeded, we don't count at all, and sleep until the target ratio is changed.
+     */
+    void continuouslyFlushDirtyPages()
+    {
+        backgroundFlushThread = Thread.currentThread();
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos( backgroundFlushIdleMillis );
+        long busyNanos = TimeUnit.MILLISECONDS.toNanos( backgroundFlushBusyMillis );
+
+        while ( !closed )
+        {
+            double ratio = targetDirtyRatio;
+            if ( ratio >= 1.0 )
             {
-                current = null;
+                // Woken up by setTargetDirtyRatio, or interrupted by close.
+                LockSupport.park( this );
+                Thread.interrupted();
+                continue;
             }
-            freePage.setNext( current );
+
+            int dirtyPages = countDirtyPages();
+            pageCacheTracer.dirtyPages( dirtyPages );
+
+            long targetDirtyPages = (long) (ratio * pages.getPageCount());
+            boolean flushed = false;
+            if ( dirtyPages > targetDirtyPages && flushAndForceInProgress.get() == 0 )
+            {
+                int budget = (int) Math.min( dirtyPages - targetDirtyPages, backgroundFlushMaxPages );
+                flushed = flushOldestDirtyPages( budget ) > 0;
+            }
+
+            LockSupport.parkNanos( this, flushed ? busyNanos : idleNanos );
+            Thread.interrupted(); // Interrupts are only used for waking us up. The closed flag is our shutdown signal.
+        }
+    }
+
+    private int countDirtyPages()
+    {
+        int pageCount = pages.getPageCount();
+        int dirtyPages = 0;
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            long pageRef = pages.deref( i );
+            if ( pages.isModified( pageRef ) )
+            {
+                dirtyPages++;
+            }
+        }
+        return dirtyPages;
+    }
+
+    private int flushOldestDirtyPages( int budget )
+    {
+        long cutoffTxId = oldestModifiedTxIdCutoff( budget );
+        IOLimiter limiter = backgroundFlushLimiter;
+        IOException failure = null;
+        int flushed = 0;
+        try ( MajorFlushEvent flushEvent = pageCacheTracer.beginCacheFlush() )
+        {
+            FileMapping fileMapping = mappedFiles;
+            while ( fileMapping != null && flushed < budget && !closed )
+            {
+                try
+                {
+                    flushed += fileMapping.pagedFile.flushOldDirtyPages( flushEvent.flushEventOpportunity(), limiter, cutoffTxId, budget - flushed );
+                }
+                catch ( IOException e )
+                {
+                    // The pages of this file stay dirty, and are left to the next checkpoint.
+                    pageCacheTracer.backgroundFlushExceptions( 1 );
+                    if ( failure == null )
+                    {
+                        failure = e;
+                    }
+                    else
+                    {
+                        failure.addSuppressed( e );
+                    }
+                }
+                fileMapping = fileMapping.next;
+            }
+        }
+        if ( failure != null && !backgroundFlushFailing )
+        {
+            backgroundFlushFailureHandler.accept( failure );
+        }
+        backgroundFlushFailing = failure != null;
+        return flushed;
+    }
+
+    /**
+     * @return the last modifying transaction id of the {@code budget}'th least recently modified dirty page, out of a
+     * sample of at most 16 times the budget, to bound the memory used.
+     */
+    private long oldestModifiedTxIdCutoff( int budget )
+    {
+        int pageCount = pages.getPageCount();
+        long[] txIds = new long[Math.min( pageCount, budget * 16 )];
+        int dirtyPages = 0;
+        for ( int i = 0; i < pageCount && dirtyPages < txIds.length; i++ )
+        {
+            long pageRef = pages.deref( i );
+            if ( pages.isModified( pageRef ) )
+            {
+                txIds[dirtyPages++] = pages.getLastModifiedTxId( pageRef );
+            }
+        }
+        if ( dirtyPages <= budget )
+        {
+            return Long.MAX_VALUE;
         }
-        while ( !compareAndSetFreelistHead( current, freePage ) );
+        Arrays.sort( txIds, 0, dirtyPages );
+        return txIds[budget - 1];
     }
 
     void clearEvictorException()
@@ -1060,7 +1223,7 @@ public class MuninnPageCache implements PageCache
 
     void vacuum( SwapperSet swappers )
     {
-        if ( getFreelistHead() instanceof AtomicInteger && swappers.countAvailableIds() > 200 )
+        if ( freelist.hasUnusedPages() && swappers.countAvailableIds() > 200 )
         {
             return; // We probably still have plenty of free pages left. Don't bother vacuuming just yet.
         }
@@ -41,6 +41,7 @@ import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.UNMAPPED_TTE;
 import static org.neo4j.util.FeatureToggles.flag;
+import static org.neo4j.util.FeatureToggles.getInteger;
 
 public abstract class MuninnPageCursor extends PageCursor
 {
@@ -49,6 +50,13 @@ public abstract class MuninnPageCursor extends PageCursor
 
     private static final boolean boundsCheck = flag( MuninnPageCursor.class, "boundsCheck", true );
 
+    private static final boolean readAheadEnabled = flag( MuninnPageCursor.class, "readAhead", true );
+    // The number of pages a cursor must have moved forward one page at a time, before we consider it to be sequential.
+    private static final int readAheadTrigger = getInteger( MuninnPageCursor.class, "readAheadTrigger", 4 );
+    // The read-ahead window starts out at this many pages, and then doubles for every read-ahead, up to the maximum.
+    private static final int readAheadInitialWindow = Math.max( 1, getInteger( MuninnPageCursor.class, "readAheadInitialWindow", 8 ) );
+    private static final int readAheadMaxWindow = Math.max( 1, getInteger( MuninnPageCursor.class, "readAheadMaxWindow", 64 ) );
+
     private static final int BYTE_ARRAY_BASE_OFFSET = UnsafeUtil.arrayBaseOffset( byte[].class );
     private static final int BYTE_ARRAY_INDEX_SCALE = UnsafeUtil.arrayIndexScale( byte[].class );
 
@@ -81,6 +89,18 @@ public abstract class MuninnPageCursor extends PageCursor
     private int mark;
     private boolean outOfBounds;
     private boolean isLinkedCursor;
+    // Set when the last pin had to page fault.
+    private boolean pinFaulted;
+    // Sequential read-ahead state. The read-ahead covers the file pages from readAheadStart, up to but not including
+    // readAheadEnd, and we only ever have a single read-ahead in flight per cursor.
+    private long lastSequentialPageId = UNBOUND_PAGE_ID;
+    private int sequentialPages;
+    private long readAheadStart;
+    private long readAheadEnd;
+    private int readAheadWindow = readAheadInitialWindow;
+    private ReadAhead readAhead;
+    private long readAheadHits;
+    private long readAheadMisses;
     // This is a String with the exception message if usePreciseCursorErrorStackTraces is false, otherwise it is a
     // CursorExceptionWithPreciseStackTrace with the message and stack trace pointing more or less directly at the
     // offending code.
@@ -105,6 +125,7 @@ public abstract class MuninnPageCursor extends PageCursor
         this.eagerFlush = isFlagRaised( pf_flags, PF_EAGER_FLUSH );
         this.noFault = isFlagRaised( pf_flags, PF_NO_FAULT );
         this.noGrow = noFault || isFlagRaised( pf_flags, PagedFile.PF_NO_GROW );
+        resetReadAhead();
     }
 
     private boolean isFlagRaised( int flagSet, int flag )
@@ -183,6 +204,7 @@ public abstract class MuninnPageCursor extends PageCursor
         while ( cursor != null && cursor.pagedFile != null )
         {
             cursor.unpinCurrentPage();
+            cursor.finishReadAhead();
             // We null out the pagedFile field to allow it and its (potentially big) translation table to be garbage
             // collected when the file is unmapped, since the cursors can stick around in thread local caches, etc.
             cursor.pagedFile = null;
@@ -267,6 +289,7 @@ public abstract class MuninnPageCursor extends PageCursor
      */
     protected void pin( long filePageId, boolean writeLock ) throws IOException
     {
+        pinFaulted = false;
         pinEvent = tracer.beginPin( writeLock, filePageId, swapper );
         int chunkId = MuninnPagedFile.computeChunkId( filePageId );
         // The chunkOffset is the addressing offset into the chunk array object for the relevant array slot. Using
@@ -317,6 +340,98 @@ public abstract class MuninnPageCursor extends PageCursor
         }
     }
 
+    /**
+     * Detect if this cursor is moving sequentially through the file, and if so, fault in a window of the upcoming
+     * pages in the background, with a single vectored read. This must be called right after the given page has been
+     * pinned. The window grows for as long as the access stays sequential, and is reset when the cursor jumps.
+     * We only start reading ahead when the cursor has to page fault, since there is nothing to gain if the pages are
+     * already in memory.
+     *
+     * @param filePageId the page that was just pinned.
+     * @param lastPageId the last page of the file.
+     */
+    final void readAheadIfSequential( long filePageId, long lastPageId )
+    {
+        if ( !readAheadEnabled || noFault )
+        {
+            return;
+        }
+        if ( filePageId >= readAheadStart && filePageId < readAheadEnd )
+        {
+            if ( pinFaulted )
+            {
+                readAheadMisses++;
+            }
+            else
+            {
+                readAheadHits++;
+            }
+        }
+        if ( filePageId == lastSequentialPageId + 1 )
+        {
+            sequentialPages++;
+        }
+        else
+        {
+            sequentialPages = 0;
+            readAheadStart = 0;
+            readAheadEnd = 0;
+            readAheadWindow = readAheadInitialWindow;
+        }
+        lastSequentialPageId = filePageId;
+
+        if ( sequentialPages < readAheadTrigger
+                || (readAheadEnd == 0 && !pinFaulted)
+                || readAheadEnd - filePageId > readAheadWindow / 2
+                || (readAhead != null && !readAhead.isDone()) )
+        {
+            return;
+        }
+        long start = Math.max( filePageId + 1, readAheadEnd );
+        long count = Math.min( readAheadWindow, lastPageId + 1 - start );
+        if ( count <= 0 )
+        {
+            return;
+        }
+        ReadAhead scheduled = pagedFile.readAhead( start, (int) count );
+        if ( scheduled != null )
+        {
+            readAhead = scheduled;
+            if ( start != readAheadEnd )
+            {
+                readAheadStart = start;
+            }
+            readAheadEnd = start + count;
+            readAheadWindow = Math.min( readAheadWindow * 2, readAheadMaxWindow );
+        }
+    }
+
+    private void finishReadAhead()
+    {
+        if ( readAhead != null )
+        {
+            // The read-ahead must not outlive the cursor, since the file could be unmapped once the cursor is closed.
+            readAhead.cancelOrAwait();
+        }
+        if ( readAheadHits != 0 || readAheadMisses != 0 )
+        {
+            pagedFile.reportReadAhead( readAheadHits, readAheadMisses );
+        }
+        resetReadAhead();
+    }
+
+    private void resetReadAhead()
+    {
+        lastSequentialPageId = UNBOUND_PAGE_ID;
+        sequentialPages = 0;
+        readAheadStart = 0;
+        readAheadEnd = 0;
+        readAheadWindow = readAheadInitialWindow;
+        readAhead = null;
+        readAheadHits = 0;
+        readAheadMisses = 0;
+    }
+
     private int[][] expandTranslationTableCapacity( int chunkId )
     {
         return pagedFile.expandCapacity( chunkId );
@@ -393,6 +508,7 @@ public abstract class MuninnPageCursor extends PageCursor
             assertPagedFileStillMappedAndGetIdOfLastPage();
             pagedFile.initBuffer( pageRef );
             pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+            pagedFile.pageFaulted( pageRef, filePageId );
         }
         catch ( Throwable throwable )
         {
@@ -410,6 +526,7 @@ public abstract class MuninnPageCursor extends PageCursor
         convertPageFaultLock( pageRef );
         latch.release();
         faultEvent.done();
+        pinFaulted = true;
         return pageRef;
     }
 
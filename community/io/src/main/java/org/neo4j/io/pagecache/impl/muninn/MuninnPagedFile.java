@@ -24,6 +24,7 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.util.Arrays;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.pagecache.IOLimiter;
@@ -42,6 +43,7 @@ import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 
 import static org.neo4j.util.FeatureToggles.flag;
+import static org.neo4j.util.FeatureToggles.getInteger;
 
 final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 {
@@ -53,6 +55,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     private static final long translationTableChunkSizeMask = translationTableChunkSize - 1;
     private static final int translationTableChunkArrayBase = UnsafeUtil.arrayBaseOffset( int[].class );
     private static final int translationTableChunkArrayScale = UnsafeUtil.arrayIndexScale( int[].class );
+    // The maximum number of pages that touch() will read with a single vectored read.
+    private static final int touchVectorSize = getInteger( MuninnPagedFile.class, "touchVectorSize", 128 );
 
     private static final long headerStateOffset =
             UnsafeUtil.getFieldOffset( MuninnPagedFile.class, "headerState" );
@@ -284,10 +288,15 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         {
             throw new IllegalArgumentException( "IOPSLimiter cannot be null" );
         }
+        pageCache.flushAndForceStarted();
         try ( MajorFlushEvent flushEvent = pageCacheTracer.beginFileFlush( swapper ) )
         {
             flushAndForceInternal( flushEvent.flushEventOpportunity(), false, limiter );
         }
+        finally
+        {
+            pageCache.flushAndForceFinished();
+        }
         pageCache.clearEvictorException();
     }
 
@@ -381,15 +390,52 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     private void doFlushAndForceInternal( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter )
             throws IOException
     {
+        flushDirtyPages( flushes, forClosing, limiter, Long.MAX_VALUE, Integer.MAX_VALUE );
         // TODO it'd be awesome if, on Linux, we'd call sync_file_range(2) instead of fsync
+        swapper.force();
+    }
+
+    /**
+     * Write out, but do not force, at most the given number of dirty pages that were last modified by the given
+     * transaction id, or an older one, through the given limiter. This is used by the background flushing of the page
+     * cache, to keep the number of dirty pages down between checkpoints.
+     *
+     * @return the number of pages written.
+     */
+    int flushOldDirtyPages( FlushEventOpportunity flushes, IOLimiter limiter, long maxLastModifiedTxId, int maxPages ) throws IOException
+    {
+        try
+        {
+            return flushDirtyPages( flushes, false, limiter, maxLastModifiedTxId, maxPages );
+        }
+        catch ( ClosedChannelException e )
+        {
+            if ( getRefCount() > 0 )
+            {
+                e.addSuppressed( closeStackTrace );
+                throw e;
+            }
+            // The file was unmapped while we were flushing it, which flushed it anyway.
+            return 0;
+        }
+    }
+
+    private int flushDirtyPages( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter, long maxLastModifiedTxId, int maxPages )
+            throws IOException
+    {
         long[] pages = new long[translationTableChunkSize];
         long[] flushStamps = forClosing ? null : new long[translationTableChunkSize];
         long[] bufferAddresses = new long[translationTableChunkSize];
         long filePageId = -1; // Start at -1 because we increment at the *start* of the chunk-loop iteration.
         long limiterStamp = IOLimiter.INITIAL_STAMP;
+        int pagesFlushed = 0;
         int[][] tt = this.translationTable;
         for ( int[] chunk : tt )
         {
+            if ( pagesFlushed >= maxPages )
+            {
+                break;
+            }
             // TODO Look into if we can tolerate flushing a few clean pages if it means we can use larger vectors.
             // TODO The clean pages in question must still be loaded, though. Otherwise we'll end up writing
             // TODO garbage to the file.
@@ -413,6 +459,11 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                         {
                             break;
                         }
+                        if ( getLastModifiedTxId( pageRef ) > maxLastModifiedTxId || pagesFlushed + pagesGrabbed >= maxPages )
+                        {
+                            // This page is either too recently modified, or over our budget, so we leave it for later.
+                            break;
+                        }
 
                         long flushStamp = 0;
                         if ( !(forClosing ? tryExclusiveLock( pageRef ) : ((flushStamp = tryFlushLock( pageRef )) != 0)) )
@@ -448,6 +499,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                 {
                     vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, forClosing );
                     limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                    pagesFlushed += pagesGrabbed;
                     pagesGrabbed = 0;
                 }
             }
@@ -455,10 +507,10 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             {
                 vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, forClosing );
                 limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                pagesFlushed += pagesGrabbed;
             }
         }
-
-        swapper.force();
+        return pagesFlushed;
     }
 
     private void vectoredFlush(
@@ -545,6 +597,173 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         swapper.force();
     }
 
+    @Override
+    public int touch( long pageId, int count ) throws IOException
+    {
+        return touch( pageId, count, true );
+    }
+
+    /**
+     * Asynchronously fault in the given range of pages, for a cursor that is reading sequentially through the file.
+     *
+     * @return the scheduled read-ahead, which the cursor must await before it is closed, or {@code null} if the
+     * read-ahead could not be scheduled.
+     */
+    ReadAhead readAhead( long startPageId, int count )
+    {
+        ReadAhead readAhead = new ReadAhead( this, startPageId, count );
+        try
+        {
+            pageCache.scheduleReadAhead( readAhead );
+            return readAhead;
+        }
+        catch ( RejectedExecutionException e )
+        {
+            readAhead.cancelOrAwait();
+            return null;
+        }
+    }
+
+    /**
+     * Like {@link #touch(long, int)}, this never evicts any pages, so the read-ahead is cut short if there are no free
+     * pages. The usage counters of the pages are left alone, since the cursor will count its own access when it pins
+     * the pages, and we don't want a single scan to make its pages look hot to the eviction algorithm.
+     */
+    void readAheadPages( long startPageId, int count )
+    {
+        try
+        {
+            touch( startPageId, count, false );
+        }
+        catch ( IOException | IllegalStateException ignore )
+        {
+            // Read-ahead is purely an optimisation. If the file has been unmapped, the page cache closed, or the read
+            // failed, then the reading cursor will find out for itself when it gets to those pages.
+        }
+    }
+
+    void reportReadAhead( long hits, long misses )
+    {
+        pageCacheTracer.readAheadHits( hits );
+        pageCacheTracer.readAheadMisses( misses );
+    }
+
+    private int touch( long pageId, int count, boolean countAsUsage ) throws IOException
+    {
+        long endPageId = Math.min( pageId + count, getLastPageId() + 1 );
+        long[] pageRefs = new long[Math.max( 1, Math.min( count, touchVectorSize ) )];
+        long[] bufferAddresses = new long[pageRefs.length];
+        LatchMap.Latch[] latches = new LatchMap.Latch[pageRefs.length];
+        int pagesGrabbed = 0;
+        int touched = 0;
+        long filePageId = pageId;
+        while ( filePageId < endPageId )
+        {
+            int chunkId = computeChunkId( filePageId );
+            long chunkOffset = computeChunkOffset( filePageId );
+            int[][] tt = translationTable;
+            if ( tt.length <= chunkId )
+            {
+                tt = expandCapacity( chunkId );
+            }
+            int[] chunk = tt[chunkId];
+
+            if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+            {
+                // The page is already in memory, which ends the current range of pages we can read in one go.
+                touched += vectoredFault( filePageId - pagesGrabbed, pageRefs, bufferAddresses, latches, pagesGrabbed, countAsUsage );
+                pagesGrabbed = 0;
+                touched++;
+                filePageId++;
+                continue;
+            }
+
+            // The latches are striped, so the latch for this page might collide with one that we are already holding.
+            // We must never wait for a latch while holding others, so if the latch is taken, then we first read in the
+            // pages we have grabbed so far, which releases their latches, and only then wait for the latch.
+            LatchMap.Latch latch = pageFaultLatches.tryTakeLatch( filePageId );
+            if ( latch == null )
+            {
+                touched += vectoredFault( filePageId - pagesGrabbed, pageRefs, bufferAddresses, latches, pagesGrabbed, countAsUsage );
+                pagesGrabbed = 0;
+                latch = pageFaultLatches.takeOrAwaitLatch( filePageId );
+                if ( latch == null )
+                {
+                    // Someone else was faulting this, or a colliding, page. Look at this page again.
+                    continue;
+                }
+            }
+            if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+            {
+                // We raced with a page fault on this page, so look at it again.
+                latch.release();
+                continue;
+            }
+            long pageRef = pageCache.tryGrabFreeAndExclusivelyLockedPage();
+            if ( pageRef == 0 )
+            {
+                // We don't evict anything for the sake of touching pages, so we are done.
+                latch.release();
+                break;
+            }
+            initBuffer( pageRef );
+            pageRefs[pagesGrabbed] = pageRef;
+            bufferAddresses[pagesGrabbed] = getAddress( pageRef );
+            latches[pagesGrabbed] = latch;
+            pagesGrabbed++;
+            filePageId++;
+            if ( pagesGrabbed == pageRefs.length )
+            {
+                touched += vectoredFault( filePageId - pagesGrabbed, pageRefs, bufferAddresses, latches, pagesGrabbed, countAsUsage );
+                pagesGrabbed = 0;
+            }
+        }
+        touched += vectoredFault( filePageId - pagesGrabbed, pageRefs, bufferAddresses, latches, pagesGrabbed, countAsUsage );
+        return touched;
+    }
+
+    private int vectoredFault( long startFilePageId, long[] pageRefs, long[] bufferAddresses, LatchMap.Latch[] latches, int pagesGrabbed,
+            boolean countAsUsage ) throws IOException
+    {
+        if ( pagesGrabbed == 0 )
+        {
+            return 0;
+        }
+        try
+        {
+            // Check if we're racing with unmapping, before we potentially reopen the file channel.
+            getLastPageId();
+            long bytesRead = fault( pageRefs, bufferAddresses, pagesGrabbed, swapper, swapperId, startFilePageId );
+            pageCacheTracer.faults( pagesGrabbed );
+            pageCacheTracer.bytesRead( bytesRead );
+        }
+        catch ( Throwable throwable )
+        {
+            // Make sure to unlock the pages, so the eviction thread can pick up our trash, and unstuck the latches.
+            for ( int i = 0; i < pagesGrabbed; i++ )
+            {
+                unlockExclusive( pageRefs[i] );
+                latches[i].release();
+            }
+            throw throwable;
+        }
+        for ( int i = 0; i < pagesGrabbed; i++ )
+        {
+            long pageRef = pageRefs[i];
+            long filePageId = startFilePageId + i;
+            int[] chunk = translationTable[computeChunkId( filePageId )];
+            UnsafeUtil.putIntVolatile( chunk, computeChunkOffset( filePageId ), toId( pageRef ) );
+            pageFaulted( pageRef, filePageId );
+            if ( countAsUsage )
+            {
+                incrementUsage( pageRef );
+            }
+            unlockExclusive( pageRef );
+            latches[i].release();
+        }
+        return pagesGrabbed;
+    }
+
     @Override
     public long getLastPageId() throws FileIsNotMappedException
     {
@@ -685,6 +904,16 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
     }
 
+    /**
+     * Let the eviction algorithm know that the given page has been faulted in, and is bound to the given filePageId.
+     * @param pageRef The exclusively locked page that was faulted in.
+     * @param filePageId The id of the file page the page was faulted into.
+     */
+    void pageFaulted( long pageRef, long filePageId )
+    {
+        pageCache.evictionAlgorithm.pageFaulted( pageRef, swapperId, filePageId );
+    }
+
     /**
      * Remove the mapping of the given filePageId from the translation table, and return the evicted page object.
      * @param filePageId The id of the file page to evict.
@@ -698,6 +927,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         int mappedPageId = UnsafeUtil.getIntVolatile( chunk, chunkOffset );
         long pageRef = deref( mappedPageId );
         setHighestEvictedTransactionId( getAndResetLastModifiedTransactionId( pageRef ) );
+        pageCache.evictionAlgorithm.pageEvicted( pageRef, swapperId, filePageId );
         UnsafeUtil.putIntVolatile( chunk, chunkOffset, UNMAPPED_TTE );
     }
 
@@ -58,6 +58,7 @@ final class MuninnReadPageCursor extends MuninnPageCursor
         currentPageId = nextPageId;
         nextPageId++;
         pin( currentPageId, false );
+        readAheadIfSequential( currentPageId, lastPageId );
         verifyContext();
         return true;
     }
@@ -301,7 +301,7 @@ class PageList
         }
     }
 
-    private byte getUsageCounter( long pageRef )
+    byte getUsageCounter( long pageRef )
     {
         return (byte) (UnsafeUtil.getLongVolatile( offPageBinding( pageRef ) ) & MASK_USAGE_COUNT);
     }
@@ -327,6 +327,18 @@ class PageList
         }
     }
 
+    /**
+     * Set the usage stamp to its maximum value of 4.
+     */
+    void setMaxUsage( long pageRef )
+    {
+        long address = offPageBinding( pageRef );
+        long value = UnsafeUtil.getLongVolatile( address );
+        long update = (value & ~MASK_USAGE_COUNT) + MAX_USAGE_COUNT;
+        // See `incrementUsage` about why we use `compareAndSwapLong`.
+        UnsafeUtil.compareAndSwapLong( null, address, value, update );
+    }
+
     /**
      * Decrement the usage stamp. Returns true if it reaches 0.
      **/
@@ -437,6 +449,49 @@ class PageList
         setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
     }
 
+    /**
+     * Fault a range of consecutive file pages into the given exclusively locked pages, with a single vectored read.
+     *
+     * @param pageRefs the pages to fault into, one for each file page in the range.
+     * @param bufferAddresses the buffer addresses of the given pages.
+     * @param length the number of pages in the range.
+     * @param swapper the swapper to read the file pages from.
+     * @param swapperId the id of the given swapper.
+     * @param startFilePageId the file page id of the first page in the range.
+     * @return the number of bytes read.
+     */
+    long fault( long[] pageRefs, long[] bufferAddresses, int length, PageSwapper swapper, int swapperId, long startFilePageId )
+            throws IOException
+    {
+        if ( swapper == null )
+        {
+            throw swapperCannotBeNull();
+        }
+        for ( int i = 0; i < length; i++ )
+        {
+            long pageRef = pageRefs[i];
+            long filePageId = startFilePageId + i;
+            int currentSwapper = getSwapperId( pageRef );
+            long currentFilePageId = getFilePageId( pageRef );
+            if ( !isExclusivelyLocked( pageRef ) || currentSwapper != 0 || currentFilePageId != PageCursor.UNBOUND_PAGE_ID )
+            {
+                throw cannotFaultException( pageRef, swapper, swapperId, filePageId, currentSwapper, currentFilePageId );
+            }
+        }
+        // See the single page fault method, for why the file page ids are assigned before the swapping, and the swapper
+        // id is assigned after.
+        for ( int i = 0; i < length; i++ )
+        {
+            setFilePageId( pageRefs[i], startFilePageId + i );
+        }
+        long bytesRead = swapper.read( startFilePageId, bufferAddresses, 0, length );
+        for ( int i = 0; i < length; i++ )
+        {
+            setSwapperId( pageRefs[i], swapperId );
+        }
+        return bytesRead;
+    }
+
     private static IllegalArgumentException swapperCannotBeNull()
     {
         return new IllegalArgumentException( "swapper cannot be null" );
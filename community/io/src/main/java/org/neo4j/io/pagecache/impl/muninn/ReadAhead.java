@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.util.concurrent.BinaryLatch;
+
+/**
+ * A background job that faults in a range of pages ahead of a cursor that is reading sequentially through a file.
+ * The latch is released when the job has finished, whether it managed to fault in any pages or not.
+ * <p>
+ * A job that has not started yet can be cancelled, in which case it will do nothing if it runs later. This way a
+ * cursor never waits for a job that the scheduler rejected, dropped on shutdown, or has not got around to yet.
+ */
+final class ReadAhead extends BinaryLatch implements Runnable
+{
+    private static final int SCHEDULED = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+
+    private final MuninnPagedFile pagedFile;
+    private final long startPageId;
+    private final int count;
+    private final AtomicInteger state = new AtomicInteger( SCHEDULED );
+
+    ReadAhead( MuninnPagedFile pagedFile, long startPageId, int count )
+    {
+        this.pagedFile = pagedFile;
+        this.startPageId = startPageId;
+        this.count = count;
+    }
+
+    @Override
+    public void run()
+    {
+        if ( !state.compareAndSet( SCHEDULED, RUNNING ) )
+        {
+            return;
+        }
+        try
+        {
+            pagedFile.readAheadPages( startPageId, count );
+        }
+        finally
+        {
+            state.set( DONE );
+            release();
+        }
+    }
+
+    boolean isDone()
+    {
+        return state.get() == DONE;
+    }
+
+    /**
+     * Cancel the job if it has not started yet, or otherwise wait for it to finish. A running job only faults in the
+     * pages that are free, and never evicts, so it finishes in bounded time.
+     */
+    void cancelOrAwait()
+    {
+        if ( state.compareAndSet( SCHEDULED, DONE ) )
+        {
+            release();
+        }
+        else
+        {
+            await();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * The free pages of the MuninnPageCache.
+ *
+ * Pages that have never been used are handed out from an atomic counter that counts from zero to the page count.
+ * Pages that have been evicted are kept in a number of stripes, each of which is a lock-free stack. Page faulting
+ * threads pop pages from the stripe that their thread hashes to, and steal from the other stripes when their own is
+ * empty. Evicted pages are spread over the stripes by their page id, so the eviction thread does not fill up a
+ * single stripe.
+ *
+ * The stacks do not allocate. The head of each stack is a long with an ABA stamp in the high 32 bits, and the id of
+ * the top page plus one in the low 32 bits. The id of the next page in the stack, plus one, is stored in the first
+ * four bytes of the memory of each free page, since that memory is not otherwise in use while the page is free, and
+ * the page is exclusively locked while it is on the free list.
+ */
+final class StripedFreelist
+{
+    private static final int MAX_STRIPES = 64;
+    private static final int STRIPES = getInteger( StripedFreelist.class, "stripes", defaultStripeCount() );
+
+    // The head and the count of each stripe are padded out to their own 128 bytes, to avoid false sharing.
+    private static final int STRIDE = 16;
+    private static final int HEAD = 0;
+    private static final int COUNT = 1;
+
+    private static final long STAMP_INCREMENT = 1L << 32;
+    private static final long TOP_MASK = 0xFFFFFFFFL;
+
+    private final PageList pages;
+    private final PageCacheTracer tracer;
+    private final int stripeMask;
+    private final AtomicLongArray stripes;
+    private final AtomicInteger unusedPages;
+    private volatile boolean shutdown;
+
+    StripedFreelist( PageList pages, PageCacheTracer tracer )
+    {
+        this.pages = pages;
+        this.tracer = tracer;
+        int stripeCount = Integer.highestOneBit( Math.max( 1, Math.min( STRIPES, pages.getPageCount() ) ) );
+        this.stripeMask = stripeCount - 1;
+        this.stripes = new AtomicLongArray( (stripeCount + 1) * STRIDE );
+        this.unusedPages = new AtomicInteger();
+    }
+
+    private static int defaultStripeCount()
+    {
+        int processors = Runtime.getRuntime().availableProcessors();
+        // Find the lowest power of 2 that can accommodate 'processors'
+        return Math.min( MAX_STRIPES, 1 << (32 - Integer.numberOfLeadingZeros( processors - 1 )) );
+    }
+
+    /**
+     * Grab a free page, without doing any eviction.
+     *
+     * @return the exclusively locked free page, or {@code 0} if there are no free pages available right now.
+     * @throws IllegalStateException if the page cache has been shut down.
+     */
+    long tryGrab()
+    {
+        if ( shutdown )
+        {
+            throw new IllegalStateException( "The PageCache has been shut down." );
+        }
+
+        int home = threadStripe();
+        long pageRef = pop( home );
+        if ( pageRef != 0 )
+        {
+            return pageRef;
+        }
+
+        int pageCount = pages.getPageCount();
+        if ( unusedPages.get() < pageCount )
+        {
+            int pageId = unusedPages.getAndIncrement();
+            if ( pageId < pageCount )
+            {
+                return pages.deref( pageId );
+            }
+        }
+
+        for ( int i = 1; i <= stripeMask; i++ )
+        {
+            pageRef = pop( (home + i) & stripeMask );
+            if ( pageRef != 0 )
+            {
+                tracer.freelistSteals( 1 );
+                return pageRef;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Add the given exclusively locked page to the free list.
+     */
+    void add( long pageRef )
+    {
+        pages.initBuffer( pageRef );
+        int pageId = pages.toId( pageRef );
+        long nextAddress = pages.getAddress( pageRef );
+        int headIndex = index( pageId & stripeMask, HEAD );
+        int contentions = 0;
+        long head;
+        for (;;)
+        {
+            head = stripes.get( headIndex );
+            UnsafeUtil.putIntVolatile( nextAddress, (int) (head & TOP_MASK) );
+            if ( stripes.compareAndSet( headIndex, head, nextStamp( head ) | (pageId + 1) ) )
+            {
+                break;
+            }
+            contentions++;
+        }
+        stripes.getAndIncrement( headIndex + COUNT );
+        reportContentions( contentions );
+    }
+
+    private long pop( int stripe )
+    {
+        int headIndex = index( stripe, HEAD );
+        int contentions = 0;
+        long pageRef = 0;
+        for (;;)
+        {
+            long head = stripes.get( headIndex );
+            int top = (int) (head & TOP_MASK);
+            if ( top == 0 )
+            {
+                break;
+            }
+            long candidate = pages.deref( top - 1 );
+            // If another thread pops this page before us, then this read may see garbage, but then the stamp of the
+            // head will also have changed, and our compare-and-set will fail.
+            int next = UnsafeUtil.getIntVolatile( pages.getAddress( candidate ) );
+            if ( stripes.compareAndSet( headIndex, head, nextStamp( head ) | (next & TOP_MASK) ) )
+            {
+                stripes.getAndDecrement( headIndex + COUNT );
+                pageRef = candidate;
+                break;
+            }
+            contentions++;
+        }
+        reportContentions( contentions );
+        return pageRef;
+    }
+
+    private void reportContentions( int contentions )
+    {
+        if ( contentions > 0 )
+        {
+            tracer.freelistContentions( contentions );
+        }
+    }
+
+    private static long nextStamp( long head )
+    {
+        return (head & ~TOP_MASK) + STAMP_INCREMENT;
+    }
+
+    private int threadStripe()
+    {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+    }
+
+    private static int index( int stripe, int field )
+    {
+        // Skip the first stride, so the first stripe does not share a cache line with the array header.
+        return (stripe + 1) * STRIDE + field;
+    }
+
+    /**
+     * @return {@code true} if there are pages that have never been used, and can be handed out without eviction.
+     */
+    boolean hasUnusedPages()
+    {
+        return unusedPages.get() < pages.getPageCount();
+    }
+
+    /**
+     * @return {@code true} if a call to {@link #tryGrab()} would likely find a free page.
+     */
+    boolean hasFreePages()
+    {
+        if ( hasUnusedPages() )
+        {
+            return true;
+        }
+        for ( int stripe = 0; stripe <= stripeMask; stripe++ )
+        {
+            if ( (stripes.get( index( stripe, HEAD ) ) & TOP_MASK) != 0 )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return an estimate of the number of pages that can be grabbed without eviction.
+     */
+    int availablePages()
+    {
+        long available = Math.max( 0, pages.getPageCount() - unusedPages.get() );
+        for ( int stripe = 0; stripe <= stripeMask; stripe++ )
+        {
+            available += Math.max( 0, stripes.get( index( stripe, COUNT ) ) );
+        }
+        return (int) Math.min( Integer.MAX_VALUE, available );
+    }
+
+    /**
+     * Signal to page faulting threads that the page cache has been shut down, and that they can no longer grab pages.
+     */
+    void shutdown()
+    {
+        shutdown = true;
+    }
+}
@@ -80,6 +80,41 @@ public interface PageCacheCounters
      */
     long evictionExceptions();
 
+    /**
+     * @return The number of pages that sequentially reading cursors found in memory, out of the pages that they had
+     * asked to be read ahead, thus far.
+     */
+    long readAheadHits();
+
+    /**
+     * @return The number of pages that sequentially reading cursors had to fault in themselves, even though they had
+     * asked for them to be read ahead, thus far.
+     */
+    long readAheadMisses();
+
+    /**
+     * @return The number of times that an update to one of the free page lists had to be retried, because of a
+     * concurrent update to the same list, thus far.
+     */
+    long freelistContentions();
+
+    /**
+     * @return The number of free pages that were taken from a free page list other than the one belonging to the
+     * page faulting thread, thus far.
+     */
+    long freelistSteals();
+
+    /**
+     * @return The number of dirty pages in the page cache, as last counted by the background flusher. The background
+     * flusher only counts dirty pages while it is enabled by a target dirty ratio below 1.0.
+     */
+    long dirtyPages();
+
+    /**
+     * @return The number of times the background flusher has failed to write the dirty pages of a file thus far.
+     */
+    long backgroundFlushExceptions();
+
     /**
      * @return The cache hit ratio observed thus far.
      */
@@ -21,6 +21,10 @@ package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -43,7 +47,14 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesMapped = new LongAdder();
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
+    protected final LongAdder readAheadHits = new LongAdder();
+    protected final LongAdder readAheadMisses = new LongAdder();
+    protected final LongAdder freelistContentions = new LongAdder();
+    protected final LongAdder freelistSteals = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
+    protected final AtomicLong dirtyPages = new AtomicLong();
+    protected final LongAdder backgroundFlushExceptions = new LongAdder();
+    private volatile ConcurrentHashMap<File,PagedFileStatistics> fileStatistics;
 
     private final FlushEvent flushEvent = new FlushEvent()
     {
@@ -71,7 +82,11 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         }
     };
 
-    private final FlushEventOpportunity flushEventOpportunity = ( filePageId, cachePageId, swapper ) -> flushEvent;
+    private final FlushEventOpportunity flushEventOpportunity = ( filePageId, cachePageId, swapper ) ->
+    {
+        PagedFileStatistics statistics = fileStatistics( swapper );
+        return statistics == null ? flushEvent : new FileFlushEvent( statistics );
+    };
 
     private final EvictionEvent evictionEvent = new EvictionEvent()
     {
@@ -83,6 +98,11 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         @Override
         public void setSwapper( PageSwapper swapper )
         {
+            PagedFileStatistics statistics = fileStatistics( swapper );
+            if ( statistics != null )
+            {
+                statistics.eviction();
+            }
         }
 
         @Override
@@ -147,6 +167,11 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     public void unmappedFile( File file )
     {
         filesUnmapped.increment();
+        ConcurrentHashMap<File,PagedFileStatistics> statistics = fileStatistics;
+        if ( statistics != null )
+        {
+            statistics.remove( file );
+        }
     }
 
     @Override
@@ -233,6 +258,42 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return evictionExceptions.sum();
     }
 
+    @Override
+    public long readAheadHits()
+    {
+        return readAheadHits.sum();
+    }
+
+    @Override
+    public long readAheadMisses()
+    {
+        return readAheadMisses.sum();
+    }
+
+    @Override
+    public long freelistContentions()
+    {
+        return freelistContentions.sum();
+    }
+
+    @Override
+    public long freelistSteals()
+    {
+        return freelistSteals.sum();
+    }
+
+    @Override
+    public long dirtyPages()
+    {
+        return dirtyPages.get();
+    }
+
+    @Override
+    public long backgroundFlushExceptions()
+    {
+        return backgroundFlushExceptions.sum();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -292,6 +353,30 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         this.evictionExceptions.add( evictionExceptions );
     }
 
+    @Override
+    public void readAheadHits( long readAheadHits )
+    {
+        this.readAheadHits.add( readAheadHits );
+    }
+
+    @Override
+    public void readAheadMisses( long readAheadMisses )
+    {
+        this.readAheadMisses.add( readAheadMisses );
+    }
+
+    @Override
+    public void freelistContentions( long freelistContentions )
+    {
+        this.freelistContentions.add( freelistContentions );
+    }
+
+    @Override
+    public void freelistSteals( long freelistSteals )
+    {
+        this.freelistSteals.add( freelistSteals );
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -309,4 +394,82 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     {
         this.maxPages.set( maxPages );
     }
+
+    @Override
+    public void dirtyPages( long dirtyPages )
+    {
+        this.dirtyPages.set( dirtyPages );
+    }
+
+    @Override
+    public void backgroundFlushExceptions( long backgroundFlushExceptions )
+    {
+        this.backgroundFlushExceptions.add( backgroundFlushExceptions );
+    }
+
+    @Override
+    public void fileStatisticsEnabled( boolean enabled )
+    {
+        if ( enabled != (fileStatistics != null) )
+        {
+            fileStatistics = enabled ? new ConcurrentHashMap<>() : null;
+        }
+    }
+
+    @Override
+    public PagedFileStatistics fileStatistics( PageSwapper swapper )
+    {
+        ConcurrentHashMap<File,PagedFileStatistics> statistics = fileStatistics;
+        if ( statistics == null || swapper == null )
+        {
+            return null;
+        }
+        File file = swapper.file();
+        PagedFileStatistics fileStatistics = statistics.get( file );
+        return fileStatistics != null ? fileStatistics : statistics.computeIfAbsent( file, PagedFileStatistics::new );
+    }
+
+    @Override
+    public Collection<PagedFileStatistics> fileStatistics()
+    {
+        ConcurrentHashMap<File,PagedFileStatistics> statistics = fileStatistics;
+        return statistics == null ? Collections.emptyList() : new ArrayList<>( statistics.values() );
+    }
+
+    private class FileFlushEvent implements FlushEvent
+    {
+        private final PagedFileStatistics statistics;
+        private final long startNanos = System.nanoTime();
+        private long fileBytesWritten;
+
+        FileFlushEvent( PagedFileStatistics statistics )
+        {
+            this.statistics = statistics;
+        }
+
+        @Override
+        public void addBytesWritten( long bytes )
+        {
+            fileBytesWritten += bytes;
+            bytesWritten.add( bytes );
+        }
+
+        @Override
+        public void done()
+        {
+            flushes.increment();
+            statistics.flush( fileBytesWritten, System.nanoTime() - startNanos );
+        }
+
+        @Override
+        public void done( IOException exception )
+        {
+            done();
+        }
+
+        @Override
+        public void addPagesFlushed( int pageCount )
+        {
+        }
+    }
 }
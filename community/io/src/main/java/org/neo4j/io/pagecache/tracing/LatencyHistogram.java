@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed size, concurrent histogram of latencies in nanoseconds, in the style of HdrHistogram.
+ * <p>
+ * Values below {@link #SUB_BUCKET_COUNT} are counted exactly. Above that, every power of two is split into
+ * {@link #SUB_BUCKET_COUNT} linear sub-buckets, so the value reported for a recorded latency is within about 3% of the
+ * actual latency. Latencies longer than {@link #MAX_TRACKABLE_NANOS} are counted in the last bucket, but are still
+ * reflected accurately in the {@link #max()} and {@link #mean()}.
+ * <p>
+ * Recording is lock free and does not allocate.
+ */
+public final class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final long MAX_TRACKABLE_NANOS = (1L << 36) - 1; // a little over a minute.
+    private static final int BUCKET_COUNT = bucketIndex( MAX_TRACKABLE_NANOS ) + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray( BUCKET_COUNT );
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record( long nanos )
+    {
+        if ( nanos < 0 )
+        {
+            nanos = 0;
+        }
+        buckets.incrementAndGet( bucketIndex( Math.min( nanos, MAX_TRACKABLE_NANOS ) ) );
+        totalNanos.add( nanos );
+        long currentMax;
+        while ( nanos > (currentMax = max.get()) && !max.compareAndSet( currentMax, nanos ) )
+        {
+            // retry
+        }
+    }
+
+    /**
+     * @return the number of recorded latencies.
+     */
+    public long count()
+    {
+        long count = 0;
+        for ( int i = 0; i < BUCKET_COUNT; i++ )
+        {
+            count += buckets.get( i );
+        }
+        return count;
+    }
+
+    /**
+     * @return the longest recorded latency, or zero if nothing has been recorded.
+     */
+    public long max()
+    {
+        return max.get();
+    }
+
+    /**
+     * @return the mean of the recorded latencies, or zero if nothing has been recorded.
+     */
+    public double mean()
+    {
+        long count = count();
+        return count == 0 ? 0 : totalNanos.sum() / (double) count;
+    }
+
+    /**
+     * Get the latency that the given percentage of the recorded latencies are equal to or shorter than.
+     *
+     * @param percentile the percentile, between 0 and 100.
+     * @return the highest latency that falls into the same bucket as the latency at the given percentile, but never more than
+     * the {@link #max()}, or zero if nothing has been recorded.
+     */
+    public long percentile( double percentile )
+    {
+        if ( percentile < 0 || percentile > 100 )
+        {
+            throw new IllegalArgumentException( "Percentile must be between 0 and 100, but was " + percentile + "." );
+        }
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for ( int i = 0; i < BUCKET_COUNT; i++ )
+        {
+            counts[i] = buckets.get( i );
+            total += counts[i];
+        }
+        if ( total == 0 )
+        {
+            return 0;
+        }
+        long rank = Math.max( 1, (long) Math.ceil( total * (percentile / 100.0) ) );
+        long seen = 0;
+        for ( int i = 0; i < BUCKET_COUNT; i++ )
+        {
+            seen += counts[i];
+            if ( seen >= rank )
+            {
+                return Math.min( highestValueInBucket( i ), max() );
+            }
+        }
+        return max();
+    }
+
+    static int bucketIndex( long nanos )
+    {
+        if ( nanos < SUB_BUCKET_COUNT )
+        {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros( nanos );
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (nanos >>> shift);
+    }
+
+    static long highestValueInBucket( int index )
+    {
+        if ( index < SUB_BUCKET_COUNT )
+        {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowest = ((long) SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
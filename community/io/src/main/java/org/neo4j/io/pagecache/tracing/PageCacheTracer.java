@@ -20,6 +20,8 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
 
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
@@ -130,6 +132,42 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long readAheadHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheadMisses()
+        {
+            return 0;
+        }
+
+        @Override
+        public long freelistContentions()
+        {
+            return 0;
+        }
+
+        @Override
+        public long freelistSteals()
+        {
+            return 0;
+        }
+
+        @Override
+        public long dirtyPages()
+        {
+            return 0;
+        }
+
+        @Override
+        public long backgroundFlushExceptions()
+        {
+            return 0;
+        }
+
         @Override
         public double hitRatio()
         {
@@ -177,6 +215,26 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void readAheadHits( long readAheadHits )
+        {
+        }
+
+        @Override
+        public void readAheadMisses( long readAheadMisses )
+        {
+        }
+
+        @Override
+        public void freelistContentions( long freelistContentions )
+        {
+        }
+
+        @Override
+        public void freelistSteals( long freelistSteals )
+        {
+        }
+
         @Override
         public void bytesWritten( long bytesWritten )
         {
@@ -192,6 +250,33 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void dirtyPages( long dirtyPages )
+        {
+        }
+
+        @Override
+        public void backgroundFlushExceptions( long backgroundFlushExceptions )
+        {
+        }
+
+        @Override
+        public void fileStatisticsEnabled( boolean enabled )
+        {
+        }
+
+        @Override
+        public PagedFileStatistics fileStatistics( PageSwapper swapper )
+        {
+            return null;
+        }
+
+        @Override
+        public Collection<PagedFileStatistics> fileStatistics()
+        {
+            return Collections.emptyList();
+        }
+
         @Override
         public String toString()
         {
@@ -270,6 +355,30 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void evictionExceptions( long evictionExceptions );
 
+    /**
+     * Report number of pages that were found in memory by a cursor, after it had asked for them to be read ahead
+     * @param readAheadHits number of read-ahead hits
+     */
+    void readAheadHits( long readAheadHits );
+
+    /**
+     * Report number of pages that a cursor had to fault in itself, after it had asked for them to be read ahead
+     * @param readAheadMisses number of read-ahead misses
+     */
+    void readAheadMisses( long readAheadMisses );
+
+    /**
+     * Report number of retried updates to the free page lists, caused by concurrent updates to the same list
+     * @param freelistContentions number of free page list contentions
+     */
+    void freelistContentions( long freelistContentions );
+
+    /**
+     * Report number of free pages taken from a free page list that belongs to other threads
+     * @param freelistSteals number of stolen free pages
+     */
+    void freelistSteals( long freelistSteals );
+
     /**
      * Report number of bytes written
      * @param bytesWritten number of written bytes
@@ -287,4 +396,35 @@ public interface PageCacheTracer extends PageCacheCounters
      * @param maxPages the total number of available pages.
      */
     void maxPages( long maxPages );
+
+    /**
+     * Sets the number of dirty pages.
+     * @param dirtyPages the number of pages that have been modified and not yet flushed.
+     */
+    void dirtyPages( long dirtyPages );
+
+    /**
+     * Report number of files that the background flusher failed to write dirty pages to
+     * @param backgroundFlushExceptions number of background flush exceptions
+     */
+    void backgroundFlushExceptions( long backgroundFlushExceptions );
+
+    /**
+     * Start or stop keeping {@link PagedFileStatistics} for the mapped files. Statistics are dropped when they are disabled,
+     * and when their file is unmapped.
+     */
+    void fileStatisticsEnabled( boolean enabled );
+
+    /**
+     * Get the statistics for the file of the given swapper. This is called by the cursor tracers whenever they start
+     * pinning pages in another file, so it must be cheap.
+     *
+     * @return the statistics for the file, or {@code null} if per-file statistics are not enabled.
+     */
+    PagedFileStatistics fileStatistics( PageSwapper swapper );
+
+    /**
+     * @return the statistics for all mapped files, or an empty collection if per-file statistics are not enabled.
+     */
+    Collection<PagedFileStatistics> fileStatistics();
 }
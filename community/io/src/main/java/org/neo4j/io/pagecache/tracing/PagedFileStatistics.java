@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import java.io.File;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for the page cache activity on a single mapped file.
+ * <p>
+ * These are only kept when per-file statistics have been enabled with
+ * {@link PageCacheTracer#fileStatisticsEnabled(boolean)}, and the tracers then look them up through
+ * {@link PageCacheTracer#fileStatistics(org.neo4j.io.pagecache.PageSwapper)}.
+ */
+public final class PagedFileStatistics
+{
+    private final File file;
+    private final LongAdder pins = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder faults = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LatencyHistogram faultLatency = new LatencyHistogram();
+    private final LatencyHistogram flushLatency = new LatencyHistogram();
+
+    public PagedFileStatistics( File file )
+    {
+        this.file = file;
+    }
+
+    public void pin()
+    {
+        pins.increment();
+    }
+
+    public void hit()
+    {
+        hits.increment();
+    }
+
+    public void fault( long bytesRead, long latencyNanos )
+    {
+        faults.increment();
+        this.bytesRead.add( bytesRead );
+        faultLatency.record( latencyNanos );
+    }
+
+    public void eviction()
+    {
+        evictions.increment();
+    }
+
+    public void flush( long bytesWritten, long latencyNanos )
+    {
+        flushes.increment();
+        this.bytesWritten.add( bytesWritten );
+        flushLatency.record( latencyNanos );
+    }
+
+    public File file()
+    {
+        return file;
+    }
+
+    public long pins()
+    {
+        return pins.sum();
+    }
+
+    public long hits()
+    {
+        return hits.sum();
+    }
+
+    public long faults()
+    {
+        return faults.sum();
+    }
+
+    public long bytesRead()
+    {
+        return bytesRead.sum();
+    }
+
+    public long evictions()
+    {
+        return evictions.sum();
+    }
+
+    public long flushes()
+    {
+        return flushes.sum();
+    }
+
+    public long bytesWritten()
+    {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * @return the latencies of the page faults on this file, from the start of the fault until the page was bound.
+     */
+    public LatencyHistogram faultLatency()
+    {
+        return faultLatency;
+    }
+
+    /**
+     * @return the latencies of the writes of dirty pages to this file, from evictions, checkpoints and background flushing.
+     */
+    public LatencyHistogram flushLatency()
+    {
+        return flushLatency;
+    }
+}
@@ -28,6 +28,7 @@ import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PagedFileStatistics;
 import org.neo4j.io.pagecache.tracing.PinEvent;
 
 public class DefaultPageCursorTracer implements PageCursorTracer
@@ -45,10 +46,20 @@ public class DefaultPageCursorTracer implements PageCursorTracer
     private PageCacheTracer pageCacheTracer = PageCacheTracer.NULL;
     private DefaultPinEvent pinTracingEvent = new DefaultPinEvent();
 
+    // The statistics of the file that was pinned last, which is usually the file that will be pinned next.
+    private PageSwapper statisticsSwapper;
+    private PagedFileStatistics fileStatistics;
+    private long faultBytesRead;
+    private long faultStartNanos;
+    private PagedFileStatistics flushStatistics;
+    private long flushBytesWritten;
+    private long flushStartNanos;
+
     @Override
     public void init( PageCacheTracer pageCacheTracer )
     {
         this.pageCacheTracer = pageCacheTracer;
+        forgetFileStatistics();
     }
 
     @Override
@@ -91,6 +102,13 @@ public class DefaultPageCursorTracer implements PageCursorTracer
             pageCacheTracer.flushes( flushes );
         }
         reset();
+        forgetFileStatistics();
+    }
+
+    private void forgetFileStatistics()
+    {
+        statisticsSwapper = null;
+        fileStatistics = null;
     }
 
     private void reset()
@@ -170,6 +188,15 @@ public class DefaultPageCursorTracer implements PageCursorTracer
     public PinEvent beginPin( boolean writeLock, long filePageId, PageSwapper swapper )
     {
         pins++;
+        if ( swapper != statisticsSwapper )
+        {
+            statisticsSwapper = swapper;
+            fileStatistics = pageCacheTracer.fileStatistics( swapper );
+        }
+        if ( fileStatistics != null )
+        {
+            fileStatistics.pin();
+        }
         pinTracingEvent.eventHits = 1;
         return pinTracingEvent;
     }
@@ -184,6 +211,11 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         @Override
         public void setSwapper( PageSwapper swapper )
         {
+            PagedFileStatistics statistics = pageCacheTracer.fileStatistics( swapper );
+            if ( statistics != null )
+            {
+                statistics.eviction();
+            }
         }
 
         @Override
@@ -216,12 +248,17 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         public void addBytesRead( long bytes )
         {
             bytesRead += bytes;
+            faultBytesRead += bytes;
         }
 
         @Override
         public void done()
         {
             faults++;
+            if ( fileStatistics != null )
+            {
+                fileStatistics.fault( faultBytesRead, System.nanoTime() - faultStartNanos );
+            }
         }
 
         @Override
@@ -247,6 +284,12 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         @Override
         public FlushEvent beginFlush( long filePageId, long cachePageId, PageSwapper swapper )
         {
+            flushStatistics = pageCacheTracer.fileStatistics( swapper );
+            if ( flushStatistics != null )
+            {
+                flushBytesWritten = 0;
+                flushStartNanos = System.nanoTime();
+            }
             return flushEvent;
         }
     };
@@ -257,12 +300,18 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         public void addBytesWritten( long bytes )
         {
             bytesWritten += bytes;
+            flushBytesWritten += bytes;
         }
 
         @Override
         public void done()
         {
             flushes++;
+            if ( flushStatistics != null )
+            {
+                flushStatistics.flush( flushBytesWritten, System.nanoTime() - flushStartNanos );
+                flushStatistics = null;
+            }
         }
 
         @Override
@@ -290,6 +339,11 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         public PageFaultEvent beginPageFault()
         {
             eventHits = 0;
+            if ( fileStatistics != null )
+            {
+                faultBytesRead = 0;
+                faultStartNanos = System.nanoTime();
+            }
             return pageFaultEvent;
         }
 
@@ -297,6 +351,10 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         public void hit()
         {
             hits += eventHits;
+            if ( fileStatistics != null && eventHits != 0 )
+            {
+                fileStatistics.hit();
+            }
         }
 
         @Override
@@ -0,0 +1,589 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.kernel.api;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.OptionalDouble;
+
+import org.neo4j.values.storable.NumberValue;
+import org.neo4j.values.storable.TextValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.ValueGroup;
+
+/**
+ * Value distribution of a single property index, collected while sampling the index. Numbers and strings each get an equi-depth
+ * histogram, i.e. bucket boundaries chosen so that every bucket holds roughly the same number of entries, together with a list of
+ * their most common values and how often they occur. Other value types are only accounted for in the total number of entries.
+ * <p>
+ * Bucket boundaries are kept as order preserving {@code long} keys, see {@link #numberKey(double)} and {@link #textKey(String, char)}.
+ * Strings are only ordered by their first {@value #TEXT_KEY_CHARS} characters and most common values are identified by their hash code,
+ * so all estimates are approximations.
+ * <p>
+ * All selectivities are given as the fraction of all entries in the index matching the predicate.
+ */
+public final class IndexHistogram
+{
+    public static final int DEFAULT_BUCKETS = 32;
+    public static final int DEFAULT_MOST_COMMON_VALUES = 16;
+    static final int TEXT_KEY_CHARS = 4;
+    /**
+     * Upper bound on the number of buckets or most common values in a stored histogram, anything larger is considered corrupt.
+     */
+    static final int MAX_STORED_ENTRIES = 1 << 16;
+
+    private final long sampleSize;
+    private final Buckets numbers;
+    private final Buckets text;
+
+    IndexHistogram( long sampleSize, Buckets numbers, Buckets text )
+    {
+        this.sampleSize = sampleSize;
+        this.numbers = numbers;
+        this.text = text;
+    }
+
+    public static Builder builder()
+    {
+        return new Builder( DEFAULT_BUCKETS, DEFAULT_MOST_COMMON_VALUES );
+    }
+
+    public static Builder builder( int buckets, int mostCommonValues )
+    {
+        return new Builder( buckets, mostCommonValues );
+    }
+
+    /**
+     * @return number of index entries the histogram was built from.
+     */
+    public long sampleSize()
+    {
+        return sampleSize;
+    }
+
+    /**
+     * Estimates the fraction of entries equal to {@code value}.
+     *
+     * @return the estimate, or nothing if this histogram doesn't track values of this type.
+     */
+    public OptionalDouble equalsSelectivity( Value value )
+    {
+        ValueGroup group = value.valueGroup();
+        if ( !isTracked( group ) )
+        {
+            return OptionalDouble.empty();
+        }
+        Buckets buckets = bucketsFor( group );
+        if ( sampleSize == 0 || buckets == null )
+        {
+            return OptionalDouble.of( 0d );
+        }
+        return OptionalDouble.of( buckets.equalsCount( value.hashCode(), keyOf( value ) ) / sampleSize );
+    }
+
+    /**
+     * Estimates the fraction of entries between {@code from} and {@code to}. Either of the bounds, but not both, may be {@code null}
+     * to denote an open range.
+     *
+     * @return the estimate, or nothing if this histogram doesn't track values of this type.
+     */
+    public OptionalDouble rangeSelectivity( Value from, boolean fromInclusive, Value to, boolean toInclusive )
+    {
+        if ( from == null && to == null )
+        {
+            return OptionalDouble.empty();
+        }
+        ValueGroup group = from != null ? from.valueGroup() : to.valueGroup();
+        if ( !isTracked( group ) )
+        {
+            return OptionalDouble.empty();
+        }
+        Buckets buckets = bucketsFor( group );
+        if ( sampleSize == 0 || buckets == null || (from != null && to != null && from.valueGroup() != to.valueGroup()) )
+        {
+            return OptionalDouble.of( 0d );
+        }
+        long low = from == null ? Long.MIN_VALUE : keyOf( from );
+        long high = to == null ? Long.MAX_VALUE : keyOf( to );
+        if ( low > high )
+        {
+            return OptionalDouble.of( 0d );
+        }
+        double count = buckets.rangeCount( low, from == null || fromInclusive, high, to == null || toInclusive );
+        return OptionalDouble.of( Math.min( count, buckets.total ) / sampleSize );
+    }
+
+    /**
+     * Estimates the fraction of entries that are strings starting with {@code prefix}.
+     */
+    public double prefixSelectivity( String prefix )
+    {
+        if ( sampleSize == 0 || text == null )
+        {
+            return 0d;
+        }
+        return text.rangeCount( textKey( prefix, Character.MIN_VALUE ), true, textKey( prefix, Character.MAX_VALUE ), true ) / sampleSize;
+    }
+
+    /**
+     * Combines histograms of disjoint parts of the same index, e.g. the parts of a fusion index. Parts are expected to hold different
+     * types of values; should two parts both hold numbers or strings, the distribution of the larger one is kept.
+     *
+     * @return the combined histogram, or {@code null} if none of the parts has one.
+     */
+    public static IndexHistogram combine( Iterable<IndexHistogram> histograms )
+    {
+        IndexHistogram result = null;
+        for ( IndexHistogram histogram : histograms )
+        {
+            if ( histogram == null )
+            {
+                continue;
+            }
+            result = result == null ? histogram : new IndexHistogram( result.sampleSize + histogram.sampleSize,
+                    Buckets.larger( result.numbers, histogram.numbers ), Buckets.larger( result.text, histogram.text ) );
+        }
+        return result;
+    }
+
+    /**
+     * Writes this histogram in a form that can be read back by {@link #read(DataInput)}.
+     */
+    public void write( DataOutput out ) throws IOException
+    {
+        out.writeLong( sampleSize );
+        Buckets.write( numbers, out );
+        Buckets.write( text, out );
+    }
+
+    public static IndexHistogram read( DataInput in ) throws IOException
+    {
+        long sampleSize = in.readLong();
+        Buckets numbers = Buckets.read( in );
+        Buckets text = Buckets.read( in );
+        return new IndexHistogram( sampleSize, numbers, text );
+    }
+
+    /**
+     * Order preserving key for numbers, i.e. {@code a < b} implies {@code numberKey(a) < numberKey(b)}.
+     */
+    static long numberKey( double value )
+    {
+        long bits = Double.doubleToLongBits( value );
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Order preserving key for strings based on their first {@value #TEXT_KEY_CHARS} characters, shorter strings being padded with
+     * {@code padding}.
+     */
+    static long textKey( String value, char padding )
+    {
+        long key = 0;
+        for ( int i = 0; i < TEXT_KEY_CHARS; i++ )
+        {
+            key = (key << Character.SIZE) | (i < value.length() ? value.charAt( i ) : padding);
+        }
+        return key ^ Long.MIN_VALUE;
+    }
+
+    private static boolean isTracked( ValueGroup group )
+    {
+        return group == ValueGroup.NUMBER || group == ValueGroup.TEXT;
+    }
+
+    private Buckets bucketsFor( ValueGroup group )
+    {
+        return group == ValueGroup.NUMBER ? numbers : text;
+    }
+
+    private static long keyOf( Value value )
+    {
+        return value.valueGroup() == ValueGroup.NUMBER ? numberKey( ((NumberValue) value).doubleValue() )
+                                                       : textKey( ((TextValue) value).stringValue(), Character.MIN_VALUE );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "IndexHistogram{sampleSize=" + sampleSize + ", numbers=" + numbers + ", text=" + text + '}';
+    }
+
+    /**
+     * Equi-depth histogram and most common values of one type of values. The histogram only covers the values that are not among the
+     * most common ones, which are accounted for separately.
+     */
+    static final class Buckets
+    {
+        private final long total;
+        private final long distinct;
+        private final long lowest;
+        private final long highest;
+        private final long[] upperBounds;
+        private final long[] counts;
+        private final int[] mostCommonHashes;
+        private final long[] mostCommonKeys;
+        private final long[] mostCommonCounts;
+
+        Buckets( long total, long distinct, long lowest, long highest, long[] upperBounds, long[] counts, int[] mostCommonHashes,
+                long[] mostCommonKeys, long[] mostCommonCounts )
+        {
+            this.total = total;
+            this.distinct = distinct;
+            this.lowest = lowest;
+            this.highest = highest;
+            this.upperBounds = upperBounds;
+            this.counts = counts;
+            this.mostCommonHashes = mostCommonHashes;
+            this.mostCommonKeys = mostCommonKeys;
+            this.mostCommonCounts = mostCommonCounts;
+        }
+
+        double equalsCount( int hash, long key )
+        {
+            long mostCommonTotal = 0;
+            for ( int i = 0; i < mostCommonHashes.length; i++ )
+            {
+                if ( mostCommonHashes[i] == hash && mostCommonKeys[i] == key )
+                {
+                    return mostCommonCounts[i];
+                }
+                mostCommonTotal += mostCommonCounts[i];
+            }
+            long remainingDistinct = distinct - mostCommonHashes.length;
+            if ( remainingDistinct <= 0 || key < lowest || key > highest )
+            {
+                return 0d;
+            }
+            // Values outside of the most common ones are assumed to be equally common
+            return (double) (total - mostCommonTotal) / remainingDistinct;
+        }
+
+        double rangeCount( long low, boolean lowInclusive, long high, boolean highInclusive )
+        {
+            double count = 0;
+            for ( int i = 0; i < mostCommonKeys.length; i++ )
+            {
+                long key = mostCommonKeys[i];
+                if ( (key > low || (key == low && lowInclusive)) && (key < high || (key == high && highInclusive)) )
+                {
+                    count += mostCommonCounts[i];
+                }
+            }
+            long bucketLow = lowest;
+            for ( int i = 0; i < upperBounds.length; i++ )
+            {
+                long bucketHigh = upperBounds[i];
+                if ( low <= bucketHigh && high >= bucketLow )
+                {
+                    // Values are assumed to be uniformly distributed within a bucket
+                    double overlap = (double) Math.min( high, bucketHigh ) - Math.max( low, bucketLow ) + 1;
+                    double width = (double) bucketHigh - bucketLow + 1;
+                    count += counts[i] * Math.min( 1d, overlap / width );
+                }
+                bucketLow = bucketHigh;
+            }
+            return count;
+        }
+
+        static void write( Buckets buckets, DataOutput out ) throws IOException
+        {
+            out.writeBoolean( buckets != null );
+            if ( buckets != null )
+            {
+                out.writeLong( buckets.total );
+                out.writeLong( buckets.distinct );
+                out.writeLong( buckets.lowest );
+                out.writeLong( buckets.highest );
+                out.writeInt( buckets.upperBounds.length );
+                for ( int i = 0; i < buckets.upperBounds.length; i++ )
+                {
+                    out.writeLong( buckets.upperBounds[i] );
+                    out.writeLong( buckets.counts[i] );
+                }
+                out.writeInt( buckets.mostCommonHashes.length );
+                for ( int i = 0; i < buckets.mostCommonHashes.length; i++ )
+                {
+                    out.writeInt( buckets.mostCommonHashes[i] );
+                    out.writeLong( buckets.mostCommonKeys[i] );
+                    out.writeLong( buckets.mostCommonCounts[i] );
+                }
+            }
+        }
+
+        static Buckets read( DataInput in ) throws IOException
+        {
+            if ( !in.readBoolean() )
+            {
+                return null;
+            }
+            long total = in.readLong();
+            long distinct = in.readLong();
+            long lowest = in.readLong();
+            long highest = in.readLong();
+            int bucketCount = readEntryCount( in );
+            long[] upperBounds = new long[bucketCount];
+            long[] counts = new long[bucketCount];
+            for ( int i = 0; i < bucketCount; i++ )
+            {
+                upperBounds[i] = in.readLong();
+                counts[i] = in.readLong();
+            }
+            int mostCommonCount = readEntryCount( in );
+            int[] mostCommonHashes = new int[mostCommonCount];
+            long[] mostCommonKeys = new long[mostCommonCount];
+            long[] mostCommonCounts = new long[mostCommonCount];
+            for ( int i = 0; i < mostCommonCount; i++ )
+            {
+                mostCommonHashes[i] = in.readInt();
+                mostCommonKeys[i] = in.readLong();
+                mostCommonCounts[i] = in.readLong();
+            }
+            return new Buckets( total, distinct, lowest, highest, upperBounds, counts, mostCommonHashes, mostCommonKeys, mostCommonCounts );
+        }
+
+        private static int readEntryCount( DataInput in ) throws IOException
+        {
+            int count = in.readInt();
+            if ( count < 0 || count > MAX_STORED_ENTRIES )
+            {
+                throw new IOException( "Corrupt histogram, unexpected number of entries " + count );
+            }
+            return count;
+        }
+
+        static Buckets larger( Buckets a, Buckets b )
+        {
+            if ( a == null )
+            {
+                return b;
+            }
+            return b == null || a.total >= b.total ? a : b;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Buckets{total=" + total + ", distinct=" + distinct + ", lowest=" + lowest + ", highest=" + highest +
+                   ", upperBounds=" + Arrays.toString( upperBounds ) + ", counts=" + Arrays.toString( counts ) +
+                   ", mostCommonKeys=" + Arrays.toString( mostCommonKeys ) + ", mostCommonCounts=" + Arrays.toString( mostCommonCounts ) + '}';
+        }
+    }
+
+    /**
+     * Collects an {@link IndexHistogram} from the values of an index. Values are expected to be {@link #include(Value) included} in
+     * index order, so that equal values are included one after the other. Memory usage is bounded regardless of the number of values.
+     */
+    public static final class Builder
+    {
+        private final BucketsBuilder numbers;
+        private final BucketsBuilder text;
+        private long sampleSize;
+
+        private Value current;
+        private BucketsBuilder currentBuilder;
+        private long currentCount;
+
+        private Builder( int buckets, int mostCommonValues )
+        {
+            this.numbers = new BucketsBuilder( buckets, mostCommonValues );
+            this.text = new BucketsBuilder( buckets, mostCommonValues );
+        }
+
+        public void include( Value value )
+        {
+            sampleSize++;
+            if ( current != null && current.equals( value ) )
+            {
+                currentCount++;
+                if ( currentBuilder != null )
+                {
+                    currentBuilder.add( currentBuilder.lastKey );
+                }
+                return;
+            }
+
+            endRun();
+            current = value;
+            currentCount = 1;
+            currentBuilder = null;
+            ValueGroup group = value.valueGroup();
+            if ( group == ValueGroup.NUMBER )
+            {
+                double number = ((NumberValue) value).doubleValue();
+                if ( !Double.isNaN( number ) )
+                {
+                    currentBuilder = numbers;
+                    numbers.distinct++;
+                    numbers.add( numberKey( number ) );
+                }
+            }
+            else if ( group == ValueGroup.TEXT )
+            {
+                currentBuilder = text;
+                text.distinct++;
+                text.add( textKey( ((TextValue) value).stringValue(), Character.MIN_VALUE ) );
+            }
+        }
+
+        public IndexHistogram build()
+        {
+            endRun();
+            current = null;
+            currentBuilder = null;
+            return new IndexHistogram( sampleSize, numbers.build(), text.build() );
+        }
+
+        private void endRun()
+        {
+            if ( currentBuilder != null && currentCount > 1 )
+            {
+                currentBuilder.offerMostCommon( current.hashCode(), currentBuilder.lastKey, currentCount );
+            }
+        }
+    }
+
+    private static final class BucketsBuilder
+    {
+        private static final int POINTS_PER_BUCKET = 16;
+
+        private final int buckets;
+        private final long[] points;
+        private final int[] mostCommonHashes;
+        private final long[] mostCommonKeys;
+        private final long[] mostCommonCounts;
+        private int mostCommonSize;
+        private int size;
+        private long stride = 1;
+        private long sinceLastPoint;
+        private long total;
+        private long distinct;
+        private long lowest = Long.MAX_VALUE;
+        private long highest = Long.MIN_VALUE;
+        private long lastKey;
+
+        BucketsBuilder( int buckets, int mostCommonValues )
+        {
+            this.buckets = buckets;
+            this.points = new long[buckets * POINTS_PER_BUCKET];
+            this.mostCommonHashes = new int[mostCommonValues];
+            this.mostCommonKeys = new long[mostCommonValues];
+            this.mostCommonCounts = new long[mostCommonValues];
+        }
+
+        void add( long key )
+        {
+            total++;
+            lastKey = key;
+            lowest = Math.min( lowest, key );
+            highest = Math.max( highest, key );
+            if ( ++sinceLastPoint < stride )
+            {
+                return;
+            }
+            sinceLastPoint = 0;
+            if ( size == points.length )
+            {
+                // Keep every other point and from now on only every other value, which keeps the points evenly spread over all values
+                for ( int i = 0; i < size / 2; i++ )
+                {
+                    points[i] = points[i * 2 + 1];
+                }
+                size /= 2;
+                stride *= 2;
+            }
+            points[size++] = key;
+        }
+
+        void offerMostCommon( int hash, long key, long count )
+        {
+            int slot = mostCommonSize;
+            if ( mostCommonSize == mostCommonCounts.length )
+            {
+                slot = -1;
+                for ( int i = 0; i < mostCommonSize; i++ )
+                {
+                    if ( mostCommonCounts[i] < count && (slot == -1 || mostCommonCounts[i] < mostCommonCounts[slot]) )
+                    {
+                        slot = i;
+                    }
+                }
+                if ( slot == -1 )
+                {
+                    return;
+                }
+            }
+            else
+            {
+                mostCommonSize++;
+            }
+            mostCommonHashes[slot] = hash;
+            mostCommonKeys[slot] = key;
+            mostCommonCounts[slot] = count;
+        }
+
+        Buckets build()
+        {
+            if ( total == 0 )
+            {
+                return null;
+            }
+            long[] commonKeys = Arrays.copyOf( mostCommonKeys, mostCommonSize );
+            long[] commonCounts = Arrays.copyOf( mostCommonCounts, mostCommonSize );
+            long remainingTotal = total - Arrays.stream( commonCounts ).sum();
+
+            // Leave out the points of the most common values, they are accounted for separately
+            long[] sortedCommonKeys = commonKeys.clone();
+            Arrays.sort( sortedCommonKeys );
+            Arrays.sort( points, 0, size );
+            int remaining = 0;
+            for ( int i = 0; i < size; i++ )
+            {
+                if ( Arrays.binarySearch( sortedCommonKeys, points[i] ) < 0 )
+                {
+                    points[remaining++] = points[i];
+                }
+            }
+            if ( remaining == 0 && remainingTotal > 0 )
+            {
+                points[remaining++] = highest;
+            }
+
+            int bucketCount = remainingTotal == 0 ? 0 : Math.min( buckets, remaining );
+            long[] upperBounds = new long[bucketCount];
+            long[] counts = new long[bucketCount];
+            long assigned = 0;
+            int previousEnd = 0;
+            for ( int i = 0; i < bucketCount; i++ )
+            {
+                int end = (int) ((long) (i + 1) * remaining / bucketCount);
+                boolean last = i == bucketCount - 1;
+                upperBounds[i] = last ? highest : points[end - 1];
+                counts[i] = last ? remainingTotal - assigned : remainingTotal * (end - previousEnd) / remaining;
+                assigned += counts[i];
+                previousEnd = end;
+            }
+            return new Buckets( total, distinct, lowest, highest, upperBounds, counts, Arrays.copyOf( mostCommonHashes, mostCommonSize ),
+                    commonKeys, commonCounts );
+        }
+    }
+}
@@ -119,10 +119,56 @@ public interface Read
      */
     void nodeIndexScan( IndexReadSession index, NodeValueIndexCursor cursor, IndexOrder indexOrder, boolean needsValues ) throws KernelException;
 
+    /**
+     * Scan all values in an index, in parallel. The index splits the scan up front into at most roughly {@code desiredNumberOfPartitions}
+     * partitions and each batch reserved from the returned {@link Scan} is one such partition, regardless of the given size hint.
+     * Results are not ordered.
+     * <p>
+     * Partitioned index scans are only supported in transactions without any changes.
+     *
+     * @param index {@link IndexReadSession} index read session to query.
+     * @param desiredNumberOfPartitions number of partitions desired, e.g. the number of threads which will read from the scan.
+     * @param needsValues if the index should fetch property values together with node ids.
+     */
+    Scan<NodeValueIndexCursor> nodeIndexScan( IndexReadSession index, int desiredNumberOfPartitions, boolean needsValues ) throws KernelException;
+
+    /**
+     * Seek all nodes matching the query in an index, in parallel. Partitioned the same way as
+     * {@link #nodeIndexScan(IndexReadSession, int, boolean)} and equally only supported in transactions without any changes.
+     *
+     * @param index {@link IndexReadSession} index read session to query.
+     * @param desiredNumberOfPartitions number of partitions desired, e.g. the number of threads which will read from the scan.
+     * @param needsValues if the index should fetch property values together with node ids.
+     * @param query Combination of {@link IndexQuery index queries} to run against referenced index.
+     */
+    Scan<NodeValueIndexCursor> nodeIndexSeek( IndexReadSession index, int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+            throws KernelException;
+
     void nodeLabelScan( int label, NodeLabelIndexCursor cursor );
 
     Scan<NodeLabelIndexCursor> nodeLabelScan( int label );
 
+    /**
+     * Scan for nodes having all of the given labels, intersecting the labels in the label index rather than filtering
+     * the nodes of one label by reading their labels from the store.
+     *
+     * @param labels the labels the nodes must have, at least one.
+     * @param cursor the cursor to use for consuming the results.
+     */
+    void nodeLabelIntersectionScan( int[] labels, NodeLabelIndexCursor cursor );
+
+    Scan<NodeLabelIndexCursor> nodeLabelIntersectionScan( int... labels );
+
+    /**
+     * Scan for nodes having any of the given labels, visiting each matching node once.
+     *
+     * @param labels the labels of which the nodes must have at least one, at least one label given.
+     * @param cursor the cursor to use for consuming the results.
+     */
+    void nodeLabelUnionScan( int[] labels, NodeLabelIndexCursor cursor );
+
+    Scan<NodeLabelIndexCursor> nodeLabelUnionScan( int... labels );
+
     /**
      * Return all nodes in the graph.
      *
@@ -305,6 +351,8 @@ public interface Read
 
     void relationshipTypeScan( int type, RelationshipScanCursor cursor );
 
+    Scan<RelationshipScanCursor> relationshipTypeScan( int type );
+
     /**
      * @param nodeReference
      *         a reference from {@link NodeCursor#nodeReference()}.
@@ -121,6 +121,15 @@ public interface SchemaRead extends SchemaReadCore
     Register.DoubleLongRegister indexSample( IndexDescriptor index, Register.DoubleLongRegister target )
             throws IndexNotFoundKernelException;
 
+    /**
+     * Returns the distribution of values in an index, as collected by the last sampling of the index.
+     *
+     * @param index The index of interest
+     * @return the value distribution, or {@code null} if the index hasn't been sampled since startup or its provider doesn't collect one.
+     * @throws IndexNotFoundKernelException if the index does not exist.
+     */
+    IndexHistogram indexHistogram( IndexDescriptor index ) throws IndexNotFoundKernelException;
+
     /**
      * Finds all constraints for the given schema
      *
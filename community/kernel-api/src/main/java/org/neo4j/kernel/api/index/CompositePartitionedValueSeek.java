@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import java.util.List;
+
+/**
+ * {@link PartitionedValueSeek} over several independent seeks, e.g. one for each part of a fusion index or one for each partition of
+ * a partitioned index. The partitions of all the seeks are handed out one seek after the other.
+ */
+public class CompositePartitionedValueSeek implements PartitionedValueSeek
+{
+    private final List<PartitionedValueSeek> seeks;
+
+    public CompositePartitionedValueSeek( List<PartitionedValueSeek> seeks )
+    {
+        this.seeks = seeks;
+    }
+
+    @Override
+    public int getNumberOfPartitions()
+    {
+        int partitions = 0;
+        for ( PartitionedValueSeek seek : seeks )
+        {
+            partitions += seek.getNumberOfPartitions();
+        }
+        return partitions;
+    }
+
+    @Override
+    public IndexProgressor reservePartition( IndexProgressor.EntityValueClient client )
+    {
+        // Each seek reserves atomically, so a seek that has run out will stay out and concurrent callers simply move on to the next one
+        for ( PartitionedValueSeek seek : seeks )
+        {
+            IndexProgressor progressor = seek.reservePartition( client );
+            if ( progressor != IndexProgressor.EMPTY )
+            {
+                return progressor;
+            }
+        }
+        return IndexProgressor.EMPTY;
+    }
+}
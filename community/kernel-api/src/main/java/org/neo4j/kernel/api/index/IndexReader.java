@@ -76,6 +76,22 @@ public interface IndexReader extends Resource
      */
     void distinctValues( IndexProgressor.EntityValueClient client, NodePropertyAccessor propertyAccessor, boolean needsValues );
 
+    /**
+     * Splits a query of this index into partitions which can be read in parallel. Results are not ordered and, unlike
+     * {@link #query(QueryContext, IndexProgressor.EntityValueClient, IndexOrder, boolean, IndexQuery...)}, the caller initializes
+     * the client with the progressor of each reserved partition.
+     *
+     * @param desiredNumberOfPartitions number of partitions desired by the caller. The index may decide to use fewer, or
+     * in the case of an index made up of several parts, more.
+     * @param query the query to serve.
+     * @return a {@link PartitionedValueSeek} handing out the partitions of the query.
+     * @throws UnsupportedOperationException if this index doesn't support partitioned seeks.
+     */
+    default PartitionedValueSeek valueSeek( int desiredNumberOfPartitions, IndexQuery... query ) throws IndexNotApplicableKernelException
+    {
+        throw new UnsupportedOperationException( getClass().getSimpleName() + " doesn't support partitioned seek" );
+    }
+
     IndexReader EMPTY = new IndexReader()
     {
         // Used for checking index correctness
@@ -113,6 +129,12 @@ public interface IndexReader extends Resource
         {
             // do nothing
         }
+
+        @Override
+        public PartitionedValueSeek valueSeek( int desiredNumberOfPartitions, IndexQuery... query )
+        {
+            return PartitionedValueSeek.EMPTY;
+        }
     };
 
     class Adaptor implements IndexReader
@@ -19,11 +19,14 @@
  */
 package org.neo4j.kernel.api.index;
 
+import org.neo4j.internal.kernel.api.IndexHistogram;
+
 public final class IndexSample
 {
     private final long indexSize;
     private final long uniqueValues;
     private final long sampleSize;
+    private final IndexHistogram histogram;
 
     public IndexSample()
     {
@@ -31,10 +34,16 @@ public final class IndexSample
     }
 
     public IndexSample( long indexSize, long uniqueValues, long sampleSize )
+    {
+        this( indexSize, uniqueValues, sampleSize, null );
+    }
+
+    public IndexSample( long indexSize, long uniqueValues, long sampleSize, IndexHistogram histogram )
     {
         this.indexSize = indexSize;
         this.uniqueValues = uniqueValues;
         this.sampleSize = sampleSize;
+        this.histogram = histogram;
     }
 
     public long indexSize()
@@ -52,6 +61,15 @@ public final class IndexSample
         return sampleSize;
     }
 
+    /**
+     * @return distribution of the sampled values, or {@code null} if the sampler doesn't collect one.
+     * Not part of {@link #equals(Object)}, which only compares the counts.
+     */
+    public IndexHistogram histogram()
+    {
+        return histogram;
+    }
+
     @Override
     public boolean equals( Object o )
     {
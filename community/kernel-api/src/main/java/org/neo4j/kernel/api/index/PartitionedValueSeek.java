@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+/**
+ * A seek over an index which has been split up front into a number of partitions, which together cover all entries of the seek.
+ * Partitions are handed out one at a time by {@link #reservePartition(IndexProgressor.EntityValueClient)}, which can be called
+ * concurrently, so that different threads can progress through different partitions of the same seek in parallel.
+ */
+public interface PartitionedValueSeek
+{
+    /**
+     * @return the number of partitions this seek was split into. May be lower than what was asked for, e.g. for small indexes.
+     */
+    int getNumberOfPartitions();
+
+    /**
+     * Reserves the next not yet reserved partition and creates an {@link IndexProgressor} feeding the given client with its entries.
+     * The caller is responsible for initializing the client with the returned progressor.
+     *
+     * @param client the client which will receive the entries of the reserved partition.
+     * @return the progressor of the reserved partition, or {@link IndexProgressor#EMPTY} if all partitions have been reserved.
+     */
+    IndexProgressor reservePartition( IndexProgressor.EntityValueClient client );
+
+    PartitionedValueSeek EMPTY = new PartitionedValueSeek()
+    {
+        @Override
+        public int getNumberOfPartitions()
+        {
+            return 0;
+        }
+
+        @Override
+        public IndexProgressor reservePartition( IndexProgressor.EntityValueClient client )
+        {
+            return IndexProgressor.EMPTY;
+        }
+    };
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.kernel.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.values.storable.Values.booleanValue;
+import static org.neo4j.values.storable.Values.doubleValue;
+import static org.neo4j.values.storable.Values.intValue;
+import static org.neo4j.values.storable.Values.longValue;
+import static org.neo4j.values.storable.Values.stringValue;
+
+class IndexHistogramTest
+{
+    private static final double DELTA = 0.02;
+    // Strings are only ordered by their first characters, so estimates can be off by a bucket at either end of a range
+    private static final double TEXT_DELTA = 2d / IndexHistogram.DEFAULT_BUCKETS;
+
+    @Test
+    void shouldEstimateRangesOfUniformlyDistributedNumbers()
+    {
+        IndexHistogram.Builder builder = IndexHistogram.builder();
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            builder.include( intValue( i ) );
+        }
+        IndexHistogram histogram = builder.build();
+
+        assertEquals( 10_000, histogram.sampleSize() );
+        assertEquals( 0.25, histogram.rangeSelectivity( intValue( 0 ), true, intValue( 2_500 ), false ).getAsDouble(), DELTA );
+        assertEquals( 0.5, histogram.rangeSelectivity( longValue( 5_000 ), true, null, false ).getAsDouble(), DELTA );
+        assertEquals( 0.1, histogram.rangeSelectivity( null, false, doubleValue( 1_000.5 ), false ).getAsDouble(), DELTA );
+        assertEquals( 0d, histogram.rangeSelectivity( intValue( 20_000 ), true, null, false ).getAsDouble() );
+        assertEquals( 0d, histogram.rangeSelectivity( intValue( 10 ), true, intValue( 5 ), true ).getAsDouble() );
+        assertEquals( 1d / 10_000, histogram.equalsSelectivity( intValue( 42 ) ).getAsDouble(), 0.00001 );
+    }
+
+    @Test
+    void shouldEstimateMostCommonValuesExactly()
+    {
+        IndexHistogram.Builder builder = IndexHistogram.builder();
+        for ( int i = 0; i < 100; i++ )
+        {
+            builder.include( intValue( i ) );
+        }
+        for ( int i = 0; i < 900; i++ )
+        {
+            builder.include( intValue( 100 ) );
+        }
+        for ( int i = 101; i < 1_100; i++ )
+        {
+            builder.include( intValue( i ) );
+        }
+        IndexHistogram histogram = builder.build();
+
+        assertEquals( 900d / 1_999, histogram.equalsSelectivity( intValue( 100 ) ).getAsDouble() );
+        assertEquals( 900d / 1_999, histogram.equalsSelectivity( doubleValue( 100.0 ) ).getAsDouble() );
+        assertEquals( 1d / 1_999, histogram.equalsSelectivity( intValue( 50 ) ).getAsDouble(), 0.0001 );
+        assertEquals( 0d, histogram.equalsSelectivity( intValue( -1 ) ).getAsDouble() );
+        assertEquals( 1_000d / 1_999, histogram.rangeSelectivity( null, false, intValue( 100 ), true ).getAsDouble(), DELTA );
+    }
+
+    @Test
+    void shouldEstimateStringPrefixes()
+    {
+        IndexHistogram.Builder builder = IndexHistogram.builder();
+        for ( char first : new char[]{'a', 'b'} )
+        {
+            for ( int i = 0; i < 1_000; i++ )
+            {
+                builder.include( stringValue( format( "%s%03d", first, i ) ) );
+            }
+        }
+        IndexHistogram histogram = builder.build();
+
+        assertEquals( 0.5, histogram.prefixSelectivity( "a" ), TEXT_DELTA );
+        assertEquals( 0.05, histogram.prefixSelectivity( "b1" ), TEXT_DELTA );
+        assertEquals( 1d, histogram.prefixSelectivity( "" ), DELTA );
+        assertEquals( 0d, histogram.prefixSelectivity( "c" ), DELTA );
+        assertEquals( 0.25, histogram.rangeSelectivity( stringValue( "b500" ), true, null, false ).getAsDouble(), TEXT_DELTA );
+    }
+
+    @Test
+    void shouldOnlyTrackNumbersAndStrings()
+    {
+        IndexHistogram.Builder builder = IndexHistogram.builder();
+        builder.include( booleanValue( false ) );
+        builder.include( booleanValue( true ) );
+        for ( int i = 0; i < 100; i++ )
+        {
+            builder.include( intValue( i ) );
+        }
+        builder.include( stringValue( "a" ) );
+        builder.include( stringValue( "b" ) );
+        IndexHistogram histogram = builder.build();
+
+        assertFalse( histogram.equalsSelectivity( booleanValue( true ) ).isPresent() );
+        assertEquals( 100d / 104, histogram.rangeSelectivity( intValue( 0 ), true, null, false ).getAsDouble(), DELTA );
+        assertEquals( 2d / 104, histogram.prefixSelectivity( "" ), DELTA );
+        assertEquals( 0d, histogram.rangeSelectivity( intValue( 0 ), true, stringValue( "z" ), true ).getAsDouble() );
+    }
+
+    @Test
+    void shouldCombineHistogramsOfDifferentValueTypes()
+    {
+        IndexHistogram.Builder numbers = IndexHistogram.builder();
+        for ( int i = 0; i < 300; i++ )
+        {
+            numbers.include( intValue( i ) );
+        }
+        IndexHistogram.Builder strings = IndexHistogram.builder();
+        for ( int i = 0; i < 100; i++ )
+        {
+            strings.include( stringValue( format( "%03d", i ) ) );
+        }
+
+        IndexHistogram combined = IndexHistogram.combine( Arrays.asList( numbers.build(), null, strings.build() ) );
+
+        assertEquals( 400, combined.sampleSize() );
+        assertEquals( 0.75, combined.rangeSelectivity( intValue( 0 ), true, null, false ).getAsDouble(), DELTA );
+        assertEquals( 0.25, combined.prefixSelectivity( "0" ), DELTA );
+    }
+
+    @Test
+    void shouldReadWhatWasWritten() throws IOException
+    {
+        IndexHistogram.Builder builder = IndexHistogram.builder();
+        for ( int i = 0; i < 1_000; i++ )
+        {
+            builder.include( intValue( i % 10 == 0 ? 0 : i ) );
+            builder.include( stringValue( format( "%03d", i ) ) );
+        }
+        IndexHistogram histogram = builder.build();
+        IndexHistogram empty = IndexHistogram.builder().build();
+
+        IndexHistogram read = writeAndRead( histogram );
+        IndexHistogram readEmpty = writeAndRead( empty );
+
+        assertEquals( histogram.toString(), read.toString() );
+        assertEquals( histogram.sampleSize(), read.sampleSize() );
+        assertEquals( histogram.equalsSelectivity( intValue( 0 ) ).getAsDouble(), read.equalsSelectivity( intValue( 0 ) ).getAsDouble() );
+        assertEquals( histogram.prefixSelectivity( "1" ), read.prefixSelectivity( "1" ) );
+        assertEquals( empty.toString(), readEmpty.toString() );
+    }
+
+    @Test
+    void shouldRejectCorruptEntryCounts() throws IOException
+    {
+        assertThrows( IOException.class, () -> readWithBucketCount( -1 ) );
+        assertThrows( IOException.class, () -> readWithBucketCount( Integer.MAX_VALUE ) );
+    }
+
+    private static IndexHistogram readWithBucketCount( int bucketCount ) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( DataOutputStream out = new DataOutputStream( bytes ) )
+        {
+            out.writeLong( 10 ); // sample size
+            out.writeBoolean( true ); // has numbers
+            out.writeLong( 10 ); // total
+            out.writeLong( 1 ); // distinct
+            out.writeLong( 0 ); // lowest
+            out.writeLong( 0 ); // highest
+            out.writeInt( bucketCount );
+        }
+        return IndexHistogram.read( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) );
+    }
+
+    @Test
+    void shouldHaveOrderPreservingKeys()
+    {
+        double[] numbers = {Double.NEGATIVE_INFINITY, -1e300, -2.5, -1, -0.0, 1e-300, 1, 2.5, 1e300, Double.POSITIVE_INFINITY};
+        for ( int i = 1; i < numbers.length; i++ )
+        {
+            assertTrue( IndexHistogram.numberKey( numbers[i - 1] ) < IndexHistogram.numberKey( numbers[i] ), numbers[i - 1] + " < " + numbers[i] );
+        }
+        String[] strings = {"", "\u0000a", "A", "a", "ab", "abcd", "b", "\uFFFF"};
+        for ( int i = 1; i < strings.length; i++ )
+        {
+            assertTrue( IndexHistogram.textKey( strings[i - 1], Character.MIN_VALUE ) < IndexHistogram.textKey( strings[i], Character.MIN_VALUE ),
+                    strings[i - 1] + " < " + strings[i] );
+        }
+    }
+
+    private static IndexHistogram writeAndRead( IndexHistogram histogram ) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( DataOutputStream out = new DataOutputStream( bytes ) )
+        {
+            histogram.write( out );
+        }
+        return IndexHistogram.read( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) );
+    }
+}
@@ -190,6 +190,12 @@ public class DatabasePageCache implements PageCache
             return delegate.getLastPageId();
         }
 
+        @Override
+        public int touch( long pageId, int count ) throws IOException
+        {
+            return delegate.touch( pageId, count );
+        }
+
         @Override
         public void close()
         {
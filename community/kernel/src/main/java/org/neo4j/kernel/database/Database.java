@@ -48,6 +48,8 @@ import org.neo4j.internal.id.IdGeneratorFactory;
 import org.neo4j.internal.index.label.LabelScanStore;
 import org.neo4j.internal.index.label.LoggingMonitor;
 import org.neo4j.internal.index.label.NativeLabelScanStore;
+import org.neo4j.internal.index.label.NativeRelationshipTypeScanStore;
+import org.neo4j.internal.index.label.RelationshipTypeScanStore;
 import org.neo4j.internal.schema.IndexDescriptor;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemUtils;
@@ -79,6 +81,7 @@ import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.index.IndexingServiceFactory;
 import org.neo4j.kernel.impl.api.index.stats.IndexStatisticsStore;
 import org.neo4j.kernel.impl.api.scan.FullLabelStream;
+import org.neo4j.kernel.impl.api.scan.FullRelationshipTypeStream;
 import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
 import org.neo4j.kernel.impl.api.transaction.monitor.KernelTransactionMonitor;
 import org.neo4j.kernel.impl.api.transaction.monitor.KernelTransactionMonitorScheduler;
@@ -94,6 +97,7 @@ import org.neo4j.kernel.impl.locking.StatementLocksFactory;
 import org.neo4j.kernel.impl.pagecache.PageCacheLifecycle;
 import org.neo4j.kernel.impl.pagecache.PageCacheStartMetricsReporter;
 import org.neo4j.kernel.impl.pagecache.PageCacheStopMetricsReporter;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.impl.store.stats.DatabaseEntityCounters;
@@ -388,7 +392,7 @@ public class Database extends LifecycleAdapter
 
             storageEngine = storageEngineFactory.instantiate( fs, databaseLayout, databaseConfig, databasePageCache, tokenHolders, databaseSchemaState,
                     constraintSemantics, indexProviderMap, lockService, idGeneratorFactory, idController, databaseHealth, internalLogProvider,
-                    recoveryCleanupWorkCollector, !storageExists );
+                    recoveryCleanupWorkCollector, scheduler, !storageExists );
 
             life.add( storageEngine );
             life.add( storageEngine.schemaAndTokensLifecycle() );
@@ -399,10 +403,15 @@ public class Database extends LifecycleAdapter
             LabelScanStore labelScanStore =
                     buildLabelIndex( databasePageCache, recoveryCleanupWorkCollector, storageEngine, neoStoreIndexStoreView, databaseMonitors );
 
+            // Relationship type index
+            RelationshipTypeScanStore relationshipTypeScanStore =
+                    buildRelationshipTypeIndex( databasePageCache, recoveryCleanupWorkCollector, storageEngine, databaseMonitors );
+
             // Schema indexes
             DynamicIndexStoreView indexStoreView =
                     new DynamicIndexStoreView( neoStoreIndexStoreView, labelScanStore, lockService, storageEngine::newReader, internalLogProvider );
-            IndexStatisticsStore indexStatisticsStore = new IndexStatisticsStore( databasePageCache, databaseLayout, recoveryCleanupWorkCollector, readOnly );
+            IndexStatisticsStore indexStatisticsStore =
+                    new IndexStatisticsStore( databasePageCache, fs, databaseLayout, recoveryCleanupWorkCollector, readOnly );
             IndexingService indexingService = buildIndexingService( storageEngine, databaseSchemaState, indexStoreView, indexStatisticsStore );
 
             TransactionIdStore transactionIdStore = storageEngine.transactionIdStore();
@@ -412,7 +421,8 @@ public class Database extends LifecycleAdapter
 
             versionContextSupplier.init( transactionIdStore::getLastClosedTransactionId );
 
-            CheckPointerImpl.ForceOperation forceOperation = new DefaultForceOperation( indexingService, labelScanStore, storageEngine );
+            CheckPointerImpl.ForceOperation forceOperation =
+                    new DefaultForceOperation( indexingService, labelScanStore, relationshipTypeScanStore, storageEngine );
             DatabaseTransactionLogModule transactionLogModule =
                     buildTransactionLogs( logFiles, databaseConfig, internalLogProvider, scheduler, forceOperation,
                             logEntryReader, transactionIdStore, databaseMonitors );
@@ -424,6 +434,7 @@ public class Database extends LifecycleAdapter
                     indexingService,
                     databaseSchemaState,
                     labelScanStore,
+                    relationshipTypeScanStore,
                     storageEngine,
                     transactionIdStore,
                     databaseAvailabilityGuard,
@@ -439,6 +450,7 @@ public class Database extends LifecycleAdapter
             databaseDependencies.satisfyDependency( logEntryReader );
             databaseDependencies.satisfyDependency( storageEngine );
             databaseDependencies.satisfyDependency( labelScanStore );
+            databaseDependencies.satisfyDependency( relationshipTypeScanStore );
             databaseDependencies.satisfyDependency( indexingService );
             databaseDependencies.satisfyDependency( indexStoreView );
             databaseDependencies.satisfyDependency( indexStatisticsStore );
@@ -456,6 +468,8 @@ public class Database extends LifecycleAdapter
             life.add( databaseAvailabilityGuard );
             life.add( databaseAvailability );
             life.add( new PageCacheStartMetricsReporter( pageCursorTracerSupplier ) );
+            life.add( new PageCacheWarmer( fs, databasePageCache, scheduler, databaseLayout.databaseDirectory(), databaseConfig,
+                    internalLogProvider.getLog( PageCacheWarmer.class ) ) );
             life.setLast( checkpointerLifecycle );
 
             databaseDependencies.resolveDependency( DbmsDiagnosticsManager.class ).dumpDatabaseDiagnostics( this );
@@ -577,13 +591,48 @@ public class Database extends LifecycleAdapter
             FileSystemAbstraction fs,
             boolean readOnly )
     {
-        monitors.addMonitorListener( new LoggingMonitor( logProvider.getLog( NativeLabelScanStore.class ) ) );
+        monitors.addMonitorListener( new LoggingMonitor( logProvider.getLog( NativeLabelScanStore.class ) ),
+                NativeLabelScanStore.LABEL_SCAN_STORE_MONITOR_TAG );
         NativeLabelScanStore labelScanStore = new NativeLabelScanStore( pageCache, databaseLayout, fs, new FullLabelStream( indexStoreView ),
                 readOnly, monitors, recoveryCleanupWorkCollector );
         storageEngine.addNodeLabelUpdateListener( labelScanStore );
         return labelScanStore;
     }
 
+    /**
+     * Builds a {@link RelationshipTypeScanStore} and adds it to this database's {@link LifeSupport}.
+     */
+    private RelationshipTypeScanStore buildRelationshipTypeIndex(
+            PageCache pageCache,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
+            StorageEngine storageEngine,
+            Monitors monitors )
+    {
+        return life.add( buildRelationshipTypeIndex( recoveryCleanupWorkCollector, storageEngine, monitors, internalLogProvider,
+                pageCache, databaseLayout, fs, readOnly ) );
+    }
+
+    /**
+     * Convenience method for building a {@link RelationshipTypeScanStore}. Doesn't add it to a {@link LifeSupport}.
+     */
+    public static RelationshipTypeScanStore buildRelationshipTypeIndex(
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
+            StorageEngine storageEngine,
+            Monitors monitors,
+            LogProvider logProvider,
+            PageCache pageCache,
+            DatabaseLayout databaseLayout,
+            FileSystemAbstraction fs,
+            boolean readOnly )
+    {
+        monitors.addMonitorListener( new LoggingMonitor( logProvider.getLog( NativeRelationshipTypeScanStore.class ), "relationship type index",
+                "relationships" ), NativeRelationshipTypeScanStore.RELATIONSHIP_TYPE_SCAN_STORE_MONITOR_TAG );
+        NativeRelationshipTypeScanStore relationshipTypeScanStore = new NativeRelationshipTypeScanStore( pageCache, databaseLayout, fs,
+                new FullRelationshipTypeStream( storageEngine::newReader ), readOnly, monitors, recoveryCleanupWorkCollector );
+        storageEngine.addRelationshipTypeUpdateListener( relationshipTypeScanStore );
+        return relationshipTypeScanStore;
+    }
+
     private DatabaseTransactionLogModule buildTransactionLogs( LogFiles logFiles, Config config,
             LogProvider logProvider, JobScheduler scheduler, CheckPointerImpl.ForceOperation forceOperation,
             LogEntryReader logEntryReader, TransactionIdStore transactionIdStore, Monitors monitors )
@@ -597,7 +646,7 @@ public class Database extends LifecycleAdapter
                 new LogRotationImpl( logFiles, clock, databaseHealth, monitors.newMonitor( LogRotationMonitor.class ) );
 
         final TransactionAppender appender = life.add( new BatchingTransactionAppender(
-                logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth ) );
+                logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth, ioLimiter ) );
         final LogicalTransactionStore logicalTransactionStore =
                 new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache, logEntryReader, monitors, true );
 
@@ -619,7 +668,7 @@ public class Database extends LifecycleAdapter
 
     private DatabaseKernelModule buildKernel( LogFiles logFiles, TransactionAppender appender,
             IndexingService indexingService, DatabaseSchemaState databaseSchemaState, LabelScanStore labelScanStore,
-            StorageEngine storageEngine, TransactionIdStore transactionIdStore,
+            RelationshipTypeScanStore relationshipTypeScanStore, StorageEngine storageEngine, TransactionIdStore transactionIdStore,
             AvailabilityGuard databaseAvailabilityGuard, SystemNanoClock clock,
             IndexStatisticsStore indexStatisticsStore, GraphDatabaseFacade facade,
             LeaseService leaseService )
@@ -645,8 +694,8 @@ public class Database extends LifecycleAdapter
                         databaseAvailabilityGuard,
                         storageEngine, globalProcedures, transactionIdStore, clock, cpuClockRef,
                         heapAllocationRef, accessCapability, versionContextSupplier, collectionsFactorySupplier,
-                        constraintSemantics, databaseSchemaState, tokenHolders, getNamedDatabaseId(), indexingService, labelScanStore, indexStatisticsStore,
-                        databaseDependencies, databaseTracer, pageCursorTracerSupplier, lockTracer, leaseService ) );
+                        constraintSemantics, databaseSchemaState, tokenHolders, getNamedDatabaseId(), indexingService, labelScanStore,
+                        relationshipTypeScanStore, indexStatisticsStore, databaseDependencies, databaseTracer, pageCursorTracerSupplier, lockTracer, leaseService ) );
 
         buildTransactionMonitor( kernelTransactions, databaseConfig );
 
@@ -655,7 +704,8 @@ public class Database extends LifecycleAdapter
         life.add( kernel );
 
         final DatabaseFileListing fileListing =
-                new DatabaseFileListing( databaseLayout, logFiles, labelScanStore, indexingService, storageEngine, idGeneratorFactory );
+                new DatabaseFileListing( databaseLayout, logFiles, labelScanStore, relationshipTypeScanStore, indexingService, storageEngine,
+                        idGeneratorFactory );
         databaseDependencies.satisfyDependency( fileListing );
 
         return new DatabaseKernelModule( transactionCommitProcess, kernel, kernelTransactions, fileListing );
@@ -170,8 +170,9 @@ public class StoreFilesDiagnostics extends NamedDiagnosticsProvider
          */
         boolean canBeManagedByPageCache( File storeFile )
         {
-            boolean isLabelScanStore = databaseLayout.labelScanStore().equals( storeFile );
-            return isLabelScanStore || mappedCandidates.contains( storeFile );
+            boolean isTokenScanStore = databaseLayout.labelScanStore().equals( storeFile ) ||
+                    databaseLayout.relationshipTypeScanStore().equals( storeFile );
+            return isTokenScanStore || mappedCandidates.contains( storeFile );
         }
     }
 }
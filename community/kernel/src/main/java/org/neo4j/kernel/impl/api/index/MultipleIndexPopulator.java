@@ -628,7 +628,7 @@ public class MultipleIndexPopulator implements IndexPopulator
                                 populator.verifyDeferredConstraints( propertyAccessor );
                             }
                             IndexSample sample = populator.sampleResult();
-                            indexStatisticsStore.replaceStats( indexId, sample.uniqueValues(), sample.sampleSize(), sample.indexSize() );
+                            indexStatisticsStore.replaceStats( indexId, sample );
                             populator.close( true );
                             schemaState.clear();
                             return true;
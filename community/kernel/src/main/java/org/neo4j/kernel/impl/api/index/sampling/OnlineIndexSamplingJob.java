@@ -71,7 +71,7 @@ class OnlineIndexSamplingJob implements IndexSamplingJob
                     // check again if the index is online before saving the counts in the store
                     if ( indexProxy.getState() == ONLINE )
                     {
-                        indexStatisticsStore.replaceStats( indexId, sample.uniqueValues(), sample.sampleSize(), sample.indexSize() );
+                        indexStatisticsStore.replaceStats( indexId, sample );
                         durationLogger.markAsFinished();
                         log.debug(
                                 format( "Sampled index %s with %d unique values in sample of avg size %d taken from " +
@@ -19,9 +19,14 @@
  */
 package org.neo4j.kernel.impl.api.index.stats;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -35,19 +40,29 @@ import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
 import org.neo4j.index.internal.gbptree.Seeker;
 import org.neo4j.index.internal.gbptree.TreeFileNotFoundException;
 import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.internal.kernel.api.IndexHistogram;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.index.IndexSample;
 import org.neo4j.kernel.impl.index.schema.ConsistencyCheckable;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.register.Register.DoubleLongRegister;
 import org.neo4j.util.VisibleForTesting;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
 /**
  * A simple store for keeping index statistics counts, like number of updates, index size, number of unique values a.s.o.
  * These values aren't updated transactionally and so the data is just kept in memory and flushed to a {@link GBPTree} on every checkpoint.
  * Neither reads, writes nor checkpoints block each other.
  *
+ * Value distributions of the indexes don't fit the fixed size entries of the tree. They are also kept in memory, and written to a
+ * separate file next to the tree on every checkpoint.
+ *
  * The store is accessible after {@link #init()} has been called.
  */
 public class IndexStatisticsStore extends LifecycleAdapter implements IndexStatisticsVisitor.Visitable, ConsistencyCheckable
@@ -55,9 +70,13 @@ public class IndexStatisticsStore extends LifecycleAdapter implements IndexStati
     // Used in GBPTree.seek. Please don't use for writes
     private static final IndexStatisticsKey LOWEST_KEY = new IndexStatisticsKey( Long.MIN_VALUE );
     private static final IndexStatisticsKey HIGHEST_KEY = new IndexStatisticsKey( Long.MAX_VALUE );
+    private static final String HISTOGRAMS_FILE_SUFFIX = ".histograms";
+    private static final int HISTOGRAMS_FORMAT_VERSION = 1;
 
     private final PageCache pageCache;
+    private final FileSystemAbstraction fs;
     private final File file;
+    private final File histogramsFile;
     private final RecoveryCleanupWorkCollector recoveryCleanupWorkCollector;
     private final IndexStatisticsLayout layout;
     private final boolean readOnly;
@@ -65,20 +84,25 @@ public class IndexStatisticsStore extends LifecycleAdapter implements IndexStati
     // Let IndexStatisticsValue be immutable in this map so that checkpoint doesn't have to coordinate with concurrent writers
     // It's assumed that the data in this map will be so small that everything can just be in it always.
     private final ConcurrentHashMap<IndexStatisticsKey,IndexStatisticsValue> cache = new ConcurrentHashMap<>();
+    // Value distributions from the last sampling, IndexHistogram is immutable as well
+    private final ConcurrentHashMap<Long,IndexHistogram> histograms = new ConcurrentHashMap<>();
 
-    public IndexStatisticsStore( PageCache pageCache, File file, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean readOnly )
+    public IndexStatisticsStore( PageCache pageCache, FileSystemAbstraction fs, File file, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
+            boolean readOnly )
     {
         this.pageCache = pageCache;
+        this.fs = fs;
         this.file = file;
+        this.histogramsFile = new File( file.getParentFile(), file.getName() + HISTOGRAMS_FILE_SUFFIX );
         this.recoveryCleanupWorkCollector = recoveryCleanupWorkCollector;
         this.layout = new IndexStatisticsLayout();
         this.readOnly = readOnly;
     }
 
-    public IndexStatisticsStore( PageCache pageCache, DatabaseLayout databaseLayout, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
-            boolean readOnly )
+    public IndexStatisticsStore( PageCache pageCache, FileSystemAbstraction fs, DatabaseLayout databaseLayout,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean readOnly )
     {
-        this( pageCache, databaseLayout.indexStatisticsStore(), recoveryCleanupWorkCollector, readOnly );
+        this( pageCache, fs, databaseLayout.indexStatisticsStore(), recoveryCleanupWorkCollector, readOnly );
     }
 
     @Override
@@ -95,6 +119,7 @@ public class IndexStatisticsStore extends LifecycleAdapter implements IndexStati
                     "Index statistics store file could not be found, most likely this database needs to be recovered, file:" + file, e );
         }
         scanTree( cache::put );
+        readHistograms();
     }
 
     /**
@@ -145,6 +170,23 @@ public class IndexStatisticsStore extends LifecycleAdapter implements IndexStati
         return target;
     }
 
+    /**
+     * @return the value distribution from the last sampling of this index, or {@code null} if there is none.
+     */
+    public IndexHistogram indexHistogram( long indexId )
+    {
+        return histograms.get( indexId );
+    }
+
+    public void replaceStats( long indexId, IndexSample sample )
+    {
+        replaceStats( indexId, sample.uniqueValues(), sample.sampleSize(), 0, sample.indexSize() );
+        if ( sample.histogram() != null )
+        {
+            histograms.put( indexId, sample.histogram() );
+        }
+    }
+
     public void replaceStats( long indexId, long numberOfUniqueValuesInSample, long sampleSize, long indexSize )
     {
         replaceStats( indexId, numberOfUniqueValuesInSample, sampleSize, 0, indexSize );
@@ -157,12 +199,14 @@ public class IndexStatisticsStore extends LifecycleAdapter implements IndexStati
         IndexStatisticsKey key = new IndexStatisticsKey( indexId );
         IndexStatisticsValue value = new IndexStatisticsValue( numberOfUniqueValuesInSample, sampleSize, updatesCount, indexSize );
         cache.put( key, value );
+        histograms.remove( indexId );
     }
 
     public void removeIndex( long indexId )
     {
         assertNotReadOnly();
         cache.remove( new IndexStatisticsKey( indexId ) );
+        histograms.remove( indexId );
     }
 
     public void incrementIndexUpdates( long indexId, long delta )
@@ -205,6 +249,7 @@ public class IndexStatisticsStore extends LifecycleAdapter implements IndexStati
             // There's an assumption that there will never be concurrent calls to checkpoint. This is guarded outside.
             clearTree();
             writeCacheContentsIntoTree();
+            writeHistograms();
             tree.checkpoint( ioLimiter );
         }
     }
@@ -268,6 +313,64 @@ public class IndexStatisticsStore extends LifecycleAdapter implements IndexStati
         }
     }
 
+    private void writeHistograms() throws IOException
+    {
+        File tmpFile = new File( histogramsFile.getParentFile(), histogramsFile.getName() + ".tmp" );
+        List<Map.Entry<Long,IndexHistogram>> entries = new ArrayList<>( histograms.entrySet() );
+        try ( StoreChannel channel = fs.write( tmpFile ) )
+        {
+            channel.truncate( 0 );
+            DataOutputStream out = new DataOutputStream( new BufferedOutputStream( Channels.newOutputStream( channel ) ) );
+            out.writeInt( HISTOGRAMS_FORMAT_VERSION );
+            out.writeInt( entries.size() );
+            for ( Map.Entry<Long,IndexHistogram> entry : entries )
+            {
+                out.writeLong( entry.getKey() );
+                entry.getValue().write( out );
+            }
+            out.flush();
+            // Force before the rename, otherwise a crash could leave a renamed but partially written file behind
+            channel.force( false );
+        }
+        fs.renameFile( tmpFile, histogramsFile, ATOMIC_MOVE, REPLACE_EXISTING );
+    }
+
+    private void readHistograms()
+    {
+        if ( !fs.fileExists( histogramsFile ) )
+        {
+            return;
+        }
+        try ( DataInputStream in = new DataInputStream( new BufferedInputStream( fs.openAsInputStream( histogramsFile ) ) ) )
+        {
+            if ( in.readInt() != HISTOGRAMS_FORMAT_VERSION )
+            {
+                return;
+            }
+            int count = in.readInt();
+            if ( count < 0 )
+            {
+                throw new IOException( "Corrupt histograms file, unexpected number of histograms " + count );
+            }
+            for ( int i = 0; i < count; i++ )
+            {
+                long indexId = in.readLong();
+                IndexHistogram histogram = IndexHistogram.read( in );
+                // Only for indexes that still have statistics in the tree, i.e. weren't dropped before the checkpoint
+                if ( cache.containsKey( new IndexStatisticsKey( indexId ) ) )
+                {
+                    histograms.put( indexId, histogram );
+                }
+            }
+        }
+        catch ( IOException | RuntimeException | OutOfMemoryError e )
+        {
+            // Histograms only refine the estimates, the planner uses the uniform ones until the indexes are sampled again.
+            // Any failure to read them, e.g. a corrupt file, must therefore not prevent the database from starting.
+            histograms.clear();
+        }
+    }
+
     private void assertNotReadOnly()
     {
         if ( readOnly )
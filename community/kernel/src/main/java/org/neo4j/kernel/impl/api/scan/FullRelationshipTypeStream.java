@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import org.neo4j.internal.index.label.FullStoreChangeStream;
+import org.neo4j.internal.index.label.LabelScanWriter;
+import org.neo4j.storageengine.api.NodeLabelUpdate;
+import org.neo4j.storageengine.api.StorageReader;
+import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
+
+import static org.apache.commons.lang3.ArrayUtils.EMPTY_LONG_ARRAY;
+
+/**
+ * {@link FullStoreChangeStream} scanning all relationships using a {@link StorageReader}, to rebuild a
+ * {@link org.neo4j.internal.index.label.RelationshipTypeScanStore}. Each relationship is written as an update
+ * with the relationship id as entity id and its type as the only label.
+ */
+public class FullRelationshipTypeStream implements FullStoreChangeStream
+{
+    private final Supplier<StorageReader> storageReaderSupplier;
+
+    public FullRelationshipTypeStream( Supplier<StorageReader> storageReaderSupplier )
+    {
+        this.storageReaderSupplier = storageReaderSupplier;
+    }
+
+    @Override
+    public long applyTo( LabelScanWriter writer ) throws IOException
+    {
+        long count = 0;
+        try ( StorageReader reader = storageReaderSupplier.get();
+              StorageRelationshipScanCursor cursor = reader.allocateRelationshipScanCursor() )
+        {
+            cursor.scan();
+            while ( cursor.next() )
+            {
+                writer.write( NodeLabelUpdate.labelChanges( cursor.entityReference(), EMPTY_LONG_ARRAY, new long[]{cursor.type()} ) );
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.neo4j.graphdb.Resource;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.storageengine.api.RelationshipVisitor;
+
+/**
+ * Type, start node and end node of the relationships created in a transaction, keyed by relationship id. Kept apart from the
+ * {@link RelationshipStateImpl relationship states}, which are only needed for relationships with property changes, so that
+ * transactions creating many relationships don't need an object per relationship.
+ *
+ * @see CollectionsFactory#newCreatedRelationships()
+ */
+public interface CreatedRelationships extends Resource
+{
+    void put( long id, int type, long startNode, long endNode );
+
+    boolean contains( long id );
+
+    /**
+     * Visits the relationship with the given id, if it was created in this transaction.
+     *
+     * @return {@code true} if the relationship was created in this transaction and visited, otherwise {@code false}.
+     */
+    <EX extends Exception> boolean accept( long id, RelationshipVisitor<EX> visitor ) throws EX;
+
+    void remove( long id );
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.eclipse.collections.api.iterator.LongIterator;
+
+import org.neo4j.graphdb.Resource;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.storageengine.api.txstate.LongDiffSets;
+
+/**
+ * Labels added to and removed from nodes in a transaction, keyed by node id. Kept apart from the {@link NodeStateImpl node states}, which are
+ * only needed for nodes with property, relationship or index changes, so that transactions labeling many nodes don't need objects per node.
+ * Adding and removing follows the semantics of {@link org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSets}, i.e. adding a label removed
+ * earlier in the transaction, or the other way around, cancels the two out.
+ *
+ * @see CollectionsFactory#newNodeLabelChanges()
+ */
+public interface NodeLabelChanges extends Resource
+{
+    void add( long nodeId, long labelId );
+
+    void remove( long nodeId, long labelId );
+
+    /**
+     * @return whether or not labels of the given node have been changed in this transaction.
+     */
+    boolean contains( long nodeId );
+
+    /**
+     * @return labels added to and removed from the given node, or {@link LongDiffSets#EMPTY} if none.
+     */
+    LongDiffSets get( long nodeId );
+
+    /**
+     * Forgets all label changes of the given node, e.g. when it's deleted.
+     */
+    void clear( long nodeId );
+
+    /**
+     * @return ids of the nodes with label changes.
+     */
+    LongIterator nodes();
+}
@@ -32,7 +32,6 @@ import java.util.Set;
 import org.neo4j.kernel.impl.api.state.RelationshipChangesForNode.DiffStrategy;
 import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
 import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSets;
-import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSetsImpl;
 import org.neo4j.storageengine.api.RelationshipDirection;
 import org.neo4j.storageengine.api.StorageProperty;
 import org.neo4j.storageengine.api.txstate.LongDiffSets;
@@ -118,30 +117,25 @@ class NodeStateImpl extends EntityStateImpl implements NodeState
         }
     };
 
-    private MutableLongDiffSets labelDiffSets;
+    private final TxState txState;
     private RelationshipChangesForNode relationshipsAdded;
     private RelationshipChangesForNode relationshipsRemoved;
 
     private Set<MutableLongDiffSets> indexDiffs;
 
-    NodeStateImpl( long id, CollectionsFactory collectionsFactory )
+    /**
+     * @param txState the transaction state this node state is part of, which keeps the label changes of all nodes.
+     */
+    NodeStateImpl( long id, CollectionsFactory collectionsFactory, TxState txState )
     {
         super( id, collectionsFactory );
+        this.txState = txState;
     }
 
     @Override
     public LongDiffSets labelDiffSets()
     {
-        return labelDiffSets == null ? LongDiffSets.EMPTY : labelDiffSets;
-    }
-
-    MutableLongDiffSets getOrCreateLabelDiffSets()
-    {
-        if ( labelDiffSets == null )
-        {
-            labelDiffSets = new MutableLongDiffSetsImpl( collectionsFactory );
-        }
-        return labelDiffSets;
+        return txState.nodeStateLabelDiffSets( getId() );
     }
 
     public void addRelationship( long relId, int typeId, RelationshipDirection direction )
@@ -183,10 +177,6 @@ class NodeStateImpl extends EntityStateImpl implements NodeState
         {
             relationshipsRemoved.clear();
         }
-        if ( labelDiffSets != null )
-        {
-            labelDiffSets = null;
-        }
         if ( indexDiffs != null )
         {
             indexDiffs.clear();
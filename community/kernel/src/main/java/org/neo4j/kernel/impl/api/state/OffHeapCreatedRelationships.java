@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.kernel.impl.util.collection.Memory;
+import org.neo4j.kernel.impl.util.collection.MemoryAllocator;
+import org.neo4j.storageengine.api.RelationshipVisitor;
+
+import static org.neo4j.util.Preconditions.checkState;
+
+/**
+ * Keeps created relationships in fixed size records in off-heap chunks, which are appended to and never reused, much like
+ * {@link AppendOnlyValuesContainer}. Relationship ids are mapped to their record numbers by the given map, which is off-heap too.
+ * <pre>
+ * record: [type: 8 bytes][start node: 8 bytes][end node: 8 bytes]
+ * </pre>
+ */
+public class OffHeapCreatedRelationships implements CreatedRelationships
+{
+    private static final int CHUNK_SIZE = (int) ByteUnit.kibiBytes( 32 );
+    private static final int RECORD_SIZE = 3 * Long.BYTES;
+    private static final int RECORDS_PER_CHUNK = CHUNK_SIZE / RECORD_SIZE;
+
+    private final MemoryAllocator allocator;
+    private final MutableLongLongMap records;
+    private final List<Memory> chunks = new ArrayList<>();
+    private long nextRecord;
+    private boolean closed;
+
+    /**
+     * @param records map from relationship id to record number, which is owned, and closed, by the caller.
+     */
+    public OffHeapCreatedRelationships( MutableLongLongMap records, MemoryAllocator allocator )
+    {
+        this.records = records;
+        this.allocator = allocator;
+    }
+
+    @Override
+    public void put( long id, int type, long startNode, long endNode )
+    {
+        assertNotClosed();
+        long record = nextRecord++;
+        int chunkIndex = (int) (record / RECORDS_PER_CHUNK);
+        if ( chunkIndex == chunks.size() )
+        {
+            chunks.add( allocator.allocate( CHUNK_SIZE, false ) );
+        }
+        Memory chunk = chunks.get( chunkIndex );
+        long offset = (record % RECORDS_PER_CHUNK) * RECORD_SIZE;
+        chunk.writeLong( offset, type );
+        chunk.writeLong( offset + Long.BYTES, startNode );
+        chunk.writeLong( offset + 2 * Long.BYTES, endNode );
+        records.put( id, record );
+    }
+
+    @Override
+    public boolean contains( long id )
+    {
+        assertNotClosed();
+        return records.containsKey( id );
+    }
+
+    @Override
+    public <EX extends Exception> boolean accept( long id, RelationshipVisitor<EX> visitor ) throws EX
+    {
+        assertNotClosed();
+        if ( !records.containsKey( id ) )
+        {
+            return false;
+        }
+        long record = records.get( id );
+        Memory chunk = chunks.get( (int) (record / RECORDS_PER_CHUNK) );
+        long offset = (record % RECORDS_PER_CHUNK) * RECORD_SIZE;
+        int type = (int) chunk.readLong( offset );
+        long startNode = chunk.readLong( offset + Long.BYTES );
+        long endNode = chunk.readLong( offset + 2 * Long.BYTES );
+        visitor.visit( id, type, startNode, endNode );
+        return true;
+    }
+
+    @Override
+    public void remove( long id )
+    {
+        assertNotClosed();
+        // The record is left as garbage in its chunk until this container is closed
+        records.remove( id );
+    }
+
+    @Override
+    public void close()
+    {
+        assertNotClosed();
+        closed = true;
+        chunks.forEach( Memory::free );
+        chunks.clear();
+    }
+
+    private void assertNotClosed()
+    {
+        checkState( !closed, "Container is closed" );
+    }
+}
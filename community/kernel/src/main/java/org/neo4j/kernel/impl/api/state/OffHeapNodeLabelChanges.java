@@ -0,0 +1,448 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.collection.PrimitiveLongResourceIterator;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.kernel.impl.util.collection.Memory;
+import org.neo4j.kernel.impl.util.collection.MemoryAllocator;
+import org.neo4j.kernel.impl.util.collection.OnHeapCollectionsFactory;
+import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSetsImpl;
+import org.neo4j.storageengine.api.txstate.LongDiffSets;
+
+import static java.lang.Math.max;
+import static org.neo4j.util.Preconditions.checkState;
+
+/**
+ * Keeps the label changes of each node in a slot in off-heap chunks, much like {@link OffHeapCreatedRelationships}. Labels are added to and
+ * removed from a slot in place. A slot that runs out of room is moved to one of twice the capacity, and slots given up that way, or by
+ * {@link #clear(long) cleared} nodes, are reused for other nodes. Node ids are mapped to the addresses of their slots by the given map,
+ * which is off-heap too.
+ * <pre>
+ * slot: [capacity: 8 bytes][added count: 4 bytes][removed count: 4 bytes][added labels: 8 bytes each][removed labels: 8 bytes each][free]
+ * address: [chunk index: 4 bytes][offset in chunk: 4 bytes]
+ * </pre>
+ */
+public class OffHeapNodeLabelChanges implements NodeLabelChanges
+{
+    private static final int CHUNK_SIZE = (int) ByteUnit.kibiBytes( 32 );
+    private static final int INITIAL_CAPACITY = 2;
+    private static final int HEADER_SIZE = 2 * Long.BYTES;
+    private static final long NO_SLOT = -1;
+
+    private final MemoryAllocator allocator;
+    private final MutableLongLongMap records;
+    private final List<Memory> chunks = new ArrayList<>();
+    // Addresses of slots that are no longer used, by the number of trailing zeros of their capacity
+    private final MutableLongList[] freeSlots = new MutableLongList[Integer.SIZE];
+    private long nextOffset;
+    private long modifications;
+    private boolean closed;
+
+    /**
+     * @param records map from node id to slot address, which is owned, and closed, by the caller.
+     */
+    public OffHeapNodeLabelChanges( MutableLongLongMap records, MemoryAllocator allocator )
+    {
+        this.records = records;
+        this.allocator = allocator;
+    }
+
+    @Override
+    public void add( long nodeId, long labelId )
+    {
+        assertNotClosed();
+        long address = records.getIfAbsent( nodeId, NO_SLOT );
+        if ( address != NO_SLOT )
+        {
+            Memory chunk = chunk( address );
+            long offset = offset( address );
+            int added = addedCount( chunk, offset );
+            int removed = removedCount( chunk, offset );
+            int index = indexOf( chunk, offset, added, added + removed, labelId );
+            if ( index != -1 )
+            {
+                // Adding a label removed earlier cancels the two out
+                moveLabel( chunk, offset, added + removed - 1, index );
+                writeCounts( chunk, offset, added, removed - 1 );
+                modifications++;
+                return;
+            }
+            if ( indexOf( chunk, offset, 0, added, labelId ) != -1 )
+            {
+                return;
+            }
+            address = ensureCapacity( nodeId, address, added + removed + 1 );
+            chunk = chunk( address );
+            offset = offset( address );
+            // Make room at the end of the added labels by moving the first removed label behind the last one
+            moveLabel( chunk, offset, added, added + removed );
+            writeLabel( chunk, offset, added, labelId );
+            writeCounts( chunk, offset, added + 1, removed );
+        }
+        else
+        {
+            address = allocateSlot( INITIAL_CAPACITY );
+            writeLabel( chunk( address ), offset( address ), 0, labelId );
+            writeCounts( chunk( address ), offset( address ), 1, 0 );
+            records.put( nodeId, address );
+        }
+        modifications++;
+    }
+
+    @Override
+    public void remove( long nodeId, long labelId )
+    {
+        assertNotClosed();
+        long address = records.getIfAbsent( nodeId, NO_SLOT );
+        if ( address != NO_SLOT )
+        {
+            Memory chunk = chunk( address );
+            long offset = offset( address );
+            int added = addedCount( chunk, offset );
+            int removed = removedCount( chunk, offset );
+            int index = indexOf( chunk, offset, 0, added, labelId );
+            if ( index != -1 )
+            {
+                // Removing a label added earlier cancels the two out. The hole left at the end of the added labels is filled by the last
+                // removed label.
+                moveLabel( chunk, offset, added - 1, index );
+                moveLabel( chunk, offset, added + removed - 1, added - 1 );
+                writeCounts( chunk, offset, added - 1, removed );
+                modifications++;
+                return;
+            }
+            if ( indexOf( chunk, offset, added, added + removed, labelId ) != -1 )
+            {
+                return;
+            }
+            address = ensureCapacity( nodeId, address, added + removed + 1 );
+            writeLabel( chunk( address ), offset( address ), added + removed, labelId );
+            writeCounts( chunk( address ), offset( address ), added, removed + 1 );
+        }
+        else
+        {
+            address = allocateSlot( INITIAL_CAPACITY );
+            writeLabel( chunk( address ), offset( address ), 0, labelId );
+            writeCounts( chunk( address ), offset( address ), 0, 1 );
+            records.put( nodeId, address );
+        }
+        modifications++;
+    }
+
+    @Override
+    public boolean contains( long nodeId )
+    {
+        assertNotClosed();
+        return records.containsKey( nodeId );
+    }
+
+    @Override
+    public LongDiffSets get( long nodeId )
+    {
+        assertNotClosed();
+        if ( !records.containsKey( nodeId ) )
+        {
+            return LongDiffSets.EMPTY;
+        }
+        return new LabelChangesView( nodeId );
+    }
+
+    @Override
+    public void clear( long nodeId )
+    {
+        assertNotClosed();
+        long address = records.removeKeyIfAbsent( nodeId, NO_SLOT );
+        if ( address != NO_SLOT )
+        {
+            freeSlot( address );
+            modifications++;
+        }
+    }
+
+    @Override
+    public LongIterator nodes()
+    {
+        assertNotClosed();
+        return records.longIterator();
+    }
+
+    @Override
+    public void close()
+    {
+        assertNotClosed();
+        closed = true;
+        chunks.forEach( Memory::free );
+        chunks.clear();
+    }
+
+    /**
+     * @return the address of a slot for the node with room for at least the given number of labels, which is the given slot if it's
+     * big enough already.
+     */
+    private long ensureCapacity( long nodeId, long address, int labels )
+    {
+        Memory chunk = chunk( address );
+        long offset = offset( address );
+        long capacity = chunk.readLong( offset );
+        if ( labels <= capacity )
+        {
+            return address;
+        }
+        long newAddress = allocateSlot( (int) capacity * 2 );
+        Memory newChunk = chunk( newAddress );
+        long newOffset = offset( newAddress );
+        int count = addedCount( chunk, offset ) + removedCount( chunk, offset );
+        newChunk.writeLong( newOffset + Long.BYTES, chunk.readLong( offset + Long.BYTES ) );
+        for ( int i = 0; i < count; i++ )
+        {
+            writeLabel( newChunk, newOffset, i, readLabel( chunk, offset, i ) );
+        }
+        freeSlot( address );
+        records.put( nodeId, newAddress );
+        return newAddress;
+    }
+
+    private long allocateSlot( int capacity )
+    {
+        MutableLongList free = freeSlots[Integer.numberOfTrailingZeros( capacity )];
+        if ( free != null && !free.isEmpty() )
+        {
+            return free.removeAtIndex( free.size() - 1 );
+        }
+        long size = HEADER_SIZE + (long) capacity * Long.BYTES;
+        if ( chunks.isEmpty() || nextOffset + size > chunks.get( chunks.size() - 1 ).size() )
+        {
+            // Slots bigger than a chunk get a chunk of their own
+            chunks.add( allocator.allocate( max( CHUNK_SIZE, size ), false ) );
+            nextOffset = 0;
+        }
+        int chunkIndex = chunks.size() - 1;
+        long address = ((long) chunkIndex << 32) | nextOffset;
+        chunks.get( chunkIndex ).writeLong( nextOffset, capacity );
+        nextOffset += size;
+        return address;
+    }
+
+    private void freeSlot( long address )
+    {
+        int capacity = (int) chunk( address ).readLong( offset( address ) );
+        int sizeClass = Integer.numberOfTrailingZeros( capacity );
+        if ( freeSlots[sizeClass] == null )
+        {
+            freeSlots[sizeClass] = new LongArrayList();
+        }
+        freeSlots[sizeClass].add( address );
+    }
+
+    private Memory chunk( long address )
+    {
+        return chunks.get( (int) (address >>> 32) );
+    }
+
+    private static long offset( long address )
+    {
+        return address & 0xFFFF_FFFFL;
+    }
+
+    private static int addedCount( Memory chunk, long offset )
+    {
+        return (int) (chunk.readLong( offset + Long.BYTES ) >>> 32);
+    }
+
+    private static int removedCount( Memory chunk, long offset )
+    {
+        return (int) chunk.readLong( offset + Long.BYTES );
+    }
+
+    private static void writeCounts( Memory chunk, long offset, int added, int removed )
+    {
+        chunk.writeLong( offset + Long.BYTES, ((long) added << 32) | removed );
+    }
+
+    private static long readLabel( Memory chunk, long offset, int index )
+    {
+        return chunk.readLong( offset + HEADER_SIZE + (long) index * Long.BYTES );
+    }
+
+    private static void writeLabel( Memory chunk, long offset, int index, long labelId )
+    {
+        chunk.writeLong( offset + HEADER_SIZE + (long) index * Long.BYTES, labelId );
+    }
+
+    private static void moveLabel( Memory chunk, long offset, int from, int to )
+    {
+        if ( from != to )
+        {
+            writeLabel( chunk, offset, to, readLabel( chunk, offset, from ) );
+        }
+    }
+
+    /**
+     * @return index of the label among the labels from {@code from}, inclusive, to {@code to}, exclusive, or -1 if it's not there.
+     */
+    private static int indexOf( Memory chunk, long offset, int from, int to, long labelId )
+    {
+        for ( int i = from; i < to; i++ )
+        {
+            if ( readLabel( chunk, offset, i ) == labelId )
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void assertNotClosed()
+    {
+        checkState( !closed, "Container is closed" );
+    }
+
+    /**
+     * Reads the label changes of a node straight from its slot. Only {@link #getAdded()}, {@link #getRemoved()} and {@link #augment}
+     * need the labels as sets, which are then copied to the heap once and kept until the labels of any node change.
+     */
+    private class LabelChangesView implements LongDiffSets
+    {
+        private final long nodeId;
+        private MutableLongDiffSetsImpl copy;
+        private long copiedAt;
+
+        LabelChangesView( long nodeId )
+        {
+            this.nodeId = nodeId;
+        }
+
+        @Override
+        public boolean isAdded( long element )
+        {
+            long address = address();
+            if ( address == NO_SLOT )
+            {
+                return false;
+            }
+            Memory chunk = chunk( address );
+            long offset = offset( address );
+            return indexOf( chunk, offset, 0, addedCount( chunk, offset ), element ) != -1;
+        }
+
+        @Override
+        public boolean isRemoved( long element )
+        {
+            long address = address();
+            if ( address == NO_SLOT )
+            {
+                return false;
+            }
+            Memory chunk = chunk( address );
+            long offset = offset( address );
+            int added = addedCount( chunk, offset );
+            return indexOf( chunk, offset, added, added + removedCount( chunk, offset ), element ) != -1;
+        }
+
+        @Override
+        public LongSet getAdded()
+        {
+            return copy().getAdded();
+        }
+
+        @Override
+        public LongSet getRemoved()
+        {
+            return copy().getRemoved();
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            long address = address();
+            return address == NO_SLOT || chunk( address ).readLong( offset( address ) + Long.BYTES ) == 0;
+        }
+
+        @Override
+        public int delta()
+        {
+            long address = address();
+            if ( address == NO_SLOT )
+            {
+                return 0;
+            }
+            Memory chunk = chunk( address );
+            long offset = offset( address );
+            return addedCount( chunk, offset ) - removedCount( chunk, offset );
+        }
+
+        @Override
+        public LongIterator augment( LongIterator elements )
+        {
+            return copy().augment( elements );
+        }
+
+        @Override
+        public PrimitiveLongResourceIterator augment( PrimitiveLongResourceIterator elements )
+        {
+            return copy().augment( elements );
+        }
+
+        private long address()
+        {
+            assertNotClosed();
+            return records.getIfAbsent( nodeId, NO_SLOT );
+        }
+
+        private MutableLongDiffSetsImpl copy()
+        {
+            if ( copy == null || copiedAt != modifications )
+            {
+                LongHashSet added = new LongHashSet();
+                LongHashSet removed = new LongHashSet();
+                long address = address();
+                if ( address != NO_SLOT )
+                {
+                    Memory chunk = chunk( address );
+                    long offset = offset( address );
+                    int addedCount = addedCount( chunk, offset );
+                    int removedCount = removedCount( chunk, offset );
+                    for ( int i = 0; i < addedCount; i++ )
+                    {
+                        added.add( readLabel( chunk, offset, i ) );
+                    }
+                    for ( int i = addedCount; i < addedCount + removedCount; i++ )
+                    {
+                        removed.add( readLabel( chunk, offset, i ) );
+                    }
+                }
+                copy = new MutableLongDiffSetsImpl( added, removed, OnHeapCollectionsFactory.INSTANCE );
+                copiedAt = modifications;
+            }
+            return copy;
+        }
+    }
+}
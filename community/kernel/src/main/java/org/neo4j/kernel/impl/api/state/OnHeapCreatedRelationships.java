@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+import org.neo4j.storageengine.api.RelationshipVisitor;
+
+public class OnHeapCreatedRelationships implements CreatedRelationships
+{
+    private final MutableLongObjectMap<Relationship> relationships = new LongObjectHashMap<>();
+
+    @Override
+    public void put( long id, int type, long startNode, long endNode )
+    {
+        relationships.put( id, new Relationship( type, startNode, endNode ) );
+    }
+
+    @Override
+    public boolean contains( long id )
+    {
+        return relationships.containsKey( id );
+    }
+
+    @Override
+    public <EX extends Exception> boolean accept( long id, RelationshipVisitor<EX> visitor ) throws EX
+    {
+        Relationship relationship = relationships.get( id );
+        if ( relationship == null )
+        {
+            return false;
+        }
+        visitor.visit( id, relationship.type, relationship.startNode, relationship.endNode );
+        return true;
+    }
+
+    @Override
+    public void remove( long id )
+    {
+        relationships.remove( id );
+    }
+
+    @Override
+    public void close()
+    {
+        relationships.clear();
+    }
+
+    private static class Relationship
+    {
+        private final int type;
+        private final long startNode;
+        private final long endNode;
+
+        Relationship( int type, long startNode, long endNode )
+        {
+            this.type = type;
+            this.startNode = startNode;
+            this.endNode = endNode;
+        }
+    }
+}
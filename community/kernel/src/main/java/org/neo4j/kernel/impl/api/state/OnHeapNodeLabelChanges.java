@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+import org.neo4j.kernel.impl.util.collection.OnHeapCollectionsFactory;
+import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSets;
+import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSetsImpl;
+import org.neo4j.storageengine.api.txstate.LongDiffSets;
+
+public class OnHeapNodeLabelChanges implements NodeLabelChanges
+{
+    private final MutableLongObjectMap<MutableLongDiffSets> labels = new LongObjectHashMap<>();
+
+    @Override
+    public void add( long nodeId, long labelId )
+    {
+        diffSets( nodeId ).add( labelId );
+    }
+
+    @Override
+    public void remove( long nodeId, long labelId )
+    {
+        diffSets( nodeId ).remove( labelId );
+    }
+
+    @Override
+    public boolean contains( long nodeId )
+    {
+        return labels.containsKey( nodeId );
+    }
+
+    @Override
+    public LongDiffSets get( long nodeId )
+    {
+        LongDiffSets diffSets = labels.get( nodeId );
+        return diffSets == null ? LongDiffSets.EMPTY : diffSets;
+    }
+
+    @Override
+    public void clear( long nodeId )
+    {
+        labels.remove( nodeId );
+    }
+
+    @Override
+    public LongIterator nodes()
+    {
+        return labels.keysView().longIterator();
+    }
+
+    @Override
+    public void close()
+    {
+        labels.clear();
+    }
+
+    private MutableLongDiffSets diffSets( long nodeId )
+    {
+        return labels.getIfAbsentPut( nodeId, () -> new MutableLongDiffSetsImpl( OnHeapCollectionsFactory.INSTANCE ) );
+    }
+}
@@ -91,30 +91,20 @@ class RelationshipStateImpl extends EntityStateImpl implements RelationshipState
         }
     };
 
-    private long startNode = -1;
-    private long endNode = -1;
-    private int type = -1;
+    private final CreatedRelationships createdRelationships;
 
-    RelationshipStateImpl( long id, CollectionsFactory collectionsFactory )
+    /**
+     * @param createdRelationships the relationships created in the transaction, or {@code null} if none have been created.
+     */
+    RelationshipStateImpl( long id, CollectionsFactory collectionsFactory, CreatedRelationships createdRelationships )
     {
         super( id, collectionsFactory );
-    }
-
-    void setMetaData( long startNode, long endNode, int type )
-    {
-        this.startNode = startNode;
-        this.endNode = endNode;
-        this.type = type;
+        this.createdRelationships = createdRelationships;
     }
 
     @Override
     public <EX extends Exception> boolean accept( RelationshipVisitor<EX> visitor ) throws EX
     {
-        if ( type != -1 )
-        {
-            visitor.visit( getId(), type, startNode, endNode );
-            return true;
-        }
-        return false;
+        return createdRelationships != null && createdRelationships.accept( getId(), visitor );
     }
 }
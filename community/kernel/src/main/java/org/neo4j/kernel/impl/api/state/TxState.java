@@ -35,6 +35,7 @@ import javax.annotation.Nullable;
 
 import org.neo4j.exceptions.KernelException;
 import org.neo4j.internal.helpers.collection.Iterables;
+import org.neo4j.internal.helpers.collection.PrefetchingIterator;
 import org.neo4j.internal.schema.ConstraintDescriptor;
 import org.neo4j.internal.schema.IndexDescriptor;
 import org.neo4j.internal.schema.SchemaDescriptor;
@@ -81,6 +82,8 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     private MutableLongObjectMap<MutableLongDiffSets> labelStatesMap;
     private MutableLongObjectMap<NodeStateImpl> nodeStatesMap;
     private MutableLongObjectMap<RelationshipStateImpl> relationshipStatesMap;
+    private CreatedRelationships createdRelationships;
+    private NodeLabelChanges nodeLabelChanges;
 
     private MutableLongObjectMap<TokenState> createdLabelTokens;
     private MutableLongObjectMap<TokenState> createdPropertyKeyTokens;
@@ -204,7 +207,37 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public Iterable<NodeState> modifiedNodes()
     {
-        return nodeStatesMap == null ? Iterables.empty() : Iterables.cast( nodeStatesMap.values() );
+        Iterable<NodeState> nodeStates = nodeStatesMap == null ? Iterables.empty() : Iterables.cast( nodeStatesMap.values() );
+        if ( nodeLabelChanges == null )
+        {
+            return nodeStates;
+        }
+        Iterable<NodeState> labelOnlyNodeStates = this::labelOnlyNodeStates;
+        return Iterables.concat( nodeStates, labelOnlyNodeStates );
+    }
+
+    /**
+     * Nodes which only had their labels changed have no state of their own, see {@link NodeLabelChanges}.
+     */
+    private Iterator<NodeState> labelOnlyNodeStates()
+    {
+        LongIterator nodeIds = nodeLabelChanges.nodes();
+        return new PrefetchingIterator<>()
+        {
+            @Override
+            protected NodeState fetchNextOrNull()
+            {
+                while ( nodeIds.hasNext() )
+                {
+                    long nodeId = nodeIds.next();
+                    if ( nodeStatesMap == null || !nodeStatesMap.containsKey( nodeId ) )
+                    {
+                        return new NodeStateImpl( nodeId, collectionsFactory, TxState.this );
+                    }
+                }
+                return null;
+            }
+        };
     }
 
     @VisibleForTesting
@@ -230,12 +263,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public LongDiffSets nodeStateLabelDiffSets( long nodeId )
     {
-        return getNodeState( nodeId ).labelDiffSets();
-    }
-
-    private MutableLongDiffSets getOrCreateNodeStateLabelDiffSets( long nodeId )
-    {
-        return getOrCreateNodeState( nodeId ).getOrCreateLabelDiffSets();
+        return nodeLabelChanges == null ? LongDiffSets.EMPTY : nodeLabelChanges.get( nodeId );
     }
 
     @Override
@@ -273,13 +301,17 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     {
         nodes().remove( nodeId );
 
+        if ( nodeLabelChanges != null )
+        {
+            final LongDiffSets diff = nodeLabelChanges.get( nodeId );
+            diff.getAdded().each( label -> getOrCreateLabelStateNodeDiffSets( label ).remove( nodeId ) );
+            nodeLabelChanges.clear( nodeId );
+        }
         if ( nodeStatesMap != null )
         {
             NodeStateImpl nodeState = nodeStatesMap.remove( nodeId );
             if ( nodeState != null )
             {
-                final LongDiffSets diff = nodeState.labelDiffSets();
-                diff.getAdded().each( label -> getOrCreateLabelStateNodeDiffSets( label ).remove( nodeId ) );
                 nodeState.clearIndexDiffs( nodeId );
                 nodeState.clear();
             }
@@ -302,7 +334,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
             getOrCreateNodeState( endNodeId ).addRelationship( id, relationshipTypeId, RelationshipDirection.INCOMING );
         }
 
-        getOrCreateRelationshipState( id ).setMetaData( startNodeId, endNodeId, relationshipTypeId );
+        createdRelationships().put( id, relationshipTypeId, startNodeId, endNodeId );
 
         dataChanged();
     }
@@ -336,6 +368,10 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
                 removed.clear();
             }
         }
+        if ( createdRelationships != null )
+        {
+            createdRelationships.remove( id );
+        }
 
         dataChanged();
     }
@@ -400,7 +436,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     public void nodeDoAddLabel( long labelId, long nodeId )
     {
         getOrCreateLabelStateNodeDiffSets( labelId ).add( nodeId );
-        getOrCreateNodeStateLabelDiffSets( nodeId ).add( labelId );
+        nodeLabelChanges().add( nodeId, labelId );
         dataChanged();
     }
 
@@ -408,7 +444,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     public void nodeDoRemoveLabel( long labelId, long nodeId )
     {
         getOrCreateLabelStateNodeDiffSets( labelId ).remove( nodeId );
-        getOrCreateNodeStateLabelDiffSets( nodeId ).remove( labelId );
+        nodeLabelChanges().remove( nodeId, labelId );
         dataChanged();
     }
 
@@ -448,23 +484,33 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public NodeState getNodeState( long id )
     {
-        if ( nodeStatesMap == null )
+        final NodeState nodeState = nodeStatesMap == null ? null : nodeStatesMap.get( id );
+        if ( nodeState != null )
         {
-            return NodeStateImpl.EMPTY;
+            return nodeState;
         }
-        final NodeState nodeState = nodeStatesMap.get( id );
-        return nodeState == null ? NodeStateImpl.EMPTY : nodeState;
+        if ( nodeLabelChanges != null && nodeLabelChanges.contains( id ) )
+        {
+            // Nodes which only had their labels changed have no state of their own
+            return new NodeStateImpl( id, collectionsFactory, this );
+        }
+        return NodeStateImpl.EMPTY;
     }
 
     @Override
     public RelationshipState getRelationshipState( long id )
     {
-        if ( relationshipStatesMap == null )
+        final RelationshipStateImpl relationshipState = relationshipStatesMap == null ? null : relationshipStatesMap.get( id );
+        if ( relationshipState != null )
         {
-            return RelationshipStateImpl.EMPTY;
+            return relationshipState;
         }
-        final RelationshipStateImpl relationshipState = relationshipStatesMap.get( id );
-        return relationshipState == null ? RelationshipStateImpl.EMPTY : relationshipState;
+        if ( createdRelationships != null && createdRelationships.contains( id ) )
+        {
+            // Created relationships without property changes have no state of their own
+            return new RelationshipStateImpl( id, collectionsFactory, createdRelationships );
+        }
+        return RelationshipStateImpl.EMPTY;
     }
 
     @Override
@@ -585,7 +631,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         {
             nodeStatesMap = new LongObjectHashMap<>();
         }
-        return nodeStatesMap.getIfAbsentPut( nodeId, () -> new NodeStateImpl( nodeId, collectionsFactory ) );
+        return nodeStatesMap.getIfAbsentPut( nodeId, () -> new NodeStateImpl( nodeId, collectionsFactory, this ) );
     }
 
     private RelationshipStateImpl getOrCreateRelationshipState( long relationshipId )
@@ -594,7 +640,26 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         {
             relationshipStatesMap = new LongObjectHashMap<>();
         }
-        return relationshipStatesMap.getIfAbsentPut( relationshipId, () -> new RelationshipStateImpl( relationshipId, collectionsFactory ) );
+        return relationshipStatesMap.getIfAbsentPut( relationshipId,
+                () -> new RelationshipStateImpl( relationshipId, collectionsFactory, createdRelationships ) );
+    }
+
+    private NodeLabelChanges nodeLabelChanges()
+    {
+        if ( nodeLabelChanges == null )
+        {
+            nodeLabelChanges = collectionsFactory.newNodeLabelChanges();
+        }
+        return nodeLabelChanges;
+    }
+
+    private CreatedRelationships createdRelationships()
+    {
+        if ( createdRelationships == null )
+        {
+            createdRelationships = collectionsFactory.newCreatedRelationships();
+        }
+        return createdRelationships;
     }
 
     @Override
@@ -788,7 +853,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public <EX extends Exception> boolean relationshipVisit( long relId, RelationshipVisitor<EX> visitor ) throws EX
     {
-        return getRelationshipState( relId ).accept( visitor );
+        return createdRelationships != null && createdRelationships.accept( relId, visitor );
     }
 
     @Override
@@ -36,6 +36,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import org.neo4j.index.internal.gbptree.BulkLoader;
 import org.neo4j.index.internal.gbptree.Seeker;
 import org.neo4j.index.internal.gbptree.Writer;
 import org.neo4j.internal.helpers.Exceptions;
@@ -82,6 +83,11 @@ import static org.neo4j.util.concurrent.Runnables.runAll;
 public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,VALUE extends NativeIndexValue> extends NativeIndexPopulator<KEY,VALUE>
 {
     public static final String BLOCK_SIZE_NAME = "blockSize";
+    /**
+     * How much of each tree node to fill when building the tree from the merged scan updates. Some space is left
+     * so that external updates, and updates after population, can be inserted without splitting right away.
+     */
+    private static final double BULK_LOAD_FILL_FACTOR = FeatureToggles.getDouble( BlockBasedIndexPopulator.class, "bulkLoadFillFactor", 0.9 );
 
     private final boolean archiveFailedIndex;
     /**
@@ -394,7 +400,7 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
     }
 
     private void writeScanUpdatesToTree( RecordingConflictDetector<KEY,VALUE> recordingConflictDetector, Allocator allocator, int bufferSize )
-            throws IOException, IndexEntryConflictException
+            throws IOException
     {
         try ( MergingBlockEntryReader<KEY,VALUE> allEntries = new MergingBlockEntryReader<>( layout ) )
         {
@@ -417,12 +423,31 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
                 }
             }
 
-            int asMuchAsPossibleToTheLeft = 1;
-            try ( Writer<KEY,VALUE> writer = tree.writer( asMuchAsPossibleToTheLeft ) )
+            // The merged scan updates are sorted so the tree can be built bottom-up, instead of inserting them one by one
+            try ( BulkLoader<KEY,VALUE> bulkLoader = tree.bulkLoader( BULK_LOAD_FILL_FACTOR ) )
             {
+                KEY previousKey = layout.newKey();
+                boolean hasPreviousKey = false;
                 while ( allEntries.next() && !cancellation.cancelled() )
                 {
-                    writeToTree( writer, recordingConflictDetector, allEntries.key(), allEntries.value() );
+                    KEY key = allEntries.key();
+                    if ( hasPreviousKey )
+                    {
+                        if ( layout.compare( previousKey, key ) == 0 )
+                        {
+                            // Same value and same entity, this entry is already in the tree
+                            numberOfAppliedScanUpdates++;
+                            continue;
+                        }
+                        if ( descriptor.isUnique() && layout.compareValue( previousKey, key ) == 0 )
+                        {
+                            // Same value, but different entity. Both entries go into the tree and uniqueness is verified later on
+                            recordingConflictDetector.doReportConflict( previousKey.getEntityId(), key.getEntityId(), key );
+                        }
+                    }
+                    bulkLoader.add( key, allEntries.value() );
+                    layout.copyKey( key, previousKey );
+                    hasPreviousKey = true;
                     numberOfAppliedScanUpdates++;
                 }
             }
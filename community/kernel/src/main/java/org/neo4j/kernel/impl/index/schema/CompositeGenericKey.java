@@ -148,6 +148,19 @@ class CompositeGenericKey extends GenericKey
         return true;
     }
 
+    @Override
+    void putInternalPrefixOrdered( PageCursor cursor )
+    {
+        // Slots are written as is, only the entity id is moved to the end
+        putInternal( cursor );
+    }
+
+    @Override
+    boolean getInternalPrefixOrdered( PageCursor cursor, int keySize )
+    {
+        return getInternal( cursor, keySize );
+    }
+
     @Override
     void initializeToDummyValueInternal()
     {
@@ -24,11 +24,14 @@ import java.io.UncheckedIOException;
 
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Seeker;
+import org.neo4j.internal.kernel.api.IndexHistogram;
 import org.neo4j.kernel.api.index.IndexSample;
 import org.neo4j.kernel.api.index.NonUniqueIndexSampler;
+import org.neo4j.values.storable.Value;
 
 /**
  * {@link NonUniqueIndexSampler} which performs a full scans of a {@link GBPTree} in {@link #result()}.
+ * For single property indexes the scan also collects an {@link IndexHistogram} of the indexed values.
  *
  * @param <KEY> type of keys in tree.
  * @param <VALUE> type of values in tree.
@@ -59,6 +62,8 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
         {
             long sampledValues = 0;
             long uniqueValues = 0;
+            IndexHistogram.Builder histogram = null;
+            Value prevValue = null;
 
             // Get the first one so that prev gets initialized
             if ( seek.next() )
@@ -66,6 +71,14 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
                 prev = layout.copyKey( seek.key(), prev );
                 sampledValues++;
                 uniqueValues++;
+                Value[] values = prev.asValues();
+                if ( values.length == 1 )
+                {
+                    // Value distribution is only tracked for single property indexes
+                    histogram = IndexHistogram.builder();
+                    prevValue = values[0];
+                    histogram.include( prevValue );
+                }
 
                 // Then do the rest
                 while ( seek.next() )
@@ -74,12 +87,20 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
                     {
                         uniqueValues++;
                         layout.copyKey( seek.key(), prev );
+                        if ( histogram != null )
+                        {
+                            prevValue = prev.asValues()[0];
+                        }
                     }
                     // else this is a duplicate of the previous one
                     sampledValues++;
+                    if ( histogram != null )
+                    {
+                        histogram.include( prevValue );
+                    }
                 }
             }
-            return new IndexSample( sampledValues, uniqueValues, sampledValues );
+            return new IndexSample( sampledValues, uniqueValues, sampledValues, histogram == null ? null : histogram.build() );
         }
         catch ( IOException e )
         {
@@ -397,6 +397,72 @@ public class GenericKey extends NativeIndexKey<GenericKey>
         return setType( Types.BY_ID[typeId] ).readValue( cursor, size - TYPE_ID_SIZE, this );
     }
 
+    /**
+     * Like {@link #put(PageCursor)}, but writes the key such that keys sharing a common byte prefix are close in sort order,
+     * for tree nodes compressing key prefixes. Entity id goes last and text bytes go before their length.
+     */
+    void putPrefixOrdered( PageCursor cursor )
+    {
+        putInternalPrefixOrdered( cursor );
+        cursor.putLong( getEntityId() );
+    }
+
+    void putInternalPrefixOrdered( PageCursor cursor )
+    {
+        if ( type == Types.TEXT )
+        {
+            cursor.putByte( type.typeId );
+            TextType.putPrefixOrdered( cursor, byteArray, long0, long2 );
+        }
+        else
+        {
+            putInternal( cursor );
+        }
+    }
+
+    /**
+     * Reads a key written by {@link #putPrefixOrdered(PageCursor)}.
+     */
+    boolean getPrefixOrdered( PageCursor cursor, int size )
+    {
+        if ( size < ENTITY_ID_SIZE )
+        {
+            initializeToDummyValue();
+            cursor.setCursorException( format( "Failed to read " + getClass().getSimpleName() +
+                    " due to keySize < ENTITY_ID_SIZE, more precisely %d", size ) );
+            return false;
+        }
+
+        if ( !getInternalPrefixOrdered( cursor, size - ENTITY_ID_SIZE ) )
+        {
+            initializeToDummyValue();
+            return false;
+        }
+        initialize( cursor.getLong() );
+        return true;
+    }
+
+    boolean getInternalPrefixOrdered( PageCursor cursor, int size )
+    {
+        if ( size <= TYPE_ID_SIZE )
+        {
+            setCursorException( cursor, "slot size less than TYPE_ID_SIZE, " + size );
+            return false;
+        }
+
+        int offset = cursor.getOffset();
+        byte typeId = cursor.getByte();
+        if ( typeId != Types.TEXT.typeId )
+        {
+            cursor.setOffset( offset );
+            return getInternal( cursor, size );
+        }
+
+        inclusion = NEUTRAL;
+        setType( Types.TEXT );
+        return TextType.readPrefixOrdered( cursor, size - TYPE_ID_SIZE, this );
+    }
+
     /* <write> (write to field state from Value or cursor) */
 
     private <T extends Type> T setType( T type )
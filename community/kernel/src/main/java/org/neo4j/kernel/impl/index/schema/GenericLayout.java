@@ -22,9 +22,16 @@ package org.neo4j.kernel.impl.index.schema;
 import org.neo4j.index.internal.gbptree.Layout;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettings;
+import org.neo4j.util.FeatureToggles;
 
 class GenericLayout extends IndexLayout<GenericKey,NativeIndexValue>
 {
+    /**
+     * Whether or not new indexes store key prefixes shared within tree nodes only once, which shrinks text indexes
+     * with long common prefixes. Existing indexes keep the format they were created with.
+     */
+    private static final boolean COMPRESS_KEY_PREFIXES = FeatureToggles.flag( GenericLayout.class, "compressKeyPrefixes", false );
+
     private final int numberOfSlots;
     private final IndexSpecificSpaceFillingCurveSettings spatialSettings;
 
@@ -70,6 +77,24 @@ class GenericLayout extends IndexLayout<GenericKey,NativeIndexValue>
         into.get( cursor, keySize );
     }
 
+    @Override
+    public boolean compressKeyPrefixes()
+    {
+        return COMPRESS_KEY_PREFIXES;
+    }
+
+    @Override
+    public void writeKeyForPrefixCompression( PageCursor cursor, GenericKey key )
+    {
+        key.putPrefixOrdered( cursor );
+    }
+
+    @Override
+    public void readKeyForPrefixCompression( PageCursor cursor, GenericKey into, int keySize )
+    {
+        into.getPrefixOrdered( cursor, keySize );
+    }
+
     @Override
     public void minimalSplitter( GenericKey left, GenericKey right, GenericKey into )
     {
@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.index.schema;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.neo4j.gis.spatial.index.curves.SpaceFillingCurve;
@@ -33,6 +34,7 @@ import org.neo4j.internal.schema.IndexDescriptor;
 import org.neo4j.internal.schema.IndexOrder;
 import org.neo4j.kernel.api.index.IndexProgressor;
 import org.neo4j.kernel.api.index.BridgingIndexProgressor;
+import org.neo4j.kernel.api.index.PartitionedValueSeek;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettings;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
 import org.neo4j.values.storable.Value;
@@ -119,6 +121,17 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
         }
     }
 
+    @Override
+    public PartitionedValueSeek valueSeek( int desiredNumberOfPartitions, IndexQuery... query )
+    {
+        if ( getGeometryRangePredicateIfAny( query ) != null )
+        {
+            // A geometry range is already split into many sub-range seeks, see query(), there's no single range to partition
+            throw new UnsupportedOperationException( "Partitioned seek is not supported for geometry range queries: " + Arrays.toString( query ) );
+        }
+        return super.valueSeek( desiredNumberOfPartitions, query );
+    }
+
     /**
      * Initializes {@code treeKeyFrom} and {@code treeKeyTo} from the {@link IndexQuery query}.
      * Geometry range queries makes an otherwise straight-forward key construction complex in that a geometry range internally is performed
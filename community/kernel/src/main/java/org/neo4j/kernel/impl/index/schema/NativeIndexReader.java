@@ -19,8 +19,12 @@
  */
 package org.neo4j.kernel.impl.index.schema;
 
+import org.apache.commons.lang3.tuple.Pair;
+
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Seeker;
@@ -33,6 +37,7 @@ import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
 import org.neo4j.kernel.api.index.IndexProgressor;
 import org.neo4j.kernel.api.index.IndexReader;
 import org.neo4j.kernel.api.index.IndexSampler;
+import org.neo4j.kernel.api.index.PartitionedValueSeek;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.values.storable.Value;
 
@@ -161,6 +166,30 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         }
     }
 
+    @Override
+    public PartitionedValueSeek valueSeek( int desiredNumberOfPartitions, IndexQuery... query )
+    {
+        validateQuery( IndexOrder.NONE, query );
+
+        KEY treeKeyFrom = layout.newKey();
+        KEY treeKeyTo = layout.newKey();
+        initializeFromToKeys( treeKeyFrom, treeKeyTo );
+
+        boolean needFilter = initializeRangeForQuery( treeKeyFrom, treeKeyTo, query );
+        if ( isEmptyRange( treeKeyFrom, treeKeyTo ) )
+        {
+            return PartitionedValueSeek.EMPTY;
+        }
+        try
+        {
+            return new NativePartitionedValueSeek( tree.partitionedSeekRanges( treeKeyFrom, treeKeyTo, desiredNumberOfPartitions ), query, needFilter );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
     abstract void validateQuery( IndexOrder indexOrder, IndexQuery[] predicates );
 
     /**
@@ -209,4 +238,49 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
     {
         return layout.compare( treeKeyFrom, treeKeyTo ) > 0;
     }
+
+    /**
+     * Partitions of a seek, as split up by {@link GBPTree#partitionedSeekRanges(Object, Object, int)}. The seeker of a partition is
+     * only opened when the partition is reserved, and is closed by the progressor it's handed to, so partitions that are never
+     * reserved hold no resources.
+     */
+    private class NativePartitionedValueSeek implements PartitionedValueSeek
+    {
+        private final List<Pair<KEY,KEY>> partitions;
+        private final IndexQuery[] query;
+        private final boolean needFilter;
+        private final AtomicInteger nextPartition = new AtomicInteger();
+
+        NativePartitionedValueSeek( List<Pair<KEY,KEY>> partitions, IndexQuery[] query, boolean needFilter )
+        {
+            this.partitions = partitions;
+            this.query = query;
+            this.needFilter = needFilter;
+        }
+
+        @Override
+        public int getNumberOfPartitions()
+        {
+            return partitions.size();
+        }
+
+        @Override
+        public IndexProgressor reservePartition( IndexProgressor.EntityValueClient client )
+        {
+            int partition = nextPartition.getAndIncrement();
+            if ( partition >= partitions.size() )
+            {
+                return IndexProgressor.EMPTY;
+            }
+            Pair<KEY,KEY> range = partitions.get( partition );
+            try
+            {
+                return getIndexProgressor( tree.seek( range.getLeft(), range.getRight() ), client, needFilter, query );
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+    }
 }
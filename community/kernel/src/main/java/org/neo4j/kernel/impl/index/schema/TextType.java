@@ -191,6 +191,41 @@ class TextType extends Type
         return true;
     }
 
+    /**
+     * Like {@link #put(PageCursor, byte[], long, long)}, but with the length after the bytes so that texts sharing a prefix also share
+     * a byte prefix when written.
+     */
+    static void putPrefixOrdered( PageCursor cursor, byte[] byteArray, long long0, long long2 )
+    {
+        short length = toNonNegativeShortExact( long0 );
+        cursor.putBytes( byteArray, 0, length );
+        cursor.putShort( isCharValueType( long2 ) ? (short) (length | CHAR_TYPE_LENGTH_MARKER) : length );
+    }
+
+    /**
+     * Reads text written by {@link #putPrefixOrdered(PageCursor, byte[], long, long)}, where size is the exact size of the written text.
+     */
+    static boolean readPrefixOrdered( PageCursor cursor, int size, GenericKey into )
+    {
+        int bytesLength = size - SIZE_STRING_LENGTH;
+        if ( bytesLength < 0 || bytesLength > Short.MAX_VALUE )
+        {
+            setCursorException( cursor, "non-valid bytes length for text, " + bytesLength );
+            return false;
+        }
+
+        setBytesLength( into, bytesLength );
+        cursor.getBytes( into.byteArray, 0, bytesLength );
+        short rawLength = cursor.getShort();
+        if ( (short) (rawLength & ~CHAR_TYPE_LENGTH_MARKER) != bytesLength )
+        {
+            setCursorException( cursor, "non-matching bytes length for text, " + bytesLength + " and " + rawLength );
+            return false;
+        }
+        setCharType( into, (rawLength & CHAR_TYPE_LENGTH_MARKER) != 0 );
+        return true;
+    }
+
     static void setCharType( GenericKey into, boolean isCharType )
     {
         if ( isCharType )
@@ -32,6 +32,8 @@ import org.neo4j.kernel.api.index.IndexProgressor;
 import org.neo4j.kernel.api.index.IndexReader;
 import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.kernel.api.index.BridgingIndexProgressor;
+import org.neo4j.kernel.api.index.CompositePartitionedValueSeek;
+import org.neo4j.kernel.api.index.PartitionedValueSeek;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.values.storable.Value;
 
@@ -106,6 +108,18 @@ class FusionIndexReader extends FusionIndexBase<IndexReader> implements IndexRea
         }
     }
 
+    @Override
+    public PartitionedValueSeek valueSeek( int desiredNumberOfPartitions, IndexQuery... predicates ) throws IndexNotApplicableKernelException
+    {
+        IndexSlot slot = slotSelector.selectSlot( predicates, IndexQuery::valueCategory );
+        if ( slot != null )
+        {
+            return instanceSelector.select( slot ).valueSeek( desiredNumberOfPartitions, predicates );
+        }
+        // Every part of the index holds entries for the query, so the partitions of all of them together make up the seek
+        return new CompositePartitionedValueSeek( instanceSelector.transform( reader -> reader.valueSeek( desiredNumberOfPartitions, predicates ) ) );
+    }
+
     private static final class InnerException extends RuntimeException
     {
         private InnerException( IndexNotApplicableKernelException e )
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.neo4j.internal.helpers.Exceptions;
+import org.neo4j.internal.kernel.api.IndexHistogram;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.index.IndexSample;
 import org.neo4j.kernel.api.index.IndexSampler;
@@ -71,13 +72,15 @@ public class FusionIndexSampler implements IndexSampler
         long indexSize = 0;
         long uniqueValues = 0;
         long sampleSize = 0;
+        List<IndexHistogram> histograms = new ArrayList<>();
         for ( IndexSample sample : samples )
         {
             indexSize += sample.indexSize();
             uniqueValues += sample.uniqueValues();
             sampleSize += sample.sampleSize();
+            histograms.add( sample.histogram() );
         }
-        return new IndexSample( indexSize, uniqueValues, sampleSize );
+        return new IndexSample( indexSize, uniqueValues, sampleSize, IndexHistogram.combine( histograms ) );
     }
 
     @Override
@@ -31,7 +31,12 @@ public class CommunityLockManger implements Locks
 
     public CommunityLockManger( Config config, Clock clock )
     {
-        manager = new LockManagerImpl( new RagManager(), config, clock );
+        this( new LockManagerImpl( new RagManager(), config, clock ) );
+    }
+
+    public CommunityLockManger( LockManagerImpl manager )
+    {
+        this.manager = manager;
     }
 
     @Override
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.community;
+
+import java.time.Clock;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.internal.helpers.collection.Visitor;
+
+/**
+ * A {@link LockManagerImpl} that keeps its {@link RWLock locks} in a {@link ConcurrentHashMap} instead of a single
+ * map guarded by one monitor. Looking up, creating and retiring the lock of a resource only contends with other
+ * transactions that hash to the same bin of the table, while waiting for a lock still happens on the wait queue of
+ * the individual {@link RWLock}.
+ * <p/>
+ * Creating and marking a lock, and checking whether it is unused and removing it, are each done as a single atomic
+ * operation on the mapping of that resource, which gives the same guarantees as the global monitor of the
+ * {@link LockManagerImpl} without serializing unrelated resources.
+ */
+public class ConcurrentLockManagerImpl extends LockManagerImpl
+{
+    public ConcurrentLockManagerImpl( RagManager ragManager, Config config, Clock clock )
+    {
+        super( new ConcurrentHashMap<>(), ragManager, config, clock );
+    }
+
+    @Override
+    public void accept( Visitor<RWLock,RuntimeException> visitor )
+    {
+        // weakly consistent, concurrently acquired or released locks may or may not be visited
+        for ( RWLock lock : resourceLockMap.values() )
+        {
+            if ( visitor.visit( lock ) )
+            {
+                break;
+            }
+        }
+    }
+
+    @Override
+    RWLock getRWLockForAcquiring( LockResource resource, Object tx )
+    {
+        assertValidArguments( resource, tx );
+        return resourceLockMap.compute( resource, ( key, lock ) ->
+        {
+            RWLock result = lock == null ? createLock( resource ) : lock;
+            result.mark();
+            return result;
+        } );
+    }
+
+    @Override
+    RWLock getRWLockForReleasing( Object resource, Object tx, int readCountPrerequisite, int writeCountPrerequisite, boolean strict )
+    {
+        assertValidArguments( resource, tx );
+        RWLock[] found = new RWLock[1];
+        resourceLockMap.computeIfPresent( resource, ( key, lock ) ->
+        {
+            found[0] = lock;
+            return isUnusedAfterRelease( lock, readCountPrerequisite, writeCountPrerequisite ) ? null : lock;
+        } );
+        if ( found[0] == null && strict )
+        {
+            throw new LockNotFoundException( "Lock not found for: " + resource + " tx:" + tx );
+        }
+        return found[0];
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.community;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+
+/**
+ * A {@link RagManager} where the resource allocation graph is kept in concurrent maps rather than behind a single
+ * monitor, so that transactions taking, releasing and waiting for locks on different resources don't serialize on
+ * the deadlock detector.
+ * <p/>
+ * The holders of a resource are only ever changed by the {@link RWLock} of that resource while holding its monitor,
+ * so every resource is effectively its own shard of the graph. Detection is incremental: when a transaction is about
+ * to wait it first publishes its wait edge and then traverses the graph from the resource it wants. A deadlock can
+ * only be formed by adding a wait edge, and of two transactions that concurrently add the edges closing a cycle at
+ * least one will see the edge of the other, so no deadlock goes undetected. Both may see each other, in which case
+ * both are told that they would deadlock, in the same way that a waiting transaction can be picked as the victim of
+ * any other deadlock.
+ * <p/>
+ * The rest of the graph may change while it is being traversed, which can make the check report a cycle that was
+ * just broken up by a release. Such a transaction fails the same way as it would have if it had come slightly earlier.
+ */
+public class ConcurrentRagManager extends RagManager
+{
+    private final ConcurrentMap<Object,Set<Object>> resourceMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object,Object> waitingTxMap = new ConcurrentHashMap<>();
+
+    @Override
+    void lockAcquired( Object resource, Object tx )
+    {
+        resourceMap.compute( resource, ( key, lockingTxs ) ->
+        {
+            Set<Object> result = lockingTxs == null ? ConcurrentHashMap.newKeySet() : lockingTxs;
+            boolean added = result.add( tx );
+            assert added;
+            return result;
+        } );
+    }
+
+    @Override
+    void lockReleased( Object resource, Object tx )
+    {
+        // [0] resource found, [1] tx found among its holders
+        boolean[] found = new boolean[2];
+        resourceMap.computeIfPresent( resource, ( key, lockingTxs ) ->
+        {
+            found[0] = true;
+            found[1] = lockingTxs.remove( tx );
+            return lockingTxs.isEmpty() ? null : lockingTxs;
+        } );
+        if ( !found[0] )
+        {
+            throw new LockException( resource + " not found in resource map" );
+        }
+        if ( !found[1] )
+        {
+            throw new LockException( tx + "not found in locking tx list" );
+        }
+    }
+
+    @Override
+    void stopWaitOn( Object resource, Object tx )
+    {
+        if ( waitingTxMap.remove( tx ) == null )
+        {
+            throw new LockException( tx + " not waiting on " + resource );
+        }
+    }
+
+    @Override
+    void checkWaitOn( Object resource, Object tx ) throws DeadlockDetectedException
+    {
+        Set<Object> lockingTxs = resourceMap.get( resource );
+        if ( lockingTxs == null )
+        {
+            throw new LockException( "Illegal resource[" + resource + "], not found in map" );
+        }
+
+        // publish the wait edge before looking for a cycle, see class documentation
+        if ( waitingTxMap.putIfAbsent( tx, resource ) != null )
+        {
+            throw new LockException( tx + " already waiting for resource" );
+        }
+
+        try
+        {
+            Set<Object> checkedTransactions = new HashSet<>();
+            Deque<Object> graphStack = new ArrayDeque<>();
+            // has resource,transaction interleaved
+            graphStack.push( resource );
+            for ( Object lockingTx : lockingTxs )
+            {
+                // t1 -> r1 -> t1 is fine for read/write locks, see RagManager#checkWaitOn
+                if ( lockingTx.equals( tx ) )
+                {
+                    continue;
+                }
+                graphStack.push( lockingTx );
+                checkWaitOnRecursive( lockingTx, tx, checkedTransactions, graphStack );
+                graphStack.pop();
+            }
+        }
+        catch ( DeadlockDetectedException e )
+        {
+            waitingTxMap.remove( tx, resource );
+            throw e;
+        }
+    }
+
+    private void checkWaitOnRecursive( Object lockingTx, Object waitingTx, Set<Object> checkedTransactions, Deque<Object> graphStack )
+            throws DeadlockDetectedException
+    {
+        if ( lockingTx.equals( waitingTx ) )
+        {
+            throw deadlock( waitingTx, graphStack );
+        }
+        if ( !checkedTransactions.add( lockingTx ) )
+        {
+            return;
+        }
+        Object resource = waitingTxMap.get( lockingTx );
+        if ( resource != null )
+        {
+            // the resource may have been released by all its holders since lockingTx started waiting for it,
+            // in which case lockingTx is about to wake up and there is nothing to follow
+            Set<Object> lockingTxs = resourceMap.get( resource );
+            if ( lockingTxs != null )
+            {
+                graphStack.push( resource );
+                for ( Object nextLockingTx : lockingTxs )
+                {
+                    graphStack.push( nextLockingTx );
+                    checkWaitOnRecursive( nextLockingTx, waitingTx, checkedTransactions, graphStack );
+                    graphStack.pop();
+                }
+                graphStack.pop();
+            }
+        }
+    }
+
+    private static DeadlockDetectedException deadlock( Object waitingTx, Deque<Object> graphStack )
+    {
+        StringBuilder circle = null;
+        Object resource;
+        do
+        {
+            Object lockingTx = graphStack.pop();
+            resource = graphStack.pop();
+            if ( circle == null )
+            {
+                circle = new StringBuilder();
+                circle.append( lockingTx ).append( " <-[:HELD_BY]- " ).append( resource );
+            }
+            else
+            {
+                circle.append( " <-[:WAITING_FOR]- " ).append( lockingTx ).append( " <-[:HELD_BY]- " ).append( resource );
+            }
+        }
+        while ( !graphStack.isEmpty() );
+        return new DeadlockDetectedException( waitingTx + " can't wait on resource " + resource + " since => " + circle );
+    }
+}
@@ -33,7 +33,7 @@ import org.neo4j.util.VisibleForTesting;
 
 public class LockManagerImpl
 {
-    private final Map<Object,RWLock> resourceLockMap = new HashMap<>();
+    final Map<Object,RWLock> resourceLockMap;
     private final RagManager ragManager;
     private final Clock clock;
 
@@ -45,6 +45,12 @@ public class LockManagerImpl
 
     public LockManagerImpl( RagManager ragManager, Config config, Clock clock )
     {
+        this( new HashMap<>(), ragManager, config, clock );
+    }
+
+    LockManagerImpl( Map<Object,RWLock> resourceLockMap, RagManager ragManager, Config config, Clock clock )
+    {
+        this.resourceLockMap = resourceLockMap;
         this.ragManager = ragManager;
         this.clock = clock;
         this.lockAcquisitionTimeoutMillis = config.get( GraphDatabaseSettings.lock_acquisition_timeout ).toMillis();
@@ -125,7 +131,7 @@ public class LockManagerImpl
         }
     }
 
-    private void assertValidArguments( Object resource, Object tx )
+    void assertValidArguments( Object resource, Object tx )
     {
         if ( resource == null || tx == null )
         {
@@ -133,7 +139,7 @@ public class LockManagerImpl
         }
     }
 
-    private RWLock getRWLockForAcquiring( LockResource resource, Object tx )
+    RWLock getRWLockForAcquiring( LockResource resource, Object tx )
     {
         assertValidArguments( resource, tx );
         synchronized ( resourceLockMap )
@@ -150,8 +156,8 @@ public class LockManagerImpl
         return new RWLock( resource, ragManager, clock, lockAcquisitionTimeoutMillis );
     }
 
-    private RWLock getRWLockForReleasing( Object resource, Object tx, int readCountPrerequisite,
-                                          int writeCountPrerequisite, boolean strict )
+    RWLock getRWLockForReleasing( Object resource, Object tx, int readCountPrerequisite,
+                                  int writeCountPrerequisite, boolean strict )
     {
         assertValidArguments( resource, tx );
         synchronized ( resourceLockMap )
@@ -169,17 +175,22 @@ public class LockManagerImpl
             // we need to get info from a couple of synchronized methods
             // to make it info consistent we need to synchronized lock to make sure it will not change between
             // various calls
-            //noinspection SynchronizationOnLocalVariableOrMethodParameter
-            synchronized ( lock )
+            if ( isUnusedAfterRelease( lock, readCountPrerequisite, writeCountPrerequisite ) )
             {
-                if ( !lock.isMarked() && lock.getReadCount() == readCountPrerequisite &&
-                     lock.getWriteCount() == writeCountPrerequisite &&
-                     lock.getWaitingThreadsCount() == 0 )
-                {
-                    resourceLockMap.remove( resource );
-                }
+                resourceLockMap.remove( resource );
             }
             return lock;
         }
     }
+
+    static boolean isUnusedAfterRelease( RWLock lock, int readCountPrerequisite, int writeCountPrerequisite )
+    {
+        //noinspection SynchronizationOnLocalVariableOrMethodParameter
+        synchronized ( lock )
+        {
+            return !lock.isMarked() && lock.getReadCount() == readCountPrerequisite &&
+                   lock.getWriteCount() == writeCountPrerequisite &&
+                   lock.getWaitingThreadsCount() == 0;
+        }
+    }
 }
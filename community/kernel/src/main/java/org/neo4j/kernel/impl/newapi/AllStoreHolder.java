@@ -32,6 +32,9 @@ import org.neo4j.exceptions.KernelException;
 import org.neo4j.internal.helpers.collection.Iterators;
 import org.neo4j.internal.index.label.LabelScanReader;
 import org.neo4j.internal.index.label.LabelScanStore;
+import org.neo4j.internal.index.label.RelationshipTypeScanReader;
+import org.neo4j.internal.index.label.RelationshipTypeScanStore;
+import org.neo4j.internal.kernel.api.IndexHistogram;
 import org.neo4j.internal.kernel.api.IndexReadSession;
 import org.neo4j.internal.kernel.api.InternalIndexState;
 import org.neo4j.internal.kernel.api.NodeCursor;
@@ -89,10 +92,12 @@ public class AllStoreHolder extends Read
     private final SchemaState schemaState;
     private final IndexingService indexingService;
     private final LabelScanStore labelScanStore;
+    private final RelationshipTypeScanStore relationshipTypeScanStore;
     private final IndexStatisticsStore indexStatisticsStore;
     private final Dependencies databaseDependencies;
     private final IndexReaderCache indexReaderCache;
     private LabelScanReader labelScanReader;
+    private RelationshipTypeScanReader relationshipTypeScanReader;
 
     public AllStoreHolder( StorageReader storageReader,
                            KernelTransactionImplementation ktx,
@@ -101,6 +106,7 @@ public class AllStoreHolder extends Read
                            SchemaState schemaState,
                            IndexingService indexingService,
                            LabelScanStore labelScanStore,
+                           RelationshipTypeScanStore relationshipTypeScanStore,
                            IndexStatisticsStore indexStatisticsStore,
                            Dependencies databaseDependencies )
     {
@@ -111,6 +117,7 @@ public class AllStoreHolder extends Read
         this.indexReaderCache = new IndexReaderCache( indexingService );
         this.indexingService = indexingService;
         this.labelScanStore = labelScanStore;
+        this.relationshipTypeScanStore = relationshipTypeScanStore;
         this.indexStatisticsStore = indexStatisticsStore;
         this.databaseDependencies = databaseDependencies;
     }
@@ -409,6 +416,16 @@ public class AllStoreHolder extends Read
         return labelScanReader;
     }
 
+    @Override
+    RelationshipTypeScanReader relationshipTypeScanReader()
+    {
+        if ( relationshipTypeScanReader == null )
+        {
+            relationshipTypeScanReader = relationshipTypeScanStore.newReader();
+        }
+        return relationshipTypeScanReader;
+    }
+
     @Override
     public Iterator<IndexDescriptor> indexForSchemaNonTransactional( SchemaDescriptor schema )
     {
@@ -754,6 +771,14 @@ public class AllStoreHolder extends Read
         return indexStatisticsStore.indexSample( index.getId(), target );
     }
 
+    @Override
+    public IndexHistogram indexHistogram( IndexDescriptor index ) throws IndexNotFoundKernelException
+    {
+        ktx.assertOpen();
+        assertValidIndex( index );
+        return indexStatisticsStore.indexHistogram( index.getId() );
+    }
+
     private boolean checkIndexState( IndexDescriptor index, DiffSets<IndexDescriptor> diffSet )
             throws IndexNotFoundKernelException
     {
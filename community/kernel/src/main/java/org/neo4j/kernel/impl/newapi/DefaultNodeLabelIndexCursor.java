@@ -23,6 +23,7 @@ import org.eclipse.collections.api.iterator.LongIterator;
 import org.eclipse.collections.api.set.primitive.LongSet;
 import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
 
+import org.neo4j.collection.PrimitiveLongCollections;
 import org.neo4j.internal.kernel.api.LabelSet;
 import org.neo4j.internal.kernel.api.NodeCursor;
 import org.neo4j.internal.kernel.api.NodeLabelIndexCursor;
@@ -65,6 +66,24 @@ class DefaultNodeLabelIndexCursor extends IndexCursor<IndexProgressor>
         }
     }
 
+    public void scan( IndexProgressor progressor, int[] labels, boolean intersection )
+    {
+        super.initialize( progressor );
+        if ( read.hasTxStateWithChanges() )
+        {
+            MultiLabelTxStateChanges changes = MultiLabelTxStateChanges.changes( read, labels, intersection );
+            added = PrimitiveLongCollections.iterator( changes.added );
+            removed = changes.removed;
+        }
+        if ( tracer != null )
+        {
+            for ( int label : labels )
+            {
+                tracer.onLabelScan( label );
+            }
+        }
+    }
+
     public void scan( IndexProgressor progressor, LongIterator added, LongSet removed )
     {
         super.initialize( progressor );
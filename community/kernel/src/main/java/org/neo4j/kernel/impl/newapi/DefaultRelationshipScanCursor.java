@@ -23,6 +23,7 @@ import org.eclipse.collections.api.iterator.LongIterator;
 import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
 import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 
+import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.internal.kernel.api.NodeCursor;
 import org.neo4j.internal.kernel.api.RelationshipScanCursor;
 import org.neo4j.internal.kernel.api.security.AccessMode;
@@ -36,6 +37,8 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
     private int type;
     private long single;
     private LongIterator addedRelationships;
+    // Set when scanning relationships of a type using the relationship type scan store, otherwise null
+    private PrimitiveLongResourceIterator typeIndexRelationships;
     private CursorPool<DefaultRelationshipScanCursor> pool;
 
     DefaultRelationshipScanCursor( CursorPool<DefaultRelationshipScanCursor> pool, StorageRelationshipScanCursor storeCursor )
@@ -51,6 +54,36 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         this.single = NO_ID;
         init( read );
         this.addedRelationships = ImmutableEmptyLongIterator.INSTANCE;
+        closeTypeIndexRelationships();
+    }
+
+    /**
+     * Scans relationships of the given type, visiting only the relationships found by the relationship type scan store
+     * instead of the whole relationship store.
+     */
+    void scan( int type, PrimitiveLongResourceIterator relationshipsWithType, Read read )
+    {
+        this.type = type;
+        this.single = NO_ID;
+        init( read );
+        this.addedRelationships = ImmutableEmptyLongIterator.INSTANCE;
+        closeTypeIndexRelationships();
+        this.typeIndexRelationships = relationshipsWithType;
+    }
+
+    boolean scanBatch( Read read, int type, PrimitiveLongResourceIterator relationshipsWithType, LongIterator addedRelationships,
+            boolean hasChanges )
+    {
+        this.read = read;
+        this.single = NO_ID;
+        this.type = type;
+        this.currentAddedInTx = NO_ID;
+        this.addedRelationships = addedRelationships;
+        this.hasChanges = hasChanges;
+        this.checkHasChanges = false;
+        closeTypeIndexRelationships();
+        this.typeIndexRelationships = relationshipsWithType;
+        return addedRelationships.hasNext() || relationshipsWithType.hasNext();
     }
 
     boolean scanBatch( Read read, AllRelationshipsScan scan, int sizeHint, LongIterator addedRelationships, boolean hasChanges )
@@ -62,6 +95,7 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         this.addedRelationships = addedRelationships;
         this.hasChanges = hasChanges;
         this.checkHasChanges = false;
+        closeTypeIndexRelationships();
         boolean scanBatch = storeCursor.scanBatch( scan, sizeHint );
         return addedRelationships.hasNext() || scanBatch;
     }
@@ -73,6 +107,7 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         this.single = reference;
         init( read );
         this.addedRelationships = ImmutableEmptyLongIterator.INSTANCE;
+        closeTypeIndexRelationships();
     }
 
     @Override
@@ -83,37 +118,59 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
 
         if ( hasChanges )
         {
-            if ( addedRelationships.hasNext() )
+            while ( addedRelationships.hasNext() )
             {
                 read.txState().relationshipVisit( addedRelationships.next(), relationshipTxStateDataVisitor );
-                if ( tracer != null )
+                if ( type == -1 || type() == type )
                 {
-                    tracer.onRelationship( relationshipReference() );
+                    if ( tracer != null )
+                    {
+                        tracer.onRelationship( relationshipReference() );
+                    }
+                    return true;
                 }
-                return true;
             }
-            else
+            currentAddedInTx = NO_ID;
+        }
+
+        if ( typeIndexRelationships != null )
+        {
+            while ( typeIndexRelationships.hasNext() )
             {
-                currentAddedInTx = NO_ID;
+                storeCursor.single( typeIndexRelationships.next() );
+                if ( storeCursor.next() && storeCursor.type() == type && acceptStoreRelationship( hasChanges ) )
+                {
+                    return true;
+                }
             }
+            return false;
         }
 
         while ( storeCursor.next() )
         {
-            boolean skip = hasChanges && read.txState().relationshipIsDeletedInThisTx( storeCursor.entityReference() );
-            AccessMode mode = read.ktx.securityContext().mode();
-            if ( !skip && mode.allowsTraverseRelType( storeCursor.type() ) && allowedToSeeEndNode( mode ) )
+            if ( acceptStoreRelationship( hasChanges ) )
             {
-                if ( tracer != null )
-                {
-                    tracer.onRelationship( relationshipReference() );
-                }
                 return true;
             }
         }
         return false;
     }
 
+    private boolean acceptStoreRelationship( boolean hasChanges )
+    {
+        boolean skip = hasChanges && read.txState().relationshipIsDeletedInThisTx( storeCursor.entityReference() );
+        AccessMode mode = read.ktx.securityContext().mode();
+        if ( !skip && mode.allowsTraverseRelType( storeCursor.type() ) && allowedToSeeEndNode( mode ) )
+        {
+            if ( tracer != null )
+            {
+                tracer.onRelationship( relationshipReference() );
+            }
+            return true;
+        }
+        return false;
+    }
+
     protected boolean allowedToSeeEndNode( AccessMode mode )
     {
         if ( mode.allowsTraverseAllLabels() )
@@ -135,6 +192,7 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         if ( !isClosed() )
         {
             read = null;
+            closeTypeIndexRelationships();
             storeCursor.close();
 
             pool.accept( this );
@@ -178,6 +236,15 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         }
     }
 
+    private void closeTypeIndexRelationships()
+    {
+        if ( typeIndexRelationships != null )
+        {
+            typeIndexRelationships.close();
+            typeIndexRelationships = null;
+        }
+    }
+
     private boolean isSingle()
     {
         return single != NO_ID;
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import org.neo4j.kernel.api.txstate.TransactionState;
+import org.neo4j.storageengine.api.txstate.LongDiffSets;
+
+/**
+ * Transaction state view of a scan over several labels at once. The label index only knows about committed labels, so every node
+ * which had any of the scanned labels added or removed in this transaction, as well as every deleted node, is hidden from the index
+ * results. The touched nodes which still exist are then re-checked against their labels as seen by this transaction and handed out
+ * in front of the index results if they match.
+ */
+final class MultiLabelTxStateChanges
+{
+    final long[] added;
+    final LongSet removed;
+
+    private MultiLabelTxStateChanges( long[] added, LongSet removed )
+    {
+        this.added = added;
+        this.removed = removed;
+    }
+
+    static MultiLabelTxStateChanges changes( Read read, int[] labels, boolean intersection )
+    {
+        TransactionState txState = read.txState();
+        LongSet deleted = txState.addedAndRemovedNodes().getRemoved();
+        MutableLongSet touched = new LongHashSet();
+        for ( int label : labels )
+        {
+            LongDiffSets changes = txState.nodesWithLabelChanged( label );
+            touched.addAll( changes.getAdded() );
+            touched.addAll( changes.getRemoved() );
+        }
+
+        MutableLongList added = new LongArrayList();
+        try ( FullAccessNodeCursor node = read.cursors.allocateFullAccessNodeCursor() )
+        {
+            touched.forEach( reference ->
+            {
+                if ( !deleted.contains( reference ) && matches( read, node, reference, labels, intersection ) )
+                {
+                    added.add( reference );
+                }
+            } );
+        }
+
+        MutableLongSet removed = LongHashSet.newSet( touched );
+        removed.addAll( deleted );
+        return new MultiLabelTxStateChanges( added.toSortedArray(), removed );
+    }
+
+    private static boolean matches( Read read, FullAccessNodeCursor node, long reference, int[] labels, boolean intersection )
+    {
+        node.single( reference, read );
+        if ( !node.next() )
+        {
+            return false;
+        }
+        for ( int label : labels )
+        {
+            if ( node.hasLabel( label ) != intersection )
+            {
+                return !intersection;
+            }
+        }
+        return intersection;
+    }
+}
@@ -35,6 +35,11 @@ class NodeLabelIndexCursorScan extends BaseCursorScan<NodeLabelIndexCursor,Label
 {
     private final LongSet removed;
     private final int label;
+    /**
+     * Labels of a multi-label scan, or {@code null} when scanning a single {@link #label}.
+     */
+    private final int[] labels;
+    private final boolean intersection;
 
     NodeLabelIndexCursorScan( Read read, int label, LabelScan labelScan )
     {
@@ -50,6 +55,23 @@ class NodeLabelIndexCursorScan extends BaseCursorScan<NodeLabelIndexCursor,Label
             this.removed = LongSets.immutable.empty();
         }
         this.label = label;
+        this.labels = null;
+        this.intersection = false;
+    }
+
+    NodeLabelIndexCursorScan( Read read, int[] labels, boolean intersection, LabelScan labelScan )
+    {
+        this( read, labels, intersection, labelScan,
+                read.hasTxStateWithChanges() ? MultiLabelTxStateChanges.changes( read, labels, intersection ) : null );
+    }
+
+    private NodeLabelIndexCursorScan( Read read, int[] labels, boolean intersection, LabelScan labelScan, MultiLabelTxStateChanges changes )
+    {
+        super( labelScan, read, () -> changes.added );
+        this.removed = changes != null ? changes.removed : LongSets.immutable.empty();
+        this.label = labels[0];
+        this.labels = labels.clone();
+        this.intersection = intersection;
     }
 
     @Override
@@ -60,7 +82,12 @@ class NodeLabelIndexCursorScan extends BaseCursorScan<NodeLabelIndexCursor,Label
         IndexProgressor indexProgressor;
 
         AccessMode mode = read.ktx.securityContext().mode();
-        if ( mode.allowsTraverseAllNodesWithLabel( label ) )
+        if ( labels != null )
+        {
+            IndexProgressor.NodeLabelClient client = read.multiLabelClient( indexCursor.nodeLabelClient(), labels, intersection );
+            indexProgressor = client == null ? IndexProgressor.EMPTY : storageScan.initializeBatch( client, sizeHint );
+        }
+        else if ( mode.allowsTraverseAllNodesWithLabel( label ) )
         {
             // all nodes will be allowed
             indexProgressor = storageScan.initializeBatch( indexCursor.nodeLabelClient(), sizeHint );
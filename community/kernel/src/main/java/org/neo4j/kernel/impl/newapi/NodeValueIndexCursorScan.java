@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.internal.kernel.api.NodeValueIndexCursor;
+import org.neo4j.internal.kernel.api.Scan;
+import org.neo4j.internal.schema.IndexOrder;
+import org.neo4j.kernel.api.index.IndexProgressor;
+import org.neo4j.kernel.api.index.PartitionedValueSeek;
+
+import static org.neo4j.util.Preconditions.requirePositive;
+
+/**
+ * {@link Scan} over a {@link PartitionedValueSeek} of a node index, where each reserved batch is one partition of the seek. Partitions
+ * are decided by the index up front, so the size hint given when reserving a batch is not used for anything but validation.
+ */
+class NodeValueIndexCursorScan implements Scan<NodeValueIndexCursor>
+{
+    private final Read read;
+    private final DefaultIndexReadSession session;
+    private final PartitionedValueSeek seek;
+    private final IndexQuery[] query;
+    private final boolean needsValues;
+
+    NodeValueIndexCursorScan( Read read, DefaultIndexReadSession session, PartitionedValueSeek seek, IndexQuery[] query, boolean needsValues )
+    {
+        this.read = read;
+        this.session = session;
+        this.seek = seek;
+        this.query = query;
+        this.needsValues = needsValues;
+    }
+
+    @Override
+    public boolean reserveBatch( NodeValueIndexCursor cursor, int sizeHint )
+    {
+        requirePositive( sizeHint );
+
+        DefaultNodeValueIndexCursor cursorImpl = (DefaultNodeValueIndexCursor) cursor;
+        cursorImpl.setRead( read );
+        IndexProgressor.EntityValueClient client = read.nodeIndexClient( cursorImpl, session, query );
+        IndexProgressor progressor = seek.reservePartition( client );
+        if ( progressor == IndexProgressor.EMPTY )
+        {
+            return false;
+        }
+        client.initialize( session.reference, progressor, query, IndexOrder.NONE, needsValues, false );
+        return true;
+    }
+}
@@ -23,6 +23,7 @@ import org.neo4j.common.EntityType;
 import org.neo4j.exceptions.KernelException;
 import org.neo4j.internal.index.label.LabelScan;
 import org.neo4j.internal.index.label.LabelScanReader;
+import org.neo4j.internal.index.label.RelationshipTypeScanReader;
 import org.neo4j.internal.kernel.api.AutoCloseablePlus;
 import org.neo4j.internal.kernel.api.CursorFactory;
 import org.neo4j.internal.kernel.api.DefaultCloseListenable;
@@ -52,6 +53,7 @@ import org.neo4j.kernel.api.AssertOpen;
 import org.neo4j.kernel.api.exceptions.schema.IndexBrokenKernelException;
 import org.neo4j.kernel.api.index.IndexProgressor;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.PartitionedValueSeek;
 import org.neo4j.kernel.api.txstate.TransactionState;
 import org.neo4j.kernel.api.txstate.TxStateHolder;
 import org.neo4j.kernel.impl.api.KernelTransactionImplementation;
@@ -70,6 +72,7 @@ import static org.neo4j.kernel.impl.newapi.RelationshipReferenceEncoding.clearEn
 import static org.neo4j.storageengine.api.RelationshipDirection.INCOMING;
 import static org.neo4j.storageengine.api.RelationshipDirection.LOOP;
 import static org.neo4j.storageengine.api.RelationshipDirection.OUTGOING;
+import static org.neo4j.util.Preconditions.requirePositive;
 import static org.neo4j.values.storable.ValueGroup.GEOMETRY;
 import static org.neo4j.values.storable.ValueGroup.NUMBER;
 
@@ -305,6 +308,51 @@ abstract class Read implements TxStateHolder,
         indexSession.reader.query( this, withSecurity, indexOrder, needsValues, IndexQuery.exists( firstProperty ) );
     }
 
+    @Override
+    public final Scan<NodeValueIndexCursor> nodeIndexScan( IndexReadSession index, int desiredNumberOfPartitions, boolean needsValues )
+            throws KernelException
+    {
+        ktx.assertOpen();
+        DefaultIndexReadSession indexSession = (DefaultIndexReadSession) index;
+        int firstProperty = indexSession.reference.schema().getPropertyIds()[0];
+        return partitionedNodeIndexSeek( indexSession, desiredNumberOfPartitions, needsValues, new IndexQuery[]{IndexQuery.exists( firstProperty )} );
+    }
+
+    @Override
+    public final Scan<NodeValueIndexCursor> nodeIndexSeek( IndexReadSession index, int desiredNumberOfPartitions, boolean needsValues,
+            IndexQuery... query ) throws KernelException
+    {
+        ktx.assertOpen();
+        return partitionedNodeIndexSeek( (DefaultIndexReadSession) index, desiredNumberOfPartitions, needsValues, query );
+    }
+
+    private Scan<NodeValueIndexCursor> partitionedNodeIndexSeek( DefaultIndexReadSession indexSession, int desiredNumberOfPartitions,
+            boolean needsValues, IndexQuery[] query ) throws KernelException
+    {
+        requirePositive( desiredNumberOfPartitions );
+        if ( indexSession.reference.schema().entityType() != EntityType.NODE )
+        {
+            throw new IndexNotApplicableKernelException( "Node index seek can only be performed on node indexes: " + indexSession );
+        }
+        if ( hasTxStateWithChanges() )
+        {
+            // The partitions are made from what is in the index, there's no sensible way of spreading transaction state changes over them
+            throw new IllegalStateException( "Transaction contains changes; partitioned index seeks are only supported in read-only transactions" );
+        }
+        PartitionedValueSeek seek = indexSession.reader.valueSeek( desiredNumberOfPartitions, query );
+        return new NodeValueIndexCursorScan( this, indexSession, seek, query, needsValues );
+    }
+
+    /**
+     * @return the client to feed the index results of a partitioned seek to, wrapping the cursor with the same security and value precision
+     * filtering as for a regular {@link #nodeIndexSeek(IndexReadSession, NodeValueIndexCursor, IndexOrder, boolean, IndexQuery...) seek}.
+     */
+    IndexProgressor.EntityValueClient nodeIndexClient( DefaultNodeValueIndexCursor cursor, DefaultIndexReadSession indexSession, IndexQuery[] query )
+    {
+        IndexProgressor.EntityValueClient withSecurity = injectSecurity( cursor, ktx.securityContext().mode(), indexSession.reference );
+        return injectFullValuePrecision( withSecurity, query, indexSession.reader );
+    }
+
     @Override
     public final void nodeLabelScan( int label, NodeLabelIndexCursor cursor )
     {
@@ -335,6 +383,67 @@ abstract class Read implements TxStateHolder,
         indexCursor.scan( indexProgressor, label );
     }
 
+    @Override
+    public final void nodeLabelIntersectionScan( int[] labels, NodeLabelIndexCursor cursor )
+    {
+        ktx.assertOpen();
+        multiLabelScan( labels, cursor, true );
+    }
+
+    @Override
+    public final void nodeLabelUnionScan( int[] labels, NodeLabelIndexCursor cursor )
+    {
+        ktx.assertOpen();
+        multiLabelScan( labels, cursor, false );
+    }
+
+    private void multiLabelScan( int[] labels, NodeLabelIndexCursor cursor, boolean intersection )
+    {
+        DefaultNodeLabelIndexCursor indexCursor = (DefaultNodeLabelIndexCursor) cursor;
+        indexCursor.setRead( this );
+        IndexProgressor.NodeLabelClient client = multiLabelClient( indexCursor.nodeLabelClient(), labels, intersection );
+        IndexProgressor indexProgressor;
+        if ( client == null )
+        {
+            indexProgressor = IndexProgressor.EMPTY;
+        }
+        else
+        {
+            LabelScanReader reader = labelScanReader();
+            LabelScan labelScan = intersection ? reader.nodeLabelIntersectionScan( labels ) : reader.nodeLabelUnionScan( labels );
+            indexProgressor = labelScan.initialize( client );
+        }
+        indexCursor.scan( indexProgressor, labels, intersection );
+    }
+
+    /**
+     * Picks the client for a scan over several labels given the current access mode.
+     *
+     * @return the client to hand to the label scan, or {@code null} if no node of the scan can be allowed.
+     */
+    IndexProgressor.NodeLabelClient multiLabelClient( IndexProgressor.NodeLabelClient inner, int[] labels, boolean intersection )
+    {
+        AccessMode accessMode = ktx.securityContext().mode();
+        boolean allowsAll = true;
+        boolean disallowsAll = true;
+        for ( int label : labels )
+        {
+            boolean disallowed = accessMode.disallowsTraverseLabel( label );
+            if ( intersection && disallowed )
+            {
+                // every node of an intersection has this label
+                return null;
+            }
+            disallowsAll &= disallowed;
+            allowsAll &= accessMode.allowsTraverseAllNodesWithLabel( label );
+        }
+        if ( disallowsAll )
+        {
+            return null;
+        }
+        return allowsAll ? inner : filteringNodeLabelClient( inner, accessMode );
+    }
+
     IndexProgressor.NodeLabelClient filteringNodeLabelClient( IndexProgressor.NodeLabelClient inner, AccessMode accessMode )
     {
         return new FilteringNodeLabelClient( inner, accessMode );
@@ -403,6 +512,20 @@ abstract class Read implements TxStateHolder,
         return new NodeLabelIndexCursorScan( this, label, labelScanReader().nodeLabelScan( label ) );
     }
 
+    @Override
+    public final Scan<NodeLabelIndexCursor> nodeLabelIntersectionScan( int... labels )
+    {
+        ktx.assertOpen();
+        return new NodeLabelIndexCursorScan( this, labels, true, labelScanReader().nodeLabelIntersectionScan( labels ) );
+    }
+
+    @Override
+    public final Scan<NodeLabelIndexCursor> nodeLabelUnionScan( int... labels )
+    {
+        ktx.assertOpen();
+        return new NodeLabelIndexCursorScan( this, labels, false, labelScanReader().nodeLabelUnionScan( labels ) );
+    }
+
     @Override
     public final void allNodesScan( NodeCursor cursor )
     {
@@ -449,7 +572,14 @@ abstract class Read implements TxStateHolder,
     public final void relationshipTypeScan( int type, RelationshipScanCursor cursor )
     {
         ktx.assertOpen();
-        ((DefaultRelationshipScanCursor) cursor).scan( type, this );
+        ((DefaultRelationshipScanCursor) cursor).scan( type, relationshipTypeScanReader().relationshipsWithType( type ), this );
+    }
+
+    @Override
+    public final Scan<RelationshipScanCursor> relationshipTypeScan( int type )
+    {
+        ktx.assertOpen();
+        return new RelationshipTypeIndexCursorScan( this, type, relationshipTypeScanReader().relationshipTypeScan( type ) );
     }
 
     @Override
@@ -531,6 +661,8 @@ abstract class Read implements TxStateHolder,
 
     abstract LabelScanReader labelScanReader();
 
+    abstract RelationshipTypeScanReader relationshipTypeScanReader();
+
     @Override
     public TransactionState txState()
     {
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.eclipse.collections.api.iterator.LongIterator;
+
+import org.neo4j.collection.PrimitiveLongResourceIterator;
+import org.neo4j.internal.index.label.RelationshipTypeScan;
+import org.neo4j.internal.kernel.api.RelationshipScanCursor;
+
+import static org.neo4j.collection.PrimitiveLongResourceCollections.emptyIterator;
+
+/**
+ * Parallel scan over the relationships of a type, handing out batches of the relationship type scan store.
+ * Relationships added in the transaction are handed out in batches as well and filtered on type by the cursor.
+ */
+final class RelationshipTypeIndexCursorScan extends BaseCursorScan<RelationshipScanCursor,RelationshipTypeScan>
+{
+    private final int type;
+
+    RelationshipTypeIndexCursorScan( Read read, int type, RelationshipTypeScan relationshipTypeScan )
+    {
+        super( relationshipTypeScan, read, () -> read.txState().addedAndRemovedRelationships().getAdded().toArray() );
+        this.type = type;
+    }
+
+    @Override
+    boolean scanStore( RelationshipScanCursor cursor, int sizeHint, LongIterator addedItems )
+    {
+        PrimitiveLongResourceIterator relationshipsWithType = storageScan.initializeBatch( sizeHint );
+        if ( relationshipsWithType == emptyIterator() && !addedItems.hasNext() )
+        {
+            return false;
+        }
+        ((DefaultRelationshipScanCursor) cursor).scanBatch( read, type, relationshipsWithType, addedItems, hasChanges );
+        return true;
+    }
+}
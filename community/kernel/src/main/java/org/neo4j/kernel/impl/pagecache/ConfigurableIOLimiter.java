@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.Flushable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ObjLongConsumer;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.pagecache.IOLimiter;
+
+import static org.neo4j.configuration.GraphDatabaseSettings.check_point_iops_limit;
+
+/**
+ * An {@link IOLimiter} that limits the rate of IO to what is configured by
+ * {@link org.neo4j.configuration.GraphDatabaseSettings#check_point_iops_limit}.
+ * <p>
+ * Time is divided into quantums of {@value #QUANTUM_MILLIS} milliseconds, and each quantum has a budget of IOs that
+ * corresponds to the configured IOPS. When a flush has spent the budget of a quantum, it is paused until the quantum
+ * has passed. The number of IOs done in the current quantum, and the time at which the quantum started, are encoded
+ * in the stamp that is passed between calls, so the same limiter can be used by any number of concurrent flushes.
+ * <p>
+ * The limit is dynamic, and follows changes to the setting. While limiting, the limiter will also back off while
+ * {@link #beginForegroundIO() foreground IO}, such as transaction commits waiting for the log to be forced, is in
+ * progress, so that checkpoints do not compete with commits for the storage device. A flush only backs off for as long
+ * as it is ahead of the configured rate, so backing off moves checkpoint IO out of the way of commits without ever
+ * slowing the checkpoint down below the configured IOPS, no matter how much foreground IO there is.
+ * <p>
+ * The total number of pauses and the total time spent paused are exposed through {@link #throttleCount()} and
+ * {@link #throttleTimeMillis()}.
+ */
+public class ConfigurableIOLimiter implements IOLimiter
+{
+    private static final int NO_LIMIT = 0;
+    private static final int QUANTUM_MILLIS = 100;
+    private static final int TIME_BITS = 32;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    private static final int QUANTUMS_PER_SECOND = (int) (TimeUnit.SECONDS.toMillis( 1 ) / QUANTUM_MILLIS);
+    private static final long QUANTUM_NANOS = TimeUnit.MILLISECONDS.toNanos( QUANTUM_MILLIS );
+    private static final long BACK_OFF_STEP_NANOS = TimeUnit.MILLISECONDS.toNanos( 1 );
+
+    private final ObjLongConsumer<Object> pauseNanos;
+    private final AtomicInteger disabledCount = new AtomicInteger();
+    private final AtomicInteger foregroundIOCount = new AtomicInteger();
+    private final LongAdder throttleCount = new LongAdder();
+    private final LongAdder throttleNanos = new LongAdder();
+    private volatile int iops;
+
+    public ConfigurableIOLimiter( Config config )
+    {
+        this( config, LockSupport::parkNanos );
+    }
+
+    ConfigurableIOLimiter( Config config, ObjLongConsumer<Object> pauseNanos )
+    {
+        this.pauseNanos = pauseNanos;
+        updateConfiguration( config.get( check_point_iops_limit ) );
+        config.addListener( check_point_iops_limit, ( before, after ) -> updateConfiguration( after ) );
+    }
+
+    private void updateConfiguration( Integer iopsLimit )
+    {
+        iops = iopsLimit == null || iopsLimit <= 0 ? NO_LIMIT : iopsLimit;
+    }
+
+    // The stamp is in two 32-bit parts:
+    // The high bits are the number of IOs performed since the last pause.
+    // The low bits are the 32-bit timestamp in milliseconds (~25 day range) since the last pause.
+    // We keep summing up the IOs until either a quantum elapses, or we've exhausted the IOs we're allowed in
+    // this quantum. If we've exhausted our IOs, we pause for the rest of the quantum.
+    // We don't make use of the Flushable at this point, because IOs from fsyncs have a high priority, so they
+    // might jump the IO queue and cause delays for transaction log IOs. Further, fsync on some file systems also
+    // flush the entire IO queue, which can cause delays on IO rate limited cloud machines.
+    // We need the Flushable to be implemented in terms of sync_file_range before we can make use of it.
+    @Override
+    public long maybeLimitIO( long previousStamp, int recentlyCompletedIOs, Flushable flushable )
+    {
+        int limit = iops;
+        if ( limit == NO_LIMIT || disabledCount.get() > 0 )
+        {
+            return INITIAL_STAMP;
+        }
+
+        long ioCapacityPerQuantum = Math.max( 1, limit / QUANTUMS_PER_SECOND );
+        long now = currentTimeMillis() & TIME_MASK;
+        long then = previousStamp == INITIAL_STAMP ? now : previousStamp & TIME_MASK;
+        long ioSum = (previousStamp >>> TIME_BITS) + recentlyCompletedIOs;
+        if ( foregroundIOCount.get() > 0 )
+        {
+            // The flush may back off for as long as it would take to do the IOs it has done so far at the configured rate.
+            long paceNanos = ioSum * QUANTUM_NANOS / ioCapacityPerQuantum;
+            long elapsedNanos = TimeUnit.MILLISECONDS.toNanos( (now - then) & TIME_MASK );
+            if ( paceNanos > elapsedNanos && backOffForForegroundIO( paceNanos - elapsedNanos ) )
+            {
+                now = currentTimeMillis() & TIME_MASK;
+            }
+        }
+        if ( ioSum >= ioCapacityPerQuantum )
+        {
+            // A single call can report more IOs than a quantum allows, for instance after a large vectored write,
+            // in which case we pause for all of the quantums that those IOs used up.
+            long quantumsUsed = ioSum / ioCapacityPerQuantum;
+            long millisLeft = quantumsUsed * QUANTUM_MILLIS - ((now - then) & TIME_MASK);
+            if ( millisLeft > 0 )
+            {
+                pause( TimeUnit.MILLISECONDS.toNanos( millisLeft ) );
+            }
+            return stamp( ioSum % ioCapacityPerQuantum, currentTimeMillis() );
+        }
+        return stamp( ioSum, then );
+    }
+
+    private static long stamp( long ioSum, long millis )
+    {
+        return (ioSum << TIME_BITS) | (millis & TIME_MASK);
+    }
+
+    private boolean backOffForForegroundIO( long maxBackOffNanos )
+    {
+        long start = System.nanoTime();
+        long deadline = start + maxBackOffNanos;
+        long now = start;
+        while ( foregroundIOCount.get() > 0 && now < deadline && disabledCount.get() == 0 )
+        {
+            pauseNanos.accept( this, Math.min( BACK_OFF_STEP_NANOS, deadline - now ) );
+            now = System.nanoTime();
+        }
+        if ( now == start )
+        {
+            return false;
+        }
+        throttleCount.increment();
+        throttleNanos.add( now - start );
+        return true;
+    }
+
+    private void pause( long nanos )
+    {
+        long start = System.nanoTime();
+        pauseNanos.accept( this, nanos );
+        throttleCount.increment();
+        throttleNanos.add( System.nanoTime() - start );
+    }
+
+    private static long currentTimeMillis()
+    {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void disableLimit()
+    {
+        disabledCount.incrementAndGet();
+    }
+
+    @Override
+    public void enableLimit()
+    {
+        disabledCount.decrementAndGet();
+    }
+
+    @Override
+    public void beginForegroundIO()
+    {
+        foregroundIOCount.incrementAndGet();
+    }
+
+    @Override
+    public void endForegroundIO()
+    {
+        foregroundIOCount.decrementAndGet();
+    }
+
+    @Override
+    public boolean isLimited()
+    {
+        return iops != NO_LIMIT && disabledCount.get() == 0;
+    }
+
+    /**
+     * @return the number of times IO has been paused, either to stay within the configured IOPS, or to back off for
+     * foreground IO.
+     */
+    public long throttleCount()
+    {
+        return throttleCount.sum();
+    }
+
+    /**
+     * @return the total time, in milliseconds, that IO has been paused.
+     */
+    public long throttleTimeMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis( throttleNanos.sum() );
+    }
+
+    @Override
+    public String toString()
+    {
+        int limit = iops;
+        return "ConfigurableIOLimiter{" + (limit == NO_LIMIT ? "unlimited" : "iops=" + limit) + ", disabledCount=" + disabledCount.get() + '}';
+    }
+}
@@ -24,9 +24,11 @@ import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.os.OsBeanUtil;
+import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
@@ -37,6 +39,9 @@ import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.service.Services;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_eviction_policy;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_file_statistics;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_flush_target_dirty_ratio;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_swapper;
 import static org.neo4j.configuration.SettingValueParsers.BYTES;
@@ -52,6 +57,7 @@ public class ConfiguringPageCacheFactory
     private PageCache pageCache;
     private final PageCursorTracerSupplier pageCursorTracerSupplier;
     private final JobScheduler scheduler;
+    private final IOLimiter backgroundFlushLimiter;
 
     /**
      * Construct configuring page cache factory
@@ -67,6 +73,25 @@ public class ConfiguringPageCacheFactory
     public ConfiguringPageCacheFactory( FileSystemAbstraction fs, Config config, PageCacheTracer pageCacheTracer,
             PageCursorTracerSupplier pageCursorTracerSupplier, Log log,
             VersionContextSupplier versionContextSupplier, JobScheduler scheduler )
+    {
+        this( fs, config, pageCacheTracer, pageCursorTracerSupplier, log, versionContextSupplier, scheduler, IOLimiter.UNLIMITED );
+    }
+
+    /**
+     * Construct configuring page cache factory
+     * @param fs fileSystem file system that page cache will be based on
+     * @param config page swapper configuration
+     * @param pageCacheTracer global page cache tracer
+     * @param pageCursorTracerSupplier supplier of thread local (transaction local) page cursor tracer that will provide
+     * thread local page cache statistics
+     * @param log page cache factory log
+     * @param versionContextSupplier cursor context factory
+     * @param scheduler job scheduler to execute page cache jobs
+     * @param backgroundFlushLimiter limiter of the background flushing of dirty pages
+     */
+    public ConfiguringPageCacheFactory( FileSystemAbstraction fs, Config config, PageCacheTracer pageCacheTracer,
+            PageCursorTracerSupplier pageCursorTracerSupplier, Log log,
+            VersionContextSupplier versionContextSupplier, JobScheduler scheduler, IOLimiter backgroundFlushLimiter )
     {
         this.fs = fs;
         this.versionContextSupplier = versionContextSupplier;
@@ -75,6 +100,7 @@ public class ConfiguringPageCacheFactory
         this.log = log;
         this.pageCursorTracerSupplier = pageCursorTracerSupplier;
         this.scheduler = scheduler;
+        this.backgroundFlushLimiter = backgroundFlushLimiter;
     }
 
     public synchronized PageCache getOrCreatePageCache()
@@ -90,8 +116,17 @@ public class ConfiguringPageCacheFactory
     protected PageCache createPageCache()
     {
         MemoryAllocator memoryAllocator = buildMemoryAllocator( config );
-        return new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, pageCursorTracerSupplier,
-                versionContextSupplier, scheduler );
+        EvictionPolicy evictionPolicy = EvictionPolicy.valueOf( config.get( pagecache_eviction_policy ).name() );
+        MuninnPageCache pageCache = new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, pageCursorTracerSupplier,
+                versionContextSupplier, scheduler, evictionPolicy );
+        pageCache.setBackgroundFlushLimiter( backgroundFlushLimiter );
+        pageCache.setBackgroundFlushFailureHandler(
+                e -> log.error( "Failed to write dirty pages in the background. They are left for the next checkpoint to flush.", e ) );
+        pageCache.setTargetDirtyRatio( config.get( pagecache_flush_target_dirty_ratio ) );
+        config.addListener( pagecache_flush_target_dirty_ratio, ( before, after ) -> pageCache.setTargetDirtyRatio( after ) );
+        pageCacheTracer.fileStatisticsEnabled( config.get( pagecache_file_statistics ) );
+        config.addListener( pagecache_file_statistics, ( before, after ) -> pageCacheTracer.fileStatisticsEnabled( after ) );
+        return pageCache;
     }
 
     private MemoryAllocator buildMemoryAllocator( Config config )
@@ -165,7 +200,8 @@ public class ConfiguringPageCacheFactory
         long maxVmUsageMb = ByteUnit.Byte.toMebiBytes( Runtime.getRuntime().maxMemory() );
         String msg = "Physical mem: " + totalPhysicalMemMb + " MiB," +
                      " Heap size: " + maxVmUsageMb + " MiB," +
-                     " Page cache: " + pageCacheMemory + ".";
+                     " Page cache: " + pageCacheMemory + "," +
+                     " Eviction policy: " + config.get( pagecache_eviction_policy ) + ".";
 
         log.info( msg );
     }
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_enabled;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_profiling_enabled;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch_whitelist;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_profiling_interval;
+import static org.neo4j.configuration.GraphDatabaseSettings.read_only;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * Warms up the page cache of a database after a restart, to shorten the time it takes to reach a steady state hit ratio.
+ * <p>
+ * While the database is running, a profile of which pages are in memory is periodically written for every file mapped
+ * by the database. The profile is a compressed bitmap with a bit per file page, and is stored in the {@value #PROFILE_DIRECTORY}
+ * directory of the database. When the database starts up again, the profiled pages are loaded back in, in the background,
+ * with a job per file, using {@link PagedFile#touch(long, int)} which lets the page cache read ranges of pages in bulk.
+ * <p>
+ * Alternatively, if {@link org.neo4j.configuration.GraphDatabaseSettings#pagecache_warmup_prefetch} is enabled, the
+ * files matching {@link org.neo4j.configuration.GraphDatabaseSettings#pagecache_warmup_prefetch_whitelist} are loaded
+ * in their entirety, and profiles are ignored.
+ * <p>
+ * No profiles are written when the database is {@link org.neo4j.configuration.GraphDatabaseSettings#read_only read only}, or
+ * when {@link org.neo4j.configuration.GraphDatabaseSettings#pagecache_warmup_profiling_enabled} is disabled. Warmup then
+ * follows whatever profiles are already there.
+ * <p>
+ * Warmup never evicts any pages, so it stops as soon as the page cache runs out of free pages.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    static final String PROFILE_DIRECTORY = "profiles";
+    static final String SUFFIX_CACHEPROF = ".cacheprof";
+    private static final int PROFILE_FORMAT_VERSION = 1;
+    // The maximum number of pages we ask the page cache to touch in one go.
+    private static final int TOUCH_CHUNK_SIZE = 4096;
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final File databaseDirectory;
+    private final Config config;
+    private final Log log;
+    private volatile boolean stopped;
+    private volatile Path databasePath;
+    private JobHandle warmupHandle;
+    private JobHandle profileHandle;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File databaseDirectory, Config config, Log log )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.databaseDirectory = databaseDirectory;
+        this.config = config;
+        this.log = log;
+    }
+
+    @Override
+    public synchronized void start()
+    {
+        if ( !config.get( pagecache_warmup_enabled ) )
+        {
+            return;
+        }
+        stopped = false;
+        warmupHandle = scheduler.schedule( Group.FILE_IO_HELPER, this::warmUpInBackground );
+        if ( !profilingEnabled() )
+        {
+            return;
+        }
+        long profilingInterval = config.get( pagecache_warmup_profiling_interval ).toMillis();
+        profileHandle = scheduler.scheduleRecurring( Group.FILE_IO_HELPER, this::profileIfRunning, profilingInterval, profilingInterval,
+                TimeUnit.MILLISECONDS );
+    }
+
+    @Override
+    public synchronized void stop()
+    {
+        if ( !config.get( pagecache_warmup_enabled ) )
+        {
+            return;
+        }
+        stopped = true;
+        cancelAndAwait( warmupHandle );
+        cancelAndAwait( profileHandle );
+        warmupHandle = null;
+        profileHandle = null;
+        if ( profilingEnabled() )
+        {
+            // Take a last profile, so the next start-up can warm up from the most recent state of the cache.
+            profileInBackground();
+        }
+    }
+
+    private boolean profilingEnabled()
+    {
+        return config.get( pagecache_warmup_profiling_enabled ) && !config.get( read_only );
+    }
+
+    private static void cancelAndAwait( JobHandle handle )
+    {
+        if ( handle != null )
+        {
+            handle.cancel();
+            try
+            {
+                handle.waitTermination();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch ( CancellationException | ExecutionException ignore )
+            {
+                // The job was either cancelled before it got to run, or it failed and has already been logged.
+            }
+        }
+    }
+
+    private void warmUpInBackground()
+    {
+        try
+        {
+            long startTime = System.nanoTime();
+            long pagesLoaded = warmUp();
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - startTime );
+            log.info( "Page cache warmup completed. %d pages loaded in %d ms.", pagesLoaded, elapsedMillis );
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Page cache warmup failed.", e );
+        }
+    }
+
+    private void profileIfRunning()
+    {
+        if ( !stopped )
+        {
+            profileInBackground();
+        }
+    }
+
+    private void profileInBackground()
+    {
+        try
+        {
+            profile();
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Page cache profiling failed.", e );
+        }
+    }
+
+    /**
+     * Load the pages of the currently mapped files back into memory, either by following their profiles, or, if
+     * prefetching is enabled, by loading the whitelisted files in their entirety.
+     *
+     * @return the number of pages that were found to be in memory, or were loaded.
+     */
+    long warmUp() throws IOException, ExecutionException, InterruptedException
+    {
+        boolean prefetch = config.get( pagecache_warmup_prefetch );
+        Pattern whitelist = Pattern.compile( config.get( pagecache_warmup_prefetch_whitelist ) );
+        LongAdder pagesLoaded = new LongAdder();
+        List<JobHandle> jobs = new ArrayList<>();
+        for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+        {
+            Path relativePath = relativePath( pagedFile );
+            if ( relativePath == null )
+            {
+                continue;
+            }
+            if ( prefetch )
+            {
+                if ( whitelist.matcher( relativePath.toString() ).matches() )
+                {
+                    jobs.add( scheduler.schedule( Group.FILE_IO_HELPER, () -> pagesLoaded.add( prefetch( pagedFile ) ) ) );
+                }
+            }
+            else
+            {
+                File profile = profileFile( relativePath );
+                if ( fs.fileExists( profile ) )
+                {
+                    jobs.add( scheduler.schedule( Group.FILE_IO_HELPER, () -> pagesLoaded.add( reheat( pagedFile, profile ) ) ) );
+                }
+            }
+        }
+        for ( JobHandle job : jobs )
+        {
+            job.waitTermination();
+        }
+        return pagesLoaded.sum();
+    }
+
+    private long prefetch( PagedFile pagedFile )
+    {
+        long pagesLoaded = 0;
+        try
+        {
+            long pageCount = pagedFile.getLastPageId() + 1;
+            for ( long pageId = 0; pageId < pageCount && !stopped; pageId += TOUCH_CHUNK_SIZE )
+            {
+                int count = (int) Math.min( TOUCH_CHUNK_SIZE, pageCount - pageId );
+                int touched = pagedFile.touch( pageId, count );
+                pagesLoaded += touched;
+                if ( touched < count )
+                {
+                    // The page cache is full.
+                    break;
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            // The file might have been unmapped concurrently, which is fine.
+            log.debug( "Unable to prefetch " + pagedFile.file(), e );
+        }
+        return pagesLoaded;
+    }
+
+    private long reheat( PagedFile pagedFile, File profile )
+    {
+        long pagesLoaded = 0;
+        try ( DataInputStream in = new DataInputStream( new GZIPInputStream( fs.openAsInputStream( profile ) ) ) )
+        {
+            if ( in.readInt() != PROFILE_FORMAT_VERSION )
+            {
+                return 0;
+            }
+            long pageCount = Math.min( in.readLong(), pagedFile.getLastPageId() + 1 );
+            long runStart = -1;
+            long word = 0;
+            for ( long pageId = 0; pageId < pageCount && !stopped; pageId++ )
+            {
+                if ( (pageId & 63) == 0 )
+                {
+                    word = in.readLong();
+                }
+                boolean inProfile = (word & (1L << (pageId & 63))) != 0;
+                if ( inProfile && runStart == -1 )
+                {
+                    runStart = pageId;
+                }
+                else if ( runStart != -1 && (!inProfile || pageId - runStart == TOUCH_CHUNK_SIZE) )
+                {
+                    int count = (int) (pageId - runStart);
+                    int touched = pagedFile.touch( runStart, count );
+                    pagesLoaded += touched;
+                    if ( touched < count )
+                    {
+                        // The page cache is full.
+                        return pagesLoaded;
+                    }
+                    runStart = inProfile ? pageId : -1;
+                }
+            }
+            if ( runStart != -1 && !stopped )
+            {
+                pagesLoaded += pagedFile.touch( runStart, (int) (pageCount - runStart) );
+            }
+        }
+        catch ( IOException e )
+        {
+            // The profile might be truncated or corrupt, or the file might have been unmapped concurrently.
+            // Either way, we can just skip warming up this file.
+            log.debug( "Unable to warm up " + pagedFile.file() + " from profile " + profile, e );
+        }
+        return pagesLoaded;
+    }
+
+    /**
+     * Write a profile of the pages that are currently in memory, for every file mapped by the database.
+     */
+    void profile() throws IOException
+    {
+        for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+        {
+            Path relativePath = relativePath( pagedFile );
+            if ( relativePath == null )
+            {
+                continue;
+            }
+            try
+            {
+                profile( pagedFile, profileFile( relativePath ) );
+            }
+            catch ( IOException e )
+            {
+                // The file might have been unmapped concurrently, which is fine.
+                log.debug( "Unable to profile " + pagedFile.file(), e );
+            }
+        }
+    }
+
+    private void profile( PagedFile pagedFile, File profile ) throws IOException
+    {
+        File tmpProfile = new File( profile.getParentFile(), profile.getName() + ".tmp" );
+        fs.mkdirs( profile.getParentFile() );
+        long pageCount = pagedFile.getLastPageId() + 1;
+        try ( OutputStream fileOut = fs.openAsOutputStream( tmpProfile, false );
+              DataOutputStream out = new DataOutputStream( new GZIPOutputStream( fileOut ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+        {
+            out.writeInt( PROFILE_FORMAT_VERSION );
+            out.writeLong( pageCount );
+            long word = 0;
+            for ( long pageId = 0; pageId < pageCount; pageId++ )
+            {
+                if ( cursor.next() && cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    word |= 1L << (pageId & 63);
+                }
+                if ( (pageId & 63) == 63 )
+                {
+                    out.writeLong( word );
+                    word = 0;
+                }
+            }
+            if ( (pageCount & 63) != 0 )
+            {
+                out.writeLong( word );
+            }
+        }
+        fs.renameFile( tmpProfile, profile, ATOMIC_MOVE, REPLACE_EXISTING );
+    }
+
+    private Path relativePath( PagedFile pagedFile ) throws IOException
+    {
+        Path databasePath = databasePath();
+        Path path = pagedFile.file().toPath();
+        Path profilesPath = databasePath.resolve( PROFILE_DIRECTORY );
+        if ( !path.startsWith( databasePath ) || path.startsWith( profilesPath ) )
+        {
+            return null;
+        }
+        return databasePath.relativize( path );
+    }
+
+    private File profileFile( Path relativePath ) throws IOException
+    {
+        return databasePath().resolve( PROFILE_DIRECTORY ).resolve( relativePath + SUFFIX_CACHEPROF ).toFile();
+    }
+
+    private Path databasePath() throws IOException
+    {
+        // Mapped files are identified by their canonical path, so the database directory must be canonical as well.
+        if ( databasePath == null )
+        {
+            databasePath = databaseDirectory.getCanonicalFile().toPath();
+        }
+        return databasePath;
+    }
+}
@@ -28,9 +28,11 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.kernel.impl.transaction.log.entry.SerializedCommands;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
@@ -61,6 +63,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final LogPositionMarker positionMarker = new LogPositionMarker();
     private final Health databaseHealth;
     private final Lock forceLock = new ReentrantLock();
+    private final IOLimiter ioLimiter;
 
     private FlushablePositionAwareChecksumChannel writer;
     private TransactionLogWriter transactionLogWriter;
@@ -68,12 +71,22 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
 
     public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
             TransactionIdStore transactionIdStore, Health databaseHealth )
+    {
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth, IOLimiter.UNLIMITED );
+    }
+
+    /**
+     * @param ioLimiter the limiter used by checkpoints, which is told to back off while committing threads wait for the log to be forced.
+     */
+    public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
+            TransactionIdStore transactionIdStore, Health databaseHealth, IOLimiter ioLimiter )
     {
         this.logFile = logFiles.getLogFile();
         this.logRotation = logRotation;
         this.transactionIdStore = transactionIdStore;
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
+        this.ioLimiter = ioLimiter;
         this.previousChecksum = transactionIdStore.getLastCommittedTransaction().checksum();
     }
 
@@ -86,6 +99,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.transactionIdStore = transactionIdStore;
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
+        this.ioLimiter = IOLimiter.UNLIMITED;
         this.previousChecksum = previousChecksum;
     }
 
@@ -99,6 +113,11 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     @Override
     public long append( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
     {
+        // Encode, and possibly compress, the commands of all transactions in this batch before entering the logFile monitor, which all
+        // concurrent committers contend for. What's left to do under the monitor is assigning transaction ids and
+        // checksums and copying the encoded commands into the log. Only very large transactions are still encoded under the monitor.
+        SerializedCommands[] serializedCommands = serializeCommands( batch, logFile.compressCommands() );
+
         // Assigned base tx id just to make compiler happy
         long lastTransactionId = TransactionIdStore.BASE_TX_ID;
         // Synchronized with logFile to get absolute control over concurrent rotations happening
@@ -110,6 +129,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             {
                 // Append all transactions in this batch to the log under the same logFile monitor
                 TransactionToApply tx = batch;
+                int index = 0;
                 while ( tx != null )
                 {
                     long transactionId = transactionIdStore.nextCommittingTransactionId();
@@ -120,7 +140,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
                     // really recover from and would point to a bug somewhere.
                     matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
 
-                    TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId, logAppendEvent, previousChecksum );
+                    TransactionCommitment commitment =
+                            appendToLog( tx.transactionRepresentation(), serializedCommands[index++], transactionId, logAppendEvent, previousChecksum );
                     previousChecksum = commitment.getTransactionChecksum();
                     tx.commitment( commitment, transactionId );
                     tx.logPosition( commitment.logPosition() );
@@ -148,6 +169,22 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         return lastTransactionId;
     }
 
+    private static SerializedCommands[] serializeCommands( TransactionToApply batch, boolean compress ) throws IOException
+    {
+        int count = 0;
+        for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+        {
+            count++;
+        }
+        SerializedCommands[] serializedCommands = new SerializedCommands[count];
+        int index = 0;
+        for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+        {
+            serializedCommands[index++] = SerializedCommands.serialize( tx.transactionRepresentation(), compress );
+        }
+        return serializedCommands;
+    }
+
     private void matchAgainstExpectedTransactionIdIfAny( long transactionId, TransactionToApply tx )
     {
         long expectedTransactionId = tx.transactionId();
@@ -200,8 +237,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
      * @return A TransactionCommitment instance with metadata about the committed transaction, such as whether or not
      * this transaction contains any explicit index changes.
      */
-    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId, LogAppendEvent logAppendEvent, int previousChecksum )
-            throws IOException
+    private TransactionCommitment appendToLog( TransactionRepresentation transaction, SerializedCommands commands, long transactionId,
+            LogAppendEvent logAppendEvent, int previousChecksum ) throws IOException
     {
         // The outcome of this try block is either of:
         // a) transaction successfully appended, at which point we return a Commitment to be used after force
@@ -212,7 +249,9 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         try
         {
             LogPosition logPositionBeforeCommit = writer.getCurrentPosition( positionMarker ).newPosition();
-            int checksum = transactionLogWriter.append( transaction, transactionId, previousChecksum );
+            // Commands too large to be serialized ahead of time are encoded straight into the log channel
+            int checksum = commands != null ? transactionLogWriter.append( transaction, commands, transactionId, previousChecksum )
+                                            : transactionLogWriter.append( transaction, transactionId, previousChecksum );
             LogPosition logPositionAfterCommit = writer.getCurrentPosition( positionMarker ).newPosition();
             logAppendEvent.appendToLogFile( logPositionBeforeCommit, logPositionAfterCommit );
 
@@ -241,6 +280,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         threadLink.next = threadLinkHead.getAndSet( threadLink );
         boolean attemptedForce = false;
 
+        // Let any ongoing checkpoint know that it should yield the storage device to us, until our commit is durable.
+        ioLimiter.beginForegroundIO();
         try ( LogForceWaitEvent logForceWaitEvent = logForceEvents.beginLogForceWait() )
         {
             do
@@ -280,6 +321,10 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
                 databaseHealth.assertHealthy( IOException.class );
             }
         }
+        finally
+        {
+            ioLimiter.endForegroundIO();
+        }
         return attemptedForce;
     }
 
@@ -47,6 +47,14 @@ public class LoggingLogFileMonitor implements RecoveryMonitor, RecoveryStartInfo
         log.info( "Recovery required from position " + startPosition );
     }
 
+    @Override
+    public void recoveryProgress( int numberOfRecoveredTransactions, long lastRecoveredTransactionId, long elapsedTimeInMilliseconds )
+    {
+        long transactionsPerSecond = numberOfRecoveredTransactions * 1000L / Math.max( 1, elapsedTimeInMilliseconds );
+        log.info( format( "Recovery in progress. %d transactions recovered, last:%d, time spent: %s, %d transactions/s", numberOfRecoveredTransactions,
+                lastRecoveredTransactionId, duration( elapsedTimeInMilliseconds ), transactionsPerSecond ) );
+    }
+
     @Override
     public void recoveryCompleted( int numberOfRecoveredTransactions, long recoveryTimeInMilliseconds )
     {
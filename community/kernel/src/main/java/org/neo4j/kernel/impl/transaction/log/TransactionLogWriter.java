@@ -23,6 +23,7 @@ import java.io.IOException;
 
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.kernel.impl.transaction.log.entry.SerializedCommands;
 
 public class TransactionLogWriter
 {
@@ -48,6 +49,21 @@ public class TransactionLogWriter
         return writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
     }
 
+    /**
+     * Append a transaction, whose commands have already been serialized, to the transaction log file
+     * @return checksum of the transaction
+     */
+    public int append( TransactionRepresentation transaction, SerializedCommands commands, long transactionId, int previousChecksum ) throws IOException
+    {
+        writer.writeStartEntry( transaction.getTimeStarted(), transaction.getLatestCommittedTxWhenStarted(), previousChecksum, transaction.additionalHeader() );
+
+        // Copy the already serialized commands to the log channel
+        writer.serialize( commands );
+
+        // Write commit record
+        return writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
+    }
+
     public void checkPoint( LogPosition logPosition ) throws IOException
     {
         writer.writeCheckPointEntry( logPosition );
@@ -91,6 +91,14 @@ public class LogEntryWriter
         tx.accept( serializer );
     }
 
+    /**
+     * Writes commands that were serialized ahead of time with {@link SerializedCommands#serialize(TransactionRepresentation)}.
+     */
+    public void serialize( SerializedCommands commands ) throws IOException
+    {
+        commands.writeTo( channel );
+    }
+
     public void serialize( CommittedTransactionRepresentation tx ) throws IOException
     {
         writeStartEntry( tx.getStartEntry() );
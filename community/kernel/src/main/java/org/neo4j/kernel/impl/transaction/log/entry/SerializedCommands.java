@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.fs.WritableChannel;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.util.FeatureToggles;
+import org.neo4j.util.VisibleForTesting;
+
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMPRESSED_COMMANDS;
+
+/**
+ * The commands of a transaction serialized into a heap buffer, exactly as {@link LogEntryWriter#serialize(TransactionRepresentation)} would have
+ * written them to the log channel. Encoding the commands is the CPU bound part of appending a transaction, and this allows the committing thread
+ * to do it before it starts to coordinate with other appenders, which then only need to copy the bytes into the log. The same goes for compressing
+ * the command entries into a single {@link LogEntryByteCodes#COMPRESSED_COMMANDS} entry, when that is asked for.
+ * <p>
+ * Only transactions up to {@code maxBufferedSize} bytes are serialized ahead of time. Larger ones would need several times their size in heap
+ * while the buffer grows, so they are written directly into the log channel instead.
+ */
+public class SerializedCommands implements WritableChannel
+{
+    private static final int INITIAL_CAPACITY = 512;
+    /**
+     * Commands smaller than this are never compressed, the saving would not be worth the extra work on the commit path.
+     */
+    static final int MIN_COMPRESSIBLE_SIZE = 256;
+    private static final int COMPRESSED_HEADER_SIZE = 2 * Byte.BYTES + 2 * Integer.BYTES;
+    private static final int MAX_BUFFERED_SIZE = FeatureToggles.getInteger( SerializedCommands.class, "maxBufferedSize", 8 * 1024 * 1024 );
+
+    private final int maxSize;
+    private ByteBuffer buffer = ByteBuffer.allocate( INITIAL_CAPACITY );
+
+    private SerializedCommands( int maxSize )
+    {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the serialized commands, or {@code null} if they are larger than {@code maxBufferedSize} and should be written directly.
+     */
+    public static SerializedCommands serialize( TransactionRepresentation transaction ) throws IOException
+    {
+        return serialize( transaction, false );
+    }
+
+    /**
+     * @param compress whether to replace the command entries with a single {@link LogEntryByteCodes#COMPRESSED_COMMANDS} entry, which is
+     * only done if they are large enough, the native compression library is available and the compressed form is actually smaller.
+     * @return the serialized commands, or {@code null} if they are larger than {@code maxBufferedSize} and should be written directly.
+     */
+    public static SerializedCommands serialize( TransactionRepresentation transaction, boolean compress ) throws IOException
+    {
+        return serialize( transaction, compress, MAX_BUFFERED_SIZE );
+    }
+
+    @VisibleForTesting
+    public static SerializedCommands serialize( TransactionRepresentation transaction, boolean compress, int maxSize ) throws IOException
+    {
+        SerializedCommands commands = new SerializedCommands( maxSize );
+        try
+        {
+            transaction.accept( new StorageCommandSerializer( commands ) );
+        }
+        catch ( MaxSizeExceededException e )
+        {
+            return null;
+        }
+        if ( compress && commands.size() >= MIN_COMPRESSIBLE_SIZE && commands.size() <= CommandCompression.MAX_UNCOMPRESSED_LENGTH &&
+             CommandCompression.isAvailable() )
+        {
+            commands.compress();
+        }
+        return commands;
+    }
+
+    public int size()
+    {
+        return buffer.position();
+    }
+
+    private void compress() throws IOException
+    {
+        int uncompressedLength = buffer.position();
+        byte[] compressed = CommandCompression.compress( buffer.array(), uncompressedLength );
+        if ( compressed == null || compressed.length + COMPRESSED_HEADER_SIZE >= uncompressedLength )
+        {
+            return;
+        }
+        buffer = ByteBuffer.allocate( compressed.length + COMPRESSED_HEADER_SIZE );
+        LogEntryWriter.writeLogEntryHeader( COMPRESSED_COMMANDS, this );
+        putInt( uncompressedLength ).putInt( compressed.length ).put( compressed, compressed.length );
+    }
+
+    void writeTo( WritableChannel channel ) throws IOException
+    {
+        channel.put( buffer.array(), buffer.position() );
+    }
+
+    @Override
+    public SerializedCommands put( byte value ) throws IOException
+    {
+        ensureCapacity( Byte.BYTES ).put( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putShort( short value ) throws IOException
+    {
+        ensureCapacity( Short.BYTES ).putShort( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putInt( int value ) throws IOException
+    {
+        ensureCapacity( Integer.BYTES ).putInt( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putLong( long value ) throws IOException
+    {
+        ensureCapacity( Long.BYTES ).putLong( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putFloat( float value ) throws IOException
+    {
+        ensureCapacity( Float.BYTES ).putFloat( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putDouble( double value ) throws IOException
+    {
+        ensureCapacity( Double.BYTES ).putDouble( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands put( byte[] value, int length ) throws IOException
+    {
+        ensureCapacity( length ).put( value, 0, length );
+        return this;
+    }
+
+    private ByteBuffer ensureCapacity( int bytes ) throws MaxSizeExceededException
+    {
+        if ( buffer.remaining() < bytes )
+        {
+            long required = (long) buffer.position() + bytes;
+            if ( required > maxSize )
+            {
+                // Stop encoding right away, the whole transaction will be encoded again directly into the log channel
+                throw new MaxSizeExceededException();
+            }
+            int capacity = (int) Math.min( Math.max( 2L * buffer.capacity(), required ), maxSize );
+            ByteBuffer grown = ByteBuffer.allocate( capacity );
+            buffer.flip();
+            grown.put( buffer );
+            buffer = grown;
+        }
+        return buffer;
+    }
+
+    private static class MaxSizeExceededException extends IOException
+    {
+    }
+}
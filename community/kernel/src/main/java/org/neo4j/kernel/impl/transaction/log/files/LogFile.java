@@ -74,6 +74,11 @@ public interface LogFile
      */
     boolean rotationNeeded();
 
+    /**
+     * @return {@code true} if the commands of transactions appended to this log should be compressed, where that makes them smaller.
+     */
+    boolean compressCommands();
+
     /**
      * Rotate the active log file.
      * @return A file object representing the file name and path of the log file rotated to.
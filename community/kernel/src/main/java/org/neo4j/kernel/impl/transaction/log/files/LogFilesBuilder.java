@@ -46,6 +46,7 @@ import org.neo4j.storageengine.api.StoreIdProvider;
 import org.neo4j.storageengine.api.TransactionIdStore;
 
 import static java.util.Objects.requireNonNull;
+import static org.neo4j.configuration.GraphDatabaseSettings.compress_logical_logs;
 import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
 import static org.neo4j.configuration.GraphDatabaseSettings.preallocate_logical_logs;
 
@@ -248,10 +249,11 @@ public class LogFilesBuilder
         // Register listener for rotation threshold
         AtomicLong rotationThreshold = getRotationThresholdAndRegisterForUpdates();
         AtomicBoolean tryPreallocateTransactionLogs = getTryToPreallocateTransactionLogs();
+        boolean compressCommands = !readOnly && config.get( compress_logical_logs );
         var nativeAccess = getNativeAccess();
 
-        return new TransactionLogFilesContext( rotationThreshold, tryPreallocateTransactionLogs, logEntryReader, lastCommittedIdSupplier,
-                committingTransactionIdSupplier, lastClosedTransactionPositionSupplier, logVersionRepositorySupplier, fileSystem,
+        return new TransactionLogFilesContext( rotationThreshold, tryPreallocateTransactionLogs, compressCommands, logEntryReader,
+                lastCommittedIdSupplier, committingTransactionIdSupplier, lastClosedTransactionPositionSupplier, logVersionRepositorySupplier, fileSystem,
                 logProvider, databaseTracer, storeIdSupplier, nativeAccess );
     }
 
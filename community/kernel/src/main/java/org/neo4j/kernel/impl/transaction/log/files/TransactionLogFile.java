@@ -152,6 +152,12 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
         return channel.position() >= rotateAtSize.get();
     }
 
+    @Override
+    public boolean compressCommands()
+    {
+        return context.isCompressCommands();
+    }
+
     @Override
     public synchronized File rotate() throws IOException
     {
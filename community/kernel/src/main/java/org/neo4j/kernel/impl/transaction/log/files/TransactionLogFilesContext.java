@@ -37,6 +37,7 @@ class TransactionLogFilesContext
 {
     private final AtomicLong rotationThreshold;
     private final AtomicBoolean tryPreallocateTransactionLogs;
+    private final boolean compressCommands;
     private final LogEntryReader logEntryReader;
     private final LongSupplier lastCommittedTransactionIdSupplier;
     private final LongSupplier committingTransactionIdSupplier;
@@ -48,13 +49,14 @@ class TransactionLogFilesContext
     private final Supplier<StoreId> storeId;
     private final NativeAccess nativeAccess;
 
-    TransactionLogFilesContext( AtomicLong rotationThreshold, AtomicBoolean tryPreallocateTransactionLogs, LogEntryReader logEntryReader,
-            LongSupplier lastCommittedTransactionIdSupplier, LongSupplier committingTransactionIdSupplier, Supplier<LogPosition> lastClosedPositionSupplier,
+    TransactionLogFilesContext( AtomicLong rotationThreshold, AtomicBoolean tryPreallocateTransactionLogs, boolean compressCommands,
+            LogEntryReader logEntryReader, LongSupplier lastCommittedTransactionIdSupplier, LongSupplier committingTransactionIdSupplier, Supplier<LogPosition> lastClosedPositionSupplier,
             Supplier<LogVersionRepository> logVersionRepositorySupplier, FileSystemAbstraction fileSystem,
             LogProvider logProvider, DatabaseTracer databaseTracer, Supplier<StoreId> storeId, NativeAccess nativeAccess )
     {
         this.rotationThreshold = rotationThreshold;
         this.tryPreallocateTransactionLogs = tryPreallocateTransactionLogs;
+        this.compressCommands = compressCommands;
         this.logEntryReader = logEntryReader;
         this.lastCommittedTransactionIdSupplier = lastCommittedTransactionIdSupplier;
         this.committingTransactionIdSupplier = committingTransactionIdSupplier;
@@ -112,6 +114,11 @@ class TransactionLogFilesContext
         return tryPreallocateTransactionLogs;
     }
 
+    boolean isCompressCommands()
+    {
+        return compressCommands;
+    }
+
     NativeAccess getNativeAccess()
     {
         return nativeAccess;
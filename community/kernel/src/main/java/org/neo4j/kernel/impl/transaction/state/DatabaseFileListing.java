@@ -33,6 +33,7 @@ import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.internal.helpers.Exceptions;
 import org.neo4j.internal.id.IdGeneratorFactory;
 import org.neo4j.internal.index.label.LabelScanStore;
+import org.neo4j.internal.index.label.RelationshipTypeScanStore;
 import org.neo4j.io.IOUtils;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.kernel.impl.api.index.IndexingService;
@@ -54,14 +55,14 @@ public class DatabaseFileListing
     private final Collection<StoreFileProvider> additionalProviders;
 
     public DatabaseFileListing( DatabaseLayout databaseLayout, LogFiles logFiles,
-            LabelScanStore labelScanStore, IndexingService indexingService, StorageEngine storageEngine,
-            IdGeneratorFactory idGeneratorFactory )
+            LabelScanStore labelScanStore, RelationshipTypeScanStore relationshipTypeScanStore, IndexingService indexingService,
+            StorageEngine storageEngine, IdGeneratorFactory idGeneratorFactory )
     {
         this.databaseLayout = databaseLayout;
         this.logFiles = logFiles;
         this.storageEngine = storageEngine;
         this.idGeneratorFactory = idGeneratorFactory;
-        this.fileIndexListing = new SchemaAndIndexingFileIndexListing( labelScanStore, indexingService );
+        this.fileIndexListing = new SchemaAndIndexingFileIndexListing( labelScanStore, relationshipTypeScanStore, indexingService );
         this.additionalProviders = new CopyOnWriteArraySet<>();
     }
 
@@ -28,20 +28,27 @@ import java.util.function.Function;
 
 import org.neo4j.graphdb.Resource;
 import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.internal.helpers.collection.Iterators;
 import org.neo4j.internal.index.label.LabelScanStore;
+import org.neo4j.internal.index.label.RelationshipTypeScanStore;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.storageengine.api.StoreFileMetadata;
 
+import static org.neo4j.internal.helpers.collection.Iterators.concatResourceIterators;
+
 public class SchemaAndIndexingFileIndexListing
 {
     private static final Function<File,StoreFileMetadata> toStoreFileMetadata = file -> new StoreFileMetadata( file, 1 );
 
     private final LabelScanStore labelScanStore;
+    private final RelationshipTypeScanStore relationshipTypeScanStore;
     private final IndexingService indexingService;
 
-    SchemaAndIndexingFileIndexListing( LabelScanStore labelScanStore, IndexingService indexingService )
+    SchemaAndIndexingFileIndexListing( LabelScanStore labelScanStore, RelationshipTypeScanStore relationshipTypeScanStore,
+            IndexingService indexingService )
     {
         this.labelScanStore = labelScanStore;
+        this.relationshipTypeScanStore = relationshipTypeScanStore;
         this.indexingService = indexingService;
     }
 
@@ -59,9 +66,13 @@ public class SchemaAndIndexingFileIndexListing
         return snapshot;
     }
 
+    /**
+     * Gathers the files of the token scan stores, i.e. both the label scan store and the relationship type scan store.
+     */
     Resource gatherLabelScanStoreFiles( Collection<StoreFileMetadata> targetFiles )
     {
-        ResourceIterator<File> snapshot = labelScanStore.snapshotStoreFiles();
+        ResourceIterator<File> snapshot = concatResourceIterators(
+                Iterators.iterator( labelScanStore.snapshotStoreFiles(), relationshipTypeScanStore.snapshotStoreFiles() ) );
         getSnapshotFilesMetadata( snapshot, targetFiles );
         // Intentionally don't close the snapshot here, return it for closing by the consumer of
         // the targetFiles list.
@@ -22,6 +22,8 @@ package org.neo4j.kernel.impl.util.collection;
 import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
 
+import org.neo4j.kernel.impl.api.state.CreatedRelationships;
+import org.neo4j.kernel.impl.api.state.NodeLabelChanges;
 import org.neo4j.kernel.impl.api.state.TxState;
 import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSetsImpl;
 import org.neo4j.memory.MemoryTracker;
@@ -39,6 +41,10 @@ public interface CollectionsFactory
 
     MutableLongObjectMap<Value> newValuesMap();
 
+    CreatedRelationships newCreatedRelationships();
+
+    NodeLabelChanges newNodeLabelChanges();
+
     MemoryTracker getMemoryTracker();
 
     /**
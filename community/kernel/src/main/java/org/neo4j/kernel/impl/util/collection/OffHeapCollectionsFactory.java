@@ -27,6 +27,10 @@ import java.util.Collection;
 
 import org.neo4j.graphdb.Resource;
 import org.neo4j.kernel.impl.api.state.AppendOnlyValuesContainer;
+import org.neo4j.kernel.impl.api.state.CreatedRelationships;
+import org.neo4j.kernel.impl.api.state.NodeLabelChanges;
+import org.neo4j.kernel.impl.api.state.OffHeapCreatedRelationships;
+import org.neo4j.kernel.impl.api.state.OffHeapNodeLabelChanges;
 import org.neo4j.kernel.impl.api.state.ValuesContainer;
 import org.neo4j.kernel.impl.api.state.ValuesMap;
 import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSetsImpl;
@@ -74,6 +78,26 @@ public class OffHeapCollectionsFactory implements CollectionsFactory
         return new ValuesMap( refs, valuesContainer );
     }
 
+    @Override
+    public CreatedRelationships newCreatedRelationships()
+    {
+        final LinearProbeLongLongHashMap records = new LinearProbeLongLongHashMap( allocator );
+        resources.add( records );
+        final OffHeapCreatedRelationships relationships = new OffHeapCreatedRelationships( records, allocator );
+        resources.add( relationships );
+        return relationships;
+    }
+
+    @Override
+    public NodeLabelChanges newNodeLabelChanges()
+    {
+        final LinearProbeLongLongHashMap records = new LinearProbeLongLongHashMap( allocator );
+        resources.add( records );
+        final OffHeapNodeLabelChanges labels = new OffHeapNodeLabelChanges( records, allocator );
+        resources.add( labels );
+        return labels;
+    }
+
     @Override
     public MemoryTracker getMemoryTracker()
     {
@@ -24,6 +24,10 @@ import org.eclipse.collections.api.set.primitive.MutableLongSet;
 import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
 import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 
+import org.neo4j.kernel.impl.api.state.CreatedRelationships;
+import org.neo4j.kernel.impl.api.state.NodeLabelChanges;
+import org.neo4j.kernel.impl.api.state.OnHeapCreatedRelationships;
+import org.neo4j.kernel.impl.api.state.OnHeapNodeLabelChanges;
 import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSetsImpl;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.values.storable.Value;
@@ -55,6 +59,18 @@ public class OnHeapCollectionsFactory implements CollectionsFactory
         return new LongObjectHashMap<>();
     }
 
+    @Override
+    public CreatedRelationships newCreatedRelationships()
+    {
+        return new OnHeapCreatedRelationships();
+    }
+
+    @Override
+    public NodeLabelChanges newNodeLabelChanges()
+    {
+        return new OnHeapNodeLabelChanges();
+    }
+
     @Override
     public MemoryTracker getMemoryTracker()
     {
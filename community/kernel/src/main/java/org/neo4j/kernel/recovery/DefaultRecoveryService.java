@@ -30,6 +30,7 @@ import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.logging.Log;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
@@ -40,17 +41,38 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FO
 
 public class DefaultRecoveryService implements RecoveryService
 {
+    /**
+     * Number of recovered transactions handed to the storage engine at a time, which lets it apply non-conflicting
+     * transactions of a batch concurrently. Reverse recovery always applies one transaction at a time.
+     */
+    static final int RECOVERY_BATCH_SIZE = 100;
+
     private final RecoveryStartInformationProvider recoveryStartInformationProvider;
     private final StorageEngine storageEngine;
     private final TransactionIdStore transactionIdStore;
     private final LogicalTransactionStore logicalTransactionStore;
     private final LogVersionRepository logVersionRepository;
     private final Log log;
+    private final JobScheduler scheduler;
+    private final int readAheadTransactions;
 
     DefaultRecoveryService( StorageEngine storageEngine, LogTailScanner logTailScanner, TransactionIdStore transactionIdStore,
             LogicalTransactionStore logicalTransactionStore, LogVersionRepository logVersionRepository, LogFiles logFiles,
             RecoveryStartInformationProvider.Monitor monitor, Log log )
     {
+        this( storageEngine, logTailScanner, transactionIdStore, logicalTransactionStore, logVersionRepository, logFiles, monitor, log, null, 0 );
+    }
+
+    /**
+     * @param readAheadTransactions number of transactions to read ahead of the one being recovered, using the given scheduler, or {@code 0}
+     * to read transactions as they are recovered.
+     */
+    DefaultRecoveryService( StorageEngine storageEngine, LogTailScanner logTailScanner, TransactionIdStore transactionIdStore,
+            LogicalTransactionStore logicalTransactionStore, LogVersionRepository logVersionRepository, LogFiles logFiles,
+            RecoveryStartInformationProvider.Monitor monitor, Log log, JobScheduler scheduler, int readAheadTransactions )
+    {
+        this.scheduler = scheduler;
+        this.readAheadTransactions = readAheadTransactions;
         this.storageEngine = storageEngine;
         this.transactionIdStore = transactionIdStore;
         this.logicalTransactionStore = logicalTransactionStore;
@@ -68,13 +90,14 @@ public class DefaultRecoveryService implements RecoveryService
     @Override
     public RecoveryApplier getRecoveryApplier( TransactionApplicationMode mode ) throws Exception
     {
-        return new RecoveryVisitor( storageEngine, mode );
+        return new RecoveryVisitor( storageEngine, mode, mode == TransactionApplicationMode.RECOVERY ? RECOVERY_BATCH_SIZE : 1 );
     }
 
     @Override
     public TransactionCursor getTransactions( LogPosition position ) throws IOException
     {
-        return logicalTransactionStore.getTransactions( position );
+        TransactionCursor transactions = logicalTransactionStore.getTransactions( position );
+        return readAheadTransactions > 0 ? new ReadAheadTransactionCursor( transactions, readAheadTransactions, scheduler ) : transactions;
     }
 
     @Override
@@ -126,11 +149,16 @@ public class DefaultRecoveryService implements RecoveryService
     {
         private final StorageEngine storageEngine;
         private final TransactionApplicationMode mode;
+        private final int batchSize;
+        private TransactionToApply first;
+        private TransactionToApply last;
+        private int batched;
 
-        RecoveryVisitor( StorageEngine storageEngine, TransactionApplicationMode mode )
+        RecoveryVisitor( StorageEngine storageEngine, TransactionApplicationMode mode, int batchSize )
         {
             this.storageEngine = storageEngine;
             this.mode = mode;
+            this.batchSize = batchSize;
         }
 
         @Override
@@ -141,13 +169,44 @@ public class DefaultRecoveryService implements RecoveryService
             TransactionToApply tx = new TransactionToApply( txRepresentation, txId );
             tx.commitment( NO_COMMITMENT, txId );
             tx.logPosition( transaction.getStartEntry().getStartPosition() );
-            storageEngine.apply( tx, mode );
+            if ( first == null )
+            {
+                first = tx;
+            }
+            else
+            {
+                last.next( tx );
+            }
+            last = tx;
+            if ( ++batched >= batchSize )
+            {
+                applyBatch();
+            }
             return false;
         }
 
         @Override
-        public void close()
-        {   // nothing to close
+        public int pendingTransactions()
+        {
+            return batched;
+        }
+
+        private void applyBatch() throws Exception
+        {
+            TransactionToApply batch = first;
+            first = null;
+            last = null;
+            batched = 0;
+            storageEngine.apply( batch, mode );
+        }
+
+        @Override
+        public void close() throws Exception
+        {
+            if ( first != null )
+            {
+                applyBatch();
+            }
         }
     }
 }
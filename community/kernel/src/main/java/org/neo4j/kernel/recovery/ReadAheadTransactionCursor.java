@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import java.io.IOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+/**
+ * {@link TransactionCursor} which reads and decodes transactions from another cursor in a background job, up to a number of transactions ahead
+ * of the transaction currently being looked at. This lets recovery apply transaction N to the store while the transactions after it are read from
+ * the log and their commands are deserialized. Transactions are still handed out one by one in log order, with the same positions and failures
+ * as the source cursor would have given.
+ */
+class ReadAheadTransactionCursor implements TransactionCursor
+{
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final TransactionCursor source;
+    private final BlockingQueue<ReadAhead> queue;
+    private final JobHandle reader;
+    private volatile boolean closed;
+
+    private CommittedTransactionRepresentation current;
+    private LogPosition position;
+    private boolean exhausted;
+
+    ReadAheadTransactionCursor( TransactionCursor source, int readAheadTransactions, JobScheduler scheduler )
+    {
+        this.source = source;
+        this.queue = new ArrayBlockingQueue<>( readAheadTransactions );
+        this.position = source.position();
+        this.reader = scheduler.schedule( Group.RECOVERY_READ_AHEAD, this::readAhead );
+    }
+
+    private void readAhead()
+    {
+        try
+        {
+            boolean hasNext;
+            do
+            {
+                hasNext = source.next();
+                if ( !offer( new ReadAhead( hasNext ? source.get() : null, source.position(), null ) ) )
+                {
+                    return;
+                }
+            }
+            while ( hasNext );
+        }
+        catch ( Throwable t )
+        {
+            offer( new ReadAhead( null, null, t ) );
+        }
+    }
+
+    /**
+     * @return {@code false} if the cursor was closed before there was room for the read ahead transaction.
+     */
+    private boolean offer( ReadAhead readAhead )
+    {
+        try
+        {
+            while ( !closed )
+            {
+                if ( queue.offer( readAhead, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        if ( exhausted )
+        {
+            return false;
+        }
+
+        ReadAhead readAhead;
+        try
+        {
+            readAhead = queue.take();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            // Signalled the same way as an interrupted read of the log channel, which recovery doesn't mistake for a corrupt log
+            throw new ClosedByInterruptException();
+        }
+
+        current = readAhead.transaction;
+        if ( readAhead.failure != null )
+        {
+            exhausted = true;
+            throw rethrow( readAhead.failure );
+        }
+        position = readAhead.positionAfter;
+        exhausted = current == null;
+        return !exhausted;
+    }
+
+    @Override
+    public CommittedTransactionRepresentation get()
+    {
+        return current;
+    }
+
+    @Override
+    public LogPosition position()
+    {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        try
+        {
+            reader.waitTermination();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ClosedByInterruptException();
+        }
+        catch ( ExecutionException e )
+        {
+            throw new IOException( e.getCause() );
+        }
+        finally
+        {
+            queue.clear();
+        }
+        source.close();
+    }
+
+    private static IOException rethrow( Throwable failure )
+    {
+        if ( failure instanceof IOException )
+        {
+            return (IOException) failure;
+        }
+        if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+        return new IOException( failure );
+    }
+
+    private static class ReadAhead
+    {
+        private final CommittedTransactionRepresentation transaction;
+        private final LogPosition positionAfter;
+        private final Throwable failure;
+
+        ReadAhead( CommittedTransactionRepresentation transaction, LogPosition positionAfter, Throwable failure )
+        {
+            this.transaction = transaction;
+            this.positionAfter = positionAfter;
+            this.failure = failure;
+        }
+    }
+}
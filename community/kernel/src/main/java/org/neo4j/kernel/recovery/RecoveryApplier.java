@@ -27,4 +27,12 @@ import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
  */
 public interface RecoveryApplier extends Visitor<CommittedTransactionRepresentation,Exception>, AutoCloseable
 {
+    /**
+     * @return number of the most recently visited transactions that have not been applied yet. They are applied at the latest when
+     * this applier is closed.
+     */
+    default int pendingTransactions()
+    {
+        return 0;
+    }
 }
@@ -34,6 +34,18 @@ public interface RecoveryMonitor
         //noop
     }
 
+    /**
+     * Called periodically while transactions are being recovered.
+     *
+     * @param numberOfRecoveredTransactions number of transactions recovered so far.
+     * @param lastRecoveredTransactionId id of the transaction that was most recently recovered.
+     * @param elapsedTimeInMilliseconds time spent recovering transactions so far, from which the recovery throughput can be derived.
+     */
+    default void recoveryProgress( int numberOfRecoveredTransactions, long lastRecoveredTransactionId, long elapsedTimeInMilliseconds )
+    {
+        //noop
+    }
+
     default void recoveryCompleted( int numberOfRecoveredTransactions, long recoveryTimeInMilliseconds )
     {
         //noop
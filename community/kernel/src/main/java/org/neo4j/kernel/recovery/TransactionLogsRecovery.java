@@ -20,6 +20,8 @@
 package org.neo4j.kernel.recovery;
 
 import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import org.neo4j.common.ProgressReporter;
 import org.neo4j.dbms.database.DatabaseStartAbortedException;
@@ -34,6 +36,7 @@ import org.neo4j.storageengine.api.TransactionIdStore;
 import org.neo4j.time.Stopwatch;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.neo4j.kernel.recovery.Recovery.throwUnableToCleanRecover;
 import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
 import static org.neo4j.storageengine.api.TransactionApplicationMode.REVERSE_RECOVERY;
@@ -44,6 +47,7 @@ import static org.neo4j.storageengine.api.TransactionApplicationMode.REVERSE_REC
  */
 public class TransactionLogsRecovery extends LifecycleAdapter
 {
+    private static final long PROGRESS_MONITOR_INTERVAL_SECONDS = 10;
 
     private final RecoveryService recoveryService;
     private final RecoveryMonitor monitor;
@@ -116,23 +120,46 @@ public class TransactionLogsRecovery extends LifecycleAdapter
                 // of the schema life until after we've done the reverse recovery.
                 schemaLife.init();
 
+                // The applier may apply transactions in batches. Only transactions that have actually been applied count as recovered,
+                // otherwise a failure to apply a batch would truncate the log after transactions that never made it into the store.
+                Deque<RecoveredTransaction> unapplied = new ArrayDeque<>();
+                LogPosition endPosition;
                 try ( TransactionCursor transactionsToRecover = recoveryService.getTransactions( recoveryStartPosition );
                         RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY ) )
                 {
+                    Stopwatch applyStartTime = Stopwatch.start();
+                    Stopwatch lastProgressReport = applyStartTime;
                     while ( transactionsToRecover.next() )
                     {
                         recoveryStartupChecker.checkIfCanceled();
-                        lastTransaction = transactionsToRecover.get();
-                        long txId = lastTransaction.getCommitEntry().getTxId();
-                        recoveryVisitor.visit( lastTransaction );
-                        monitor.transactionRecovered( txId );
-                        numberOfRecoveredTransactions++;
-                        lastTransactionPosition = transactionsToRecover.position();
-                        recoveryToPosition = lastTransactionPosition;
+                        CommittedTransactionRepresentation transaction = transactionsToRecover.get();
+                        long txId = transaction.getCommitEntry().getTxId();
+                        recoveryVisitor.visit( transaction );
+                        unapplied.add( new RecoveredTransaction( transaction, transactionsToRecover.position() ) );
+                        RecoveredTransaction applied = transactionsApplied( unapplied, recoveryVisitor.pendingTransactions() );
+                        if ( applied != null )
+                        {
+                            lastTransaction = applied.transaction;
+                            lastTransactionPosition = applied.positionAfter;
+                            recoveryToPosition = lastTransactionPosition;
+                        }
                         reportProgress();
+                        if ( lastProgressReport.hasTimedOut( PROGRESS_MONITOR_INTERVAL_SECONDS, SECONDS ) )
+                        {
+                            monitor.recoveryProgress( numberOfRecoveredTransactions, txId, applyStartTime.elapsed( MILLISECONDS ) );
+                            lastProgressReport = Stopwatch.start();
+                        }
                     }
-                    recoveryToPosition = transactionsToRecover.position();
+                    endPosition = transactionsToRecover.position();
+                }
+                // Closing the applier applied whatever was still pending
+                RecoveredTransaction applied = transactionsApplied( unapplied, 0 );
+                if ( applied != null )
+                {
+                    lastTransaction = applied.transaction;
+                    lastTransactionPosition = applied.positionAfter;
                 }
+                recoveryToPosition = endPosition;
             }
             catch ( Error | ClosedByInterruptException | DatabaseStartAbortedException e )
             {
@@ -164,6 +191,23 @@ public class TransactionLogsRecovery extends LifecycleAdapter
         monitor.recoveryCompleted( numberOfRecoveredTransactions, recoveryStartTime.elapsed( MILLISECONDS ) );
     }
 
+    /**
+     * Reports all but the {@code stillPending} last transactions as recovered.
+     *
+     * @return the last transaction that was reported, or {@code null} if none was.
+     */
+    private RecoveredTransaction transactionsApplied( Deque<RecoveredTransaction> unapplied, int stillPending )
+    {
+        RecoveredTransaction applied = null;
+        while ( unapplied.size() > stillPending )
+        {
+            applied = unapplied.poll();
+            monitor.transactionRecovered( applied.transaction.getCommitEntry().getTxId() );
+            numberOfRecoveredTransactions++;
+        }
+        return applied;
+    }
+
     private void initProgressReporter( RecoveryStartInformation recoveryStartInformation,
             CommittedTransactionRepresentation lastReversedTransaction )
     {
@@ -186,6 +230,18 @@ public class TransactionLogsRecovery extends LifecycleAdapter
                 recoveryStartInformation.getFirstTxIdAfterLastCheckPoint() + 1;
     }
 
+    private static class RecoveredTransaction
+    {
+        private final CommittedTransactionRepresentation transaction;
+        private final LogPosition positionAfter;
+
+        RecoveredTransaction( CommittedTransactionRepresentation transaction, LogPosition positionAfter )
+        {
+            this.transaction = transaction;
+            this.positionAfter = positionAfter;
+        }
+    }
+
     @Override
     public void start() throws Exception
     {
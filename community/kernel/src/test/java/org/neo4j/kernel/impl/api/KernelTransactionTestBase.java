@@ -35,6 +35,7 @@ import org.neo4j.collection.pool.Pool;
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.internal.index.label.LabelScanStore;
+import org.neo4j.internal.index.label.RelationshipTypeScanStore;
 import org.neo4j.internal.kernel.api.security.LoginContext;
 import org.neo4j.internal.kernel.api.security.SecurityContext;
 import org.neo4j.internal.schema.SchemaState;
@@ -45,6 +46,8 @@ import org.neo4j.kernel.availability.AvailabilityGuard;
 import org.neo4j.kernel.database.TestDatabaseIdRepository;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.index.stats.IndexStatisticsStore;
+import org.neo4j.kernel.impl.api.state.CreatedRelationships;
+import org.neo4j.kernel.impl.api.state.NodeLabelChanges;
 import org.neo4j.kernel.impl.constraints.StandardConstraintSemantics;
 import org.neo4j.kernel.impl.factory.CanWrite;
 import org.neo4j.kernel.impl.factory.GraphDatabaseFacade;
@@ -177,7 +180,7 @@ class KernelTransactionTestBase
                 new AtomicReference<>( HeapAllocation.NOT_AVAILABLE ), TransactionTracer.NULL, LockTracer.NONE, PageCursorTracerSupplier.NULL, storageEngine,
                 new CanWrite(), EmptyVersionContextSupplier.EMPTY, () -> collectionsFactory,
                 new StandardConstraintSemantics(), mock( SchemaState.class ), mockedTokenHolders(),
-                mock( IndexingService.class ), mock( LabelScanStore.class ), mock( IndexStatisticsStore.class ), dependencies,
+                mock( IndexingService.class ), mock( LabelScanStore.class ), mock( RelationshipTypeScanStore.class ), mock( IndexStatisticsStore.class ), dependencies,
                 new TestDatabaseIdRepository().defaultDatabase(), leaseService );
     }
 
@@ -216,6 +219,18 @@ class KernelTransactionTestBase
             return new LongObjectHashMap<>();
         }
 
+        @Override
+        public CreatedRelationships newCreatedRelationships()
+        {
+            return OnHeapCollectionsFactory.INSTANCE.newCreatedRelationships();
+        }
+
+        @Override
+        public NodeLabelChanges newNodeLabelChanges()
+        {
+            return OnHeapCollectionsFactory.INSTANCE.newNodeLabelChanges();
+        }
+
         @Override
         public MemoryTracker getMemoryTracker()
         {
@@ -373,7 +373,7 @@ class MultipleIndexPopulatorTest
 
         verify( indexPopulator2 ).close( true );
         verify( indexPopulator2 ).sampleResult();
-        verify( indexStatisticsStore ).replaceStats( anyLong(), anyLong(), anyLong(), anyLong() );
+        verify( indexStatisticsStore ).replaceStats( anyLong(), any( IndexSample.class ) );
         verify( schemaState ).clear();
     }
 
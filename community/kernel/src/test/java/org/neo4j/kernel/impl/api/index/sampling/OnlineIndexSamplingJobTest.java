@@ -75,7 +75,7 @@ class OnlineIndexSamplingJobTest
         job.run();
 
         // then
-        verify( indexStatisticsStore ).replaceStats( indexId, indexUniqueValues, indexSize, indexSize );
+        verify( indexStatisticsStore ).replaceStats( indexId, new IndexSample( indexSize, indexUniqueValues, indexSize ) );
         verifyNoMoreInteractions( indexStatisticsStore );
     }
 
@@ -26,6 +26,7 @@ import org.junit.jupiter.api.function.Executable;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.NoSuchFileException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicIntegerArray;
@@ -33,8 +34,11 @@ import java.util.function.Function;
 
 import org.neo4j.index.internal.gbptree.TreeFileNotFoundException;
 import org.neo4j.internal.helpers.Exceptions;
+import org.neo4j.internal.kernel.api.IndexHistogram;
+import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.index.IndexSample;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.register.Register.DoubleLongRegister;
 import org.neo4j.test.Race;
@@ -43,11 +47,14 @@ import org.neo4j.test.extension.pagecache.EphemeralPageCacheExtension;
 import org.neo4j.test.rule.TestDirectory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
 import static org.neo4j.register.Registers.newDoubleLongRegister;
 import static org.neo4j.test.Race.throwing;
+import static org.neo4j.values.storable.Values.intValue;
 
 @EphemeralPageCacheExtension
 class IndexStatisticsStoreTest
@@ -77,7 +84,7 @@ class IndexStatisticsStoreTest
     private IndexStatisticsStore openStore()
     {
         return lifeSupport.add(
-                new IndexStatisticsStore( pageCache, testDirectory.file( "stats" ), immediate(), false ) );
+                new IndexStatisticsStore( pageCache, testDirectory.getFileSystem(), testDirectory.file( "stats" ), immediate(), false ) );
     }
 
     @Test
@@ -118,6 +125,37 @@ class IndexStatisticsStoreTest
         assertRegister( 444, 555, store.indexUpdatesAndSize( indexId, newDoubleLongRegister() ) );
     }
 
+    @Test
+    void shouldKeepHistogramOfLatestSample()
+    {
+        // given
+        long indexId = 4;
+        IndexHistogram.Builder builder = IndexHistogram.builder();
+        builder.include( intValue( 1 ) );
+        builder.include( intValue( 2 ) );
+        IndexHistogram histogram = builder.build();
+
+        // when
+        store.replaceStats( indexId, new IndexSample( 2, 2, 2, histogram ) );
+
+        // then
+        assertSame( histogram, store.indexHistogram( indexId ) );
+        assertRegister( 2, 2, store.indexSample( indexId, newDoubleLongRegister() ) );
+
+        // and when
+        store.replaceStats( indexId, 3, 3, 3 );
+
+        // then
+        assertNull( store.indexHistogram( indexId ) );
+
+        // and when
+        store.replaceStats( indexId, new IndexSample( 2, 2, 2, histogram ) );
+        store.removeIndex( indexId );
+
+        // then
+        assertNull( store.indexHistogram( indexId ) );
+    }
+
     @Test
     void shouldIncrementIndexUpdates()
     {
@@ -151,6 +189,68 @@ class IndexStatisticsStoreTest
         assertRegister( 200, 300, store.indexSample( indexId2, newDoubleLongRegister() ) );
     }
 
+    @Test
+    void shouldStoreHistogramsOnCheckpoint() throws IOException
+    {
+        // given
+        long indexId1 = 1;
+        long indexId2 = 2;
+        long droppedIndexId = 3;
+        IndexHistogram.Builder builder = IndexHistogram.builder();
+        for ( int i = 0; i < 100; i++ )
+        {
+            builder.include( intValue( i % 4 ) );
+        }
+        IndexHistogram histogram = builder.build();
+        store.replaceStats( indexId1, new IndexSample( 100, 4, 100, histogram ) );
+        store.replaceStats( indexId2, 4, 4, 4 );
+        store.replaceStats( droppedIndexId, new IndexSample( 100, 4, 100, histogram ) );
+        store.removeIndex( droppedIndexId );
+
+        // when
+        restartStore();
+
+        // then
+        IndexHistogram restored = store.indexHistogram( indexId1 );
+        assertEquals( histogram.toString(), restored.toString() );
+        assertEquals( 0.25, restored.equalsSelectivity( intValue( 2 ) ).getAsDouble() );
+        assertNull( store.indexHistogram( indexId2 ) );
+        assertNull( store.indexHistogram( droppedIndexId ) );
+    }
+
+    @Test
+    void shouldIgnoreCorruptHistogramsFile() throws IOException
+    {
+        // given
+        long indexId = 1;
+        IndexHistogram.Builder builder = IndexHistogram.builder();
+        for ( int i = 0; i < 100; i++ )
+        {
+            builder.include( intValue( i % 4 ) );
+        }
+        store.replaceStats( indexId, new IndexSample( 100, 4, 100, builder.build() ) );
+        store.checkpoint( IOLimiter.UNLIMITED );
+        lifeSupport.shutdown();
+
+        // when the bucket count of the only histogram is overwritten with a negative number
+        File histogramsFile = new File( store.storeFile().getParentFile(), store.storeFile().getName() + ".histograms" );
+        try ( StoreChannel channel = testDirectory.getFileSystem().write( histogramsFile ) )
+        {
+            // format version, histogram count, index id, sample size, 'has numbers' flag, total, distinct, lowest, highest
+            channel.position( 4 + 4 + 8 + 8 + 1 + 4 * 8 );
+            ByteBuffer buffer = ByteBuffer.allocate( Integer.BYTES ).putInt( -1 );
+            buffer.flip();
+            channel.writeAll( buffer );
+        }
+        lifeSupport = new LifeSupport();
+        store = openStore();
+        lifeSupport.start();
+
+        // then
+        assertNull( store.indexHistogram( indexId ) );
+        assertRegister( 4, 100, store.indexSample( indexId, newDoubleLongRegister() ) );
+    }
+
     private void restartStore() throws IOException
     {
         store.checkpoint( IOLimiter.UNLIMITED );
@@ -229,7 +329,8 @@ class IndexStatisticsStoreTest
     @Test
     void shouldNotStartWithoutFileIfReadOnly()
     {
-        final IndexStatisticsStore indexStatisticsStore = new IndexStatisticsStore( pageCache, testDirectory.file( "non-existing" ), immediate(), true );
+        final IndexStatisticsStore indexStatisticsStore =
+                new IndexStatisticsStore( pageCache, testDirectory.getFileSystem(), testDirectory.file( "non-existing" ), immediate(), true );
         final Exception e = assertThrows( Exception.class, indexStatisticsStore::init );
         assertTrue( Exceptions.contains( e, t -> t instanceof NoSuchFileException ) );
         assertTrue( Exceptions.contains( e, t -> t instanceof TreeFileNotFoundException ) );
@@ -259,7 +360,7 @@ class IndexStatisticsStoreTest
         final File file = testDirectory.file( "existing" );
 
         // Create store
-        IndexStatisticsStore store = new IndexStatisticsStore( pageCache, file, immediate(), false );
+        IndexStatisticsStore store = new IndexStatisticsStore( pageCache, testDirectory.getFileSystem(), file, immediate(), false );
         try
         {
             store.init();
@@ -270,7 +371,7 @@ class IndexStatisticsStoreTest
         }
 
         // Start in readOnly mode
-        IndexStatisticsStore readOnlyStore = new IndexStatisticsStore( pageCache, file, immediate(), true );
+        IndexStatisticsStore readOnlyStore = new IndexStatisticsStore( pageCache, testDirectory.getFileSystem(), file, immediate(), true );
         try
         {
             readOnlyStore.init();
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.kernel.impl.util.collection.CachingOffHeapBlockAllocator;
+import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class OffHeapCreatedRelationshipsTest
+{
+    private final CachingOffHeapBlockAllocator blockAllocator = new CachingOffHeapBlockAllocator();
+    private final OffHeapCollectionsFactory collectionsFactory = new OffHeapCollectionsFactory( blockAllocator );
+    private final CreatedRelationships relationships = collectionsFactory.newCreatedRelationships();
+
+    @AfterEach
+    void afterEach()
+    {
+        collectionsFactory.release();
+        assertEquals( 0, collectionsFactory.getMemoryTracker().usedDirectMemory(), "Got memory leak" );
+        blockAllocator.release();
+    }
+
+    @Test
+    void shouldVisitRelationshipsAcrossChunks()
+    {
+        // GIVEN
+        int count = 10_000;
+        for ( int id = 0; id < count; id++ )
+        {
+            relationships.put( id, id % 7, id * 2L, Long.MAX_VALUE - id );
+        }
+
+        // THEN
+        for ( int id = 0; id < count; id++ )
+        {
+            int expectedId = id;
+            assertTrue( relationships.contains( id ) );
+            assertTrue( relationships.accept( id, ( relId, type, startNode, endNode ) ->
+            {
+                assertEquals( expectedId, relId );
+                assertEquals( expectedId % 7, type );
+                assertEquals( expectedId * 2L, startNode );
+                assertEquals( Long.MAX_VALUE - expectedId, endNode );
+            } ) );
+        }
+        assertFalse( relationships.contains( count ) );
+    }
+
+    @Test
+    void shouldNotVisitRemovedRelationship()
+    {
+        // GIVEN
+        relationships.put( 1, 2, 3, 4 );
+        relationships.put( 5, 6, 7, 8 );
+
+        // WHEN
+        relationships.remove( 1 );
+
+        // THEN
+        assertFalse( relationships.contains( 1 ) );
+        assertFalse( relationships.accept( 1, ( relId, type, startNode, endNode ) -> fail( "Should not visit removed relationship" ) ) );
+        assertTrue( relationships.contains( 5 ) );
+    }
+
+    @Test
+    void shouldNotBeUsableAfterRelease()
+    {
+        // GIVEN
+        relationships.put( 1, 2, 3, 4 );
+
+        // WHEN
+        collectionsFactory.release();
+
+        // THEN
+        assertThrows( IllegalStateException.class, () -> relationships.contains( 1 ) );
+    }
+}
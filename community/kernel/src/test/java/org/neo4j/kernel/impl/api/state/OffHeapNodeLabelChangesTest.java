@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import org.neo4j.kernel.impl.util.collection.CachingOffHeapBlockAllocator;
+import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
+import org.neo4j.storageengine.api.txstate.LongDiffSets;
+
+import static org.eclipse.collections.impl.set.mutable.primitive.LongHashSet.newSetWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.collection.PrimitiveLongCollections.count;
+import static org.neo4j.collection.PrimitiveLongCollections.toSet;
+
+class OffHeapNodeLabelChangesTest
+{
+    private final CachingOffHeapBlockAllocator blockAllocator = new CachingOffHeapBlockAllocator();
+    private final OffHeapCollectionsFactory collectionsFactory = new OffHeapCollectionsFactory( blockAllocator );
+    private final NodeLabelChanges labelChanges = collectionsFactory.newNodeLabelChanges();
+
+    @AfterEach
+    void afterEach()
+    {
+        collectionsFactory.release();
+        assertEquals( 0, collectionsFactory.getMemoryTracker().usedDirectMemory(), "Got memory leak" );
+        blockAllocator.release();
+    }
+
+    @Test
+    void shouldKeepLabelChangesAcrossChunks()
+    {
+        // GIVEN
+        int count = 10_000;
+        for ( int id = 0; id < count; id++ )
+        {
+            labelChanges.add( id, id % 7 );
+            labelChanges.add( id, 100 );
+            labelChanges.remove( id, 200 + id );
+        }
+
+        // THEN
+        for ( int id = 0; id < count; id++ )
+        {
+            assertTrue( labelChanges.contains( id ) );
+            LongDiffSets diffSets = labelChanges.get( id );
+            assertEquals( newSetWith( id % 7, 100 ), diffSets.getAdded() );
+            assertEquals( newSetWith( 200 + id ), diffSets.getRemoved() );
+        }
+        assertFalse( labelChanges.contains( count ) );
+        assertEquals( count, count( labelChanges.nodes() ) );
+    }
+
+    @Test
+    void shouldCancelOppositeChange()
+    {
+        // GIVEN
+        labelChanges.add( 1, 10 );
+        labelChanges.remove( 1, 20 );
+
+        // WHEN
+        labelChanges.remove( 1, 10 );
+        labelChanges.add( 1, 20 );
+        labelChanges.add( 1, 30 );
+        labelChanges.add( 1, 30 );
+
+        // THEN
+        LongDiffSets diffSets = labelChanges.get( 1 );
+        assertEquals( newSetWith( 30 ), diffSets.getAdded() );
+        assertTrue( diffSets.getRemoved().isEmpty() );
+    }
+
+    @Test
+    void shouldKeepLabelChangesLargerThanChunk()
+    {
+        // GIVEN
+        int labels = 10_000;
+        for ( int label = 0; label < labels; label++ )
+        {
+            labelChanges.add( 1, label );
+        }
+
+        // THEN
+        assertEquals( labels, labelChanges.get( 1 ).getAdded().size() );
+    }
+
+    @Test
+    void shouldChangeLabelsInPlace()
+    {
+        // GIVEN
+        labelChanges.add( 1, 10 );
+        labelChanges.remove( 1, 20 );
+        long usedMemory = collectionsFactory.getMemoryTracker().usedDirectMemory();
+
+        // WHEN
+        for ( int i = 0; i < 100_000; i++ )
+        {
+            labelChanges.add( 1, 30 );
+            labelChanges.remove( 1, 30 );
+            labelChanges.add( 1, 20 );
+            labelChanges.remove( 1, 20 );
+        }
+
+        // THEN
+        assertEquals( usedMemory, collectionsFactory.getMemoryTracker().usedDirectMemory() );
+        LongDiffSets diffSets = labelChanges.get( 1 );
+        assertEquals( newSetWith( 10 ), diffSets.getAdded() );
+        assertEquals( newSetWith( 20 ), diffSets.getRemoved() );
+    }
+
+    @Test
+    void shouldReuseSlotsOfClearedNodes()
+    {
+        // GIVEN
+        for ( int id = 0; id < 1_000; id++ )
+        {
+            labelChanges.add( id, 10 );
+        }
+        long usedMemory = collectionsFactory.getMemoryTracker().usedDirectMemory();
+
+        // WHEN
+        for ( int id = 0; id < 1_000; id++ )
+        {
+            labelChanges.clear( id );
+            labelChanges.add( id + 1_000, 10 );
+        }
+
+        // THEN
+        assertEquals( usedMemory, collectionsFactory.getMemoryTracker().usedDirectMemory() );
+        assertEquals( 1_000, count( labelChanges.nodes() ) );
+    }
+
+    @Test
+    void shouldReadLabelChangesThroughView()
+    {
+        // GIVEN
+        labelChanges.add( 1, 10 );
+        labelChanges.add( 1, 11 );
+        labelChanges.remove( 1, 20 );
+        LongDiffSets diffSets = labelChanges.get( 1 );
+
+        // THEN
+        assertTrue( diffSets.isAdded( 11 ) );
+        assertFalse( diffSets.isAdded( 20 ) );
+        assertTrue( diffSets.isRemoved( 20 ) );
+        assertFalse( diffSets.isRemoved( 10 ) );
+        assertEquals( 1, diffSets.delta() );
+        assertEquals( Set.of( 1L, 10L, 11L ), toSet( diffSets.augment( newSetWith( 1, 20 ).longIterator() ) ) );
+
+        // WHEN
+        labelChanges.add( 1, 20 );
+
+        // THEN
+        assertFalse( diffSets.isRemoved( 20 ) );
+        assertEquals( newSetWith( 10, 11 ), diffSets.getAdded() );
+        assertTrue( diffSets.getRemoved().isEmpty() );
+    }
+
+    @Test
+    void shouldForgetClearedNode()
+    {
+        // GIVEN
+        labelChanges.add( 1, 10 );
+        labelChanges.add( 2, 10 );
+
+        // WHEN
+        labelChanges.clear( 1 );
+
+        // THEN
+        assertFalse( labelChanges.contains( 1 ) );
+        assertTrue( labelChanges.get( 1 ).isEmpty() );
+        assertTrue( labelChanges.contains( 2 ) );
+    }
+
+    @Test
+    void shouldNotBeUsableAfterRelease()
+    {
+        // GIVEN
+        labelChanges.add( 1, 10 );
+
+        // WHEN
+        collectionsFactory.release();
+
+        // THEN
+        assertThrows( IllegalStateException.class, () -> labelChanges.contains( 1 ) );
+    }
+}
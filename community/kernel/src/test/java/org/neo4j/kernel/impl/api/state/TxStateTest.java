@@ -37,6 +37,8 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
@@ -59,6 +61,7 @@ import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
 import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
 import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSets;
 import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSetsImpl;
+import org.neo4j.storageengine.api.RelationshipVisitor;
 import org.neo4j.storageengine.api.StorageProperty;
 import org.neo4j.storageengine.api.txstate.DiffSets;
 import org.neo4j.storageengine.api.txstate.LongDiffSets;
@@ -71,6 +74,7 @@ import org.neo4j.values.storable.ValueTuple;
 import org.neo4j.values.storable.Values;
 
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static org.eclipse.collections.impl.set.mutable.primitive.LongHashSet.newSetWith;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
@@ -81,6 +85,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -656,6 +661,110 @@ abstract class TxStateTest
         assertFalse( state.relationshipIsDeletedInThisTx( relationshipId ) );
     }
 
+    @Test
+    void shouldVisitCreatedRelationshipsWithAndWithoutPropertyChanges() throws Exception
+    {
+        // Given
+        state.relationshipDoCreate( 1, 10, 100, 101 );
+        state.relationshipDoCreate( 2, 20, 200, 201 );
+        state.relationshipDoReplaceProperty( 2, 5, Values.NO_VALUE, stringValue( "value" ) );
+
+        // Then
+        assertCreatedRelationship( 1, 10, 100, 101 );
+        assertCreatedRelationship( 2, 20, 200, 201 );
+        List<Long> modifiedRelationships = new ArrayList<>();
+        state.modifiedRelationships().forEach( relationship -> modifiedRelationships.add( relationship.getId() ) );
+        assertEquals( singletonList( 2L ), modifiedRelationships );
+        assertFalse( state.relationshipVisit( 3, ( id, type, startNode, endNode ) -> fail( "Should not visit relationship that was not created" ) ) );
+    }
+
+    @Test
+    void shouldNotVisitCreatedRelationshipAfterItIsDeleted() throws Exception
+    {
+        // Given
+        state.relationshipDoCreate( 1, 10, 100, 101 );
+        state.relationshipDoReplaceProperty( 1, 5, Values.NO_VALUE, stringValue( "value" ) );
+
+        // When
+        state.relationshipDoDelete( 1, 10, 100, 101 );
+
+        // Then
+        assertFalse( state.relationshipVisit( 1, ( id, type, startNode, endNode ) -> fail( "Should not visit deleted relationship" ) ) );
+        assertFalse( state.getRelationshipState( 1 ).accept( ( id, type, startNode, endNode ) -> fail( "Should not visit deleted relationship" ) ) );
+    }
+
+    @Test
+    void relationshipDoCreate_useCollectionsFactory()
+    {
+        // When
+        for ( int i = 0; i < 100; i++ )
+        {
+            state.relationshipDoCreate( i, 1, i, i + 1 );
+        }
+
+        // Then
+        verify( collectionsFactory ).newCreatedRelationships();
+    }
+
+    @Test
+    void nodeDoAddLabel_useCollectionsFactory()
+    {
+        // When
+        for ( int i = 0; i < 100; i++ )
+        {
+            state.nodeDoAddLabel( 1, i );
+        }
+
+        // Then
+        verify( collectionsFactory ).newNodeLabelChanges();
+        verify( collectionsFactory, never() ).newValuesMap();
+    }
+
+    @Test
+    void shouldVisitLabelChangesOfNodesWithoutOtherChanges() throws Exception
+    {
+        // Given
+        state.nodeDoAddLabel( 1, 10 );
+        state.nodeDoAddProperty( 11, 5, stringValue( "value" ) );
+        state.nodeDoAddLabel( 2, 11 );
+        state.nodeDoRemoveLabel( 3, 12 );
+
+        // When
+        Map<Long,Pair<LongSet,LongSet>> labelChanges = new HashMap<>();
+        state.accept( new TxStateVisitor.Adapter()
+        {
+            @Override
+            public void visitNodeLabelChanges( long id, LongSet added, LongSet removed )
+            {
+                labelChanges.put( id, Pair.of( LongSets.immutable.withAll( added ), LongSets.immutable.withAll( removed ) ) );
+            }
+        } );
+
+        // Then
+        assertEquals( 3, labelChanges.size() );
+        assertEquals( Pair.of( newSetWith( 1 ), newSetWith() ), labelChanges.get( 10L ) );
+        assertEquals( Pair.of( newSetWith( 2 ), newSetWith() ), labelChanges.get( 11L ) );
+        assertEquals( Pair.of( newSetWith(), newSetWith( 3 ) ), labelChanges.get( 12L ) );
+        assertEquals( newSetWith( 1 ), state.getNodeState( 10 ).labelDiffSets().getAdded() );
+        assertEquals( 3, Iterators.count( state.modifiedNodes().iterator() ) );
+    }
+
+    @Test
+    void shouldForgetLabelChangesOfDeletedNode()
+    {
+        // Given
+        state.nodeDoAddLabel( 1, 10 );
+        state.nodeDoAddLabel( 2, 10 );
+
+        // When
+        state.nodeDoDelete( 10 );
+
+        // Then
+        assertTrue( state.nodeStateLabelDiffSets( 10 ).isEmpty() );
+        assertTrue( state.nodesWithLabelChanged( 1 ).isEmpty() );
+        assertFalse( state.modifiedNodes().iterator().hasNext() );
+    }
+
     @RepeatedTest( 100 )
     void shouldVisitCreatedNodesBeforeDeletedNodes() throws Exception
     {
@@ -965,6 +1074,19 @@ abstract class TxStateTest
         verifyNoMoreInteractions( collectionsFactory );
     }
 
+    private void assertCreatedRelationship( long relationshipId, int expectedType, long expectedStartNode, long expectedEndNode ) throws Exception
+    {
+        RelationshipVisitor<RuntimeException> visitor = ( id, type, startNode, endNode ) ->
+        {
+            assertEquals( relationshipId, id );
+            assertEquals( expectedType, type );
+            assertEquals( expectedStartNode, startNode );
+            assertEquals( expectedEndNode, endNode );
+        };
+        assertTrue( state.relationshipVisit( relationshipId, visitor ) );
+        assertTrue( state.getRelationshipState( relationshipId ).accept( visitor ) );
+    }
+
     private LongDiffSets addedNodes( long... added )
     {
         return new MutableLongDiffSetsImpl( LongSets.mutable.of( added ), LongSets.mutable.empty(), collectionsFactory );
@@ -26,6 +26,7 @@ import java.io.IOException;
 import org.neo4j.configuration.Config;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.internal.kernel.api.IndexHistogram;
 import org.neo4j.internal.schema.IndexDescriptor;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.kernel.api.index.IndexSample;
@@ -36,6 +37,8 @@ import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.ValueType;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.internal.schema.IndexPrototype.forSchema;
 import static org.neo4j.internal.schema.SchemaDescriptor.forLabel;
 import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
@@ -43,6 +46,7 @@ import static org.neo4j.kernel.impl.index.schema.ValueCreatorUtil.FRACTION_DUPLI
 import static org.neo4j.kernel.impl.index.schema.ValueCreatorUtil.countUniqueValues;
 import static org.neo4j.values.storable.RandomValues.typesOfGroup;
 import static org.neo4j.values.storable.ValueGroup.NUMBER;
+import static org.neo4j.values.storable.Values.doubleValue;
 
 public class FullScanNonUniqueIndexSamplerTest extends NativeIndexTestUtil<GenericKey,NativeIndexValue>
 {
@@ -70,6 +74,33 @@ public class FullScanNonUniqueIndexSamplerTest extends NativeIndexTestUtil<Gener
         assertEquals( values.length, sample.indexSize() );
     }
 
+    @Test
+    void shouldCollectValueDistributionOfAllValuesInTree() throws Exception
+    {
+        // GIVEN
+        Value[] values = generateNumberValues();
+        buildTree( values );
+
+        // WHEN
+        IndexSample sample;
+        try ( GBPTree<GenericKey,NativeIndexValue> gbpTree = getTree() )
+        {
+            FullScanNonUniqueIndexSampler<GenericKey,NativeIndexValue> sampler =
+                    new FullScanNonUniqueIndexSampler<>( gbpTree, layout );
+            sample = sampler.result();
+        }
+
+        // THEN
+        IndexHistogram histogram = sample.histogram();
+        assertNotNull( histogram );
+        assertEquals( values.length, histogram.sampleSize() );
+        assertEquals( 1d, histogram.rangeSelectivity( doubleValue( Double.NEGATIVE_INFINITY ), true, null, false ).getAsDouble(), 0.0001 );
+        for ( Value value : values )
+        {
+            assertTrue( histogram.equalsSelectivity( value ).getAsDouble() > 0 );
+        }
+    }
+
     private Value[] generateNumberValues()
     {
         ValueType[] numberTypes = RandomValues.including( t -> t.valueGroup == NUMBER );
@@ -188,6 +188,34 @@ class GenericKeyStateTest
         assertEquals( value, readValue, "deserialized values are not equal" );
     }
 
+    @ParameterizedTest
+    @MethodSource( "validValueGenerators" )
+    void readWhatIsWrittenPrefixOrdered( ValueGenerator valueGenerator )
+    {
+        // Given
+        PageCursor cursor = newPageCursor();
+        GenericKey writeState = newKeyState();
+        Value value = valueGenerator.next();
+        long entityId = random.nextLong( Long.MAX_VALUE );
+        int offset = cursor.getOffset();
+
+        // When
+        writeState.writeValue( value, NEUTRAL );
+        writeState.setEntityId( entityId );
+        writeState.putPrefixOrdered( cursor );
+
+        // Then
+        GenericKey readState = newKeyState();
+        int size = writeState.size();
+        assertEquals( offset + size, cursor.getOffset(), "written size differ from key size" );
+        cursor.setOffset( offset );
+        assertTrue( readState.getPrefixOrdered( cursor, size ), "failed to read" );
+        assertEquals( 0, readState.compareValueTo( writeState ), "key states are not equal" );
+        assertEquals( entityId, readState.getEntityId(), "entity ids are not equal" );
+        Value readValue = readState.asValue();
+        assertEquals( value, readValue, "deserialized values are not equal" );
+    }
+
     @ParameterizedTest
     @MethodSource( "validValueGenerators" )
     void copyShouldCopy( ValueGenerator valueGenerator )
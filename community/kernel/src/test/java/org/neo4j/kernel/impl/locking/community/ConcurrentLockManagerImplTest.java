@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.community;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.LongStream;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.ResourceTypes;
+import org.neo4j.test.Race;
+import org.neo4j.time.Clocks;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentLockManagerImplTest
+{
+    private static final int CONTESTANTS = 8;
+    private static final int RUNS = 2_000;
+    private static final int RESOURCES = 16;
+
+    @Test
+    void shouldAllowGetReadWriteLocks()
+    {
+        // given
+        LockResource node1 = new LockResource( ResourceTypes.NODE, 1L );
+        LockResource node2 = new LockResource( ResourceTypes.NODE, 2L );
+        LockTransaction lockTransaction = new LockTransaction();
+        LockManagerImpl lockManager = createLockManager();
+
+        // expect
+        assertTrue( lockManager.getReadLock( LockTracer.NONE, node1, lockTransaction ) );
+        assertTrue( lockManager.getReadLock( LockTracer.NONE, node2, lockTransaction ) );
+        assertTrue( lockManager.getWriteLock( LockTracer.NONE, node2, lockTransaction ) );
+
+        lockManager.releaseReadLock( node1, lockTransaction );
+        lockManager.releaseReadLock( node2, lockTransaction );
+        lockManager.releaseWriteLock( node2, lockTransaction );
+
+        assertEquals( 0, countLocks( lockManager ) );
+    }
+
+    @Test
+    void shouldNotBePossibleReleaseNotExistingLock()
+    {
+        // given
+        LockResource node1 = new LockResource( ResourceTypes.NODE, 1L );
+        LockTransaction lockTransaction = new LockTransaction();
+        LockManagerImpl lockManager = createLockManager();
+
+        var e = assertThrows( LockNotFoundException.class, () -> lockManager.releaseReadLock( node1, lockTransaction ) );
+        assertThat( e.getMessage(), startsWith( "Lock not found for: " ) );
+    }
+
+    @Test
+    void shouldCleanupNotUsedLocks()
+    {
+        // given
+        LockResource node = new LockResource( ResourceTypes.NODE, 1L );
+        LockTransaction lockTransaction = new LockTransaction();
+        LockManagerImpl lockManager = createLockManager();
+        lockManager.getWriteLock( LockTracer.NONE, node, lockTransaction );
+
+        // expect
+        assertTrue( lockManager.tryReadLock( node, lockTransaction ) );
+        assertEquals( 1, countLocks( lockManager ) );
+
+        // and when
+        lockManager.releaseWriteLock( node, lockTransaction );
+
+        // expect to see one old reader
+        assertEquals( 1, countLocks( lockManager ) );
+
+        // and when
+        lockManager.releaseReadLock( node, lockTransaction );
+
+        // no more locks left
+        assertEquals( 0, countLocks( lockManager ) );
+    }
+
+    @Test
+    void shouldKeepExclusiveLocksExclusiveUnderContention() throws Throwable
+    {
+        // given
+        LockManagerImpl lockManager = createLockManager();
+        Locks locks = new CommunityLockManger( lockManager );
+        AtomicIntegerArray holders = new AtomicIntegerArray( RESOURCES );
+        Race race = new Race();
+        race.addContestants( CONTESTANTS, () ->
+        {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            // always lock in the same order to not deadlock
+            long[] nodes = LongStream.of( random.nextLong( RESOURCES ), random.nextLong( RESOURCES ), random.nextLong( RESOURCES ) )
+                    .distinct().sorted().toArray();
+            try ( Locks.Client client = locks.newClient() )
+            {
+                for ( long node : nodes )
+                {
+                    if ( random.nextBoolean() )
+                    {
+                        client.acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, node );
+                        assertTrue( holders.compareAndSet( (int) node, 0, -1 ), "exclusive lock shared with another client" );
+                    }
+                    else
+                    {
+                        client.acquireShared( LockTracer.NONE, ResourceTypes.NODE, node );
+                        assertTrue( holders.getAndIncrement( (int) node ) >= 0, "shared lock given out while exclusively held" );
+                    }
+                }
+                for ( long node : nodes )
+                {
+                    if ( holders.get( (int) node ) == -1 )
+                    {
+                        holders.set( (int) node, 0 );
+                    }
+                    else
+                    {
+                        holders.decrementAndGet( (int) node );
+                    }
+                }
+            }
+        }, RUNS );
+
+        // when
+        race.go( 5, TimeUnit.MINUTES );
+
+        // then
+        assertEquals( 0, countLocks( lockManager ) );
+    }
+
+    @Test
+    void shouldDetectDeadlocksUnderContention() throws Throwable
+    {
+        // given
+        LockManagerImpl lockManager = createLockManager();
+        Locks locks = new CommunityLockManger( lockManager );
+        AtomicInteger deadlocks = new AtomicInteger();
+        Race race = new Race();
+        race.addContestants( CONTESTANTS, () ->
+        {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            try ( Locks.Client client = locks.newClient() )
+            {
+                // random order, an undetected deadlock makes the race time out
+                for ( int i = 0; i < 3; i++ )
+                {
+                    client.acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, random.nextLong( RESOURCES / 4 ) );
+                }
+            }
+            catch ( DeadlockDetectedException e )
+            {
+                deadlocks.incrementAndGet();
+            }
+        }, RUNS );
+
+        // when
+        race.go( 5, TimeUnit.MINUTES );
+
+        // then
+        assertTrue( deadlocks.get() > 0 );
+        assertEquals( 0, countLocks( lockManager ) );
+    }
+
+    private static LockManagerImpl createLockManager()
+    {
+        return new ConcurrentLockManagerImpl( new ConcurrentRagManager(), Config.defaults(), Clocks.systemClock() );
+    }
+
+    private static int countLocks( LockManagerImpl lockManager )
+    {
+        final int[] counter = new int[1];
+        lockManager.accept( element ->
+        {
+            counter[0]++;
+            return false;
+        } );
+        return counter[0];
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.community;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConcurrentRagManagerTest
+{
+    private final ConcurrentRagManager ragManager = new ConcurrentRagManager();
+
+    @Test
+    void shouldDetectDeadlockBetweenTwoTransactions()
+    {
+        // GIVEN
+        Object resource1 = "R1";
+        Object resource2 = "R2";
+        LockTransaction tx1 = new LockTransaction();
+        LockTransaction tx2 = new LockTransaction();
+        ragManager.lockAcquired( resource1, tx1 );
+        ragManager.lockAcquired( resource2, tx2 );
+        ragManager.checkWaitOn( resource2, tx1 );
+
+        // WHEN
+        DeadlockDetectedException e = assertThrows( DeadlockDetectedException.class, () -> ragManager.checkWaitOn( resource1, tx2 ) );
+
+        // THEN
+        assertThat( e.getMessage(), containsString( tx2 + " can't wait on resource " ) );
+        // the failed wait is not left behind in the graph
+        assertThrows( LockException.class, () -> ragManager.stopWaitOn( resource1, tx2 ) );
+    }
+
+    @Test
+    void shouldDetectDeadlockOfTwoReadersUpgradingToWriters()
+    {
+        // GIVEN
+        Object resource = "R1";
+        LockTransaction tx1 = new LockTransaction();
+        LockTransaction tx2 = new LockTransaction();
+        ragManager.lockAcquired( resource, tx1 );
+        ragManager.lockAcquired( resource, tx2 );
+
+        // WHEN
+        ragManager.checkWaitOn( resource, tx1 );
+
+        // THEN
+        assertThrows( DeadlockDetectedException.class, () -> ragManager.checkWaitOn( resource, tx2 ) );
+    }
+
+    @Test
+    void shouldDetectDeadlockThroughLongerCycle()
+    {
+        // GIVEN
+        LockTransaction[] txs = new LockTransaction[5];
+        for ( int i = 0; i < txs.length; i++ )
+        {
+            txs[i] = new LockTransaction();
+            ragManager.lockAcquired( "R" + i, txs[i] );
+        }
+        for ( int i = 0; i < txs.length - 1; i++ )
+        {
+            ragManager.checkWaitOn( "R" + (i + 1), txs[i] );
+        }
+
+        // WHEN/THEN
+        assertThrows( DeadlockDetectedException.class, () -> ragManager.checkWaitOn( "R0", txs[txs.length - 1] ) );
+    }
+
+    @Test
+    void shouldAllowWaitingAfterCycleIsBrokenByRelease()
+    {
+        // GIVEN
+        Object resource1 = "R1";
+        Object resource2 = "R2";
+        LockTransaction tx1 = new LockTransaction();
+        LockTransaction tx2 = new LockTransaction();
+        ragManager.lockAcquired( resource1, tx1 );
+        ragManager.lockAcquired( resource2, tx2 );
+        ragManager.checkWaitOn( resource2, tx1 );
+
+        // WHEN
+        ragManager.lockReleased( resource1, tx1 );
+        ragManager.lockAcquired( resource1, new LockTransaction() );
+
+        // THEN no deadlock, tx1 no longer holds what tx2 waits for
+        ragManager.checkWaitOn( resource1, tx2 );
+        ragManager.stopWaitOn( resource1, tx2 );
+        ragManager.stopWaitOn( resource2, tx1 );
+    }
+
+    @Test
+    void shouldFailOnInconsistentUsage()
+    {
+        LockTransaction tx = new LockTransaction();
+        assertThrows( LockException.class, () -> ragManager.lockReleased( "R1", tx ) );
+        assertThrows( LockException.class, () -> ragManager.checkWaitOn( "R1", tx ) );
+        assertThrows( LockException.class, () -> ragManager.stopWaitOn( "R1", tx ) );
+
+        ragManager.lockAcquired( "R1", new LockTransaction() );
+        assertThrows( LockException.class, () -> ragManager.lockReleased( "R1", tx ) );
+        ragManager.checkWaitOn( "R1", tx );
+        assertThrows( LockException.class, () -> ragManager.checkWaitOn( "R1", tx ) );
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.Flushable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.pagecache.IOLimiter;
+
+import static java.time.Duration.ofSeconds;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseSettings.check_point_iops_limit;
+import static org.neo4j.io.pagecache.IOLimiter.INITIAL_STAMP;
+
+class ConfigurableIOLimiterTest
+{
+    private static final Flushable FLUSHABLE = () -> {};
+
+    private final AtomicLong pauseNanosCounter = new AtomicLong();
+    private Config config;
+    private ConfigurableIOLimiter limiter;
+
+    private void createIOLimiter( int limit )
+    {
+        config = Config.defaults( check_point_iops_limit, limit );
+        limiter = new ConfigurableIOLimiter( config, ( blocker, nanos ) -> pauseNanosCounter.addAndGet( nanos ) );
+    }
+
+    private long repeatedlyCallMaybeLimitIO( IOLimiter ioLimiter, long stamp, int iosPerIteration )
+    {
+        for ( int i = 0; i < 10; i++ )
+        {
+            stamp = ioLimiter.maybeLimitIO( stamp, iosPerIteration, FLUSHABLE );
+        }
+        return stamp;
+    }
+
+    @Test
+    void mustNotLimitWhenLimitIsNegative()
+    {
+        createIOLimiter( -1 );
+        assertFalse( limiter.isLimited() );
+        assertEquals( INITIAL_STAMP, repeatedlyCallMaybeLimitIO( limiter, INITIAL_STAMP, 1000 ) );
+        assertEquals( 0, pauseNanosCounter.get() );
+    }
+
+    @Test
+    void mustPauseWhenIOCapacityOfQuantumIsExhausted()
+    {
+        // 100 IOPS is 10 IOs per 100 ms quantum.
+        createIOLimiter( 100 );
+        assertTrue( limiter.isLimited() );
+        repeatedlyCallMaybeLimitIO( limiter, INITIAL_STAMP, 10 );
+        assertTrue( pauseNanosCounter.get() > 0 );
+        assertTrue( limiter.throttleCount() > 0 );
+    }
+
+    @Test
+    void mustNotPauseWhileLimitIsDisabled()
+    {
+        createIOLimiter( 100 );
+        limiter.disableLimit();
+        try
+        {
+            assertFalse( limiter.isLimited() );
+            repeatedlyCallMaybeLimitIO( limiter, INITIAL_STAMP, 10 );
+            assertEquals( 0, pauseNanosCounter.get() );
+        }
+        finally
+        {
+            limiter.enableLimit();
+        }
+        assertTrue( limiter.isLimited() );
+    }
+
+    @Test
+    void mustFollowDynamicConfigurationChanges()
+    {
+        createIOLimiter( -1 );
+        repeatedlyCallMaybeLimitIO( limiter, INITIAL_STAMP, 10 );
+        assertEquals( 0, pauseNanosCounter.get() );
+
+        config.setDynamic( check_point_iops_limit, 100, getClass().getSimpleName() );
+        assertTrue( limiter.isLimited() );
+        repeatedlyCallMaybeLimitIO( limiter, INITIAL_STAMP, 10 );
+        assertTrue( pauseNanosCounter.get() > 0 );
+
+        config.setDynamic( check_point_iops_limit, -1, getClass().getSimpleName() );
+        assertFalse( limiter.isLimited() );
+    }
+
+    @Test
+    void mustBackOffWhileForegroundIOIsInProgress()
+    {
+        // With a high limit, the quantum is never exhausted, so any pause must come from backing off.
+        createIOLimiter( 100_000 );
+        limiter.maybeLimitIO( INITIAL_STAMP, 1, FLUSHABLE );
+        assertEquals( 0, pauseNanosCounter.get() );
+
+        limiter.beginForegroundIO();
+        try
+        {
+            limiter.maybeLimitIO( INITIAL_STAMP, 1, FLUSHABLE );
+            assertTrue( pauseNanosCounter.get() > 0 );
+        }
+        finally
+        {
+            limiter.endForegroundIO();
+        }
+
+        long pausedNanos = pauseNanosCounter.get();
+        limiter.maybeLimitIO( INITIAL_STAMP, 1, FLUSHABLE );
+        assertEquals( pausedNanos, pauseNanosCounter.get() );
+    }
+
+    @Test
+    void checkpointMustFinishAtConfiguredRateUnderContinuousForegroundIO()
+    {
+        // 10000 IOPS is 1000 IOs per 100 ms quantum, so a flush of 1000 IOs should take about 100 ms. Backing off for a whole
+        // quantum on every IO while commits keep forcing the log would instead stretch it out to 100 seconds.
+        ConfigurableIOLimiter limiter = new ConfigurableIOLimiter( Config.defaults( check_point_iops_limit, 10_000 ) );
+        limiter.beginForegroundIO();
+        try
+        {
+            assertTimeoutPreemptively( ofSeconds( 10 ), () ->
+            {
+                long stamp = INITIAL_STAMP;
+                for ( int i = 0; i < 1000; i++ )
+                {
+                    stamp = limiter.maybeLimitIO( stamp, 1, FLUSHABLE );
+                }
+            } );
+        }
+        finally
+        {
+            limiter.endForegroundIO();
+        }
+        assertTrue( limiter.throttleCount() > 0 );
+    }
+}
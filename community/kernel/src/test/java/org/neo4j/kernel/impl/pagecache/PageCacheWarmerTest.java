@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.logging.NullLog;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_profiling_enabled;
+import static org.neo4j.configuration.GraphDatabaseSettings.read_only;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+@TestDirectoryExtension
+class PageCacheWarmerTest
+{
+    private static final int PAGE_SIZE = 4096;
+    private static final int PAGE_COUNT = 100;
+
+    @Inject
+    private TestDirectory testDirectory;
+
+    private FileSystemAbstraction fs;
+    private ThreadPoolJobScheduler jobScheduler;
+    private File databaseDirectory;
+    private File file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        fs = new DefaultFileSystemAbstraction();
+        jobScheduler = new ThreadPoolJobScheduler();
+        databaseDirectory = testDirectory.directory( "db" );
+        file = new File( databaseDirectory, "store" );
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, jobScheduler );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, CREATE );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( int i = 0; i < PAGE_COUNT; i++ )
+            {
+                assertTrue( cursor.next() );
+                cursor.putInt( i );
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        jobScheduler.close();
+        fs.close();
+    }
+
+    @Test
+    void mustReloadProfiledPagesAfterRestart() throws Exception
+    {
+        Config config = Config.defaults();
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, jobScheduler );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            readPages( pagedFile, 10, 20 );
+            readPages( pagedFile, 50, 60 );
+            new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, config, NullLog.getInstance() ).profile();
+        }
+
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, jobScheduler );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, config, NullLog.getInstance() );
+            assertEquals( 20, warmer.warmUp() );
+            for ( long pageId = 0; pageId < PAGE_COUNT; pageId++ )
+            {
+                boolean expectedResident = (pageId >= 10 && pageId < 20) || (pageId >= 50 && pageId < 60);
+                assertEquals( expectedResident, isResident( pagedFile, pageId ), "page " + pageId );
+            }
+        }
+    }
+
+    @Test
+    void mustNotProfileFilesOutsideDatabaseDirectory() throws Exception
+    {
+        File otherFile = new File( testDirectory.directory( "other" ), "store" );
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, jobScheduler );
+              PagedFile pagedFile = pageCache.map( otherFile, PAGE_SIZE, CREATE ) )
+        {
+            readPages( pagedFile, 0, 1 );
+            new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, Config.defaults(), NullLog.getInstance() ).profile();
+        }
+        assertFalse( fs.fileExists( new File( databaseDirectory, PageCacheWarmer.PROFILE_DIRECTORY ) ) );
+    }
+
+    @Test
+    void mustWriteProfileWhenStopped() throws Exception
+    {
+        assertTrue( profileWrittenByLifecycle( Config.defaults() ) );
+    }
+
+    @Test
+    void mustNotWriteProfilesWhenReadOnly() throws Exception
+    {
+        assertFalse( profileWrittenByLifecycle( Config.defaults( read_only, true ) ) );
+    }
+
+    @Test
+    void mustNotWriteProfilesWhenProfilingIsDisabled() throws Exception
+    {
+        assertFalse( profileWrittenByLifecycle( Config.defaults( pagecache_warmup_profiling_enabled, false ) ) );
+    }
+
+    @Test
+    void mustPrefetchWholeFilesWhenPrefetchIsEnabled() throws Exception
+    {
+        Config config = Config.defaults( pagecache_warmup_prefetch, true );
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, jobScheduler );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, config, NullLog.getInstance() );
+            assertEquals( PAGE_COUNT, warmer.warmUp() );
+            for ( long pageId = 0; pageId < PAGE_COUNT; pageId++ )
+            {
+                assertTrue( isResident( pagedFile, pageId ), "page " + pageId );
+            }
+        }
+    }
+
+    private boolean profileWrittenByLifecycle( Config config ) throws IOException
+    {
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, jobScheduler );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            readPages( pagedFile, 0, 10 );
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, config, NullLog.getInstance() );
+            warmer.start();
+            warmer.stop();
+        }
+        return fs.fileExists( new File( databaseDirectory, PageCacheWarmer.PROFILE_DIRECTORY ) );
+    }
+
+    private static void readPages( PagedFile pagedFile, long fromPageId, long toPageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( fromPageId, PF_SHARED_READ_LOCK ) )
+        {
+            for ( long pageId = fromPageId; pageId < toPageId; pageId++ )
+            {
+                assertTrue( cursor.next() );
+            }
+        }
+    }
+
+    private static boolean isResident( PagedFile pagedFile, long pageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+        {
+            return cursor.next() && cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID;
+        }
+    }
+}
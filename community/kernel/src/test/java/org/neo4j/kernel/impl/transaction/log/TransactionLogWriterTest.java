@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.api.TestCommand;
+import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.CommandCompression;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.kernel.impl.transaction.log.entry.SerializedCommands;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
+
+class TransactionLogWriterTest
+{
+    @Test
+    void shouldWriteSameBytesForSerializedCommands() throws IOException
+    {
+        // GIVEN
+        List<StorageCommand> commands = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ )
+        {
+            // large enough to make the serialized commands outgrow their initial buffer
+            commands.add( new TestCommand( i * 10 ) );
+        }
+        PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( commands, new byte[]{1, 2, 3}, 4, 5, 6, 7 );
+        InMemoryClosableChannel directChannel = new InMemoryClosableChannel( 1 << 20 );
+        InMemoryClosableChannel serializedChannel = new InMemoryClosableChannel( 1 << 20 );
+
+        // WHEN
+        int directChecksum = new TransactionLogWriter( new LogEntryWriter( directChannel ) ).append( transaction, 42, BASE_TX_CHECKSUM );
+        SerializedCommands serializedCommands = SerializedCommands.serialize( transaction );
+        int serializedChecksum = new TransactionLogWriter( new LogEntryWriter( serializedChannel ) )
+                .append( transaction, serializedCommands, 42, BASE_TX_CHECKSUM );
+
+        // THEN
+        assertEquals( directChecksum, serializedChecksum );
+        assertArrayEquals( writtenBytes( directChannel ), writtenBytes( serializedChannel ) );
+    }
+
+    @Test
+    void shouldWriteTransactionWithoutCommands() throws IOException
+    {
+        // GIVEN
+        TransactionRepresentation transaction = new PhysicalTransactionRepresentation( new ArrayList<>(), new byte[0], 1, 2, 3, 4 );
+        InMemoryClosableChannel directChannel = new InMemoryClosableChannel();
+        InMemoryClosableChannel serializedChannel = new InMemoryClosableChannel();
+
+        // WHEN
+        SerializedCommands serializedCommands = SerializedCommands.serialize( transaction );
+        int directChecksum = new TransactionLogWriter( new LogEntryWriter( directChannel ) ).append( transaction, 2, BASE_TX_CHECKSUM );
+        int serializedChecksum = new TransactionLogWriter( new LogEntryWriter( serializedChannel ) )
+                .append( transaction, serializedCommands, 2, BASE_TX_CHECKSUM );
+
+        // THEN
+        assertEquals( 0, serializedCommands.size() );
+        assertEquals( directChecksum, serializedChecksum );
+        assertArrayEquals( writtenBytes( directChannel ), writtenBytes( serializedChannel ) );
+    }
+
+    @Test
+    void shouldReadBackCompressedCommands() throws IOException
+    {
+        // GIVEN
+        assumeTrue( CommandCompression.isAvailable() );
+        PhysicalTransactionRepresentation transaction = transactionWithCommands( 100 );
+        InMemoryClosableChannel directChannel = new InMemoryClosableChannel( 1 << 20 );
+        InMemoryClosableChannel compressedChannel = new InMemoryClosableChannel( 1 << 20 );
+
+        // WHEN
+        int directChecksum = new TransactionLogWriter( new LogEntryWriter( directChannel ) ).append( transaction, 42, BASE_TX_CHECKSUM );
+        SerializedCommands compressedCommands = SerializedCommands.serialize( transaction, true );
+        int compressedChecksum = new TransactionLogWriter( new LogEntryWriter( compressedChannel ) )
+                .append( transaction, compressedCommands, 42, BASE_TX_CHECKSUM );
+
+        // THEN
+        assertTrue( compressedCommands.size() < SerializedCommands.serialize( transaction ).size() );
+        assertTrue( compressedChannel.writerPosition() < directChannel.writerPosition() );
+        LogEntryReader reader = new VersionAwareLogEntryReader( new TestCommandReaderFactory() );
+        LogEntryStart start = (LogEntryStart) reader.readLogEntry( compressedChannel );
+        assertArrayEquals( transaction.additionalHeader(), start.getAdditionalHeader() );
+        List<StorageCommand> readCommands = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ )
+        {
+            readCommands.add( ((LogEntryCommand) reader.readLogEntry( compressedChannel )).getCommand() );
+        }
+        assertEquals( commandsOf( transaction ), readCommands );
+        LogEntryCommit commit = (LogEntryCommit) reader.readLogEntry( compressedChannel );
+        assertEquals( 42, commit.getTxId() );
+        assertEquals( compressedChecksum, commit.getChecksum() );
+        assertNull( reader.readLogEntry( compressedChannel ) );
+    }
+
+    @Test
+    void shouldNotCompressSmallTransactions() throws IOException
+    {
+        // GIVEN
+        PhysicalTransactionRepresentation transaction = transactionWithCommands( 1 );
+
+        // WHEN
+        SerializedCommands commands = SerializedCommands.serialize( transaction, true );
+
+        // THEN
+        assertEquals( SerializedCommands.serialize( transaction ).size(), commands.size() );
+    }
+
+    @Test
+    void shouldNotSerializeCommandsLargerThanMaxSize() throws IOException
+    {
+        // GIVEN
+        PhysicalTransactionRepresentation transaction = transactionWithCommands( 100 );
+        int size = SerializedCommands.serialize( transaction ).size();
+
+        // WHEN
+        SerializedCommands tooLarge = SerializedCommands.serialize( transaction, false, size - 1 );
+        SerializedCommands largeEnough = SerializedCommands.serialize( transaction, false, size );
+
+        // THEN
+        assertNull( tooLarge );
+        assertEquals( size, largeEnough.size() );
+    }
+
+    private static PhysicalTransactionRepresentation transactionWithCommands( int count )
+    {
+        List<StorageCommand> commands = new ArrayList<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            commands.add( new TestCommand( i * 10 ) );
+        }
+        return new PhysicalTransactionRepresentation( commands, new byte[]{1, 2, 3}, 4, 5, 6, 7 );
+    }
+
+    private static List<StorageCommand> commandsOf( TransactionRepresentation transaction ) throws IOException
+    {
+        List<StorageCommand> commands = new ArrayList<>();
+        transaction.accept( command ->
+        {
+            commands.add( command );
+            return false;
+        } );
+        return commands;
+    }
+
+    private static byte[] writtenBytes( InMemoryClosableChannel channel ) throws IOException
+    {
+        byte[] bytes = new byte[channel.writerPosition()];
+        channel.get( bytes, bytes.length );
+        return bytes;
+    }
+}
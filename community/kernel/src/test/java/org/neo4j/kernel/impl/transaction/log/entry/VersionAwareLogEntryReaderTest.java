@@ -61,7 +61,7 @@ class VersionAwareLogEntryReaderTest
     void shouldReadACommitLogEntry() throws IOException
     {
         // given
-        final LogEntryCommit commit = new LogEntryCommit( LATEST_VERSION, 42, 21, 2039335142 );
+        final LogEntryCommit commit = new LogEntryCommit( LATEST_VERSION, 42, 21, 1748422299 );
         final InMemoryClosableChannel channel = new InMemoryClosableChannel();
 
         writeCommitEntry( channel, commit );
@@ -130,6 +130,26 @@ class VersionAwareLogEntryReaderTest
         assertNull( logEntry );
     }
 
+    @Test
+    void shouldRejectCorruptCompressedCommandsLengths()
+    {
+        assertThrows( IOException.class, () -> readCompressedCommandsEntry( 1000, -1 ) );
+        assertThrows( IOException.class, () -> readCompressedCommandsEntry( -1, 10 ) );
+        assertThrows( IOException.class, () -> readCompressedCommandsEntry( 1000, Integer.MAX_VALUE ) );
+        assertThrows( IOException.class, () -> readCompressedCommandsEntry( Integer.MAX_VALUE, 10 ) );
+    }
+
+    private LogEntry readCompressedCommandsEntry( int uncompressedLength, int compressedLength ) throws IOException
+    {
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        channel.put( LATEST_VERSION.version() );
+        channel.put( LogEntryByteCodes.COMPRESSED_COMMANDS );
+        channel.putInt( uncompressedLength );
+        channel.putInt( compressedLength );
+        channel.put( new byte[10], 10 );
+        return logEntryReader.readLogEntry( channel );
+    }
+
     @Test
     void shouldReturnNullWhenNotEnoughDataInTheChannel() throws IOException
     {
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ReadAheadTransactionCursorTest
+{
+    private final ThreadPoolJobScheduler scheduler = new ThreadPoolJobScheduler();
+
+    @AfterEach
+    void tearDown()
+    {
+        scheduler.close();
+    }
+
+    @Test
+    void shouldReturnTransactionsAndPositionsInLogOrder() throws IOException
+    {
+        // GIVEN
+        CountingCursor source = new CountingCursor( 100, -1 );
+
+        // WHEN
+        try ( TransactionCursor cursor = new ReadAheadTransactionCursor( source, 4, scheduler ) )
+        {
+            // THEN
+            assertEquals( positionAfter( 0 ), cursor.position() );
+            for ( int i = 1; i <= 100; i++ )
+            {
+                assertTrue( cursor.next() );
+                assertSame( source.transactions[i - 1], cursor.get() );
+                assertEquals( positionAfter( i ), cursor.position() );
+            }
+            assertFalse( cursor.next() );
+            assertFalse( cursor.next() );
+            assertEquals( positionAfter( 100 ), cursor.position() );
+        }
+        assertTrue( source.closed );
+    }
+
+    @Test
+    void shouldFailAfterTransactionsPrecedingSourceFailure() throws IOException
+    {
+        // GIVEN
+        CountingCursor source = new CountingCursor( 100, 10 );
+
+        // WHEN
+        try ( TransactionCursor cursor = new ReadAheadTransactionCursor( source, 4, scheduler ) )
+        {
+            for ( int i = 1; i <= 10; i++ )
+            {
+                assertTrue( cursor.next() );
+            }
+
+            // THEN
+            IOException failure = assertThrows( IOException.class, cursor::next );
+            assertEquals( "Failed to read transaction 11", failure.getMessage() );
+            assertEquals( positionAfter( 10 ), cursor.position() );
+            assertFalse( cursor.next() );
+        }
+        assertTrue( source.closed );
+    }
+
+    @Test
+    void shouldCloseWithoutExhaustingSource() throws IOException
+    {
+        // GIVEN
+        CountingCursor source = new CountingCursor( 1_000, -1 );
+        TransactionCursor cursor = new ReadAheadTransactionCursor( source, 1, scheduler );
+        assertTrue( cursor.next() );
+
+        // WHEN
+        cursor.close();
+
+        // THEN
+        assertTrue( source.closed );
+        assertTrue( source.read < 1_000 );
+    }
+
+    private static LogPosition positionAfter( long transactions )
+    {
+        return new LogPosition( 0, 100 * transactions );
+    }
+
+    private static class CountingCursor implements TransactionCursor
+    {
+        private final CommittedTransactionRepresentation[] transactions;
+        private final int failAfter;
+        private volatile int read;
+        private volatile boolean closed;
+
+        CountingCursor( int count, int failAfter )
+        {
+            this.transactions = new CommittedTransactionRepresentation[count];
+            for ( int i = 0; i < count; i++ )
+            {
+                transactions[i] = mock( CommittedTransactionRepresentation.class );
+            }
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            if ( read == failAfter )
+            {
+                throw new IOException( "Failed to read transaction " + (read + 1) );
+            }
+            if ( read == transactions.length )
+            {
+                return false;
+            }
+            read++;
+            return true;
+        }
+
+        @Override
+        public CommittedTransactionRepresentation get()
+        {
+            return transactions[read - 1];
+        }
+
+        @Override
+        public LogPosition position()
+        {
+            return positionAfter( read );
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
@@ -82,6 +82,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -429,6 +430,53 @@ class TransactionLogsRecoveryTest
         assertEquals( marker.getByteOffset(), lastClosedTransaction[2] );
     }
 
+    @Test
+    void shouldNotTruncateAfterTransactionsThatFailedToApply() throws Exception
+    {
+        // GIVEN
+        File file = logFiles.getLogFileForVersion( logVersion );
+        final LogPositionMarker marker = new LogPositionMarker();
+        writeSomeData( file, pair ->
+        {
+            LogEntryWriter writer = pair.first();
+            Consumer<LogPositionMarker> consumer = pair.other();
+
+            // two transactions that will be applied as one batch
+            consumer.accept( marker );
+            int previousChecksum = BASE_TX_CHECKSUM;
+            writer.writeStartEntry( 2L, 3L, previousChecksum, new byte[0] );
+            previousChecksum = writer.writeCommitEntry( 4L, 5L );
+            writer.writeStartEntry( 6L, 4L, previousChecksum, new byte[0] );
+            writer.writeCommitEntry( 5L, 7L );
+
+            return true;
+        } );
+        StorageEngine storageEngine = mock( StorageEngine.class );
+        doThrow( new IOException( "Failed to apply" ) ).when( storageEngine ).apply( any(), eq( TransactionApplicationMode.RECOVERY ) );
+        RecoveryMonitor monitor = mock( RecoveryMonitor.class );
+
+        // WHEN
+        LifeSupport life = new LifeSupport();
+        try
+        {
+            final LogEntryReader reader = logEntryReader();
+            LogicalTransactionStore txStore = new PhysicalLogicalTransactionStore( logFiles, new TransactionMetadataCache(), reader, monitors, false );
+            life.add( new TransactionLogsRecovery( new DefaultRecoveryService( storageEngine, getTailScanner( logFiles, reader ), transactionIdStore,
+                    txStore, versionRepository, logFiles, NO_MONITOR, mock( Log.class ) ),
+                    new CorruptedLogsTruncator( storeDir, logFiles, fileSystem ), schemaLife, monitor, ProgressReporter.SILENT, false, EMPTY_CHECKER ) );
+            life.start();
+        }
+        finally
+        {
+            life.shutdown();
+        }
+
+        // THEN neither transaction made it into the store, so the log must be kept from the first of them
+        verify( monitor, never() ).transactionRecovered( anyLong() );
+        verify( monitor ).failToRecoverTransactionsAfterPosition( any(), any() );
+        assertEquals( marker.getByteOffset(), file.length() );
+    }
+
     @Test
     void shouldInitSchemaLifeWhenRecoveryNotRequired() throws Exception
     {
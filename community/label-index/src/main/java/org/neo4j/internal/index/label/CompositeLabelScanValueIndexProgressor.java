@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.index.label;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.neo4j.graphdb.Resource;
+import org.neo4j.index.internal.gbptree.Seeker;
+import org.neo4j.internal.kernel.api.AutoCloseablePlus;
+import org.neo4j.kernel.api.index.IndexProgressor;
+
+/**
+ * {@link IndexProgressor} which steps over the {@link LabelScanValue} of several labels in lock step, combining the bit sets of
+ * each node id range before handing out node ids. Combining is done either as an intersection, i.e. nodes having all the labels,
+ * or as a union, i.e. nodes having any of the labels.
+ * <p>
+ * Since ranges are ordered per label in the tree, an intersection can skip ranges which are not present for all labels without
+ * looking at any bits, and a union visits each range exactly once regardless of how many labels have it.
+ */
+public class CompositeLabelScanValueIndexProgressor implements IndexProgressor, Resource
+{
+    private static final long EXHAUSTED = -1;
+
+    private final Seeker<LabelScanKey,LabelScanValue>[] cursors;
+    private final NodeLabelClient client;
+    private final boolean intersection;
+    /**
+     * {@link LabelScanKey#idRange} of the current {@link LabelScanValue} for each cursor, or {@link #EXHAUSTED}.
+     */
+    private final long[] ranges;
+    /**
+     * Bit set of the current {@link LabelScanValue} for each cursor.
+     */
+    private final long[] rangeBits;
+    /**
+     * Base node id of the current combined range.
+     */
+    private long baseNodeId;
+    /**
+     * Combined bit set of the current range.
+     */
+    private long bits;
+    private boolean initialized;
+    private boolean closed;
+
+    @SuppressWarnings( "unchecked" )
+    CompositeLabelScanValueIndexProgressor( List<Seeker<LabelScanKey,LabelScanValue>> cursors, NodeLabelClient client, boolean intersection )
+    {
+        this.cursors = cursors.toArray( new Seeker[0] );
+        this.client = client;
+        this.intersection = intersection;
+        this.ranges = new long[this.cursors.length];
+        this.rangeBits = new long[this.cursors.length];
+    }
+
+    @Override
+    public boolean next()
+    {
+        if ( !initialized )
+        {
+            initialized = true;
+            for ( int i = 0; i < cursors.length; i++ )
+            {
+                advance( i );
+            }
+        }
+        for ( ; ; )
+        {
+            while ( bits != 0 )
+            {
+                int delta = Long.numberOfTrailingZeros( bits );
+                bits &= bits - 1;
+                if ( client.acceptNode( baseNodeId + delta, null ) )
+                {
+                    return true;
+                }
+            }
+            if ( closed || !(intersection ? nextIntersection() : nextUnion()) )
+            {
+                close();
+                return false;
+            }
+        }
+    }
+
+    private boolean nextIntersection()
+    {
+        for ( ; ; )
+        {
+            long highest = EXHAUSTED;
+            for ( long range : ranges )
+            {
+                if ( range == EXHAUSTED )
+                {
+                    return false;
+                }
+                highest = Math.max( highest, range );
+            }
+
+            boolean aligned = true;
+            for ( int i = 0; i < cursors.length; i++ )
+            {
+                while ( ranges[i] != EXHAUSTED && ranges[i] < highest )
+                {
+                    advance( i );
+                }
+                if ( ranges[i] != highest )
+                {
+                    aligned = false;
+                }
+            }
+            if ( !aligned )
+            {
+                continue;
+            }
+
+            long combined = -1L;
+            for ( int i = 0; i < cursors.length; i++ )
+            {
+                combined &= rangeBits[i];
+                advance( i );
+            }
+            if ( combined != 0 )
+            {
+                baseNodeId = highest * LabelScanValue.RANGE_SIZE;
+                bits = combined;
+                return true;
+            }
+        }
+    }
+
+    private boolean nextUnion()
+    {
+        long lowest = Long.MAX_VALUE;
+        for ( long range : ranges )
+        {
+            if ( range != EXHAUSTED )
+            {
+                lowest = Math.min( lowest, range );
+            }
+        }
+        if ( lowest == Long.MAX_VALUE )
+        {
+            return false;
+        }
+
+        long combined = 0;
+        for ( int i = 0; i < cursors.length; i++ )
+        {
+            if ( ranges[i] == lowest )
+            {
+                combined |= rangeBits[i];
+                advance( i );
+            }
+        }
+        baseNodeId = lowest * LabelScanValue.RANGE_SIZE;
+        bits = combined;
+        return true;
+    }
+
+    private void advance( int i )
+    {
+        try
+        {
+            if ( cursors[i].next() )
+            {
+                ranges[i] = cursors[i].key().idRange;
+                rangeBits[i] = cursors[i].value().bits;
+            }
+            else
+            {
+                ranges[i] = EXHAUSTED;
+                rangeBits[i] = 0;
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if ( !closed )
+        {
+            closed = true;
+            IOException failure = null;
+            for ( Seeker<LabelScanKey,LabelScanValue> cursor : cursors )
+            {
+                try
+                {
+                    cursor.close();
+                }
+                catch ( IOException e )
+                {
+                    if ( failure == null )
+                    {
+                        failure = e;
+                    }
+                    else
+                    {
+                        failure.addSuppressed( e );
+                    }
+                }
+            }
+            if ( client instanceof AutoCloseablePlus )
+            {
+                ((AutoCloseablePlus) client).close();
+            }
+            if ( failure != null )
+            {
+                throw new UncheckedIOException( failure );
+            }
+        }
+    }
+}
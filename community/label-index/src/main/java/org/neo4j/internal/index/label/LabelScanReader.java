@@ -44,6 +44,22 @@ public interface LabelScanReader
      */
     LabelScan nodeLabelScan( int labelId );
 
+    /**
+     * Sets the client up for a scan over nodes having all of the given labels. The label bit sets are intersected range by range
+     * in the store, so only nodes having every one of the labels are handed to the client.
+     *
+     * @param labelIds label token ids, at least one.
+     */
+    LabelScan nodeLabelIntersectionScan( int... labelIds );
+
+    /**
+     * Sets the client up for a scan over nodes having any of the given labels. The label bit sets are combined range by range
+     * in the store, so each matching node is handed to the client once, in node id order.
+     *
+     * @param labelIds label token ids, at least one.
+     */
+    LabelScan nodeLabelUnionScan( int... labelIds );
+
     /**
      * @param labelIds label token ids.
      * @return node ids with any of the given label ids.
@@ -19,6 +19,7 @@
  */
 package org.neo4j.internal.index.label;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import java.util.StringJoiner;
@@ -29,57 +30,74 @@ import static org.neo4j.internal.helpers.Format.duration;
 import static org.neo4j.internal.index.label.LabelScanStore.Monitor;
 
 /**
- * Logs about important events about {@link LabelScanStore} {@link Monitor}.
+ * Logs about important events about {@link LabelScanStore} {@link Monitor}, or the {@link Monitor} of any other token scan store
+ * such as {@link RelationshipTypeScanStore}.
  */
 public class LoggingMonitor extends Monitor.Adaptor
 {
     private final Log log;
+    private final String indexName;
+    private final String capitalizedIndexName;
+    private final String entityName;
 
     public LoggingMonitor( Log log )
+    {
+        this( log, "label index", "nodes" );
+    }
+
+    /**
+     * @param log {@link Log} to log to.
+     * @param indexName name of the index, in lower case, e.g. "label index".
+     * @param entityName name of the indexed entities, in plural, e.g. "nodes".
+     */
+    public LoggingMonitor( Log log, String indexName, String entityName )
     {
         this.log = log;
+        this.indexName = indexName;
+        this.capitalizedIndexName = StringUtils.capitalize( indexName );
+        this.entityName = entityName;
     }
 
     @Override
     public void noIndex()
     {
-        log.info( "No label index found, this might just be first use. Preparing to rebuild." );
+        log.info( "No " + indexName + " found, this might just be first use. Preparing to rebuild." );
     }
 
     @Override
     public void notValidIndex()
     {
-        log.warn( "Label index could not be read. Preparing to rebuild." );
+        log.warn( capitalizedIndexName + " could not be read. Preparing to rebuild." );
     }
 
     @Override
     public void rebuilding()
     {
-        log.info( "Rebuilding label index, this may take a while" );
+        log.info( "Rebuilding " + indexName + ", this may take a while" );
     }
 
     @Override
     public void rebuilt( long roughNodeCount )
     {
-        log.info( "Label index rebuilt (roughly " + roughNodeCount + " nodes)" );
+        log.info( capitalizedIndexName + " rebuilt (roughly " + roughNodeCount + " " + entityName + ")" );
     }
 
     @Override
     public void recoveryCleanupRegistered()
     {
-        log.info( "Label index cleanup job registered" );
+        log.info( capitalizedIndexName + " cleanup job registered" );
     }
 
     @Override
     public void recoveryCleanupStarted()
     {
-        log.info( "Label index cleanup job started" );
+        log.info( capitalizedIndexName + " cleanup job started" );
     }
 
     @Override
     public void recoveryCleanupFinished( long numberOfPagesVisited, long numberOfTreeNodes, long numberOfCleanedCrashPointers, long durationMillis )
     {
-        StringJoiner joiner = new StringJoiner( ", ", "Label index cleanup job finished: ", "" );
+        StringJoiner joiner = new StringJoiner( ", ", capitalizedIndexName + " cleanup job finished: ", "" );
         joiner.add( "Number of pages visited: " + numberOfPagesVisited );
         joiner.add( "Number of tree nodes: " + numberOfTreeNodes );
         joiner.add( "Number of cleaned crashed pointers: " + numberOfCleanedCrashPointers );
@@ -90,12 +108,12 @@ public class LoggingMonitor extends Monitor.Adaptor
     @Override
     public void recoveryCleanupClosed()
     {
-        log.info( "Label index cleanup job closed" );
+        log.info( capitalizedIndexName + " cleanup job closed" );
     }
 
     @Override
     public void recoveryCleanupFailed( Throwable throwable )
     {
-        log.info( String.format( "Label index cleanup job failed.%nCaused by: %s", ExceptionUtils.getStackTrace( throwable ) ) );
+        log.info( String.format( "%s cleanup job failed.%nCaused by: %s", capitalizedIndexName, ExceptionUtils.getStackTrace( throwable ) ) );
     }
 }
@@ -30,6 +30,8 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Seeker;
+import org.neo4j.io.IOUtils;
+import org.neo4j.util.Preconditions;
 import org.neo4j.kernel.api.index.IndexProgressor;
 
 import static org.neo4j.internal.index.label.LabelScanValue.RANGE_SIZE;
@@ -89,6 +91,42 @@ class NativeLabelScanReader implements LabelScanReader
         }
     }
 
+    @Override
+    public LabelScan nodeLabelIntersectionScan( int... labelIds )
+    {
+        return multiLabelScan( labelIds, true );
+    }
+
+    @Override
+    public LabelScan nodeLabelUnionScan( int... labelIds )
+    {
+        return multiLabelScan( labelIds, false );
+    }
+
+    private LabelScan multiLabelScan( int[] labelIds, boolean intersection )
+    {
+        Preconditions.checkArgument( labelIds.length > 0, "Expected at least one label" );
+        if ( labelIds.length == 1 )
+        {
+            return nodeLabelScan( labelIds[0] );
+        }
+        try
+        {
+            // An intersection can't contain nodes beyond the label with the lowest highest node id, a union can't go beyond the highest.
+            long max = intersection ? Long.MAX_VALUE : 0;
+            for ( int labelId : labelIds )
+            {
+                long highest = highestNodeIdForLabel( labelId );
+                max = intersection ? Math.min( max, highest ) : Math.max( max, highest );
+            }
+            return new NativeMultiLabelScan( labelIds.clone(), intersection, max );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
     private long highestNodeIdForLabel( int labelId ) throws IOException
     {
         try ( Seeker<LabelScanKey,LabelScanValue> seeker = index.seek( new LabelScanKey( labelId, Long.MAX_VALUE ),
@@ -187,4 +225,62 @@ class NativeLabelScanReader implements LabelScanReader
             return (sizeHint / RANGE_SIZE + 1) * RANGE_SIZE;
         }
     }
+
+    private class NativeMultiLabelScan implements LabelScan
+    {
+        private final AtomicLong nextStart;
+        private final int[] labelIds;
+        private final boolean intersection;
+        private final long max;
+
+        NativeMultiLabelScan( int[] labelIds, boolean intersection, long max )
+        {
+            this.labelIds = labelIds;
+            this.intersection = intersection;
+            this.max = max;
+            nextStart = new AtomicLong( 0 );
+        }
+
+        @Override
+        public IndexProgressor initialize( IndexProgressor.NodeLabelClient client )
+        {
+            return init( client, 0L, Long.MAX_VALUE );
+        }
+
+        @Override
+        public IndexProgressor initializeBatch( IndexProgressor.NodeLabelClient client, int sizeHint )
+        {
+            if ( sizeHint == 0 )
+            {
+                return IndexProgressor.EMPTY;
+            }
+            long size = (sizeHint / RANGE_SIZE + 1) * RANGE_SIZE;
+            long start = nextStart.getAndAdd( size );
+            long stop = Math.min( start + size, max );
+            if ( start >= max )
+            {
+                return IndexProgressor.EMPTY;
+            }
+            return init( client, start, stop );
+        }
+
+        private IndexProgressor init( IndexProgressor.NodeLabelClient client, long start, long stop )
+        {
+            List<Seeker<LabelScanKey,LabelScanValue>> cursors = new ArrayList<>( labelIds.length );
+            try
+            {
+                for ( int labelId : labelIds )
+                {
+                    cursors.add( seekerForLabel( start, stop, labelId ) );
+                }
+            }
+            catch ( IOException e )
+            {
+                IOUtils.closeAllSilently( cursors );
+                throw new UncheckedIOException( e );
+            }
+
+            return new CompositeLabelScanValueIndexProgressor( cursors, client, intersection );
+        }
+    }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.index.label;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.collection.PrimitiveLongResourceIterator;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Seeker;
+
+import static org.neo4j.collection.PrimitiveLongResourceCollections.emptyIterator;
+import static org.neo4j.internal.index.label.LabelScanValue.RANGE_SIZE;
+import static org.neo4j.internal.index.label.NativeLabelScanWriter.rangeOf;
+
+/**
+ * {@link RelationshipTypeScanReader} for reading data from {@link NativeRelationshipTypeScanStore}.
+ * Each {@link PrimitiveLongResourceIterator} returned from each of the methods is backed by {@link Seeker}
+ * directly from {@link GBPTree#seek(Object, Object)}.
+ */
+class NativeRelationshipTypeScanReader implements RelationshipTypeScanReader
+{
+    /**
+     * Index which is queried when calling the methods below.
+     */
+    private final GBPTree<LabelScanKey,LabelScanValue> index;
+
+    NativeRelationshipTypeScanReader( GBPTree<LabelScanKey,LabelScanValue> index )
+    {
+        this.index = index;
+    }
+
+    @Override
+    public PrimitiveLongResourceIterator relationshipsWithType( int typeId )
+    {
+        return iterator( typeId, 0, Long.MAX_VALUE );
+    }
+
+    @Override
+    public RelationshipTypeScan relationshipTypeScan( int typeId )
+    {
+        try
+        {
+            return new NativeRelationshipTypeScan( typeId, highestRelationshipIdForType( typeId ) );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private long highestRelationshipIdForType( int typeId ) throws IOException
+    {
+        try ( Seeker<LabelScanKey,LabelScanValue> seeker = index.seek( new LabelScanKey( typeId, Long.MAX_VALUE ),
+                new LabelScanKey( typeId, Long.MIN_VALUE ) ) )
+        {
+            return seeker.next() ? (seeker.key().idRange + 1) * RANGE_SIZE : 0;
+        }
+    }
+
+    /**
+     * @return iterator over the relationships with the given type, with ids in the range {@code [startId, stopId)} rounded out
+     * to whole id ranges.
+     */
+    private PrimitiveLongResourceIterator iterator( int typeId, long startId, long stopId )
+    {
+        Seeker<LabelScanKey,LabelScanValue> cursor;
+        try
+        {
+            cursor = index.seek( new LabelScanKey( typeId, rangeOf( startId ) ),
+                    new LabelScanKey( typeId, stopId == Long.MAX_VALUE ? Long.MAX_VALUE : rangeOf( stopId ) ) );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        return new LabelScanValueIterator( cursor, LabelScanReader.NO_ID );
+    }
+
+    private class NativeRelationshipTypeScan implements RelationshipTypeScan
+    {
+        private final AtomicLong nextStart;
+        private final int typeId;
+        private final long max;
+
+        NativeRelationshipTypeScan( int typeId, long max )
+        {
+            this.typeId = typeId;
+            this.max = max;
+            nextStart = new AtomicLong( 0 );
+        }
+
+        @Override
+        public PrimitiveLongResourceIterator initialize()
+        {
+            return iterator( typeId, 0, Long.MAX_VALUE );
+        }
+
+        @Override
+        public PrimitiveLongResourceIterator initializeBatch( int sizeHint )
+        {
+            if ( sizeHint == 0 )
+            {
+                return emptyIterator();
+            }
+            long size = roundUp( sizeHint );
+            long start = nextStart.getAndAdd( size );
+            long stop = Math.min( start + size, max );
+            if ( start >= max )
+            {
+                return emptyIterator();
+            }
+            return iterator( typeId, start, stop );
+        }
+
+        private long roundUp( long sizeHint )
+        {
+            return (sizeHint / RANGE_SIZE + 1) * RANGE_SIZE;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.index.label;
+
+import java.io.File;
+
+import org.neo4j.exceptions.UnderlyingStorageException;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.monitoring.Monitors;
+import org.neo4j.storageengine.api.NodeLabelUpdate;
+import org.neo4j.storageengine.api.RelationshipTypeUpdateListener;
+
+/**
+ * {@link RelationshipTypeScanStore} which is implemented using {@link GBPTree} atop a {@link PageCache}.
+ * Uses the same layout as {@link NativeLabelScanStore}, where each key is a combination of {@code typeId} and
+ * {@code relationshipIdRange} and each value is a bit set of the relationships with that type in that range.
+ * <p>
+ * This store is backed by a single store file "neostore.relationshiptypescanstore.db".
+ */
+public class NativeRelationshipTypeScanStore extends NativeTokenScanStore implements RelationshipTypeScanStore, RelationshipTypeUpdateListener
+{
+    /**
+     * Tag which the {@link LabelScanStore.Monitor} of this store is created with.
+     */
+    public static final String RELATIONSHIP_TYPE_SCAN_STORE_MONITOR_TAG = "relationshipTypeScanStore";
+
+    public NativeRelationshipTypeScanStore( PageCache pageCache, DatabaseLayout directoryStructure, FileSystemAbstraction fs,
+            FullStoreChangeStream fullStoreChangeStream, boolean readOnly, Monitors monitors, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector )
+    {
+        this( pageCache, directoryStructure, fs, fullStoreChangeStream, readOnly, monitors, recoveryCleanupWorkCollector,
+                /*means no opinion about page size*/ 0 );
+    }
+
+    /*
+     * Test access to be able to control page size.
+     */
+    NativeRelationshipTypeScanStore( PageCache pageCache, DatabaseLayout directoryStructure, FileSystemAbstraction fs,
+            FullStoreChangeStream fullStoreChangeStream, boolean readOnly, Monitors monitors,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, int pageSize )
+    {
+        super( pageCache, getRelationshipTypeScanStoreFile( directoryStructure ), fs, fullStoreChangeStream, readOnly, monitors,
+                RELATIONSHIP_TYPE_SCAN_STORE_MONITOR_TAG, recoveryCleanupWorkCollector, pageSize, "Relationship type scan store" );
+    }
+
+    /**
+     * Returns the file backing the relationship type scan store.
+     *
+     * @param directoryStructure The store directory to use.
+     * @return the file backing the relationship type scan store
+     */
+    public static File getRelationshipTypeScanStoreFile( DatabaseLayout directoryStructure )
+    {
+        return directoryStructure.relationshipTypeScanStore();
+    }
+
+    @Override
+    public RelationshipTypeScanReader newReader()
+    {
+        return new NativeRelationshipTypeScanReader( index );
+    }
+
+    @Override
+    public void applyRelationshipTypeUpdates( Iterable<NodeLabelUpdate> typeUpdates )
+    {
+        try ( LabelScanWriter writer = newWriter() )
+        {
+            for ( NodeLabelUpdate update : typeUpdates )
+            {
+                writer.write( update );
+            }
+        }
+        catch ( Exception e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
+    @Override
+    public File getRelationshipTypeScanStoreFile()
+    {
+        return storeFile();
+    }
+}
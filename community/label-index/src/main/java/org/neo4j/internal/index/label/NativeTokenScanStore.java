@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.index.label;
+
+import org.apache.commons.lang3.mutable.MutableBoolean;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.util.function.Consumer;
+
+import org.neo4j.annotations.documented.ReporterFactory;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.GBPTreeConsistencyCheckVisitor;
+import org.neo4j.index.internal.gbptree.Header;
+import org.neo4j.index.internal.gbptree.MetadataMismatchException;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.index.internal.gbptree.Seeker;
+import org.neo4j.index.internal.gbptree.TreeFileNotFoundException;
+import org.neo4j.internal.helpers.collection.Iterators;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.index.schema.ConsistencyCheckable;
+import org.neo4j.kernel.lifecycle.Lifecycle;
+import org.neo4j.monitoring.Monitors;
+
+import static org.neo4j.internal.index.label.LabelScanStore.Monitor;
+
+/**
+ * Base for token scan stores, i.e. stores mapping a token id to the entities carrying that token, implemented using {@link GBPTree}
+ * atop a {@link PageCache}. Keys are {@link LabelScanKey token id and entity id range} and values are {@link LabelScanValue bit sets}
+ * of the entities in that range, see {@link NativeLabelScanStore} for details about the layout.
+ * <p>
+ * This class manages the life of the tree: creating it, detecting whether or not it needs to be rebuilt from the store,
+ * rebuilding it from a {@link FullStoreChangeStream}, checkpointing and dropping it. Only a single writer is allowed
+ * at any given point in time so synchronization or merging of updates need to be handled externally.
+ */
+abstract class NativeTokenScanStore implements Lifecycle, ConsistencyCheckable
+{
+    /**
+     * Written in header to indicate native token scan store is clean
+     */
+    private static final byte CLEAN = (byte) 0x00;
+
+    /**
+     * Written in header to indicate native token scan store is rebuilding
+     */
+    private static final byte NEEDS_REBUILDING = (byte) 0x01;
+
+    /**
+     * Whether or not this token scan store is read-only.
+     */
+    private final boolean readOnly;
+
+    /**
+     * Monitoring internal events.
+     */
+    private final Monitor monitor;
+
+    /**
+     * Monitors used to pass down monitor to underlying {@link GBPTree}
+     */
+    private final Monitors monitors;
+
+    /**
+     * Tag which monitors of this store, and its underlying {@link GBPTree}, are created with.
+     */
+    private final String monitorTag;
+
+    /**
+     * {@link PageCache} to {@link PageCache#map(File, int, java.nio.file.OpenOption...)}
+     * store file backing this token scan store. Passed to {@link GBPTree}.
+     */
+    private final PageCache pageCache;
+
+    /**
+     * Store file {@link PageCache#map(File, int, java.nio.file.OpenOption...)}.
+     */
+    private final File storeFile;
+
+    /**
+     * Used in {@link #start()} if the store is empty, where this will provide all data for fully populating
+     * this token scan store.
+     */
+    private final FullStoreChangeStream fullStoreChangeStream;
+
+    /**
+     * Page size to use for each tree node in {@link GBPTree}. Passed to {@link GBPTree}.
+     */
+    private final int pageSize;
+
+    /**
+     * Used for all file operations on the gbpTree file.
+     */
+    private final FileSystemAbstraction fileSystem;
+
+    /**
+     * Name of this store, used in exception messages.
+     */
+    private final String storeName;
+
+    /**
+     * The index which backs this token scan store. Instantiated in {@link #init()} and considered
+     * started after call to {@link #start()}.
+     */
+    GBPTree<LabelScanKey,LabelScanValue> index;
+
+    /**
+     * Set during {@link #init()} if {@link #start()} will need to rebuild the whole token scan store from
+     * {@link FullStoreChangeStream}.
+     */
+    private boolean needsRebuild;
+
+    /**
+     * Passed to underlying {@link GBPTree} which use it to submit recovery cleanup jobs.
+     */
+    private final RecoveryCleanupWorkCollector recoveryCleanupWorkCollector;
+
+    /**
+     * The single instance of {@link NativeLabelScanWriter} used for updates.
+     */
+    private NativeLabelScanWriter singleWriter;
+
+    /**
+     * Monitor for all writes going into this token scan store.
+     */
+    private NativeLabelScanWriter.WriteMonitor writeMonitor;
+
+    /**
+     * Write rebuilding bit to header.
+     */
+    private static final Consumer<PageCursor> needsRebuildingWriter =
+            pageCursor -> pageCursor.putByte( NEEDS_REBUILDING );
+
+    /**
+     * Write clean header.
+     */
+    private static final Consumer<PageCursor> writeClean = pageCursor -> pageCursor.putByte( CLEAN );
+
+    NativeTokenScanStore( PageCache pageCache, File storeFile, FileSystemAbstraction fs, FullStoreChangeStream fullStoreChangeStream, boolean readOnly,
+            Monitors monitors, String monitorTag, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, int pageSize, String storeName )
+    {
+        this.pageCache = pageCache;
+        this.pageSize = pageSize;
+        this.fullStoreChangeStream = fullStoreChangeStream;
+        this.storeFile = storeFile;
+        this.readOnly = readOnly;
+        this.monitors = monitors;
+        this.monitorTag = monitorTag;
+        this.monitor = monitors.newMonitor( Monitor.class, monitorTag );
+        this.recoveryCleanupWorkCollector = recoveryCleanupWorkCollector;
+        this.fileSystem = fs;
+        this.storeName = storeName;
+    }
+
+    /**
+     * @return the {@link NativeLabelScanWriter.WriteMonitor} which all writes into this store will be reported to.
+     * Called once per {@link #init()}.
+     */
+    NativeLabelScanWriter.WriteMonitor createWriteMonitor()
+    {
+        return NativeLabelScanWriter.EMPTY;
+    }
+
+    /**
+     * Returns {@link LabelScanWriter} capable of making changes to this store.
+     * Only a single writer is allowed at any given point in time.
+     *
+     * @return {@link LabelScanWriter} capable of making changes to this store.
+     * @throws IllegalStateException if someone else has already acquired a writer and hasn't yet
+     * called {@link LabelScanWriter#close()}.
+     */
+    public LabelScanWriter newWriter()
+    {
+        if ( readOnly )
+        {
+            throw new UnsupportedOperationException( "Can't create index writer in read only mode." );
+        }
+
+        try
+        {
+            return writer();
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * Forces all changes to {@link PageCache} and creates a checkpoint so that this store
+     * is recoverable from this point, given that the same transactions which will be applied after this point
+     * and non-clean shutdown will be applied again on next startup.
+     *
+     * @param limiter {@link IOLimiter}.
+     */
+    public void force( IOLimiter limiter )
+    {
+        index.checkpoint( limiter );
+        writeMonitor.force();
+    }
+
+    /**
+     * @return store files, namely the single store file backing this store.
+     */
+    public ResourceIterator<File> snapshotStoreFiles()
+    {
+        return Iterators.asResourceIterator( Iterators.iterator( storeFile ) );
+    }
+
+    /**
+     * Instantiates the underlying {@link GBPTree} and its resources.
+     *
+     * @throws IOException on {@link PageCache} exceptions.
+     */
+    @Override
+    public void init() throws IOException
+    {
+        monitor.init();
+
+        boolean storeExists = hasStore();
+        boolean isDirty;
+        try
+        {
+            needsRebuild = !storeExists;
+            if ( !storeExists )
+            {
+                monitor.noIndex();
+            }
+
+            isDirty = instantiateTree();
+        }
+        catch ( MetadataMismatchException e )
+        {
+            // GBPTree is corrupt. Try to rebuild.
+            isDirty = true;
+        }
+
+        writeMonitor = createWriteMonitor();
+        singleWriter = new NativeLabelScanWriter( 1_000, writeMonitor );
+
+        if ( isDirty )
+        {
+            monitor.notValidIndex();
+            if ( !readOnly )
+            {
+                dropStrict();
+                instantiateTree();
+            }
+            needsRebuild = true;
+        }
+    }
+
+    /**
+     * @return whether or not there's an existing store present for this token scan store.
+     */
+    public boolean hasStore()
+    {
+        return fileSystem.fileExists( storeFile );
+    }
+
+    File storeFile()
+    {
+        return storeFile;
+    }
+
+    /**
+     * @return true if instantiated tree needs to be rebuilt.
+     */
+    private boolean instantiateTree()
+    {
+        monitors.addMonitorListener( treeMonitor(), monitorTag );
+        GBPTree.Monitor monitor = monitors.newMonitor( GBPTree.Monitor.class, monitorTag );
+        MutableBoolean isRebuilding = new MutableBoolean();
+        Header.Reader readRebuilding =
+                headerData -> isRebuilding.setValue( headerData.get() == NEEDS_REBUILDING );
+        try
+        {
+            index = new GBPTree<>( pageCache, storeFile, new LabelScanLayout(), pageSize, monitor, readRebuilding,
+                    needsRebuildingWriter, recoveryCleanupWorkCollector, readOnly );
+            return isRebuilding.getValue();
+        }
+        catch ( TreeFileNotFoundException e )
+        {
+            throw new IllegalStateException(
+                    storeName + " file could not be found, most likely this database needs to be recovered, file:" + storeFile, e );
+        }
+    }
+
+    private GBPTree.Monitor treeMonitor()
+    {
+        return new TokenIndexTreeMonitor();
+    }
+
+    /**
+     * Drops any persistent storage backing this store.
+     *
+     * @throws IOException on I/O error.
+     */
+    public void drop() throws IOException
+    {
+        try
+        {
+            dropStrict();
+        }
+        catch ( NoSuchFileException e )
+        {
+            // Even better, it didn't even exist
+        }
+    }
+
+    private void dropStrict() throws IOException
+    {
+        if ( index != null )
+        {
+            index.close();
+            index = null;
+        }
+        fileSystem.deleteFileOrThrow( storeFile );
+    }
+
+    /**
+     * Starts the store and makes it available for queries and updates.
+     * Any required recovery must take place before calling this method.
+     *
+     * @throws IOException on {@link PageCache} exceptions.
+     */
+    @Override
+    public void start() throws IOException
+    {
+        if ( needsRebuild && !readOnly )
+        {
+            monitor.rebuilding();
+            long numberOfEntities;
+
+            // Intentionally ignore read-only flag here when rebuilding.
+            try ( LabelScanWriter writer = writer() )
+            {
+                numberOfEntities = fullStoreChangeStream.applyTo( writer );
+            }
+
+            index.checkpoint( IOLimiter.UNLIMITED, writeClean );
+
+            monitor.rebuilt( numberOfEntities );
+            needsRebuild = false;
+        }
+    }
+
+    private NativeLabelScanWriter writer() throws IOException
+    {
+        return singleWriter.initialize( index.writer() );
+    }
+
+    /**
+     * @return {@code true} if there's no data at all in this token scan store, otherwise {@code false}.
+     * @throws IOException on I/O error.
+     */
+    public boolean isEmpty() throws IOException
+    {
+        try ( Seeker<LabelScanKey,LabelScanValue> cursor = index.seek(
+                new LabelScanKey( 0, 0 ),
+                new LabelScanKey( Integer.MAX_VALUE, Long.MAX_VALUE ) ) )
+        {
+            return !cursor.next();
+        }
+    }
+
+    @Override
+    public void stop()
+    {   // Not needed
+    }
+
+    /**
+     * Shuts down this store so that no more queries or updates can be accepted.
+     *
+     * @throws IOException on {@link PageCache} exceptions.
+     */
+    @Override
+    public void shutdown() throws IOException
+    {
+        if ( index != null )
+        {
+            index.close();
+            index = null;
+            writeMonitor.close();
+        }
+    }
+
+    /**
+     * @return whether or not this index is read-only.
+     */
+    public boolean isReadOnly()
+    {
+        return readOnly;
+    }
+
+    public boolean isDirty()
+    {
+        return index == null || index.wasDirtyOnStartup();
+    }
+
+    @Override
+    public boolean consistencyCheck( ReporterFactory reporterFactory )
+    {
+        return consistencyCheck( reporterFactory.getClass( GBPTreeConsistencyCheckVisitor.class ) );
+    }
+
+    private boolean consistencyCheck( GBPTreeConsistencyCheckVisitor<LabelScanKey> visitor )
+    {
+        try
+        {
+            return index.consistencyCheck( visitor );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private class TokenIndexTreeMonitor extends GBPTree.Monitor.Adaptor
+    {
+        @Override
+        public void cleanupRegistered()
+        {
+            monitor.recoveryCleanupRegistered();
+        }
+
+        @Override
+        public void cleanupStarted()
+        {
+            monitor.recoveryCleanupStarted();
+        }
+
+        @Override
+        public void cleanupFinished( long numberOfPagesVisited, long numberOfTreeNodes, long numberOfCleanedCrashPointers, long durationMillis )
+        {
+            monitor.recoveryCleanupFinished( numberOfPagesVisited, numberOfTreeNodes, numberOfCleanedCrashPointers, durationMillis );
+        }
+
+        @Override
+        public void cleanupClosed()
+        {
+            monitor.recoveryCleanupClosed();
+        }
+
+        @Override
+        public void cleanupFailed( Throwable throwable )
+        {
+            monitor.recoveryCleanupFailed( throwable );
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.index.label;
+
+import org.neo4j.collection.PrimitiveLongResourceCollections;
+import org.neo4j.collection.PrimitiveLongResourceIterator;
+
+/**
+ * RelationshipTypeScans are used for accessing relationships with a given relationship type.
+ */
+public interface RelationshipTypeScan
+{
+    /**
+     * Initialize for reading all relationships of the relationship type.
+     *
+     * @return iterator over the relationship ids.
+     */
+    PrimitiveLongResourceIterator initialize();
+
+    /**
+     * Initialize for reading the next batch of relationships of the relationship type. Batches handed out by a single scan
+     * are disjoint, so that batches can be consumed by different threads.
+     *
+     * @param sizeHint the approximate size of the batch, in number of relationship ids covered.
+     * @return iterator over the relationship ids in the batch, or {@link PrimitiveLongResourceCollections#emptyIterator()}
+     * if there are no more batches.
+     */
+    PrimitiveLongResourceIterator initializeBatch( int sizeHint );
+}
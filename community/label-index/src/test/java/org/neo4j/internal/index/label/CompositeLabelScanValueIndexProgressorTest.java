@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.index.label;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.neo4j.index.internal.gbptree.Seeker;
+import org.neo4j.kernel.api.index.IndexProgressor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompositeLabelScanValueIndexProgressorTest
+{
+    @Test
+    void shouldIntersectBitsOfSharedRanges()
+    {
+        // given
+        RangeSeeker first = new RangeSeeker( 1, new long[]{0, 1, 3}, new long[]{0b1011, 0b0110, 0b1111} );
+        RangeSeeker second = new RangeSeeker( 2, new long[]{0, 2, 3}, new long[]{0b0011, 0b1111, 0b1000} );
+
+        // when
+        long[] nodes = exhaust( first, second, true );
+
+        // then
+        assertArrayEquals( new long[]{0, 1, 192 + 3}, nodes );
+        assertTrue( first.closed );
+        assertTrue( second.closed );
+    }
+
+    @Test
+    void shouldStopIntersectionWhenAnyLabelIsExhausted()
+    {
+        // given
+        RangeSeeker first = new RangeSeeker( 1, new long[]{0}, new long[]{0b1} );
+        RangeSeeker second = new RangeSeeker( 2, new long[]{1, 2, 3}, new long[]{0b1, 0b1, 0b1} );
+
+        // when
+        long[] nodes = exhaust( first, second, true );
+
+        // then
+        assertEquals( 0, nodes.length );
+        assertTrue( second.visited < 3 );
+    }
+
+    @Test
+    void shouldUnionBitsOfAllRangesInOrder()
+    {
+        // given
+        RangeSeeker first = new RangeSeeker( 1, new long[]{0, 3}, new long[]{0b0101, 0b1} );
+        RangeSeeker second = new RangeSeeker( 2, new long[]{0, 1}, new long[]{0b0110, 0b10} );
+
+        // when
+        long[] nodes = exhaust( first, second, false );
+
+        // then
+        assertArrayEquals( new long[]{0, 1, 2, 64 + 1, 192}, nodes );
+    }
+
+    private static long[] exhaust( RangeSeeker first, RangeSeeker second, boolean intersection )
+    {
+        MutableLongList nodes = new LongArrayList();
+        List<Seeker<LabelScanKey,LabelScanValue>> seekers = Arrays.asList( first, second );
+        IndexProgressor.NodeLabelClient client = ( reference, labels ) ->
+        {
+            nodes.add( reference );
+            return true;
+        };
+        CompositeLabelScanValueIndexProgressor progressor = new CompositeLabelScanValueIndexProgressor( seekers, client, intersection );
+        while ( progressor.next() )
+        {
+            // just collect
+        }
+        return nodes.toArray();
+    }
+
+    private static class RangeSeeker implements Seeker<LabelScanKey,LabelScanValue>
+    {
+        private final LabelScanKey key = new LabelScanKey();
+        private final LabelScanValue value = new LabelScanValue();
+        private final int labelId;
+        private final long[] ranges;
+        private final long[] bits;
+        private int visited;
+        private boolean closed;
+
+        RangeSeeker( int labelId, long[] ranges, long[] bits )
+        {
+            this.labelId = labelId;
+            this.ranges = ranges;
+            this.bits = bits;
+        }
+
+        @Override
+        public boolean next()
+        {
+            if ( visited >= ranges.length )
+            {
+                return false;
+            }
+            key.set( labelId, ranges[visited] );
+            value.bits = bits[visited];
+            visited++;
+            return true;
+        }
+
+        @Override
+        public LabelScanKey key()
+        {
+            return key;
+        }
+
+        @Override
+        public LabelScanValue value()
+        {
+            return value;
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
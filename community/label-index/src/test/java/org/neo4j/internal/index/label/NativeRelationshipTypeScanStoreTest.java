@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.index.label;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.collection.PrimitiveLongResourceIterator;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.monitoring.Monitors;
+import org.neo4j.storageengine.api.NodeLabelUpdate;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.collection.PrimitiveLongCollections.EMPTY_LONG_ARRAY;
+import static org.neo4j.collection.PrimitiveLongCollections.asArray;
+import static org.neo4j.collection.PrimitiveLongResourceCollections.emptyIterator;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.internal.index.label.FullStoreChangeStream.asStream;
+
+@PageCacheExtension
+@Neo4jLayoutExtension
+class NativeRelationshipTypeScanStoreTest
+{
+    private static final int TYPE_A = 0;
+    private static final int TYPE_B = 1;
+
+    @Inject
+    private DatabaseLayout databaseLayout;
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    @Inject
+    private PageCache pageCache;
+
+    private NativeRelationshipTypeScanStore store;
+
+    @AfterEach
+    void shutdown() throws Exception
+    {
+        if ( store != null )
+        {
+            store.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRebuildFromFullStoreChangeStreamWhenStoreIsMissing() throws Exception
+    {
+        // given
+        List<NodeLabelUpdate> existingData = new ArrayList<>();
+        existingData.add( created( 1, TYPE_A ) );
+        existingData.add( created( 2, TYPE_B ) );
+        existingData.add( created( 130, TYPE_A ) );
+
+        // when
+        startStore( asStream( existingData ) );
+
+        // then
+        assertTrue( store.hasStore() );
+        assertArrayEquals( new long[]{1, 130}, relationshipsWithType( TYPE_A ) );
+        assertArrayEquals( new long[]{2}, relationshipsWithType( TYPE_B ) );
+    }
+
+    @Test
+    void shouldSeeCreatedAndDeletedRelationships() throws Exception
+    {
+        // given
+        startStore( FullStoreChangeStream.EMPTY );
+        store.applyRelationshipTypeUpdates( List.of( created( 5, TYPE_A ), created( 6, TYPE_A ), created( 7, TYPE_B ) ) );
+
+        // when
+        store.applyRelationshipTypeUpdates( singletonList(
+                NodeLabelUpdate.labelChanges( 6, new long[]{TYPE_A}, EMPTY_LONG_ARRAY ) ) );
+
+        // then
+        assertArrayEquals( new long[]{5}, relationshipsWithType( TYPE_A ) );
+        assertArrayEquals( new long[]{7}, relationshipsWithType( TYPE_B ) );
+    }
+
+    @Test
+    void shouldCoverAllRelationshipsOfTypeInDisjointBatches() throws Exception
+    {
+        // given
+        List<NodeLabelUpdate> existingData = new ArrayList<>();
+        MutableLongSet expected = new LongHashSet();
+        for ( long id = 0; id < 10_000; id += 3 )
+        {
+            existingData.add( created( id, TYPE_A ) );
+            expected.add( id );
+        }
+        startStore( asStream( existingData ) );
+
+        // when
+        RelationshipTypeScan scan = store.newReader().relationshipTypeScan( TYPE_A );
+        MutableLongSet found = new LongHashSet();
+        PrimitiveLongResourceIterator batch;
+        while ( (batch = scan.initializeBatch( 100 )) != emptyIterator() )
+        {
+            while ( batch.hasNext() )
+            {
+                long id = batch.next();
+                assertTrue( found.add( id ), "Relationship " + id + " seen in more than one batch" );
+            }
+            batch.close();
+        }
+
+        // then
+        assertEquals( expected, found );
+    }
+
+    private void startStore( FullStoreChangeStream fullStoreChangeStream ) throws Exception
+    {
+        store = new NativeRelationshipTypeScanStore( pageCache, databaseLayout, fileSystem, fullStoreChangeStream, false, new Monitors(),
+                immediate() );
+        store.init();
+        store.start();
+    }
+
+    private long[] relationshipsWithType( int typeId )
+    {
+        try ( PrimitiveLongResourceIterator relationships = store.newReader().relationshipsWithType( typeId ) )
+        {
+            return asArray( relationships );
+        }
+    }
+
+    private static NodeLabelUpdate created( long relationshipId, int typeId )
+    {
+        return NodeLabelUpdate.labelChanges( relationshipId, EMPTY_LONG_ARRAY, new long[]{typeId} );
+    }
+}
@@ -20,6 +20,7 @@
 package org.neo4j.kernel.api.impl.schema.reader;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -34,8 +35,10 @@ import org.neo4j.kernel.api.impl.index.sampler.AggregatingIndexSampler;
 import org.neo4j.kernel.api.impl.schema.TaskCoordinator;
 import org.neo4j.kernel.api.index.AbstractIndexReader;
 import org.neo4j.kernel.api.index.BridgingIndexProgressor;
+import org.neo4j.kernel.api.index.CompositePartitionedValueSeek;
 import org.neo4j.kernel.api.index.IndexProgressor;
 import org.neo4j.kernel.api.index.IndexSampler;
+import org.neo4j.kernel.api.index.PartitionedValueSeek;
 import org.neo4j.kernel.impl.api.index.IndexSamplingConfig;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.values.storable.Value;
@@ -93,6 +96,18 @@ public class PartitionedIndexReader extends AbstractIndexReader
         }
     }
 
+    @Override
+    public PartitionedValueSeek valueSeek( int desiredNumberOfPartitions, IndexQuery... query ) throws IndexNotApplicableKernelException
+    {
+        // The lucene partitions are already there to be searched independently, each makes up one partition of the seek
+        List<PartitionedValueSeek> seeks = new ArrayList<>( indexReaders.size() );
+        for ( SimpleIndexReader reader : indexReaders )
+        {
+            seeks.add( reader.valueSeek( desiredNumberOfPartitions, query ) );
+        }
+        return new CompositePartitionedValueSeek( seeks );
+    }
+
     @Override
     public boolean hasFullValuePrecision( IndexQuery... predicates )
     {
@@ -40,6 +40,7 @@ import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.StreamSupport;
 
@@ -61,6 +62,7 @@ import org.neo4j.kernel.api.index.AbstractIndexReader;
 import org.neo4j.kernel.api.index.BridgingIndexProgressor;
 import org.neo4j.kernel.api.index.IndexProgressor;
 import org.neo4j.kernel.api.index.IndexSampler;
+import org.neo4j.kernel.api.index.PartitionedValueSeek;
 import org.neo4j.kernel.impl.api.index.IndexSamplingConfig;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.values.storable.Value;
@@ -117,6 +119,34 @@ public class SimpleIndexReader extends AbstractIndexReader
         client.initialize( descriptor, search( query ).getIndexProgressor( NODE_ID_KEY, client ), predicates, indexOrder, needsValues, false );
     }
 
+    /**
+     * A lucene partition is searched as a whole, so the seek is made up of a single partition which runs the search when reserved.
+     */
+    @Override
+    public PartitionedValueSeek valueSeek( int desiredNumberOfPartitions, IndexQuery... predicates ) throws IndexNotApplicableKernelException
+    {
+        Query query = toLuceneQuery( predicates );
+        AtomicBoolean reserved = new AtomicBoolean();
+        return new PartitionedValueSeek()
+        {
+            @Override
+            public int getNumberOfPartitions()
+            {
+                return 1;
+            }
+
+            @Override
+            public IndexProgressor reservePartition( IndexProgressor.EntityValueClient client )
+            {
+                if ( !reserved.compareAndSet( false, true ) )
+                {
+                    return IndexProgressor.EMPTY;
+                }
+                return search( query ).getIndexProgressor( NODE_ID_KEY, client );
+            }
+        };
+    }
+
     private DocValuesCollector search( Query query )
     {
         try
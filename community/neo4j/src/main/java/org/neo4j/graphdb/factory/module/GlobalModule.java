@@ -52,6 +52,7 @@ import org.neo4j.kernel.extension.GlobalExtensions;
 import org.neo4j.kernel.extension.context.GlobalExtensionContext;
 import org.neo4j.kernel.impl.cache.VmPauseMonitorComponent;
 import org.neo4j.kernel.impl.factory.DatabaseInfo;
+import org.neo4j.kernel.impl.pagecache.ConfigurableIOLimiter;
 import org.neo4j.kernel.impl.pagecache.ConfiguringPageCacheFactory;
 import org.neo4j.kernel.impl.pagecache.PageCacheLifecycle;
 import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
@@ -101,6 +102,7 @@ import static org.neo4j.kernel.lifecycle.LifecycleAdapter.onShutdown;
 public class GlobalModule
 {
     private final PageCache pageCache;
+    private final ConfigurableIOLimiter ioLimiter;
     private final Monitors globalMonitors;
     private final Dependencies globalDependencies;
     private final LogService logService;
@@ -183,6 +185,8 @@ public class GlobalModule
 
         collectionsFactorySupplier = createCollectionsFactorySupplier( globalConfig, globalLife );
 
+        ioLimiter = globalDependencies.satisfyDependency( new ConfigurableIOLimiter( globalConfig ) );
+
         pageCache = tryResolveOrCreate( PageCache.class,
                 () -> createPageCache( fileSystem, globalConfig, logService, tracers, this.jobScheduler ) );
 
@@ -372,7 +376,7 @@ public class GlobalModule
         Log pageCacheLog = logging.getInternalLog( PageCache.class );
         ConfiguringPageCacheFactory pageCacheFactory = new ConfiguringPageCacheFactory( fileSystem, config, tracers.getPageCacheTracer(),
                 tracers.getPageCursorTracerSupplier(), pageCacheLog,
-                GuardVersionContextSupplier.INSTANCE, jobScheduler );
+                GuardVersionContextSupplier.INSTANCE, jobScheduler, ioLimiter );
         PageCache pageCache = pageCacheFactory.getOrCreatePageCache();
 
         if ( config.get( GraphDatabaseSettings.dump_configuration ) )
@@ -480,6 +484,11 @@ public class GlobalModule
         return pageCache;
     }
 
+    public ConfigurableIOLimiter getIoLimiter()
+    {
+        return ioLimiter;
+    }
+
     public Monitors getGlobalMonitors()
     {
         return globalMonitors;
@@ -31,6 +31,9 @@ import org.neo4j.graphdb.Transaction;
 import org.neo4j.internal.kernel.api.procs.ProcedureSignature;
 import org.neo4j.internal.kernel.api.procs.UserFunctionSignature;
 import org.neo4j.internal.kernel.api.security.SecurityContext;
+import org.neo4j.io.pagecache.tracing.LatencyHistogram;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PagedFileStatistics;
 import org.neo4j.kernel.api.procedure.SystemProcedure;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
 import org.neo4j.kernel.impl.query.FunctionInformation;
@@ -167,6 +170,19 @@ public class BuiltInDbmsProcedures
         return Stream.of( new StringResult( result ) );
     }
 
+    @Admin
+    @SystemProcedure
+    @Description( "List the page cache statistics of each mapped file, with fault and flush latencies in nanoseconds. " +
+            "Statistics are only kept while dbms.memory.pagecache.file_statistics.enabled is set." )
+    @Procedure( name = "dbms.pageCache.fileStatistics", mode = DBMS )
+    public Stream<PagedFileStatisticsResult> pageCacheFileStatistics()
+    {
+        PageCacheTracer tracer = graph.getDependencyResolver().resolveDependency( PageCacheTracer.class );
+        return tracer.fileStatistics().stream()
+                .sorted( Comparator.comparing( PagedFileStatistics::file ) )
+                .map( PagedFileStatisticsResult::new );
+    }
+
     public static class FunctionResult
     {
         public final String name;
@@ -211,6 +227,52 @@ public class BuiltInDbmsProcedures
         }
     }
 
+    public static class PagedFileStatisticsResult
+    {
+        public final String file;
+        public final long pins;
+        public final long hits;
+        public final long faults;
+        public final long bytesRead;
+        public final long evictions;
+        public final long flushes;
+        public final long bytesWritten;
+        public final double faultLatencyMean;
+        public final long faultLatencyP50;
+        public final long faultLatencyP99;
+        public final long faultLatencyP999;
+        public final long faultLatencyMax;
+        public final double flushLatencyMean;
+        public final long flushLatencyP50;
+        public final long flushLatencyP99;
+        public final long flushLatencyP999;
+        public final long flushLatencyMax;
+
+        private PagedFileStatisticsResult( PagedFileStatistics statistics )
+        {
+            this.file = statistics.file().getAbsolutePath();
+            this.pins = statistics.pins();
+            this.hits = statistics.hits();
+            this.faults = statistics.faults();
+            this.bytesRead = statistics.bytesRead();
+            this.evictions = statistics.evictions();
+            this.flushes = statistics.flushes();
+            this.bytesWritten = statistics.bytesWritten();
+            LatencyHistogram faultLatency = statistics.faultLatency();
+            this.faultLatencyMean = faultLatency.mean();
+            this.faultLatencyP50 = faultLatency.percentile( 50 );
+            this.faultLatencyP99 = faultLatency.percentile( 99 );
+            this.faultLatencyP999 = faultLatency.percentile( 99.9 );
+            this.faultLatencyMax = faultLatency.max();
+            LatencyHistogram flushLatency = statistics.flushLatency();
+            this.flushLatencyMean = flushLatency.mean();
+            this.flushLatencyP50 = flushLatency.percentile( 50 );
+            this.flushLatencyP99 = flushLatency.percentile( 99 );
+            this.flushLatencyP999 = flushLatency.percentile( 99.9 );
+            this.flushLatencyMax = flushLatency.max();
+        }
+    }
+
     public static class StringResult
     {
         public final String value;
@@ -145,7 +145,7 @@ public class GBPTreeCountsStore implements CountsStore
             }
             Lock lock = lock( this.lock.writeLock() );
             long txId = initialCountsBuilder.lastCommittedTxId();
-            try ( CountsAccessor.Updater updater = new CountUpdater( new TreeWriter( tree.writer(), idSequence, txId ), lock ) )
+            try ( CountsAccessor.Updater updater = new CountUpdater( new TreeWriter( tree, layout, idSequence, txId ), lock ) )
             {
                 initialCountsBuilder.initialize( updater );
             }
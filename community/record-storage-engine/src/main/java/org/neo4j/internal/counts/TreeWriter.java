@@ -19,6 +19,16 @@
  */
 package org.neo4j.internal.counts;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.index.internal.gbptree.BulkLoader;
+import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.ValueMerger;
 import org.neo4j.index.internal.gbptree.Writer;
 import org.neo4j.util.concurrent.OutOfOrderSequence;
@@ -26,24 +36,29 @@ import org.neo4j.util.concurrent.OutOfOrderSequence;
 import static org.apache.commons.lang3.ArrayUtils.EMPTY_LONG_ARRAY;
 import static org.neo4j.index.internal.gbptree.ValueMerger.MergeResult.REMOVED;
 import static org.neo4j.index.internal.gbptree.ValueMerger.MergeResult.REPLACED;
-import static org.neo4j.io.IOUtils.closeAllUnchecked;
 
 /**
- * Writes counts directly into the tree.
+ * Writes the initial counts into the empty tree. Counts are collected and sorted, and then bulk loaded into the tree when closed.
  */
 class TreeWriter implements CountUpdater.CountWriter
 {
     private static final ValueMerger<CountsKey,CountsValue> MERGER =
             ( existingKey, newKey, existingValue, newValue ) -> newValue.count > 0 ? REPLACED : REMOVED;
+    /**
+     * New counts keys are rare compared to changes of existing counts, which are made in place, so the tree nodes can be filled up completely.
+     */
+    private static final double FILL_FACTOR = 1;
 
-    private final Writer<CountsKey,CountsValue> treeWriter;
+    private final GBPTree<CountsKey,CountsValue> tree;
+    private final CountsLayout layout;
     private final OutOfOrderSequence idSequence;
     private final long txId;
-    private final CountsValue value = new CountsValue();
+    private final ConcurrentHashMap<CountsKey,AtomicLong> counts = new ConcurrentHashMap<>();
 
-    TreeWriter( Writer<CountsKey,CountsValue> treeWriter, OutOfOrderSequence idSequence, long txId )
+    TreeWriter( GBPTree<CountsKey,CountsValue> tree, CountsLayout layout, OutOfOrderSequence idSequence, long txId )
     {
-        this.treeWriter = treeWriter;
+        this.tree = tree;
+        this.layout = layout;
         this.idSequence = idSequence;
         this.txId = txId;
     }
@@ -51,13 +66,34 @@ class TreeWriter implements CountUpdater.CountWriter
     @Override
     public void write( CountsKey key, long delta )
     {
-        merge( treeWriter, key, value.initialize( delta ) );
+        counts.computeIfAbsent( key, k -> new AtomicLong() ).addAndGet( delta );
     }
 
     @Override
     public void close()
     {
-        closeAllUnchecked( treeWriter );
+        List<Map.Entry<CountsKey,AtomicLong>> sortedCounts = new ArrayList<>( counts.entrySet() );
+        sortedCounts.sort( ( e1, e2 ) -> layout.compare( e1.getKey(), e2.getKey() ) );
+        try ( BulkLoader<CountsKey,CountsValue> bulkLoader = tree.bulkLoader( FILL_FACTOR ) )
+        {
+            CountsValue value = new CountsValue();
+            for ( Map.Entry<CountsKey,AtomicLong> entry : sortedCounts )
+            {
+                long count = entry.getValue().get();
+                if ( count < 0 )
+                {
+                    throw new IllegalStateException( "Count for " + entry.getKey() + " got negative: " + count );
+                }
+                if ( count > 0 )
+                {
+                    bulkLoader.add( entry.getKey(), value.initialize( count ) );
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
         idSequence.set( txId, EMPTY_LONG_ARRAY );
     }
 
@@ -31,24 +31,28 @@ import org.neo4j.kernel.impl.store.NodeLabels;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.IndexUpdateListener;
 import org.neo4j.storageengine.api.NodeLabelUpdate;
 import org.neo4j.storageengine.api.NodeLabelUpdateListener;
+import org.neo4j.storageengine.api.RelationshipTypeUpdateListener;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.util.concurrent.AsyncApply;
 import org.neo4j.util.concurrent.WorkSync;
 
+import static org.apache.commons.lang3.ArrayUtils.EMPTY_LONG_ARRAY;
 import static org.neo4j.kernel.impl.store.NodeLabelsField.parseLabelsField;
 
 /**
- * Gather node and property changes, converting them into logical updates to the indexes. {@link #close()} will actually
+ * Gather node, relationship and property changes, converting them into logical updates to the indexes. {@link #close()} will actually
  * apply the indexes.
  */
 public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapter
 {
     private final IndexUpdateListener indexUpdateListener;
     private final WorkSync<NodeLabelUpdateListener,LabelUpdateWork> labelScanStoreSync;
+    private final WorkSync<RelationshipTypeUpdateListener,RelationshipTypeUpdateWork> relationshipTypeScanStoreSync;
     private final WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync;
     private final SingleTransactionApplier transactionApplier;
     private final IndexActivator indexActivator;
@@ -57,11 +61,13 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
     private final SchemaCache schemaCache;
 
     private List<NodeLabelUpdate> labelUpdates;
+    private List<NodeLabelUpdate> relationshipTypeUpdates;
     private IndexUpdates indexUpdates;
     private long txId;
 
     public IndexBatchTransactionApplier( IndexUpdateListener indexUpdateListener,
             WorkSync<NodeLabelUpdateListener,LabelUpdateWork> labelScanStoreSync,
+            WorkSync<RelationshipTypeUpdateListener,RelationshipTypeUpdateWork> relationshipTypeScanStoreSync,
             WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync,
             NodeStore nodeStore,
             PropertyStore propertyStore, StorageEngine storageEngine,
@@ -69,6 +75,7 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
     {
         this.indexUpdateListener = indexUpdateListener;
         this.labelScanStoreSync = labelScanStoreSync;
+        this.relationshipTypeScanStoreSync = relationshipTypeScanStoreSync;
         this.indexUpdatesSync = indexUpdatesSync;
         this.propertyStore = propertyStore;
         this.storageEngine = storageEngine;
@@ -94,6 +101,13 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
             labelUpdatesApply = labelScanStoreSync.applyAsync( new LabelUpdateWork( labelUpdates ) );
             labelUpdates = null;
         }
+        AsyncApply relationshipTypeUpdatesApply = null;
+        if ( relationshipTypeUpdates != null )
+        {
+            // Relationship commands are sorted by relationship id too, so these updates are in order as well.
+            relationshipTypeUpdatesApply = relationshipTypeScanStoreSync.applyAsync( new RelationshipTypeUpdateWork( relationshipTypeUpdates ) );
+            relationshipTypeUpdates = null;
+        }
         if ( indexUpdates != null && indexUpdates.hasUpdates() )
         {
             try
@@ -118,6 +132,17 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
                 throw new IOException( "Failed to flush label updates", e );
             }
         }
+        if ( relationshipTypeUpdatesApply != null )
+        {
+            try
+            {
+                relationshipTypeUpdatesApply.await();
+            }
+            catch ( ExecutionException e )
+            {
+                throw new IOException( "Failed to flush relationship type updates", e );
+            }
+        }
     }
 
     @Override
@@ -206,6 +231,24 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
         @Override
         public boolean visitRelationshipCommand( Command.RelationshipCommand command )
         {
+            // for relationship type store updates
+            if ( relationshipTypeScanStoreSync != null )
+            {
+                RelationshipRecord before = command.getBefore();
+                RelationshipRecord after = command.getAfter();
+                if ( before.inUse() != after.inUse() )
+                {
+                    if ( relationshipTypeUpdates == null )
+                    {
+                        relationshipTypeUpdates = new ArrayList<>();
+                    }
+                    long[] typesBefore = before.inUse() ? new long[]{before.getType()} : EMPTY_LONG_ARRAY;
+                    long[] typesAfter = after.inUse() ? new long[]{after.getType()} : EMPTY_LONG_ARRAY;
+                    relationshipTypeUpdates.add( NodeLabelUpdate.labelChanges( command.getKey(), typesBefore, typesAfter, txId ) );
+                }
+            }
+
+            // for indexes
             return indexUpdatesExtractor.visitRelationshipCommand( command );
         }
 
@@ -0,0 +1,530 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import org.neo4j.counts.CountsStore;
+import org.neo4j.internal.helpers.Exceptions;
+import org.neo4j.internal.id.IdGenerator;
+import org.neo4j.internal.id.IdType;
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipGroupCommand;
+import org.neo4j.internal.schema.IndexDescriptor;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.lock.LockGroup;
+import org.neo4j.storageengine.api.CommandsToApply;
+import org.neo4j.storageengine.api.IndexEntryUpdate;
+import org.neo4j.storageengine.api.IndexUpdateListener;
+import org.neo4j.storageengine.api.NodeLabelUpdate;
+import org.neo4j.storageengine.api.NodeLabelUpdateListener;
+import org.neo4j.storageengine.api.RelationshipTypeUpdateListener;
+import org.neo4j.util.concurrent.WorkSync;
+
+import static org.neo4j.lock.LockService.NO_LOCK_SERVICE;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
+
+/**
+ * Applies a batch of recovered transactions, spreading the ones which change disjoint sets of records over a number of threads.
+ * <p>
+ * The batch is split into segments at transactions containing token or schema commands. Those are applied on their own, in the
+ * same way as {@link RecordStorageEngine} applies any transaction. Within a segment, transactions changing the same record, or
+ * the properties of the same entity, are put into the same group and applied in log order by the same thread, while different
+ * groups are applied concurrently. Each transaction records its label, relationship type and index updates as seen by the store
+ * right after it has been applied. Once all groups of a segment are done the counts and the recorded updates are applied
+ * in log order by the calling thread.
+ */
+class ParallelRecoveryApplier
+{
+    private static final int NODE = 0;
+    private static final int RELATIONSHIP = 1;
+    private static final int RELATIONSHIP_GROUP = 2;
+    private static final int PROPERTY = 3;
+    private static final int DYNAMIC_LABEL = 4;
+    private static final int DYNAMIC_PROPERTY = 5;
+
+    private final RecordStorageEngine storageEngine;
+    private final Executor executor;
+    private final int threads;
+    private final NeoStores neoStores;
+    private final CacheAccessBackDoor cacheAccess;
+    private final Map<IdType,WorkSync<IdGenerator,IdGeneratorUpdateWork>> idGeneratorWorkSyncs;
+    private final CountsStore countsStore;
+    private final SchemaCache schemaCache;
+    private final IndexUpdateListener indexUpdateListener;
+    private final WorkSync<NodeLabelUpdateListener,LabelUpdateWork> labelScanStoreSync;
+    private final WorkSync<RelationshipTypeUpdateListener,RelationshipTypeUpdateWork> relationshipTypeScanStoreSync;
+    private final WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync;
+
+    ParallelRecoveryApplier( RecordStorageEngine storageEngine, Executor executor, int threads, NeoStores neoStores,
+            CacheAccessBackDoor cacheAccess, Map<IdType,WorkSync<IdGenerator,IdGeneratorUpdateWork>> idGeneratorWorkSyncs, CountsStore countsStore,
+            SchemaCache schemaCache, IndexUpdateListener indexUpdateListener, WorkSync<NodeLabelUpdateListener,LabelUpdateWork> labelScanStoreSync,
+            WorkSync<RelationshipTypeUpdateListener,RelationshipTypeUpdateWork> relationshipTypeScanStoreSync,
+            WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync )
+    {
+        this.storageEngine = storageEngine;
+        this.executor = executor;
+        this.threads = threads;
+        this.neoStores = neoStores;
+        this.cacheAccess = cacheAccess;
+        this.idGeneratorWorkSyncs = idGeneratorWorkSyncs;
+        this.countsStore = countsStore;
+        this.schemaCache = schemaCache;
+        this.indexUpdateListener = indexUpdateListener;
+        this.labelScanStoreSync = labelScanStoreSync;
+        this.relationshipTypeScanStoreSync = relationshipTypeScanStoreSync;
+        this.indexUpdatesSync = indexUpdatesSync;
+    }
+
+    void apply( CommandsToApply batch ) throws Exception
+    {
+        for ( Segment segment : partition( batch ) )
+        {
+            if ( segment.barrier )
+            {
+                applySequentially( segment.transactions.get( 0 ) );
+            }
+            else
+            {
+                applyConcurrently( segment );
+            }
+        }
+    }
+
+    private void applySequentially( CommandsToApply transaction ) throws Exception
+    {
+        try ( IndexActivator indexActivator = new IndexActivator( indexUpdateListener );
+              LockGroup locks = new LockGroup();
+              BatchTransactionApplier batchApplier = storageEngine.applier( RECOVERY, indexActivator );
+              TransactionApplier txApplier = batchApplier.startTx( transaction, locks ) )
+        {
+            transaction.accept( txApplier );
+        }
+    }
+
+    private void applyConcurrently( Segment segment ) throws Exception
+    {
+        RecordedUpdates[] recorded = new RecordedUpdates[segment.transactions.size()];
+        List<MutableIntList> buckets = new ArrayList<>();
+        for ( int i = 0; i < segment.groups.size(); i++ )
+        {
+            if ( buckets.size() < threads )
+            {
+                buckets.add( new IntArrayList() );
+            }
+            buckets.get( i % threads ).addAll( segment.groups.get( i ) );
+        }
+
+        if ( buckets.size() == 1 )
+        {
+            applyBucket( segment.transactions, buckets.get( 0 ), recorded );
+        }
+        else
+        {
+            List<FutureTask<Void>> tasks = new ArrayList<>( buckets.size() );
+            for ( IntList bucket : buckets )
+            {
+                FutureTask<Void> task = new FutureTask<>( () ->
+                {
+                    applyBucket( segment.transactions, bucket, recorded );
+                    return null;
+                } );
+                tasks.add( task );
+                executor.execute( task );
+            }
+            // Wait for all groups, even when one of them fails, so that nothing is left writing to the store
+            Exception failure = null;
+            for ( FutureTask<Void> task : tasks )
+            {
+                try
+                {
+                    task.get();
+                }
+                catch ( ExecutionException e )
+                {
+                    Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    failure = Exceptions.chain( failure, cause );
+                }
+            }
+            if ( failure != null )
+            {
+                throw failure;
+            }
+        }
+
+        applyInLogOrder( segment.transactions, recorded );
+    }
+
+    /**
+     * Applies the records of the given transactions and records their label, relationship type and index updates.
+     * None of the transactions in a bucket share records with transactions in other buckets.
+     */
+    private void applyBucket( List<CommandsToApply> transactions, IntList bucket, RecordedUpdates[] recorded ) throws Exception
+    {
+        try ( LockGroup locks = new LockGroup();
+              BatchTransactionApplier storeApplier = new BatchTransactionApplierFacade(
+                      new NeoStoreBatchTransactionApplier( RECOVERY, neoStores, cacheAccess, NO_LOCK_SERVICE, idGeneratorWorkSyncs ),
+                      new HighIdBatchTransactionApplier( neoStores ) ) )
+        {
+            for ( int i = 0; i < bucket.size(); i++ )
+            {
+                int index = bucket.get( i );
+                CommandsToApply transaction = transactions.get( index );
+                RecordedUpdates updates = new RecordedUpdates();
+                try ( IndexActivator indexActivator = new IndexActivator( updates.indexListener );
+                      BatchTransactionApplier indexApplier = new IndexBatchTransactionApplier( updates.indexListener,
+                              new WorkSync<>( updates.labelListener ),
+                              relationshipTypeScanStoreSync == null ? null : new WorkSync<>( updates.relationshipTypeListener ),
+                              new WorkSync<>( updates.indexListener ),
+                              neoStores.getNodeStore(), neoStores.getPropertyStore(), storageEngine, schemaCache, indexActivator ) )
+                {
+                    try ( TransactionApplier txApplier = new TransactionApplierFacade(
+                            storeApplier.startTx( transaction, locks ), indexApplier.startTx( transaction, locks ) ) )
+                    {
+                        transaction.accept( txApplier );
+                    }
+                }
+                recorded[index] = updates;
+            }
+        }
+    }
+
+    private void applyInLogOrder( List<CommandsToApply> transactions, RecordedUpdates[] recorded ) throws Exception
+    {
+        try ( BatchTransactionApplier countsApplier = new CountsStoreBatchTransactionApplier( countsStore, RECOVERY ) )
+        {
+            for ( CommandsToApply transaction : transactions )
+            {
+                try ( TransactionApplier txApplier = countsApplier.startTx( transaction ) )
+                {
+                    transaction.accept( txApplier );
+                }
+            }
+        }
+
+        List<NodeLabelUpdate> labelUpdates = new ArrayList<>();
+        List<NodeLabelUpdate> relationshipTypeUpdates = new ArrayList<>();
+        List<IndexEntryUpdate<IndexDescriptor>> indexUpdates = new ArrayList<>();
+        for ( RecordedUpdates updates : recorded )
+        {
+            labelUpdates.addAll( updates.labelUpdates );
+            relationshipTypeUpdates.addAll( updates.relationshipTypeUpdates );
+            indexUpdates.addAll( updates.indexUpdates );
+        }
+        if ( !labelUpdates.isEmpty() )
+        {
+            labelScanStoreSync.apply( new LabelUpdateWork( labelUpdates ) );
+        }
+        if ( !relationshipTypeUpdates.isEmpty() )
+        {
+            relationshipTypeScanStoreSync.apply( new RelationshipTypeUpdateWork( relationshipTypeUpdates ) );
+        }
+        if ( !indexUpdates.isEmpty() )
+        {
+            indexUpdatesSync.apply( new IndexUpdatesWork( new RecordedIndexUpdates( indexUpdates ) ) );
+        }
+    }
+
+    /**
+     * Splits the batch into segments of transactions which can be grouped and segments holding a single transaction which has to be
+     * applied on its own, in log order.
+     */
+    static List<Segment> partition( CommandsToApply batch ) throws IOException
+    {
+        List<Segment> segments = new ArrayList<>();
+        List<CommandsToApply> transactions = new ArrayList<>();
+        List<MutableLongSet> keys = new ArrayList<>();
+        for ( CommandsToApply transaction = batch; transaction != null; transaction = transaction.next() )
+        {
+            RecordKeys recordKeys = new RecordKeys();
+            transaction.accept( command -> ((Command) command).handle( recordKeys ) );
+            if ( recordKeys.barrier )
+            {
+                if ( !transactions.isEmpty() )
+                {
+                    segments.add( new Segment( transactions, group( keys ), false ) );
+                    transactions = new ArrayList<>();
+                    keys = new ArrayList<>();
+                }
+                segments.add( new Segment( List.of( transaction ), List.of(), true ) );
+            }
+            else
+            {
+                transactions.add( transaction );
+                keys.add( recordKeys.keys );
+            }
+        }
+        if ( !transactions.isEmpty() )
+        {
+            segments.add( new Segment( transactions, group( keys ), false ) );
+        }
+        return segments;
+    }
+
+    /**
+     * Groups transactions sharing any record key, transitively. Each group lists its transactions in log order.
+     */
+    private static List<IntList> group( List<MutableLongSet> keys )
+    {
+        int[] parents = new int[keys.size()];
+        MutableLongIntMap owners = new LongIntHashMap();
+        for ( int i = 0; i < parents.length; i++ )
+        {
+            parents[i] = i;
+            LongIterator iterator = keys.get( i ).longIterator();
+            while ( iterator.hasNext() )
+            {
+                int owner = owners.getIfAbsentPut( iterator.next(), i );
+                if ( owner != i )
+                {
+                    parents[root( parents, owner )] = root( parents, i );
+                }
+            }
+        }
+
+        MutableIntObjectMap<MutableIntList> groups = new IntObjectHashMap<>();
+        List<IntList> result = new ArrayList<>();
+        for ( int i = 0; i < parents.length; i++ )
+        {
+            MutableIntList group = groups.getIfAbsentPut( root( parents, i ), IntArrayList::new );
+            if ( group.isEmpty() )
+            {
+                result.add( group );
+            }
+            group.add( i );
+        }
+        return result;
+    }
+
+    private static int root( int[] parents, int index )
+    {
+        while ( parents[index] != index )
+        {
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+        return index;
+    }
+
+    static class Segment
+    {
+        final List<CommandsToApply> transactions;
+        final List<IntList> groups;
+        final boolean barrier;
+
+        Segment( List<CommandsToApply> transactions, List<IntList> groups, boolean barrier )
+        {
+            this.transactions = transactions;
+            this.groups = groups;
+            this.barrier = barrier;
+        }
+    }
+
+    /**
+     * Collects keys of the records a transaction changes. Property commands also add the key of the entity owning the property chain,
+     * since index updates for an entity are computed from all of its properties.
+     */
+    private static class RecordKeys extends CommandVisitor.Adapter
+    {
+        private final MutableLongSet keys = new LongHashSet();
+        private boolean barrier;
+
+        @Override
+        public boolean visitNodeCommand( NodeCommand command )
+        {
+            add( NODE, command.getKey() );
+            addDynamicLabels( command.getBefore() );
+            addDynamicLabels( command.getAfter() );
+            return false;
+        }
+
+        @Override
+        public boolean visitRelationshipCommand( RelationshipCommand command )
+        {
+            add( RELATIONSHIP, command.getKey() );
+            return false;
+        }
+
+        @Override
+        public boolean visitRelationshipGroupCommand( RelationshipGroupCommand command )
+        {
+            add( RELATIONSHIP_GROUP, command.getKey() );
+            return false;
+        }
+
+        @Override
+        public boolean visitPropertyCommand( PropertyCommand command )
+        {
+            PropertyRecord after = command.getAfter();
+            if ( after.isNodeSet() )
+            {
+                add( NODE, after.getNodeId() );
+            }
+            else if ( after.isRelSet() )
+            {
+                add( RELATIONSHIP, after.getRelId() );
+            }
+            else
+            {
+                // Schema properties, or properties we can't tell the owner of, are applied on their own
+                barrier = true;
+            }
+            add( PROPERTY, command.getKey() );
+            addDynamicValues( command.getBefore() );
+            addDynamicValues( after );
+            return false;
+        }
+
+        @Override
+        public boolean visitRelationshipTypeTokenCommand( Command.RelationshipTypeTokenCommand command )
+        {
+            barrier = true;
+            return false;
+        }
+
+        @Override
+        public boolean visitLabelTokenCommand( Command.LabelTokenCommand command )
+        {
+            barrier = true;
+            return false;
+        }
+
+        @Override
+        public boolean visitPropertyKeyTokenCommand( Command.PropertyKeyTokenCommand command )
+        {
+            barrier = true;
+            return false;
+        }
+
+        @Override
+        public boolean visitSchemaRuleCommand( Command.SchemaRuleCommand command )
+        {
+            barrier = true;
+            return false;
+        }
+
+        private void addDynamicLabels( NodeRecord node )
+        {
+            for ( DynamicRecord record : node.getDynamicLabelRecords() )
+            {
+                add( DYNAMIC_LABEL, record.getId() );
+            }
+        }
+
+        private void addDynamicValues( PropertyRecord property )
+        {
+            for ( PropertyBlock block : property )
+            {
+                for ( DynamicRecord record : block.getValueRecords() )
+                {
+                    add( DYNAMIC_PROPERTY, record.getId() );
+                }
+            }
+            for ( DynamicRecord record : property.getDeletedRecords() )
+            {
+                add( DYNAMIC_PROPERTY, record.getId() );
+            }
+        }
+
+        private void add( int store, long id )
+        {
+            // Strings and arrays share the dynamic property key space, which at worst groups a few more transactions together
+            keys.add( ((long) store << 56) | id );
+        }
+    }
+
+    /**
+     * Stands in for the real listeners while a transaction is applied by a worker, keeping its updates for {@link #applyInLogOrder}.
+     */
+    private static class RecordedUpdates
+    {
+        private final List<NodeLabelUpdate> labelUpdates = new ArrayList<>();
+        private final List<NodeLabelUpdate> relationshipTypeUpdates = new ArrayList<>();
+        private final List<IndexEntryUpdate<IndexDescriptor>> indexUpdates = new ArrayList<>();
+        private final NodeLabelUpdateListener labelListener = updates -> updates.forEach( labelUpdates::add );
+        private final RelationshipTypeUpdateListener relationshipTypeListener = updates -> updates.forEach( relationshipTypeUpdates::add );
+        private final IndexUpdateListener indexListener = new IndexUpdateListener.Adapter()
+        {
+            @Override
+            public void applyUpdates( Iterable<IndexEntryUpdate<IndexDescriptor>> updates )
+            {
+                updates.forEach( indexUpdates::add );
+            }
+        };
+    }
+
+    private static class RecordedIndexUpdates implements IndexUpdates
+    {
+        private final Collection<IndexEntryUpdate<IndexDescriptor>> updates;
+
+        RecordedIndexUpdates( Collection<IndexEntryUpdate<IndexDescriptor>> updates )
+        {
+            this.updates = updates;
+        }
+
+        @Override
+        public void feed( EntityCommandGrouper<NodeCommand>.Cursor nodeCommands, EntityCommandGrouper<RelationshipCommand>.Cursor relationshipCommands )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasUpdates()
+        {
+            return !updates.isEmpty();
+        }
+
+        @Override
+        public Iterator<IndexEntryUpdate<IndexDescriptor>> iterator()
+        {
+            return updates.iterator();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
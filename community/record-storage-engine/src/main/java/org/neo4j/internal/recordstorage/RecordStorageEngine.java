@@ -68,12 +68,15 @@ import org.neo4j.lock.ResourceLocker;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.monitoring.Health;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.CommandCreationContext;
 import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.ConstraintRuleAccessor;
 import org.neo4j.storageengine.api.IndexUpdateListener;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.NodeLabelUpdateListener;
+import org.neo4j.storageengine.api.RelationshipTypeUpdateListener;
 import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StorageReader;
@@ -108,7 +111,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final ConstraintRuleAccessor constraintSemantics;
     private final LockService lockService;
     private final boolean consistencyCheckApply;
+    private final int recoveryApplyThreads;
+    private final JobScheduler scheduler;
     private WorkSync<NodeLabelUpdateListener,LabelUpdateWork> labelScanStoreSync;
+    private WorkSync<RelationshipTypeUpdateListener,RelationshipTypeUpdateWork> relationshipTypeScanStoreSync;
     private WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync;
     private final IdController idController;
     private final GBPTreeCountsStore countsStore;
@@ -118,6 +124,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     // installed later
     private IndexUpdateListener indexUpdateListener;
     private NodeLabelUpdateListener nodeLabelUpdateListener;
+    private RelationshipTypeUpdateListener relationshipTypeUpdateListener;
 
     public RecordStorageEngine( DatabaseLayout databaseLayout,
             Config config,
@@ -135,6 +142,31 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
             boolean createStoreIfNotExists )
     {
+        this( databaseLayout, config, pageCache, fs, logProvider, tokenHolders, schemaState, constraintSemantics, indexConfigCompleter, lockService,
+                databaseHealth, idGeneratorFactory, idController, recoveryCleanupWorkCollector, null, createStoreIfNotExists );
+    }
+
+    /**
+     * @param scheduler used to apply recovered transactions concurrently, or {@code null} to always apply them on the recovering thread.
+     */
+    public RecordStorageEngine( DatabaseLayout databaseLayout,
+            Config config,
+            PageCache pageCache,
+            FileSystemAbstraction fs,
+            LogProvider logProvider,
+            TokenHolders tokenHolders,
+            SchemaState schemaState,
+            ConstraintRuleAccessor constraintSemantics,
+            IndexConfigCompleter indexConfigCompleter,
+            LockService lockService,
+            Health databaseHealth,
+            IdGeneratorFactory idGeneratorFactory,
+            IdController idController,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
+            JobScheduler scheduler,
+            boolean createStoreIfNotExists )
+    {
+        this.scheduler = scheduler;
         this.databaseLayout = databaseLayout;
         this.tokenHolders = tokenHolders;
         this.schemaState = schemaState;
@@ -163,6 +195,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             countsStore = openCountsStore( pageCache, databaseLayout, config, logProvider, recoveryCleanupWorkCollector );
 
             consistencyCheckApply = config.get( GraphDatabaseSettings.consistency_check_on_apply );
+            recoveryApplyThreads = config.get( GraphDatabaseSettings.recovery_apply_threads );
         }
         catch ( Throwable failure )
         {
@@ -233,6 +266,15 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         this.labelScanStoreSync = new WorkSync<>( listener );
     }
 
+    @Override
+    public void addRelationshipTypeUpdateListener( RelationshipTypeUpdateListener listener )
+    {
+        Preconditions.checkState( this.relationshipTypeUpdateListener == null,
+                "Only supports a single listener. Tried to add " + listener + ", but " + this.relationshipTypeUpdateListener + " has already been added" );
+        this.relationshipTypeUpdateListener = listener;
+        this.relationshipTypeScanStoreSync = new WorkSync<>( listener );
+    }
+
     /**
      * @throws TransactionFailureException if command generation fails or some prerequisite of some command didn't validate,
      * for example if trying to delete a node that still has relationships.
@@ -280,6 +322,12 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     @Override
     public void apply( CommandsToApply batch, TransactionApplicationMode mode ) throws Exception
     {
+        if ( mode == RECOVERY && recoveryApplyThreads > 1 && scheduler != null && !consistencyCheckApply && batch.next() != null )
+        {
+            applyRecovered( batch );
+            return;
+        }
+
         // Have these command appliers as separate try-with-resource to have better control over
         // point between closing this and the locks above
         CommandsToApply initialBatch = batch;
@@ -298,13 +346,34 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         }
         catch ( Throwable cause )
         {
-            TransactionApplyKernelException kernelException = new TransactionApplyKernelException(
-                    cause, "Failed to apply transaction: %s", batch == null ? initialBatch : batch );
-            databaseHealth.panic( kernelException );
-            throw kernelException;
+            throw applyFailure( cause, batch == null ? initialBatch : batch );
+        }
+    }
+
+    /**
+     * Applies a batch of recovered transactions, with transactions changing disjoint sets of records applied concurrently.
+     * See {@link ParallelRecoveryApplier}.
+     */
+    private void applyRecovered( CommandsToApply batch ) throws Exception
+    {
+        try
+        {
+            new ParallelRecoveryApplier( this, scheduler.executor( Group.RECOVERY_APPLY ), recoveryApplyThreads, neoStores, cacheAccess, idGeneratorWorkSyncs, countsStore,
+                    schemaCache, indexUpdateListener, labelScanStoreSync, relationshipTypeScanStoreSync, indexUpdatesSync ).apply( batch );
+        }
+        catch ( Throwable cause )
+        {
+            throw applyFailure( cause, batch );
         }
     }
 
+    private TransactionApplyKernelException applyFailure( Throwable cause, CommandsToApply batch )
+    {
+        TransactionApplyKernelException kernelException = new TransactionApplyKernelException( cause, "Failed to apply transaction: %s", batch );
+        databaseHealth.panic( kernelException );
+        return kernelException;
+    }
+
     /**
      * Creates a {@link BatchTransactionApplierFacade} that is to be used for all transactions
      * in a batch. Each transaction is handled by a {@link TransactionApplierFacade} which wraps the
@@ -335,7 +404,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             appliers.add( new CountsStoreBatchTransactionApplier( countsStore, mode ) );
 
             // Schema index application
-            appliers.add( new IndexBatchTransactionApplier( indexUpdateListener, labelScanStoreSync, indexUpdatesSync,
+            appliers.add( new IndexBatchTransactionApplier( indexUpdateListener, labelScanStoreSync, relationshipTypeScanStoreSync, indexUpdatesSync,
                     neoStores.getNodeStore(), neoStores.getPropertyStore(), this, schemaCache, indexActivator ) );
         }
 
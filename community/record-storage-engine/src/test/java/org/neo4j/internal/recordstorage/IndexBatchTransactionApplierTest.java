@@ -21,7 +21,11 @@ package org.neo4j.internal.recordstorage;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipCommand;
 import org.neo4j.internal.schema.IndexDescriptor;
 import org.neo4j.internal.schema.IndexPrototype;
 import org.neo4j.internal.schema.IndexProviderDescriptor;
@@ -31,13 +35,16 @@ import org.neo4j.kernel.impl.store.NodeLabelsField;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.kernel.impl.store.record.SchemaRecord;
 import org.neo4j.storageengine.api.IndexUpdateListener;
 import org.neo4j.storageengine.api.NodeLabelUpdate;
 import org.neo4j.storageengine.api.NodeLabelUpdateListener;
+import org.neo4j.storageengine.api.RelationshipTypeUpdateListener;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.util.concurrent.WorkSync;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -59,7 +66,7 @@ class IndexBatchTransactionApplierTest
         WorkSync<NodeLabelUpdateListener,LabelUpdateWork> labelScanSync = spy( new WorkSync<>( listener ) );
         WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexUpdateListener );
         PropertyStore propertyStore = mock( PropertyStore.class );
-        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexUpdateListener, labelScanSync, indexUpdatesSync,
+        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexUpdateListener, labelScanSync, null, indexUpdatesSync,
                 mock( NodeStore.class ), propertyStore,
                 mock( StorageEngine.class ), mock( SchemaCache.class ), new IndexActivator( indexUpdateListener ) ) )
         {
@@ -76,6 +83,38 @@ class IndexBatchTransactionApplierTest
         verify( labelScanSync ).applyAsync( any() );
     }
 
+    @Test
+    void shouldProvideRelationshipTypeScanStoreUpdatesForCreatedAndDeletedRelationships() throws Exception
+    {
+        // GIVEN
+        IndexUpdateListener indexUpdateListener = mock( IndexUpdateListener.class );
+        List<NodeLabelUpdate> typeUpdates = new ArrayList<>();
+        RelationshipTypeUpdateListener typeListener = updates -> updates.forEach( typeUpdates::add );
+        WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexUpdateListener );
+        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexUpdateListener,
+                new WorkSync<>( new OrderVerifyingUpdateListener() ), new WorkSync<>( typeListener ), indexUpdatesSync,
+                mock( NodeStore.class ), mock( PropertyStore.class ),
+                mock( StorageEngine.class ), mock( SchemaCache.class ), new IndexActivator( indexUpdateListener ) ) )
+        {
+            try ( TransactionApplier txApplier = applier.startTx( new GroupOfCommands() ) )
+            {
+                // WHEN
+                txApplier.visitRelationshipCommand( relationship( 7, 3, false, true ) );
+                txApplier.visitRelationshipCommand( relationship( 4, 2, true, false ) );
+                txApplier.visitRelationshipCommand( relationship( 5, 2, true, true ) );
+            }
+        }
+
+        // THEN updates are sorted by relationship id and unchanged relationships are not included
+        assertEquals( 2, typeUpdates.size() );
+        assertEquals( 4, typeUpdates.get( 0 ).getNodeId() );
+        assertArrayEquals( new long[]{2}, typeUpdates.get( 0 ).getLabelsBefore() );
+        assertArrayEquals( new long[0], typeUpdates.get( 0 ).getLabelsAfter() );
+        assertEquals( 7, typeUpdates.get( 1 ).getNodeId() );
+        assertArrayEquals( new long[0], typeUpdates.get( 1 ).getLabelsBefore() );
+        assertArrayEquals( new long[]{3}, typeUpdates.get( 1 ).getLabelsAfter() );
+    }
+
     @Test
     void shouldRegisterIndexesToActivateIntoTheActivator() throws Exception
     {
@@ -97,7 +136,7 @@ class IndexBatchTransactionApplierTest
         IndexDescriptor rule1 = uniqueForSchema( forLabel( 1, 1 ), providerKey, providerVersion, indexId1, constraintId1 );
         IndexDescriptor rule2 = uniqueForSchema( forLabel( 2, 1 ), providerKey, providerVersion, indexId2, constraintId2 );
         IndexDescriptor rule3 = uniqueForSchema( forLabel( 3, 1 ), providerKey, providerVersion, indexId3, constraintId3 );
-        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexUpdateListener, labelScanSync,
+        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexUpdateListener, labelScanSync, null,
                 indexUpdatesSync, mock( NodeStore.class ), propertyStore,
                 mock( StorageEngine.class ), mock( SchemaCache.class ), indexActivator ) )
         {
@@ -147,6 +186,15 @@ class IndexBatchTransactionApplierTest
         return new NodeCommand( new NodeRecord( nodeId ), after );
     }
 
+    private RelationshipCommand relationship( long relationshipId, int type, boolean inUseBefore, boolean inUseAfter )
+    {
+        RelationshipRecord before = new RelationshipRecord( relationshipId, 1, 2, type );
+        before.setInUse( inUseBefore );
+        RelationshipRecord after = new RelationshipRecord( relationshipId, 1, 2, type );
+        after.setInUse( inUseAfter );
+        return new RelationshipCommand( before, after );
+    }
+
     private static class OrderVerifyingUpdateListener implements NodeLabelUpdateListener
     {
         private final long[] expectedNodeIds;
@@ -869,7 +869,7 @@ class NeoStoreTransactionApplierTest
 
     private BatchTransactionApplier newIndexApplier()
     {
-        return new IndexBatchTransactionApplier( indexingService, labelScanStoreSynchronizer,
+        return new IndexBatchTransactionApplier( indexingService, labelScanStoreSynchronizer, null,
                 indexUpdatesSync, nodeStore, propertyStore,
                 mock( StorageEngine.class ), schemaCache, indexActivator );
     }
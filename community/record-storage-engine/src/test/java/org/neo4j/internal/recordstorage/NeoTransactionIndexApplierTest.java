@@ -77,7 +77,7 @@ class NeoTransactionIndexApplierTest
     private IndexBatchTransactionApplier newIndexTransactionApplier()
     {
         PropertyStore propertyStore = mock( PropertyStore.class );
-        return new IndexBatchTransactionApplier( indexingService, labelScanStoreSynchronizer, indexUpdatesSync, mock( NodeStore.class ),
+        return new IndexBatchTransactionApplier( indexingService, labelScanStoreSynchronizer, null, indexUpdatesSync, mock( NodeStore.class ),
                 propertyStore, mock( StorageEngine.class ), schemaCache, new IndexActivator( indexingService ) );
     }
 
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import org.neo4j.internal.recordstorage.Command.LabelTokenCommand;
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipCommand;
+import org.neo4j.internal.recordstorage.ParallelRecoveryApplier.Segment;
+import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static java.util.stream.Collectors.toSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelRecoveryApplierTest
+{
+    @Test
+    void shouldGroupTransactionsChangingTheSameRecords() throws Exception
+    {
+        GroupOfCommands batch = batch(
+                transaction( 1, node( 1 ) ),
+                transaction( 2, node( 2 ) ),
+                transaction( 3, relationship( 10 ) ),
+                transaction( 4, node( 1 ) ),
+                transaction( 5, relationship( 10 ), node( 3 ) ) );
+
+        List<Segment> segments = ParallelRecoveryApplier.partition( batch );
+
+        assertEquals( 1, segments.size() );
+        assertGroups( segments.get( 0 ), IntArrayList.newListWith( 0, 3 ), IntArrayList.newListWith( 1 ), IntArrayList.newListWith( 2, 4 ) );
+    }
+
+    @Test
+    void shouldGroupPropertyChangesWithTheirOwner() throws Exception
+    {
+        GroupOfCommands batch = batch(
+                transaction( 1, node( 1 ) ),
+                transaction( 2, nodeProperty( 20, 1 ) ),
+                transaction( 3, nodeProperty( 21, 2 ) ),
+                transaction( 4, node( 2 ) ) );
+
+        List<Segment> segments = ParallelRecoveryApplier.partition( batch );
+
+        assertEquals( 1, segments.size() );
+        assertGroups( segments.get( 0 ), IntArrayList.newListWith( 0, 1 ), IntArrayList.newListWith( 2, 3 ) );
+    }
+
+    @Test
+    void shouldApplyTokenTransactionsOnTheirOwn() throws Exception
+    {
+        GroupOfCommands batch = batch(
+                transaction( 1, node( 1 ) ),
+                transaction( 2, node( 2 ) ),
+                transaction( 3, new LabelTokenCommand( new LabelTokenRecord( 0 ), new LabelTokenRecord( 0 ) ) ),
+                transaction( 4, node( 1 ) ) );
+
+        List<Segment> segments = ParallelRecoveryApplier.partition( batch );
+
+        assertEquals( 3, segments.size() );
+        assertFalse( segments.get( 0 ).barrier );
+        assertGroups( segments.get( 0 ), IntArrayList.newListWith( 0 ), IntArrayList.newListWith( 1 ) );
+        assertTrue( segments.get( 1 ).barrier );
+        assertEquals( 3, segments.get( 1 ).transactions.get( 0 ).transactionId() );
+        assertFalse( segments.get( 2 ).barrier );
+        assertEquals( 4, segments.get( 2 ).transactions.get( 0 ).transactionId() );
+    }
+
+    @Test
+    void shouldApplySchemaPropertyChangesOnTheirOwn() throws Exception
+    {
+        PropertyRecord schemaProperty = new PropertyRecord( 30 );
+        schemaProperty.setSchemaRuleId( 1 );
+        GroupOfCommands batch = batch(
+                transaction( 1, node( 1 ) ),
+                transaction( 2, new PropertyCommand( new PropertyRecord( 30 ), schemaProperty ) ) );
+
+        List<Segment> segments = ParallelRecoveryApplier.partition( batch );
+
+        assertEquals( 2, segments.size() );
+        assertTrue( segments.get( 1 ).barrier );
+    }
+
+    private static void assertGroups( Segment segment, IntList... expected )
+    {
+        assertEquals( Set.of( expected ), segment.groups.stream().collect( toSet() ) );
+    }
+
+    private static GroupOfCommands batch( GroupOfCommands... transactions )
+    {
+        for ( int i = 1; i < transactions.length; i++ )
+        {
+            transactions[i - 1].next = transactions[i];
+        }
+        return transactions[0];
+    }
+
+    private static GroupOfCommands transaction( long transactionId, StorageCommand... commands )
+    {
+        return new GroupOfCommands( transactionId, commands );
+    }
+
+    private static NodeCommand node( long id )
+    {
+        return new NodeCommand( new NodeRecord( id ), new NodeRecord( id ) );
+    }
+
+    private static RelationshipCommand relationship( long id )
+    {
+        return new RelationshipCommand( new RelationshipRecord( id ), new RelationshipRecord( id ) );
+    }
+
+    private static PropertyCommand nodeProperty( long id, long nodeId )
+    {
+        PropertyRecord after = new PropertyRecord( id );
+        after.setNodeId( nodeId );
+        return new PropertyCommand( new PropertyRecord( id ), after );
+    }
+}
@@ -52,7 +52,7 @@ class PhysicalLogCommandReadersTest
     private static final long OWNING_NODE = 42;
 
     @ParameterizedTest
-    @ValueSource( classes = {PhysicalLogCommandReaderV3_0_10.class, PhysicalLogCommandReaderV4_0.class} )
+    @ValueSource( classes = {PhysicalLogCommandReaderV3_0_10.class, PhysicalLogCommandReaderV4_0.class, PhysicalLogCommandReaderV4_0_1.class} )
     void readRelGroupWithHugeType( Class<CommandReader> readerClass )
             throws IOException, IllegalAccessException, InstantiationException, NoSuchMethodException, InvocationTargetException
     {
@@ -175,9 +175,10 @@ class RecordStorageEngineTest
         RecordStorageEngine engine = buildRecordStorageEngine();
         final Collection<StoreFileMetadata> files = engine.listStorageFiles();
         Set<File> currentFiles = files.stream().map( StoreFileMetadata::file ).collect( Collectors.toSet() );
-        // current engine files should contain everything except another count store file and label scan store
+        // current engine files should contain everything except another count store file and token scan stores
         Set<File> allPossibleFiles = databaseLayout.storeFiles();
         allPossibleFiles.remove( databaseLayout.labelScanStore() );
+        allPossibleFiles.remove( databaseLayout.relationshipTypeScanStore() );
         allPossibleFiles.remove( databaseLayout.indexStatisticsStore() );
 
         assertEquals( allPossibleFiles, currentFiles );
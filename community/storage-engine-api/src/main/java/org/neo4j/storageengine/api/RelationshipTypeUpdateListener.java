@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api;
+
+/**
+ * Receives relationship type changes, i.e. relationships being created or deleted. Each change is represented as a
+ * {@link NodeLabelUpdate} where {@link NodeLabelUpdate#getNodeId()} is the relationship id and the labels before and after
+ * contain the type of the relationship if it existed before and after the change, respectively.
+ */
+public interface RelationshipTypeUpdateListener
+{
+    /**
+     * Applies relationship type updates from changes in underlying storage.
+     * @param typeUpdates stream of updates to apply.
+     */
+    void applyRelationshipTypeUpdates( Iterable<NodeLabelUpdate> typeUpdates );
+
+    class Adapter implements RelationshipTypeUpdateListener
+    {
+        @Override
+        public void applyRelationshipTypeUpdates( Iterable<NodeLabelUpdate> typeUpdates )
+        {
+        }
+    }
+}
@@ -59,6 +59,13 @@ public interface StorageEngine extends Lifecycle
      */
     void addNodeLabelUpdateListener( NodeLabelUpdateListener nodeLabelUpdateListener );
 
+    /**
+     * Adds an {@link RelationshipTypeUpdateListener} which will receive streams of relationship type updates from changes that gets
+     * {@link #apply(CommandsToApply, TransactionApplicationMode) applied} to this storage engine.
+     * @param relationshipTypeUpdateListener {@link RelationshipTypeUpdateListener} to add.
+     */
+    void addRelationshipTypeUpdateListener( RelationshipTypeUpdateListener relationshipTypeUpdateListener );
+
     /**
      * Generates a list of {@link StorageCommand commands} representing the changes in the given transaction state
      * ({@code state}.
@@ -49,6 +49,12 @@ public class DelegatingPagedFile implements PagedFile
         return delegate.getLastPageId();
     }
 
+    @Override
+    public int touch( long pageId, int count ) throws IOException
+    {
+        return delegate.touch( pageId, count );
+    }
+
     @Override
     public int pageSize()
     {
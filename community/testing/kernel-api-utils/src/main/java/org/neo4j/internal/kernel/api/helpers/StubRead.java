@@ -80,6 +80,18 @@ public class StubRead implements Read
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Scan<NodeValueIndexCursor> nodeIndexScan( IndexReadSession index, int desiredNumberOfPartitions, boolean needsValues )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Scan<NodeValueIndexCursor> nodeIndexSeek( IndexReadSession index, int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void nodeLabelScan( int label, NodeLabelIndexCursor cursor )
     {
@@ -92,6 +104,30 @@ public class StubRead implements Read
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void nodeLabelIntersectionScan( int[] labels, NodeLabelIndexCursor cursor )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Scan<NodeLabelIndexCursor> nodeLabelIntersectionScan( int... labels )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void nodeLabelUnionScan( int[] labels, NodeLabelIndexCursor cursor )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Scan<NodeLabelIndexCursor> nodeLabelUnionScan( int... labels )
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void allNodesScan( NodeCursor cursor )
     {
@@ -182,6 +218,12 @@ public class StubRead implements Read
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Scan<RelationshipScanCursor> relationshipTypeScan( int type )
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void relationships( long nodeReference, long reference, RelationshipTraversalCursor cursor )
     {
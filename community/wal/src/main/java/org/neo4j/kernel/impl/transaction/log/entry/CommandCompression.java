@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.util.Native;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compression of the command entries of a transaction, as written in a {@link LogEntryByteCodes#COMPRESSED_COMMANDS} log entry.
+ * The command entries are compressed as one block with zstd, using a low compression level since compression happens on the commit path.
+ */
+public final class CommandCompression
+{
+    /**
+     * Upper bound on the number of command bytes compressed into one entry, any larger length read from the log is considered corrupt.
+     */
+    public static final int MAX_UNCOMPRESSED_LENGTH = 1 << 30;
+    private static final int COMPRESSION_LEVEL = 1;
+    private static final boolean AVAILABLE = loadNativeLibrary();
+
+    private CommandCompression()
+    {
+        throw new AssertionError( "No instances" );
+    }
+
+    /**
+     * @return {@code true} if the native compression library could be loaded on this platform, otherwise commands cannot be compressed.
+     */
+    public static boolean isAvailable()
+    {
+        return AVAILABLE;
+    }
+
+    /**
+     * Compress the first {@code length} bytes of {@code source}.
+     *
+     * @return the compressed bytes, or {@code null} if the compressed form would not be smaller than the source.
+     */
+    public static byte[] compress( byte[] source, int length )
+    {
+        byte[] target = new byte[(int) Zstd.compressBound( length )];
+        long compressedLength = Zstd.compressByteArray( target, 0, target.length, source, 0, length, COMPRESSION_LEVEL );
+        if ( Zstd.isError( compressedLength ) || compressedLength >= length )
+        {
+            return null;
+        }
+        return Arrays.copyOf( target, (int) compressedLength );
+    }
+
+    /**
+     * Decompress {@code compressed} into a new array of exactly {@code uncompressedLength} bytes.
+     *
+     * @throws IOException if the compressed bytes are corrupt or do not decompress into the expected number of bytes.
+     */
+    public static byte[] decompress( byte[] compressed, int uncompressedLength ) throws IOException
+    {
+        if ( !AVAILABLE )
+        {
+            throw new IOException( "Transaction log contains compressed commands, but the native zstd library could not be loaded" );
+        }
+        byte[] target = new byte[uncompressedLength];
+        long decompressedLength = Zstd.decompressByteArray( target, 0, uncompressedLength, compressed, 0, compressed.length );
+        if ( Zstd.isError( decompressedLength ) )
+        {
+            throw new IOException( "Unable to decompress commands: " + Zstd.getErrorName( decompressedLength ) );
+        }
+        if ( decompressedLength != uncompressedLength )
+        {
+            throw new IOException( "Expected " + uncompressedLength + " bytes of decompressed commands, but got " + decompressedLength );
+        }
+        return target;
+    }
+
+    private static boolean loadNativeLibrary()
+    {
+        try
+        {
+            Native.load();
+            return Native.isLoaded();
+        }
+        catch ( Throwable t )
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.fs.ReadableChecksumChannel;
+
+/**
+ * Reads the command entries out of a decompressed {@link LogEntryCompressedCommands} entry. The checksum of those bytes is
+ * covered by the checksum of the surrounding transaction, which is validated on the log channel itself.
+ */
+class DecompressedCommandsChannel implements ReadableChecksumChannel
+{
+    private final ByteBuffer buffer;
+
+    DecompressedCommandsChannel( byte[] commands )
+    {
+        this.buffer = ByteBuffer.wrap( commands );
+    }
+
+    boolean hasRemaining()
+    {
+        return buffer.hasRemaining();
+    }
+
+    @Override
+    public byte get() throws IOException
+    {
+        return ensure( Byte.BYTES ).get();
+    }
+
+    @Override
+    public short getShort() throws IOException
+    {
+        return ensure( Short.BYTES ).getShort();
+    }
+
+    @Override
+    public int getInt() throws IOException
+    {
+        return ensure( Integer.BYTES ).getInt();
+    }
+
+    @Override
+    public long getLong() throws IOException
+    {
+        return ensure( Long.BYTES ).getLong();
+    }
+
+    @Override
+    public float getFloat() throws IOException
+    {
+        return ensure( Float.BYTES ).getFloat();
+    }
+
+    @Override
+    public double getDouble() throws IOException
+    {
+        return ensure( Double.BYTES ).getDouble();
+    }
+
+    @Override
+    public void get( byte[] bytes, int length ) throws IOException
+    {
+        ensure( length ).get( bytes, 0, length );
+    }
+
+    @Override
+    public void beginChecksum()
+    {
+        throw new UnsupportedOperationException( "Compressed commands can not contain a checksum" );
+    }
+
+    @Override
+    public int endChecksumAndValidate()
+    {
+        throw new UnsupportedOperationException( "Compressed commands can not contain a checksum" );
+    }
+
+    @Override
+    public void close()
+    {
+    }
+
+    private ByteBuffer ensure( int bytes )
+    {
+        if ( buffer.remaining() < bytes )
+        {
+            // The compressed entry was complete in the log, so its content being truncated means the content is corrupt
+            throw new IllegalStateException( "Decompressed commands ended unexpectedly, " + bytes + " bytes requested but only " +
+                    buffer.remaining() + " remaining" );
+        }
+        return buffer;
+    }
+}
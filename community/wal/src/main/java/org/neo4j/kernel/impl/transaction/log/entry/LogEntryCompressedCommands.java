@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMPRESSED_COMMANDS;
+
+/**
+ * The decompressed command entries of a transaction. Never handed out by {@link VersionAwareLogEntryReader}, which instead
+ * reads the {@link LogEntryCommand command entries} contained in it one by one.
+ */
+class LogEntryCompressedCommands extends AbstractLogEntry
+{
+    private final byte[] commands;
+
+    LogEntryCompressedCommands( LogEntryVersion version, byte[] commands )
+    {
+        super( version, COMPRESSED_COMMANDS );
+        this.commands = commands;
+    }
+
+    DecompressedCommandsChannel channel()
+    {
+        return new DecompressedCommandsChannel( commands );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CompressedCommands[" + commands.length + " bytes]";
+    }
+}
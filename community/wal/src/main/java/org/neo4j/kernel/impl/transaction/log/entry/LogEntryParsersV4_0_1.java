@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.IOException;
+
+import org.neo4j.io.fs.ReadableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
+import org.neo4j.storageengine.api.CommandReaderFactory;
+
+import static org.neo4j.kernel.impl.transaction.log.entry.CommandCompression.MAX_UNCOMPRESSED_LENGTH;
+
+/**
+ * Same entries as {@link LogEntryParsersV4_0}, with the addition of {@link LogEntryByteCodes#COMPRESSED_COMMANDS}.
+ */
+public enum LogEntryParsersV4_0_1 implements LogEntryParser
+{
+    TX_START
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableChecksumChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    return LogEntryParsersV4_0.TX_START.parse( version, channel, marker, commandReader );
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.TX_START;
+                }
+            },
+
+    COMMAND
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableChecksumChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    return LogEntryParsersV4_0.COMMAND.parse( version, channel, marker, commandReader );
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.COMMAND;
+                }
+            },
+
+    TX_COMMIT
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableChecksumChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    return LogEntryParsersV4_0.TX_COMMIT.parse( version, channel, marker, commandReader );
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.TX_COMMIT;
+                }
+            },
+
+    CHECK_POINT
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableChecksumChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    return LogEntryParsersV4_0.CHECK_POINT.parse( version, channel, marker, commandReader );
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.CHECK_POINT;
+                }
+            },
+
+    COMPRESSED_COMMANDS
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableChecksumChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    int uncompressedLength = channel.getInt();
+                    int compressedLength = channel.getInt();
+                    // Compressed commands are only ever written when they are smaller than the uncompressed ones
+                    if ( uncompressedLength <= 0 || uncompressedLength > MAX_UNCOMPRESSED_LENGTH ||
+                         compressedLength <= 0 || compressedLength >= uncompressedLength )
+                    {
+                        throw new IOException( "Corrupt compressed commands entry, with compressed length " + compressedLength +
+                                " and uncompressed length " + uncompressedLength );
+                    }
+                    byte[] compressed = new byte[compressedLength];
+                    channel.get( compressed, compressedLength );
+                    return new LogEntryCompressedCommands( version, CommandCompression.decompress( compressed, uncompressedLength ) );
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.COMPRESSED_COMMANDS;
+                }
+            }
+}
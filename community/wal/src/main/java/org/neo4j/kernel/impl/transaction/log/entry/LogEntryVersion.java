@@ -61,7 +61,10 @@ public enum LogEntryVersion
     // * New schema store format, where the schema store payload is stored in the property store.
     // * Removed master and author id from transactions
     // * Added checksum to transactions
-    V4_0( (byte) 1, LogEntryParsersV4_0.class );
+    V4_0( (byte) 1, LogEntryParsersV4_0.class ),
+    // Version 4.0.1
+    // * Added compressed command entries, holding all command entries of a transaction
+    V4_0_1( (byte) 2, LogEntryParsersV4_0_1.class );
 
     public static final LogEntryVersion LATEST_VERSION;
     private static final byte LOWEST_VERSION;
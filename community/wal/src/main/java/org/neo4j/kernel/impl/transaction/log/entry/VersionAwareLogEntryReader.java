@@ -50,6 +50,7 @@ public class VersionAwareLogEntryReader implements LogEntryReader
     private final boolean verifyChecksumChain;
     private LogEntryVersion version = LogEntryVersion.LATEST_VERSION;
     private int lastTxChecksum = BASE_TX_CHECKSUM;
+    private DecompressedCommandsChannel compressedCommands;
 
     public VersionAwareLogEntryReader()
     {
@@ -82,6 +83,15 @@ public class VersionAwareLogEntryReader implements LogEntryReader
             {
                 channel.getCurrentPosition( positionMarker );
 
+                if ( compressedCommands != null )
+                {
+                    if ( compressedCommands.hasRemaining() )
+                    {
+                        return readCompressedCommand();
+                    }
+                    compressedCommands = null;
+                }
+
                 byte versionCode = channel.get();
                 if ( versionCode == 0 )
                 {
@@ -129,6 +139,13 @@ public class VersionAwareLogEntryReader implements LogEntryReader
                     throw new IOException( e );
                 }
 
+                if ( entry instanceof LogEntryCompressedCommands )
+                {
+                    // Serve the contained command entries one by one before continuing with the log channel
+                    compressedCommands = ((LogEntryCompressedCommands) entry).channel();
+                    continue;
+                }
+
                 verifyChecksumChain( entry );
                 return entry;
             }
@@ -139,6 +156,27 @@ public class VersionAwareLogEntryReader implements LogEntryReader
         }
     }
 
+    private LogEntry readCompressedCommand() throws IOException
+    {
+        try
+        {
+            LogEntryVersion commandVersion = byVersion( compressedCommands.get() );
+            byte typeCode = compressedCommands.get();
+            if ( typeCode != LogEntryByteCodes.COMMAND )
+            {
+                throw new IllegalStateException( "Compressed commands can only contain command entries, but found entry type " + typeCode );
+            }
+            return commandVersion.entryParser( typeCode ).parse( commandVersion, compressedCommands, positionMarker, commandReaderFactory );
+        }
+        catch ( Exception e )
+        {
+            LogPosition position = positionMarker.newPosition();
+            withMessage( e, e.getMessage() + ". In compressed commands ending at position " + position + " and entry version " + version );
+            throwIfInstanceOf( e, UnsupportedLogVersionException.class );
+            throw new IOException( e );
+        }
+    }
+
     private void verifyChecksumChain( LogEntry e )
     {
         if ( VERIFY_CHECKSUM_CHAIN && verifyChecksumChain )
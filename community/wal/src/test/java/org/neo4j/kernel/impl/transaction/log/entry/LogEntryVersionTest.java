@@ -60,6 +60,7 @@ class LogEntryVersionTest
     void moreRecent()
     {
         assertTrue( LogEntryVersion.moreRecentVersionExists( LogEntryVersion.V3_0_10 ) );
-        assertFalse( LogEntryVersion.moreRecentVersionExists( LogEntryVersion.V4_0 ) );
+        assertTrue( LogEntryVersion.moreRecentVersionExists( LogEntryVersion.V4_0 ) );
+        assertFalse( LogEntryVersion.moreRecentVersionExists( LogEntryVersion.V4_0_1 ) );
     }
 }